@@ -0,0 +1,120 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Json;
+import com.openshop.database.audit.AuditOperation;
+import com.openshop.database.audit.AuditRecord;
+import com.openshop.database.audit.AuditWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit log writes inserted one row per mutation in their own transaction (before) and queued
+ * for {@link AuditWriter}, which inserts them in multi-row batches off the calling thread (after).
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar AuditBenchmark -p dialect=POSTGRESQL}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class AuditBenchmark {
+
+    /**
+     * One writer per JVM, as an application node would hold it.
+     */
+    @State(Scope.Benchmark)
+    public static class Writer {
+
+        AuditWriter writer;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) {
+            writer = new AuditWriter(db.database.dataSource(), db.dialect);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            // Includes writing the backlog, which the queued score does not show
+            writer.close();
+        }
+    }
+
+    /**
+     * Per-thread connection with the single-row insert prepared up front.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+        PreparedStatement insert;
+        final StringBuilder json = new StringBuilder(128);
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            connection = db.database.connect();
+            insert = connection.prepareStatement(db.dialect == Dialect.POSTGRESQL
+                    ? "INSERT INTO audit_log (table_name, operation_type, record_id, old_values, new_values, changed_by, "
+                    + "changed_at) VALUES (?, CAST(? AS operation_type), ?, CAST(? AS jsonb), CAST(? AS jsonb), ?, ?)"
+                    : "INSERT INTO audit_log (table_name, operation_type, record_id, old_values, new_values, changed_by, "
+                    + "changed_at) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void auditInsertPerMutation(Session session) throws SQLException {
+        AuditRecord record = record();
+        PreparedStatement insert = session.insert;
+        insert.setString(1, record.tableName());
+        insert.setString(2, record.operation().name());
+        insert.setString(3, record.recordId());
+        insert.setString(4, json(session.json, record.oldValues()));
+        insert.setString(5, json(session.json, record.newValues()));
+        insert.setString(6, record.changedBy());
+        insert.setTimestamp(7, Timestamp.from(record.changedAt()));
+        insert.executeUpdate();
+    }
+
+    @Benchmark
+    public void auditQueuedForBatchWriter(Writer writer) throws InterruptedException {
+        writer.writer.append(record());
+    }
+
+    private static AuditRecord record() {
+        int price = ThreadLocalRandom.current().nextInt(1_000, 10_000);
+        return AuditRecord.of("products", AuditOperation.UPDATE, String.valueOf(price),
+                Map.of("min_price", price), Map.of("min_price", price + 100), "admin");
+    }
+
+    private static String json(StringBuilder buffer, Map<String, ?> values) {
+        buffer.setLength(0);
+        Json.write(values, buffer);
+        return buffer.toString();
+    }
+}
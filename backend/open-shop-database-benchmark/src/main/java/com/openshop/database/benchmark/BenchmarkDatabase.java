@@ -0,0 +1,155 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.DriverManagerDataSource;
+import com.openshop.database.callback.MigrationMetricsCallback;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Database under benchmark.
+ * Starts the same containers as the schema tests, or connects to an external database
+ * when {@code openshop.bench.<dialect>.url} (plus {@code .user} and {@code .password}) is set.
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    /**
+     * Directory holding the per-dialect migration folders, relative to the benchmark module.
+     */
+    private static final String MIGRATION_ROOT =
+            System.getProperty("openshop.migration.root", "../open-shop-database/db/migration");
+
+    private final Dialect dialect;
+    private final GenericContainer<?> container;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+
+    private BenchmarkDatabase(Dialect dialect, GenericContainer<?> container,
+                              String jdbcUrl, String username, String password) {
+        this.dialect = dialect;
+        this.container = container;
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Starts (or connects to) a database for the given dialect.
+     */
+    public static BenchmarkDatabase start(Dialect dialect) {
+        String prefix = "openshop.bench." + dialect.id() + ".";
+        String externalUrl = System.getProperty(prefix + "url");
+        if (externalUrl != null) {
+            return new BenchmarkDatabase(dialect, null, externalUrl,
+                    System.getProperty(prefix + "user"), System.getProperty(prefix + "password"));
+        }
+
+        return switch (dialect) {
+            case POSTGRESQL -> {
+                GenericContainer<?> postgres = new GenericContainer<>(
+                        System.getProperty(prefix + "image", "postgres:15"))
+                        .withExposedPorts(5432)
+                        .withEnv("POSTGRES_DB", Dialect.SCHEMA_NAME)
+                        .withEnv("POSTGRES_USER", "openshop")
+                        .withEnv("POSTGRES_PASSWORD", "passwordtest")
+                        .withEnv("POSTGRES_HOST_AUTH_METHOD", "trust")
+                        .waitingFor(Wait.forListeningPort())
+                        .withStartupTimeout(Duration.ofMinutes(5));
+                postgres.start();
+                yield new BenchmarkDatabase(dialect, postgres,
+                        "jdbc:postgresql://localhost:" + postgres.getMappedPort(5432) + "/" + Dialect.SCHEMA_NAME
+                                + "?reWriteBatchedInserts=true",
+                        "openshop", "passwordtest");
+            }
+            case MYSQL -> {
+                GenericContainer<?> mysql = new GenericContainer<>(
+                        System.getProperty(prefix + "image", "mysql:9.0"))
+                        .withExposedPorts(3306)
+                        .withEnv("MYSQL_ROOT_PASSWORD", "rootpassword")
+                        .withEnv("MYSQL_DATABASE", Dialect.SCHEMA_NAME)
+                        .withEnv("MYSQL_USER", "openshop")
+                        .withEnv("MYSQL_PASSWORD", "passwordtest")
+                        .withCommand("--log-bin-trust-function-creators=1")
+                        .waitingFor(Wait.forListeningPort())
+                        .withStartupTimeout(Duration.ofMinutes(5));
+                mysql.start();
+                yield new BenchmarkDatabase(dialect, mysql,
+                        "jdbc:mysql://localhost:" + mysql.getMappedPort(3306) + "/" + Dialect.SCHEMA_NAME
+                                + "?allowPublicKeyRetrieval=true&useSSL=false&rewriteBatchedStatements=true",
+                        "openshop", "passwordtest");
+            }
+            case ORACLE -> {
+                GenericContainer<?> oracle = new GenericContainer<>(
+                        System.getProperty(prefix + "image", "container-registry.oracle.com/database/free:23.9.0.0-arm64"))
+                        .withExposedPorts(1521)
+                        .withEnv("ORACLE_PWD", "Test@123")
+                        .waitingFor(Wait.forLogMessage(".*DATABASE IS READY TO USE.*", 1))
+                        .withStartupTimeout(Duration.ofMinutes(10));
+                oracle.start();
+                yield new BenchmarkDatabase(dialect, oracle,
+                        "jdbc:oracle:thin:@//localhost:" + oracle.getMappedPort(1521) + "/freepdb1",
+                        "system", "Test@123");
+            }
+        };
+    }
+
+    public Dialect dialect() {
+        return dialect;
+    }
+
+    public String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String username() {
+        return username;
+    }
+
+    public String password() {
+        return password;
+    }
+
+    /**
+     * Applies the migrations with the same Flyway settings as
+     * {@code AbstractDatabaseSchemaTest.deploySchema()}.
+     */
+    public MigrateResult migrate() {
+        Flyway flyway = Flyway.configure()
+                .dataSource(jdbcUrl, username, password)
+                .locations(dialect.migrationLocation(MIGRATION_ROOT))
+                .createSchemas(dialect != Dialect.MYSQL)
+                .schemas(Dialect.SCHEMA_NAME)
+                .callbacks(new MigrationMetricsCallback())
+                .load();
+
+        return flyway.migrate();
+    }
+
+    /**
+     * Opens a connection whose default schema is openshop.
+     */
+    public Connection connect() throws SQLException {
+        return dataSource().getConnection();
+    }
+
+    /**
+     * Returns a non-pooling data source whose connections default to the openshop schema.
+     */
+    public DriverManagerDataSource dataSource() {
+        return new DriverManagerDataSource(jdbcUrl, username, password);
+    }
+
+    @Override
+    public void close() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
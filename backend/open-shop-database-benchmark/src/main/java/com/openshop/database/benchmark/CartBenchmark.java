@@ -0,0 +1,145 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.cart.CartService;
+import com.openshop.database.seed.SeedKeys;
+import com.openshop.database.seed.SeedTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cart quantity edits written per edit with a re-sum of the cart's items (before) and coalesced
+ * in memory by {@link CartService} (after).
+ *
+ * <p>Every thread edits the first item of its own cart, like a shopper clicking "+" and "-".
+ * Run with {@code java -jar target/benchmarks.jar CartBenchmark -p dialect=POSTGRESQL}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class CartBenchmark {
+
+    /**
+     * One service per JVM, as an application node would hold it.
+     */
+    @State(Scope.Benchmark)
+    public static class Carts {
+
+        CartService service;
+        final AtomicInteger nextCart = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) {
+            service = new CartService(db.database.dataSource(), db.dialect);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            service.close();
+        }
+    }
+
+    /**
+     * Per-thread connection, cart and item with the per-edit statements prepared up front.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        Dialect dialect;
+        Connection connection;
+        UUID cartId;
+        UUID itemId;
+        UUID variantId;
+        PreparedStatement itemUpdate;
+        PreparedStatement itemSums;
+        PreparedStatement cartUpdate;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db, Carts carts) throws SQLException {
+            dialect = db.dialect;
+            connection = db.database.connect();
+            cartId = SeedKeys.id(SeedTables.CARTS, carts.nextCart.getAndIncrement());
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    dialect.limit("SELECT id, variant_id FROM shopping_cart_items WHERE cart_id = ? ORDER BY id"))) {
+                dialect.bindUuid(stmt, 1, cartId);
+                stmt.setInt(2, 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    itemId = dialect.readUuid(rs, 1);
+                    variantId = dialect.readUuid(rs, 2);
+                }
+            }
+            itemUpdate = connection.prepareStatement(
+                    "UPDATE shopping_cart_items SET quantity = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?");
+            itemSums = connection.prepareStatement(
+                    "SELECT SUM(quantity), SUM(line_total), SUM(discount_amount) FROM shopping_cart_items WHERE cart_id = ?");
+            cartUpdate = connection.prepareStatement(
+                    "UPDATE shopping_carts SET item_count = ?, subtotal = ?, discount_total = ?, "
+                            + "tax_estimate = ? * tax_rate, total_estimate = ? * (1 + tax_rate) + shipping_estimate, "
+                            + "last_activity_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP WHERE id = ?");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void quantityEditWithResum(Session session) throws SQLException {
+        Dialect dialect = session.dialect;
+        Connection connection = session.connection;
+        connection.setAutoCommit(false);
+        try {
+            session.itemUpdate.setInt(1, ThreadLocalRandom.current().nextInt(1, 6));
+            dialect.bindUuid(session.itemUpdate, 2, session.itemId);
+            session.itemUpdate.executeUpdate();
+
+            dialect.bindUuid(session.itemSums, 1, session.cartId);
+            try (ResultSet rs = session.itemSums.executeQuery()) {
+                rs.next();
+                session.cartUpdate.setInt(1, rs.getInt(1));
+                session.cartUpdate.setBigDecimal(2, rs.getBigDecimal(2));
+                session.cartUpdate.setBigDecimal(3, rs.getBigDecimal(3));
+                session.cartUpdate.setBigDecimal(4, rs.getBigDecimal(2).subtract(rs.getBigDecimal(3)));
+                session.cartUpdate.setBigDecimal(5, rs.getBigDecimal(2).subtract(rs.getBigDecimal(3)));
+            }
+            dialect.bindUuid(session.cartUpdate, 6, session.cartId);
+            session.cartUpdate.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @Benchmark
+    public Object quantityEditCoalesced(Carts carts, Session session) throws SQLException {
+        return carts.service.setQuantity(session.cartId, session.variantId, ThreadLocalRandom.current().nextInt(1, 6));
+    }
+}
@@ -0,0 +1,113 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.category.CategoryTree;
+import com.openshop.database.seed.SeedKeys;
+import com.openshop.database.seed.SeedTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ids of a category and its descendants as a recursive {@code parent_id} query (before) and
+ * from {@link CategoryTree} (after), as a product listing needs them.
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar CategoryBenchmark -p dialect=POSTGRESQL}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class CategoryBenchmark {
+
+    /**
+     * One tree per JVM, as an application node would hold it.
+     */
+    @State(Scope.Benchmark)
+    public static class Tree {
+
+        CategoryTree tree;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            tree = new CategoryTree(db.database.dataSource(), db.dialect);
+            tree.rebuild();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            tree.close();
+        }
+    }
+
+    /**
+     * Per-thread connection with the recursive query prepared up front.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+        PreparedStatement subtree;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            connection = db.database.connect();
+            // Oracle takes recursive subqueries without the RECURSIVE keyword
+            String with = db.dialect == Dialect.ORACLE ? "WITH" : "WITH RECURSIVE";
+            subtree = connection.prepareStatement(with + """
+                     subtree (id) AS (
+                        SELECT id FROM categories WHERE id = ?
+                        UNION ALL
+                        SELECT c.id FROM categories c JOIN subtree s ON c.parent_id = s.id
+                    )
+                    SELECT id FROM subtree""");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void subtreeWithRecursiveQuery(HotQueryBenchmark.Database db, Session session, Blackhole bh)
+            throws SQLException {
+        db.dialect.bindUuid(session.subtree, 1, category(db));
+        try (ResultSet rs = session.subtree.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(db.dialect.readUuid(rs, 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<UUID> subtreeWithTree(HotQueryBenchmark.Database db, Tree tree) {
+        return tree.tree.subtreeIds(category(db));
+    }
+
+    private static UUID category(HotQueryBenchmark.Database db) {
+        return SeedKeys.id(SeedTables.CATEGORIES, ThreadLocalRandom.current().nextLong(db.plan.categories()));
+    }
+}
@@ -0,0 +1,128 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.search.Facet;
+import com.openshop.database.search.FacetIndex;
+import com.openshop.database.search.FacetQuery;
+import com.openshop.database.search.FacetResult;
+import com.openshop.database.seed.SeedKeys;
+import com.openshop.database.seed.SeedTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Facet counts of a category page as one aggregate query per facet (before) and from the bitmaps
+ * of {@link FacetIndex} (after), for brand, stock, color and material.
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar FacetBenchmark -p dialect=POSTGRESQL}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class FacetBenchmark {
+
+    private static final Facet MATERIAL = Facet.attribute("material");
+    private static final List<Facet> FACETS = List.of(Facet.BRAND, Facet.IN_STOCK, Facet.COLOR, MATERIAL);
+
+    /**
+     * One index per JVM, as an application node would hold it.
+     */
+    @State(Scope.Benchmark)
+    public static class Index {
+
+        FacetIndex index;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            index = new FacetIndex(db.database.dataSource(), db.dialect);
+            index.rebuild();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            index.close();
+        }
+    }
+
+    /**
+     * Per-thread connection with the aggregate queries prepared up front.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+        List<PreparedStatement> aggregates;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            connection = db.database.connect();
+            String yes = db.dialect.booleanLiteral(true);
+            String products = "FROM products p WHERE p.category_id = ? AND p.status = 'active'";
+            aggregates = List.of(
+                    connection.prepareStatement("SELECT p.brand_id, COUNT(*) " + products + " GROUP BY p.brand_id"),
+                    connection.prepareStatement("SELECT p.is_in_stock, COUNT(*) " + products
+                            + " GROUP BY p.is_in_stock"),
+                    connection.prepareStatement("SELECT v.color_name, COUNT(DISTINCT p.id) "
+                            + "FROM products p JOIN product_variants v ON v.product_id = p.id "
+                            + "WHERE p.category_id = ? AND p.status = 'active' AND v.is_active = " + yes
+                            + " GROUP BY v.color_name"),
+                    connection.prepareStatement("SELECT a.attribute_value, COUNT(DISTINCT p.id) "
+                            + "FROM products p JOIN product_attributes a ON a.product_id = p.id "
+                            + "WHERE p.category_id = ? AND p.status = 'active' AND a.is_filterable = " + yes
+                            + " AND a.attribute_key = 'material' GROUP BY a.attribute_value"));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void facetsWithAggregateQueries(HotQueryBenchmark.Database db, Session session, Blackhole bh)
+            throws SQLException {
+        UUID category = category(db);
+        for (PreparedStatement aggregate : session.aggregates) {
+            db.dialect.bindUuid(aggregate, 1, category);
+            try (ResultSet rs = aggregate.executeQuery()) {
+                while (rs.next()) {
+                    bh.consume(rs.getString(1));
+                    bh.consume(rs.getLong(2));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public FacetResult facetsWithBitmapIndex(HotQueryBenchmark.Database db, Index index) {
+        return index.index.count(FacetQuery.all().inCategories(Set.of(category(db))), FACETS);
+    }
+
+    private static UUID category(HotQueryBenchmark.Database db) {
+        return SeedKeys.id(SeedTables.CATEGORIES, ThreadLocalRandom.current().nextLong(db.plan.categories()));
+    }
+}
@@ -0,0 +1,217 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.seed.DataGenerator;
+import com.openshop.database.seed.SeedKeys;
+import com.openshop.database.seed.SeedPlan;
+import com.openshop.database.seed.SeedTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JMH benchmarks for the queries the storefront and checkout actually serve:
+ * category listing sorted by price and rating, cart load, order insert and the
+ * per-variant inventory lookup.
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar HotQueryBenchmark -p dialect=POSTGRESQL}.
+ * The database is filled with {@link SeedPlan#small()}; scale it with {@code -Dopenshop.bench.scale}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class HotQueryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Shared database: started, migrated and seeded once per trial.
+     */
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({"POSTGRESQL", "MYSQL", "ORACLE"})
+        public Dialect dialect;
+
+        BenchmarkDatabase database;
+        SeedPlan plan;
+        final AtomicLong orderSequence = new AtomicLong();
+        String orderPrefix;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            database = BenchmarkDatabase.start(dialect);
+            database.migrate();
+            plan = SeedPlan.small().scaled(Double.parseDouble(System.getProperty("openshop.bench.scale", "1")));
+            new DataGenerator(database.dataSource(), dialect).generate(plan);
+            orderPrefix = "BENCH-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "-";
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            database.close();
+        }
+    }
+
+    /**
+     * Per-thread connection with the hot statements prepared up front.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        Dialect dialect;
+        Connection connection;
+        PreparedStatement listingByPrice;
+        PreparedStatement listingByRating;
+        PreparedStatement cartLoad;
+        PreparedStatement orderInsert;
+        PreparedStatement orderItemInsert;
+        PreparedStatement inventoryLookup;
+
+        @Setup(Level.Trial)
+        public void setUp(Database db) throws SQLException {
+            dialect = db.dialect;
+            connection = db.database.connect();
+            String listing = "SELECT id, name, slug, min_price, max_price, avg_rating, review_count, is_in_stock "
+                    + "FROM products WHERE category_id = ? AND status = 'active'";
+            listingByPrice = connection.prepareStatement(dialect.limit(listing + " ORDER BY min_price, id"));
+            listingByRating = connection.prepareStatement(dialect.limit(listing + " ORDER BY avg_rating DESC, id"));
+            cartLoad = connection.prepareStatement(
+                    "SELECT c.id, c.item_count, c.subtotal, c.total_estimate, i.variant_id, i.quantity, "
+                            + "i.unit_price, i.line_total, i.product_name, i.variant_sku "
+                            + "FROM shopping_carts c LEFT JOIN shopping_cart_items i ON i.cart_id = c.id "
+                            + "WHERE c.id = ?");
+            orderInsert = connection.prepareStatement(
+                    "INSERT INTO orders (id, order_number, customer_id, subtotal, total_amount) VALUES (?, ?, ?, ?, ?)");
+            orderItemInsert = connection.prepareStatement(
+                    "INSERT INTO order_items (id, order_id, product_id, variant_id, quantity, unit_price, "
+                            + "product_name, product_slug, variant_name, variant_sku) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, 'Product', 'product', 'Variant', 'SKU')");
+            inventoryLookup = connection.prepareStatement(
+                    "SELECT location_id, supplier_id, supplied_date, quantity_on_hand, quantity_available "
+                            + "FROM inventory_stock WHERE variant_id = ?");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void productListingByPrice(Database db, Session session, Blackhole bh) throws SQLException {
+        listProducts(session.dialect, session.listingByPrice, pick(SeedTables.CATEGORIES, db.plan.categories()), bh);
+    }
+
+    @Benchmark
+    public void productListingByRating(Database db, Session session, Blackhole bh) throws SQLException {
+        listProducts(session.dialect, session.listingByRating, pick(SeedTables.CATEGORIES, db.plan.categories()), bh);
+    }
+
+    @Benchmark
+    public void cartLoadWithItems(Database db, Session session, Blackhole bh) throws SQLException {
+        session.dialect.bindUuid(session.cartLoad, 1, pick(SeedTables.CARTS, db.plan.carts()));
+        try (ResultSet rs = session.cartLoad.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getBigDecimal("subtotal"));
+                bh.consume(rs.getInt("quantity"));
+                bh.consume(rs.getBigDecimal("line_total"));
+                bh.consume(rs.getString("variant_sku"));
+            }
+        }
+    }
+
+    @Benchmark
+    public void orderInsertWithItems(Database db, Session session) throws SQLException {
+        Dialect dialect = session.dialect;
+        Connection connection = session.connection;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID orderId = UUID.randomUUID();
+        int items = 1 + random.nextInt(4);
+        long first = random.nextLong(db.plan.variants() - items);
+
+        connection.setAutoCommit(false);
+        try {
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (int i = 0; i < items; i++) {
+                long v = first + i;
+                BigDecimal price = SeedTables.variantPrice(v);
+                dialect.bindUuid(session.orderItemInsert, 1, UUID.randomUUID());
+                dialect.bindUuid(session.orderItemInsert, 2, orderId);
+                dialect.bindUuid(session.orderItemInsert, 3, SeedKeys.id(SeedTables.PRODUCTS, v / db.plan.variantsPerProduct()));
+                dialect.bindUuid(session.orderItemInsert, 4, SeedKeys.id(SeedTables.VARIANTS, v));
+                session.orderItemInsert.setInt(5, 1);
+                session.orderItemInsert.setBigDecimal(6, price);
+                session.orderItemInsert.addBatch();
+                subtotal = subtotal.add(price);
+            }
+
+            dialect.bindUuid(session.orderInsert, 1, orderId);
+            session.orderInsert.setString(2, db.orderPrefix + db.orderSequence.incrementAndGet());
+            dialect.bindUuid(session.orderInsert, 3, pick(SeedTables.CUSTOMERS, db.plan.customers()));
+            session.orderInsert.setBigDecimal(4, subtotal);
+            session.orderInsert.setBigDecimal(5, subtotal);
+            session.orderInsert.executeUpdate();
+            session.orderItemInsert.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @Benchmark
+    public void inventoryLookupPerVariant(Database db, Session session, Blackhole bh) throws SQLException {
+        session.dialect.bindUuid(session.inventoryLookup, 1, pick(SeedTables.VARIANTS, db.plan.variants()));
+        try (ResultSet rs = session.inventoryLookup.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getInt("quantity_on_hand"));
+                bh.consume(rs.getInt("quantity_available"));
+            }
+        }
+    }
+
+    private static void listProducts(Dialect dialect, PreparedStatement stmt, UUID categoryId, Blackhole bh)
+            throws SQLException {
+        dialect.bindUuid(stmt, 1, categoryId);
+        stmt.setInt(2, PAGE_SIZE);
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getString("name"));
+                bh.consume(rs.getBigDecimal("min_price"));
+                bh.consume(rs.getBigDecimal("avg_rating"));
+            }
+        }
+    }
+
+    private static UUID pick(int table, long rows) {
+        return SeedKeys.id(table, ThreadLocalRandom.current().nextLong(rows));
+    }
+}
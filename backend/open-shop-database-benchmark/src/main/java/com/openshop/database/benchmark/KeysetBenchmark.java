@@ -0,0 +1,134 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.page.Filter;
+import com.openshop.database.page.Keyset;
+import com.openshop.database.page.KeysetPager;
+import com.openshop.database.page.Page;
+import com.openshop.database.page.PageRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A deep page of the active products by price, skipped to with OFFSET (before) and sought with
+ * a {@link KeysetPager} cursor (after).
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar KeysetBenchmark -p dialect=POSTGRESQL -p depth=500}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class KeysetBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final Filter ACTIVE = Filter.of("status = ?", "active");
+    private static final String COLUMNS = "id, name, slug";
+
+    /**
+     * Page number read by both benchmarks, counted from 0.
+     */
+    @State(Scope.Benchmark)
+    public static class Depth {
+
+        @Param({"10", "500"})
+        public int depth;
+
+        /**
+         * Cursor of the page at {@link #depth}, found once by paging there.
+         */
+        String cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            KeysetPager pager = new KeysetPager(db.dialect);
+            PageRequest request = PageRequest.first("price", false, PAGE_SIZE);
+            try (Connection connection = db.database.connect()) {
+                for (int page = 0; page < depth; page++) {
+                    Page<String> read = pager.page(connection, Keyset.PRODUCTS, "id", ACTIVE, request,
+                            rs -> rs.getString(1));
+                    if (!read.hasMore()) {
+                        throw new IllegalStateException("Fewer than " + depth + " pages of active products;"
+                                + " raise openshop.bench.scale");
+                    }
+                    request = request.after(read.nextCursor());
+                }
+            }
+            cursor = request.cursor();
+        }
+    }
+
+    /**
+     * Per-thread connection with the OFFSET query prepared up front.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+        PreparedStatement offset;
+        KeysetPager pager;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            connection = db.database.connect();
+            String sql = "SELECT " + COLUMNS + ", min_price FROM products WHERE status = ? "
+                    + "ORDER BY min_price, id";
+            offset = connection.prepareStatement(db.dialect == Dialect.ORACLE
+                    ? sql + " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY"
+                    : sql + " LIMIT ? OFFSET ?");
+            pager = new KeysetPager(db.dialect);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void deepPageWithOffset(HotQueryBenchmark.Database db, Depth depth, Session session, Blackhole blackhole)
+            throws SQLException {
+        PreparedStatement offset = session.offset;
+        int skipped = depth.depth * PAGE_SIZE;
+        offset.setString(1, "active");
+        if (db.dialect == Dialect.ORACLE) {
+            offset.setInt(2, skipped);
+            offset.setInt(3, PAGE_SIZE);
+        } else {
+            offset.setInt(2, PAGE_SIZE);
+            offset.setInt(3, skipped);
+        }
+        try (ResultSet rs = offset.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getString(2));
+            }
+        }
+    }
+
+    @Benchmark
+    public Page<String> deepPageWithKeyset(Depth depth, Session session) throws SQLException {
+        return session.pager.page(session.connection, Keyset.PRODUCTS, COLUMNS, ACTIVE,
+                new PageRequest("price", false, PAGE_SIZE, depth.cursor), rs -> rs.getString(2));
+    }
+}
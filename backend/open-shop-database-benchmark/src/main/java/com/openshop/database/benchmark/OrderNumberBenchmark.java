@@ -0,0 +1,110 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.order.OrderNumberGenerator;
+import com.openshop.database.seed.SeedKeys;
+import com.openshop.database.seed.SeedTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order insert throughput with the order number taken from {@code order_number_seq} once per
+ * order by {@code order_number_trigger} (before) and handed out in blocks by
+ * {@link OrderNumberGenerator} (after).
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar OrderNumberBenchmark -p dialect=POSTGRESQL};
+ * vary the number of concurrent checkouts with {@code -t}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(8)
+@Fork(1)
+public class OrderNumberBenchmark {
+
+    private static final BigDecimal TOTAL = new BigDecimal("49.99");
+
+    /**
+     * One generator per JVM, as an application node would hold it.
+     */
+    @State(Scope.Benchmark)
+    public static class Numbers {
+
+        OrderNumberGenerator generator;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            generator = new OrderNumberGenerator(db.database.dataSource(), db.dialect);
+            // Seeded orders are numbered by row index; move the sequence past them
+            generator.skipPast(db.plan.orders());
+        }
+    }
+
+    /**
+     * Per-thread connection with the order insert prepared up front.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        Dialect dialect;
+        Connection connection;
+        PreparedStatement orderInsert;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            dialect = db.dialect;
+            connection = db.database.connect();
+            orderInsert = connection.prepareStatement(
+                    "INSERT INTO orders (id, order_number, customer_id, subtotal, total_amount) VALUES (?, ?, ?, ?, ?)");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void orderInsertWithTrigger(HotQueryBenchmark.Database db, Session session) throws SQLException {
+        session.orderInsert.setNull(2, Types.VARCHAR);
+        insertOrder(db, session);
+    }
+
+    @Benchmark
+    public void orderInsertWithBlockGenerator(HotQueryBenchmark.Database db, Session session, Numbers numbers)
+            throws SQLException {
+        session.orderInsert.setString(2, numbers.generator.next());
+        insertOrder(db, session);
+    }
+
+    private static void insertOrder(HotQueryBenchmark.Database db, Session session) throws SQLException {
+        Dialect dialect = session.dialect;
+        dialect.bindUuid(session.orderInsert, 1, UUID.randomUUID());
+        dialect.bindUuid(session.orderInsert, 3,
+                SeedKeys.id(SeedTables.CUSTOMERS, ThreadLocalRandom.current().nextLong(db.plan.customers())));
+        session.orderInsert.setBigDecimal(4, TOTAL);
+        session.orderInsert.setBigDecimal(5, TOTAL);
+        session.orderInsert.executeUpdate();
+    }
+}
@@ -0,0 +1,143 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.sales.ProductMetric;
+import com.openshop.database.sales.ProductSales;
+import com.openshop.database.sales.SalesReports;
+import com.openshop.database.sales.SalesRollupPipeline;
+import com.openshop.database.sales.SalesTotals;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sales summary and top products of the last year, aggregated from {@code orders} and
+ * {@code order_items} (before) and answered by {@link SalesReports} from the rollups plus the
+ * live day (after).
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar SalesBenchmark -p dialect=POSTGRESQL}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class SalesBenchmark {
+
+    private static final int TOP_PRODUCTS = 10;
+    private static final String REVENUE_STATUSES = "('confirmed', 'processing', 'shipped', 'delivered')";
+
+    private static final String SUMMARY_SQL = """
+            SELECT COUNT(*), SUM(total_amount), SUM(subtotal)
+            FROM orders
+            WHERE created_at >= ? AND created_at < ? AND status IN %s""".formatted(REVENUE_STATUSES);
+
+    private static final String TOP_PRODUCTS_SQL = """
+            SELECT i.product_id, SUM(i.quantity), SUM(i.quantity * i.unit_price), COUNT(DISTINCT o.id)
+            FROM orders o
+            JOIN order_items i ON i.order_id = o.id
+            WHERE o.created_at >= ? AND o.created_at < ? AND o.status IN %s
+            GROUP BY i.product_id
+            ORDER BY SUM(i.quantity * i.unit_price) DESC""".formatted(REVENUE_STATUSES);
+
+    /**
+     * Rollups backfilled once per trial, as the pipeline leaves them, and the year reported on.
+     */
+    @State(Scope.Benchmark)
+    public static class Rollups {
+
+        SalesReports reports;
+        LocalDate from;
+        LocalDate to;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            to = LocalDate.now(ZoneOffset.UTC);
+            from = to.minusDays(364);
+            new SalesRollupPipeline(db.database.dataSource(), db.dialect).rebuild();
+            reports = new SalesReports(db.database.dataSource(), db.dialect);
+        }
+    }
+
+    /**
+     * Per-thread connection with the aggregate queries prepared up front.
+     */
+    @State(Scope.Thread)
+    public static class Queries {
+
+        Connection connection;
+        PreparedStatement summary;
+        PreparedStatement topProducts;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db, Rollups rollups) throws SQLException {
+            connection = db.database.connect();
+            summary = connection.prepareStatement(SUMMARY_SQL);
+            topProducts = connection.prepareStatement(db.dialect.limit(TOP_PRODUCTS_SQL));
+            Timestamp start = Timestamp.from(rollups.from.atStartOfDay(ZoneOffset.UTC).toInstant());
+            Timestamp end = Timestamp.from(rollups.to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+            summary.setTimestamp(1, start);
+            summary.setTimestamp(2, end);
+            topProducts.setTimestamp(1, start);
+            topProducts.setTimestamp(2, end);
+            topProducts.setInt(3, TOP_PRODUCTS);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void summaryWithAggregateQuery(Queries queries, Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = queries.summary.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getLong(1));
+                blackhole.consume(rs.getBigDecimal(2));
+                blackhole.consume(rs.getBigDecimal(3));
+            }
+        }
+    }
+
+    @Benchmark
+    public SalesTotals summaryFromRollups(Rollups rollups) throws SQLException {
+        return rollups.reports.summary(rollups.from, rollups.to);
+    }
+
+    @Benchmark
+    public void topProductsWithAggregateQuery(Queries queries, Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = queries.topProducts.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getString(1));
+                blackhole.consume(rs.getBigDecimal(3));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<ProductSales> topProductsFromRollups(Rollups rollups) throws SQLException {
+        return rollups.reports.topProducts(rollups.from, rollups.to, ProductMetric.REVENUE, TOP_PRODUCTS);
+    }
+}
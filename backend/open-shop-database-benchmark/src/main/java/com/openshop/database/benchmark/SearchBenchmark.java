@@ -0,0 +1,110 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.search.SearchIndex;
+import com.openshop.database.search.SearchQuery;
+import com.openshop.database.search.SearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product search as a {@code LIKE} scan over the active products (before) and served by
+ * {@link SearchIndex} (after), for the first page of hits.
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar SearchBenchmark -p dialect=POSTGRESQL}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class SearchBenchmark {
+
+    // Words of the seeded short descriptions and attributes
+    private static final String[] TERMS = {"cotton", "wool", "linen", "polyester", "leather", "denim"};
+
+    /**
+     * One index per JVM, as an application node would hold it.
+     */
+    @State(Scope.Benchmark)
+    public static class Index {
+
+        SearchIndex index;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            index = new SearchIndex(db.database.dataSource(), db.dialect);
+            index.rebuild();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            index.close();
+        }
+    }
+
+    /**
+     * Per-thread connection with the scan prepared up front.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+        PreparedStatement scan;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            connection = db.database.connect();
+            scan = connection.prepareStatement(db.dialect.limit(
+                    "SELECT id, name, slug, min_price FROM products WHERE status = 'active' "
+                            + "AND (LOWER(name) LIKE ? OR LOWER(short_description) LIKE ?) ORDER BY name, id"));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void searchWithLikeScan(Session session, Blackhole blackhole) throws SQLException {
+        String pattern = "%" + term() + "%";
+        PreparedStatement scan = session.scan;
+        scan.setString(1, pattern);
+        scan.setString(2, pattern);
+        scan.setInt(3, SearchQuery.DEFAULT_LIMIT);
+        try (ResultSet rs = scan.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getString(1));
+            }
+        }
+    }
+
+    @Benchmark
+    public SearchResult searchWithIndex(Index index) {
+        return index.index.search(SearchQuery.of(term()));
+    }
+
+    private static String term() {
+        return TERMS[ThreadLocalRandom.current().nextInt(TERMS.length)];
+    }
+}
@@ -0,0 +1,129 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.session.Session;
+import com.openshop.database.session.SessionCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session resolution of an authenticated request as a read of {@code user_sessions} plus an
+ * update of {@code last_accessed_at} (before) and through {@link SessionCache} (after).
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar SessionBenchmark -p dialect=POSTGRESQL}.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class SessionBenchmark {
+
+    // Distinct sessions the requests are spread over, like the users active at one time
+    private static final int ACTIVE_SESSIONS = 1000;
+
+    /**
+     * One cache per JVM, as an application node would hold it, and the active sessions to resolve.
+     */
+    @State(Scope.Benchmark)
+    public static class Sessions {
+
+        SessionCache cache;
+        final List<String> tokenHashes = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            cache = new SessionCache(db.database.dataSource(), db.dialect);
+            try (Connection connection = db.database.connect();
+                 PreparedStatement stmt = connection.prepareStatement(db.dialect.limit(
+                         "SELECT access_token_hash FROM user_sessions WHERE is_active = "
+                                 + db.dialect.booleanLiteral(true) + " AND expires_at > CURRENT_TIMESTAMP"))) {
+                stmt.setInt(1, ACTIVE_SESSIONS);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        tokenHashes.add(rs.getString(1));
+                    }
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            cache.close();
+        }
+
+        String tokenHash() {
+            return tokenHashes.get(ThreadLocalRandom.current().nextInt(tokenHashes.size()));
+        }
+    }
+
+    /**
+     * Per-thread connection with the per-request statements prepared up front.
+     */
+    @State(Scope.Thread)
+    public static class Requests {
+
+        Dialect dialect;
+        Connection connection;
+        PreparedStatement lookup;
+        PreparedStatement touch;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            dialect = db.dialect;
+            connection = db.database.connect();
+            lookup = connection.prepareStatement(
+                    "SELECT id, customer_id, expires_at FROM user_sessions WHERE access_token_hash = ? "
+                            + "AND is_active = " + dialect.booleanLiteral(true) + " AND expires_at > CURRENT_TIMESTAMP");
+            touch = connection.prepareStatement(
+                    "UPDATE user_sessions SET last_accessed_at = CURRENT_TIMESTAMP WHERE id = ?");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public UUID lookupAndTouchPerRequest(Sessions sessions, Requests requests) throws SQLException {
+        UUID id;
+        requests.lookup.setString(1, sessions.tokenHash());
+        try (ResultSet rs = requests.lookup.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+            id = requests.dialect.readUuid(rs, 1);
+        }
+        requests.dialect.bindUuid(requests.touch, 1, id);
+        requests.touch.executeUpdate();
+        return id;
+    }
+
+    @Benchmark
+    public Session lookupWithNearCache(Sessions sessions) throws SQLException {
+        return sessions.cache.findByAccessTokenHash(sessions.tokenHash());
+    }
+}
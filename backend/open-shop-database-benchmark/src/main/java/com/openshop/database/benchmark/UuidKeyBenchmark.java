@@ -0,0 +1,203 @@
+package com.openshop.database.benchmark;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.UuidV7;
+import com.openshop.database.seed.SeedKeys;
+import com.openshop.database.seed.SeedTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput and resulting index size of {@code orders}, {@code order_items} and
+ * {@code inventory_log} with random (version 4) and time-ordered (version 7) keys.
+ *
+ * <p>Each operation inserts one order with two items and one stock movement in a transaction.
+ * After the trial the index size per row of the three tables is printed; random keys leave
+ * half-empty leaf pages behind from page splits, time-ordered keys fill pages left to right.</p>
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar UuidKeyBenchmark -p dialect=MYSQL}.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class UuidKeyBenchmark {
+
+    private static final List<String> TABLES = List.of("orders", "order_items", "inventory_log");
+    private static final BigDecimal PRICE = new BigDecimal("19.99");
+
+    public enum KeyOrder {
+        RANDOM(UUID::randomUUID),
+        TIME_ORDERED(UuidV7::generate);
+
+        private final Supplier<UUID> generator;
+
+        KeyOrder(Supplier<UUID> generator) {
+            this.generator = generator;
+        }
+    }
+
+    /**
+     * Key generator under test; prints the index sizes once the trial is over.
+     */
+    @State(Scope.Benchmark)
+    public static class Keys {
+
+        @Param({"RANDOM", "TIME_ORDERED"})
+        public KeyOrder keys;
+
+        final AtomicLong orderSequence = new AtomicLong();
+
+        @TearDown(Level.Trial)
+        public void reportIndexSizes(HotQueryBenchmark.Database db) throws SQLException {
+            try (Connection connection = db.database.connect()) {
+                for (String table : TABLES) {
+                    long rows = rowCount(connection, table);
+                    long bytes = indexBytes(connection, db.dialect, table);
+                    System.out.printf("%n%s %s keys: %,d rows, %,d index bytes, %.1f bytes/row%n",
+                            table, keys, rows, bytes, bytes / (double) Math.max(1, rows));
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-thread connection with the inserts prepared up front.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        Dialect dialect;
+        Connection connection;
+        PreparedStatement orderInsert;
+        PreparedStatement orderItemInsert;
+        PreparedStatement inventoryLogInsert;
+
+        @Setup(Level.Trial)
+        public void setUp(HotQueryBenchmark.Database db) throws SQLException {
+            dialect = db.dialect;
+            connection = db.database.connect();
+            orderInsert = connection.prepareStatement(
+                    "INSERT INTO orders (id, order_number, customer_id, subtotal, total_amount) VALUES (?, ?, ?, ?, ?)");
+            orderItemInsert = connection.prepareStatement(
+                    "INSERT INTO order_items (id, order_id, product_id, variant_id, quantity, unit_price, "
+                            + "product_name, product_slug, variant_name, variant_sku) "
+                            + "VALUES (?, ?, ?, ?, 1, ?, 'Product', 'product', 'Variant', 'SKU')");
+            inventoryLogInsert = connection.prepareStatement(
+                    "INSERT INTO inventory_log (id, entity_type, product_id, variant_id, operation_type, "
+                            + "quantity_change, reference_type, reference_id) "
+                            + "VALUES (?, 'stock_movement', ?, ?, 'movement', -1, 'order', ?)");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void orderWithItemsAndStockMovement(HotQueryBenchmark.Database db, Keys keys, Session session)
+            throws SQLException {
+        Dialect dialect = session.dialect;
+        Connection connection = session.connection;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long variant = random.nextLong(db.plan.variants() - 1);
+        UUID productId = SeedKeys.id(SeedTables.PRODUCTS, variant / db.plan.variantsPerProduct());
+        UUID orderId = keys.keys.generator.get();
+
+        connection.setAutoCommit(false);
+        try {
+            dialect.bindUuid(session.orderInsert, 1, orderId);
+            session.orderInsert.setString(2, "KEY-" + keys.orderSequence.incrementAndGet());
+            dialect.bindUuid(session.orderInsert, 3, SeedKeys.id(SeedTables.CUSTOMERS, random.nextLong(db.plan.customers())));
+            session.orderInsert.setBigDecimal(4, PRICE);
+            session.orderInsert.setBigDecimal(5, PRICE);
+            session.orderInsert.executeUpdate();
+
+            for (int i = 0; i < 2; i++) {
+                dialect.bindUuid(session.orderItemInsert, 1, keys.keys.generator.get());
+                dialect.bindUuid(session.orderItemInsert, 2, orderId);
+                dialect.bindUuid(session.orderItemInsert, 3, productId);
+                dialect.bindUuid(session.orderItemInsert, 4, SeedKeys.id(SeedTables.VARIANTS, variant + i));
+                session.orderItemInsert.setBigDecimal(5, PRICE);
+                session.orderItemInsert.addBatch();
+            }
+            session.orderItemInsert.executeBatch();
+
+            dialect.bindUuid(session.inventoryLogInsert, 1, keys.keys.generator.get());
+            dialect.bindUuid(session.inventoryLogInsert, 2, productId);
+            dialect.bindUuid(session.inventoryLogInsert, 3, SeedKeys.id(SeedTables.VARIANTS, variant));
+            session.inventoryLogInsert.setString(4, orderId.toString());
+            session.inventoryLogInsert.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static long rowCount(Connection connection, String table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Bytes of all indexes of a table. On MySQL that is the clustered primary key
+     * ({@code data_length}) plus the secondary indexes, which repeat the primary key in every entry.
+     */
+    private static long indexBytes(Connection connection, Dialect dialect, String table) throws SQLException {
+        String sql = switch (dialect) {
+            case POSTGRESQL -> "SELECT pg_indexes_size(?::regclass)";
+            case MYSQL -> "SELECT data_length + index_length FROM information_schema.tables "
+                    + "WHERE table_schema = DATABASE() AND table_name = ?";
+            case ORACLE -> "SELECT NVL(SUM(s.bytes), 0) FROM all_indexes i JOIN dba_segments s "
+                    + "ON s.owner = i.owner AND s.segment_name = i.index_name "
+                    + "WHERE i.owner = SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA') AND i.table_name = UPPER(?)";
+        };
+        if (dialect == Dialect.MYSQL) {
+            // information_schema serves cached statistics otherwise
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("ANALYZE TABLE " + table);
+            }
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V009: Order Number Blocks
+-- =============================================
+
+-- =============================================
+-- ORDER NUMBER SEQUENCE
+-- =============================================
+-- Single-row sequence emulation. Every allocation reserves a block of
+-- increment_by order numbers [next_value, next_value + increment_by).
+-- OrderNumberGenerator hands out a block from memory, so the row is locked
+-- once per block instead of once per checkout. Block starts are 1 + k * 100
+-- (JdbcOrderNumberSequence.BLOCK_SIZE). generate_order_number() below advances
+-- the row once per order, so each order numbered by the trigger uses up a whole block.
+CREATE TABLE order_number_sequence (
+    id TINYINT PRIMARY KEY,
+    next_value BIGINT NOT NULL,
+    increment_by INT NOT NULL,
+
+    CONSTRAINT chk_order_number_sequence_single_row CHECK (id = 1),
+    CONSTRAINT chk_order_number_sequence_increment CHECK (increment_by > 0)
+) ENGINE=InnoDB;
+
+INSERT INTO order_number_sequence (id, next_value, increment_by) VALUES (1, 1, 100);
+
+-- =============================================
+-- ORDER NUMBER GENERATION FUNCTION
+-- =============================================
+-- V001 referenced a sequence table that was never created
+DROP FUNCTION IF EXISTS generate_order_number;
+
+DELIMITER //
+CREATE FUNCTION generate_order_number()
+RETURNS VARCHAR(50)
+MODIFIES SQL DATA
+NOT DETERMINISTIC
+BEGIN
+    DECLARE seq_val BIGINT;
+    DECLARE order_date VARCHAR(8);
+
+    -- Take the start of the next block (LAST_INSERT_ID(expr) returns the block start)
+    UPDATE order_number_sequence
+    SET next_value = LAST_INSERT_ID(next_value) + increment_by
+    WHERE id = 1;
+    SET seq_val = LAST_INSERT_ID();
+
+    -- Get current date
+    SET order_date = DATE_FORMAT(NOW(), '%Y%m%d');
+
+    -- Return formatted order number, padded to at least six digits
+    RETURN CONCAT('ORD-', order_date, '-', LPAD(seq_val, GREATEST(6, CHAR_LENGTH(seq_val)), '0'));
+END //
+
+-- =============================================
+-- ORDER NUMBER TRIGGER
+-- =============================================
+CREATE TRIGGER order_number_trigger
+BEFORE INSERT ON orders
+FOR EACH ROW
+BEGIN
+    IF NEW.order_number IS NULL OR NEW.order_number = '' THEN
+        SET NEW.order_number = generate_order_number();
+    END IF;
+END //
+DELIMITER ;
@@ -0,0 +1,483 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V010: Binary UUID Keys
+-- =============================================
+
+-- Moves every UUID key and foreign key from VARCHAR(36) to BINARY(16).
+-- A text key takes 37 bytes (36 characters plus a length byte) against 16 for the
+-- binary form, in the primary key and again in every secondary index (InnoDB appends
+-- the primary key to each) and in every FK column and its index.
+--
+-- Each table is converted in three steps so existing keys survive the change:
+--   1. VARBINARY(36) keeps the text bytes,
+--   2. UUID_TO_BIN() rewrites them as 16 bytes (no swap flag: application keys are
+--      UUIDv7, which are already time-ordered in their standard byte order),
+--   3. BINARY(16) fixes the width.
+-- MODIFY replaces the whole column definition, so each step restates the column's
+-- nullability from V002-V008. None of these columns declares a DEFAULT or COMMENT in
+-- the MySQL schema; a column that gains one must repeat it in both MODIFYs here.
+-- Foreign key checks are off while parents and children are temporarily of
+-- different types; all columns go through the same conversion, so every reference
+-- still matches afterwards. DDL is not transactional in MySQL: take a backup first.
+-- Ad-hoc SQL now compares keys with UUID_TO_BIN('...') and reads them with BIN_TO_UUID(...).
+
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- customers
+ALTER TABLE customers
+    MODIFY id VARBINARY(36) NOT NULL;
+
+UPDATE customers SET
+    id = UUID_TO_BIN(id);
+
+ALTER TABLE customers
+    MODIFY id BINARY(16) NOT NULL;
+
+-- customer_addresses
+ALTER TABLE customer_addresses
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY customer_id VARBINARY(36) NOT NULL;
+
+UPDATE customer_addresses SET
+    id = UUID_TO_BIN(id),
+    customer_id = UUID_TO_BIN(customer_id);
+
+ALTER TABLE customer_addresses
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY customer_id BINARY(16) NOT NULL;
+
+-- customer_preferences
+ALTER TABLE customer_preferences
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY customer_id VARBINARY(36) NOT NULL;
+
+UPDATE customer_preferences SET
+    id = UUID_TO_BIN(id),
+    customer_id = UUID_TO_BIN(customer_id);
+
+ALTER TABLE customer_preferences
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY customer_id BINARY(16) NOT NULL;
+
+-- user_sessions
+ALTER TABLE user_sessions
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY customer_id VARBINARY(36) NOT NULL;
+
+UPDATE user_sessions SET
+    id = UUID_TO_BIN(id),
+    customer_id = UUID_TO_BIN(customer_id);
+
+ALTER TABLE user_sessions
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY customer_id BINARY(16) NOT NULL;
+
+-- password_reset_tokens
+ALTER TABLE password_reset_tokens
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY customer_id VARBINARY(36) NOT NULL;
+
+UPDATE password_reset_tokens SET
+    id = UUID_TO_BIN(id),
+    customer_id = UUID_TO_BIN(customer_id);
+
+ALTER TABLE password_reset_tokens
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY customer_id BINARY(16) NOT NULL;
+
+-- email_verification_tokens
+ALTER TABLE email_verification_tokens
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY customer_id VARBINARY(36) NOT NULL;
+
+UPDATE email_verification_tokens SET
+    id = UUID_TO_BIN(id),
+    customer_id = UUID_TO_BIN(customer_id);
+
+ALTER TABLE email_verification_tokens
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY customer_id BINARY(16) NOT NULL;
+
+-- categories
+ALTER TABLE categories
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY parent_id VARBINARY(36) NULL;
+
+UPDATE categories SET
+    id = UUID_TO_BIN(id),
+    parent_id = UUID_TO_BIN(parent_id);
+
+ALTER TABLE categories
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY parent_id BINARY(16) NULL;
+
+-- brands
+ALTER TABLE brands
+    MODIFY id VARBINARY(36) NOT NULL;
+
+UPDATE brands SET
+    id = UUID_TO_BIN(id);
+
+ALTER TABLE brands
+    MODIFY id BINARY(16) NOT NULL;
+
+-- products
+ALTER TABLE products
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY category_id VARBINARY(36) NOT NULL,
+    MODIFY brand_id VARBINARY(36) NOT NULL;
+
+UPDATE products SET
+    id = UUID_TO_BIN(id),
+    category_id = UUID_TO_BIN(category_id),
+    brand_id = UUID_TO_BIN(brand_id);
+
+ALTER TABLE products
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY category_id BINARY(16) NOT NULL,
+    MODIFY brand_id BINARY(16) NOT NULL;
+
+-- product_variants
+ALTER TABLE product_variants
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY product_id VARBINARY(36) NOT NULL;
+
+UPDATE product_variants SET
+    id = UUID_TO_BIN(id),
+    product_id = UUID_TO_BIN(product_id);
+
+ALTER TABLE product_variants
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY product_id BINARY(16) NOT NULL;
+
+-- product_attributes
+ALTER TABLE product_attributes
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY product_id VARBINARY(36) NULL,
+    MODIFY variant_id VARBINARY(36) NULL;
+
+UPDATE product_attributes SET
+    id = UUID_TO_BIN(id),
+    product_id = UUID_TO_BIN(product_id),
+    variant_id = UUID_TO_BIN(variant_id);
+
+ALTER TABLE product_attributes
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY product_id BINARY(16) NULL,
+    MODIFY variant_id BINARY(16) NULL;
+
+-- product_images
+ALTER TABLE product_images
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY product_id VARBINARY(36) NOT NULL;
+
+UPDATE product_images SET
+    id = UUID_TO_BIN(id),
+    product_id = UUID_TO_BIN(product_id);
+
+ALTER TABLE product_images
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY product_id BINARY(16) NOT NULL;
+
+-- product_reviews
+ALTER TABLE product_reviews
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY product_id VARBINARY(36) NOT NULL,
+    MODIFY customer_id VARBINARY(36) NOT NULL,
+    MODIFY order_id VARBINARY(36) NULL;
+
+UPDATE product_reviews SET
+    id = UUID_TO_BIN(id),
+    product_id = UUID_TO_BIN(product_id),
+    customer_id = UUID_TO_BIN(customer_id),
+    order_id = UUID_TO_BIN(order_id);
+
+ALTER TABLE product_reviews
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY product_id BINARY(16) NOT NULL,
+    MODIFY customer_id BINARY(16) NOT NULL,
+    MODIFY order_id BINARY(16) NULL;
+
+-- tags
+ALTER TABLE tags
+    MODIFY id VARBINARY(36) NOT NULL;
+
+UPDATE tags SET
+    id = UUID_TO_BIN(id);
+
+ALTER TABLE tags
+    MODIFY id BINARY(16) NOT NULL;
+
+-- product_tags
+ALTER TABLE product_tags
+    MODIFY product_id VARBINARY(36) NOT NULL,
+    MODIFY tag_id VARBINARY(36) NOT NULL;
+
+UPDATE product_tags SET
+    product_id = UUID_TO_BIN(product_id),
+    tag_id = UUID_TO_BIN(tag_id);
+
+ALTER TABLE product_tags
+    MODIFY product_id BINARY(16) NOT NULL,
+    MODIFY tag_id BINARY(16) NOT NULL;
+
+-- shopping_carts
+ALTER TABLE shopping_carts
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY customer_id VARBINARY(36) NOT NULL,
+    MODIFY shipping_address_id VARBINARY(36) NULL,
+    MODIFY billing_address_id VARBINARY(36) NULL;
+
+UPDATE shopping_carts SET
+    id = UUID_TO_BIN(id),
+    customer_id = UUID_TO_BIN(customer_id),
+    shipping_address_id = UUID_TO_BIN(shipping_address_id),
+    billing_address_id = UUID_TO_BIN(billing_address_id);
+
+ALTER TABLE shopping_carts
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY customer_id BINARY(16) NOT NULL,
+    MODIFY shipping_address_id BINARY(16) NULL,
+    MODIFY billing_address_id BINARY(16) NULL;
+
+-- shopping_cart_items
+ALTER TABLE shopping_cart_items
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY cart_id VARBINARY(36) NOT NULL,
+    MODIFY product_id VARBINARY(36) NOT NULL,
+    MODIFY variant_id VARBINARY(36) NOT NULL;
+
+UPDATE shopping_cart_items SET
+    id = UUID_TO_BIN(id),
+    cart_id = UUID_TO_BIN(cart_id),
+    product_id = UUID_TO_BIN(product_id),
+    variant_id = UUID_TO_BIN(variant_id);
+
+ALTER TABLE shopping_cart_items
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY cart_id BINARY(16) NOT NULL,
+    MODIFY product_id BINARY(16) NOT NULL,
+    MODIFY variant_id BINARY(16) NOT NULL;
+
+-- wishlists
+ALTER TABLE wishlists
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY customer_id VARBINARY(36) NOT NULL;
+
+UPDATE wishlists SET
+    id = UUID_TO_BIN(id),
+    customer_id = UUID_TO_BIN(customer_id);
+
+ALTER TABLE wishlists
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY customer_id BINARY(16) NOT NULL;
+
+-- wishlist_items
+ALTER TABLE wishlist_items
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY wishlist_id VARBINARY(36) NOT NULL,
+    MODIFY product_id VARBINARY(36) NOT NULL,
+    MODIFY variant_id VARBINARY(36) NULL;
+
+UPDATE wishlist_items SET
+    id = UUID_TO_BIN(id),
+    wishlist_id = UUID_TO_BIN(wishlist_id),
+    product_id = UUID_TO_BIN(product_id),
+    variant_id = UUID_TO_BIN(variant_id);
+
+ALTER TABLE wishlist_items
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY wishlist_id BINARY(16) NOT NULL,
+    MODIFY product_id BINARY(16) NOT NULL,
+    MODIFY variant_id BINARY(16) NULL;
+
+-- orders
+ALTER TABLE orders
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY customer_id VARBINARY(36) NOT NULL;
+
+UPDATE orders SET
+    id = UUID_TO_BIN(id),
+    customer_id = UUID_TO_BIN(customer_id);
+
+ALTER TABLE orders
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY customer_id BINARY(16) NOT NULL;
+
+-- order_items
+ALTER TABLE order_items
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY order_id VARBINARY(36) NOT NULL,
+    MODIFY product_id VARBINARY(36) NOT NULL,
+    MODIFY variant_id VARBINARY(36) NOT NULL;
+
+UPDATE order_items SET
+    id = UUID_TO_BIN(id),
+    order_id = UUID_TO_BIN(order_id),
+    product_id = UUID_TO_BIN(product_id),
+    variant_id = UUID_TO_BIN(variant_id);
+
+ALTER TABLE order_items
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY order_id BINARY(16) NOT NULL,
+    MODIFY product_id BINARY(16) NOT NULL,
+    MODIFY variant_id BINARY(16) NOT NULL;
+
+-- order_addresses
+ALTER TABLE order_addresses
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY order_id VARBINARY(36) NOT NULL;
+
+UPDATE order_addresses SET
+    id = UUID_TO_BIN(id),
+    order_id = UUID_TO_BIN(order_id);
+
+ALTER TABLE order_addresses
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY order_id BINARY(16) NOT NULL;
+
+-- order_payments
+ALTER TABLE order_payments
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY order_id VARBINARY(36) NOT NULL;
+
+UPDATE order_payments SET
+    id = UUID_TO_BIN(id),
+    order_id = UUID_TO_BIN(order_id);
+
+ALTER TABLE order_payments
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY order_id BINARY(16) NOT NULL;
+
+-- order_shipments
+ALTER TABLE order_shipments
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY order_id VARBINARY(36) NOT NULL;
+
+UPDATE order_shipments SET
+    id = UUID_TO_BIN(id),
+    order_id = UUID_TO_BIN(order_id);
+
+ALTER TABLE order_shipments
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY order_id BINARY(16) NOT NULL;
+
+-- coupons
+ALTER TABLE coupons
+    MODIFY id VARBINARY(36) NOT NULL;
+
+UPDATE coupons SET
+    id = UUID_TO_BIN(id);
+
+ALTER TABLE coupons
+    MODIFY id BINARY(16) NOT NULL;
+
+-- coupon_usage
+ALTER TABLE coupon_usage
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY coupon_id VARBINARY(36) NOT NULL,
+    MODIFY customer_id VARBINARY(36) NOT NULL,
+    MODIFY order_id VARBINARY(36) NULL;
+
+UPDATE coupon_usage SET
+    id = UUID_TO_BIN(id),
+    coupon_id = UUID_TO_BIN(coupon_id),
+    customer_id = UUID_TO_BIN(customer_id),
+    order_id = UUID_TO_BIN(order_id);
+
+ALTER TABLE coupon_usage
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY coupon_id BINARY(16) NOT NULL,
+    MODIFY customer_id BINARY(16) NOT NULL,
+    MODIFY order_id BINARY(16) NULL;
+
+-- suppliers
+ALTER TABLE suppliers
+    MODIFY id VARBINARY(36) NOT NULL;
+
+UPDATE suppliers SET
+    id = UUID_TO_BIN(id);
+
+ALTER TABLE suppliers
+    MODIFY id BINARY(16) NOT NULL;
+
+-- inventory_locations
+ALTER TABLE inventory_locations
+    MODIFY id VARBINARY(36) NOT NULL;
+
+UPDATE inventory_locations SET
+    id = UUID_TO_BIN(id);
+
+ALTER TABLE inventory_locations
+    MODIFY id BINARY(16) NOT NULL;
+
+-- inventory_stock
+ALTER TABLE inventory_stock
+    MODIFY variant_id VARBINARY(36) NOT NULL,
+    MODIFY supplier_id VARBINARY(36) NOT NULL,
+    MODIFY location_id VARBINARY(36) NOT NULL;
+
+UPDATE inventory_stock SET
+    variant_id = UUID_TO_BIN(variant_id),
+    supplier_id = UUID_TO_BIN(supplier_id),
+    location_id = UUID_TO_BIN(location_id);
+
+ALTER TABLE inventory_stock
+    MODIFY variant_id BINARY(16) NOT NULL,
+    MODIFY supplier_id BINARY(16) NOT NULL,
+    MODIFY location_id BINARY(16) NOT NULL;
+
+-- inventory_log
+ALTER TABLE inventory_log
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY product_id VARBINARY(36) NULL,
+    MODIFY variant_id VARBINARY(36) NULL,
+    MODIFY supplier_id VARBINARY(36) NULL,
+    MODIFY location_id VARBINARY(36) NULL,
+    MODIFY admin_user_id VARBINARY(36) NULL;
+
+UPDATE inventory_log SET
+    id = UUID_TO_BIN(id),
+    product_id = UUID_TO_BIN(product_id),
+    variant_id = UUID_TO_BIN(variant_id),
+    supplier_id = UUID_TO_BIN(supplier_id),
+    location_id = UUID_TO_BIN(location_id),
+    admin_user_id = UUID_TO_BIN(admin_user_id);
+
+ALTER TABLE inventory_log
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY product_id BINARY(16) NULL,
+    MODIFY variant_id BINARY(16) NULL,
+    MODIFY supplier_id BINARY(16) NULL,
+    MODIFY location_id BINARY(16) NULL,
+    MODIFY admin_user_id BINARY(16) NULL;
+
+-- inventory_alerts
+ALTER TABLE inventory_alerts
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY product_id VARBINARY(36) NULL,
+    MODIFY variant_id VARBINARY(36) NULL,
+    MODIFY supplier_id VARBINARY(36) NULL,
+    MODIFY location_id VARBINARY(36) NULL,
+    MODIFY acknowledged_by VARBINARY(36) NULL,
+    MODIFY resolved_by VARBINARY(36) NULL;
+
+UPDATE inventory_alerts SET
+    id = UUID_TO_BIN(id),
+    product_id = UUID_TO_BIN(product_id),
+    variant_id = UUID_TO_BIN(variant_id),
+    supplier_id = UUID_TO_BIN(supplier_id),
+    location_id = UUID_TO_BIN(location_id),
+    acknowledged_by = UUID_TO_BIN(acknowledged_by),
+    resolved_by = UUID_TO_BIN(resolved_by);
+
+ALTER TABLE inventory_alerts
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY product_id BINARY(16) NULL,
+    MODIFY variant_id BINARY(16) NULL,
+    MODIFY supplier_id BINARY(16) NULL,
+    MODIFY location_id BINARY(16) NULL,
+    MODIFY acknowledged_by BINARY(16) NULL,
+    MODIFY resolved_by BINARY(16) NULL;
+
+SET FOREIGN_KEY_CHECKS = 1;
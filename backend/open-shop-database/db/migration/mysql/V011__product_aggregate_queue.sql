@@ -0,0 +1,115 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V011: Product Aggregate Queue
+-- =============================================
+
+-- =============================================
+-- PRODUCT AGGREGATE QUEUE
+-- =============================================
+-- Products whose denormalized aggregates (min_price, max_price, avg_rating,
+-- review_count, total_stock, is_in_stock) are out of date. Rows are written by
+-- the triggers below in the transaction of the change and consumed by
+-- ProductAggregatePipeline, which recomputes every queued product once per
+-- drain. Stock changes queue the variant only, so the trigger on the
+-- reservation hot path does not look up the product.
+-- MySQL does not fire triggers for cascaded foreign key actions; deleting a
+-- product or variant queues its aggregate through the parent's own trigger.
+CREATE TABLE product_aggregate_queue (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BINARY(16),
+    variant_id BINARY(16),
+    queued_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT chk_aggregate_queue_target CHECK (product_id IS NOT NULL OR variant_id IS NOT NULL)
+) ENGINE=InnoDB;
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+-- Updates queue a change only when a column feeding an aggregate changed
+DELIMITER //
+CREATE TRIGGER variant_aggregate_insert_trigger
+AFTER INSERT ON product_variants
+FOR EACH ROW
+BEGIN
+    INSERT INTO product_aggregate_queue (product_id) VALUES (NEW.product_id);
+END //
+
+CREATE TRIGGER variant_aggregate_update_trigger
+AFTER UPDATE ON product_variants
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.price <=> NEW.price)
+        OR NOT (OLD.is_active <=> NEW.is_active)
+        OR NOT (OLD.product_id <=> NEW.product_id) THEN
+        INSERT INTO product_aggregate_queue (product_id) VALUES (NEW.product_id);
+    END IF;
+    IF NOT (OLD.product_id <=> NEW.product_id) THEN
+        INSERT INTO product_aggregate_queue (product_id) VALUES (OLD.product_id);
+    END IF;
+END //
+
+CREATE TRIGGER variant_aggregate_delete_trigger
+AFTER DELETE ON product_variants
+FOR EACH ROW
+BEGIN
+    INSERT INTO product_aggregate_queue (product_id) VALUES (OLD.product_id);
+END //
+
+CREATE TRIGGER review_aggregate_insert_trigger
+AFTER INSERT ON product_reviews
+FOR EACH ROW
+BEGIN
+    INSERT INTO product_aggregate_queue (product_id) VALUES (NEW.product_id);
+END //
+
+CREATE TRIGGER review_aggregate_update_trigger
+AFTER UPDATE ON product_reviews
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.rating <=> NEW.rating)
+        OR NOT (OLD.is_approved <=> NEW.is_approved)
+        OR NOT (OLD.product_id <=> NEW.product_id) THEN
+        INSERT INTO product_aggregate_queue (product_id) VALUES (NEW.product_id);
+    END IF;
+    IF NOT (OLD.product_id <=> NEW.product_id) THEN
+        INSERT INTO product_aggregate_queue (product_id) VALUES (OLD.product_id);
+    END IF;
+END //
+
+CREATE TRIGGER review_aggregate_delete_trigger
+AFTER DELETE ON product_reviews
+FOR EACH ROW
+BEGIN
+    INSERT INTO product_aggregate_queue (product_id) VALUES (OLD.product_id);
+END //
+
+CREATE TRIGGER stock_aggregate_insert_trigger
+AFTER INSERT ON inventory_stock
+FOR EACH ROW
+BEGIN
+    INSERT INTO product_aggregate_queue (variant_id) VALUES (NEW.variant_id);
+END //
+
+CREATE TRIGGER stock_aggregate_update_trigger
+AFTER UPDATE ON inventory_stock
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.quantity_on_hand <=> NEW.quantity_on_hand)
+        OR NOT (OLD.quantity_reserved <=> NEW.quantity_reserved)
+        OR NOT (OLD.status <=> NEW.status)
+        OR NOT (OLD.variant_id <=> NEW.variant_id) THEN
+        INSERT INTO product_aggregate_queue (variant_id) VALUES (NEW.variant_id);
+    END IF;
+    IF NOT (OLD.variant_id <=> NEW.variant_id) THEN
+        INSERT INTO product_aggregate_queue (variant_id) VALUES (OLD.variant_id);
+    END IF;
+END //
+
+CREATE TRIGGER stock_aggregate_delete_trigger
+AFTER DELETE ON inventory_stock
+FOR EACH ROW
+BEGIN
+    INSERT INTO product_aggregate_queue (variant_id) VALUES (OLD.variant_id);
+END //
+DELIMITER ;
@@ -0,0 +1,88 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V012: Log Partitioning
+-- =============================================
+-- inventory_log and audit_log become range partitioned by month on
+-- created_at / changed_at, so queries over recent history read recent
+-- partitions only and expired months are dropped or exchanged out as whole
+-- partitions instead of being deleted row by row. Every existing row goes to
+-- partition p_history, which ends at the first of next month (UTC). Monthly
+-- partitions pYYYYMM follow from there and are created ahead of time by
+-- PartitionManager, which also retires partitions past their retention.
+-- p_future catches rows beyond the last monthly partition, e.g. when the
+-- manager has not run for a while; new months are split off it.
+--
+-- MySQL partitions TIMESTAMP columns on UNIX_TIMESTAMP(), and requires:
+--   * the partition column in every unique key: the primary keys become
+--     (id, created_at) and (id, changed_at),
+--   * no foreign keys: inventory_log keeps its key columns and indexes but
+--     loses its constraints, so a log entry keeps the id of a deleted
+--     product, variant, supplier, location or admin user instead of NULL.
+-- Partitioning rebuilds both tables. DDL is not transactional in MySQL: take
+-- a backup first.
+
+SET @saved_time_zone = @@session.time_zone;
+SET time_zone = '+00:00';
+SET @next_month = LAST_DAY(UTC_DATE()) + INTERVAL 1 DAY;
+
+-- =============================================
+-- INVENTORY LOG
+-- =============================================
+SELECT COALESCE(CONCAT('ALTER TABLE inventory_log ',
+                       GROUP_CONCAT(CONCAT('DROP FOREIGN KEY ', CONSTRAINT_NAME) SEPARATOR ', ')), 'DO 0')
+INTO @drop_foreign_keys
+FROM information_schema.TABLE_CONSTRAINTS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'inventory_log' AND CONSTRAINT_TYPE = 'FOREIGN KEY';
+
+PREPARE stmt FROM @drop_foreign_keys;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+UPDATE inventory_log SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+
+ALTER TABLE inventory_log
+    MODIFY created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+SET @partition_log = CONCAT(
+    'ALTER TABLE inventory_log PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (',
+    'PARTITION p_history VALUES LESS THAN (', UNIX_TIMESTAMP(@next_month), '), ',
+    'PARTITION p', DATE_FORMAT(@next_month, '%Y%m'),
+    ' VALUES LESS THAN (', UNIX_TIMESTAMP(@next_month + INTERVAL 1 MONTH), '), ',
+    'PARTITION p', DATE_FORMAT(@next_month + INTERVAL 1 MONTH, '%Y%m'),
+    ' VALUES LESS THAN (', UNIX_TIMESTAMP(@next_month + INTERVAL 2 MONTH), '), ',
+    'PARTITION p', DATE_FORMAT(@next_month + INTERVAL 2 MONTH, '%Y%m'),
+    ' VALUES LESS THAN (', UNIX_TIMESTAMP(@next_month + INTERVAL 3 MONTH), '), ',
+    'PARTITION p_future VALUES LESS THAN MAXVALUE)');
+
+PREPARE stmt FROM @partition_log;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- =============================================
+-- AUDIT LOG
+-- =============================================
+UPDATE audit_log SET changed_at = CURRENT_TIMESTAMP WHERE changed_at IS NULL;
+
+ALTER TABLE audit_log
+    MODIFY changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, changed_at);
+
+SET @partition_audit = CONCAT(
+    'ALTER TABLE audit_log PARTITION BY RANGE (UNIX_TIMESTAMP(changed_at)) (',
+    'PARTITION p_history VALUES LESS THAN (', UNIX_TIMESTAMP(@next_month), '), ',
+    'PARTITION p', DATE_FORMAT(@next_month, '%Y%m'),
+    ' VALUES LESS THAN (', UNIX_TIMESTAMP(@next_month + INTERVAL 1 MONTH), '), ',
+    'PARTITION p', DATE_FORMAT(@next_month + INTERVAL 1 MONTH, '%Y%m'),
+    ' VALUES LESS THAN (', UNIX_TIMESTAMP(@next_month + INTERVAL 2 MONTH), '), ',
+    'PARTITION p', DATE_FORMAT(@next_month + INTERVAL 2 MONTH, '%Y%m'),
+    ' VALUES LESS THAN (', UNIX_TIMESTAMP(@next_month + INTERVAL 3 MONTH), '), ',
+    'PARTITION p_future VALUES LESS THAN MAXVALUE)');
+
+PREPARE stmt FROM @partition_audit;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET time_zone = @saved_time_zone;
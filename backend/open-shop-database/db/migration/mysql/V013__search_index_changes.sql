@@ -0,0 +1,163 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V013: Search Index Changes
+-- =============================================
+
+-- =============================================
+-- SEARCH INDEX CHANGES
+-- =============================================
+-- Log of catalog changes that affect product search: the product, variant,
+-- brand or tag whose searchable text, category, price or visibility changed.
+-- Rows are written by the triggers below in the transaction of the change.
+-- Every application node keeps its own in-memory SearchIndex and reads the
+-- log from the last id it applied, so rows are not consumed; they are purged
+-- once older than the retention of the readers (one day by default).
+-- Variants are resolved to their product when the log is read.
+-- MySQL does not fire triggers for cascaded foreign key actions; deleting a
+-- product logs it through its own trigger, and deleting a tag logs the tag,
+-- whose products the index knows.
+CREATE TABLE search_index_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BINARY(16),
+    variant_id BINARY(16),
+    brand_id BINARY(16),
+    tag_id BINARY(16),
+    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_search_change_time (changed_at),
+
+    CONSTRAINT chk_search_change_target CHECK (
+        product_id IS NOT NULL OR variant_id IS NOT NULL OR brand_id IS NOT NULL OR tag_id IS NOT NULL
+    )
+) ENGINE=InnoDB;
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+-- Updates log a change only when a column the index reads changed
+DELIMITER //
+CREATE TRIGGER product_search_insert_trigger
+AFTER INSERT ON products
+FOR EACH ROW
+BEGIN
+    INSERT INTO search_index_changes (product_id) VALUES (NEW.id);
+END //
+
+CREATE TRIGGER product_search_update_trigger
+AFTER UPDATE ON products
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.name <=> NEW.name)
+        OR NOT (OLD.short_description <=> NEW.short_description)
+        OR NOT (OLD.description <=> NEW.description)
+        OR NOT (OLD.category_id <=> NEW.category_id)
+        OR NOT (OLD.brand_id <=> NEW.brand_id)
+        OR NOT (OLD.status <=> NEW.status)
+        OR NOT (OLD.min_price <=> NEW.min_price) THEN
+        INSERT INTO search_index_changes (product_id) VALUES (NEW.id);
+    END IF;
+END //
+
+CREATE TRIGGER product_search_delete_trigger
+AFTER DELETE ON products
+FOR EACH ROW
+BEGIN
+    INSERT INTO search_index_changes (product_id) VALUES (OLD.id);
+END //
+
+-- Variant attributes are indexed with their product
+CREATE TRIGGER variant_search_update_trigger
+AFTER UPDATE ON product_variants
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.product_id <=> NEW.product_id) THEN
+        INSERT INTO search_index_changes (product_id) VALUES (NEW.product_id);
+        INSERT INTO search_index_changes (product_id) VALUES (OLD.product_id);
+    END IF;
+END //
+
+CREATE TRIGGER variant_search_delete_trigger
+AFTER DELETE ON product_variants
+FOR EACH ROW
+BEGIN
+    INSERT INTO search_index_changes (product_id) VALUES (OLD.product_id);
+END //
+
+CREATE TRIGGER attribute_search_insert_trigger
+AFTER INSERT ON product_attributes
+FOR EACH ROW
+BEGIN
+    INSERT INTO search_index_changes (product_id, variant_id) VALUES (NEW.product_id, NEW.variant_id);
+END //
+
+CREATE TRIGGER attribute_search_update_trigger
+AFTER UPDATE ON product_attributes
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.attribute_value <=> NEW.attribute_value)
+        OR NOT (OLD.is_searchable <=> NEW.is_searchable)
+        OR NOT (OLD.product_id <=> NEW.product_id)
+        OR NOT (OLD.variant_id <=> NEW.variant_id) THEN
+        INSERT INTO search_index_changes (product_id, variant_id) VALUES (NEW.product_id, NEW.variant_id);
+    END IF;
+    IF NOT (OLD.product_id <=> NEW.product_id) OR NOT (OLD.variant_id <=> NEW.variant_id) THEN
+        INSERT INTO search_index_changes (product_id, variant_id) VALUES (OLD.product_id, OLD.variant_id);
+    END IF;
+END //
+
+CREATE TRIGGER attribute_search_delete_trigger
+AFTER DELETE ON product_attributes
+FOR EACH ROW
+BEGIN
+    INSERT INTO search_index_changes (product_id, variant_id) VALUES (OLD.product_id, OLD.variant_id);
+END //
+
+CREATE TRIGGER product_tag_search_insert_trigger
+AFTER INSERT ON product_tags
+FOR EACH ROW
+BEGIN
+    INSERT INTO search_index_changes (product_id) VALUES (NEW.product_id);
+END //
+
+CREATE TRIGGER product_tag_search_update_trigger
+AFTER UPDATE ON product_tags
+FOR EACH ROW
+BEGIN
+    INSERT INTO search_index_changes (product_id) VALUES (NEW.product_id);
+    IF NOT (OLD.product_id <=> NEW.product_id) THEN
+        INSERT INTO search_index_changes (product_id) VALUES (OLD.product_id);
+    END IF;
+END //
+
+CREATE TRIGGER product_tag_search_delete_trigger
+AFTER DELETE ON product_tags
+FOR EACH ROW
+BEGIN
+    INSERT INTO search_index_changes (product_id) VALUES (OLD.product_id);
+END //
+
+CREATE TRIGGER brand_search_update_trigger
+AFTER UPDATE ON brands
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.name <=> NEW.name) THEN
+        INSERT INTO search_index_changes (brand_id) VALUES (OLD.id);
+    END IF;
+END //
+
+CREATE TRIGGER tag_search_update_trigger
+AFTER UPDATE ON tags
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.name <=> NEW.name) OR NOT (OLD.is_active <=> NEW.is_active) THEN
+        INSERT INTO search_index_changes (tag_id) VALUES (OLD.id);
+    END IF;
+END //
+
+CREATE TRIGGER tag_search_delete_trigger
+AFTER DELETE ON tags
+FOR EACH ROW
+BEGIN
+    INSERT INTO search_index_changes (tag_id) VALUES (OLD.id);
+END //
+DELIMITER ;
@@ -0,0 +1,79 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V014: Facet Index Changes
+-- =============================================
+
+-- =============================================
+-- SEARCH INDEX CHANGES
+-- =============================================
+-- The in-memory FacetIndex reads search_index_changes like SearchIndex does.
+-- Facets also depend on the stock flag of products, the color, size and
+-- activity of variants and the filterability and key of attributes, so
+-- changes of those columns are logged as well. Each index reloads only the
+-- products it is told about, so the extra entries cost SearchIndex a reload
+-- of those products and nothing else.
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+DROP TRIGGER IF EXISTS product_search_update_trigger;
+DROP TRIGGER IF EXISTS variant_search_update_trigger;
+DROP TRIGGER IF EXISTS attribute_search_update_trigger;
+
+DELIMITER //
+CREATE TRIGGER product_search_update_trigger
+AFTER UPDATE ON products
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.name <=> NEW.name)
+        OR NOT (OLD.short_description <=> NEW.short_description)
+        OR NOT (OLD.description <=> NEW.description)
+        OR NOT (OLD.category_id <=> NEW.category_id)
+        OR NOT (OLD.brand_id <=> NEW.brand_id)
+        OR NOT (OLD.status <=> NEW.status)
+        OR NOT (OLD.min_price <=> NEW.min_price)
+        OR NOT (OLD.is_in_stock <=> NEW.is_in_stock) THEN
+        INSERT INTO search_index_changes (product_id) VALUES (NEW.id);
+    END IF;
+END //
+
+-- New variants add colors and sizes
+CREATE TRIGGER variant_search_insert_trigger
+AFTER INSERT ON product_variants
+FOR EACH ROW
+BEGIN
+    INSERT INTO search_index_changes (product_id) VALUES (NEW.product_id);
+END //
+
+CREATE TRIGGER variant_search_update_trigger
+AFTER UPDATE ON product_variants
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.product_id <=> NEW.product_id)
+        OR NOT (OLD.color_name <=> NEW.color_name)
+        OR NOT (OLD.size_type <=> NEW.size_type)
+        OR NOT (OLD.is_active <=> NEW.is_active) THEN
+        INSERT INTO search_index_changes (product_id) VALUES (NEW.product_id);
+    END IF;
+    IF NOT (OLD.product_id <=> NEW.product_id) THEN
+        INSERT INTO search_index_changes (product_id) VALUES (OLD.product_id);
+    END IF;
+END //
+
+CREATE TRIGGER attribute_search_update_trigger
+AFTER UPDATE ON product_attributes
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.attribute_value <=> NEW.attribute_value)
+        OR NOT (OLD.attribute_key <=> NEW.attribute_key)
+        OR NOT (OLD.is_searchable <=> NEW.is_searchable)
+        OR NOT (OLD.is_filterable <=> NEW.is_filterable)
+        OR NOT (OLD.product_id <=> NEW.product_id)
+        OR NOT (OLD.variant_id <=> NEW.variant_id) THEN
+        INSERT INTO search_index_changes (product_id, variant_id) VALUES (NEW.product_id, NEW.variant_id);
+    END IF;
+    IF NOT (OLD.product_id <=> NEW.product_id) OR NOT (OLD.variant_id <=> NEW.variant_id) THEN
+        INSERT INTO search_index_changes (product_id, variant_id) VALUES (OLD.product_id, OLD.variant_id);
+    END IF;
+END //
+DELIMITER ;
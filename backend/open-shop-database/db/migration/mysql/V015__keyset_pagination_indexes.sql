@@ -0,0 +1,53 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V015: Keyset Pagination Indexes
+-- =============================================
+
+-- =============================================
+-- KEYSET PAGINATION
+-- =============================================
+-- List endpoints page with keyset cursors (com.openshop.database.page): the
+-- next page starts after the (sort value, id) of the last row instead of
+-- skipping OFFSET rows. That reads only the rows of the page when an index
+-- holds the equality filter, the sort column and id, in that order, so the
+-- index order is the page order in either direction.
+--
+-- Storefront product listings always filter on status, so each product sort
+-- gets a (status, sort column, id) index; they make idx_product_status
+-- redundant. Order and movement indexes already leading with the sort or
+-- filter column are widened to end with id rather than added next to it.
+--
+-- Each index is dropped and added in one ALTER TABLE, so the foreign key on
+-- orders.customer_id is backed by an index throughout.
+
+-- =============================================
+-- PRODUCTS
+-- =============================================
+ALTER TABLE products
+    DROP INDEX idx_product_status,
+    ADD INDEX idx_product_list_created (status, created_at, id),
+    ADD INDEX idx_product_list_name (status, name, id),
+    ADD INDEX idx_product_list_price (status, min_price, id),
+    ADD INDEX idx_product_list_rating (status, avg_rating, id),
+    ADD INDEX idx_product_list_popularity (status, review_count, id);
+
+-- =============================================
+-- ORDERS
+-- =============================================
+ALTER TABLE orders
+    DROP INDEX idx_order_customer,
+    DROP INDEX idx_order_created,
+    DROP INDEX idx_order_total,
+    ADD INDEX idx_order_customer (customer_id, created_at, id),
+    ADD INDEX idx_order_created (created_at, id),
+    ADD INDEX idx_order_updated (updated_at, id),
+    ADD INDEX idx_order_total (total_amount, id);
+
+-- =============================================
+-- INVENTORY LOG
+-- =============================================
+ALTER TABLE inventory_log
+    DROP INDEX idx_log_product,
+    DROP INDEX idx_log_variant,
+    ADD INDEX idx_log_product (product_id, created_at, id),
+    ADD INDEX idx_log_variant (variant_id, created_at, id);
@@ -0,0 +1,14 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V016: Session Access Token Index
+-- =============================================
+
+-- =============================================
+-- USER SESSIONS
+-- =============================================
+-- Authenticated requests resolve their session by the hash of the access
+-- token (com.openshop.database.session.SessionCache). The cache answers most
+-- of them from memory, but every miss and every node start reads by
+-- access_token_hash, which had no index and scanned the table.
+ALTER TABLE user_sessions
+    ADD INDEX idx_session_access_token (access_token_hash);
@@ -0,0 +1,132 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V018: Sales Rollups
+-- =============================================
+
+-- =============================================
+-- SALES ROLLUPS
+-- =============================================
+-- Per-day totals of orders and order items, so sales reports over months of
+-- orders read a few rows per day instead of aggregating orders and
+-- order_items. Days are UTC calendar days of orders.created_at. Rows are
+-- written by SalesRollupPipeline, which recomputes a whole day at a time from
+-- orders and order_items; a day listed in sales_rollup_days is complete, any
+-- other day (today, or days not yet rolled up) is aggregated live by
+-- SalesReports.
+
+-- Totals of the orders of one day in one status
+CREATE TABLE sales_daily (
+    sales_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    order_count INT NOT NULL,
+    revenue DECIMAL(14,2) NOT NULL,
+    subtotal DECIMAL(14,2) NOT NULL,
+    discount_total DECIMAL(14,2) NOT NULL,
+    tax_total DECIMAL(14,2) NOT NULL,
+    shipping_total DECIMAL(14,2) NOT NULL,
+    item_cost DECIMAL(14,2) NOT NULL,
+
+    PRIMARY KEY (sales_date, status)
+) ENGINE=InnoDB;
+
+-- Totals of one product in the orders of one day in one status
+CREATE TABLE sales_daily_product (
+    sales_date DATE NOT NULL,
+    product_id BINARY(16) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    quantity INT NOT NULL,
+    revenue DECIMAL(14,2) NOT NULL,
+    item_cost DECIMAL(14,2) NOT NULL,
+    order_count INT NOT NULL,
+
+    PRIMARY KEY (sales_date, product_id, status)
+) ENGINE=InnoDB;
+
+-- Days whose rollup rows are complete
+CREATE TABLE sales_rollup_days (
+    sales_date DATE NOT NULL PRIMARY KEY,
+    rolled_up_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB;
+
+-- =============================================
+-- SALES ROLLUP QUEUE
+-- =============================================
+-- Orders whose day must be rolled up again. Order changes queue the order's
+-- created_at, so a deleted order can still be placed; item changes queue the
+-- order only and the pipeline looks its day up.
+-- MySQL does not fire triggers for cascaded foreign key actions; items deleted
+-- with their order are covered by the order's delete trigger.
+CREATE TABLE sales_rollup_queue (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id BINARY(16) NOT NULL,
+    order_created_at TIMESTAMP NULL,
+    queued_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB;
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+-- Updates queue a change only when a column feeding a rollup changed
+DELIMITER //
+CREATE TRIGGER order_sales_rollup_insert_trigger
+AFTER INSERT ON orders
+FOR EACH ROW
+BEGIN
+    INSERT INTO sales_rollup_queue (order_id, order_created_at) VALUES (NEW.id, NEW.created_at);
+END //
+
+CREATE TRIGGER order_sales_rollup_update_trigger
+AFTER UPDATE ON orders
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.status <=> NEW.status)
+        OR NOT (OLD.created_at <=> NEW.created_at)
+        OR NOT (OLD.total_amount <=> NEW.total_amount)
+        OR NOT (OLD.subtotal <=> NEW.subtotal)
+        OR NOT (OLD.discount_total <=> NEW.discount_total)
+        OR NOT (OLD.tax_total <=> NEW.tax_total)
+        OR NOT (OLD.shipping_cost <=> NEW.shipping_cost) THEN
+        INSERT INTO sales_rollup_queue (order_id, order_created_at) VALUES (NEW.id, NEW.created_at);
+    END IF;
+    IF NOT (OLD.created_at <=> NEW.created_at) THEN
+        INSERT INTO sales_rollup_queue (order_id, order_created_at) VALUES (OLD.id, OLD.created_at);
+    END IF;
+END //
+
+CREATE TRIGGER order_sales_rollup_delete_trigger
+AFTER DELETE ON orders
+FOR EACH ROW
+BEGIN
+    INSERT INTO sales_rollup_queue (order_id, order_created_at) VALUES (OLD.id, OLD.created_at);
+END //
+
+CREATE TRIGGER order_item_sales_rollup_insert_trigger
+AFTER INSERT ON order_items
+FOR EACH ROW
+BEGIN
+    INSERT INTO sales_rollup_queue (order_id) VALUES (NEW.order_id);
+END //
+
+CREATE TRIGGER order_item_sales_rollup_update_trigger
+AFTER UPDATE ON order_items
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.quantity <=> NEW.quantity)
+        OR NOT (OLD.unit_price <=> NEW.unit_price)
+        OR NOT (OLD.cost_price <=> NEW.cost_price)
+        OR NOT (OLD.product_id <=> NEW.product_id)
+        OR NOT (OLD.order_id <=> NEW.order_id) THEN
+        INSERT INTO sales_rollup_queue (order_id) VALUES (NEW.order_id);
+    END IF;
+    IF NOT (OLD.order_id <=> NEW.order_id) THEN
+        INSERT INTO sales_rollup_queue (order_id) VALUES (OLD.order_id);
+    END IF;
+END //
+
+CREATE TRIGGER order_item_sales_rollup_delete_trigger
+AFTER DELETE ON order_items
+FOR EACH ROW
+BEGIN
+    INSERT INTO sales_rollup_queue (order_id) VALUES (OLD.order_id);
+END //
+DELIMITER ;
@@ -0,0 +1,143 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V020: Outbox
+-- =============================================
+
+-- =============================================
+-- OUTBOX
+-- =============================================
+-- Change events for caches over products, product_variants, inventory_stock
+-- and orders, written by the triggers below in the transaction of the change.
+-- OutboxRelay delivers them in batches and deletes them once delivered, so
+-- the table only holds undelivered events. Each event names the aggregate it
+-- belongs to, whose events are delivered in id order:
+--   catalog      product    products, or a variant's non-price columns
+--   price        product    a variant's price, currency or availability
+--   stock        variant    a stock row of the variant at entity_id (location)
+--   order_status order      an order placed, deleted or changing status
+-- MySQL does not fire triggers for cascaded foreign key actions; deleting a
+-- product writes its catalog event, but not those of its variants and stock.
+-- The relay claims events with FOR UPDATE SKIP LOCKED, which needs MySQL 8.0.
+CREATE TABLE outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(20) NOT NULL,
+    aggregate_id BINARY(16) NOT NULL,
+    entity_id BINARY(16),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT chk_outbox_event_type CHECK (event_type IN ('catalog', 'price', 'stock', 'order_status')),
+
+    -- The relay holds back events of an aggregate with an earlier event pending
+    INDEX idx_outbox_aggregate (aggregate_id, id)
+) ENGINE=InnoDB;
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+-- Updates write an event only when a column the event stands for changed
+DELIMITER //
+CREATE TRIGGER product_outbox_insert_trigger
+AFTER INSERT ON products
+FOR EACH ROW
+BEGIN
+    INSERT INTO outbox (event_type, aggregate_id) VALUES ('catalog', NEW.id);
+END //
+
+CREATE TRIGGER product_outbox_update_trigger
+AFTER UPDATE ON products
+FOR EACH ROW
+BEGIN
+    INSERT INTO outbox (event_type, aggregate_id) VALUES ('catalog', NEW.id);
+END //
+
+CREATE TRIGGER product_outbox_delete_trigger
+AFTER DELETE ON products
+FOR EACH ROW
+BEGIN
+    INSERT INTO outbox (event_type, aggregate_id) VALUES ('catalog', OLD.id);
+END //
+
+CREATE TRIGGER variant_outbox_insert_trigger
+AFTER INSERT ON product_variants
+FOR EACH ROW
+BEGIN
+    INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', NEW.product_id, NEW.id);
+END //
+
+CREATE TRIGGER variant_outbox_update_trigger
+AFTER UPDATE ON product_variants
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.price <=> NEW.price)
+        OR NOT (OLD.compare_at_price <=> NEW.compare_at_price)
+        OR NOT (OLD.currency <=> NEW.currency)
+        OR NOT (OLD.is_active <=> NEW.is_active) THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('price', NEW.product_id, NEW.id);
+    ELSE
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', NEW.product_id, NEW.id);
+    END IF;
+    IF NOT (OLD.product_id <=> NEW.product_id) THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', OLD.product_id, OLD.id);
+    END IF;
+END //
+
+CREATE TRIGGER variant_outbox_delete_trigger
+AFTER DELETE ON product_variants
+FOR EACH ROW
+BEGIN
+    INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', OLD.product_id, OLD.id);
+END //
+
+CREATE TRIGGER stock_outbox_insert_trigger
+AFTER INSERT ON inventory_stock
+FOR EACH ROW
+BEGIN
+    INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('stock', NEW.variant_id, NEW.location_id);
+END //
+
+CREATE TRIGGER stock_outbox_update_trigger
+AFTER UPDATE ON inventory_stock
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.quantity_on_hand <=> NEW.quantity_on_hand)
+        OR NOT (OLD.quantity_reserved <=> NEW.quantity_reserved)
+        OR NOT (OLD.status <=> NEW.status)
+        OR NOT (OLD.variant_id <=> NEW.variant_id)
+        OR NOT (OLD.location_id <=> NEW.location_id) THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('stock', NEW.variant_id, NEW.location_id);
+    END IF;
+    IF NOT (OLD.variant_id <=> NEW.variant_id) OR NOT (OLD.location_id <=> NEW.location_id) THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('stock', OLD.variant_id, OLD.location_id);
+    END IF;
+END //
+
+CREATE TRIGGER stock_outbox_delete_trigger
+AFTER DELETE ON inventory_stock
+FOR EACH ROW
+BEGIN
+    INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('stock', OLD.variant_id, OLD.location_id);
+END //
+
+CREATE TRIGGER order_outbox_insert_trigger
+AFTER INSERT ON orders
+FOR EACH ROW
+BEGIN
+    INSERT INTO outbox (event_type, aggregate_id) VALUES ('order_status', NEW.id);
+END //
+
+CREATE TRIGGER order_outbox_update_trigger
+AFTER UPDATE ON orders
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.status <=> NEW.status) THEN
+        INSERT INTO outbox (event_type, aggregate_id) VALUES ('order_status', NEW.id);
+    END IF;
+END //
+
+CREATE TRIGGER order_outbox_delete_trigger
+AFTER DELETE ON orders
+FOR EACH ROW
+BEGIN
+    INSERT INTO outbox (event_type, aggregate_id) VALUES ('order_status', OLD.id);
+END //
+DELIMITER ;
@@ -0,0 +1,15 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V021: Inventory Alert Watermark
+-- =============================================
+
+-- =============================================
+-- INVENTORY STOCK
+-- =============================================
+-- The alert engine (com.openshop.database.inventory.InventoryAlertEngine)
+-- re-evaluates only the variants and locations whose stock rows changed since
+-- its last round, found by last_updated. ON UPDATE CURRENT_TIMESTAMP sets the
+-- column whenever a row changes; without this index each round scanned the
+-- whole table.
+ALTER TABLE inventory_stock
+    ADD INDEX idx_stock_last_updated (last_updated);
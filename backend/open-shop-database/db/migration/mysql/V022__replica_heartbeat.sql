@@ -0,0 +1,17 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V022: Replica Heartbeat
+-- =============================================
+
+-- =============================================
+-- REPLICA HEARTBEAT
+-- =============================================
+-- One row per application node, whose RoutingDataSource writes beat_at on the
+-- primary about every second and reads it back from each replica. How far the
+-- value read from a replica trails the current time is that replica's lag;
+-- replicas lagging beyond the configured maximum receive no reads. Microsecond
+-- precision keeps a beat from rounding down below a write it follows.
+CREATE TABLE replica_heartbeat (
+    node VARCHAR(100) PRIMARY KEY,
+    beat_at TIMESTAMP(6) NOT NULL
+) ENGINE=InnoDB;
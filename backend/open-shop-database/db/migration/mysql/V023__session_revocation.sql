@@ -0,0 +1,16 @@
+-- =============================================
+-- Open Shop E-commerce Platform - MySQL Schema
+-- V023: Session Revocation
+-- =============================================
+
+-- =============================================
+-- USER SESSIONS
+-- =============================================
+-- The session near-cache (com.openshop.database.session.SessionCache) of
+-- every node reads the sessions revoked since its last check, by revoked_at,
+-- and drops them, so a logout or password change on one node ends the session
+-- on all of them within seconds instead of after the cache TTL. Revocations
+-- must set revoked_at along with is_active = FALSE.
+ALTER TABLE user_sessions
+    ADD COLUMN revoked_at TIMESTAMP NULL,
+    ADD INDEX idx_session_revoked (revoked_at);
@@ -0,0 +1,47 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V009: Order Number Blocks
+-- =============================================
+
+-- =============================================
+-- ORDER NUMBER SEQUENCE
+-- =============================================
+-- Referenced by generate_order_number() since V001 but never created.
+-- Every NEXTVAL reserves a block of 100 order numbers [value, value + 100).
+-- OrderNumberGenerator hands out a block from memory, so the sequence is touched
+-- once per 100 orders instead of once per checkout. Block starts are 1 + k * 100
+-- (JdbcOrderNumberSequence.BLOCK_SIZE). generate_order_number() below takes one
+-- NEXTVAL per order, so each order numbered by the trigger uses up a whole block.
+CREATE SEQUENCE order_number_seq
+    START WITH 1
+    INCREMENT BY 100
+    NOCACHE;
+
+-- =============================================
+-- ORDER NUMBER GENERATION FUNCTION
+-- =============================================
+-- Pad to at least six digits without truncating larger sequence values
+CREATE OR REPLACE FUNCTION generate_order_number
+RETURN VARCHAR2
+IS
+    seq_val NUMBER;
+    order_date VARCHAR2(8);
+BEGIN
+    SELECT order_number_seq.NEXTVAL INTO seq_val FROM DUAL;
+    SELECT TO_CHAR(SYSDATE, 'YYYYMMDD') INTO order_date FROM DUAL;
+    RETURN 'ORD-' || order_date || '-' || LPAD(seq_val, GREATEST(6, LENGTH(TO_CHAR(seq_val))), '0');
+END generate_order_number;
+/
+
+-- =============================================
+-- ORDER NUMBER TRIGGER
+-- =============================================
+-- Fires only when no order number is supplied ('' is NULL in Oracle)
+CREATE OR REPLACE TRIGGER order_number_trigger
+BEFORE INSERT ON orders
+FOR EACH ROW
+WHEN (NEW.order_number IS NULL)
+BEGIN
+    :NEW.order_number := generate_order_number();
+END;
+/
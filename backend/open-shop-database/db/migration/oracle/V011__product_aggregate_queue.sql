@@ -0,0 +1,66 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V011: Product Aggregate Queue
+-- =============================================
+
+-- =============================================
+-- PRODUCT AGGREGATE QUEUE
+-- =============================================
+-- Products whose denormalized aggregates (min_price, max_price, avg_rating,
+-- review_count, total_stock, is_in_stock) are out of date. Rows are written by
+-- the triggers below in the transaction of the change and consumed by
+-- ProductAggregatePipeline, which recomputes every queued product once per
+-- drain. Stock changes queue the variant only: reading product_variants from a
+-- row trigger on inventory_stock would raise ORA-04091 while a variant delete
+-- cascades to its stock.
+CREATE TABLE product_aggregate_queue (
+    id NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id RAW(16),
+    variant_id RAW(16),
+    queued_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT chk_aggregate_queue_target CHECK (product_id IS NOT NULL OR variant_id IS NOT NULL)
+);
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+-- Updates queue a change only when a column feeding an aggregate is set
+CREATE OR REPLACE TRIGGER variant_aggregate_trigger
+AFTER INSERT OR DELETE OR UPDATE OF price, is_active, product_id ON product_variants
+FOR EACH ROW
+BEGIN
+    IF INSERTING OR UPDATING THEN
+        INSERT INTO product_aggregate_queue (product_id) VALUES (:NEW.product_id);
+    END IF;
+    IF DELETING OR (UPDATING AND :OLD.product_id <> :NEW.product_id) THEN
+        INSERT INTO product_aggregate_queue (product_id) VALUES (:OLD.product_id);
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER review_aggregate_trigger
+AFTER INSERT OR DELETE OR UPDATE OF rating, is_approved, product_id ON product_reviews
+FOR EACH ROW
+BEGIN
+    IF INSERTING OR UPDATING THEN
+        INSERT INTO product_aggregate_queue (product_id) VALUES (:NEW.product_id);
+    END IF;
+    IF DELETING OR (UPDATING AND :OLD.product_id <> :NEW.product_id) THEN
+        INSERT INTO product_aggregate_queue (product_id) VALUES (:OLD.product_id);
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER stock_aggregate_trigger
+AFTER INSERT OR DELETE OR UPDATE OF quantity_on_hand, quantity_reserved, status, variant_id ON inventory_stock
+FOR EACH ROW
+BEGIN
+    IF INSERTING OR UPDATING THEN
+        INSERT INTO product_aggregate_queue (variant_id) VALUES (:NEW.variant_id);
+    END IF;
+    IF DELETING OR (UPDATING AND :OLD.variant_id <> :NEW.variant_id) THEN
+        INSERT INTO product_aggregate_queue (variant_id) VALUES (:OLD.variant_id);
+    END IF;
+END;
+/
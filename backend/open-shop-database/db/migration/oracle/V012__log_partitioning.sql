@@ -0,0 +1,69 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V012: Log Partitioning
+-- =============================================
+-- inventory_log and audit_log become interval partitioned by month, so
+-- queries over recent history read recent partitions only and expired months
+-- are dropped or exchanged out as whole partitions instead of being deleted
+-- row by row. Every existing row goes to partition p_history, which ends at
+-- the first of next month (UTC); Oracle adds a partition for each later month
+-- on the first insert into it, and PartitionManager creates them ahead of
+-- time and retires partitions past their retention.
+--
+-- Interval partitioning does not accept TIMESTAMP WITH TIME ZONE keys, so
+-- each table is partitioned on a virtual UTC copy of its time column:
+-- created_at_utc and changed_at_utc. Queries prune partitions when they
+-- filter on the virtual column.
+--
+-- The tables are converted online. The secondary indexes become local, one
+-- segment per partition, so retiring a partition does not touch them; the
+-- primary keys stay global and are maintained when partitions are dropped.
+
+-- =============================================
+-- INVENTORY LOG
+-- =============================================
+UPDATE inventory_log SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+COMMIT;
+
+ALTER TABLE inventory_log MODIFY (created_at NOT NULL);
+ALTER TABLE inventory_log ADD (
+    created_at_utc TIMESTAMP GENERATED ALWAYS AS (SYS_EXTRACT_UTC(created_at)) VIRTUAL
+);
+
+COMMENT ON COLUMN inventory_log.created_at_utc IS 'created_at in UTC; partition key';
+
+-- =============================================
+-- AUDIT LOG
+-- =============================================
+UPDATE audit_log SET changed_at = CURRENT_TIMESTAMP WHERE changed_at IS NULL;
+COMMIT;
+
+ALTER TABLE audit_log MODIFY (changed_at NOT NULL);
+ALTER TABLE audit_log ADD (
+    changed_at_utc TIMESTAMP GENERATED ALWAYS AS (SYS_EXTRACT_UTC(changed_at)) VIRTUAL
+);
+
+COMMENT ON COLUMN audit_log.changed_at_utc IS 'changed_at in UTC; partition key';
+
+-- =============================================
+-- PARTITIONS
+-- =============================================
+DECLARE
+    next_month VARCHAR2(19) := TO_CHAR(ADD_MONTHS(TRUNC(SYS_EXTRACT_UTC(SYSTIMESTAMP), 'MM'), 1),
+                                       'YYYY-MM-DD HH24:MI:SS');
+BEGIN
+    EXECUTE IMMEDIATE 'ALTER TABLE inventory_log MODIFY PARTITION BY RANGE (created_at_utc) '
+        || 'INTERVAL (NUMTOYMINTERVAL(1, ''MONTH'')) '
+        || '(PARTITION p_history VALUES LESS THAN (TIMESTAMP ''' || next_month || ''')) '
+        || 'ONLINE UPDATE INDEXES ('
+        || 'idx_log_entity_type LOCAL, idx_log_product LOCAL, idx_log_variant LOCAL, '
+        || 'idx_log_supplier LOCAL, idx_log_location LOCAL, idx_log_operation LOCAL, '
+        || 'idx_log_created LOCAL, idx_log_reference LOCAL, idx_log_admin_user LOCAL)';
+
+    EXECUTE IMMEDIATE 'ALTER TABLE audit_log MODIFY PARTITION BY RANGE (changed_at_utc) '
+        || 'INTERVAL (NUMTOYMINTERVAL(1, ''MONTH'')) '
+        || '(PARTITION p_history VALUES LESS THAN (TIMESTAMP ''' || next_month || ''')) '
+        || 'ONLINE UPDATE INDEXES ('
+        || 'idx_audit_table_record LOCAL, idx_audit_timestamp LOCAL, idx_audit_user LOCAL)';
+END;
+/
@@ -0,0 +1,139 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V013: Search Index Changes
+-- =============================================
+
+-- =============================================
+-- SEARCH INDEX CHANGES
+-- =============================================
+-- Log of catalog changes that affect product search: the product, variant,
+-- brand or tag whose searchable text, category, price or visibility changed.
+-- Rows are written by the triggers below in the transaction of the change.
+-- Every application node keeps its own in-memory SearchIndex and reads the
+-- log from the last id it applied, so rows are not consumed; they are purged
+-- once older than the retention of the readers (one day by default).
+-- Variants are resolved to their product when the log is read; the triggers
+-- read no other table, so cascaded deletes do not raise ORA-04091.
+CREATE TABLE search_index_changes (
+    id NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id RAW(16),
+    variant_id RAW(16),
+    brand_id RAW(16),
+    tag_id RAW(16),
+    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT chk_search_change_target CHECK (
+        product_id IS NOT NULL OR variant_id IS NOT NULL OR brand_id IS NOT NULL OR tag_id IS NOT NULL
+    )
+);
+
+CREATE INDEX idx_search_change_time ON search_index_changes (changed_at);
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+-- Updates log a change only when a column the index reads changed. CLOB
+-- columns cannot be listed in UPDATE OF, so the triggers on products and
+-- product_attributes compare the old and new values themselves.
+CREATE OR REPLACE TRIGGER product_search_trigger
+AFTER INSERT OR DELETE OR UPDATE ON products
+FOR EACH ROW
+DECLARE
+    FUNCTION differs(old_value VARCHAR2, new_value VARCHAR2) RETURN BOOLEAN IS
+    BEGIN
+        IF old_value IS NULL OR new_value IS NULL THEN
+            RETURN old_value IS NOT NULL OR new_value IS NOT NULL;
+        END IF;
+        RETURN old_value <> new_value;
+    END;
+
+    FUNCTION differs(old_value CLOB, new_value CLOB) RETURN BOOLEAN IS
+    BEGIN
+        IF old_value IS NULL OR new_value IS NULL THEN
+            RETURN old_value IS NOT NULL OR new_value IS NOT NULL;
+        END IF;
+        RETURN DBMS_LOB.COMPARE(old_value, new_value) <> 0;
+    END;
+BEGIN
+    IF INSERTING THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:NEW.id);
+    ELSIF DELETING THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:OLD.id);
+    ELSIF differs(:OLD.name, :NEW.name)
+        OR differs(:OLD.short_description, :NEW.short_description)
+        OR differs(:OLD.description, :NEW.description)
+        OR differs(RAWTOHEX(:OLD.category_id), RAWTOHEX(:NEW.category_id))
+        OR differs(RAWTOHEX(:OLD.brand_id), RAWTOHEX(:NEW.brand_id))
+        OR differs(:OLD.status, :NEW.status)
+        OR differs(TO_CHAR(:OLD.min_price), TO_CHAR(:NEW.min_price)) THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:NEW.id);
+    END IF;
+END;
+/
+
+-- Variant attributes are indexed with their product
+CREATE OR REPLACE TRIGGER variant_search_trigger
+AFTER DELETE OR UPDATE OF product_id ON product_variants
+FOR EACH ROW
+BEGIN
+    IF DELETING OR :OLD.product_id <> :NEW.product_id THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:OLD.product_id);
+    END IF;
+    IF UPDATING AND :OLD.product_id <> :NEW.product_id THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:NEW.product_id);
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER attribute_search_trigger
+AFTER INSERT OR DELETE OR UPDATE ON product_attributes
+FOR EACH ROW
+DECLARE
+    parent_changed BOOLEAN := FALSE;
+BEGIN
+    IF UPDATING THEN
+        parent_changed := NVL(RAWTOHEX(:OLD.product_id), '-') <> NVL(RAWTOHEX(:NEW.product_id), '-')
+            OR NVL(RAWTOHEX(:OLD.variant_id), '-') <> NVL(RAWTOHEX(:NEW.variant_id), '-');
+    END IF;
+    IF INSERTING OR (UPDATING AND (parent_changed
+            OR DBMS_LOB.COMPARE(:OLD.attribute_value, :NEW.attribute_value) <> 0
+            OR :OLD.is_searchable <> :NEW.is_searchable
+            OR (:OLD.is_searchable IS NULL) <> (:NEW.is_searchable IS NULL))) THEN
+        INSERT INTO search_index_changes (product_id, variant_id) VALUES (:NEW.product_id, :NEW.variant_id);
+    END IF;
+    IF DELETING OR parent_changed THEN
+        INSERT INTO search_index_changes (product_id, variant_id) VALUES (:OLD.product_id, :OLD.variant_id);
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER product_tag_search_trigger
+AFTER INSERT OR DELETE OR UPDATE ON product_tags
+FOR EACH ROW
+BEGIN
+    IF INSERTING OR UPDATING THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:NEW.product_id);
+    END IF;
+    IF DELETING OR (UPDATING AND :OLD.product_id <> :NEW.product_id) THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:OLD.product_id);
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER brand_search_trigger
+AFTER UPDATE OF name ON brands
+FOR EACH ROW
+BEGIN
+    IF :OLD.name <> :NEW.name THEN
+        INSERT INTO search_index_changes (brand_id) VALUES (:OLD.id);
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER tag_search_trigger
+AFTER DELETE OR UPDATE OF name, is_active ON tags
+FOR EACH ROW
+BEGIN
+    INSERT INTO search_index_changes (tag_id) VALUES (:OLD.id);
+END;
+/
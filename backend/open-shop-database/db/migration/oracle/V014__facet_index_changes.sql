@@ -0,0 +1,91 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V014: Facet Index Changes
+-- =============================================
+
+-- =============================================
+-- SEARCH INDEX CHANGES
+-- =============================================
+-- The in-memory FacetIndex reads search_index_changes like SearchIndex does.
+-- Facets also depend on the stock flag of products, the color, size and
+-- activity of variants and the filterability and key of attributes, so
+-- changes of those columns are logged as well. Each index reloads only the
+-- products it is told about, so the extra entries cost SearchIndex a reload
+-- of those products and nothing else.
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+CREATE OR REPLACE TRIGGER product_search_trigger
+AFTER INSERT OR DELETE OR UPDATE ON products
+FOR EACH ROW
+DECLARE
+    FUNCTION differs(old_value VARCHAR2, new_value VARCHAR2) RETURN BOOLEAN IS
+    BEGIN
+        IF old_value IS NULL OR new_value IS NULL THEN
+            RETURN old_value IS NOT NULL OR new_value IS NOT NULL;
+        END IF;
+        RETURN old_value <> new_value;
+    END;
+
+    FUNCTION differs(old_value CLOB, new_value CLOB) RETURN BOOLEAN IS
+    BEGIN
+        IF old_value IS NULL OR new_value IS NULL THEN
+            RETURN old_value IS NOT NULL OR new_value IS NOT NULL;
+        END IF;
+        RETURN DBMS_LOB.COMPARE(old_value, new_value) <> 0;
+    END;
+BEGIN
+    IF INSERTING THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:NEW.id);
+    ELSIF DELETING THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:OLD.id);
+    ELSIF differs(:OLD.name, :NEW.name)
+        OR differs(:OLD.short_description, :NEW.short_description)
+        OR differs(:OLD.description, :NEW.description)
+        OR differs(RAWTOHEX(:OLD.category_id), RAWTOHEX(:NEW.category_id))
+        OR differs(RAWTOHEX(:OLD.brand_id), RAWTOHEX(:NEW.brand_id))
+        OR differs(:OLD.status, :NEW.status)
+        OR differs(TO_CHAR(:OLD.min_price), TO_CHAR(:NEW.min_price))
+        OR differs(TO_CHAR(:OLD.is_in_stock), TO_CHAR(:NEW.is_in_stock)) THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:NEW.id);
+    END IF;
+END;
+/
+
+-- New variants add colors and sizes
+CREATE OR REPLACE TRIGGER variant_search_trigger
+AFTER INSERT OR DELETE OR UPDATE OF product_id, color_name, size_type, is_active ON product_variants
+FOR EACH ROW
+BEGIN
+    IF INSERTING OR UPDATING THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:NEW.product_id);
+    END IF;
+    IF DELETING OR (UPDATING AND :OLD.product_id <> :NEW.product_id) THEN
+        INSERT INTO search_index_changes (product_id) VALUES (:OLD.product_id);
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER attribute_search_trigger
+AFTER INSERT OR DELETE OR UPDATE ON product_attributes
+FOR EACH ROW
+DECLARE
+    parent_changed BOOLEAN := FALSE;
+BEGIN
+    IF UPDATING THEN
+        parent_changed := NVL(RAWTOHEX(:OLD.product_id), '-') <> NVL(RAWTOHEX(:NEW.product_id), '-')
+            OR NVL(RAWTOHEX(:OLD.variant_id), '-') <> NVL(RAWTOHEX(:NEW.variant_id), '-');
+    END IF;
+    IF INSERTING OR (UPDATING AND (parent_changed
+            OR DBMS_LOB.COMPARE(:OLD.attribute_value, :NEW.attribute_value) <> 0
+            OR :OLD.attribute_key <> :NEW.attribute_key
+            OR NVL(:OLD.is_searchable, -1) <> NVL(:NEW.is_searchable, -1)
+            OR NVL(:OLD.is_filterable, -1) <> NVL(:NEW.is_filterable, -1))) THEN
+        INSERT INTO search_index_changes (product_id, variant_id) VALUES (:NEW.product_id, :NEW.variant_id);
+    END IF;
+    IF DELETING OR parent_changed THEN
+        INSERT INTO search_index_changes (product_id, variant_id) VALUES (:OLD.product_id, :OLD.variant_id);
+    END IF;
+END;
+/
@@ -0,0 +1,54 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V015: Keyset Pagination Indexes
+-- =============================================
+
+-- =============================================
+-- KEYSET PAGINATION
+-- =============================================
+-- List endpoints page with keyset cursors (com.openshop.database.page): the
+-- next page starts after the (sort value, id) of the last row instead of
+-- skipping OFFSET rows. That reads only the rows of the page when an index
+-- holds the equality filter, the sort column and id, in that order, so the
+-- index order is the page order in either direction.
+--
+-- Storefront product listings always filter on status, so each product sort
+-- gets a (status, sort column, id) index; they make idx_product_status
+-- redundant. Order and movement indexes already leading with the sort or
+-- filter column are widened to end with id rather than added next to it.
+--
+-- A row with NULL in the sort column is still indexed, because id is never
+-- NULL, so the NULL part of a nullable sort is read from the same index.
+
+-- =============================================
+-- PRODUCTS
+-- =============================================
+DROP INDEX idx_product_status;
+
+CREATE INDEX idx_product_list_created ON products (status, created_at, id);
+CREATE INDEX idx_product_list_name ON products (status, name, id);
+CREATE INDEX idx_product_list_price ON products (status, min_price, id);
+CREATE INDEX idx_product_list_rating ON products (status, avg_rating, id);
+CREATE INDEX idx_product_list_popularity ON products (status, review_count, id);
+
+-- =============================================
+-- ORDERS
+-- =============================================
+DROP INDEX idx_order_customer;
+DROP INDEX idx_order_created;
+DROP INDEX idx_order_total;
+
+CREATE INDEX idx_order_customer ON orders (customer_id, created_at, id);
+CREATE INDEX idx_order_created ON orders (created_at, id);
+CREATE INDEX idx_order_updated ON orders (updated_at, id);
+CREATE INDEX idx_order_total ON orders (total_amount, id);
+
+-- =============================================
+-- INVENTORY LOG
+-- =============================================
+-- Local like the other inventory_log indexes since V012, one per partition
+DROP INDEX idx_log_product;
+DROP INDEX idx_log_variant;
+
+CREATE INDEX idx_log_product ON inventory_log (product_id, created_at, id) LOCAL;
+CREATE INDEX idx_log_variant ON inventory_log (variant_id, created_at, id) LOCAL;
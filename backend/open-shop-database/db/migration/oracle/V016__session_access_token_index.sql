@@ -0,0 +1,13 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V016: Session Access Token Index
+-- =============================================
+
+-- =============================================
+-- USER SESSIONS
+-- =============================================
+-- Authenticated requests resolve their session by the hash of the access
+-- token (com.openshop.database.session.SessionCache). The cache answers most
+-- of them from memory, but every miss and every node start reads by
+-- access_token_hash, which had no index and scanned the table.
+CREATE INDEX idx_session_access_token ON user_sessions (access_token_hash);
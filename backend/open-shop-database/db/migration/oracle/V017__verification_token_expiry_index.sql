@@ -0,0 +1,14 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V017: Verification Token Expiry Index
+-- =============================================
+
+-- =============================================
+-- EMAIL VERIFICATION TOKENS
+-- =============================================
+-- The purger (com.openshop.database.purge) deletes expired tokens oldest
+-- first in small batches, reading each batch in expires_at order. The other
+-- purged tables already have their index on the time column
+-- (idx_session_expires, idx_reset_expires, idx_cart_expires,
+-- idx_cart_last_activity); without this one every batch scanned the table.
+CREATE INDEX idx_verify_expires ON email_verification_tokens (expires_at);
@@ -0,0 +1,95 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V018: Sales Rollups
+-- =============================================
+
+-- =============================================
+-- SALES ROLLUPS
+-- =============================================
+-- Per-day totals of orders and order items, so sales reports over months of
+-- orders read a few rows per day instead of aggregating orders and
+-- order_items. Days are UTC calendar days of orders.created_at. Rows are
+-- written by SalesRollupPipeline, which recomputes a whole day at a time from
+-- orders and order_items; a day listed in sales_rollup_days is complete, any
+-- other day (today, or days not yet rolled up) is aggregated live by
+-- SalesReports.
+
+-- Totals of the orders of one day in one status
+CREATE TABLE sales_daily (
+    sales_date DATE NOT NULL,
+    status VARCHAR2(20) NOT NULL,
+    order_count NUMBER(10) NOT NULL,
+    revenue NUMBER(14,2) NOT NULL,
+    subtotal NUMBER(14,2) NOT NULL,
+    discount_total NUMBER(14,2) NOT NULL,
+    tax_total NUMBER(14,2) NOT NULL,
+    shipping_total NUMBER(14,2) NOT NULL,
+    item_cost NUMBER(14,2) NOT NULL,
+
+    CONSTRAINT pk_sales_daily PRIMARY KEY (sales_date, status)
+);
+
+-- Totals of one product in the orders of one day in one status
+CREATE TABLE sales_daily_product (
+    sales_date DATE NOT NULL,
+    product_id RAW(16) NOT NULL,
+    status VARCHAR2(20) NOT NULL,
+    quantity NUMBER(10) NOT NULL,
+    revenue NUMBER(14,2) NOT NULL,
+    item_cost NUMBER(14,2) NOT NULL,
+    order_count NUMBER(10) NOT NULL,
+
+    CONSTRAINT pk_sales_daily_product PRIMARY KEY (sales_date, product_id, status)
+);
+
+-- Days whose rollup rows are complete
+CREATE TABLE sales_rollup_days (
+    sales_date DATE NOT NULL PRIMARY KEY,
+    rolled_up_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+-- =============================================
+-- SALES ROLLUP QUEUE
+-- =============================================
+-- Orders whose day must be rolled up again. Order changes queue the order's
+-- created_at, so a deleted order can still be placed; item changes queue the
+-- order only and the pipeline looks its day up: reading orders from a row
+-- trigger on order_items would raise ORA-04091 while an order delete cascades
+-- to its items.
+CREATE TABLE sales_rollup_queue (
+    id NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id RAW(16) NOT NULL,
+    order_created_at TIMESTAMP WITH TIME ZONE,
+    queued_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+-- Updates queue a change only when a column feeding a rollup is set
+CREATE OR REPLACE TRIGGER order_sales_rollup_trigger
+AFTER INSERT OR DELETE
+    OR UPDATE OF status, created_at, total_amount, subtotal, discount_total, tax_total, shipping_cost ON orders
+FOR EACH ROW
+BEGIN
+    IF INSERTING OR UPDATING THEN
+        INSERT INTO sales_rollup_queue (order_id, order_created_at) VALUES (:NEW.id, :NEW.created_at);
+    END IF;
+    IF DELETING OR (UPDATING AND :OLD.created_at <> :NEW.created_at) THEN
+        INSERT INTO sales_rollup_queue (order_id, order_created_at) VALUES (:OLD.id, :OLD.created_at);
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER order_item_sales_rollup_trigger
+AFTER INSERT OR DELETE OR UPDATE OF quantity, unit_price, cost_price, product_id, order_id ON order_items
+FOR EACH ROW
+BEGIN
+    IF INSERTING OR UPDATING THEN
+        INSERT INTO sales_rollup_queue (order_id) VALUES (:NEW.order_id);
+    END IF;
+    IF DELETING OR (UPDATING AND :OLD.order_id <> :NEW.order_id) THEN
+        INSERT INTO sales_rollup_queue (order_id) VALUES (:OLD.order_id);
+    END IF;
+END;
+/
@@ -0,0 +1,17 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V019: Order Export Indexes
+-- =============================================
+
+-- =============================================
+-- ORDER PAYMENTS AND SHIPMENTS
+-- =============================================
+-- The order exporter (com.openshop.database.export) extracts the rows
+-- changed since its last run, reading each table in (updated_at, id) order
+-- within the window (watermark, now - lag]. orders has had idx_order_updated
+-- on those columns since V015 and order_items is read through its order;
+-- without these two indexes every nightly extract sorted all payments and
+-- shipments.
+CREATE INDEX idx_payment_updated ON order_payments (updated_at, id);
+
+CREATE INDEX idx_shipping_updated ON order_shipments (updated_at, id);
@@ -0,0 +1,92 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V020: Outbox
+-- =============================================
+
+-- =============================================
+-- OUTBOX
+-- =============================================
+-- Change events for caches over products, product_variants, inventory_stock
+-- and orders, written by the triggers below in the transaction of the change.
+-- OutboxRelay delivers them in batches and deletes them once delivered, so
+-- the table only holds undelivered events. Each event names the aggregate it
+-- belongs to, whose events are delivered in id order:
+--   catalog      product    products, or a variant's non-price columns
+--   price        product    a variant's price, currency or availability
+--   stock        variant    a stock row of the variant at entity_id (location)
+--   order_status order      an order placed, deleted or changing status
+CREATE TABLE outbox (
+    id NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type VARCHAR2(20) NOT NULL,
+    aggregate_id RAW(16) NOT NULL,
+    entity_id RAW(16),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT chk_outbox_event_type CHECK (event_type IN ('catalog', 'price', 'stock', 'order_status'))
+);
+
+-- The relay holds back events of an aggregate with an earlier event pending
+CREATE INDEX idx_outbox_aggregate ON outbox (aggregate_id, id);
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+-- Updates write an event only when a column the event stands for is set
+CREATE OR REPLACE TRIGGER product_outbox_trigger
+AFTER INSERT OR UPDATE OR DELETE ON products
+FOR EACH ROW
+BEGIN
+    IF DELETING THEN
+        INSERT INTO outbox (event_type, aggregate_id) VALUES ('catalog', :OLD.id);
+    ELSE
+        INSERT INTO outbox (event_type, aggregate_id) VALUES ('catalog', :NEW.id);
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER variant_outbox_trigger
+AFTER INSERT OR UPDATE OR DELETE ON product_variants
+FOR EACH ROW
+BEGIN
+    IF INSERTING THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', :NEW.product_id, :NEW.id);
+    ELSIF DELETING THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', :OLD.product_id, :OLD.id);
+    ELSE
+        IF UPDATING('price') OR UPDATING('compare_at_price') OR UPDATING('currency') OR UPDATING('is_active') THEN
+            INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('price', :NEW.product_id, :NEW.id);
+        ELSE
+            INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', :NEW.product_id, :NEW.id);
+        END IF;
+        IF :OLD.product_id <> :NEW.product_id THEN
+            INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', :OLD.product_id, :OLD.id);
+        END IF;
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER stock_outbox_trigger
+AFTER INSERT OR DELETE
+    OR UPDATE OF quantity_on_hand, quantity_reserved, status, variant_id, location_id ON inventory_stock
+FOR EACH ROW
+BEGIN
+    IF INSERTING OR UPDATING THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('stock', :NEW.variant_id, :NEW.location_id);
+    END IF;
+    IF DELETING OR (UPDATING AND (:OLD.variant_id <> :NEW.variant_id OR :OLD.location_id <> :NEW.location_id)) THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('stock', :OLD.variant_id, :OLD.location_id);
+    END IF;
+END;
+/
+
+CREATE OR REPLACE TRIGGER order_outbox_trigger
+AFTER INSERT OR DELETE OR UPDATE OF status ON orders
+FOR EACH ROW
+BEGIN
+    IF DELETING THEN
+        INSERT INTO outbox (event_type, aggregate_id) VALUES ('order_status', :OLD.id);
+    ELSE
+        INSERT INTO outbox (event_type, aggregate_id) VALUES ('order_status', :NEW.id);
+    END IF;
+END;
+/
@@ -0,0 +1,25 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V021: Inventory Alert Watermark
+-- =============================================
+
+-- =============================================
+-- INVENTORY STOCK
+-- =============================================
+-- The alert engine (com.openshop.database.inventory.InventoryAlertEngine)
+-- re-evaluates only the variants and locations whose stock rows changed since
+-- its last round, found by last_updated. Until now the column was only set on
+-- insert; the trigger below keeps it current as the other dialects do, and
+-- without the index each round scanned the whole table.
+CREATE INDEX idx_stock_last_updated ON inventory_stock (last_updated);
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+CREATE OR REPLACE TRIGGER stock_last_updated_trigger
+BEFORE UPDATE ON inventory_stock
+FOR EACH ROW
+BEGIN
+    :NEW.last_updated := CURRENT_TIMESTAMP;
+END;
+/
@@ -0,0 +1,18 @@
+-- =============================================
+-- Open Shop E-commerce Platform - Oracle Schema
+-- V023: Session Revocation
+-- =============================================
+
+-- =============================================
+-- USER SESSIONS
+-- =============================================
+-- The session near-cache (com.openshop.database.session.SessionCache) of
+-- every node reads the sessions revoked since its last check, by revoked_at,
+-- and drops them, so a logout or password change on one node ends the session
+-- on all of them within seconds instead of after the cache TTL. Revocations
+-- must set revoked_at along with is_active = 0.
+ALTER TABLE user_sessions ADD (
+    revoked_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX idx_session_revoked ON user_sessions (revoked_at);
@@ -0,0 +1,22 @@
+-- =============================================
+-- Open Shop E-commerce Platform - PostgreSQL Schema
+-- V008.1: Inventory stock timestamp trigger fix
+-- =============================================
+
+-- inventory_stock tracks changes in last_updated, not updated_at; the generic
+-- update_updated_at_column() trigger made every UPDATE on the table fail.
+
+CREATE OR REPLACE FUNCTION update_last_updated_column()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.last_updated = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER stock_updated_at_trigger ON inventory_stock;
+
+CREATE TRIGGER stock_updated_at_trigger
+    BEFORE UPDATE ON inventory_stock
+    FOR EACH ROW
+    EXECUTE FUNCTION update_last_updated_column();
@@ -0,0 +1,44 @@
+-- =============================================
+-- Open Shop E-commerce Platform - PostgreSQL Schema
+-- V009: Order Number Blocks
+-- =============================================
+
+-- =============================================
+-- ORDER NUMBER SEQUENCE
+-- =============================================
+-- Every nextval reserves a block of 100 order numbers [value, value + 100).
+-- OrderNumberGenerator hands out a block from memory, so the sequence is touched
+-- once per 100 orders instead of once per checkout. The trigger below still
+-- takes one value per order; block starts never overlap, so both stay unique.
+-- Each order numbered by the trigger therefore uses up a whole block of 100.
+-- Block starts are 1 + k * 100 (JdbcOrderNumberSequence.BLOCK_SIZE), so the next
+-- value moves to the first such start past the numbers V001 already issued.
+ALTER SEQUENCE order_number_seq INCREMENT BY 100;
+
+SELECT setval('order_number_seq', (last_value / 100 + 1) * 100 + 1, false) FROM order_number_seq;
+
+-- Pad to at least six digits without truncating larger sequence values
+CREATE OR REPLACE FUNCTION generate_order_number()
+RETURNS TEXT AS $$
+DECLARE
+    seq_val BIGINT;
+    order_date TEXT;
+BEGIN
+    seq_val := nextval('order_number_seq');
+    order_date := to_char(CURRENT_DATE, 'YYYYMMDD');
+    RETURN 'ORD-' || order_date || '-' || lpad(seq_val::text, GREATEST(6, length(seq_val::text)), '0');
+END;
+$$ LANGUAGE plpgsql;
+
+-- =============================================
+-- ORDER NUMBER TRIGGER
+-- =============================================
+-- Fire only when no order number is supplied, so inserts that carry a
+-- generated number skip the trigger function altogether.
+DROP TRIGGER order_number_trigger ON orders;
+
+CREATE TRIGGER order_number_trigger
+    BEFORE INSERT ON orders
+    FOR EACH ROW
+    WHEN (NEW.order_number IS NULL OR NEW.order_number = '')
+    EXECUTE FUNCTION generate_order_number_trigger();
@@ -0,0 +1,59 @@
+-- =============================================
+-- Open Shop E-commerce Platform - PostgreSQL Schema
+-- V010: Time-Ordered UUID Keys
+-- =============================================
+
+-- =============================================
+-- UUID VERSION 7
+-- =============================================
+-- Random version 4 keys land anywhere in the primary key and foreign key B-trees,
+-- so every insert dirties a random leaf page. Version 7 keys start with the Unix
+-- time in milliseconds and append to the right edge instead. The application
+-- generates them with com.openshop.database.UuidV7; this function covers rows
+-- inserted without an id. PostgreSQL 15 has no built-in uuidv7().
+CREATE OR REPLACE FUNCTION uuid_generate_v7()
+RETURNS UUID AS $$
+    -- Overlay the 48-bit millisecond timestamp on a random UUID and turn version 4 (0100) into 7 (0111)
+    SELECT encode(
+        set_bit(
+            set_bit(
+                overlay(uuid_send(gen_random_uuid())
+                        PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::BIGINT) FROM 3)
+                        FROM 1 FOR 6),
+                52, 1),
+            53, 1),
+        'hex')::UUID;
+$$ LANGUAGE sql VOLATILE;
+
+-- =============================================
+-- KEY DEFAULTS
+-- =============================================
+ALTER TABLE customers ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE customer_addresses ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE customer_preferences ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE user_sessions ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE password_reset_tokens ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE email_verification_tokens ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE categories ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE brands ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE products ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE product_variants ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE product_attributes ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE product_images ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE product_reviews ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE tags ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE shopping_carts ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE shopping_cart_items ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE wishlists ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE wishlist_items ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE orders ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE order_items ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE order_addresses ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE order_payments ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE order_shipments ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE coupons ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE coupon_usage ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE suppliers ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE inventory_locations ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE inventory_log ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE inventory_alerts ALTER COLUMN id SET DEFAULT uuid_generate_v7();
@@ -0,0 +1,92 @@
+-- =============================================
+-- Open Shop E-commerce Platform - PostgreSQL Schema
+-- V011: Product Aggregate Queue
+-- =============================================
+
+-- =============================================
+-- PRODUCT AGGREGATE QUEUE
+-- =============================================
+-- Products whose denormalized aggregates (min_price, max_price, avg_rating,
+-- review_count, total_stock, is_in_stock) are out of date. Rows are written by
+-- the triggers below in the transaction of the change and consumed by
+-- ProductAggregatePipeline, which recomputes every queued product once per
+-- drain. Stock changes queue the variant only, so the trigger on the
+-- reservation hot path does not look up the product.
+CREATE TABLE product_aggregate_queue (
+    id BIGSERIAL PRIMARY KEY,
+    product_id UUID,
+    variant_id UUID,
+    queued_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT chk_aggregate_queue_target CHECK (product_id IS NOT NULL OR variant_id IS NOT NULL)
+);
+
+-- =============================================
+-- QUEUE FUNCTIONS
+-- =============================================
+CREATE OR REPLACE FUNCTION queue_product_aggregate()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO product_aggregate_queue (product_id) VALUES (NEW.product_id);
+    END IF;
+    IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.product_id IS DISTINCT FROM NEW.product_id) THEN
+        INSERT INTO product_aggregate_queue (product_id) VALUES (OLD.product_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION queue_variant_aggregate()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO product_aggregate_queue (variant_id) VALUES (NEW.variant_id);
+    END IF;
+    IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.variant_id IS DISTINCT FROM NEW.variant_id) THEN
+        INSERT INTO product_aggregate_queue (variant_id) VALUES (OLD.variant_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+-- Updates queue a change only when a column feeding an aggregate changed
+CREATE TRIGGER variant_aggregate_trigger
+    AFTER INSERT OR DELETE ON product_variants
+    FOR EACH ROW EXECUTE FUNCTION queue_product_aggregate();
+
+CREATE TRIGGER variant_aggregate_update_trigger
+    AFTER UPDATE ON product_variants
+    FOR EACH ROW
+    WHEN (OLD.price IS DISTINCT FROM NEW.price
+        OR OLD.is_active IS DISTINCT FROM NEW.is_active
+        OR OLD.product_id IS DISTINCT FROM NEW.product_id)
+    EXECUTE FUNCTION queue_product_aggregate();
+
+CREATE TRIGGER review_aggregate_trigger
+    AFTER INSERT OR DELETE ON product_reviews
+    FOR EACH ROW EXECUTE FUNCTION queue_product_aggregate();
+
+CREATE TRIGGER review_aggregate_update_trigger
+    AFTER UPDATE ON product_reviews
+    FOR EACH ROW
+    WHEN (OLD.rating IS DISTINCT FROM NEW.rating
+        OR OLD.is_approved IS DISTINCT FROM NEW.is_approved
+        OR OLD.product_id IS DISTINCT FROM NEW.product_id)
+    EXECUTE FUNCTION queue_product_aggregate();
+
+CREATE TRIGGER stock_aggregate_trigger
+    AFTER INSERT OR DELETE ON inventory_stock
+    FOR EACH ROW EXECUTE FUNCTION queue_variant_aggregate();
+
+CREATE TRIGGER stock_aggregate_update_trigger
+    AFTER UPDATE ON inventory_stock
+    FOR EACH ROW
+    WHEN (OLD.quantity_on_hand IS DISTINCT FROM NEW.quantity_on_hand
+        OR OLD.quantity_reserved IS DISTINCT FROM NEW.quantity_reserved
+        OR OLD.status IS DISTINCT FROM NEW.status
+        OR OLD.variant_id IS DISTINCT FROM NEW.variant_id)
+    EXECUTE FUNCTION queue_variant_aggregate();
@@ -0,0 +1,123 @@
+-- =============================================
+-- Open Shop E-commerce Platform - PostgreSQL Schema
+-- V012: Log Partitioning
+-- =============================================
+-- inventory_log and audit_log become range partitioned by month on
+-- created_at / changed_at, so queries over recent history read recent
+-- partitions only and expired months are dropped or detached as whole
+-- tables instead of being deleted row by row. The existing table of each log
+-- is attached as its history partition, holding every row before the first
+-- of next month (UTC); its data and indexes are kept as they are. Monthly
+-- partitions follow from there and are created ahead of time by
+-- PartitionManager, which also retires partitions past their retention.
+--
+-- Partitions are named <table>_pYYYYMM for the month they hold. A default
+-- partition catches rows outside all monthly partitions, e.g. when the
+-- manager has not run for a while.
+--
+-- The primary keys become (id, created_at) and (id, changed_at), because a
+-- unique constraint on a partitioned table must include the partition key.
+-- They are rebuilt on the history partitions before these are attached, which
+-- reads each table once; attaching checks the bounds with one more read.
+
+-- =============================================
+-- INVENTORY LOG
+-- =============================================
+ALTER TABLE inventory_log RENAME TO inventory_log_history;
+ALTER INDEX idx_log_entity_type RENAME TO inventory_log_history_entity_type_idx;
+ALTER INDEX idx_log_product RENAME TO inventory_log_history_product_id_idx;
+ALTER INDEX idx_log_variant RENAME TO inventory_log_history_variant_id_idx;
+ALTER INDEX idx_log_supplier RENAME TO inventory_log_history_supplier_id_idx;
+ALTER INDEX idx_log_location RENAME TO inventory_log_history_location_id_idx;
+ALTER INDEX idx_log_operation RENAME TO inventory_log_history_operation_type_idx;
+ALTER INDEX idx_log_created RENAME TO inventory_log_history_created_at_idx;
+ALTER INDEX idx_log_reference RENAME TO inventory_log_history_reference_idx;
+ALTER INDEX idx_log_admin_user RENAME TO inventory_log_history_admin_user_id_idx;
+
+UPDATE inventory_log_history SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+ALTER TABLE inventory_log_history
+    ALTER COLUMN created_at SET NOT NULL,
+    DROP CONSTRAINT inventory_log_pkey,
+    ADD CONSTRAINT inventory_log_history_pkey PRIMARY KEY (id, created_at);
+
+CREATE TABLE inventory_log (
+    LIKE inventory_log_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+
+    PRIMARY KEY (id, created_at),
+
+    -- Foreign keys (nullable)
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE SET NULL,
+    FOREIGN KEY (variant_id) REFERENCES product_variants(id) ON DELETE SET NULL,
+    FOREIGN KEY (supplier_id) REFERENCES suppliers(id) ON DELETE SET NULL,
+    FOREIGN KEY (location_id) REFERENCES inventory_locations(id) ON DELETE SET NULL,
+    FOREIGN KEY (admin_user_id) REFERENCES customers(id) ON DELETE SET NULL
+) PARTITION BY RANGE (created_at);
+
+-- =============================================
+-- AUDIT LOG
+-- =============================================
+ALTER TABLE audit_log RENAME TO audit_log_history;
+ALTER INDEX idx_audit_table_record RENAME TO audit_log_history_table_record_idx;
+ALTER INDEX idx_audit_timestamp RENAME TO audit_log_history_changed_at_idx;
+ALTER INDEX idx_audit_user RENAME TO audit_log_history_changed_by_idx;
+
+UPDATE audit_log_history SET changed_at = CURRENT_TIMESTAMP WHERE changed_at IS NULL;
+ALTER TABLE audit_log_history
+    ALTER COLUMN changed_at SET NOT NULL,
+    DROP CONSTRAINT audit_log_pkey,
+    ADD CONSTRAINT audit_log_history_pkey PRIMARY KEY (id, changed_at);
+
+CREATE TABLE audit_log (
+    LIKE audit_log_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+
+    PRIMARY KEY (id, changed_at)
+) PARTITION BY RANGE (changed_at);
+
+-- The id sequence belongs to the partitioned table, so dropping the history
+-- partition does not drop the sequence with it
+ALTER SEQUENCE audit_log_id_seq OWNED BY audit_log.id;
+
+-- =============================================
+-- PARTITIONS
+-- =============================================
+DO $$
+DECLARE
+    next_month TIMESTAMPTZ := (date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '1 month') AT TIME ZONE 'UTC';
+    log_table TEXT;
+    month_start TIMESTAMPTZ;
+BEGIN
+    FOREACH log_table IN ARRAY ARRAY['inventory_log', 'audit_log'] LOOP
+        EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (MINVALUE) TO (%L)',
+                       log_table, log_table || '_history', next_month);
+        FOR ahead IN 0..2 LOOP
+            month_start := next_month + make_interval(months => ahead);
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           log_table || '_p' || to_char(month_start AT TIME ZONE 'UTC', 'YYYYMM'), log_table,
+                           month_start, month_start + INTERVAL '1 month');
+        END LOOP;
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', log_table || '_default', log_table);
+    END LOOP;
+END;
+$$;
+
+-- =============================================
+-- INDEXES
+-- =============================================
+-- Created on the partitioned tables after the history partitions are
+-- attached, so their existing indexes are adopted instead of rebuilt.
+
+-- Indexes for inventory log
+CREATE INDEX idx_log_entity_type ON inventory_log (entity_type);
+CREATE INDEX idx_log_product ON inventory_log (product_id);
+CREATE INDEX idx_log_variant ON inventory_log (variant_id);
+CREATE INDEX idx_log_supplier ON inventory_log (supplier_id);
+CREATE INDEX idx_log_location ON inventory_log (location_id);
+CREATE INDEX idx_log_operation ON inventory_log (operation_type);
+CREATE INDEX idx_log_created ON inventory_log (created_at DESC);
+CREATE INDEX idx_log_reference ON inventory_log (reference_type, reference_id);
+CREATE INDEX idx_log_admin_user ON inventory_log (admin_user_id);
+
+-- Indexes for audit log
+CREATE INDEX idx_audit_table_record ON audit_log (table_name, record_id);
+CREATE INDEX idx_audit_timestamp ON audit_log (changed_at);
+CREATE INDEX idx_audit_user ON audit_log (changed_by);
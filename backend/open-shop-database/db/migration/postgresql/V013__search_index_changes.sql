@@ -0,0 +1,153 @@
+-- =============================================
+-- Open Shop E-commerce Platform - PostgreSQL Schema
+-- V013: Search Index Changes
+-- =============================================
+
+-- =============================================
+-- SEARCH INDEX CHANGES
+-- =============================================
+-- Log of catalog changes that affect product search: the product, variant,
+-- brand or tag whose searchable text, category, price or visibility changed.
+-- Rows are written by the triggers below in the transaction of the change.
+-- Every application node keeps its own in-memory SearchIndex and reads the
+-- log from the last id it applied, so rows are not consumed; they are purged
+-- once older than the retention of the readers (one day by default).
+-- Variants are resolved to their product when the log is read.
+CREATE TABLE search_index_changes (
+    id BIGSERIAL PRIMARY KEY,
+    product_id UUID,
+    variant_id UUID,
+    brand_id UUID,
+    tag_id UUID,
+    changed_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT chk_search_change_target CHECK (
+        product_id IS NOT NULL OR variant_id IS NOT NULL OR brand_id IS NOT NULL OR tag_id IS NOT NULL
+    )
+);
+
+CREATE INDEX idx_search_change_time ON search_index_changes (changed_at);
+
+-- =============================================
+-- LOG FUNCTIONS
+-- =============================================
+CREATE OR REPLACE FUNCTION log_product_search_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO search_index_changes (product_id) VALUES (NEW.id);
+    ELSE
+        INSERT INTO search_index_changes (product_id) VALUES (OLD.id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Rows of product_variants, product_tags: the product they belong to
+CREATE OR REPLACE FUNCTION log_product_child_search_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO search_index_changes (product_id) VALUES (NEW.product_id);
+    END IF;
+    IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.product_id IS DISTINCT FROM NEW.product_id) THEN
+        INSERT INTO search_index_changes (product_id) VALUES (OLD.product_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Attributes belong to a product or to one of its variants
+CREATE OR REPLACE FUNCTION log_attribute_search_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO search_index_changes (product_id, variant_id) VALUES (NEW.product_id, NEW.variant_id);
+    END IF;
+    IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND (OLD.product_id IS DISTINCT FROM NEW.product_id
+            OR OLD.variant_id IS DISTINCT FROM NEW.variant_id)) THEN
+        INSERT INTO search_index_changes (product_id, variant_id) VALUES (OLD.product_id, OLD.variant_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION log_brand_search_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO search_index_changes (brand_id) VALUES (OLD.id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION log_tag_search_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO search_index_changes (tag_id) VALUES (OLD.id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+-- Updates log a change only when a column the index reads changed
+CREATE TRIGGER product_search_trigger
+    AFTER INSERT OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION log_product_search_change();
+
+CREATE TRIGGER product_search_update_trigger
+    AFTER UPDATE ON products
+    FOR EACH ROW
+    WHEN (OLD.name IS DISTINCT FROM NEW.name
+        OR OLD.short_description IS DISTINCT FROM NEW.short_description
+        OR OLD.description IS DISTINCT FROM NEW.description
+        OR OLD.category_id IS DISTINCT FROM NEW.category_id
+        OR OLD.brand_id IS DISTINCT FROM NEW.brand_id
+        OR OLD.status IS DISTINCT FROM NEW.status
+        OR OLD.min_price IS DISTINCT FROM NEW.min_price)
+    EXECUTE FUNCTION log_product_search_change();
+
+-- Variant attributes are indexed with their product
+CREATE TRIGGER variant_search_trigger
+    AFTER DELETE ON product_variants
+    FOR EACH ROW EXECUTE FUNCTION log_product_child_search_change();
+
+CREATE TRIGGER variant_search_update_trigger
+    AFTER UPDATE ON product_variants
+    FOR EACH ROW
+    WHEN (OLD.product_id IS DISTINCT FROM NEW.product_id)
+    EXECUTE FUNCTION log_product_child_search_change();
+
+CREATE TRIGGER attribute_search_trigger
+    AFTER INSERT OR DELETE ON product_attributes
+    FOR EACH ROW EXECUTE FUNCTION log_attribute_search_change();
+
+CREATE TRIGGER attribute_search_update_trigger
+    AFTER UPDATE ON product_attributes
+    FOR EACH ROW
+    WHEN (OLD.attribute_value IS DISTINCT FROM NEW.attribute_value
+        OR OLD.is_searchable IS DISTINCT FROM NEW.is_searchable
+        OR OLD.product_id IS DISTINCT FROM NEW.product_id
+        OR OLD.variant_id IS DISTINCT FROM NEW.variant_id)
+    EXECUTE FUNCTION log_attribute_search_change();
+
+CREATE TRIGGER product_tag_search_trigger
+    AFTER INSERT OR UPDATE OR DELETE ON product_tags
+    FOR EACH ROW EXECUTE FUNCTION log_product_child_search_change();
+
+CREATE TRIGGER brand_search_update_trigger
+    AFTER UPDATE ON brands
+    FOR EACH ROW
+    WHEN (OLD.name IS DISTINCT FROM NEW.name)
+    EXECUTE FUNCTION log_brand_search_change();
+
+CREATE TRIGGER tag_search_trigger
+    AFTER DELETE ON tags
+    FOR EACH ROW EXECUTE FUNCTION log_tag_search_change();
+
+CREATE TRIGGER tag_search_update_trigger
+    AFTER UPDATE ON tags
+    FOR EACH ROW
+    WHEN (OLD.name IS DISTINCT FROM NEW.name OR OLD.is_active IS DISTINCT FROM NEW.is_active)
+    EXECUTE FUNCTION log_tag_search_change();
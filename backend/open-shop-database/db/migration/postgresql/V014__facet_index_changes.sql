@@ -0,0 +1,60 @@
+-- =============================================
+-- Open Shop E-commerce Platform - PostgreSQL Schema
+-- V014: Facet Index Changes
+-- =============================================
+
+-- =============================================
+-- SEARCH INDEX CHANGES
+-- =============================================
+-- The in-memory FacetIndex reads search_index_changes like SearchIndex does.
+-- Facets also depend on the stock flag of products, the color, size and
+-- activity of variants and the filterability and key of attributes, so
+-- changes of those columns are logged as well. Each index reloads only the
+-- products it is told about, so the extra entries cost SearchIndex a reload
+-- of those products and nothing else.
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+DROP TRIGGER IF EXISTS product_search_update_trigger ON products;
+DROP TRIGGER IF EXISTS variant_search_trigger ON product_variants;
+DROP TRIGGER IF EXISTS variant_search_update_trigger ON product_variants;
+DROP TRIGGER IF EXISTS attribute_search_update_trigger ON product_attributes;
+
+CREATE TRIGGER product_search_update_trigger
+    AFTER UPDATE ON products
+    FOR EACH ROW
+    WHEN (OLD.name IS DISTINCT FROM NEW.name
+        OR OLD.short_description IS DISTINCT FROM NEW.short_description
+        OR OLD.description IS DISTINCT FROM NEW.description
+        OR OLD.category_id IS DISTINCT FROM NEW.category_id
+        OR OLD.brand_id IS DISTINCT FROM NEW.brand_id
+        OR OLD.status IS DISTINCT FROM NEW.status
+        OR OLD.min_price IS DISTINCT FROM NEW.min_price
+        OR OLD.is_in_stock IS DISTINCT FROM NEW.is_in_stock)
+    EXECUTE FUNCTION log_product_search_change();
+
+-- New variants add colors and sizes
+CREATE TRIGGER variant_search_trigger
+    AFTER INSERT OR DELETE ON product_variants
+    FOR EACH ROW EXECUTE FUNCTION log_product_child_search_change();
+
+CREATE TRIGGER variant_search_update_trigger
+    AFTER UPDATE ON product_variants
+    FOR EACH ROW
+    WHEN (OLD.product_id IS DISTINCT FROM NEW.product_id
+        OR OLD.color_name IS DISTINCT FROM NEW.color_name
+        OR OLD.size_type IS DISTINCT FROM NEW.size_type
+        OR OLD.is_active IS DISTINCT FROM NEW.is_active)
+    EXECUTE FUNCTION log_product_child_search_change();
+
+CREATE TRIGGER attribute_search_update_trigger
+    AFTER UPDATE ON product_attributes
+    FOR EACH ROW
+    WHEN (OLD.attribute_value IS DISTINCT FROM NEW.attribute_value
+        OR OLD.attribute_key IS DISTINCT FROM NEW.attribute_key
+        OR OLD.is_searchable IS DISTINCT FROM NEW.is_searchable
+        OR OLD.is_filterable IS DISTINCT FROM NEW.is_filterable
+        OR OLD.product_id IS DISTINCT FROM NEW.product_id
+        OR OLD.variant_id IS DISTINCT FROM NEW.variant_id)
+    EXECUTE FUNCTION log_attribute_search_change();
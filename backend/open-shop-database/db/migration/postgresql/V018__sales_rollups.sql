@@ -0,0 +1,119 @@
+-- =============================================
+-- Open Shop E-commerce Platform - PostgreSQL Schema
+-- V018: Sales Rollups
+-- =============================================
+
+-- =============================================
+-- SALES ROLLUPS
+-- =============================================
+-- Per-day totals of orders and order items, so sales reports over months of
+-- orders read a few rows per day instead of aggregating orders and
+-- order_items. Days are UTC calendar days of orders.created_at. Rows are
+-- written by SalesRollupPipeline, which recomputes a whole day at a time from
+-- orders and order_items; a day listed in sales_rollup_days is complete, any
+-- other day (today, or days not yet rolled up) is aggregated live by
+-- SalesReports.
+
+-- Totals of the orders of one day in one status
+CREATE TABLE sales_daily (
+    sales_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    order_count INTEGER NOT NULL,
+    revenue DECIMAL(14,2) NOT NULL,
+    subtotal DECIMAL(14,2) NOT NULL,
+    discount_total DECIMAL(14,2) NOT NULL,
+    tax_total DECIMAL(14,2) NOT NULL,
+    shipping_total DECIMAL(14,2) NOT NULL,
+    item_cost DECIMAL(14,2) NOT NULL,
+
+    PRIMARY KEY (sales_date, status)
+);
+
+-- Totals of one product in the orders of one day in one status
+CREATE TABLE sales_daily_product (
+    sales_date DATE NOT NULL,
+    product_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    quantity INTEGER NOT NULL,
+    revenue DECIMAL(14,2) NOT NULL,
+    item_cost DECIMAL(14,2) NOT NULL,
+    order_count INTEGER NOT NULL,
+
+    PRIMARY KEY (sales_date, product_id, status)
+);
+
+-- Days whose rollup rows are complete
+CREATE TABLE sales_rollup_days (
+    sales_date DATE NOT NULL PRIMARY KEY,
+    rolled_up_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+-- =============================================
+-- SALES ROLLUP QUEUE
+-- =============================================
+-- Orders whose day must be rolled up again. Order changes queue the order's
+-- created_at, so a deleted order can still be placed; item changes queue the
+-- order only and the pipeline looks its day up.
+CREATE TABLE sales_rollup_queue (
+    id BIGSERIAL PRIMARY KEY,
+    order_id UUID NOT NULL,
+    order_created_at TIMESTAMPTZ,
+    queued_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE OR REPLACE FUNCTION queue_order_sales_rollup()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO sales_rollup_queue (order_id, order_created_at) VALUES (NEW.id, NEW.created_at);
+    END IF;
+    IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.created_at IS DISTINCT FROM NEW.created_at) THEN
+        INSERT INTO sales_rollup_queue (order_id, order_created_at) VALUES (OLD.id, OLD.created_at);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION queue_order_item_sales_rollup()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO sales_rollup_queue (order_id) VALUES (NEW.order_id);
+    END IF;
+    IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.order_id IS DISTINCT FROM NEW.order_id) THEN
+        INSERT INTO sales_rollup_queue (order_id) VALUES (OLD.order_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Updates queue a change only when a column feeding a rollup changed
+CREATE TRIGGER order_sales_rollup_trigger
+    AFTER INSERT OR DELETE ON orders
+    FOR EACH ROW EXECUTE FUNCTION queue_order_sales_rollup();
+
+CREATE TRIGGER order_sales_rollup_update_trigger
+    AFTER UPDATE ON orders
+    FOR EACH ROW
+    WHEN (OLD.status IS DISTINCT FROM NEW.status
+        OR OLD.created_at IS DISTINCT FROM NEW.created_at
+        OR OLD.total_amount IS DISTINCT FROM NEW.total_amount
+        OR OLD.subtotal IS DISTINCT FROM NEW.subtotal
+        OR OLD.discount_total IS DISTINCT FROM NEW.discount_total
+        OR OLD.tax_total IS DISTINCT FROM NEW.tax_total
+        OR OLD.shipping_cost IS DISTINCT FROM NEW.shipping_cost)
+    EXECUTE FUNCTION queue_order_sales_rollup();
+
+CREATE TRIGGER order_item_sales_rollup_trigger
+    AFTER INSERT OR DELETE ON order_items
+    FOR EACH ROW EXECUTE FUNCTION queue_order_item_sales_rollup();
+
+CREATE TRIGGER order_item_sales_rollup_update_trigger
+    AFTER UPDATE ON order_items
+    FOR EACH ROW
+    WHEN (OLD.quantity IS DISTINCT FROM NEW.quantity
+        OR OLD.unit_price IS DISTINCT FROM NEW.unit_price
+        OR OLD.cost_price IS DISTINCT FROM NEW.cost_price
+        OR OLD.product_id IS DISTINCT FROM NEW.product_id
+        OR OLD.order_id IS DISTINCT FROM NEW.order_id)
+    EXECUTE FUNCTION queue_order_item_sales_rollup();
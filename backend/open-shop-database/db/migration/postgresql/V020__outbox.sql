@@ -0,0 +1,130 @@
+-- =============================================
+-- Open Shop E-commerce Platform - PostgreSQL Schema
+-- V020: Outbox
+-- =============================================
+
+-- =============================================
+-- OUTBOX
+-- =============================================
+-- Change events for caches over products, product_variants, inventory_stock
+-- and orders, written by the triggers below in the transaction of the change.
+-- OutboxRelay delivers them in batches and deletes them once delivered, so
+-- the table only holds undelivered events. Each event names the aggregate it
+-- belongs to, whose events are delivered in id order:
+--   catalog      product    products, or a variant's non-price columns
+--   price        product    a variant's price, currency or availability
+--   stock        variant    a stock row of the variant at entity_id (location)
+--   order_status order      an order placed, deleted or changing status
+CREATE TABLE outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(20) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    entity_id UUID,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT chk_outbox_event_type CHECK (event_type IN ('catalog', 'price', 'stock', 'order_status'))
+);
+
+-- The relay holds back events of an aggregate with an earlier event pending
+CREATE INDEX idx_outbox_aggregate ON outbox (aggregate_id, id);
+
+-- =============================================
+-- OUTBOX FUNCTIONS
+-- =============================================
+CREATE OR REPLACE FUNCTION outbox_product_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO outbox (event_type, aggregate_id) VALUES ('catalog', NEW.id);
+    ELSE
+        INSERT INTO outbox (event_type, aggregate_id) VALUES ('catalog', OLD.id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION outbox_variant_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', NEW.product_id, NEW.id);
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', OLD.product_id, OLD.id);
+    ELSE
+        IF OLD.price IS DISTINCT FROM NEW.price
+            OR OLD.compare_at_price IS DISTINCT FROM NEW.compare_at_price
+            OR OLD.currency IS DISTINCT FROM NEW.currency
+            OR OLD.is_active IS DISTINCT FROM NEW.is_active THEN
+            INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('price', NEW.product_id, NEW.id);
+        ELSE
+            INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', NEW.product_id, NEW.id);
+        END IF;
+        IF OLD.product_id IS DISTINCT FROM NEW.product_id THEN
+            INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('catalog', OLD.product_id, OLD.id);
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION outbox_stock_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('stock', NEW.variant_id, NEW.location_id);
+    END IF;
+    IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND (OLD.variant_id IS DISTINCT FROM NEW.variant_id
+            OR OLD.location_id IS DISTINCT FROM NEW.location_id)) THEN
+        INSERT INTO outbox (event_type, aggregate_id, entity_id) VALUES ('stock', OLD.variant_id, OLD.location_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION outbox_order_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO outbox (event_type, aggregate_id) VALUES ('order_status', NEW.id);
+    ELSE
+        INSERT INTO outbox (event_type, aggregate_id) VALUES ('order_status', OLD.id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- =============================================
+-- TRIGGERS
+-- =============================================
+-- Updates write an event only when a column the event stands for changed
+CREATE TRIGGER product_outbox_trigger
+    AFTER INSERT OR UPDATE OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION outbox_product_change();
+
+CREATE TRIGGER variant_outbox_trigger
+    AFTER INSERT OR UPDATE OR DELETE ON product_variants
+    FOR EACH ROW EXECUTE FUNCTION outbox_variant_change();
+
+CREATE TRIGGER stock_outbox_trigger
+    AFTER INSERT OR DELETE ON inventory_stock
+    FOR EACH ROW EXECUTE FUNCTION outbox_stock_change();
+
+CREATE TRIGGER stock_outbox_update_trigger
+    AFTER UPDATE ON inventory_stock
+    FOR EACH ROW
+    WHEN (OLD.quantity_on_hand IS DISTINCT FROM NEW.quantity_on_hand
+        OR OLD.quantity_reserved IS DISTINCT FROM NEW.quantity_reserved
+        OR OLD.status IS DISTINCT FROM NEW.status
+        OR OLD.variant_id IS DISTINCT FROM NEW.variant_id
+        OR OLD.location_id IS DISTINCT FROM NEW.location_id)
+    EXECUTE FUNCTION outbox_stock_change();
+
+CREATE TRIGGER order_outbox_trigger
+    AFTER INSERT OR DELETE ON orders
+    FOR EACH ROW EXECUTE FUNCTION outbox_order_change();
+
+CREATE TRIGGER order_outbox_update_trigger
+    AFTER UPDATE ON orders
+    FOR EACH ROW
+    WHEN (OLD.status IS DISTINCT FROM NEW.status)
+    EXECUTE FUNCTION outbox_order_change();
@@ -0,0 +1,14 @@
+-- =============================================
+-- Open Shop E-commerce Platform - PostgreSQL Schema
+-- V021: Inventory Alert Watermark
+-- =============================================
+
+-- =============================================
+-- INVENTORY STOCK
+-- =============================================
+-- The alert engine (com.openshop.database.inventory.InventoryAlertEngine)
+-- re-evaluates only the variants and locations whose stock rows changed since
+-- its last round, found by last_updated. stock_updated_at_trigger (V008.1)
+-- sets the column on every update; without this index each round scanned the
+-- whole table.
+CREATE INDEX idx_stock_last_updated ON inventory_stock (last_updated);
@@ -0,0 +1,262 @@
+package com.openshop.database;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Database dialects supported by the Open Shop schema.
+ * Captures the differences between the PostgreSQL, MySQL and Oracle migrations
+ * that application code has to know about when it talks JDBC to the schema.
+ */
+public enum Dialect {
+
+    POSTGRESQL("postgresql"),
+    MYSQL("mysql"),
+    ORACLE("oracle");
+
+    /**
+     * Default schema name used by all migrations.
+     */
+    public static final String SCHEMA_NAME = "openshop";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    private final String id;
+
+    Dialect(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the lowercase identifier used for migration folders and configuration keys.
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Resolves the dialect from a JDBC URL.
+     */
+    public static Dialect fromJdbcUrl(String jdbcUrl) {
+        String url = jdbcUrl.toLowerCase(Locale.ROOT);
+        if (url.startsWith("jdbc:postgresql:")) {
+            return POSTGRESQL;
+        }
+        if (url.startsWith("jdbc:mysql:")) {
+            return MYSQL;
+        }
+        if (url.startsWith("jdbc:oracle:")) {
+            return ORACLE;
+        }
+        throw new IllegalArgumentException("Unsupported JDBC URL: " + jdbcUrl);
+    }
+
+    /**
+     * Resolves the dialect from its identifier (case insensitive).
+     */
+    public static Dialect fromId(String id) {
+        for (Dialect dialect : values()) {
+            if (dialect.id.equalsIgnoreCase(id) || dialect.name().equalsIgnoreCase(id)) {
+                return dialect;
+            }
+        }
+        throw new IllegalArgumentException("Unknown dialect: " + id);
+    }
+
+    /**
+     * Returns the Flyway location of this dialect's migrations below the given root directory.
+     */
+    public String migrationLocation(String migrationRoot) {
+        return "filesystem:" + migrationRoot + "/" + id;
+    }
+
+    /**
+     * Points the connection at the openshop schema so unqualified table names resolve.
+     */
+    public void useSchema(Connection connection) throws SQLException {
+        switch (this) {
+            case POSTGRESQL -> connection.setSchema(SCHEMA_NAME);
+            case MYSQL -> connection.setCatalog(SCHEMA_NAME);
+            case ORACLE -> {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("ALTER SESSION SET CURRENT_SCHEMA = \"" + SCHEMA_NAME + "\"");
+                }
+            }
+        }
+    }
+
+    /**
+     * Binds a UUID key in the representation used by this dialect's id columns:
+     * native UUID on PostgreSQL, BINARY(16) on MySQL and RAW(16) on Oracle.
+     */
+    public void bindUuid(PreparedStatement stmt, int index, UUID value) throws SQLException {
+        if (value == null) {
+            stmt.setObject(index, null);
+            return;
+        }
+        switch (this) {
+            case POSTGRESQL -> stmt.setObject(index, value);
+            case MYSQL, ORACLE -> stmt.setBytes(index, toBytes(value));
+        }
+    }
+
+    /**
+     * Reads a UUID key written by {@link #bindUuid}.
+     */
+    public UUID readUuid(ResultSet rs, String column) throws SQLException {
+        return switch (this) {
+            case POSTGRESQL -> rs.getObject(column, UUID.class);
+            case MYSQL, ORACLE -> {
+                byte[] value = rs.getBytes(column);
+                yield value == null ? null : fromBytes(value);
+            }
+        };
+    }
+
+    /**
+     * Reads a UUID key by column position.
+     */
+    public UUID readUuid(ResultSet rs, int column) throws SQLException {
+        return switch (this) {
+            case POSTGRESQL -> rs.getObject(column, UUID.class);
+            case MYSQL, ORACLE -> {
+                byte[] value = rs.getBytes(column);
+                yield value == null ? null : fromBytes(value);
+            }
+        };
+    }
+
+    /**
+     * Returns the SQL literal for a boolean column (Oracle stores flags as NUMBER(1)).
+     */
+    public String booleanLiteral(boolean value) {
+        if (this == ORACLE) {
+            return value ? "1" : "0";
+        }
+        return value ? "TRUE" : "FALSE";
+    }
+
+    /**
+     * Returns the SQL literal for a UUID key in the representation of {@link #bindUuid}.
+     */
+    public String uuidLiteral(UUID value) {
+        return switch (this) {
+            case POSTGRESQL -> "'" + value + "'";
+            case MYSQL -> "UUID_TO_BIN('" + value + "')";
+            case ORACLE -> "HEXTORAW('" + value.toString().replace("-", "").toUpperCase(Locale.ROOT) + "')";
+        };
+    }
+
+    /**
+     * Returns a UTC timestamp literal accepted by all three dialects.
+     */
+    public String timestampLiteral(Instant value) {
+        return "TIMESTAMP '" + TIMESTAMP_FORMAT.format(value) + "'";
+    }
+
+    /**
+     * Appends a row limit bound to a single parameter placeholder.
+     */
+    public String limit(String sql) {
+        return this == ORACLE
+                ? sql + " FETCH FIRST ? ROWS ONLY"
+                : sql + " LIMIT ?";
+    }
+
+    /**
+     * Returns an unquoted identifier the way this dialect's catalog stores it: upper case on
+     * Oracle, lower case on PostgreSQL and MySQL.
+     */
+    public String identifier(String name) {
+        return this == ORACLE ? name.toUpperCase(Locale.ROOT) : name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the column names to pass to {@link Connection#prepareStatement(String, String[])}
+     * for reading back the value generated for an identity column.
+     */
+    public String[] generatedKeyColumns(String column) {
+        return new String[] {identifier(column)};
+    }
+
+    /**
+     * Returns the fetch size that reads {@code rows} rows per round trip. PostgreSQL only honours
+     * it outside auto-commit. MySQL reads the whole result unless told to stream row by row, which
+     * blocks the connection until the result set is closed.
+     */
+    public int fetchSize(int rows, boolean streaming) {
+        if (this == MYSQL) {
+            return streaming ? Integer.MIN_VALUE : 0;
+        }
+        return rows;
+    }
+
+    /**
+     * Returns a single-row upsert on the unique key {@code keyColumns}: {@code ON CONFLICT} on
+     * PostgreSQL, {@code ON DUPLICATE KEY UPDATE} with a row alias (MySQL 8.0.19 or later) and
+     * {@code MERGE} on Oracle. The parameters are the key columns followed by the value columns.
+     */
+    public String upsert(String table, List<String> keyColumns, List<String> valueColumns) {
+        if (keyColumns.isEmpty() || valueColumns.isEmpty()) {
+            throw new IllegalArgumentException("An upsert needs key and value columns");
+        }
+        List<String> columns = new ArrayList<>(keyColumns);
+        columns.addAll(valueColumns);
+        String names = String.join(", ", columns);
+        String parameters = String.join(", ", Collections.nCopies(columns.size(), "?"));
+        return switch (this) {
+            case POSTGRESQL -> "INSERT INTO " + table + " (" + names + ") VALUES (" + parameters + ")"
+                    + " ON CONFLICT (" + String.join(", ", keyColumns) + ") DO UPDATE SET "
+                    + assignments(valueColumns, "", "EXCLUDED.");
+            // The row alias replaces VALUES(col), deprecated since MySQL 8.0.20
+            case MYSQL -> "INSERT INTO " + table + " (" + names + ") VALUES (" + parameters + ") AS incoming"
+                    + " ON DUPLICATE KEY UPDATE " + assignments(valueColumns, "", "incoming.");
+            case ORACLE -> "MERGE INTO " + table + " t USING (SELECT "
+                    + columns.stream().map(column -> "? AS " + column).collect(Collectors.joining(", "))
+                    + " FROM dual) incoming ON ("
+                    + keyColumns.stream().map(column -> "t." + column + " = incoming." + column)
+                            .collect(Collectors.joining(" AND "))
+                    + ") WHEN MATCHED THEN UPDATE SET " + assignments(valueColumns, "t.", "incoming.")
+                    + " WHEN NOT MATCHED THEN INSERT (" + names + ") VALUES ("
+                    + columns.stream().map(column -> "incoming." + column).collect(Collectors.joining(", ")) + ")";
+        };
+    }
+
+    private static String assignments(List<String> columns, String target, String source) {
+        return columns.stream()
+                .map(column -> target + column + " = " + source + column)
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Converts a UUID to its 16-byte big-endian form.
+     */
+    public static byte[] toBytes(UUID value) {
+        return ByteBuffer.allocate(16)
+                .putLong(value.getMostSignificantBits())
+                .putLong(value.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Converts a 16-byte big-endian value back to a UUID.
+     */
+    public static UUID fromBytes(byte[] value) {
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,96 @@
+package com.openshop.database;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+/**
+ * Non-pooling {@link DataSource} that opens a new {@link DriverManager} connection per call
+ * and points it at the openshop schema.
+ * Intended for tools, tests and benchmarks; production code should hand in a pooled data source.
+ */
+public final class DriverManagerDataSource implements DataSource {
+
+    private final Dialect dialect;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private PrintWriter logWriter;
+
+    public DriverManagerDataSource(String jdbcUrl, String username, String password) {
+        this.dialect = Dialect.fromJdbcUrl(jdbcUrl);
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Returns the dialect derived from the JDBC URL.
+     */
+    public Dialect dialect() {
+        return dialect;
+    }
+
+    public String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(username, password);
+    }
+
+    @Override
+    public Connection getConnection(String user, String pass) throws SQLException {
+        Connection connection = DriverManager.getConnection(jdbcUrl, user, pass);
+        try {
+            dialect.useSchema(connection);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
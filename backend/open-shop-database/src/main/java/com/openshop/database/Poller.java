@@ -0,0 +1,171 @@
+package com.openshop.database;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A daemon thread that runs a round of background work, waits, and runs the next one until it is
+ * closed. The background workers of this module run on it.
+ *
+ * <p>A round that throws is retried in a later round; the workers leave their queues, watermarks
+ * and dirty flags untouched by a failed round, so repeating it is harmless. Every failure is
+ * counted in {@link #failures()} and kept as {@link #lastFailure()} for health checks, and logged
+ * to {@code java.util.logging}: the first of a streak at {@code WARNING} with its stack trace,
+ * the rest at {@code FINE}, and the round that succeeds again at {@code INFO}, so an unreachable
+ * database does not flood the log.</p>
+ */
+public final class Poller implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(Poller.class.getName());
+
+    /**
+     * One round of work.
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    /**
+     * One round of work that decides when the next one is due.
+     */
+    @FunctionalInterface
+    public interface Round {
+
+        /**
+         * Runs the round and returns how long to wait before the next one, in nanoseconds; the
+         * next round starts at once if it is not positive.
+         */
+        long run() throws Exception;
+    }
+
+    private final String name;
+    private final Round round;
+    private final long retryNanos;
+    private final Task last;
+    private final Thread thread;
+    private final AtomicLong failures = new AtomicLong();
+    private volatile Exception lastFailure;
+    private volatile boolean running = true;
+    // Only touched by the thread
+    private long streak;
+
+    private Poller(String name, Round round, Duration retry, Task last) {
+        this.name = name;
+        this.round = round;
+        this.retryNanos = retry.toNanos();
+        this.last = last;
+        this.thread = new Thread(this::loop, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Runs {@code task} on a daemon thread named {@code name} now and every {@code interval}
+     * after that, also after a failed round.
+     */
+    public static Poller every(String name, Duration interval, Task task) {
+        long intervalNanos = interval.toNanos();
+        return new Poller(name, () -> {
+            task.run();
+            return intervalNanos;
+        }, interval, null);
+    }
+
+    /**
+     * Runs {@code round} on a daemon thread named {@code name} now and then after the wait each
+     * round returns, or after {@code retry} when it failed. {@code last}, unless {@code null},
+     * runs once on the thread after {@link #close}, e.g. to write what is still pending.
+     */
+    public static Poller start(String name, Round round, Duration retry, Task last) {
+        return new Poller(name, round, retry, last);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Starts the next round now if the thread is waiting, or right after the current one.
+     */
+    public void wake() {
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Rounds that failed since the start.
+     */
+    public long failures() {
+        return failures.get();
+    }
+
+    /**
+     * The failure of the latest failed round, {@code null} if none failed.
+     */
+    public Exception lastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Stops the thread after its current round and the final task, and waits for it.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() == thread) {
+            return;
+        }
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop() {
+        while (running) {
+            long waitNanos = attempt(round);
+            if (running && waitNanos > 0) {
+                LockSupport.parkNanos(this, waitNanos);
+            }
+        }
+        if (last != null) {
+            attempt(() -> {
+                last.run();
+                return 0;
+            });
+        }
+    }
+
+    private long attempt(Round work) {
+        long waitNanos;
+        try {
+            waitNanos = work.run();
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            lastFailure = e;
+            if (streak++ == 0) {
+                LOGGER.log(Level.WARNING, e, () -> name + " failed; retrying");
+            } else {
+                LOGGER.log(Level.FINE, e, () -> name + " failed again");
+            }
+            return retryNanos;
+        }
+        if (streak > 0) {
+            long failed = streak;
+            streak = 0;
+            LOGGER.info(() -> name + " recovered after " + failed + " failed rounds");
+        }
+        return waitNanos;
+    }
+}
@@ -0,0 +1,8 @@
+package com.openshop.database.audit;
+
+/**
+ * Kind of change an {@code audit_log} row records ({@code audit_log.operation_type}).
+ */
+public enum AuditOperation {
+    INSERT, UPDATE, DELETE
+}
@@ -0,0 +1,43 @@
+package com.openshop.database.audit;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One {@code audit_log} row.
+ *
+ * <p>{@code oldValues} and {@code newValues} are column snapshots of plain values as accepted by
+ * {@link com.openshop.database.Json}, written as JSONB on PostgreSQL and JSON on MySQL and
+ * Oracle. They are copied (one level deep) when the record is created, since the record is written
+ * later on the writer's thread; nested maps and lists must not be changed afterwards.</p>
+ */
+public record AuditRecord(String tableName, AuditOperation operation, String recordId,
+                          Map<String, ?> oldValues, Map<String, ?> newValues, String changedBy,
+                          Instant changedAt, String ipAddress, String userAgent) {
+
+    public AuditRecord {
+        Objects.requireNonNull(tableName, "tableName");
+        Objects.requireNonNull(operation, "operation");
+        Objects.requireNonNull(recordId, "recordId");
+        Objects.requireNonNull(changedAt, "changedAt");
+        oldValues = copy(oldValues);
+        newValues = copy(newValues);
+    }
+
+    /**
+     * A change made now by {@code changedBy}, without request details.
+     */
+    public static AuditRecord of(String tableName, AuditOperation operation, String recordId,
+                                 Map<String, ?> oldValues, Map<String, ?> newValues, String changedBy) {
+        return new AuditRecord(tableName, operation, recordId, oldValues, newValues, changedBy,
+                Clock.systemUTC().instant(), null, null);
+    }
+
+    private static Map<String, ?> copy(Map<String, ?> values) {
+        return values == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+}
@@ -0,0 +1,104 @@
+package com.openshop.database.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring of records with many producers and one consumer.
+ *
+ * <p>Every slot carries a sequence number telling whose turn it is: a producer may fill slot
+ * {@code i} of position {@code p} when its sequence is {@code p}, and publishes the record by
+ * setting it to {@code p + 1}; the consumer takes it at {@code p + 1} and hands the slot to the
+ * next lap by setting {@code p + capacity}. Producers claim positions with one compare-and-set
+ * on the tail and never wait for each other; the consumer stops at the first claimed but not
+ * yet published slot, so records are consumed in claim order.</p>
+ */
+final class AuditRing {
+
+    private final AuditRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    AuditRing(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        slots = new AuditRecord[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Adds the record, or returns {@code false} if the ring is full.
+     */
+    boolean offer(AuditRecord record) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[slot] = record;
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            // Another producer claimed the position first; retry with the new tail
+        }
+    }
+
+    /**
+     * Moves up to {@code max} records to {@code out} in claim order; consumer thread only.
+     */
+    int drain(List<AuditRecord> out, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) position & mask;
+            if (sequences.get(slot) != position + 1) {
+                break;
+            }
+            out.add(slots[slot]);
+            slots[slot] = null;
+            sequences.set(slot, position + slots.length);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * Number of positions claimed so far, published or not.
+     */
+    long claimed() {
+        return tail.get();
+    }
+
+    /**
+     * Number of records consumed so far.
+     */
+    long consumed() {
+        return head;
+    }
+
+    /**
+     * Records claimed and not yet consumed.
+     */
+    int size() {
+        return (int) (tail.get() - head);
+    }
+}
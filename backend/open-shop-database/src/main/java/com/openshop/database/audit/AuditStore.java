@@ -0,0 +1,16 @@
+package com.openshop.database.audit;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Persistence of audit records, separated from {@link AuditWriter} so the buffering can be
+ * exercised without a database.
+ */
+interface AuditStore {
+
+    /**
+     * Inserts the records in order, in one transaction.
+     */
+    void insert(List<AuditRecord> records) throws SQLException;
+}
@@ -0,0 +1,386 @@
+package com.openshop.database.audit;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes {@code audit_log} rows off the request path.
+ *
+ * <p>{@link #append} puts the record into a bounded lock-free {@link AuditRing} and returns; a
+ * single writer thread takes up to {@code maxBatch} records at a time and inserts them with
+ * multi-row statements in one transaction. A record waits at most about {@code flushLatency}
+ * before its write starts, less when a full batch is waiting. An admin or customer mutation thus
+ * costs one ring slot instead of a second statement in its own transaction.</p>
+ *
+ * <p>Records are not dropped to make room. When the ring is full, {@link #append} waits until the
+ * writer has freed slots, so callers slow down to the rate the database accepts (backpressure);
+ * {@link #tryAppend} returns {@code false} instead. A batch that fails is retried until it is
+ * written, except for records the database rejects as invalid (SQLState classes 22 and 23, e.g.
+ * a malformed IP address, or values that cannot be serialized): these are retried one by one and the ones failing again are counted in
+ * {@link #rejected()} rather than blocking the log. {@link #close} stops taking records and writes
+ * everything appended before it; call it on shutdown.</p>
+ *
+ * <p>Failed writes are logged like the rounds of {@link com.openshop.database.Poller}: the first
+ * of a streak at {@code WARNING}, the retries at {@code FINE} and the write that succeeds again at
+ * {@code INFO}. Each rejected record is logged at {@code WARNING}.</p>
+ */
+public final class AuditWriter implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 8_192;
+    public static final int DEFAULT_MAX_BATCH = 500;
+    public static final Duration DEFAULT_FLUSH_LATENCY = Duration.ofMillis(200);
+    public static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final long WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Logger LOGGER = Logger.getLogger(AuditWriter.class.getName());
+
+    private final AuditStore store;
+    private final AuditRing ring;
+    private final int maxBatch;
+    private final long flushLatencyNanos;
+    private final Duration shutdownTimeout;
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger appending = new AtomicInteger();
+    private final AtomicLong flushTarget = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final Thread writer;
+    private volatile long written;
+    private volatile long failures;
+    private volatile Exception lastFailure;
+    private volatile boolean closed;
+    private volatile boolean running = true;
+    private volatile boolean abandoned;
+    // Only touched by the writer thread
+    private long streak;
+
+    public AuditWriter(DataSource dataSource, Dialect dialect) {
+        this(new JdbcAuditStore(dataSource, dialect), DEFAULT_CAPACITY, DEFAULT_MAX_BATCH, DEFAULT_FLUSH_LATENCY,
+                DEFAULT_SHUTDOWN_TIMEOUT);
+    }
+
+    public AuditWriter(DataSource dataSource, Dialect dialect, int capacity, int maxBatch, Duration flushLatency) {
+        this(new JdbcAuditStore(dataSource, dialect), capacity, maxBatch, flushLatency, DEFAULT_SHUTDOWN_TIMEOUT);
+    }
+
+    AuditWriter(AuditStore store, int capacity, int maxBatch, Duration flushLatency, Duration shutdownTimeout) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+        this.store = store;
+        this.ring = new AuditRing(capacity);
+        this.maxBatch = maxBatch;
+        this.flushLatencyNanos = flushLatency.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues the record, waiting while the ring is full.
+     *
+     * @throws InterruptedException  if interrupted while waiting; the record is not queued
+     * @throws IllegalStateException if the writer is closed
+     */
+    public void append(AuditRecord record) throws InterruptedException {
+        enter();
+        try {
+            Thread current = Thread.currentThread();
+            while (!ring.offer(record)) {
+                waiters.add(current);
+                LockSupport.unpark(writer);
+                if (!ring.offer(record)) {
+                    LockSupport.park(this);
+                    waiters.remove(current);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    if (abandoned) {
+                        throw new IllegalStateException("Audit writer is closed");
+                    }
+                    continue;
+                }
+                waiters.remove(current);
+                break;
+            }
+        } finally {
+            appending.decrementAndGet();
+        }
+        signalIfBatchReady();
+    }
+
+    /**
+     * Queues the record if the ring has room and returns whether it did.
+     *
+     * @throws IllegalStateException if the writer is closed
+     */
+    public boolean tryAppend(AuditRecord record) {
+        enter();
+        boolean queued;
+        try {
+            queued = ring.offer(record);
+        } finally {
+            appending.decrementAndGet();
+        }
+        if (queued) {
+            signalIfBatchReady();
+        }
+        return queued;
+    }
+
+    /**
+     * Writes all records appended before this call and waits until they are in the database.
+     *
+     * @throws SQLException if a write fails meanwhile; the records stay queued and are retried
+     */
+    public void flush() throws SQLException {
+        long target = ring.claimed();
+        long failuresBefore = failures;
+        flushTarget.accumulateAndGet(target, Math::max);
+        Thread current = Thread.currentThread();
+        while (written < target) {
+            if (failures != failuresBefore) {
+                throw new SQLException("Audit records could not be written", lastFailure);
+            }
+            if (!writer.isAlive()) {
+                throw new IllegalStateException("Audit writer is closed");
+            }
+            waiters.add(current);
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, WAIT_NANOS);
+            waiters.remove(current);
+        }
+    }
+
+    /**
+     * Records appended but not yet written.
+     */
+    public long backlog() {
+        return ring.claimed() - written;
+    }
+
+    /**
+     * Records the database rejected as invalid.
+     */
+    public long rejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Batch writes that failed since the start; their records stay queued and are retried.
+     */
+    public long failures() {
+        return failures;
+    }
+
+    /**
+     * The failure of the latest failed write or rejected record, {@code null} if there was none.
+     */
+    public Exception lastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Stops taking records and writes every record appended so far.
+     *
+     * @throws IllegalStateException if the backlog could not be written within the shutdown
+     *                               timeout; the unwritten records are lost
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        // Appends already past the closed check may still be waiting for room
+        while (appending.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(this, WAIT_NANOS);
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        boolean interrupted = join(deadline);
+        if (writer.isAlive()) {
+            abandoned = true;
+            LockSupport.unpark(writer);
+            interrupted |= join(Long.MAX_VALUE);
+        }
+        wakeWaiters();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        long unwritten = backlog();
+        if (unwritten > 0) {
+            throw new IllegalStateException(unwritten + " audit records could not be written", lastFailure);
+        }
+    }
+
+    private void enter() {
+        appending.incrementAndGet();
+        if (closed) {
+            appending.decrementAndGet();
+            throw new IllegalStateException("Audit writer is closed");
+        }
+    }
+
+    private void signalIfBatchReady() {
+        if (ring.size() >= maxBatch) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private boolean join(long deadline) {
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            try {
+                writer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        return interrupted;
+    }
+
+    private void writeLoop() {
+        List<AuditRecord> batch = new ArrayList<>(maxBatch);
+        while (!abandoned) {
+            if (batch.isEmpty()) {
+                ring.drain(batch, maxBatch);
+            }
+            if (!batch.isEmpty()) {
+                boolean done = write(batch);
+                wakeWaiters();
+                if (!done) {
+                    LockSupport.parkNanos(this, flushLatencyNanos);
+                    continue;
+                }
+            }
+            boolean urgent = !running || flushTarget.get() > written;
+            if (ring.size() >= maxBatch || urgent && ring.size() > 0) {
+                continue;
+            }
+            if (!running && written == ring.claimed()) {
+                return;
+            }
+            // Claimed slots whose records are still being published are picked up after a short wait
+            LockSupport.parkNanos(this, urgent ? WAIT_NANOS : flushLatencyNanos);
+        }
+    }
+
+    /**
+     * Writes the batch and returns whether it is settled. Written and rejected records are removed
+     * from it; on a failure that may pass, the rest stays for the retry.
+     */
+    private boolean write(List<AuditRecord> batch) {
+        try {
+            store.insert(batch);
+            settle(batch, batch.size());
+            recover();
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            if (!invalidData(e)) {
+                fail(e);
+                return false;
+            }
+        }
+        // Find the invalid records among the batch one by one
+        int done = 0;
+        try {
+            for (AuditRecord record : batch) {
+                try {
+                    store.insert(List.of(record));
+                } catch (SQLException | RuntimeException e) {
+                    if (!invalidData(e)) {
+                        throw e;
+                    }
+                    rejected.incrementAndGet();
+                    lastFailure = e;
+                    LOGGER.log(Level.WARNING, e, () -> "Audit record for " + record.tableName() + " "
+                            + record.recordId() + " (" + record.operation() + ") rejected by the database");
+                }
+                done++;
+            }
+            settle(batch, done);
+            recover();
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            settle(batch, done);
+            fail(e);
+            return false;
+        }
+    }
+
+    private void settle(List<AuditRecord> batch, int count) {
+        batch.subList(0, count).clear();
+        written += count;
+    }
+
+    private void fail(Exception e) {
+        lastFailure = e;
+        failures++;
+        if (streak++ == 0) {
+            LOGGER.log(Level.WARNING, e, () -> "Audit records could not be written; retrying");
+        } else {
+            LOGGER.log(Level.FINE, e, () -> "Audit records could not be written again");
+        }
+    }
+
+    private void recover() {
+        if (streak > 0) {
+            long failed = streak;
+            streak = 0;
+            LOGGER.info(() -> "Audit records written again after " + failed + " failed attempts");
+        }
+    }
+
+    private void wakeWaiters() {
+        for (Thread waiter : waiters) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /**
+     * Whether the database refused the data itself, so retrying the same records cannot succeed.
+     * Anything else, including unchecked failures of the store or the pool, may pass and keeps the
+     * records queued.
+     */
+    private static boolean invalidData(Exception e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLDataException || cause instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql) {
+                String state = sql.getSQLState();
+                if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                    return true;
+                }
+                SQLException next = sql.getNextException();
+                if (next != null && next != cause.getCause() && invalidData(next)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,122 @@
+package com.openshop.database.audit;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Json;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link AuditStore} over {@code audit_log}.
+ *
+ * <p>On PostgreSQL and MySQL records are inserted {@value #ROWS_PER_STATEMENT} rows per
+ * {@code INSERT ... VALUES (...), (...)} statement, and all full statements of a write go out as
+ * one JDBC batch, so a write of a thousand records costs two round trips and ten statements
+ * instead of a thousand. Oracle 21c has no multi-row {@code VALUES}; its driver sends a JDBC batch
+ * of single-row inserts as one array DML call instead. Values snapshots are serialized with
+ * {@link Json}, which walks the maps without reflection; a snapshot that cannot be serialized fails
+ * the write with an {@link SQLDataException}, like a value the database refuses.</p>
+ */
+final class JdbcAuditStore implements AuditStore {
+
+    static final int ROWS_PER_STATEMENT = 100;
+
+    private static final String INSERT_SQL = "INSERT INTO audit_log (table_name, operation_type, record_id, "
+            + "old_values, new_values, changed_by, changed_at, ip_address, user_agent) VALUES ";
+
+    private static final int COLUMNS = 9;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+    private final String row;
+
+    JdbcAuditStore(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+        this.row = dialect == Dialect.POSTGRESQL
+                ? "(?, CAST(? AS operation_type), ?, CAST(? AS jsonb), CAST(? AS jsonb), ?, ?, CAST(? AS inet), ?)"
+                : "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    }
+
+    @Override
+    public void insert(List<AuditRecord> records) throws SQLException {
+        if (records.isEmpty()) {
+            return;
+        }
+        int rowsPerStatement = dialect == Dialect.ORACLE ? 1 : ROWS_PER_STATEMENT;
+        int full = records.size() / rowsPerStatement * rowsPerStatement;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (full > 0) {
+                    try (PreparedStatement stmt = connection.prepareStatement(insertSql(rowsPerStatement))) {
+                        for (int start = 0; start < full; start += rowsPerStatement) {
+                            bind(stmt, records.subList(start, start + rowsPerStatement));
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                if (full < records.size()) {
+                    List<AuditRecord> rest = records.subList(full, records.size());
+                    try (PreparedStatement stmt = connection.prepareStatement(insertSql(rest.size()))) {
+                        bind(stmt, rest);
+                        stmt.executeUpdate();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_SQL.length() + rows * (row.length() + 2)).append(INSERT_SQL);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        return sql.toString();
+    }
+
+    private void bind(PreparedStatement stmt, List<AuditRecord> records) throws SQLException {
+        StringBuilder json = new StringBuilder(256);
+        int index = 1;
+        for (AuditRecord record : records) {
+            stmt.setString(index, record.tableName());
+            stmt.setString(index + 1, record.operation().name());
+            stmt.setString(index + 2, record.recordId());
+            stmt.setString(index + 3, json(record.oldValues(), json));
+            stmt.setString(index + 4, json(record.newValues(), json));
+            stmt.setString(index + 5, record.changedBy());
+            stmt.setTimestamp(index + 6, Timestamp.from(record.changedAt()));
+            stmt.setString(index + 7, record.ipAddress());
+            stmt.setString(index + 8, record.userAgent());
+            index += COLUMNS;
+        }
+    }
+
+    private static String json(Map<String, ?> values, StringBuilder buffer) throws SQLDataException {
+        if (values == null) {
+            return null;
+        }
+        buffer.setLength(0);
+        try {
+            Json.write(values, buffer);
+        } catch (RuntimeException e) {
+            // A value whose toString() fails; the record can never be written
+            throw new SQLDataException("Audit values could not be serialized", "22000", e);
+        }
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,40 @@
+package com.openshop.database.callback;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event spanning one versioned Flyway migration script.
+ */
+@Name("com.openshop.database.Migration")
+@Label("Flyway Migration")
+@Category({"Open Shop", "Database"})
+@Description("Execution of one Flyway migration script")
+@StackTrace(false)
+final class MigrationEvent extends Event {
+
+    @Label("Version")
+    String version;
+
+    @Label("Script")
+    String script;
+
+    @Label("Statements")
+    int statements;
+
+    @Label("Rows Touched")
+    @Description("Rows inserted, updated or deleted, -1 when the database does not report it")
+    long rowsTouched;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+
+    @Label("Success")
+    boolean success;
+}
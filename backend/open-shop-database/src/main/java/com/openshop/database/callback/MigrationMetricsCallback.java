@@ -0,0 +1,270 @@
+package com.openshop.database.callback;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.callback.MigrationReport.MigrationTiming;
+import com.openshop.database.callback.MigrationReport.StatementTiming;
+import com.openshop.database.callback.MigrationReport.Threshold;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.flywaydb.core.api.logging.Log;
+import org.flywaydb.core.api.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flyway callback that records wall time, rows touched and lock wait for every migration script
+ * and every statement in it.
+ *
+ * <p>Each measurement is emitted as a JFR event ({@code com.openshop.database.Migration} and
+ * {@code com.openshop.database.MigrationStatement}) and the whole run is written as a JSON
+ * {@link MigrationReport} named after the dialect, e.g. {@code postgresql.json}. The previous
+ * report is kept next to it as {@code postgresql.previous.json} and used as the baseline:
+ * migrations and statements that got slower are flagged in the report and logged as warnings.</p>
+ *
+ * <p>Configured through system properties so it can be registered by class name in
+ * {@code flyway.conf}:</p>
+ * <ul>
+ *   <li>{@code openshop.migration.reportDir} - report directory, default {@value #DEFAULT_REPORT_DIR}</li>
+ *   <li>{@code openshop.migration.regression.ratio} - slowdown factor, default {@value #DEFAULT_RATIO}</li>
+ *   <li>{@code openshop.migration.regression.minMillis} - absolute slowdown floor, default {@value #DEFAULT_MIN_MILLIS}</li>
+ * </ul>
+ */
+public class MigrationMetricsCallback implements Callback {
+
+    public static final String DEFAULT_REPORT_DIR = "target/flyway-reports";
+    public static final double DEFAULT_RATIO = 1.25;
+    public static final double DEFAULT_MIN_MILLIS = 100;
+
+    private static final Log LOG = LogFactory.getLog(MigrationMetricsCallback.class);
+    private static final int MAX_SQL_LENGTH = 200;
+
+    private final Path reportDirectory;
+    private final Threshold threshold;
+
+    private String database;
+    private String reportName;
+    private StatementProbe probe;
+    private final List<MigrationTiming> migrations = new ArrayList<>();
+
+    private MigrationInfo currentMigration;
+    private MigrationEvent migrationEvent;
+    private long migrationStarted;
+    private List<StatementTiming> statements;
+
+    private MigrationStatementEvent statementEvent;
+    private long statementStarted;
+
+    public MigrationMetricsCallback() {
+        this(Paths.get(System.getProperty("openshop.migration.reportDir", DEFAULT_REPORT_DIR)),
+                new Threshold(
+                        Double.parseDouble(System.getProperty("openshop.migration.regression.ratio", String.valueOf(DEFAULT_RATIO))),
+                        Double.parseDouble(System.getProperty("openshop.migration.regression.minMillis", String.valueOf(DEFAULT_MIN_MILLIS)))));
+    }
+
+    public MigrationMetricsCallback(Path reportDirectory, Threshold threshold) {
+        this.reportDirectory = reportDirectory;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public boolean supports(Event event, Context context) {
+        return switch (event) {
+            case BEFORE_MIGRATE, BEFORE_EACH_MIGRATE, BEFORE_EACH_MIGRATE_STATEMENT,
+                 AFTER_EACH_MIGRATE_STATEMENT, AFTER_EACH_MIGRATE_STATEMENT_ERROR,
+                 AFTER_EACH_MIGRATE, AFTER_EACH_MIGRATE_ERROR, AFTER_MIGRATE, AFTER_MIGRATE_ERROR -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public boolean canHandleInTransaction(Event event, Context context) {
+        return true;
+    }
+
+    @Override
+    public void handle(Event event, Context context) {
+        switch (event) {
+            case BEFORE_MIGRATE -> beforeMigrate(context);
+            case BEFORE_EACH_MIGRATE -> beforeEachMigrate(context);
+            case BEFORE_EACH_MIGRATE_STATEMENT -> beforeStatement(context);
+            case AFTER_EACH_MIGRATE_STATEMENT -> afterStatement(context, true);
+            case AFTER_EACH_MIGRATE_STATEMENT_ERROR -> afterStatement(context, false);
+            case AFTER_EACH_MIGRATE -> afterEachMigrate(true);
+            case AFTER_EACH_MIGRATE_ERROR -> afterEachMigrate(false);
+            case AFTER_MIGRATE -> afterMigrate(true);
+            case AFTER_MIGRATE_ERROR -> afterMigrate(false);
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public String getCallbackName() {
+        return "openshop-migration-metrics";
+    }
+
+    private void beforeMigrate(Context context) {
+        migrations.clear();
+        reportName = "unknown";
+        Connection connection = context.getConnection();
+        try {
+            DatabaseMetaData metaData = connection.getMetaData();
+            database = metaData.getDatabaseProductName() + " " + metaData.getDatabaseProductVersion();
+            Dialect dialect = Dialect.fromJdbcUrl(metaData.getURL());
+            reportName = dialect.id();
+            probe = StatementProbe.forDialect(dialect, context.getConfiguration().getDataSource());
+        } catch (SQLException | IllegalArgumentException e) {
+            LOG.warn("Migration metrics limited to wall time: " + e.getMessage());
+            probe = null;
+        }
+    }
+
+    private void beforeEachMigrate(Context context) {
+        currentMigration = context.getMigrationInfo();
+        statements = new ArrayList<>();
+        migrationEvent = new MigrationEvent();
+        migrationEvent.begin();
+        migrationStarted = System.nanoTime();
+    }
+
+    private void beforeStatement(Context context) {
+        if (probe != null) {
+            probe.beforeStatement(context.getConnection());
+        }
+        statementEvent = new MigrationStatementEvent();
+        statementEvent.begin();
+        statementStarted = System.nanoTime();
+    }
+
+    private void afterStatement(Context context, boolean succeeded) {
+        if (statements == null || statementEvent == null) {
+            return;
+        }
+        double millis = (System.nanoTime() - statementStarted) / 1e6;
+        statementEvent.end();
+        StatementProbe.Sample sample = probe == null
+                ? StatementProbe.Sample.EMPTY
+                : probe.afterStatement(context.getConnection(), succeeded);
+        String sql = abbreviate(context.getStatement() == null ? "" : context.getStatement().getSql());
+        int index = statements.size() + 1;
+        statements.add(new StatementTiming(index, sql, succeeded, millis, sample.rowsTouched(),
+                sample.lockWaitMillis(), sample.locksAcquired(), null, false));
+
+        if (statementEvent.shouldCommit()) {
+            statementEvent.version = version(currentMigration);
+            statementEvent.index = index;
+            statementEvent.sql = sql;
+            statementEvent.rowsTouched = sample.rowsTouched() == null ? -1 : sample.rowsTouched();
+            statementEvent.lockWait = sample.lockWaitMillis() == null ? 0 : (long) (sample.lockWaitMillis() * 1e6);
+            statementEvent.locksAcquired = String.join(",", sample.locksAcquired());
+            statementEvent.success = succeeded;
+            statementEvent.commit();
+        }
+        statementEvent = null;
+    }
+
+    private void afterEachMigrate(boolean succeeded) {
+        if (currentMigration == null) {
+            return;
+        }
+        double millis = (System.nanoTime() - migrationStarted) / 1e6;
+        migrationEvent.end();
+        Long rows = sumRows(statements);
+        Double lockWait = sumLockWait(statements);
+        migrations.add(new MigrationTiming(version(currentMigration), currentMigration.getDescription(),
+                currentMigration.getScript(), succeeded, millis, rows, lockWait, null, false, List.copyOf(statements)));
+
+        if (migrationEvent.shouldCommit()) {
+            migrationEvent.version = version(currentMigration);
+            migrationEvent.script = currentMigration.getScript();
+            migrationEvent.statements = statements.size();
+            migrationEvent.rowsTouched = rows == null ? -1 : rows;
+            migrationEvent.lockWait = lockWait == null ? 0 : (long) (lockWait * 1e6);
+            migrationEvent.success = succeeded;
+            migrationEvent.commit();
+        }
+        currentMigration = null;
+    }
+
+    private void afterMigrate(boolean succeeded) {
+        if (probe != null) {
+            probe.close();
+            probe = null;
+        }
+        if (migrations.isEmpty()) {
+            // Nothing applied: keep the last report as the baseline
+            return;
+        }
+        Path reportPath = reportPath();
+        try {
+            Path previousPath = reportDirectory.resolve(reportName + ".previous.json");
+            Files.createDirectories(reportDirectory);
+            if (Files.isRegularFile(reportPath)) {
+                Files.move(reportPath, previousPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            MigrationReport report = new MigrationReport(Instant.now().toString(), database, succeeded, List.copyOf(migrations))
+                    .comparedWith(MigrationReport.read(previousPath), threshold);
+            report.write(reportPath);
+            for (String regression : report.regressions()) {
+                LOG.warn("Migration slower than previous run: " + regression);
+            }
+            LOG.info("Migration timing report written to " + reportPath.toAbsolutePath());
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not write migration timing report " + reportPath + ": " + e.getMessage());
+        } finally {
+            migrations.clear();
+        }
+    }
+
+    /**
+     * Returns the report file of the last run; named after the dialect once a run has started.
+     */
+    public Path reportPath() {
+        return reportDirectory.resolve(reportName + ".json");
+    }
+
+    private static String version(MigrationInfo info) {
+        return info == null || info.getVersion() == null ? null : info.getVersion().getVersion();
+    }
+
+    private static String abbreviate(String sql) {
+        String normalized = sql.strip().replaceAll("\\s+", " ");
+        return normalized.length() <= MAX_SQL_LENGTH ? normalized : normalized.substring(0, MAX_SQL_LENGTH - 3) + "...";
+    }
+
+    private static Long sumRows(List<StatementTiming> statements) {
+        long total = 0;
+        boolean known = false;
+        for (StatementTiming statement : statements) {
+            if (statement.rowsTouched() != null) {
+                total += statement.rowsTouched();
+                known = true;
+            }
+        }
+        return known ? total : null;
+    }
+
+    private static Double sumLockWait(List<StatementTiming> statements) {
+        double total = 0;
+        boolean known = false;
+        for (StatementTiming statement : statements) {
+            if (statement.lockWaitMillis() != null) {
+                total += statement.lockWaitMillis();
+                known = true;
+            }
+        }
+        return known ? total : null;
+    }
+}
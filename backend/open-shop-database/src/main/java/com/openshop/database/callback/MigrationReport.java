@@ -0,0 +1,235 @@
+package com.openshop.database.callback;
+
+import com.openshop.database.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timing report of one {@code flyway migrate} run, serialized as JSON.
+ * When compared with the report of the previous run, every migration and statement carries
+ * the previous duration and a regression flag.
+ *
+ * @param generatedAt ISO-8601 instant the run finished
+ * @param database    database product and version
+ * @param success     whether the run applied all pending migrations
+ * @param migrations  applied (or failed) migrations in execution order
+ */
+public record MigrationReport(String generatedAt, String database, boolean success, List<MigrationTiming> migrations) {
+
+    /**
+     * One migration script. Rows and lock wait are sums over its statements, {@code null} when unknown.
+     */
+    public record MigrationTiming(
+            String version,
+            String description,
+            String script,
+            boolean success,
+            double durationMillis,
+            Long rowsTouched,
+            Double lockWaitMillis,
+            Double previousDurationMillis,
+            boolean regression,
+            List<StatementTiming> statements) {
+    }
+
+    /**
+     * One statement of a migration script; {@code index} is 1-based within the script.
+     */
+    public record StatementTiming(
+            int index,
+            String sql,
+            boolean success,
+            double durationMillis,
+            Long rowsTouched,
+            Double lockWaitMillis,
+            List<String> locksAcquired,
+            Double previousDurationMillis,
+            boolean regression) {
+    }
+
+    /**
+     * A run is slower when it takes more than {@code ratio} times the previous duration and at
+     * least {@code minMillis} longer; the absolute floor keeps millisecond noise out of the report.
+     */
+    public record Threshold(double ratio, double minMillis) {
+
+        public boolean isRegression(Double previousMillis, double currentMillis) {
+            return previousMillis != null
+                    && currentMillis > previousMillis * ratio
+                    && currentMillis - previousMillis >= minMillis;
+        }
+    }
+
+    /**
+     * Returns a copy annotated with the durations of {@code previous}. Statements are matched by
+     * version and index, and only when their SQL is unchanged.
+     */
+    public MigrationReport comparedWith(MigrationReport previous, Threshold threshold) {
+        Map<String, MigrationTiming> before = new HashMap<>();
+        if (previous != null) {
+            previous.migrations().forEach(m -> before.put(key(m), m));
+        }
+        List<MigrationTiming> compared = new ArrayList<>();
+        for (MigrationTiming migration : migrations) {
+            MigrationTiming old = before.get(key(migration));
+            Double oldMillis = old == null || !old.success() ? null : old.durationMillis();
+            List<StatementTiming> statements = new ArrayList<>();
+            for (StatementTiming statement : migration.statements()) {
+                StatementTiming oldStatement = old == null ? null : find(old.statements(), statement);
+                Double oldStatementMillis = oldStatement == null ? null : oldStatement.durationMillis();
+                statements.add(new StatementTiming(statement.index(), statement.sql(), statement.success(),
+                        statement.durationMillis(), statement.rowsTouched(), statement.lockWaitMillis(),
+                        statement.locksAcquired(), oldStatementMillis,
+                        threshold.isRegression(oldStatementMillis, statement.durationMillis())));
+            }
+            compared.add(new MigrationTiming(migration.version(), migration.description(), migration.script(),
+                    migration.success(), migration.durationMillis(), migration.rowsTouched(),
+                    migration.lockWaitMillis(), oldMillis,
+                    threshold.isRegression(oldMillis, migration.durationMillis()), statements));
+        }
+        return new MigrationReport(generatedAt, database, success, compared);
+    }
+
+    /**
+     * Human readable lines for every flagged migration and statement.
+     */
+    public List<String> regressions() {
+        List<String> lines = new ArrayList<>();
+        for (MigrationTiming migration : migrations) {
+            if (migration.regression()) {
+                lines.add(String.format("%s: %.0f ms -> %.0f ms",
+                        migration.script(), migration.previousDurationMillis(), migration.durationMillis()));
+            }
+            for (StatementTiming statement : migration.statements()) {
+                if (statement.regression()) {
+                    lines.add(String.format("%s statement %d (%s): %.0f ms -> %.0f ms",
+                            migration.script(), statement.index(), statement.sql(),
+                            statement.previousDurationMillis(), statement.durationMillis()));
+                }
+            }
+        }
+        return lines;
+    }
+
+    public void write(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(path, toJson(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a report written by {@link #write}, or returns {@code null} if the file does not exist.
+     */
+    public static MigrationReport read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        return fromJson(Files.readString(path, StandardCharsets.UTF_8));
+    }
+
+    public String toJson() {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("generatedAt", generatedAt);
+        root.put("database", database);
+        root.put("success", success);
+        root.put("regressions", regressions());
+        List<Object> migrationList = new ArrayList<>();
+        for (MigrationTiming migration : migrations) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("version", migration.version());
+            m.put("description", migration.description());
+            m.put("script", migration.script());
+            m.put("success", migration.success());
+            m.put("durationMillis", migration.durationMillis());
+            m.put("rowsTouched", migration.rowsTouched());
+            m.put("lockWaitMillis", migration.lockWaitMillis());
+            m.put("previousDurationMillis", migration.previousDurationMillis());
+            m.put("regression", migration.regression());
+            List<Object> statementList = new ArrayList<>();
+            for (StatementTiming statement : migration.statements()) {
+                Map<String, Object> s = new LinkedHashMap<>();
+                s.put("index", statement.index());
+                s.put("sql", statement.sql());
+                s.put("success", statement.success());
+                s.put("durationMillis", statement.durationMillis());
+                s.put("rowsTouched", statement.rowsTouched());
+                s.put("lockWaitMillis", statement.lockWaitMillis());
+                s.put("locksAcquired", statement.locksAcquired());
+                s.put("previousDurationMillis", statement.previousDurationMillis());
+                s.put("regression", statement.regression());
+                statementList.add(s);
+            }
+            m.put("statements", statementList);
+            migrationList.add(m);
+        }
+        root.put("migrations", migrationList);
+        return Json.write(root);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static MigrationReport fromJson(String json) {
+        Map<String, Object> root = (Map<String, Object>) Json.parse(json);
+        List<MigrationTiming> migrations = new ArrayList<>();
+        for (Object item : (List<Object>) root.get("migrations")) {
+            Map<String, Object> m = (Map<String, Object>) item;
+            List<StatementTiming> statements = new ArrayList<>();
+            for (Object statementItem : (List<Object>) m.get("statements")) {
+                Map<String, Object> s = (Map<String, Object>) statementItem;
+                statements.add(new StatementTiming(
+                        ((Number) s.get("index")).intValue(),
+                        (String) s.get("sql"),
+                        Boolean.TRUE.equals(s.get("success")),
+                        ((Number) s.get("durationMillis")).doubleValue(),
+                        asLong(s.get("rowsTouched")),
+                        asDouble(s.get("lockWaitMillis")),
+                        List.copyOf((List<String>) s.get("locksAcquired")),
+                        asDouble(s.get("previousDurationMillis")),
+                        Boolean.TRUE.equals(s.get("regression"))));
+            }
+            migrations.add(new MigrationTiming(
+                    (String) m.get("version"),
+                    (String) m.get("description"),
+                    (String) m.get("script"),
+                    Boolean.TRUE.equals(m.get("success")),
+                    ((Number) m.get("durationMillis")).doubleValue(),
+                    asLong(m.get("rowsTouched")),
+                    asDouble(m.get("lockWaitMillis")),
+                    asDouble(m.get("previousDurationMillis")),
+                    Boolean.TRUE.equals(m.get("regression")),
+                    statements));
+        }
+        return new MigrationReport((String) root.get("generatedAt"), (String) root.get("database"),
+                Boolean.TRUE.equals(root.get("success")), migrations);
+    }
+
+    private static String key(MigrationTiming migration) {
+        return migration.version() != null ? migration.version() : migration.script();
+    }
+
+    private static StatementTiming find(List<StatementTiming> statements, StatementTiming wanted) {
+        for (StatementTiming statement : statements) {
+            if (statement.index() == wanted.index()) {
+                return statement.success() && statement.sql().equals(wanted.sql()) ? statement : null;
+            }
+        }
+        return null;
+    }
+
+    private static Long asLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private static Double asDouble(Object value) {
+        return value == null ? null : ((Number) value).doubleValue();
+    }
+}
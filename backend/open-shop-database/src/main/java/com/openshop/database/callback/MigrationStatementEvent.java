@@ -0,0 +1,44 @@
+package com.openshop.database.callback;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event spanning one SQL statement of a Flyway migration script.
+ */
+@Name("com.openshop.database.MigrationStatement")
+@Label("Flyway Migration Statement")
+@Category({"Open Shop", "Database"})
+@Description("Execution of one statement of a Flyway migration script")
+@StackTrace(false)
+final class MigrationStatementEvent extends Event {
+
+    @Label("Version")
+    String version;
+
+    @Label("Statement Index")
+    int index;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Rows Touched")
+    @Description("Rows inserted, updated or deleted, -1 when the database does not report it")
+    long rowsTouched;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+
+    @Label("Locks Acquired")
+    @Description("Write-blocking relation locks newly held after the statement, as table:mode")
+    String locksAcquired;
+
+    @Label("Success")
+    boolean success;
+}
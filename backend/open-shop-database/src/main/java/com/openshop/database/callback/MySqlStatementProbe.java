@@ -0,0 +1,44 @@
+package com.openshop.database.callback;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Reads the statement's own row in {@code performance_schema.events_statements_history}:
+ * {@code ROWS_AFFECTED} and {@code LOCK_TIME} (picoseconds, includes metadata lock waits).
+ * Needs the default {@code events_statements_history} consumer and SELECT on performance_schema.
+ */
+final class MySqlStatementProbe extends StatementProbe {
+
+    private static final String LAST_STATEMENT = """
+            SELECT ROWS_AFFECTED, LOCK_TIME
+            FROM performance_schema.events_statements_history
+            WHERE THREAD_ID = PS_CURRENT_THREAD_ID()
+            ORDER BY EVENT_ID DESC
+            LIMIT 1""";
+
+    @Override
+    void beforeStatement(Connection connection) {
+        // History is per statement, nothing to snapshot
+    }
+
+    @Override
+    Sample afterStatement(Connection connection, boolean succeeded) {
+        if (!enabled()) {
+            return Sample.EMPTY;
+        }
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(LAST_STATEMENT)) {
+            if (!rs.next()) {
+                return Sample.EMPTY;
+            }
+            return new Sample(rs.getLong(1), rs.getLong(2) / 1e9, List.of());
+        } catch (SQLException e) {
+            disable(e);
+            return Sample.EMPTY;
+        }
+    }
+}
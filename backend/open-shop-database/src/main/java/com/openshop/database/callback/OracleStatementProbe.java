@@ -0,0 +1,35 @@
+package com.openshop.database.callback;
+
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Diffs the session's {@code Application} and {@code Concurrency} wait time in
+ * {@code v$session_event} (enqueue, library cache and row lock waits) around each statement.
+ * Oracle exposes no per-session row counter, so rows touched are not reported.
+ * Needs SELECT on {@code v$session_event}.
+ */
+final class OracleStatementProbe extends StatementProbe {
+
+    private static final String LOCK_WAIT_MICROS = """
+            SELECT NVL(SUM(time_waited_micro), 0)
+            FROM v$session_event
+            WHERE sid = SYS_CONTEXT('USERENV', 'SID')
+              AND wait_class IN ('Application', 'Concurrency')""";
+
+    private Long waitedBefore;
+
+    @Override
+    void beforeStatement(Connection connection) {
+        waitedBefore = queryLong(connection, LOCK_WAIT_MICROS);
+    }
+
+    @Override
+    Sample afterStatement(Connection connection, boolean succeeded) {
+        Long waitedAfter = queryLong(connection, LOCK_WAIT_MICROS);
+        if (waitedBefore == null || waitedAfter == null) {
+            return Sample.EMPTY;
+        }
+        return new Sample(null, (waitedAfter - waitedBefore) / 1_000.0, List.of());
+    }
+}
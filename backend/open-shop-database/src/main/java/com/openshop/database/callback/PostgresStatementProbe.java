@@ -0,0 +1,208 @@
+package com.openshop.database.callback;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PostgreSQL has no cumulative lock wait counter, so a sampler on a second connection polls
+ * {@code pg_stat_activity} for the migration backend every {@value #SAMPLE_MILLIS} ms while a
+ * statement runs. Rows touched come from {@code pg_stat_xact_all_tables}, and the write-blocking
+ * relation locks the statement newly holds come from {@code pg_locks}; both are read inside a
+ * savepoint so a failing probe cannot abort the migration transaction.
+ */
+final class PostgresStatementProbe extends StatementProbe {
+
+    static final long SAMPLE_MILLIS = 10;
+
+    private static final String XACT_ROWS =
+            "SELECT COALESCE(SUM(n_tup_ins + n_tup_upd + n_tup_del), 0) FROM pg_stat_xact_all_tables";
+
+    /**
+     * Relation locks that conflict with ROW EXCLUSIVE, i.e. block INSERT/UPDATE/DELETE.
+     */
+    private static final String WRITE_BLOCKING_LOCKS = """
+            SELECT c.relname, l.mode
+            FROM pg_locks l
+            JOIN pg_class c ON c.oid = l.relation
+            WHERE l.pid = pg_backend_pid()
+              AND l.locktype = 'relation'
+              AND l.granted
+              AND l.mode IN ('ShareLock', 'ShareRowExclusiveLock', 'ExclusiveLock', 'AccessExclusiveLock')
+              AND c.relkind IN ('r', 'p')""";
+
+    private static final String BACKEND_WAIT = "SELECT wait_event_type FROM pg_stat_activity WHERE pid = ?";
+
+    private final DataSource dataSource;
+    private final AtomicLong lockWaitNanos = new AtomicLong();
+    private volatile boolean statementRunning;
+    private volatile int backendPid;
+    private ScheduledExecutorService sampler;
+    private Connection samplerConnection;
+    private PreparedStatement samplerQuery;
+    private boolean samplerUnavailable;
+    private volatile long lastSampleNanos;
+
+    private Long rowsBefore;
+    private Set<String> locksBefore = Set.of();
+
+    PostgresStatementProbe(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    void beforeStatement(Connection connection) {
+        if (backendPid == 0 && enabled()) {
+            Long pid = inSavepoint(connection, () -> queryLong(connection, "SELECT pg_backend_pid()"));
+            backendPid = pid == null ? 0 : pid.intValue();
+            startSampler();
+        }
+        rowsBefore = inSavepoint(connection, () -> queryLong(connection, XACT_ROWS));
+        locksBefore = inSavepoint(connection, () -> writeBlockingLocks(connection));
+        lockWaitNanos.set(0);
+        lastSampleNanos = System.nanoTime();
+        statementRunning = true;
+    }
+
+    @Override
+    Sample afterStatement(Connection connection, boolean succeeded) {
+        statementRunning = false;
+        Double lockWait = sampler == null ? null : lockWaitNanos.get() / 1e6;
+        if (!succeeded) {
+            return new Sample(null, lockWait, List.of());
+        }
+        Long rowsAfter = inSavepoint(connection, () -> queryLong(connection, XACT_ROWS));
+        Set<String> locksAfter = inSavepoint(connection, () -> writeBlockingLocks(connection));
+        List<String> acquired = new ArrayList<>();
+        if (locksAfter != null) {
+            for (String lock : locksAfter) {
+                if (locksBefore == null || !locksBefore.contains(lock)) {
+                    acquired.add(lock);
+                }
+            }
+        }
+        Long rows = rowsBefore == null || rowsAfter == null ? null : rowsAfter - rowsBefore;
+        return new Sample(rows, lockWait, acquired);
+    }
+
+    @Override
+    public void close() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+            try {
+                sampler.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sampler = null;
+        }
+        if (samplerConnection != null) {
+            try {
+                samplerConnection.close();
+            } catch (SQLException ignored) {
+                // Best effort, the connection is only used for sampling
+            }
+            samplerConnection = null;
+        }
+    }
+
+    private void startSampler() {
+        if (samplerUnavailable || backendPid == 0 || dataSource == null) {
+            return;
+        }
+        try {
+            samplerConnection = dataSource.getConnection();
+            samplerConnection.setAutoCommit(true);
+            samplerQuery = samplerConnection.prepareStatement(BACKEND_WAIT);
+            samplerQuery.setInt(1, backendPid);
+        } catch (SQLException e) {
+            samplerUnavailable = true;
+            close();
+            warn("Lock wait sampling unavailable: " + e.getMessage());
+            return;
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flyway-lock-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sample, SAMPLE_MILLIS, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        long elapsed = now - lastSampleNanos;
+        lastSampleNanos = now;
+        if (!statementRunning) {
+            return;
+        }
+        try (ResultSet rs = samplerQuery.executeQuery()) {
+            if (rs.next() && "Lock".equals(rs.getString(1))) {
+                lockWaitNanos.addAndGet(elapsed);
+            }
+        } catch (SQLException e) {
+            // The next statement gets another chance; a broken connection simply stops adding wait time
+        }
+    }
+
+    private Set<String> writeBlockingLocks(Connection connection) {
+        if (!enabled()) {
+            return null;
+        }
+        Set<String> locks = new LinkedHashSet<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(WRITE_BLOCKING_LOCKS)) {
+            while (rs.next()) {
+                locks.add(rs.getString(1) + ":" + rs.getString(2));
+            }
+            return locks;
+        } catch (SQLException e) {
+            disable(e);
+            return null;
+        }
+    }
+
+    private interface Probe<T> {
+        T run();
+    }
+
+    /**
+     * Runs the probe inside a savepoint when the migration is transactional, so an error in the
+     * probe rolls back to the savepoint instead of poisoning the migration transaction.
+     */
+    private <T> T inSavepoint(Connection connection, Probe<T> probe) {
+        if (!enabled()) {
+            return null;
+        }
+        Savepoint savepoint = null;
+        try {
+            if (!connection.getAutoCommit()) {
+                savepoint = connection.setSavepoint();
+            }
+            T result = probe.run();
+            if (savepoint != null) {
+                if (enabled()) {
+                    connection.releaseSavepoint(savepoint);
+                } else {
+                    connection.rollback(savepoint);
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            disable(e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.openshop.database.callback;
+
+import com.openshop.database.Dialect;
+import org.flywaydb.core.api.logging.Log;
+import org.flywaydb.core.api.logging.LogFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Dialect specific measurement of a single migration statement: rows touched, time spent
+ * waiting for locks and the locks the statement left behind.
+ *
+ * <p>Probes are best effort. A probe whose catalog views are not readable by the migration
+ * user logs once and reports {@code null} from then on; it never fails the migration.</p>
+ */
+abstract class StatementProbe implements AutoCloseable {
+
+    private static final Log LOG = LogFactory.getLog(StatementProbe.class);
+
+    /**
+     * Measurements of one statement; {@code null} means the database could not tell.
+     */
+    record Sample(Long rowsTouched, Double lockWaitMillis, List<String> locksAcquired) {
+
+        static final Sample EMPTY = new Sample(null, null, List.of());
+    }
+
+    private boolean enabled = true;
+
+    static StatementProbe forDialect(Dialect dialect, DataSource dataSource) {
+        return switch (dialect) {
+            case POSTGRESQL -> new PostgresStatementProbe(dataSource);
+            case MYSQL -> new MySqlStatementProbe();
+            case ORACLE -> new OracleStatementProbe();
+        };
+    }
+
+    /**
+     * Called right before Flyway executes the statement on {@code connection}.
+     */
+    abstract void beforeStatement(Connection connection);
+
+    /**
+     * Called right after the statement finished. When {@code succeeded} is false the
+     * migration transaction may be unusable and must not be queried.
+     */
+    abstract Sample afterStatement(Connection connection, boolean succeeded);
+
+    @Override
+    public void close() {
+    }
+
+    boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs a single-value query, disabling the probe on the first failure.
+     */
+    Long queryLong(Connection connection, String sql) {
+        if (!enabled) {
+            return null;
+        }
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : null;
+        } catch (SQLException e) {
+            disable(e);
+            return null;
+        }
+    }
+
+    void disable(SQLException cause) {
+        if (enabled) {
+            enabled = false;
+            warn("Probe disabled, migration metrics will be incomplete: " + cause.getMessage());
+        }
+    }
+
+    void warn(String message) {
+        LOG.warn(getClass().getSimpleName() + ": " + message);
+    }
+}
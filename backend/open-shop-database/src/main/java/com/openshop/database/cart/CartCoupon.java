@@ -0,0 +1,20 @@
+package com.openshop.database.cart;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Coupon applied to a cart, as stored in {@code shopping_carts.coupon_code},
+ * {@code coupon_discount_amount} and {@code coupon_discount_type}.
+ */
+public record CartCoupon(String code, BigDecimal amount, DiscountType type) {
+
+    public CartCoupon {
+        Objects.requireNonNull(code, "code");
+        Objects.requireNonNull(amount, "amount");
+        Objects.requireNonNull(type, "type");
+        if (amount.signum() < 0) {
+            throw new IllegalArgumentException("amount must not be negative");
+        }
+    }
+}
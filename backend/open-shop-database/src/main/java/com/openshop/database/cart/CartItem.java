@@ -0,0 +1,22 @@
+package com.openshop.database.cart;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Snapshot of a product variant as it is put into a cart; {@code shopping_cart_items} keeps the
+ * price and names from the time of addition.
+ */
+public record CartItem(UUID productId, UUID variantId, BigDecimal unitPrice,
+                       String productName, String productSlug, String variantName, String variantSku) {
+
+    public CartItem {
+        Objects.requireNonNull(productId, "productId");
+        Objects.requireNonNull(variantId, "variantId");
+        Objects.requireNonNull(unitPrice, "unitPrice");
+        if (unitPrice.signum() < 0) {
+            throw new IllegalArgumentException("unitPrice must not be negative");
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.openshop.database.cart;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.UuidV7;
+import com.openshop.database.cart.CartStore.CartState;
+import com.openshop.database.cart.CartStore.CartWrite;
+import com.openshop.database.cart.CartStore.Line;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Edits shopping carts in memory and keeps the calculated columns of {@code shopping_carts}
+ * ({@code item_count}, {@code subtotal}, {@code discount_total}, {@code tax_estimate},
+ * {@code total_estimate}) in step without re-summing {@code shopping_cart_items}.
+ *
+ * <p>A cart is loaded on first use. Every edit updates its lines and recomputes the totals from
+ * them ({@link CartTotals}), so callers see the new totals immediately. The first edit of a clean
+ * cart opens a write window; a flusher thread writes each cart once its window has passed, with
+ * the net change of all edits in it: a quantity changed five times is one update, an item added
+ * and removed again is no item write at all. Items, totals and {@code last_activity_at} go out in
+ * one transaction, batched with every other cart due in the same round.</p>
+ *
+ * <p>Edits within the open window are lost if the process dies; call {@link #flush(UUID)} before
+ * reading the cart from the database, e.g. at checkout. The service assumes it is the only writer
+ * of the carts it has loaded (route a customer's requests to one node); call {@link #evict} after
+ * a cart was changed by other means.</p>
+ */
+public final class CartService implements AutoCloseable {
+
+    public static final Duration DEFAULT_WRITE_WINDOW = Duration.ofMillis(500);
+
+    // Clean carts untouched for this long are dropped from memory
+    private static final Duration IDLE_EVICTION = Duration.ofMinutes(30);
+
+    private final CartStore store;
+    private final Clock clock;
+    private final long windowNanos;
+    private final Map<UUID, Cart> carts = new ConcurrentHashMap<>();
+    private final Poller flusher;
+    private volatile boolean running = true;
+
+    public CartService(DataSource dataSource, Dialect dialect) {
+        this(new JdbcCartStore(dataSource, dialect), DEFAULT_WRITE_WINDOW, Clock.systemUTC());
+    }
+
+    public CartService(DataSource dataSource, Dialect dialect, Duration writeWindow) {
+        this(new JdbcCartStore(dataSource, dialect), writeWindow, Clock.systemUTC());
+    }
+
+    CartService(CartStore store, Duration writeWindow, Clock clock) {
+        if (writeWindow.isNegative() || writeWindow.isZero()) {
+            throw new IllegalArgumentException("writeWindow must be positive");
+        }
+        this.store = store;
+        this.clock = clock;
+        this.windowNanos = writeWindow.toNanos();
+        // A failed round leaves its carts dirty; they are retried one window later
+        this.flusher = Poller.start("cart-flusher",
+                () -> Math.max(TimeUnit.MILLISECONDS.toNanos(1), flushDue(false) - System.nanoTime()),
+                writeWindow, () -> flushDue(true));
+    }
+
+    /**
+     * Adds {@code quantity} of a variant, on top of what the cart already holds of it.
+     */
+    public CartTotals add(UUID cartId, CartItem item, int quantity) throws SQLException {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be positive");
+        }
+        return edit(cartId, cart -> {
+            Line line = cart.lines.get(item.variantId());
+            if (line != null) {
+                cart.lines.put(item.variantId(), line.withQuantity(line.quantity() + quantity));
+            } else {
+                // Re-adding a variant removed within the window keeps its row instead of inserting another
+                Line persisted = cart.persisted.get(item.variantId());
+                UUID id = persisted != null ? persisted.id() : UuidV7.generate();
+                cart.lines.put(item.variantId(), new Line(id, item, quantity, BigDecimal.ZERO, DiscountType.FIXED));
+            }
+            return cart.edited(now());
+        });
+    }
+
+    /**
+     * Sets the quantity of a variant already in the cart; zero removes it.
+     */
+    public CartTotals setQuantity(UUID cartId, UUID variantId, int quantity) throws SQLException {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("quantity must not be negative");
+        }
+        return edit(cartId, cart -> {
+            Line line = cart.lines.get(variantId);
+            if (line == null) {
+                throw new IllegalArgumentException("Variant " + variantId + " is not in cart " + cartId);
+            }
+            if (quantity == 0) {
+                cart.lines.remove(variantId);
+            } else {
+                cart.lines.put(variantId, line.withQuantity(quantity));
+            }
+            return cart.edited(now());
+        });
+    }
+
+    /**
+     * Removes a variant from the cart; removing one that is not there only counts as activity.
+     */
+    public CartTotals remove(UUID cartId, UUID variantId) throws SQLException {
+        return edit(cartId, cart -> {
+            cart.lines.remove(variantId);
+            return cart.edited(now());
+        });
+    }
+
+    /**
+     * Applies a coupon to the cart, replacing any other; {@code null} removes it.
+     */
+    public CartTotals applyCoupon(UUID cartId, CartCoupon coupon) throws SQLException {
+        return edit(cartId, cart -> {
+            cart.coupon = coupon;
+            return cart.edited(now());
+        });
+    }
+
+    /**
+     * Current totals of the cart, including edits not yet written.
+     */
+    public CartTotals totals(UUID cartId) throws SQLException {
+        return edit(cartId, cart -> cart.totals);
+    }
+
+    /**
+     * Writes the cart's pending edits now, e.g. before the cart is converted into an order.
+     */
+    public void flush(UUID cartId) throws SQLException {
+        Cart cart = carts.get(cartId);
+        if (cart == null) {
+            return;
+        }
+        cart.writeLock.lock();
+        try {
+            CartWrite write;
+            synchronized (cart) {
+                write = cart.takeWrite();
+            }
+            if (write != null) {
+                write(List.of(cart), List.of(write));
+            }
+        } finally {
+            cart.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the cart's pending edits and drops it from memory; the next use reloads it.
+     */
+    public void evict(UUID cartId) throws SQLException {
+        Cart cart = carts.get(cartId);
+        if (cart == null) {
+            return;
+        }
+        cart.writeLock.lock();
+        try {
+            CartWrite write;
+            synchronized (cart) {
+                write = cart.takeWrite();
+                cart.evicted = true;
+                carts.remove(cartId, cart);
+            }
+            if (write != null) {
+                try {
+                    write(List.of(cart), List.of(write));
+                } catch (SQLException | RuntimeException e) {
+                    // Keep the edits; the cart stays loaded and is retried by the flusher
+                    synchronized (cart) {
+                        cart.evicted = false;
+                        carts.putIfAbsent(cartId, cart);
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            cart.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the flusher after writing the pending edits of all carts.
+     */
+    @Override
+    public void close() {
+        running = false;
+        flusher.close();
+    }
+
+    /**
+     * The flusher thread, which reports failed background writes.
+     */
+    public Poller flusher() {
+        return flusher;
+    }
+
+    private interface Edit {
+        CartTotals apply(Cart cart);
+    }
+
+    private CartTotals edit(UUID cartId, Edit edit) throws SQLException {
+        while (true) {
+            Cart cart = cart(cartId);
+            synchronized (cart) {
+                // An evicted cart may have been written already; edit a fresh copy instead
+                if (!cart.evicted) {
+                    return edit.apply(cart);
+                }
+            }
+        }
+    }
+
+    private Cart cart(UUID cartId) throws SQLException {
+        if (!running) {
+            throw new IllegalStateException("Cart service is closed");
+        }
+        Cart cart = carts.get(cartId);
+        if (cart != null) {
+            return cart;
+        }
+        CartState state = store.load(cartId);
+        if (state == null) {
+            throw new IllegalArgumentException("No shopping cart " + cartId);
+        }
+        Cart loaded = new Cart(state);
+        Cart raced = carts.putIfAbsent(cartId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private Instant now() {
+        return clock.instant();
+    }
+
+    /**
+     * Writes all carts whose window has passed, or all dirty carts if {@code all}, in one batch
+     * and returns the {@link System#nanoTime()} at which the next window ends. A failed write
+     * leaves the carts dirty.
+     */
+    private long flushDue(boolean all) throws SQLException {
+        long now = System.nanoTime();
+        long nextDue = now + windowNanos;
+        Instant evictBefore = now().minus(IDLE_EVICTION);
+        List<Cart> due = new ArrayList<>();
+        List<CartWrite> writes = new ArrayList<>();
+        for (Cart cart : carts.values()) {
+            // A cart being flushed by a caller is picked up in the next round
+            if (!cart.writeLock.tryLock()) {
+                continue;
+            }
+            boolean taken = false;
+            synchronized (cart) {
+                if (!cart.dirty) {
+                    if (cart.lastActivity.isBefore(evictBefore)) {
+                        cart.evicted = true;
+                        carts.remove(cart.id, cart);
+                    }
+                } else if (all || cart.dirtySince + windowNanos - now <= 0) {
+                    due.add(cart);
+                    writes.add(cart.takeWrite());
+                    taken = true;
+                } else if (cart.dirtySince + windowNanos - nextDue < 0) {
+                    nextDue = cart.dirtySince + windowNanos;
+                }
+            }
+            if (!taken) {
+                cart.writeLock.unlock();
+            }
+        }
+        try {
+            if (!writes.isEmpty()) {
+                write(due, writes);
+            }
+        } finally {
+            for (Cart cart : due) {
+                cart.writeLock.unlock();
+            }
+        }
+        return nextDue;
+    }
+
+    /**
+     * Writes the carts, whose write locks the caller holds, and marks them dirty again on failure.
+     */
+    private void write(List<Cart> written, List<CartWrite> writes) throws SQLException {
+        try {
+            store.write(writes);
+        } catch (SQLException | RuntimeException e) {
+            for (Cart cart : written) {
+                synchronized (cart) {
+                    cart.writeFailed();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * In-memory state of one cart. Fields are guarded by the cart's monitor; {@link #writeLock}
+     * is held from taking a write until it is committed or failed, so writes of one cart never
+     * overlap or commit out of order.
+     */
+    private static final class Cart {
+
+        final UUID id;
+        final BigDecimal taxRate;
+        final BigDecimal shippingEstimate;
+        final ReentrantLock writeLock = new ReentrantLock();
+        // Lines by variant as edited, as last written, and as written before the write in flight
+        final Map<UUID, Line> lines = new LinkedHashMap<>();
+        Map<UUID, Line> persisted = new LinkedHashMap<>();
+        Map<UUID, Line> inFlightBase;
+        CartCoupon coupon;
+        CartTotals totals;
+        Instant lastActivity = Instant.EPOCH;
+        boolean dirty;
+        // System.nanoTime() of the first edit since the last write
+        long dirtySince;
+        boolean evicted;
+
+        Cart(CartState state) {
+            this.id = state.cartId();
+            this.taxRate = state.taxRate();
+            this.shippingEstimate = state.shippingEstimate();
+            this.coupon = state.coupon();
+            for (Line line : state.lines()) {
+                lines.put(line.item().variantId(), line);
+            }
+            persisted.putAll(lines);
+            totals = CartTotals.compute(lines.values(), coupon, taxRate, shippingEstimate);
+        }
+
+        CartTotals edited(Instant at) {
+            totals = CartTotals.compute(lines.values(), coupon, taxRate, shippingEstimate);
+            lastActivity = at;
+            markDirty();
+            return totals;
+        }
+
+        /**
+         * The net change since the last write, or {@code null} if there is none. The cart counts
+         * as written until {@link #writeFailed} says otherwise.
+         */
+        CartWrite takeWrite() {
+            if (!dirty) {
+                return null;
+            }
+            List<Line> inserts = new ArrayList<>();
+            List<Line> updates = new ArrayList<>();
+            List<UUID> deletes = new ArrayList<>();
+            for (Line line : lines.values()) {
+                Line before = persisted.get(line.item().variantId());
+                if (before == null) {
+                    inserts.add(line);
+                } else if (!before.equals(line)) {
+                    // A variant removed and added again within the window keeps its row but takes the new price
+                    updates.add(line);
+                }
+            }
+            for (Map.Entry<UUID, Line> entry : persisted.entrySet()) {
+                if (!lines.containsKey(entry.getKey())) {
+                    deletes.add(entry.getValue().id());
+                }
+            }
+            inFlightBase = persisted;
+            persisted = new LinkedHashMap<>(lines);
+            dirty = false;
+            return new CartWrite(id, inserts, updates, deletes, coupon, totals, lastActivity);
+        }
+
+        void writeFailed() {
+            persisted = inFlightBase;
+            markDirty();
+        }
+
+        private void markDirty() {
+            if (!dirty) {
+                dirty = true;
+                dirtySince = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.openshop.database.cart;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persistence of carts, separated from {@link CartService} so the coalescing can be exercised
+ * without a database.
+ */
+interface CartStore {
+
+    /**
+     * The cart with its lines, or {@code null} if there is no such cart.
+     */
+    CartState load(UUID cartId) throws SQLException;
+
+    /**
+     * Applies the changes of several carts in one transaction.
+     */
+    void write(List<CartWrite> writes) throws SQLException;
+
+    /**
+     * One {@code shopping_cart_items} row.
+     */
+    record Line(UUID id, CartItem item, int quantity, BigDecimal discountAmount, DiscountType discountType) {
+
+        Line withQuantity(int newQuantity) {
+            return new Line(id, item, newQuantity, discountAmount, discountType);
+        }
+
+        BigDecimal lineTotal() {
+            return item.unitPrice().multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    /**
+     * The columns of {@code shopping_carts} the totals are computed from, and the cart's lines.
+     */
+    record CartState(UUID cartId, CartCoupon coupon, BigDecimal taxRate, BigDecimal shippingEstimate,
+                     List<Line> lines) {
+    }
+
+    /**
+     * Net change of one cart since its last write: lines to insert, update and delete, and the
+     * cart columns to set.
+     */
+    record CartWrite(UUID cartId, List<Line> inserts, List<Line> updates, List<UUID> deletes,
+                     CartCoupon coupon, CartTotals totals, Instant lastActivity) {
+    }
+}
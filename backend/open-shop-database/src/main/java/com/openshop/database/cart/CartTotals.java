@@ -0,0 +1,62 @@
+package com.openshop.database.cart;
+
+import com.openshop.database.cart.CartStore.Line;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+
+/**
+ * The calculated columns of {@code shopping_carts}.
+ *
+ * <p>Line discounts come off each line total, the coupon comes off what remains of the subtotal,
+ * and tax is charged on the discounted amount. Discounts never exceed the amount they apply to, so
+ * no total turns negative.</p>
+ *
+ * @param itemCount        sum of the line quantities
+ * @param subtotal         sum of the line totals ({@code quantity * unit_price})
+ * @param discountTotal    line discounts plus the coupon discount
+ * @param taxEstimate      {@code (subtotal - discountTotal) * tax_rate}
+ * @param shippingEstimate the cart's shipping estimate, passed through
+ * @param totalEstimate    {@code subtotal - discountTotal + taxEstimate + shippingEstimate}
+ */
+public record CartTotals(int itemCount, BigDecimal subtotal, BigDecimal discountTotal, BigDecimal taxEstimate,
+                         BigDecimal shippingEstimate, BigDecimal totalEstimate) {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    static CartTotals compute(Collection<Line> lines, CartCoupon coupon, BigDecimal taxRate,
+                              BigDecimal shippingEstimate) {
+        int itemCount = 0;
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal lineDiscounts = BigDecimal.ZERO;
+        for (Line line : lines) {
+            BigDecimal lineTotal = line.lineTotal();
+            itemCount += line.quantity();
+            subtotal = subtotal.add(lineTotal);
+            lineDiscounts = lineDiscounts.add(discount(lineTotal, line.discountAmount(), line.discountType()));
+        }
+        BigDecimal couponDiscount = coupon == null
+                ? BigDecimal.ZERO
+                : discount(subtotal.subtract(lineDiscounts), coupon.amount(), coupon.type());
+        BigDecimal discountTotal = lineDiscounts.add(couponDiscount);
+        BigDecimal taxable = subtotal.subtract(discountTotal);
+        BigDecimal tax = taxable.multiply(taxRate).setScale(2, RoundingMode.HALF_UP);
+        return new CartTotals(itemCount, money(subtotal), money(discountTotal), tax, money(shippingEstimate),
+                money(taxable.add(tax).add(shippingEstimate)));
+    }
+
+    private static BigDecimal discount(BigDecimal base, BigDecimal amount, DiscountType type) {
+        if (amount == null || amount.signum() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal discount = type == DiscountType.PERCENTAGE
+                ? base.multiply(amount).divide(HUNDRED, 2, RoundingMode.HALF_UP)
+                : amount;
+        return discount.min(base);
+    }
+
+    private static BigDecimal money(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,34 @@
+package com.openshop.database.cart;
+
+import java.util.Locale;
+
+/**
+ * How a discount amount of a cart line ({@code shopping_cart_items.discount_type}) or of the cart's
+ * coupon ({@code shopping_carts.coupon_discount_type}) is applied.
+ */
+public enum DiscountType {
+
+    /**
+     * The amount is taken off as is.
+     */
+    FIXED,
+
+    /**
+     * The amount is a percentage of the discounted price.
+     */
+    PERCENTAGE;
+
+    /**
+     * Returns the lowercase value stored in the database.
+     */
+    public String id() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Resolves a stored value; {@code null} means {@link #FIXED}, the column default.
+     */
+    public static DiscountType fromId(String id) {
+        return id == null ? FIXED : valueOf(id.toUpperCase(Locale.ROOT));
+    }
+}
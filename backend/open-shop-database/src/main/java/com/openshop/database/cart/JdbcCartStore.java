@@ -0,0 +1,186 @@
+package com.openshop.database.cart;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link CartStore} over {@code shopping_carts} and {@code shopping_cart_items}. All carts of one
+ * flush are written in a single transaction with one JDBC batch per statement, so a flush costs
+ * the same number of round trips however many carts and edits it covers.
+ */
+final class JdbcCartStore implements CartStore {
+
+    private static final String LOAD_CART_SQL = """
+            SELECT coupon_code, coupon_discount_amount, coupon_discount_type, tax_rate, shipping_estimate
+            FROM shopping_carts
+            WHERE id = ?""";
+
+    private static final String LOAD_ITEMS_SQL = """
+            SELECT id, product_id, variant_id, quantity, unit_price, product_name, product_slug, variant_name,
+                   variant_sku, discount_amount, discount_type
+            FROM shopping_cart_items
+            WHERE cart_id = ?
+            ORDER BY added_at""";
+
+    private static final String DELETE_ITEM_SQL = "DELETE FROM shopping_cart_items WHERE id = ?";
+
+    private static final String UPDATE_ITEM_SQL = """
+            UPDATE shopping_cart_items
+            SET quantity = ?, unit_price = ?, product_name = ?, product_slug = ?, variant_name = ?, variant_sku = ?,
+                discount_amount = ?, discount_type = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE id = ?""";
+
+    private static final String INSERT_ITEM_SQL = """
+            INSERT INTO shopping_cart_items (id, cart_id, product_id, variant_id, quantity, unit_price,
+                product_name, product_slug, variant_name, variant_sku, discount_amount, discount_type)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String UPDATE_CART_SQL = """
+            UPDATE shopping_carts
+            SET coupon_code = ?, coupon_discount_amount = ?, coupon_discount_type = ?,
+                item_count = ?, subtotal = ?, discount_total = ?, tax_estimate = ?, total_estimate = ?,
+                last_activity_at = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE id = ?""";
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcCartStore(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public CartState load(UUID cartId) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            CartCoupon coupon;
+            BigDecimal taxRate;
+            BigDecimal shippingEstimate;
+            try (PreparedStatement stmt = connection.prepareStatement(LOAD_CART_SQL)) {
+                dialect.bindUuid(stmt, 1, cartId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    String code = rs.getString(1);
+                    coupon = code == null ? null
+                            : new CartCoupon(code, zeroIfNull(rs.getBigDecimal(2)), DiscountType.fromId(rs.getString(3)));
+                    taxRate = zeroIfNull(rs.getBigDecimal(4));
+                    shippingEstimate = zeroIfNull(rs.getBigDecimal(5));
+                }
+            }
+            List<Line> lines = new ArrayList<>();
+            try (PreparedStatement stmt = connection.prepareStatement(LOAD_ITEMS_SQL)) {
+                dialect.bindUuid(stmt, 1, cartId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        CartItem item = new CartItem(dialect.readUuid(rs, 2), dialect.readUuid(rs, 3),
+                                rs.getBigDecimal(5), rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9));
+                        lines.add(new Line(dialect.readUuid(rs, 1), item, rs.getInt(4),
+                                zeroIfNull(rs.getBigDecimal(10)), DiscountType.fromId(rs.getString(11))));
+                    }
+                }
+            }
+            return new CartState(cartId, coupon, taxRate, shippingEstimate, lines);
+        }
+    }
+
+    @Override
+    public void write(List<CartWrite> writes) throws SQLException {
+        // Carts are always written in key order so flushes on several nodes cannot deadlock each other
+        List<CartWrite> ordered = new ArrayList<>(writes);
+        ordered.sort(Comparator.comparing(CartWrite::cartId));
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement deleteItem = connection.prepareStatement(DELETE_ITEM_SQL);
+                 PreparedStatement updateItem = connection.prepareStatement(UPDATE_ITEM_SQL);
+                 PreparedStatement insertItem = connection.prepareStatement(INSERT_ITEM_SQL);
+                 PreparedStatement updateCart = connection.prepareStatement(UPDATE_CART_SQL)) {
+                for (CartWrite write : ordered) {
+                    for (UUID id : write.deletes()) {
+                        dialect.bindUuid(deleteItem, 1, id);
+                        deleteItem.addBatch();
+                    }
+                    for (Line line : write.updates()) {
+                        bindUpdate(updateItem, line);
+                        updateItem.addBatch();
+                    }
+                    for (Line line : write.inserts()) {
+                        bindInsert(insertItem, write.cartId(), line);
+                        insertItem.addBatch();
+                    }
+                    bindCart(updateCart, write);
+                    updateCart.addBatch();
+                }
+                // Deletes before inserts, so UNIQUE (cart_id, variant_id) holds after every statement
+                deleteItem.executeBatch();
+                updateItem.executeBatch();
+                insertItem.executeBatch();
+                updateCart.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void bindUpdate(PreparedStatement stmt, Line line) throws SQLException {
+        CartItem item = line.item();
+        stmt.setInt(1, line.quantity());
+        stmt.setBigDecimal(2, item.unitPrice());
+        stmt.setString(3, item.productName());
+        stmt.setString(4, item.productSlug());
+        stmt.setString(5, item.variantName());
+        stmt.setString(6, item.variantSku());
+        stmt.setBigDecimal(7, line.discountAmount());
+        stmt.setString(8, line.discountType().id());
+        dialect.bindUuid(stmt, 9, line.id());
+    }
+
+    private void bindInsert(PreparedStatement stmt, UUID cartId, Line line) throws SQLException {
+        CartItem item = line.item();
+        dialect.bindUuid(stmt, 1, line.id());
+        dialect.bindUuid(stmt, 2, cartId);
+        dialect.bindUuid(stmt, 3, item.productId());
+        dialect.bindUuid(stmt, 4, item.variantId());
+        stmt.setInt(5, line.quantity());
+        stmt.setBigDecimal(6, item.unitPrice());
+        stmt.setString(7, item.productName());
+        stmt.setString(8, item.productSlug());
+        stmt.setString(9, item.variantName());
+        stmt.setString(10, item.variantSku());
+        stmt.setBigDecimal(11, line.discountAmount());
+        stmt.setString(12, line.discountType().id());
+    }
+
+    private void bindCart(PreparedStatement stmt, CartWrite write) throws SQLException {
+        CartCoupon coupon = write.coupon();
+        CartTotals totals = write.totals();
+        stmt.setString(1, coupon == null ? null : coupon.code());
+        stmt.setBigDecimal(2, coupon == null ? BigDecimal.ZERO : coupon.amount());
+        stmt.setString(3, (coupon == null ? DiscountType.FIXED : coupon.type()).id());
+        stmt.setInt(4, totals.itemCount());
+        stmt.setBigDecimal(5, totals.subtotal());
+        stmt.setBigDecimal(6, totals.discountTotal());
+        stmt.setBigDecimal(7, totals.taxEstimate());
+        stmt.setBigDecimal(8, totals.totalEstimate());
+        stmt.setTimestamp(9, Timestamp.from(write.lastActivity()));
+        dialect.bindUuid(stmt, 10, write.cartId());
+    }
+
+    private static BigDecimal zeroIfNull(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+}
@@ -0,0 +1,166 @@
+package com.openshop.database.catalog;
+
+import com.openshop.database.catalog.CatalogSnapshot.Column;
+import com.openshop.database.catalog.CatalogSnapshot.Constraint;
+import com.openshop.database.catalog.CatalogSnapshot.Index;
+import com.openshop.database.catalog.CatalogSnapshot.Table;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Compares an expected {@link CatalogSnapshot} with one read from a database.
+ *
+ * <p>Both snapshots are keyed by uppercase name, so the comparison is a single pass over sorted
+ * maps and costs no database round trips; the same expected model can be checked against
+ * hundreds of tenant snapshots read in one {@link CatalogReader} call.</p>
+ *
+ * <p>The expected model may be partial: a table declared without columns, indexes or
+ * constraints is not compared on that aspect, and column types are only compared where the
+ * expected column has one.</p>
+ */
+public final class CatalogDiff {
+
+    /**
+     * Aspects of the catalog a comparison covers.
+     */
+    public enum Scope {
+        TABLES, COLUMNS, COLUMN_TYPES, INDEXES, INDEX_COLUMNS, CONSTRAINTS
+    }
+
+    public enum Kind {
+        MISSING_TABLE, EXTRA_TABLE,
+        MISSING_COLUMN, EXTRA_COLUMN, CHANGED_COLUMN,
+        MISSING_INDEX, EXTRA_INDEX, CHANGED_INDEX,
+        MISSING_CONSTRAINT, EXTRA_CONSTRAINT, CHANGED_CONSTRAINT
+    }
+
+    /**
+     * One difference; {@code object} is the column, index or constraint name and {@code null}
+     * for table differences. {@code expected} and {@code actual} describe changed definitions.
+     */
+    public record Difference(Kind kind, String table, String object, String expected, String actual) {
+
+        @Override
+        public String toString() {
+            String target = object == null ? table : table + "." + object;
+            return expected == null && actual == null
+                    ? kind + " " + target
+                    : kind + " " + target + ": expected " + expected + ", found " + actual;
+        }
+    }
+
+    public static final Set<Scope> ALL = EnumSet.allOf(Scope.class);
+
+    private CatalogDiff() {
+    }
+
+    public static List<Difference> compare(CatalogSnapshot expected, CatalogSnapshot actual) {
+        return compare(expected, actual, ALL);
+    }
+
+    public static List<Difference> compare(CatalogSnapshot expected, CatalogSnapshot actual, Set<Scope> scopes) {
+        List<Difference> differences = new ArrayList<>();
+        for (Table expectedTable : expected.tables().values()) {
+            Table actualTable = actual.tables().get(expectedTable.name());
+            if (actualTable == null) {
+                if (scopes.contains(Scope.TABLES)) {
+                    differences.add(new Difference(Kind.MISSING_TABLE, expectedTable.name(), null, null, null));
+                }
+            } else if (!expectedTable.equals(actualTable)) {
+                compareTable(expectedTable, actualTable, scopes, differences);
+            }
+        }
+        if (scopes.contains(Scope.TABLES)) {
+            for (String table : actual.tables().keySet()) {
+                if (!expected.tables().containsKey(table)) {
+                    differences.add(new Difference(Kind.EXTRA_TABLE, table, null, null, null));
+                }
+            }
+        }
+        return differences;
+    }
+
+    private static void compareTable(Table expected, Table actual, Set<Scope> scopes, List<Difference> differences) {
+        if (scopes.contains(Scope.COLUMNS) || scopes.contains(Scope.COLUMN_TYPES)) {
+            compareObjects(expected.name(), expected.columns(), actual.columns(),
+                    scopes.contains(Scope.COLUMNS),
+                    scopes.contains(Scope.COLUMN_TYPES) ? CatalogDiff::sameColumn : null,
+                    CatalogDiff::describe,
+                    Kind.MISSING_COLUMN, Kind.EXTRA_COLUMN, Kind.CHANGED_COLUMN, differences);
+        }
+        if (scopes.contains(Scope.INDEXES) || scopes.contains(Scope.INDEX_COLUMNS)) {
+            compareObjects(expected.name(), expected.indexes(), actual.indexes(),
+                    scopes.contains(Scope.INDEXES),
+                    scopes.contains(Scope.INDEX_COLUMNS) ? CatalogDiff::sameIndex : null,
+                    CatalogDiff::describe,
+                    Kind.MISSING_INDEX, Kind.EXTRA_INDEX, Kind.CHANGED_INDEX, differences);
+        }
+        if (scopes.contains(Scope.CONSTRAINTS)) {
+            compareObjects(expected.name(), expected.constraints(), actual.constraints(),
+                    true, CatalogDiff::sameConstraint, CatalogDiff::describe,
+                    Kind.MISSING_CONSTRAINT, Kind.EXTRA_CONSTRAINT, Kind.CHANGED_CONSTRAINT, differences);
+        }
+    }
+
+    private static <T> void compareObjects(String table, Map<String, T> expected, Map<String, T> actual,
+                                           boolean names, BiPredicate<T, T> same, Function<T, String> describe,
+                                           Kind missing, Kind extra, Kind changed, List<Difference> differences) {
+        if (expected.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, T> entry : expected.entrySet()) {
+            T actualObject = actual.get(entry.getKey());
+            if (actualObject == null) {
+                if (names) {
+                    differences.add(new Difference(missing, table, entry.getKey(), null, null));
+                }
+            } else if (same != null && !same.test(entry.getValue(), actualObject)) {
+                differences.add(new Difference(changed, table, entry.getKey(),
+                        describe.apply(entry.getValue()), describe.apply(actualObject)));
+            }
+        }
+        if (names) {
+            for (String name : actual.keySet()) {
+                if (!expected.containsKey(name)) {
+                    differences.add(new Difference(extra, table, name, null, null));
+                }
+            }
+        }
+    }
+
+    private static boolean sameColumn(Column expected, Column actual) {
+        return expected.dataType() == null
+                || (expected.dataType().equalsIgnoreCase(actual.dataType()) && expected.nullable() == actual.nullable());
+    }
+
+    private static boolean sameIndex(Index expected, Index actual) {
+        return expected.columns().isEmpty()
+                || (expected.unique() == actual.unique() && expected.columns().equals(actual.columns()));
+    }
+
+    private static boolean sameConstraint(Constraint expected, Constraint actual) {
+        return expected.type() == actual.type()
+                && (expected.columns().isEmpty() || expected.columns().equals(actual.columns()))
+                && (expected.referencedTable() == null || Objects.equals(expected.referencedTable(), actual.referencedTable()));
+    }
+
+    private static String describe(Column column) {
+        return column.dataType() + (column.nullable() ? " NULL" : " NOT NULL");
+    }
+
+    private static String describe(Index index) {
+        return (index.unique() ? "UNIQUE " : "") + index.columns();
+    }
+
+    private static String describe(Constraint constraint) {
+        return constraint.type() + " " + constraint.columns()
+                + (constraint.referencedTable() == null ? "" : " -> " + constraint.referencedTable());
+    }
+}
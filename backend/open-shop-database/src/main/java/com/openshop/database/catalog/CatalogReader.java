@@ -0,0 +1,230 @@
+package com.openshop.database.catalog;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.catalog.CatalogSnapshot.ConstraintType;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads {@link CatalogSnapshot}s with one bulk data dictionary query per dialect.
+ *
+ * <p>{@link java.sql.DatabaseMetaData} costs one round trip per table and per kind of object;
+ * checking the 32 tables of a tenant schema that way takes close to a hundred round trips, which
+ * dominates drift checks over a WAN. The queries here return tables, columns, index keys and
+ * constraint columns of any number of schemas as one tagged {@code UNION ALL} result, read with a
+ * large fetch size. MySQL and Oracle take the schema names as an IN list, so very long schema
+ * lists are split into chunks of {@value #MAX_SCHEMAS_PER_QUERY}.</p>
+ *
+ * <p>Every row has the same shape: kind ({@code T}able, {@code C}olumn, {@code I}ndex key,
+ * {@code K} constraint column), schema, table, object name, detail (data type, uniqueness or
+ * constraint type), key column, position, nullable flag and referenced table.</p>
+ */
+public final class CatalogReader {
+
+    static final int MAX_SCHEMAS_PER_QUERY = 500;
+    private static final int FETCH_SIZE = 5_000;
+
+    private static final String POSTGRESQL_SQL = """
+            WITH target AS (
+                SELECT oid, nspname FROM pg_namespace WHERE nspname = ANY (?)
+            ), rel AS (
+                SELECT c.oid, c.relname, t.nspname
+                FROM pg_class c
+                JOIN target t ON t.oid = c.relnamespace
+                WHERE c.relkind IN ('r', 'p') AND NOT c.relispartition
+            )
+            SELECT 'T'::text, r.nspname::text, r.relname::text, r.relname::text, NULL::text, NULL::text, 0, NULL::text, NULL::text
+            FROM rel r
+            UNION ALL
+            SELECT 'C', r.nspname, r.relname, a.attname, format_type(a.atttypid, a.atttypmod), NULL,
+                   a.attnum, CASE WHEN a.attnotnull THEN 'N' ELSE 'Y' END, NULL
+            FROM rel r
+            JOIN pg_attribute a ON a.attrelid = r.oid AND a.attnum > 0 AND NOT a.attisdropped
+            UNION ALL
+            SELECT 'I', r.nspname, r.relname, i.relname, CASE WHEN x.indisunique THEN 'U' ELSE 'N' END, a.attname,
+                   k.ord, NULL, NULL
+            FROM rel r
+            JOIN pg_index x ON x.indrelid = r.oid
+            JOIN pg_class i ON i.oid = x.indexrelid
+            CROSS JOIN LATERAL unnest(x.indkey::int2[]) WITH ORDINALITY AS k(attnum, ord)
+            LEFT JOIN pg_attribute a ON a.attrelid = r.oid AND a.attnum = k.attnum
+            UNION ALL
+            SELECT 'K', r.nspname, r.relname, con.conname, upper(con.contype::text), a.attname,
+                   coalesce(k.ord, 0), NULL, ref.relname
+            FROM rel r
+            JOIN pg_constraint con ON con.conrelid = r.oid AND con.contype IN ('p', 'u', 'f', 'c')
+            LEFT JOIN LATERAL unnest(con.conkey) WITH ORDINALITY AS k(attnum, ord) ON TRUE
+            LEFT JOIN pg_attribute a ON a.attrelid = r.oid AND a.attnum = k.attnum
+            LEFT JOIN pg_class ref ON ref.oid = con.confrelid
+            """;
+
+    private static final String MYSQL_SQL = """
+            SELECT 'T', t.TABLE_SCHEMA, t.TABLE_NAME, t.TABLE_NAME, NULL, NULL, 0, NULL, NULL
+            FROM information_schema.TABLES t
+            WHERE t.TABLE_SCHEMA IN (%1$s) AND t.TABLE_TYPE = 'BASE TABLE'
+            UNION ALL
+            SELECT 'C', c.TABLE_SCHEMA, c.TABLE_NAME, c.COLUMN_NAME, c.COLUMN_TYPE, NULL,
+                   c.ORDINAL_POSITION, IF(c.IS_NULLABLE = 'YES', 'Y', 'N'), NULL
+            FROM information_schema.COLUMNS c
+            JOIN information_schema.TABLES t
+              ON t.TABLE_SCHEMA = c.TABLE_SCHEMA AND t.TABLE_NAME = c.TABLE_NAME AND t.TABLE_TYPE = 'BASE TABLE'
+            WHERE c.TABLE_SCHEMA IN (%1$s)
+            UNION ALL
+            SELECT 'I', s.TABLE_SCHEMA, s.TABLE_NAME, s.INDEX_NAME, IF(s.NON_UNIQUE = 0, 'U', 'N'), s.COLUMN_NAME,
+                   s.SEQ_IN_INDEX, NULL, NULL
+            FROM information_schema.STATISTICS s
+            WHERE s.TABLE_SCHEMA IN (%1$s)
+            UNION ALL
+            SELECT 'K', tc.TABLE_SCHEMA, tc.TABLE_NAME, tc.CONSTRAINT_NAME,
+                   CASE tc.CONSTRAINT_TYPE WHEN 'PRIMARY KEY' THEN 'P' WHEN 'UNIQUE' THEN 'U'
+                                           WHEN 'FOREIGN KEY' THEN 'F' ELSE 'C' END,
+                   k.COLUMN_NAME, COALESCE(k.ORDINAL_POSITION, 0), NULL, k.REFERENCED_TABLE_NAME
+            FROM information_schema.TABLE_CONSTRAINTS tc
+            LEFT JOIN information_schema.KEY_COLUMN_USAGE k
+              ON k.CONSTRAINT_SCHEMA = tc.CONSTRAINT_SCHEMA AND k.TABLE_NAME = tc.TABLE_NAME
+             AND k.CONSTRAINT_NAME = tc.CONSTRAINT_NAME
+            WHERE tc.TABLE_SCHEMA IN (%1$s)
+              AND tc.CONSTRAINT_TYPE IN ('PRIMARY KEY', 'UNIQUE', 'FOREIGN KEY', 'CHECK')
+            """;
+
+    private static final String ORACLE_SQL = """
+            SELECT 'T', t.owner, t.table_name, t.table_name, NULL, NULL, 0, NULL, NULL
+            FROM all_tables t
+            WHERE t.owner IN (%1$s) AND t.dropped = 'NO' AND t.nested = 'NO' AND t.secondary = 'N'
+            UNION ALL
+            SELECT 'C', c.owner, c.table_name, c.column_name,
+                   c.data_type || CASE
+                       WHEN c.data_type IN ('VARCHAR2', 'NVARCHAR2', 'CHAR', 'NCHAR') THEN '(' || c.char_length || ')'
+                       WHEN c.data_type = 'RAW' THEN '(' || c.data_length || ')'
+                       WHEN c.data_type = 'NUMBER' AND c.data_precision IS NOT NULL
+                           THEN '(' || c.data_precision || ',' || c.data_scale || ')'
+                   END,
+                   NULL, c.column_id, c.nullable, NULL
+            FROM all_tab_columns c
+            JOIN all_tables t ON t.owner = c.owner AND t.table_name = c.table_name AND t.dropped = 'NO'
+            WHERE c.owner IN (%1$s)
+            UNION ALL
+            SELECT 'I', ic.table_owner, ic.table_name, ic.index_name, DECODE(i.uniqueness, 'UNIQUE', 'U', 'N'),
+                   ic.column_name, ic.column_position, NULL, NULL
+            FROM all_ind_columns ic
+            JOIN all_indexes i ON i.owner = ic.index_owner AND i.index_name = ic.index_name
+            JOIN all_tables t ON t.owner = ic.table_owner AND t.table_name = ic.table_name AND t.dropped = 'NO'
+            WHERE ic.table_owner IN (%1$s) AND i.index_type <> 'LOB'
+            UNION ALL
+            SELECT 'K', c.owner, c.table_name, c.constraint_name, DECODE(c.constraint_type, 'R', 'F', c.constraint_type),
+                   cc.column_name, NVL(cc.position, 0), NULL, r.table_name
+            FROM all_constraints c
+            JOIN all_tables t ON t.owner = c.owner AND t.table_name = c.table_name AND t.dropped = 'NO'
+            LEFT JOIN all_cons_columns cc ON cc.owner = c.owner AND cc.constraint_name = c.constraint_name
+            LEFT JOIN all_constraints r ON r.owner = c.r_owner AND r.constraint_name = c.r_constraint_name
+            WHERE c.owner IN (%1$s) AND c.constraint_type IN ('P', 'U', 'R', 'C')
+            """;
+
+    private final Dialect dialect;
+
+    public CatalogReader(Dialect dialect) {
+        this.dialect = dialect;
+    }
+
+    /**
+     * Reads the snapshot of one schema in a single query.
+     */
+    public CatalogSnapshot read(Connection connection, String schema) throws SQLException {
+        return read(connection, List.of(schema)).get(schema);
+    }
+
+    /**
+     * Reads the snapshots of all {@code schemas}, keyed by the names as given. Schemas that do
+     * not exist come back as empty snapshots.
+     */
+    public Map<String, CatalogSnapshot> read(Connection connection, Collection<String> schemas) throws SQLException {
+        Map<String, CatalogSnapshot.Builder> builders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String schema : schemas) {
+            builders.put(schema, CatalogSnapshot.builder(schema));
+        }
+        List<String> names = new ArrayList<>(builders.keySet());
+        int chunkSize = dialect == Dialect.POSTGRESQL ? Math.max(names.size(), 1) : MAX_SCHEMAS_PER_QUERY;
+        for (int from = 0; from < names.size(); from += chunkSize) {
+            List<String> chunk = names.subList(from, Math.min(names.size(), from + chunkSize));
+            query(connection, chunk, builders);
+        }
+        Map<String, CatalogSnapshot> snapshots = new LinkedHashMap<>();
+        for (String schema : schemas) {
+            snapshots.put(schema, builders.get(schema).build());
+        }
+        return snapshots;
+    }
+
+    private void query(Connection connection, List<String> schemas,
+                       Map<String, CatalogSnapshot.Builder> builders) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql(schemas.size()))) {
+            stmt.setFetchSize(FETCH_SIZE);
+            Array array = null;
+            if (dialect == Dialect.POSTGRESQL) {
+                array = connection.createArrayOf("text", schemas.toArray());
+                stmt.setArray(1, array);
+            } else {
+                // The IN list is repeated once per branch of the UNION ALL
+                int index = 1;
+                for (int branch = 0; branch < 4; branch++) {
+                    for (String schema : schemas) {
+                        stmt.setString(index++, schema);
+                    }
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    CatalogSnapshot.Builder builder = builders.get(rs.getString(2));
+                    if (builder != null) {
+                        addRow(builder, rs);
+                    }
+                }
+            } finally {
+                if (array != null) {
+                    array.free();
+                }
+            }
+        }
+    }
+
+    private static void addRow(CatalogSnapshot.Builder builder, ResultSet rs) throws SQLException {
+        String table = rs.getString(3);
+        String name = rs.getString(4);
+        String detail = rs.getString(5);
+        String column = rs.getString(6);
+        int position = rs.getInt(7);
+        switch (rs.getString(1)) {
+            case "T" -> builder.table(table);
+            case "C" -> builder.column(table, name, position, detail, "Y".equals(rs.getString(8)));
+            case "I" -> builder.indexColumn(table, name, "U".equals(detail), column, position);
+            case "K" -> builder.constraintColumn(table, name, ConstraintType.fromCode(detail), column, position, rs.getString(9));
+            default -> throw new IllegalStateException("Unexpected catalog row kind: " + rs.getString(1));
+        }
+    }
+
+    /**
+     * Returns the catalog query for {@code schemaCount} schema names.
+     */
+    String sql(int schemaCount) {
+        return switch (dialect) {
+            case POSTGRESQL -> POSTGRESQL_SQL;
+            case MYSQL -> MYSQL_SQL.formatted(placeholders(schemaCount));
+            case ORACLE -> ORACLE_SQL.formatted(placeholders(schemaCount));
+        };
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,272 @@
+package com.openshop.database.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Immutable model of the tables, columns, indexes and constraints of one schema.
+ *
+ * <p>Identifiers are normalized to uppercase so snapshots of the three dialects compare with
+ * each other and with the uppercase names used by the schema tests. Maps are sorted by name,
+ * index and constraint column lists are in key order.</p>
+ *
+ * @param schema schema (MySQL database, Oracle owner) the snapshot was taken from
+ * @param tables tables by uppercase name
+ */
+public record CatalogSnapshot(String schema, SortedMap<String, Table> tables) {
+
+    public CatalogSnapshot {
+        tables = Collections.unmodifiableSortedMap(new TreeMap<>(tables));
+    }
+
+    /**
+     * One table with its columns, indexes and constraints, each keyed by uppercase name.
+     */
+    public record Table(
+            String name,
+            SortedMap<String, Column> columns,
+            SortedMap<String, Index> indexes,
+            SortedMap<String, Constraint> constraints) {
+
+        public Table {
+            columns = Collections.unmodifiableSortedMap(new TreeMap<>(columns));
+            indexes = Collections.unmodifiableSortedMap(new TreeMap<>(indexes));
+            constraints = Collections.unmodifiableSortedMap(new TreeMap<>(constraints));
+        }
+
+        public Column column(String name) {
+            return columns.get(normalize(name));
+        }
+
+        public Index index(String name) {
+            return indexes.get(normalize(name));
+        }
+
+        public Constraint constraint(String name) {
+            return constraints.get(normalize(name));
+        }
+    }
+
+    /**
+     * A column; {@code dataType} is the dialect's own spelling, e.g. {@code character varying(255)},
+     * {@code varchar(255)} or {@code VARCHAR2(255)}, and {@code null} when not known.
+     */
+    public record Column(String name, int position, String dataType, boolean nullable) {
+    }
+
+    /**
+     * An index; expression index keys have no column name and appear as {@code null}.
+     */
+    public record Index(String name, boolean unique, List<String> columns) {
+
+        public Index {
+            columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        }
+    }
+
+    /**
+     * A primary key, unique, foreign key or check constraint. {@code referencedTable} is only
+     * set for foreign keys.
+     */
+    public record Constraint(String name, ConstraintType type, List<String> columns, String referencedTable) {
+
+        public Constraint {
+            columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        }
+    }
+
+    public enum ConstraintType {
+        PRIMARY_KEY, UNIQUE, FOREIGN_KEY, CHECK;
+
+        /**
+         * Resolves the one-letter code the catalog queries return: P, U, F or C.
+         */
+        static ConstraintType fromCode(String code) {
+            return switch (code) {
+                case "P" -> PRIMARY_KEY;
+                case "U" -> UNIQUE;
+                case "F" -> FOREIGN_KEY;
+                case "C" -> CHECK;
+                default -> throw new IllegalArgumentException("Unknown constraint type: " + code);
+            };
+        }
+    }
+
+    public Table table(String name) {
+        return tables.get(normalize(name));
+    }
+
+    /**
+     * Returns a copy that keeps only the indexes matching {@code filter}, e.g. the explicit
+     * {@code IDX_} indexes without the ones backing constraints.
+     */
+    public CatalogSnapshot withIndexes(Predicate<Index> filter) {
+        SortedMap<String, Table> filtered = new TreeMap<>();
+        for (Table table : tables.values()) {
+            SortedMap<String, Index> indexes = new TreeMap<>();
+            table.indexes().forEach((name, index) -> {
+                if (filter.test(index)) {
+                    indexes.put(name, index);
+                }
+            });
+            filtered.put(table.name(), new Table(table.name(), table.columns(), indexes, table.constraints()));
+        }
+        return new CatalogSnapshot(schema, filtered);
+    }
+
+    /**
+     * Returns a copy that keeps only the constraints matching {@code filter}.
+     */
+    public CatalogSnapshot withConstraints(Predicate<Constraint> filter) {
+        SortedMap<String, Table> filtered = new TreeMap<>();
+        for (Table table : tables.values()) {
+            SortedMap<String, Constraint> constraints = new TreeMap<>();
+            table.constraints().forEach((name, constraint) -> {
+                if (filter.test(constraint)) {
+                    constraints.put(name, constraint);
+                }
+            });
+            filtered.put(table.name(), new Table(table.name(), table.columns(), table.indexes(), constraints));
+        }
+        return new CatalogSnapshot(schema, filtered);
+    }
+
+    public static Builder builder(String schema) {
+        return new Builder(schema);
+    }
+
+    static String normalize(String identifier) {
+        return identifier == null ? null : identifier.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Collects catalog rows in any order, e.g. straight from a result set, and assembles the
+     * snapshot. Also used to declare an expected model for {@link CatalogDiff}.
+     */
+    public static final class Builder {
+
+        private final String schema;
+        private final Map<String, TableParts> tables = new TreeMap<>();
+
+        private Builder(String schema) {
+            this.schema = schema;
+        }
+
+        public Builder table(String table) {
+            parts(table);
+            return this;
+        }
+
+        public Builder column(String table, String column) {
+            return column(table, column, 0, null, true);
+        }
+
+        public Builder column(String table, String column, int position, String dataType, boolean nullable) {
+            String name = normalize(column);
+            parts(table).columns.put(name, new Column(name, position, dataType, nullable));
+            return this;
+        }
+
+        public Builder index(String table, String index) {
+            parts(table).index(normalize(index), false);
+            return this;
+        }
+
+        /**
+         * Adds one key column of an index; {@code column} is {@code null} for an expression key.
+         */
+        public Builder indexColumn(String table, String index, boolean unique, String column, int position) {
+            parts(table).index(normalize(index), unique).add(new KeyPart(position, normalize(column)));
+            return this;
+        }
+
+        public Builder constraint(String table, String constraint, ConstraintType type) {
+            parts(table).constraint(normalize(constraint), type, null);
+            return this;
+        }
+
+        /**
+         * Adds one column of a constraint; {@code column} is {@code null} for a check constraint
+         * whose columns the dictionary does not list.
+         */
+        public Builder constraintColumn(String table, String constraint, ConstraintType type,
+                                        String column, int position, String referencedTable) {
+            List<KeyPart> keyParts = parts(table).constraint(normalize(constraint), type, normalize(referencedTable));
+            if (column != null) {
+                keyParts.add(new KeyPart(position, normalize(column)));
+            }
+            return this;
+        }
+
+        public CatalogSnapshot build() {
+            SortedMap<String, Table> built = new TreeMap<>();
+            for (TableParts parts : tables.values()) {
+                SortedMap<String, Index> indexes = new TreeMap<>();
+                parts.indexes.forEach((name, keys) ->
+                        indexes.put(name, new Index(name, parts.uniqueIndexes.contains(name), columns(keys))));
+                SortedMap<String, Constraint> constraints = new TreeMap<>();
+                parts.constraints.forEach((name, keys) ->
+                        constraints.put(name, new Constraint(name, parts.constraintTypes.get(name),
+                                columns(keys), parts.referencedTables.get(name))));
+                built.put(parts.name, new Table(parts.name, parts.columns, indexes, constraints));
+            }
+            return new CatalogSnapshot(schema, built);
+        }
+
+        private TableParts parts(String table) {
+            String name = normalize(table);
+            return tables.computeIfAbsent(name, TableParts::new);
+        }
+
+        private static List<String> columns(List<KeyPart> keys) {
+            keys.sort(Comparator.comparingInt(KeyPart::position));
+            List<String> columns = new ArrayList<>(keys.size());
+            for (KeyPart key : keys) {
+                columns.add(key.column());
+            }
+            return columns;
+        }
+    }
+
+    private record KeyPart(int position, String column) {
+    }
+
+    private static final class TableParts {
+
+        final String name;
+        final SortedMap<String, Column> columns = new TreeMap<>();
+        final Map<String, List<KeyPart>> indexes = new TreeMap<>();
+        final Set<String> uniqueIndexes = new HashSet<>();
+        final Map<String, List<KeyPart>> constraints = new TreeMap<>();
+        final Map<String, ConstraintType> constraintTypes = new TreeMap<>();
+        final Map<String, String> referencedTables = new TreeMap<>();
+
+        TableParts(String name) {
+            this.name = name;
+        }
+
+        List<KeyPart> index(String index, boolean unique) {
+            if (unique) {
+                uniqueIndexes.add(index);
+            }
+            return indexes.computeIfAbsent(index, k -> new ArrayList<>());
+        }
+
+        List<KeyPart> constraint(String constraint, ConstraintType type, String referencedTable) {
+            constraintTypes.put(constraint, type);
+            if (referencedTable != null) {
+                referencedTables.put(constraint, referencedTable);
+            }
+            return constraints.computeIfAbsent(constraint, k -> new ArrayList<>());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.openshop.database.category;
+
+import java.util.UUID;
+
+/**
+ * One category as placed in a {@link CategoryTree}.
+ *
+ * @param id        category id
+ * @param parentId  parent in the tree, {@code null} for a root
+ * @param name      display name
+ * @param slug      URL slug
+ * @param depth     number of ancestors, 0 for a root
+ * @param sortOrder position among its siblings
+ * @param active    whether the category is shown; inactive categories stay in the tree
+ */
+public record Category(UUID id, UUID parentId, String name, String slug, int depth, int sortOrder, boolean active) {
+}
@@ -0,0 +1,229 @@
+package com.openshop.database.category;
+
+import com.openshop.database.category.CategorySource.PathUpdate;
+import com.openshop.database.category.CategorySource.Row;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Immutable category tree laid out in arrays in depth-first order, siblings by sort order and
+ * name.
+ *
+ * <p>Every subtree is the contiguous range from its root to {@code end[root]}, so subtree and
+ * descendant lists are views over the arrays and "is within" is two comparisons. Ancestors follow
+ * {@code parent}, one array read per level.</p>
+ *
+ * <p>A category whose parent is missing becomes a root. So do the categories of a parent cycle,
+ * which the schema does not prevent; the first of them in sibling order is cut from its parent.</p>
+ */
+final class CategoryNodes {
+
+    static final CategoryNodes EMPTY = new CategoryNodes(List.of());
+
+    private static final Comparator<Row> SIBLING_ORDER = Comparator.comparingInt(Row::sortOrder)
+            .thenComparing(Row::name, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Row::id);
+
+    private final Map<UUID, Integer> positions;
+    private final UUID[] ids;
+    private final Category[] categories;
+    private final int[] parent;
+    private final int[] end;
+    private final List<UUID> idList;
+    private final List<Category> categoryList;
+
+    CategoryNodes(Collection<Row> rows) {
+        int size = rows.size();
+        positions = new HashMap<>(size * 2);
+        ids = new UUID[size];
+        categories = new Category[size];
+        parent = new int[size];
+        end = new int[size];
+
+        Map<UUID, List<Row>> children = new HashMap<>();
+        Map<UUID, Row> byId = new HashMap<>(size * 2);
+        for (Row row : rows) {
+            byId.put(row.id(), row);
+        }
+        List<Row> roots = new ArrayList<>();
+        for (Row row : rows) {
+            if (row.parentId() == null || !byId.containsKey(row.parentId())) {
+                roots.add(row);
+            } else {
+                children.computeIfAbsent(row.parentId(), key -> new ArrayList<>()).add(row);
+            }
+        }
+        roots.sort(SIBLING_ORDER);
+        children.values().forEach(siblings -> siblings.sort(SIBLING_ORDER));
+
+        int next = 0;
+        for (Row root : roots) {
+            next = place(root, next, children);
+        }
+        if (next < size) {
+            // What is left hangs off a cycle
+            List<Row> cut = new ArrayList<>();
+            for (Row row : rows) {
+                if (!positions.containsKey(row.id())) {
+                    cut.add(row);
+                }
+            }
+            cut.sort(SIBLING_ORDER);
+            for (Row row : cut) {
+                if (!positions.containsKey(row.id())) {
+                    next = place(row, next, children);
+                }
+            }
+        }
+        idList = Collections.unmodifiableList(Arrays.asList(ids));
+        categoryList = Collections.unmodifiableList(Arrays.asList(categories));
+    }
+
+    /**
+     * Places the subtree of {@code root} from position {@code next} on and returns the position
+     * after it. Iterative, so a long chain of categories cannot overflow the stack.
+     */
+    private int place(Row root, int next, Map<UUID, List<Row>> children) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(next, children(root, children)));
+        set(next++, root, -1);
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.children.hasNext()) {
+                Row child = frame.children.next();
+                if (positions.containsKey(child.id())) {
+                    continue;
+                }
+                stack.push(new Frame(next, children(child, children)));
+                set(next++, child, frame.position);
+            } else {
+                stack.pop();
+                end[frame.position] = next;
+            }
+        }
+        return next;
+    }
+
+    private void set(int position, Row row, int parentPosition) {
+        positions.put(row.id(), position);
+        ids[position] = row.id();
+        parent[position] = parentPosition;
+        int depth = parentPosition < 0 ? 0 : categories[parentPosition].depth() + 1;
+        UUID parentId = parentPosition < 0 ? null : ids[parentPosition];
+        categories[position] = new Category(row.id(), parentId, row.name(), row.slug(), depth, row.sortOrder(),
+                row.active());
+    }
+
+    private static Iterator<Row> children(Row row, Map<UUID, List<Row>> children) {
+        return children.getOrDefault(row.id(), List.of()).iterator();
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    Category category(UUID id) {
+        Integer position = positions.get(id);
+        return position == null ? null : categories[position];
+    }
+
+    List<Category> roots() {
+        List<Category> roots = new ArrayList<>();
+        for (int i = 0; i < ids.length; i = end[i]) {
+            roots.add(categories[i]);
+        }
+        return roots;
+    }
+
+    List<Category> children(UUID id) {
+        Integer position = positions.get(id);
+        if (position == null) {
+            return List.of();
+        }
+        List<Category> children = new ArrayList<>();
+        for (int i = position + 1; i < end[position]; i = end[i]) {
+            children.add(categories[i]);
+        }
+        return children;
+    }
+
+    List<Category> subtree(UUID id) {
+        Integer position = positions.get(id);
+        return position == null ? List.of() : categoryList.subList(position, end[position]);
+    }
+
+    List<UUID> subtreeIds(UUID id) {
+        Integer position = positions.get(id);
+        return position == null ? List.of() : idList.subList(position, end[position]);
+    }
+
+    List<UUID> descendantIds(UUID id) {
+        Integer position = positions.get(id);
+        return position == null ? List.of() : idList.subList(position + 1, end[position]);
+    }
+
+    List<Category> ancestors(UUID id) {
+        Integer position = positions.get(id);
+        if (position == null) {
+            return List.of();
+        }
+        List<Category> ancestors = new ArrayList<>(categories[position].depth());
+        for (int i = parent[position]; i >= 0; i = parent[i]) {
+            ancestors.add(categories[i]);
+        }
+        return ancestors;
+    }
+
+    List<Category> breadcrumb(UUID id) {
+        Integer position = positions.get(id);
+        if (position == null) {
+            return List.of();
+        }
+        Category[] trail = new Category[categories[position].depth() + 1];
+        for (int i = position, at = trail.length - 1; i >= 0; i = parent[i], at--) {
+            trail[at] = categories[i];
+        }
+        return List.of(trail);
+    }
+
+    boolean isWithin(UUID id, UUID ancestorId) {
+        Integer position = positions.get(id);
+        Integer ancestor = positions.get(ancestorId);
+        return position != null && ancestor != null && ancestor <= position && position < end[ancestor];
+    }
+
+    /**
+     * Rows whose stored path or depth differ from their place in the tree. A path longer than
+     * {@code pathLimit} is stored as NULL; the depth is still kept.
+     */
+    List<PathUpdate> pathUpdates(Map<UUID, Row> rows, int pathLimit) {
+        String[] paths = new String[ids.length];
+        List<PathUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            // Parents come first, so their path is already known
+            paths[i] = (parent[i] < 0 ? "" : paths[parent[i]]) + "/" + ids[i];
+            String path = paths[i].length() > pathLimit ? null : paths[i];
+            int depth = categories[i].depth();
+            Row stored = rows.get(ids[i]);
+            if (stored.levelDepth() != depth || !Objects.equals(stored.path(), path)) {
+                updates.add(new PathUpdate(ids[i], path, depth));
+            }
+        }
+        return updates;
+    }
+
+    private record Frame(int position, Iterator<Row> children) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.openshop.database.category;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rows of {@code categories} for {@link CategoryTree}.
+ */
+interface CategorySource {
+
+    /**
+     * Every category.
+     */
+    List<Row> categories() throws SQLException;
+
+    /**
+     * Categories whose {@code updated_at} is after {@code since}.
+     */
+    List<Row> changedSince(Instant since) throws SQLException;
+
+    /**
+     * Number of categories, to notice deletions, which leave no row to read.
+     */
+    int count() throws SQLException;
+
+    /**
+     * Writes the stored path and depth of the categories in one transaction.
+     */
+    void updatePaths(List<PathUpdate> updates) throws SQLException;
+
+    /**
+     * A category row as stored.
+     *
+     * @param levelDepth stored {@code level_depth}, -1 when NULL
+     * @param updatedAt  {@code updated_at}, {@code null} when NULL
+     */
+    record Row(UUID id, UUID parentId, String name, String slug, int sortOrder, boolean active, String path,
+               int levelDepth, Instant updatedAt) {
+
+        Row withPath(String path, int levelDepth) {
+            return new Row(id, parentId, name, slug, sortOrder, active, path, levelDepth, updatedAt);
+        }
+    }
+
+    /**
+     * Materialized path and depth to store for a category.
+     */
+    record PathUpdate(UUID id, String path, int levelDepth) {
+    }
+}
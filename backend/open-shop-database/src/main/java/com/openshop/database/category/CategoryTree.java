@@ -0,0 +1,228 @@
+package com.openshop.database.category;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.category.CategorySource.PathUpdate;
+import com.openshop.database.category.CategorySource.Row;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In-memory copy of the {@code categories} hierarchy for navigation menus, breadcrumbs and
+ * "products of this category and below" listings, replacing recursive {@code parent_id} walks.
+ *
+ * <p>{@link #rebuild} loads every category into an array-based tree ({@link CategoryNodes}) laid
+ * out depth-first, so a subtree is a contiguous range: descendant ids come back as a view without
+ * copying, ancestors and breadcrumbs cost one array read per level. Lookups read an immutable
+ * snapshot and take no lock.</p>
+ *
+ * <p>{@link #refresh} reads the categories whose {@code updated_at} moved past the newest one
+ * seen, minus {@link #LATE_COMMIT_WINDOW} for transactions that commit after a later one, and
+ * swaps in a new snapshot if any of them changed. Deletions are noticed by the row count and
+ * reload everything.</p>
+ *
+ * <p>With {@code maintainPaths}, every rebuild or refresh that changes the tree also rewrites the
+ * {@code path} ({@code /root-id/.../id}) and {@code level_depth} columns of the categories whose
+ * stored values no longer match, including the whole subtree of a moved category. Enable it on
+ * one node only; the writes are idempotent but would be repeated by every node.</p>
+ */
+public final class CategoryTree implements AutoCloseable {
+
+    /**
+     * How far behind the newest {@code updated_at} seen a refresh reads again.
+     */
+    static final Duration LATE_COMMIT_WINDOW = Duration.ofMinutes(1);
+
+    // Length of the path column
+    static final int PATH_LIMIT = 1000;
+
+    private final CategorySource source;
+    private final boolean maintainPaths;
+    private volatile CategoryNodes nodes = CategoryNodes.EMPTY;
+    private Map<UUID, Row> rows;
+    private Instant watermark;
+    private boolean pathsStale;
+    private Poller worker;
+
+    public CategoryTree(DataSource dataSource, Dialect dialect) {
+        this(dataSource, dialect, false);
+    }
+
+    public CategoryTree(DataSource dataSource, Dialect dialect, boolean maintainPaths) {
+        this(new JdbcCategorySource(dataSource, dialect), maintainPaths);
+    }
+
+    CategoryTree(CategorySource source, boolean maintainPaths) {
+        this.source = source;
+        this.maintainPaths = maintainPaths;
+    }
+
+    /**
+     * Number of categories. All lookups answer nothing until the first {@link #rebuild}.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    public Optional<Category> category(UUID id) {
+        return Optional.ofNullable(nodes.category(id));
+    }
+
+    /**
+     * Top-level categories in sibling order.
+     */
+    public List<Category> roots() {
+        return nodes.roots();
+    }
+
+    /**
+     * Direct children in sibling order.
+     */
+    public List<Category> children(UUID id) {
+        return nodes.children(id);
+    }
+
+    /**
+     * The category and all its descendants, depth-first in sibling order.
+     */
+    public List<Category> subtree(UUID id) {
+        return nodes.subtree(id);
+    }
+
+    /**
+     * Ids of the category and all its descendants, as product listings filter on them.
+     */
+    public List<UUID> subtreeIds(UUID id) {
+        return nodes.subtreeIds(id);
+    }
+
+    /**
+     * Ids of all descendants, without the category itself.
+     */
+    public List<UUID> descendantIds(UUID id) {
+        return nodes.descendantIds(id);
+    }
+
+    /**
+     * Ancestors from the parent up to the root.
+     */
+    public List<Category> ancestors(UUID id) {
+        return nodes.ancestors(id);
+    }
+
+    /**
+     * The root down to the category itself.
+     */
+    public List<Category> breadcrumb(UUID id) {
+        return nodes.breadcrumb(id);
+    }
+
+    /**
+     * Whether {@code id} is {@code ancestorId} or one of its descendants.
+     */
+    public boolean isWithin(UUID id, UUID ancestorId) {
+        return nodes.isWithin(id, ancestorId);
+    }
+
+    /**
+     * Loads all categories and swaps in the new tree.
+     */
+    public synchronized void rebuild() throws SQLException {
+        Map<UUID, Row> loaded = new HashMap<>();
+        Instant newest = Instant.EPOCH;
+        for (Row row : source.categories()) {
+            loaded.put(row.id(), row);
+            newest = newer(newest, row.updatedAt());
+        }
+        rows = loaded;
+        watermark = newest;
+        swap();
+    }
+
+    /**
+     * Applies the categories changed since the last refresh and returns how many differ from
+     * the copy. Rebuilds instead when the tree was never built or categories were deleted.
+     */
+    public synchronized int refresh() throws SQLException {
+        if (rows == null) {
+            rebuild();
+            return 0;
+        }
+        // Both reads come first, so a failed round leaves the copy as it was
+        List<Row> read = source.changedSince(watermark.minus(LATE_COMMIT_WINDOW));
+        int count = source.count();
+        int changed = 0;
+        for (Row row : read) {
+            if (!row.equals(rows.put(row.id(), row))) {
+                changed++;
+            }
+            watermark = newer(watermark, row.updatedAt());
+        }
+        if (count != rows.size()) {
+            rebuild();
+            return changed;
+        }
+        if (changed > 0 || pathsStale) {
+            swap();
+        }
+        return changed;
+    }
+
+    /**
+     * Refreshes on a daemon thread every {@code pollInterval}, building the tree first if
+     * {@link #rebuild} was not called; a failed round is retried in the next one.
+     *
+     * @return the poller, which reports failed rounds
+     */
+    public synchronized Poller start(Duration pollInterval) {
+        if (worker != null) {
+            throw new IllegalStateException("Category tree is already started");
+        }
+        worker = Poller.every("category-tree", pollInterval, this::refresh);
+        return worker;
+    }
+
+    /**
+     * Stops the background thread after its current round. The tree stays usable.
+     */
+    @Override
+    public void close() {
+        Poller stopping;
+        synchronized (this) {
+            stopping = worker;
+            worker = null;
+        }
+        if (stopping != null) {
+            stopping.close();
+        }
+    }
+
+    private void swap() throws SQLException {
+        CategoryNodes built = new CategoryNodes(rows.values());
+        nodes = built;
+        if (!maintainPaths) {
+            return;
+        }
+        List<PathUpdate> updates = built.pathUpdates(rows, PATH_LIMIT);
+        pathsStale = true;
+        source.updatePaths(updates);
+        pathsStale = false;
+        // Keep the written values so the next change does not write them again before the
+        // rows come back with their new updated_at
+        for (PathUpdate update : updates) {
+            rows.computeIfPresent(update.id(), (id, row) -> row.withPath(update.path(), update.levelDepth()));
+        }
+    }
+
+    private static Instant newer(Instant current, Instant candidate) {
+        return candidate != null && candidate.isAfter(current) ? candidate : current;
+    }
+}
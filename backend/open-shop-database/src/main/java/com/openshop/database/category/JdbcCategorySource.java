@@ -0,0 +1,102 @@
+package com.openshop.database.category;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link CategorySource} over the {@code categories} table.
+ */
+final class JdbcCategorySource implements CategorySource {
+
+    private static final String SELECT_SQL = """
+            SELECT id, parent_id, name, slug, sort_order, is_active, path, level_depth, updated_at
+            FROM categories""";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM categories";
+
+    private static final String UPDATE_PATH_SQL = "UPDATE categories SET path = ?, level_depth = ? WHERE id = ?";
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcCategorySource(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public List<Row> categories() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(SELECT_SQL)) {
+            return read(stmt);
+        }
+    }
+
+    @Override
+    public List<Row> changedSince(Instant since) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(SELECT_SQL + " WHERE updated_at > ?")) {
+            stmt.setTimestamp(1, Timestamp.from(since));
+            return read(stmt);
+        }
+    }
+
+    @Override
+    public int count() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(COUNT_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Override
+    public void updatePaths(List<PathUpdate> updates) throws SQLException {
+        if (updates.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(UPDATE_PATH_SQL)) {
+                for (PathUpdate update : updates) {
+                    stmt.setString(1, update.path());
+                    stmt.setInt(2, update.levelDepth());
+                    dialect.bindUuid(stmt, 3, update.id());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private List<Row> read(PreparedStatement stmt) throws SQLException {
+        List<Row> rows = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                int levelDepth = rs.getInt(8);
+                if (rs.wasNull()) {
+                    levelDepth = -1;
+                }
+                Timestamp updatedAt = rs.getTimestamp(9);
+                rows.add(new Row(dialect.readUuid(rs, 1), dialect.readUuid(rs, 2), rs.getString(3), rs.getString(4),
+                        rs.getInt(5), rs.getBoolean(6), rs.getString(7), levelDepth,
+                        updatedAt == null ? null : updatedAt.toInstant()));
+            }
+        }
+        return rows;
+    }
+}
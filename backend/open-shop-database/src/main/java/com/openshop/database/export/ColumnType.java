@@ -0,0 +1,59 @@
+package com.openshop.database.export;
+
+/**
+ * Types of exported columns and the Parquet physical and converted types they are written as.
+ * Values are handed to {@link ParquetFileWriter} as the Java type noted on each constant.
+ */
+enum ColumnType {
+
+    /**
+     * {@link java.util.UUID}, written in its text form so every reader shows it the same way.
+     */
+    UUID(ParquetFileWriter.BYTE_ARRAY, ParquetFileWriter.UTF8),
+
+    /**
+     * {@link String}.
+     */
+    STRING(ParquetFileWriter.BYTE_ARRAY, ParquetFileWriter.UTF8),
+
+    /**
+     * {@link Integer}.
+     */
+    INT32(ParquetFileWriter.INT32, ParquetFileWriter.NONE),
+
+    /**
+     * {@link java.math.BigDecimal}, written as its unscaled value at the column's scale.
+     */
+    DECIMAL(ParquetFileWriter.INT64, ParquetFileWriter.DECIMAL),
+
+    /**
+     * {@link Boolean}.
+     */
+    BOOLEAN(ParquetFileWriter.BOOLEAN, ParquetFileWriter.NONE),
+
+    /**
+     * {@link java.time.Instant}, written as microseconds since the epoch, UTC.
+     */
+    TIMESTAMP(ParquetFileWriter.INT64, ParquetFileWriter.TIMESTAMP_MICROS),
+
+    /**
+     * {@link java.time.LocalDate}, written as days since the epoch.
+     */
+    DATE(ParquetFileWriter.INT32, ParquetFileWriter.DATE);
+
+    private final int physicalType;
+    private final int convertedType;
+
+    ColumnType(int physicalType, int convertedType) {
+        this.physicalType = physicalType;
+        this.convertedType = convertedType;
+    }
+
+    int physicalType() {
+        return physicalType;
+    }
+
+    int convertedType() {
+        return convertedType;
+    }
+}
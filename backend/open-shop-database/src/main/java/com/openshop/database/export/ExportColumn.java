@@ -0,0 +1,16 @@
+package com.openshop.database.export;
+
+/**
+ * One column of an {@link ExportTable}: its name in the files, the select expression it is read
+ * from and its type. Precision and scale apply to {@link ColumnType#DECIMAL} only.
+ */
+record ExportColumn(String name, String expression, ColumnType type, int precision, int scale) {
+
+    static ExportColumn of(String name, ColumnType type) {
+        return new ExportColumn(name, "t." + name, type, 0, 0);
+    }
+
+    static ExportColumn decimal(String name, int precision, int scale) {
+        return new ExportColumn(name, "t." + name, ColumnType.DECIMAL, precision, scale);
+    }
+}
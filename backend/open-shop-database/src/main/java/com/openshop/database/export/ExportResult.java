@@ -0,0 +1,16 @@
+package com.openshop.database.export;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * What one {@link OrderExporter} run extracted from a table.
+ *
+ * @param from  watermark the run started from, exclusive; {@link Instant#EPOCH} on the first run
+ * @param to    watermark the run reached, inclusive, and the next run starts from
+ * @param rows  rows written
+ * @param files files written, one per day with changes
+ */
+public record ExportResult(ExportTable table, Instant from, Instant to, long rows, List<Path> files) {
+}
@@ -0,0 +1,23 @@
+package com.openshop.database.export;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Instant;
+
+/**
+ * Reads the rows to export, separated from {@link OrderExporter} so partitioning and watermarks
+ * can be exercised without a database.
+ */
+interface ExportSource {
+
+    /**
+     * Streams the rows of the table whose watermark column is within {@code (from, to]}, in
+     * watermark order, one value per {@link ExportTable#columns column}. The array handed to the
+     * sink may be reused for the next row.
+     */
+    void stream(ExportTable table, Instant from, Instant to, RowSink sink) throws SQLException, IOException;
+
+    interface RowSink {
+        void accept(Object[] row) throws IOException;
+    }
+}
@@ -0,0 +1,149 @@
+package com.openshop.database.export;
+
+import java.util.List;
+
+import static com.openshop.database.export.ColumnType.BOOLEAN;
+import static com.openshop.database.export.ColumnType.DATE;
+import static com.openshop.database.export.ColumnType.INT32;
+import static com.openshop.database.export.ColumnType.STRING;
+import static com.openshop.database.export.ColumnType.TIMESTAMP;
+import static com.openshop.database.export.ColumnType.UUID;
+
+/**
+ * Tables {@link OrderExporter} extracts, with the columns written for each. Rows are selected by
+ * the watermark column, read in its order and partitioned by its UTC day. Free-text and
+ * provider-specific columns (notes, tracking numbers, recipients, provider metadata) are not
+ * exported.
+ */
+public enum ExportTable {
+
+    ORDERS("orders", "orders t", "t.updated_at", "t.id", List.of(
+            ExportColumn.of("id", UUID),
+            ExportColumn.of("order_number", STRING),
+            ExportColumn.of("customer_id", UUID),
+            ExportColumn.of("status", STRING),
+            ExportColumn.decimal("subtotal", 12, 2),
+            ExportColumn.decimal("discount_total", 12, 2),
+            ExportColumn.decimal("tax_total", 12, 2),
+            ExportColumn.decimal("shipping_cost", 12, 2),
+            ExportColumn.decimal("total_amount", 12, 2),
+            ExportColumn.of("currency", STRING),
+            ExportColumn.of("coupon_code", STRING),
+            ExportColumn.decimal("coupon_discount_amount", 12, 2),
+            ExportColumn.of("requires_shipping", BOOLEAN),
+            ExportColumn.decimal("weight_total", 8, 3),
+            ExportColumn.of("created_at", TIMESTAMP),
+            ExportColumn.of("updated_at", TIMESTAMP),
+            ExportColumn.of("confirmed_at", TIMESTAMP),
+            ExportColumn.of("shipped_at", TIMESTAMP),
+            ExportColumn.of("delivered_at", TIMESTAMP),
+            ExportColumn.of("cancelled_at", TIMESTAMP))),
+
+    /**
+     * Items have no {@code updated_at}; they are exported with their order whenever the order
+     * changes, partitioned by the order's {@code updated_at}.
+     */
+    ORDER_ITEMS("order_items", "order_items t JOIN orders o ON o.id = t.order_id", "o.updated_at", "o.id, t.id",
+            List.of(
+                    ExportColumn.of("id", UUID),
+                    ExportColumn.of("order_id", UUID),
+                    ExportColumn.of("product_id", UUID),
+                    ExportColumn.of("variant_id", UUID),
+                    ExportColumn.of("quantity", INT32),
+                    ExportColumn.decimal("unit_price", 12, 2),
+                    ExportColumn.decimal("line_total", 12, 2),
+                    ExportColumn.decimal("cost_price", 12, 2),
+                    ExportColumn.of("product_name", STRING),
+                    ExportColumn.of("variant_sku", STRING),
+                    ExportColumn.of("fulfillment_status", STRING),
+                    ExportColumn.of("shipped_quantity", INT32),
+                    new ExportColumn("order_updated_at", "o.updated_at", TIMESTAMP, 0, 0))),
+
+    ORDER_PAYMENTS("order_payments", "order_payments t", "t.updated_at", "t.id", List.of(
+            ExportColumn.of("id", UUID),
+            ExportColumn.of("order_id", UUID),
+            ExportColumn.of("payment_provider", STRING),
+            ExportColumn.of("payment_method", STRING),
+            ExportColumn.decimal("amount", 12, 2),
+            ExportColumn.of("currency", STRING),
+            ExportColumn.of("status", STRING),
+            ExportColumn.of("failure_code", STRING),
+            ExportColumn.of("authorized_at", TIMESTAMP),
+            ExportColumn.of("captured_at", TIMESTAMP),
+            ExportColumn.of("failed_at", TIMESTAMP),
+            ExportColumn.of("refunded_at", TIMESTAMP),
+            ExportColumn.of("created_at", TIMESTAMP),
+            ExportColumn.of("updated_at", TIMESTAMP))),
+
+    ORDER_SHIPMENTS("order_shipments", "order_shipments t", "t.updated_at", "t.id", List.of(
+            ExportColumn.of("id", UUID),
+            ExportColumn.of("order_id", UUID),
+            ExportColumn.of("carrier", STRING),
+            ExportColumn.of("service_level", STRING),
+            ExportColumn.of("status", STRING),
+            ExportColumn.decimal("weight_grams", 8, 3),
+            ExportColumn.decimal("shipping_cost", 12, 2),
+            ExportColumn.decimal("insurance_cost", 12, 2),
+            ExportColumn.decimal("handling_fee", 12, 2),
+            ExportColumn.of("estimated_delivery_date", DATE),
+            ExportColumn.of("actual_delivery_date", DATE),
+            ExportColumn.of("delivery_signature_required", BOOLEAN),
+            ExportColumn.of("created_at", TIMESTAMP),
+            ExportColumn.of("updated_at", TIMESTAMP),
+            ExportColumn.of("shipped_at", TIMESTAMP),
+            ExportColumn.of("delivered_at", TIMESTAMP)));
+
+    private final String tableName;
+    private final String from;
+    private final String watermarkColumn;
+    private final String orderKey;
+    private final List<ExportColumn> columns;
+    private final int watermarkIndex;
+
+    ExportTable(String tableName, String from, String watermarkColumn, String orderKey, List<ExportColumn> columns) {
+        this.tableName = tableName;
+        this.from = from;
+        this.watermarkColumn = watermarkColumn;
+        this.orderKey = orderKey;
+        this.columns = columns;
+        int index = -1;
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).expression().equals(watermarkColumn)) {
+                index = i;
+            }
+        }
+        this.watermarkIndex = index;
+    }
+
+    /**
+     * Name of the table, also the directory its files are written to.
+     */
+    public String tableName() {
+        return tableName;
+    }
+
+    List<ExportColumn> columns() {
+        return columns;
+    }
+
+    /**
+     * Position of the watermark column among {@link #columns}.
+     */
+    int watermarkIndex() {
+        return watermarkIndex;
+    }
+
+    /**
+     * The rows changed within {@code (?, ?]}, in the order of the {@code (updated_at, id)} index.
+     */
+    String selectSql() {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(columns.get(i).expression());
+        }
+        return sql.append(" FROM ").append(from)
+                .append(" WHERE ").append(watermarkColumn).append(" > ? AND ").append(watermarkColumn).append(" <= ?")
+                .append(" ORDER BY ").append(watermarkColumn).append(", ").append(orderKey)
+                .toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.openshop.database.export;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * {@link ExportSource} reading with a server-side cursor, so a table of any size streams through
+ * a fixed number of rows in memory. PostgreSQL only uses a cursor for a positive fetch size
+ * outside auto-commit; MySQL Connector/J streams row by row only with a fetch size of
+ * {@link Integer#MIN_VALUE}; Oracle always fetches in batches of the fetch size. The read runs
+ * in one read-only transaction, which also gives it a consistent snapshot.
+ */
+final class JdbcExportSource implements ExportSource {
+
+    private static final int FETCH_SIZE = 5_000;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcExportSource(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public void stream(ExportTable table, Instant from, Instant to, RowSink sink) throws SQLException, IOException {
+        List<ExportColumn> columns = table.columns();
+        Object[] row = new Object[columns.size()];
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement stmt = connection.prepareStatement(table.selectSql(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(dialect.fetchSize(FETCH_SIZE, true));
+                stmt.setTimestamp(1, Timestamp.from(from));
+                stmt.setTimestamp(2, Timestamp.from(to));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = read(rs, i + 1, columns.get(i).type());
+                        }
+                        sink.accept(row);
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    private Object read(ResultSet rs, int index, ColumnType type) throws SQLException {
+        return switch (type) {
+            case UUID -> dialect.readUuid(rs, index);
+            case STRING -> rs.getString(index);
+            case INT32 -> {
+                int value = rs.getInt(index);
+                yield rs.wasNull() ? null : value;
+            }
+            case DECIMAL -> rs.getBigDecimal(index);
+            case BOOLEAN -> {
+                boolean value = rs.getBoolean(index);
+                yield rs.wasNull() ? null : value;
+            }
+            case TIMESTAMP -> {
+                Timestamp value = rs.getTimestamp(index);
+                yield value == null ? null : value.toInstant();
+            }
+            case DATE -> {
+                Date value = rs.getDate(index);
+                yield value == null ? null : value.toLocalDate();
+            }
+        };
+    }
+}
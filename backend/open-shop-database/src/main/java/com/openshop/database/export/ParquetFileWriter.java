@@ -0,0 +1,321 @@
+package com.openshop.database.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one Parquet file, row by row, holding at most one row group in memory.
+ *
+ * <p>Every column is optional and written as a single GZIP-compressed v1 data page per row
+ * group, values in PLAIN encoding and definition levels in RLE, which every Parquet reader
+ * understands. Dictionary encoding and statistics are left out; GZIP recovers most of what a
+ * dictionary would save on status and currency columns.</p>
+ */
+final class ParquetFileWriter implements Closeable {
+
+    // Physical types
+    static final int BOOLEAN = 0;
+    static final int INT32 = 1;
+    static final int INT64 = 2;
+    static final int BYTE_ARRAY = 6;
+
+    // Converted types; NONE is not written
+    static final int NONE = -1;
+    static final int UTF8 = 0;
+    static final int DECIMAL = 5;
+    static final int DATE = 6;
+    static final int TIMESTAMP_MICROS = 10;
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final int OPTIONAL = 1;
+    private static final int DATA_PAGE = 0;
+    private static final int PLAIN = 0;
+    private static final int RLE = 3;
+    private static final int GZIP = 2;
+
+    private final OutputStream out;
+    private final List<ExportColumn> columns;
+    private final int rowGroupRows;
+    private final long rowGroupBytes;
+    private final ColumnBuffer[] buffers;
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+    private long position;
+    private long rows;
+    private int bufferedRows;
+
+    ParquetFileWriter(OutputStream out, List<ExportColumn> columns, int rowGroupRows, long rowGroupBytes)
+            throws IOException {
+        this.out = out;
+        this.columns = List.copyOf(columns);
+        this.rowGroupRows = rowGroupRows;
+        this.rowGroupBytes = rowGroupBytes;
+        this.buffers = new ColumnBuffer[columns.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new ColumnBuffer(columns.get(i));
+        }
+        write(MAGIC);
+    }
+
+    /**
+     * Appends a row, one value per column in column order, {@code null} for SQL NULL.
+     */
+    void write(Object[] row) throws IOException {
+        long buffered = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i].add(row[i]);
+            buffered += buffers[i].values.size();
+        }
+        rows++;
+        if (++bufferedRows >= rowGroupRows || buffered >= rowGroupBytes) {
+            flushRowGroup();
+        }
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    /**
+     * Writes the last row group and the footer; the stream is left open.
+     */
+    @Override
+    public void close() throws IOException {
+        flushRowGroup();
+        byte[] footer = footer();
+        write(footer);
+        write(new byte[]{(byte) footer.length, (byte) (footer.length >>> 8), (byte) (footer.length >>> 16),
+                (byte) (footer.length >>> 24)});
+        write(MAGIC);
+        out.flush();
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        List<ColumnChunk> chunks = new ArrayList<>(buffers.length);
+        long totalBytes = 0;
+        for (ColumnBuffer buffer : buffers) {
+            byte[] page = buffer.page();
+            byte[] compressed = gzip(page);
+            byte[] header = new ThriftCompactWriter()
+                    .i32(1, DATA_PAGE)
+                    .i32(2, page.length)
+                    .i32(3, compressed.length)
+                    .beginStruct(5)
+                    .i32(1, buffer.count)
+                    .i32(2, PLAIN)
+                    .i32(3, RLE)
+                    .i32(4, RLE)
+                    .endStruct()
+                    .finish();
+            long offset = position;
+            write(header);
+            write(compressed);
+            chunks.add(new ColumnChunk(offset, buffer.count, header.length + page.length,
+                    header.length + compressed.length));
+            totalBytes += header.length + page.length;
+            buffer.reset();
+        }
+        rowGroups.add(new RowGroup(chunks, totalBytes, bufferedRows));
+        bufferedRows = 0;
+    }
+
+    private byte[] footer() {
+        ThriftCompactWriter metadata = new ThriftCompactWriter()
+                .i32(1, 1)
+                .beginList(2, ThriftCompactWriter.STRUCT, columns.size() + 1)
+                .beginStructElement()
+                .string(4, "schema")
+                .i32(5, columns.size())
+                .endStruct();
+        for (ExportColumn column : columns) {
+            ColumnType type = column.type();
+            metadata.beginStructElement()
+                    .i32(1, type.physicalType())
+                    .i32(3, OPTIONAL)
+                    .string(4, column.name());
+            if (type.convertedType() != NONE) {
+                metadata.i32(6, type.convertedType());
+            }
+            if (type == ColumnType.DECIMAL) {
+                metadata.i32(7, column.scale()).i32(8, column.precision());
+            }
+            metadata.endStruct();
+        }
+        metadata.i64(3, rows)
+                .beginList(4, ThriftCompactWriter.STRUCT, rowGroups.size());
+        for (RowGroup rowGroup : rowGroups) {
+            metadata.beginStructElement()
+                    .beginList(1, ThriftCompactWriter.STRUCT, columns.size());
+            for (int i = 0; i < columns.size(); i++) {
+                ColumnChunk chunk = rowGroup.chunks().get(i);
+                metadata.beginStructElement()
+                        .i64(2, chunk.offset())
+                        .beginStruct(3)
+                        .i32(1, columns.get(i).type().physicalType())
+                        .beginList(2, ThriftCompactWriter.I32, 2).i32Element(PLAIN).i32Element(RLE)
+                        .beginList(3, ThriftCompactWriter.BINARY, 1).stringElement(columns.get(i).name())
+                        .i32(4, GZIP)
+                        .i64(5, chunk.values())
+                        .i64(6, chunk.uncompressedSize())
+                        .i64(7, chunk.compressedSize())
+                        .i64(9, chunk.offset())
+                        .endStruct()
+                        .endStruct();
+            }
+            metadata.i64(2, rowGroup.totalBytes())
+                    .i64(3, rowGroup.rows())
+                    .endStruct();
+        }
+        return metadata.string(6, "open-shop-database").finish();
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    private static byte[] gzip(byte[] page) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(page.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(page);
+        }
+        return compressed.toByteArray();
+    }
+
+    private record ColumnChunk(long offset, int values, long uncompressedSize, long compressedSize) {
+    }
+
+    private record RowGroup(List<ColumnChunk> chunks, long totalBytes, int rows) {
+    }
+
+    /**
+     * Definition levels and PLAIN-encoded values of one column in the open row group.
+     */
+    private static final class ColumnBuffer {
+
+        final ExportColumn column;
+        final ByteArrayOutputStream values = new ByteArrayOutputStream();
+        final BitSet defined = new BitSet();
+        int count;
+        // Booleans are bit-packed, least significant bit first
+        int bits;
+        int bitCount;
+
+        ColumnBuffer(ExportColumn column) {
+            this.column = column;
+        }
+
+        void add(Object value) {
+            if (value != null) {
+                defined.set(count);
+                encode(value);
+            }
+            count++;
+        }
+
+        private void encode(Object value) {
+            switch (column.type()) {
+                case UUID, STRING -> {
+                    byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                    int32(bytes.length);
+                    values.writeBytes(bytes);
+                }
+                case INT32 -> int32((Integer) value);
+                case DECIMAL -> int64(((BigDecimal) value).setScale(column.scale(), RoundingMode.HALF_UP)
+                        .unscaledValue().longValueExact());
+                case BOOLEAN -> {
+                    if ((Boolean) value) {
+                        bits |= 1 << bitCount;
+                    }
+                    if (++bitCount == 8) {
+                        values.write(bits);
+                        bits = 0;
+                        bitCount = 0;
+                    }
+                }
+                case TIMESTAMP -> {
+                    Instant instant = (Instant) value;
+                    int64(Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L),
+                            instant.getNano() / 1_000));
+                }
+                case DATE -> int32(Math.toIntExact(((LocalDate) value).toEpochDay()));
+            }
+        }
+
+        /**
+         * Definition levels prefixed by their length, then the values.
+         */
+        byte[] page() {
+            if (bitCount > 0) {
+                values.write(bits);
+                bits = 0;
+                bitCount = 0;
+            }
+            byte[] levels = definitionLevels();
+            ByteArrayOutputStream page = new ByteArrayOutputStream(4 + levels.length + values.size());
+            page.write(levels.length);
+            page.write(levels.length >>> 8);
+            page.write(levels.length >>> 16);
+            page.write(levels.length >>> 24);
+            page.writeBytes(levels);
+            page.writeBytes(values.toByteArray());
+            return page.toByteArray();
+        }
+
+        /**
+         * RLE runs of bit width 1: a varint header of the run length shifted left once, then
+         * the level in one byte.
+         */
+        private byte[] definitionLevels() {
+            ByteArrayOutputStream levels = new ByteArrayOutputStream();
+            int start = 0;
+            while (start < count) {
+                boolean level = defined.get(start);
+                int end = level ? defined.nextClearBit(start) : defined.nextSetBit(start);
+                if (end < 0 || end > count) {
+                    end = count;
+                }
+                long header = (long) (end - start) << 1;
+                while ((header & ~0x7FL) != 0) {
+                    levels.write((int) (header & 0x7F | 0x80));
+                    header >>>= 7;
+                }
+                levels.write((int) header);
+                levels.write(level ? 1 : 0);
+                start = end;
+            }
+            return levels.toByteArray();
+        }
+
+        void reset() {
+            values.reset();
+            defined.clear();
+            count = 0;
+        }
+
+        private void int32(int value) {
+            values.write(value);
+            values.write(value >>> 8);
+            values.write(value >>> 16);
+            values.write(value >>> 24);
+        }
+
+        private void int64(long value) {
+            int32((int) value);
+            int32((int) (value >>> 32));
+        }
+    }
+}
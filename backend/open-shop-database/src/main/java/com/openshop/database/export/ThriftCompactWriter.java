@@ -0,0 +1,138 @@
+package com.openshop.database.export;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Encodes the Thrift compact protocol, the encoding of Parquet page headers and file metadata.
+ * Only what {@link ParquetFileWriter} writes is supported: structs, lists, booleans, 32 and 64
+ * bit integers and strings. Fields must be written in ascending id order within a struct.
+ */
+final class ThriftCompactWriter {
+
+    static final byte BOOLEAN_TRUE = 1;
+    static final byte BOOLEAN_FALSE = 2;
+    static final byte I32 = 5;
+    static final byte I64 = 6;
+    static final byte BINARY = 8;
+    static final byte LIST = 9;
+    static final byte STRUCT = 12;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // Last field id of every open struct; compact field headers are relative to it
+    private final Deque<Integer> lastFieldIds = new ArrayDeque<>();
+    private int lastFieldId;
+
+    ThriftCompactWriter i32(int id, int value) {
+        fieldHeader(id, I32);
+        varint(zigzag(value));
+        return this;
+    }
+
+    ThriftCompactWriter i64(int id, long value) {
+        fieldHeader(id, I64);
+        varint(zigzag(value));
+        return this;
+    }
+
+    ThriftCompactWriter bool(int id, boolean value) {
+        fieldHeader(id, value ? BOOLEAN_TRUE : BOOLEAN_FALSE);
+        return this;
+    }
+
+    ThriftCompactWriter string(int id, String value) {
+        fieldHeader(id, BINARY);
+        binary(value);
+        return this;
+    }
+
+    /**
+     * Opens a struct field; close it with {@link #endStruct}.
+     */
+    ThriftCompactWriter beginStruct(int id) {
+        fieldHeader(id, STRUCT);
+        return beginStructElement();
+    }
+
+    /**
+     * Opens a struct element of a list of structs; close it with {@link #endStruct}.
+     */
+    ThriftCompactWriter beginStructElement() {
+        lastFieldIds.push(lastFieldId);
+        lastFieldId = 0;
+        return this;
+    }
+
+    ThriftCompactWriter endStruct() {
+        out.write(0);
+        lastFieldId = lastFieldIds.pop();
+        return this;
+    }
+
+    /**
+     * Opens a list field of {@code size} elements of {@code elementType}, which are written next.
+     */
+    ThriftCompactWriter beginList(int id, byte elementType, int size) {
+        fieldHeader(id, LIST);
+        if (size < 15) {
+            out.write(size << 4 | elementType);
+        } else {
+            out.write(0xF0 | elementType);
+            varint(size);
+        }
+        return this;
+    }
+
+    ThriftCompactWriter i32Element(int value) {
+        varint(zigzag(value));
+        return this;
+    }
+
+    ThriftCompactWriter stringElement(String value) {
+        binary(value);
+        return this;
+    }
+
+    /**
+     * Ends the top-level struct and returns its encoding.
+     */
+    byte[] finish() {
+        out.write(0);
+        return out.toByteArray();
+    }
+
+    private void fieldHeader(int id, byte type) {
+        int delta = id - lastFieldId;
+        if (delta > 0 && delta <= 15) {
+            out.write(delta << 4 | type);
+        } else {
+            out.write(type);
+            varint(zigzag(id));
+        }
+        lastFieldId = id;
+    }
+
+    private void binary(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        varint(bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private void varint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(int value) {
+        return (value << 1 ^ value >> 31) & 0xFFFFFFFFL;
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+}
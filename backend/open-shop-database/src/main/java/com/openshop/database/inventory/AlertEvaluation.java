@@ -0,0 +1,12 @@
+package com.openshop.database.inventory;
+
+/**
+ * Outcome of one round of the {@link InventoryAlertEngine}.
+ *
+ * @param evaluated variant and location pairs whose stock changed and was evaluated
+ * @param raised    alerts created
+ * @param escalated open alerts whose severity rose
+ * @param resolved  alerts resolved because stock recovered or their auto-resolve time passed
+ */
+public record AlertEvaluation(int evaluated, int raised, int escalated, int resolved) {
+}
@@ -0,0 +1,94 @@
+package com.openshop.database.inventory;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Persistence of stock alerts, separated from {@link InventoryAlertEngine} so the alert rules can
+ * be exercised without a database.
+ */
+interface AlertStore {
+
+    /**
+     * Variant and location pairs with a stock row whose {@code last_updated} is after
+     * {@code since}, or all pairs when {@code since} is {@code null}.
+     */
+    Changes changedSince(Instant since) throws SQLException;
+
+    /**
+     * Stock of each pair summed over its suppliers and batches, leaving out discontinued rows.
+     * Pairs without such rows are not returned.
+     */
+    List<StockPosition> positions(Collection<StockSite> sites) throws SQLException;
+
+    /**
+     * Unresolved {@code low_stock} and {@code reorder_needed} alerts of the pairs, including
+     * dismissed ones, oldest first.
+     */
+    List<OpenAlert> openAlerts(Collection<StockSite> sites) throws SQLException;
+
+    /**
+     * Active and acknowledged alerts of any type with {@code auto_resolve_enabled} and
+     * {@code auto_resolve_hours} set.
+     */
+    List<OpenAlert> autoResolving() throws SQLException;
+
+    /**
+     * Inserts, updates and resolves alerts in one transaction. A resolved dismissed alert keeps
+     * its status and only gets {@code resolved_at}.
+     */
+    void write(List<NewAlert> raised, List<AlertChange> changed, Collection<UUID> resolved, Instant now)
+            throws SQLException;
+
+    enum AlertType {
+        LOW_STOCK, REORDER_NEEDED;
+
+        String code() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        static AlertType fromCode(String code) {
+            return valueOf(code.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    enum Severity {
+        LOW, MEDIUM, HIGH, CRITICAL;
+
+        String code() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        static Severity fromCode(String code) {
+            return code == null ? MEDIUM : valueOf(code.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    record StockSite(UUID variantId, UUID locationId) {
+    }
+
+    /**
+     * @param newest the latest {@code last_updated} among the changed rows, {@code null} if none
+     */
+    record Changes(List<StockSite> sites, Instant newest) {
+    }
+
+    record StockPosition(StockSite site, UUID productId, String sku, int available, int lowStockThreshold,
+                         int reorderQuantity) {
+    }
+
+    record OpenAlert(UUID id, String type, StockSite site, String status, Severity severity, Integer currentValue,
+                     Integer thresholdValue, boolean autoResolve, Integer autoResolveHours, Instant updatedAt) {
+    }
+
+    record NewAlert(AlertType type, Severity severity, StockPosition position, int thresholdValue, String title,
+                    String message, String suggestedAction, Integer autoResolveHours) {
+    }
+
+    record AlertChange(UUID id, Severity severity, int currentValue, int thresholdValue, String message) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.openshop.database.inventory;
+
+import java.io.Reader;
+
+/**
+ * Format of a bulk inventory upload.
+ */
+public enum BulkFormat {
+
+    /**
+     * RFC 4180 CSV with a header row of column names.
+     */
+    CSV,
+
+    /**
+     * A JSON array of row objects, or an object holding that array as {@code updates}.
+     */
+    JSON;
+
+    UploadReader reader(Reader in) {
+        return switch (this) {
+            case CSV -> new CsvUploadReader(in);
+            case JSON -> new JsonUploadReader(in);
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.openshop.database.inventory;
+
+import java.util.UUID;
+
+/**
+ * Who made a bulk inventory update and why, recorded on each {@code inventory_log} row it writes.
+ *
+ * @param adminUserId   admin user who uploaded the file, or {@code null}
+ * @param adminUsername their name for display, or {@code null}
+ * @param reason        reason shown in the stock history, e.g. {@code "Supplier feed"}
+ * @param referenceId   identifies the upload, e.g. the feed's file name; at most 255 characters
+ */
+public record BulkUpdateAttribution(UUID adminUserId, String adminUsername, String reason, String referenceId) {
+}
@@ -0,0 +1,31 @@
+package com.openshop.database.inventory;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk inventory update. Every row read is counted exactly once as inserted,
+ * updated, unchanged or failed.
+ *
+ * @param rows      rows read from the upload
+ * @param inserted  rows that created an {@code inventory_stock} row
+ * @param updated   rows that changed an existing row
+ * @param unchanged rows identical to the existing row, which were not written
+ * @param failed    rows rejected with an error
+ * @param errors    the errors in upload order, at most {@link InventoryBulkUpdate#MAX_REPORTED_ERRORS}
+ */
+public record BulkUpdateReport(long rows, long inserted, long updated, long unchanged, long failed,
+                               List<RowError> errors) {
+
+    public BulkUpdateReport {
+        errors = List.copyOf(errors);
+    }
+
+    /**
+     * Why one row of the upload was rejected.
+     *
+     * @param row     line of a CSV record, 1-based position of a JSON element
+     * @param message the constraint the row violates
+     */
+    public record RowError(long row, String message) {
+    }
+}
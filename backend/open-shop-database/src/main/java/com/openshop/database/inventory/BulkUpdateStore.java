@@ -0,0 +1,37 @@
+package com.openshop.database.inventory;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Persistence of bulk inventory updates, separated from {@link InventoryBulkUpdate} so batching
+ * and error reporting can be exercised without a database.
+ */
+interface BulkUpdateStore {
+
+    /**
+     * Upserts the rows, whose keys are distinct, into {@code inventory_stock} and logs each change
+     * in {@code inventory_log}, all in one transaction. Rows referencing a variant, supplier or
+     * location that does not exist, or setting {@code quantity_on_hand} below the reserved
+     * quantity, are rejected and the others written.
+     *
+     * @return the outcome of each row, in the order of {@code rows}
+     * @throws SQLException when the batch fails; none of it is committed
+     */
+    List<Outcome> apply(List<StockUpdate> rows, BulkUpdateAttribution attribution) throws SQLException;
+
+    enum Change {
+        INSERTED, UPDATED, UNCHANGED, REJECTED
+    }
+
+    record Outcome(Change change, String error) {
+
+        static final Outcome INSERTED = new Outcome(Change.INSERTED, null);
+        static final Outcome UPDATED = new Outcome(Change.UPDATED, null);
+        static final Outcome UNCHANGED = new Outcome(Change.UNCHANGED, null);
+
+        static Outcome rejected(String error) {
+            return new Outcome(Change.REJECTED, error);
+        }
+    }
+}
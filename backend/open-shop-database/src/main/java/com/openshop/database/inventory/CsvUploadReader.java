@@ -0,0 +1,144 @@
+package com.openshop.database.inventory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads RFC 4180 CSV: a header row naming the columns, comma separated fields, double quotes
+ * around fields containing commas, quotes or line breaks. Columns the upload does not know are
+ * ignored and blank lines are skipped.
+ */
+final class CsvUploadReader implements UploadReader {
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader in;
+    private List<String> header;
+    private long line = 1;
+    private boolean done;
+
+    CsvUploadReader(Reader in) {
+        this.in = in instanceof BufferedReader ? in : new BufferedReader(in);
+    }
+
+    @Override
+    public UploadRow next() throws IOException {
+        if (header == null) {
+            readHeader();
+        }
+        while (!done) {
+            long start = line;
+            List<String> fields = new ArrayList<>();
+            String error = readRecord(fields);
+            if (error != null) {
+                return UploadRow.invalid(start, error);
+            }
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            if (fields.size() != header.size()) {
+                return UploadRow.invalid(start,
+                        "expected " + header.size() + " fields but found " + fields.size());
+            }
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                row.put(header.get(i), fields.get(i));
+            }
+            return new UploadRow(start, row, null);
+        }
+        return null;
+    }
+
+    private void readHeader() throws IOException {
+        List<String> names = new ArrayList<>();
+        String error = readRecord(names);
+        if (error != null || names.size() == 1 && names.get(0).isEmpty()) {
+            throw new IllegalArgumentException("The upload has no header row");
+        }
+        if (!names.get(0).isEmpty() && names.get(0).charAt(0) == BYTE_ORDER_MARK) {
+            names.set(0, names.get(0).substring(1));
+        }
+        List<String> missing = StockUpdate.missing(names);
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("The header row lacks the required columns " + missing);
+        }
+        header = names;
+    }
+
+    /**
+     * Reads one record into {@code fields} and returns {@code null}, or the reason it is invalid.
+     * A malformed record is skipped up to the end of its line; an unterminated quote ends the
+     * upload. At the end of the input the record is a single empty field.
+     */
+    private String readRecord(List<String> fields) throws IOException {
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean closed = false;
+        while (true) {
+            int ch = in.read();
+            if (ch == -1) {
+                done = true;
+                if (quoted) {
+                    return "unterminated quoted field";
+                }
+                fields.add(field.toString());
+                return null;
+            }
+            if (quoted) {
+                if (ch == '"') {
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"');
+                    } else {
+                        in.reset();
+                        quoted = false;
+                        closed = true;
+                    }
+                } else {
+                    if (ch == '\n') {
+                        line++;
+                    }
+                    field.append((char) ch);
+                }
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                closed = false;
+            } else if (ch == '\n' || ch == '\r') {
+                if (ch == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                }
+                line++;
+                fields.add(field.toString());
+                return null;
+            } else if (ch == '"' && field.isEmpty() && !closed) {
+                quoted = true;
+            } else if (closed) {
+                skipLine();
+                return "unexpected character after a closing quote";
+            } else {
+                field.append((char) ch);
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int ch;
+        do {
+            ch = in.read();
+        } while (ch != -1 && ch != '\n');
+        if (ch == -1) {
+            done = true;
+        } else {
+            line++;
+        }
+    }
+}
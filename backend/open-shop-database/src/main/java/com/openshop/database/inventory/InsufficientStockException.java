@@ -0,0 +1,28 @@
+package com.openshop.database.inventory;
+
+import java.util.UUID;
+
+/**
+ * Thrown when a variant has less unreserved stock than requested.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UUID variantId;
+    private final int requested;
+
+    public InsufficientStockException(UUID variantId, int requested) {
+        super("Insufficient stock for variant " + variantId + ": requested " + requested);
+        this.variantId = variantId;
+        this.requested = requested;
+    }
+
+    public UUID getVariantId() {
+        return variantId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+}
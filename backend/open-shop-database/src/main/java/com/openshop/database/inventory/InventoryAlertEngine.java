@@ -0,0 +1,244 @@
+package com.openshop.database.inventory;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.inventory.AlertStore.AlertChange;
+import com.openshop.database.inventory.AlertStore.AlertType;
+import com.openshop.database.inventory.AlertStore.Changes;
+import com.openshop.database.inventory.AlertStore.NewAlert;
+import com.openshop.database.inventory.AlertStore.OpenAlert;
+import com.openshop.database.inventory.AlertStore.Severity;
+import com.openshop.database.inventory.AlertStore.StockPosition;
+import com.openshop.database.inventory.AlertStore.StockSite;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Maintains {@code low_stock} and {@code reorder_needed} alerts in {@code inventory_alerts} from
+ * the stock levels in {@code inventory_stock}, so the low-stock and alert listings of the admin
+ * read a handful of open alerts instead of scanning all stock.
+ *
+ * <p>Stock is evaluated per variant and location, summed over suppliers and batches and leaving
+ * out discontinued rows. A {@code low_stock} alert is open while 0 &lt; available &lt;=
+ * {@code low_stock_threshold}, its severity rising from low over medium (half the threshold) to
+ * high (a quarter); a {@code reorder_needed} alert of critical severity is open while nothing
+ * is available, suggesting {@code reorder_quantity} units. An alert is raised once per pair and
+ * type: an unresolved alert, acknowledged or dismissed included, is updated rather than
+ * duplicated, and resolved when its condition clears. A dismissed alert is not updated and
+ * not raised again until then.</p>
+ *
+ * <p>Each {@link #evaluate round} reads only the pairs with a stock row whose
+ * {@code last_updated} (indexed since V021) moved past the newest one seen, minus
+ * {@link #LATE_COMMIT_WINDOW} for transactions that commit after a later one; the first round
+ * evaluates everything. Stock levels and open alerts are read with one grouped query per chunk
+ * of pairs and the changes written as JDBC batches in one transaction per chunk. Pairs whose
+ * stock rows were all deleted are not noticed.</p>
+ *
+ * <p>Alerts are raised with {@code auto_resolve_enabled} and the configured
+ * {@code auto_resolve_hours}; any active or acknowledged alert with both set is resolved once it
+ * has not been updated for that many hours. Run the engine on one node only.</p>
+ */
+public final class InventoryAlertEngine implements AutoCloseable {
+
+    /**
+     * How far behind the newest {@code last_updated} seen a round reads again.
+     */
+    static final Duration LATE_COMMIT_WINDOW = Duration.ofMinutes(1);
+
+    /**
+     * Hours after which an alert nobody acted on resolves itself, unless configured otherwise.
+     */
+    public static final int DEFAULT_AUTO_RESOLVE_HOURS = 7 * 24;
+
+    // Pairs evaluated per transaction
+    static final int CHUNK_SIZE = 500;
+
+    private final AlertStore store;
+    private final Integer autoResolveHours;
+    private final Clock clock;
+    private Instant watermark;
+    private Poller worker;
+
+    public InventoryAlertEngine(DataSource dataSource, Dialect dialect) {
+        this(new JdbcAlertStore(dataSource, dialect), DEFAULT_AUTO_RESOLVE_HOURS, Clock.systemUTC());
+    }
+
+    /**
+     * @param autoResolveHours {@code auto_resolve_hours} of raised alerts, or {@code null} to
+     *                         raise them without auto-resolution
+     */
+    public InventoryAlertEngine(DataSource dataSource, Dialect dialect, Integer autoResolveHours) {
+        this(new JdbcAlertStore(dataSource, dialect), autoResolveHours, Clock.systemUTC());
+    }
+
+    InventoryAlertEngine(AlertStore store, Integer autoResolveHours, Clock clock) {
+        if (autoResolveHours != null && autoResolveHours < 1) {
+            throw new IllegalArgumentException("autoResolveHours must be positive");
+        }
+        this.store = store;
+        this.autoResolveHours = autoResolveHours;
+        this.clock = clock;
+    }
+
+    /**
+     * Evaluates the pairs whose stock changed since the last round, then resolves the alerts
+     * whose auto-resolve time passed. When a round fails, the next one evaluates its pairs again.
+     */
+    public synchronized AlertEvaluation evaluate() throws SQLException {
+        Instant now = clock.instant();
+        Changes changes = store.changedSince(watermark == null ? null : watermark.minus(LATE_COMMIT_WINDOW));
+        List<StockSite> sites = changes.sites();
+        Tally tally = new Tally();
+        for (int from = 0; from < sites.size(); from += CHUNK_SIZE) {
+            evaluate(sites.subList(from, Math.min(sites.size(), from + CHUNK_SIZE)), now, tally);
+        }
+        if (changes.newest() != null && (watermark == null || changes.newest().isAfter(watermark))) {
+            watermark = changes.newest();
+        }
+        List<UUID> expired = new ArrayList<>();
+        for (OpenAlert alert : store.autoResolving()) {
+            if (alert.updatedAt() != null
+                    && !alert.updatedAt().plus(Duration.ofHours(alert.autoResolveHours())).isAfter(now)) {
+                expired.add(alert.id());
+            }
+        }
+        store.write(List.of(), List.of(), expired, now);
+        tally.resolved += expired.size();
+        return new AlertEvaluation(sites.size(), tally.raised, tally.escalated, tally.resolved);
+    }
+
+    private void evaluate(List<StockSite> sites, Instant now, Tally tally) throws SQLException {
+        Map<StockSite, StockPosition> positions = new HashMap<>();
+        for (StockPosition position : store.positions(sites)) {
+            positions.put(position.site(), position);
+        }
+        Map<StockSite, Map<AlertType, List<OpenAlert>>> open = new HashMap<>();
+        for (OpenAlert alert : store.openAlerts(sites)) {
+            open.computeIfAbsent(alert.site(), site -> new HashMap<>())
+                    .computeIfAbsent(AlertType.fromCode(alert.type()), type -> new ArrayList<>())
+                    .add(alert);
+        }
+
+        List<NewAlert> raised = new ArrayList<>();
+        List<AlertChange> changed = new ArrayList<>();
+        List<UUID> resolved = new ArrayList<>();
+        for (StockSite site : sites) {
+            StockPosition position = positions.get(site);
+            Map<AlertType, List<OpenAlert>> alerts = open.getOrDefault(site, Map.of());
+            for (AlertType type : AlertType.values()) {
+                Severity severity = position == null ? null : severity(type, position);
+                List<OpenAlert> existing = alerts.getOrDefault(type, List.of());
+                if (severity == null) {
+                    existing.forEach(alert -> resolved.add(alert.id()));
+                    continue;
+                }
+                if (existing.isEmpty()) {
+                    raised.add(new NewAlert(type, severity, position, threshold(type, position),
+                            title(type, position), message(type, position),
+                            "Reorder " + position.reorderQuantity() + " units.", autoResolveHours));
+                    continue;
+                }
+                // Duplicates from before the engine ran are resolved in favour of the oldest
+                OpenAlert alert = existing.get(0);
+                existing.subList(1, existing.size()).forEach(duplicate -> resolved.add(duplicate.id()));
+                if (alert.status().equals("dismissed")) {
+                    continue;
+                }
+                int threshold = threshold(type, position);
+                if (severity != alert.severity() || !Objects.equals(alert.currentValue(), position.available())
+                        || !Objects.equals(alert.thresholdValue(), threshold)) {
+                    changed.add(new AlertChange(alert.id(), severity, position.available(), threshold,
+                            message(type, position)));
+                    if (severity.compareTo(alert.severity()) > 0) {
+                        tally.escalated++;
+                    }
+                }
+            }
+        }
+        store.write(raised, changed, resolved, now);
+        tally.raised += raised.size();
+        tally.resolved += resolved.size();
+    }
+
+    /**
+     * Severity an alert of {@code type} has at {@code position}, or {@code null} when there
+     * should be none.
+     */
+    static Severity severity(AlertType type, StockPosition position) {
+        int available = position.available();
+        int threshold = position.lowStockThreshold();
+        return switch (type) {
+            case LOW_STOCK -> {
+                if (available <= 0 || available > threshold) {
+                    yield null;
+                }
+                if (available * 4L <= threshold) {
+                    yield Severity.HIGH;
+                }
+                yield available * 2L <= threshold ? Severity.MEDIUM : Severity.LOW;
+            }
+            case REORDER_NEEDED -> available <= 0 ? Severity.CRITICAL : null;
+        };
+    }
+
+    private static int threshold(AlertType type, StockPosition position) {
+        return type == AlertType.LOW_STOCK ? position.lowStockThreshold() : 0;
+    }
+
+    private static String title(AlertType type, StockPosition position) {
+        return (type == AlertType.LOW_STOCK ? "Low stock: " : "Out of stock: ") + position.sku();
+    }
+
+    private static String message(AlertType type, StockPosition position) {
+        return type == AlertType.LOW_STOCK
+                ? position.available() + " units available, at or below the low stock threshold of "
+                        + position.lowStockThreshold() + "."
+                : "No units available (" + position.available() + ").";
+    }
+
+    /**
+     * Evaluates on a daemon thread every {@code pollInterval}; a failed round is retried in the
+     * next one.
+     *
+     * @return the poller, which reports failed rounds
+     */
+    public synchronized Poller start(Duration pollInterval) {
+        if (worker != null) {
+            throw new IllegalStateException("Inventory alert engine is already started");
+        }
+        worker = Poller.every("inventory-alerts", pollInterval, this::evaluate);
+        return worker;
+    }
+
+    /**
+     * Stops the background thread after its current round.
+     */
+    @Override
+    public void close() {
+        Poller stopping;
+        synchronized (this) {
+            stopping = worker;
+            worker = null;
+        }
+        if (stopping != null) {
+            stopping.close();
+        }
+    }
+
+    private static final class Tally {
+
+        int raised;
+        int escalated;
+        int resolved;
+    }
+}
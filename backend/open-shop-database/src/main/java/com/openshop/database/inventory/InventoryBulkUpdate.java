@@ -0,0 +1,195 @@
+package com.openshop.database.inventory;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.inventory.BulkUpdateReport.RowError;
+import com.openshop.database.inventory.BulkUpdateStore.Outcome;
+import com.openshop.database.inventory.UploadReader.UploadRow;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies a CSV or JSON upload of stock levels, such as a supplier feed, to
+ * {@code inventory_stock}, keyed by {@code (variant_id, supplier_id, location_id, supplied_date)}.
+ *
+ * <p>The upload is read as a stream and each row is validated against the constraints of
+ * {@code inventory_stock} as it is read. Valid rows are written in batches of {@code batchSize},
+ * each in one transaction that upserts the changed rows and writes an {@code inventory_log} row for
+ * each of them, so a 500k-row feed takes a few hundred transactions rather than 500k. Only a
+ * batch and the report are held in memory.</p>
+ *
+ * <p>An invalid row is reported by its line or position and does not stop the upload. When the
+ * database rejects a batch, the batch is rolled back and split in halves until the offending rows
+ * are isolated; those are reported and the others written. Batches already committed stay
+ * committed if the upload fails part way through, e.g. on a lost connection, and a repeated
+ * upload reports them as unchanged.</p>
+ *
+ * <p>Columns: {@code variant_id}, {@code supplier_id}, {@code location_id},
+ * {@code supplied_date}, {@code cost_price} and {@code quantity_on_hand} are required;
+ * {@code supplier_sku}, {@code batch_reference}, {@code low_stock_threshold},
+ * {@code reorder_quantity}, {@code status} and {@code expiry_date} are optional and keep their
+ * current value when left out or empty. The names may also be written in camel case.</p>
+ */
+public final class InventoryBulkUpdate {
+
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+
+    /**
+     * Errors listed in a report; further errors are only counted.
+     */
+    public static final int MAX_REPORTED_ERRORS = 10_000;
+
+    private final BulkUpdateStore store;
+    private final int batchSize;
+
+    public InventoryBulkUpdate(DataSource dataSource, Dialect dialect) {
+        this(new JdbcBulkUpdateStore(dataSource, dialect), DEFAULT_BATCH_SIZE);
+    }
+
+    public InventoryBulkUpdate(DataSource dataSource, Dialect dialect, int batchSize) {
+        this(new JdbcBulkUpdateStore(dataSource, dialect), batchSize);
+    }
+
+    InventoryBulkUpdate(BulkUpdateStore store, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.store = store;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reads the upload to its end and applies it.
+     *
+     * @throws IllegalArgumentException when the upload cannot be read at all, e.g. a CSV header
+     *                                  lacks a required column; nothing has been written
+     * @throws SQLException             when a batch fails for a reason other than its rows, e.g.
+     *                                  a lost connection; earlier batches are committed
+     */
+    public BulkUpdateReport update(Reader upload, BulkFormat format, BulkUpdateAttribution attribution)
+            throws IOException, SQLException {
+        UploadReader reader = format.reader(upload);
+        Tally tally = new Tally();
+        List<Numbered> batch = new ArrayList<>(batchSize);
+        Set<StockKey> keys = new HashSet<>();
+        for (UploadRow row = reader.next(); row != null; row = reader.next()) {
+            tally.rows++;
+            if (row.error() != null) {
+                tally.fail(row.number(), row.error());
+                continue;
+            }
+            StockUpdate update;
+            try {
+                update = StockUpdate.parse(row.fields());
+            } catch (IllegalArgumentException e) {
+                tally.fail(row.number(), e.getMessage());
+                continue;
+            }
+            // A key repeated within a batch is written in the next one, so the later row wins
+            if (!keys.add(update.key())) {
+                write(batch, attribution, tally);
+                batch.clear();
+                keys.clear();
+                keys.add(update.key());
+            }
+            batch.add(new Numbered(row.number(), update));
+            if (batch.size() == batchSize) {
+                write(batch, attribution, tally);
+                batch.clear();
+                keys.clear();
+            }
+        }
+        write(batch, attribution, tally);
+        return tally.report();
+    }
+
+    private void write(List<Numbered> batch, BulkUpdateAttribution attribution, Tally tally) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Outcome> outcomes;
+        try {
+            outcomes = store.apply(batch.stream().map(Numbered::update).toList(), attribution);
+        } catch (SQLException e) {
+            // Only a rejected row is worth narrowing down; anything else fails every half as well
+            if (!isRowError(e)) {
+                throw e;
+            }
+            if (batch.size() > 1) {
+                int half = batch.size() / 2;
+                write(batch.subList(0, half), attribution, tally);
+                write(batch.subList(half, batch.size()), attribution, tally);
+            } else {
+                tally.fail(batch.get(0).number(), "rejected by the database: " + e.getMessage());
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            switch (outcome.change()) {
+                case INSERTED -> tally.inserted++;
+                case UPDATED -> tally.updated++;
+                case UNCHANGED -> tally.unchanged++;
+                case REJECTED -> tally.fail(batch.get(i).number(), outcome.error());
+            }
+        }
+    }
+
+    /**
+     * Whether the database rejected the values of a row (SQLSTATE class 22, data exception, or
+     * 23, integrity constraint violation) rather than failed.
+     */
+    static boolean isRowError(SQLException e) {
+        List<Throwable> causes = new ArrayList<>();
+        for (Throwable cause = e; cause != null && !causes.contains(cause); cause = cause.getCause()) {
+            causes.add(cause);
+        }
+        if (e.getNextException() != null) {
+            causes.add(e.getNextException());
+        }
+        for (Throwable cause : causes) {
+            if (cause instanceof SQLIntegrityConstraintViolationException || cause instanceof SQLDataException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Numbered(long number, StockUpdate update) {
+    }
+
+    private static final class Tally {
+
+        long rows;
+        long inserted;
+        long updated;
+        long unchanged;
+        long failed;
+        final List<RowError> errors = new ArrayList<>();
+
+        void fail(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+
+        BulkUpdateReport report() {
+            errors.sort(Comparator.comparingLong(RowError::row));
+            return new BulkUpdateReport(rows, inserted, updated, unchanged, failed, errors);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.openshop.database.inventory;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.partition.PartitionedTable;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the stock history of a variant from {@code inventory_log}, newest first.
+ *
+ * <p>Every read is bounded in time on the partition key, so it touches only the monthly
+ * partitions of its window (see {@link PartitionedTable}) instead of probing the variant index of
+ * every month kept. The default window is {@link #DEFAULT_WINDOW}; older movements are read with
+ * an explicit {@code since}.</p>
+ */
+public final class InventoryHistory {
+
+    public static final Duration DEFAULT_WINDOW = Duration.ofDays(90);
+
+    private static final PartitionedTable TABLE = PartitionedTable.INVENTORY_LOG;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+    private final Clock clock;
+    private final String sql;
+
+    public InventoryHistory(DataSource dataSource, Dialect dialect) {
+        this(dataSource, dialect, Clock.systemUTC());
+    }
+
+    InventoryHistory(DataSource dataSource, Dialect dialect, Clock clock) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+        this.clock = clock;
+        this.sql = dialect.limit("""
+                SELECT id, entity_type, operation_type, supplier_id, location_id, quantity_change, quantity_before,
+                       quantity_after, reason, reference_type, reference_id, admin_username, created_at
+                FROM inventory_log
+                WHERE variant_id = ? AND %s >= ?
+                ORDER BY created_at DESC""".formatted(TABLE.partitionColumn(dialect)));
+    }
+
+    /**
+     * Movements of the variant within the {@link #DEFAULT_WINDOW}, at most {@code limit}.
+     */
+    public List<InventoryMovement> recent(UUID variantId, int limit) throws SQLException {
+        return since(variantId, clock.instant().minus(DEFAULT_WINDOW), limit);
+    }
+
+    /**
+     * Movements of the variant at or after {@code since}, at most {@code limit}.
+     */
+    public List<InventoryMovement> since(UUID variantId, Instant since, int limit) throws SQLException {
+        List<InventoryMovement> movements = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            dialect.bindUuid(stmt, 1, variantId);
+            stmt.setTimestamp(2, TABLE.partitionKey(dialect, since));
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    movements.add(new InventoryMovement(dialect.readUuid(rs, 1), rs.getString(2), rs.getString(3),
+                            dialect.readUuid(rs, 4), dialect.readUuid(rs, 5), rs.getObject(6, Integer.class),
+                            rs.getObject(7, Integer.class), rs.getObject(8, Integer.class), rs.getString(9),
+                            rs.getString(10), rs.getString(11), rs.getString(12), rs.getTimestamp(13).toInstant()));
+                }
+            }
+        }
+        return movements;
+    }
+}
@@ -0,0 +1,12 @@
+package com.openshop.database.inventory;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One {@code inventory_log} entry of a variant, as shown in its stock history.
+ */
+public record InventoryMovement(UUID id, String entityType, String operationType, UUID supplierId, UUID locationId,
+                                Integer quantityChange, Integer quantityBefore, Integer quantityAfter, String reason,
+                                String referenceType, String referenceId, String adminUsername, Instant createdAt) {
+}
@@ -0,0 +1,346 @@
+package com.openshop.database.inventory;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.inventory.Reservation.Allocation;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Reserves and releases stock against {@code inventory_stock.quantity_reserved} without making
+ * checkouts queue on row locks.
+ *
+ * <p>Admission happens in memory: each variant's batches are held in a lock-free
+ * {@link VariantStock}, and a reservation is granted by one compare-and-set, oldest batch
+ * first. Granted reservations and releases are queued and written by a single flusher thread
+ * that sums them per row and applies the sums as one JDBC batch in one transaction (group
+ * commit): under a flash sale a hot row is updated once per flush instead of once per checkout.
+ * The returned futures complete when the change is committed, so a checkout never proceeds on a
+ * reservation that is not durable.</p>
+ *
+ * <p>Overselling is prevented twice. In memory, only stock that is persisted as unreserved and
+ * not yet granted can be granted; released stock becomes grantable only after its flush. In the
+ * database, the update of a row is guarded by {@code quantity_reserved + delta <= quantity_on_hand}
+ * and {@code >= 0} (see {@code chk_stock_quantities_non_negative}); a flush that hits the guard,
+ * e.g. because stock was adjusted down by another writer, is rolled back, the reservations on
+ * the offending rows fail with {@link InsufficientStockException}, their variants are reloaded
+ * and the rest of the batch is retried.</p>
+ *
+ * <p>The engine assumes it is the only writer of {@code quantity_reserved} for the variants it
+ * has loaded; call {@link #refresh} after restocking or stock adjustments. A variant not used for
+ * {@code idleTimeout} and without unflushed grants is dropped and loaded again on its next use,
+ * so memory follows the variants in demand rather than every variant ever reserved.</p>
+ */
+public final class InventoryReservations implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_BATCH = 1_000;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    private static final Duration IDLE_WAIT = Duration.ofMillis(50);
+
+    private final StockStore store;
+    private final int maxBatch;
+    private final long idleTimeoutNanos;
+    private final Map<UUID, VariantStock> variants = new ConcurrentHashMap<>();
+    private final Queue<Change> changes = new ConcurrentLinkedQueue<>();
+    private final Set<UUID> refreshRequests = ConcurrentHashMap.newKeySet();
+    private final Poller flusher;
+    private volatile boolean running = true;
+    // Only touched by the flusher thread
+    private long nextEviction;
+
+    public InventoryReservations(DataSource dataSource, Dialect dialect) {
+        this(new JdbcStockStore(dataSource, dialect), DEFAULT_MAX_BATCH, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public InventoryReservations(DataSource dataSource, Dialect dialect, int maxBatch) {
+        this(new JdbcStockStore(dataSource, dialect), maxBatch, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public InventoryReservations(DataSource dataSource, Dialect dialect, int maxBatch, Duration idleTimeout) {
+        this(new JdbcStockStore(dataSource, dialect), maxBatch, idleTimeout);
+    }
+
+    InventoryReservations(StockStore store, int maxBatch, Duration idleTimeout) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("idleTimeout must be positive");
+        }
+        this.store = store;
+        this.maxBatch = maxBatch;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.nextEviction = System.nanoTime() + idleTimeoutNanos / 2;
+        this.flusher = Poller.start("inventory-reservation-flusher", this::flushRound, IDLE_WAIT,
+                this::flushRemaining);
+    }
+
+    /**
+     * A queued reservation ({@code reserve == true}) or release and the future of its caller.
+     */
+    private record Change(VariantStock stock, Reservation reservation, boolean reserve,
+                          CompletableFuture<Reservation> done) {
+    }
+
+    /**
+     * Reserves {@code quantity} of a variant. The future completes with the reservation once it
+     * is committed, or exceptionally with {@link InsufficientStockException} if the stock is not
+     * there, which is decided immediately in the common case.
+     */
+    public CompletableFuture<Reservation> reserve(UUID variantId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be positive");
+        }
+        ensureRunning();
+        VariantStock stock;
+        try {
+            stock = variant(variantId);
+        } catch (SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Reservation reservation = stock.reserve(quantity);
+        if (reservation == null) {
+            return CompletableFuture.failedFuture(new InsufficientStockException(variantId, quantity));
+        }
+        return enqueue(new Change(stock, reservation, true, new CompletableFuture<>()));
+    }
+
+    /**
+     * Returns reserved stock, e.g. when a checkout is abandoned or an order is cancelled before
+     * fulfilment. The stock can be reserved again once the future completes.
+     */
+    public CompletableFuture<Reservation> release(Reservation reservation) {
+        ensureRunning();
+        VariantStock stock;
+        try {
+            stock = variant(reservation.variantId());
+        } catch (SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return enqueue(new Change(stock, reservation, false, new CompletableFuture<>()));
+    }
+
+    /**
+     * Unreserved quantity of a variant as known to this engine, including grants not yet flushed.
+     */
+    public int available(UUID variantId) throws SQLException {
+        return variant(variantId).available();
+    }
+
+    /**
+     * Re-reads the variant's batches before the next flush, e.g. after a restock added a batch
+     * or an adjustment changed {@code quantity_on_hand}.
+     */
+    public void refresh(UUID variantId) {
+        if (variants.containsKey(variantId)) {
+            refreshRequests.add(variantId);
+            flusher.wake();
+        }
+    }
+
+    /**
+     * Number of variants held in memory.
+     */
+    int loadedVariants() {
+        return variants.size();
+    }
+
+    /**
+     * The flusher thread, which reports variants it failed to reload.
+     */
+    public Poller flusher() {
+        return flusher;
+    }
+
+    /**
+     * Stops accepting changes, flushes everything queued and stops the flusher thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        flusher.close();
+    }
+
+    private void ensureRunning() {
+        if (!running) {
+            throw new IllegalStateException("Inventory reservations are closed");
+        }
+    }
+
+    private VariantStock variant(UUID variantId) throws SQLException {
+        VariantStock stock = variants.get(variantId);
+        if (stock == null) {
+            VariantStock loaded = new VariantStock(variantId, store.load(variantId));
+            VariantStock raced = variants.putIfAbsent(variantId, loaded);
+            stock = raced != null ? raced : loaded;
+        }
+        stock.touch(System.nanoTime());
+        return stock;
+    }
+
+    /**
+     * Drops the variants idle for {@code idleTimeout} that have nothing waiting for a flush. A
+     * caller that took such a variant just before it was dropped still reserves against it; the
+     * database guard rejects whatever the reloaded variant then grants twice.
+     */
+    private void evictIdle(long now) {
+        for (VariantStock stock : variants.values()) {
+            if (now - stock.lastUsed() >= idleTimeoutNanos && stock.settled()) {
+                variants.remove(stock.variantId(), stock);
+            }
+        }
+    }
+
+    private CompletableFuture<Reservation> enqueue(Change change) {
+        changes.add(change);
+        flusher.wake();
+        return change.done();
+    }
+
+    /**
+     * Flushes one batch and reloads the stale variants. Returns the wait until the next round:
+     * none while there is work, so a backlog is written back to back.
+     */
+    private long flushRound() throws Exception {
+        long now = System.nanoTime();
+        if (now - nextEviction >= 0) {
+            evictIdle(now);
+            nextEviction = now + idleTimeoutNanos / 2;
+        }
+        List<Change> batch = nextBatch();
+        Set<UUID> stale = new LinkedHashSet<>();
+        if (!batch.isEmpty()) {
+            flush(batch, stale);
+        }
+        stale.addAll(refreshRequests);
+        refreshRequests.removeAll(stale);
+        reload(stale);
+        return batch.isEmpty() && stale.isEmpty() ? IDLE_WAIT.toNanos() : 0;
+    }
+
+    /**
+     * Completes every change queued before {@link #close}.
+     */
+    private void flushRemaining() {
+        List<Change> batch;
+        while (!(batch = nextBatch()).isEmpty()) {
+            flush(batch, new LinkedHashSet<>());
+        }
+    }
+
+    private List<Change> nextBatch() {
+        List<Change> batch = new ArrayList<>();
+        Change change;
+        while (batch.size() < maxBatch && (change = changes.poll()) != null) {
+            batch.add(change);
+        }
+        return batch;
+    }
+
+    private void flush(List<Change> batch, Set<UUID> stale) {
+        List<Change> remaining = batch;
+        while (!remaining.isEmpty()) {
+            Map<StockKey, Integer> deltas = new HashMap<>();
+            for (Change change : remaining) {
+                int sign = change.reserve() ? 1 : -1;
+                for (Allocation allocation : change.reservation().allocations()) {
+                    deltas.merge(allocation.row(), sign * allocation.quantity(), Integer::sum);
+                }
+            }
+            deltas.values().removeIf(delta -> delta == 0);
+
+            Set<StockKey> rejected;
+            try {
+                rejected = deltas.isEmpty() ? Set.of() : store.apply(deltas);
+            } catch (SQLException | RuntimeException e) {
+                for (Change change : remaining) {
+                    fail(change, e);
+                    stale.add(change.stock().variantId());
+                }
+                return;
+            }
+
+            List<Change> retry = new ArrayList<>();
+            for (Change change : remaining) {
+                if (rejected.isEmpty()) {
+                    succeed(change);
+                } else if (touches(change, rejected)) {
+                    fail(change, change.reserve()
+                            ? new InsufficientStockException(change.reservation().variantId(), change.reservation().quantity())
+                            : new IllegalStateException("Release exceeds reserved stock: " + change.reservation()));
+                    stale.add(change.stock().variantId());
+                } else {
+                    retry.add(change);
+                }
+            }
+            remaining = retry;
+        }
+    }
+
+    private static boolean touches(Change change, Set<StockKey> rows) {
+        for (Allocation allocation : change.reservation().allocations()) {
+            if (rows.contains(allocation.row())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void succeed(Change change) {
+        if (change.reserve()) {
+            change.stock().reserved(change.reservation(), true);
+        } else {
+            change.stock().released(change.reservation());
+        }
+        change.done().complete(change.reservation());
+    }
+
+    private static void fail(Change change, Exception cause) {
+        if (change.reserve()) {
+            change.stock().reserved(change.reservation(), false);
+        }
+        change.done().completeExceptionally(cause);
+    }
+
+    /**
+     * Reloads the variants, throwing the first failure after trying all of them. A variant that
+     * failed keeps its current state, which the database guard still protects, and is reloaded
+     * in a later round.
+     */
+    private void reload(Set<UUID> variantIds) throws Exception {
+        Exception failure = null;
+        for (UUID variantId : variantIds) {
+            VariantStock stock = variants.get(variantId);
+            if (stock == null) {
+                continue;
+            }
+            try {
+                stock.reload(store.load(variantId));
+            } catch (SQLException | RuntimeException e) {
+                refreshRequests.add(variantId);
+                if (failure == null) {
+                    failure = e;
+                } else if (failure != e) {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.openshop.database.inventory;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.UuidV7;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link AlertStore} over {@code inventory_stock} and {@code inventory_alerts}. Each read is one
+ * grouped query per chunk of pairs and each kind of write one JDBC batch, whatever the number of
+ * pairs.
+ */
+final class JdbcAlertStore implements AlertStore {
+
+    private static final String CHANGED_SQL =
+            "SELECT variant_id, location_id, MAX(last_updated) FROM inventory_stock%s GROUP BY variant_id, location_id";
+
+    private static final String POSITIONS_SQL = """
+            SELECT s.variant_id, s.location_id, v.product_id, v.sku,
+                   SUM(COALESCE(s.quantity_on_hand, 0) - COALESCE(s.quantity_reserved, 0)),
+                   MAX(COALESCE(s.low_stock_threshold, 0)), MAX(COALESCE(s.reorder_quantity, 0))
+            FROM inventory_stock s
+            JOIN product_variants v ON v.id = s.variant_id
+            WHERE (s.status IS NULL OR s.status <> 'discontinued')
+              AND (s.variant_id, s.location_id) IN (%s)
+            GROUP BY s.variant_id, s.location_id, v.product_id, v.sku""";
+
+    private static final String ALERT_COLUMNS = "id, alert_type, variant_id, location_id, status, severity, "
+            + "current_value, threshold_value, auto_resolve_enabled, auto_resolve_hours, updated_at";
+
+    private static final String OPEN_SQL = "SELECT " + ALERT_COLUMNS + " FROM inventory_alerts"
+            + " WHERE alert_type IN ('low_stock', 'reorder_needed') AND resolved_at IS NULL AND status <> 'resolved'"
+            + " AND (variant_id, location_id) IN (%s) ORDER BY created_at";
+
+    private static final String AUTO_RESOLVING_SQL = "SELECT " + ALERT_COLUMNS + " FROM inventory_alerts"
+            + " WHERE status IN ('active', 'acknowledged') AND auto_resolve_enabled = %s"
+            + " AND auto_resolve_hours IS NOT NULL";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO inventory_alerts (id, alert_type, severity, product_id, variant_id, location_id, title,
+                message, suggested_action, status, current_value, threshold_value, unit, auto_resolve_hours,
+                auto_resolve_enabled)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'active', ?, ?, 'units', ?, ?)""";
+
+    private static final String UPDATE_SQL = """
+            UPDATE inventory_alerts
+            SET severity = ?, current_value = ?, threshold_value = ?, message = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE id = ?""";
+
+    private static final String RESOLVE_SQL = """
+            UPDATE inventory_alerts
+            SET status = CASE WHEN status = 'dismissed' THEN status ELSE 'resolved' END, resolved_at = ?,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE id = ?""";
+
+    // Well below Oracle's limit of 1000 expressions per IN list
+    private static final int IN_LIST_LIMIT = 500;
+
+    // Two parameters per pair
+    private static final int SITES_PER_QUERY = IN_LIST_LIMIT / 2;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcAlertStore(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public Changes changedSince(Instant since) throws SQLException {
+        List<StockSite> sites = new ArrayList<>();
+        Instant newest = null;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(
+                     CHANGED_SQL.formatted(since == null ? "" : " WHERE last_updated > ?"))) {
+            if (since != null) {
+                stmt.setTimestamp(1, Timestamp.from(since));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sites.add(new StockSite(dialect.readUuid(rs, 1), dialect.readUuid(rs, 2)));
+                    Timestamp updated = rs.getTimestamp(3);
+                    if (updated != null && (newest == null || updated.toInstant().isAfter(newest))) {
+                        newest = updated.toInstant();
+                    }
+                }
+            }
+        }
+        return new Changes(sites, newest);
+    }
+
+    @Override
+    public List<StockPosition> positions(Collection<StockSite> sites) throws SQLException {
+        List<StockPosition> positions = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (List<StockSite> chunk : chunks(sites)) {
+                try (PreparedStatement stmt = connection.prepareStatement(POSITIONS_SQL.formatted(pairs(chunk)))) {
+                    bindSites(stmt, chunk);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            positions.add(new StockPosition(
+                                    new StockSite(dialect.readUuid(rs, 1), dialect.readUuid(rs, 2)),
+                                    dialect.readUuid(rs, 3), rs.getString(4), rs.getInt(5), rs.getInt(6),
+                                    rs.getInt(7)));
+                        }
+                    }
+                }
+            }
+        }
+        return positions;
+    }
+
+    @Override
+    public List<OpenAlert> openAlerts(Collection<StockSite> sites) throws SQLException {
+        List<OpenAlert> alerts = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (List<StockSite> chunk : chunks(sites)) {
+                try (PreparedStatement stmt = connection.prepareStatement(OPEN_SQL.formatted(pairs(chunk)))) {
+                    bindSites(stmt, chunk);
+                    readAlerts(stmt, alerts);
+                }
+            }
+        }
+        return alerts;
+    }
+
+    @Override
+    public List<OpenAlert> autoResolving() throws SQLException {
+        List<OpenAlert> alerts = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(
+                     AUTO_RESOLVING_SQL.formatted(dialect.booleanLiteral(true)))) {
+            readAlerts(stmt, alerts);
+        }
+        return alerts;
+    }
+
+    @Override
+    public void write(List<NewAlert> raised, List<AlertChange> changed, Collection<UUID> resolved, Instant now)
+            throws SQLException {
+        if (raised.isEmpty() && changed.isEmpty() && resolved.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (!raised.isEmpty()) {
+                    insert(connection, raised);
+                }
+                if (!changed.isEmpty()) {
+                    update(connection, changed);
+                }
+                if (!resolved.isEmpty()) {
+                    resolve(connection, resolved, now);
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void insert(Connection connection, List<NewAlert> alerts) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+            for (NewAlert alert : alerts) {
+                StockPosition position = alert.position();
+                dialect.bindUuid(stmt, 1, UuidV7.generate());
+                stmt.setString(2, alert.type().code());
+                stmt.setString(3, alert.severity().code());
+                dialect.bindUuid(stmt, 4, position.productId());
+                dialect.bindUuid(stmt, 5, position.site().variantId());
+                dialect.bindUuid(stmt, 6, position.site().locationId());
+                stmt.setString(7, alert.title());
+                stmt.setString(8, alert.message());
+                stmt.setString(9, alert.suggestedAction());
+                stmt.setInt(10, position.available());
+                stmt.setInt(11, alert.thresholdValue());
+                if (alert.autoResolveHours() == null) {
+                    stmt.setNull(12, Types.INTEGER);
+                } else {
+                    stmt.setInt(12, alert.autoResolveHours());
+                }
+                stmt.setBoolean(13, alert.autoResolveHours() != null);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void update(Connection connection, List<AlertChange> changes) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(UPDATE_SQL)) {
+            for (AlertChange change : changes) {
+                stmt.setString(1, change.severity().code());
+                stmt.setInt(2, change.currentValue());
+                stmt.setInt(3, change.thresholdValue());
+                stmt.setString(4, change.message());
+                dialect.bindUuid(stmt, 5, change.id());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void resolve(Connection connection, Collection<UUID> ids, Instant now) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(RESOLVE_SQL)) {
+            Timestamp resolvedAt = Timestamp.from(now);
+            for (UUID id : ids) {
+                stmt.setTimestamp(1, resolvedAt);
+                dialect.bindUuid(stmt, 2, id);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void readAlerts(PreparedStatement stmt, List<OpenAlert> alerts) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Timestamp updatedAt = rs.getTimestamp(11);
+                alerts.add(new OpenAlert(dialect.readUuid(rs, 1), rs.getString(2),
+                        new StockSite(dialect.readUuid(rs, 3), dialect.readUuid(rs, 4)), rs.getString(5),
+                        Severity.fromCode(rs.getString(6)), integer(rs, 7), integer(rs, 8), rs.getBoolean(9),
+                        integer(rs, 10), updatedAt == null ? null : updatedAt.toInstant()));
+            }
+        }
+    }
+
+    private void bindSites(PreparedStatement stmt, List<StockSite> sites) throws SQLException {
+        int index = 1;
+        for (StockSite site : sites) {
+            dialect.bindUuid(stmt, index++, site.variantId());
+            dialect.bindUuid(stmt, index++, site.locationId());
+        }
+    }
+
+    private static List<List<StockSite>> chunks(Collection<StockSite> sites) {
+        List<StockSite> list = new ArrayList<>(sites);
+        List<List<StockSite>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += SITES_PER_QUERY) {
+            chunks.add(list.subList(from, Math.min(list.size(), from + SITES_PER_QUERY)));
+        }
+        return chunks;
+    }
+
+    private static String pairs(List<StockSite> chunk) {
+        return String.join(", ", Collections.nCopies(chunk.size(), "(?, ?)"));
+    }
+
+    private static Integer integer(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
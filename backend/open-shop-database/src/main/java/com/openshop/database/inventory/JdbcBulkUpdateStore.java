@@ -0,0 +1,331 @@
+package com.openshop.database.inventory;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Json;
+import com.openshop.database.UuidV7;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * {@link BulkUpdateStore} over {@code inventory_stock} and {@code inventory_log}.
+ *
+ * <p>A batch takes a fixed number of round trips whatever its size: the referenced variants,
+ * suppliers and locations are checked with IN lists, the existing rows are read and locked with
+ * one {@code SELECT ... FOR UPDATE} per chunk of keys, and the changed rows are written with the
+ * dialect's upsert ({@code ON CONFLICT}, {@code ON DUPLICATE KEY UPDATE}, {@code MERGE}) and their
+ * log rows with an insert, each as one JDBC batch. Rows are written in key order, like
+ * {@link JdbcStockStore}, so concurrent uploads cannot deadlock each other.</p>
+ *
+ * <p>A row that did not exist when the batch was locked but was inserted by another transaction
+ * before the upsert is overwritten and logged as an insert.</p>
+ */
+final class JdbcBulkUpdateStore implements BulkUpdateStore {
+
+    private static final List<String> KEY_COLUMNS = List.of("variant_id", "supplier_id", "location_id", "supplied_date");
+
+    private static final List<String> VALUE_COLUMNS = List.of("cost_price", "supplier_sku", "batch_reference",
+            "quantity_on_hand", "low_stock_threshold", "reorder_quantity", "status", "expiry_date");
+
+    private static final String LOCK_SQL = """
+            SELECT variant_id, supplier_id, location_id, supplied_date, cost_price, supplier_sku, batch_reference,
+                   quantity_on_hand, quantity_reserved, low_stock_threshold, reorder_quantity, status, expiry_date
+            FROM inventory_stock
+            WHERE (variant_id, supplier_id, location_id, supplied_date) IN (%s)
+            FOR UPDATE""";
+
+    private static final String LOG_SQL = """
+            INSERT INTO inventory_log (id, entity_type, product_id, variant_id, supplier_id, location_id,
+                operation_type, old_values, new_values, quantity_change, quantity_before, quantity_after,
+                reason, reference_type, reference_id, admin_user_id, admin_username)
+            VALUES (?, 'stock_movement', ?, ?, ?, ?, ?, %s, %s, ?, ?, ?, ?, 'bulk_update', ?, ?, ?)""";
+
+    // Defaults of the inventory_stock columns a new row leaves out
+    private static final int DEFAULT_LOW_STOCK_THRESHOLD = 10;
+    private static final int DEFAULT_REORDER_QUANTITY = 50;
+    private static final String DEFAULT_STATUS = "active";
+
+    // Well below Oracle's limit of 1000 expressions per IN list
+    private static final int IN_LIST_LIMIT = 500;
+
+    // Four parameters per key, so a lock statement binds at most IN_LIST_LIMIT values
+    private static final int KEYS_PER_LOCK = IN_LIST_LIMIT / 4;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+    private final String upsertSql;
+    private final String logSql;
+
+    JdbcBulkUpdateStore(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+        this.upsertSql = dialect.upsert("inventory_stock", KEY_COLUMNS, VALUE_COLUMNS);
+        String json = dialect == Dialect.POSTGRESQL ? "CAST(? AS jsonb)" : "?";
+        this.logSql = LOG_SQL.formatted(json, json);
+    }
+
+    @Override
+    public List<Outcome> apply(List<StockUpdate> rows, BulkUpdateAttribution attribution) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                List<Outcome> outcomes = apply(connection, rows, attribution);
+                connection.commit();
+                return outcomes;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private List<Outcome> apply(Connection connection, List<StockUpdate> rows, BulkUpdateAttribution attribution)
+            throws SQLException {
+        Map<UUID, UUID> products = find(connection, "SELECT id, product_id FROM product_variants WHERE id IN (%s)",
+                rows.stream().map(row -> row.key().variantId()).collect(Collectors.toSet()));
+        Map<UUID, UUID> suppliers = find(connection, "SELECT id FROM suppliers WHERE id IN (%s)",
+                rows.stream().map(row -> row.key().supplierId()).collect(Collectors.toSet()));
+        Map<UUID, UUID> locations = find(connection, "SELECT id FROM inventory_locations WHERE id IN (%s)",
+                rows.stream().map(row -> row.key().locationId()).collect(Collectors.toSet()));
+
+        List<Outcome> outcomes = new ArrayList<>(Collections.nCopies(rows.size(), null));
+        Map<StockKey, Integer> positions = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            StockKey key = rows.get(i).key();
+            if (!products.containsKey(key.variantId())) {
+                outcomes.set(i, Outcome.rejected("variant_id does not exist: " + key.variantId()));
+            } else if (!suppliers.containsKey(key.supplierId())) {
+                outcomes.set(i, Outcome.rejected("supplier_id does not exist: " + key.supplierId()));
+            } else if (!locations.containsKey(key.locationId())) {
+                outcomes.set(i, Outcome.rejected("location_id does not exist: " + key.locationId()));
+            } else {
+                positions.put(key, i);
+            }
+        }
+
+        Map<StockKey, StockRow> existing = lock(connection, positions.keySet());
+        List<StockKey> keys = new ArrayList<>(positions.keySet());
+        keys.sort(JdbcStockStore.KEY_ORDER);
+        List<StockChange> changes = new ArrayList<>(keys.size());
+        for (StockKey key : keys) {
+            int position = positions.get(key);
+            StockUpdate row = rows.get(position);
+            StockRow before = existing.get(key);
+            if (before != null && row.quantityOnHand() < before.reserved()) {
+                outcomes.set(position, Outcome.rejected("quantity_on_hand " + row.quantityOnHand()
+                        + " is below the reserved quantity " + before.reserved()));
+                continue;
+            }
+            StockRow after = StockRow.merge(before, row);
+            if (after.equals(before)) {
+                outcomes.set(position, Outcome.UNCHANGED);
+                continue;
+            }
+            changes.add(new StockChange(key, products.get(key.variantId()), before, after));
+            outcomes.set(position, before == null ? Outcome.INSERTED : Outcome.UPDATED);
+        }
+        if (!changes.isEmpty()) {
+            upsert(connection, changes);
+            log(connection, changes, attribution);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Looks up ids and maps each one found to the last selected column, the id itself when it is
+     * the only one.
+     */
+    private Map<UUID, UUID> find(Connection connection, String sql, Collection<UUID> ids) throws SQLException {
+        List<UUID> list = new ArrayList<>(ids);
+        Map<UUID, UUID> found = new HashMap<>();
+        for (int from = 0; from < list.size(); from += IN_LIST_LIMIT) {
+            List<UUID> chunk = list.subList(from, Math.min(list.size(), from + IN_LIST_LIMIT));
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    sql.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?"))))) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    dialect.bindUuid(stmt, i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    int columns = rs.getMetaData().getColumnCount();
+                    while (rs.next()) {
+                        found.put(dialect.readUuid(rs, 1), dialect.readUuid(rs, columns));
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private Map<StockKey, StockRow> lock(Connection connection, Set<StockKey> keySet) throws SQLException {
+        List<StockKey> keys = new ArrayList<>(keySet);
+        keys.sort(JdbcStockStore.KEY_ORDER);
+        Map<StockKey, StockRow> rows = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += KEYS_PER_LOCK) {
+            List<StockKey> chunk = keys.subList(from, Math.min(keys.size(), from + KEYS_PER_LOCK));
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    LOCK_SQL.formatted(String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?)"))))) {
+                int index = 1;
+                for (StockKey key : chunk) {
+                    index = bindKey(stmt, index, key);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        StockKey key = new StockKey(dialect.readUuid(rs, 1), dialect.readUuid(rs, 2),
+                                dialect.readUuid(rs, 3), rs.getDate(4).toLocalDate());
+                        Date expiry = rs.getDate(13);
+                        rows.put(key, new StockRow(rs.getBigDecimal(5).setScale(2, RoundingMode.UNNECESSARY),
+                                rs.getString(6), rs.getString(7), rs.getInt(8), rs.getInt(9), integer(rs, 10),
+                                integer(rs, 11), rs.getString(12), expiry == null ? null : expiry.toLocalDate()));
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private void upsert(Connection connection, List<StockChange> changes) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(upsertSql)) {
+            for (StockChange change : changes) {
+                StockRow row = change.after();
+                int index = bindKey(stmt, 1, change.key());
+                stmt.setBigDecimal(index++, row.costPrice());
+                setString(stmt, index++, row.supplierSku());
+                setString(stmt, index++, row.batchReference());
+                stmt.setInt(index++, row.onHand());
+                setInteger(stmt, index++, row.lowStockThreshold());
+                setInteger(stmt, index++, row.reorderQuantity());
+                setString(stmt, index++, row.status());
+                if (row.expiryDate() == null) {
+                    stmt.setNull(index, Types.DATE);
+                } else {
+                    stmt.setDate(index, Date.valueOf(row.expiryDate()));
+                }
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void log(Connection connection, List<StockChange> changes, BulkUpdateAttribution attribution)
+            throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(logSql)) {
+            for (StockChange change : changes) {
+                StockKey key = change.key();
+                int before = change.before() == null ? 0 : change.before().onHand();
+                int after = change.after().onHand();
+                dialect.bindUuid(stmt, 1, UuidV7.generate());
+                dialect.bindUuid(stmt, 2, change.productId());
+                dialect.bindUuid(stmt, 3, key.variantId());
+                dialect.bindUuid(stmt, 4, key.supplierId());
+                dialect.bindUuid(stmt, 5, key.locationId());
+                stmt.setString(6, change.before() == null ? "insert" : "update");
+                setString(stmt, 7, change.before() == null ? null : change.before().json());
+                stmt.setString(8, change.after().json());
+                stmt.setInt(9, after - before);
+                stmt.setInt(10, before);
+                stmt.setInt(11, after);
+                setString(stmt, 12, attribution.reason());
+                setString(stmt, 13, attribution.referenceId());
+                dialect.bindUuid(stmt, 14, attribution.adminUserId());
+                setString(stmt, 15, attribution.adminUsername());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private int bindKey(PreparedStatement stmt, int index, StockKey key) throws SQLException {
+        dialect.bindUuid(stmt, index, key.variantId());
+        dialect.bindUuid(stmt, index + 1, key.supplierId());
+        dialect.bindUuid(stmt, index + 2, key.locationId());
+        stmt.setDate(index + 3, Date.valueOf(key.suppliedDate()));
+        return index + 4;
+    }
+
+    private static void setString(PreparedStatement stmt, int index, String value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, Types.VARCHAR);
+        } else {
+            stmt.setString(index, value);
+        }
+    }
+
+    private static void setInteger(PreparedStatement stmt, int index, Integer value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, Types.INTEGER);
+        } else {
+            stmt.setInt(index, value);
+        }
+    }
+
+    private static Integer integer(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * The values of an {@code inventory_stock} row a bulk update writes.
+     */
+    private record StockRow(BigDecimal costPrice, String supplierSku, String batchReference, int onHand,
+                            int reserved, Integer lowStockThreshold, Integer reorderQuantity, String status,
+                            LocalDate expiryDate) {
+
+        /**
+         * The row after applying {@code update}: values the update leaves out keep their current
+         * value or, for a new row, take the column default.
+         */
+        static StockRow merge(StockRow current, StockUpdate update) {
+            BigDecimal costPrice = update.costPrice().setScale(2, RoundingMode.UNNECESSARY);
+            if (current == null) {
+                return new StockRow(costPrice, update.supplierSku(), update.batchReference(),
+                        update.quantityOnHand(), 0,
+                        Objects.requireNonNullElse(update.lowStockThreshold(), DEFAULT_LOW_STOCK_THRESHOLD),
+                        Objects.requireNonNullElse(update.reorderQuantity(), DEFAULT_REORDER_QUANTITY),
+                        Objects.requireNonNullElse(update.status(), DEFAULT_STATUS), update.expiryDate());
+            }
+            return new StockRow(costPrice,
+                    update.supplierSku() != null ? update.supplierSku() : current.supplierSku(),
+                    update.batchReference() != null ? update.batchReference() : current.batchReference(),
+                    update.quantityOnHand(), current.reserved(),
+                    update.lowStockThreshold() != null ? update.lowStockThreshold() : current.lowStockThreshold(),
+                    update.reorderQuantity() != null ? update.reorderQuantity() : current.reorderQuantity(),
+                    update.status() != null ? update.status() : current.status(),
+                    update.expiryDate() != null ? update.expiryDate() : current.expiryDate());
+        }
+
+        String json() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("cost_price", costPrice);
+            values.put("supplier_sku", supplierSku);
+            values.put("batch_reference", batchReference);
+            values.put("quantity_on_hand", onHand);
+            values.put("low_stock_threshold", lowStockThreshold);
+            values.put("reorder_quantity", reorderQuantity);
+            values.put("status", status);
+            values.put("expiry_date", expiryDate == null ? null : expiryDate.toString());
+            return Json.write(values);
+        }
+    }
+
+    private record StockChange(StockKey key, UUID productId, StockRow before, StockRow after) {
+    }
+}
@@ -0,0 +1,202 @@
+package com.openshop.database.inventory;
+
+import com.openshop.database.Json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a JSON array of row objects, either at the top level or as the {@code updates} property
+ * of the top-level object. Only one element is held in memory at a time: the reader finds where
+ * an element ends and hands just that element to {@link Json#parse}, so an invalid element is
+ * reported and the next one is read.
+ */
+final class JsonUploadReader implements UploadReader {
+
+    private static final String ROWS_PROPERTY = "updates";
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader in;
+    private int peeked = -2;
+    private long index;
+    private boolean started;
+    private boolean done;
+
+    JsonUploadReader(Reader in) {
+        this.in = in instanceof BufferedReader ? in : new BufferedReader(in);
+    }
+
+    @Override
+    public UploadRow next() throws IOException {
+        if (!started) {
+            started = true;
+            openArray();
+        }
+        if (done) {
+            return null;
+        }
+        int ch = skipWhitespace();
+        if (index > 0) {
+            if (ch == ']') {
+                done = true;
+                return null;
+            }
+            if (ch != ',') {
+                return fail("expected ',' or ']' after element " + index);
+            }
+            read();
+            ch = skipWhitespace();
+        } else if (ch == ']') {
+            done = true;
+            return null;
+        }
+        index++;
+        if (ch == -1) {
+            return fail("unexpected end of input");
+        }
+        String element = captureValue();
+        if (element == null) {
+            return fail("unterminated element");
+        }
+        Object value;
+        try {
+            value = Json.parse(element);
+        } catch (IllegalArgumentException e) {
+            return UploadRow.invalid(index, "invalid JSON: " + e.getMessage());
+        }
+        if (!(value instanceof Map<?, ?> object)) {
+            return UploadRow.invalid(index, "expected an object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<?, ?> entry : object.entrySet()) {
+            Object field = entry.getValue();
+            if (field != null) {
+                fields.put(String.valueOf(entry.getKey()),
+                        field instanceof Map || field instanceof List ? Json.write(field) : String.valueOf(field));
+            }
+        }
+        return new UploadRow(index, fields, null);
+    }
+
+    private UploadRow fail(String error) {
+        done = true;
+        return UploadRow.invalid(index, error);
+    }
+
+    /**
+     * Positions the reader after the opening bracket of the row array.
+     */
+    private void openArray() throws IOException {
+        if (peek() == BYTE_ORDER_MARK) {
+            read();
+        }
+        int ch = skipWhitespace();
+        if (ch == '{') {
+            read();
+            while (true) {
+                ch = skipWhitespace();
+                if (ch != '"') {
+                    throw new IllegalArgumentException("The upload has no '" + ROWS_PROPERTY + "' array");
+                }
+                String name = captureValue();
+                if (skipWhitespace() != ':') {
+                    throw new IllegalArgumentException("The upload is not valid JSON");
+                }
+                read();
+                skipWhitespace();
+                if (("\"" + ROWS_PROPERTY + "\"").equals(name)) {
+                    break;
+                }
+                if (captureValue() == null) {
+                    throw new IllegalArgumentException("The upload is not valid JSON");
+                }
+                if (skipWhitespace() == ',') {
+                    read();
+                }
+            }
+            ch = skipWhitespace();
+        }
+        if (ch != '[') {
+            throw new IllegalArgumentException("The upload must be a JSON array of rows");
+        }
+        read();
+    }
+
+    /**
+     * Reads the text of the value starting at the next character, or returns {@code null} when
+     * the input ends inside it.
+     */
+    private String captureValue() throws IOException {
+        StringBuilder value = new StringBuilder();
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        while (true) {
+            int ch = peek();
+            if (ch == -1) {
+                return depth == 0 && !inString && !value.isEmpty() ? value.toString() : null;
+            }
+            if (inString) {
+                read();
+                value.append((char) ch);
+                if (escaped) {
+                    escaped = false;
+                } else if (ch == '\\') {
+                    escaped = true;
+                } else if (ch == '"') {
+                    inString = false;
+                    if (depth == 0) {
+                        return value.toString();
+                    }
+                }
+            } else if (ch == '{' || ch == '[') {
+                read();
+                value.append((char) ch);
+                depth++;
+            } else if (ch == '}' || ch == ']') {
+                if (depth == 0) {
+                    return value.toString();
+                }
+                read();
+                value.append((char) ch);
+                if (--depth == 0) {
+                    return value.toString();
+                }
+            } else if (depth == 0 && (ch == ',' || Character.isWhitespace(ch))) {
+                return value.toString();
+            } else {
+                read();
+                value.append((char) ch);
+                if (ch == '"') {
+                    inString = true;
+                }
+            }
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int ch = peek();
+        while (ch != -1 && Character.isWhitespace(ch)) {
+            read();
+            ch = peek();
+        }
+        return ch;
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = in.read();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        int ch = peek();
+        peeked = -2;
+        return ch;
+    }
+}
@@ -0,0 +1,21 @@
+package com.openshop.database.inventory;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stock held for one checkout, split over the batches it was taken from.
+ *
+ * @param variantId   reserved variant
+ * @param quantity    total quantity, the sum of the allocations
+ * @param allocations quantity taken from each {@code inventory_stock} row, oldest batch first
+ */
+public record Reservation(UUID variantId, int quantity, List<Allocation> allocations) {
+
+    public Reservation {
+        allocations = List.copyOf(allocations);
+    }
+
+    public record Allocation(StockKey row, int quantity) {
+    }
+}
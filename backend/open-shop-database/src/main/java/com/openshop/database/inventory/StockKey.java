@@ -0,0 +1,10 @@
+package com.openshop.database.inventory;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Primary key of one {@code inventory_stock} row: a batch of a variant from one supplier at one location.
+ */
+public record StockKey(UUID variantId, UUID supplierId, UUID locationId, LocalDate suppliedDate) {
+}
@@ -0,0 +1,29 @@
+package com.openshop.database.inventory;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Persistence of reservation state, separated from {@link InventoryReservations} so the
+ * concurrency logic can be exercised without a database.
+ */
+interface StockStore {
+
+    /**
+     * Sellable rows of one variant with their persisted quantities, oldest batch first.
+     */
+    List<StockLevel> load(UUID variantId) throws SQLException;
+
+    /**
+     * Adds the deltas to {@code quantity_reserved} in one transaction. A positive delta must not
+     * raise the reserved quantity above {@code quantity_on_hand} and no delta may take it below
+     * zero; rows that would are returned and nothing is applied.
+     */
+    Set<StockKey> apply(Map<StockKey, Integer> deltas) throws SQLException;
+
+    record StockLevel(StockKey key, int onHand, int reserved) {
+    }
+}
@@ -0,0 +1,173 @@
+package com.openshop.database.inventory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One row of a bulk inventory upload, checked against the constraints of {@code inventory_stock}
+ * that do not need the database. Optional values are {@code null} when the row leaves them out:
+ * an existing row keeps its value, a new row gets the column default.
+ */
+record StockUpdate(StockKey key, BigDecimal costPrice, int quantityOnHand, String supplierSku, String batchReference,
+                   Integer lowStockThreshold, Integer reorderQuantity, String status, LocalDate expiryDate) {
+
+    static final Set<String> STATUSES = Set.of("active", "discontinued", "out_of_stock", "backordered");
+
+    // DECIMAL(12,2): at most 10 digits before the point
+    private static final BigDecimal MAX_COST_PRICE = new BigDecimal("9999999999.99");
+    private static final int MAX_TEXT_LENGTH = 100;
+
+    // Field names are matched ignoring case, underscores and dashes, so CSV headers in column
+    // names and JSON properties in camel case both work; the API's names are accepted as aliases
+    private static final Map<String, String> ALIASES = Map.of(
+            "stockquantity", "quantityonhand",
+            "minimumthreshold", "lowstockthreshold");
+
+    private static final List<String> REQUIRED = List.of(
+            "variant_id", "supplier_id", "location_id", "supplied_date", "cost_price", "quantity_on_hand");
+
+    /**
+     * Required columns not among {@code names}, so a CSV header can be rejected before any row is read.
+     */
+    static List<String> missing(Collection<String> names) {
+        Set<String> present = new HashSet<>();
+        for (String name : names) {
+            String normalized = normalize(name);
+            present.add(ALIASES.getOrDefault(normalized, normalized));
+        }
+        List<String> missing = new ArrayList<>();
+        for (String column : REQUIRED) {
+            if (!present.contains(normalize(column))) {
+                missing.add(column);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Parses the fields of a row, keyed by column name.
+     *
+     * @throws IllegalArgumentException naming the first field that is missing or invalid
+     */
+    static StockUpdate parse(Map<String, String> fields) {
+        Map<String, String> values = new HashMap<>();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            String name = normalize(field.getKey());
+            String value = field.getValue() == null ? "" : field.getValue().strip();
+            if (!value.isEmpty()) {
+                values.put(ALIASES.getOrDefault(name, name), value);
+            }
+        }
+        StockKey key = new StockKey(uuid(values, "variant_id"), uuid(values, "supplier_id"),
+                uuid(values, "location_id"), date(required(values, "supplied_date"), "supplied_date"));
+
+        BigDecimal costPrice = decimal(required(values, "cost_price"), "cost_price");
+        if (costPrice.signum() <= 0) {
+            throw new IllegalArgumentException("cost_price must be greater than 0");
+        }
+        if (costPrice.scale() > 2 || costPrice.compareTo(MAX_COST_PRICE) > 0) {
+            throw new IllegalArgumentException("cost_price must fit DECIMAL(12,2): " + costPrice.toPlainString());
+        }
+
+        String status = optional(values, "status");
+        if (status != null) {
+            status = status.toLowerCase(Locale.ROOT);
+            if (status.equals("backorder")) {
+                status = "backordered";
+            }
+            if (!STATUSES.contains(status)) {
+                throw new IllegalArgumentException("status must be one of " + STATUSES + ": " + status);
+            }
+        }
+        String expiry = optional(values, "expiry_date");
+        return new StockUpdate(key, costPrice,
+                nonNegative(required(values, "quantity_on_hand"), "quantity_on_hand"),
+                text(values, "supplier_sku"), text(values, "batch_reference"),
+                optionalNonNegative(values, "low_stock_threshold"), optionalNonNegative(values, "reorder_quantity"),
+                status, expiry == null ? null : date(expiry, "expiry_date"));
+    }
+
+    private static String normalize(String name) {
+        StringBuilder out = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (ch != '_' && ch != '-' && ch != ' ') {
+                out.append(Character.toLowerCase(ch));
+            }
+        }
+        return out.toString();
+    }
+
+    private static String required(Map<String, String> values, String column) {
+        String value = optional(values, column);
+        if (value == null) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> values, String column) {
+        return values.get(normalize(column));
+    }
+
+    private static UUID uuid(Map<String, String> values, String column) {
+        String value = required(values, column);
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(column + " is not a UUID: " + value);
+        }
+    }
+
+    private static LocalDate date(String value, String column) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column + " is not a date (yyyy-MM-dd): " + value);
+        }
+    }
+
+    private static BigDecimal decimal(String value, String column) {
+        try {
+            return new BigDecimal(value).stripTrailingZeros();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private static int nonNegative(String value, String column) {
+        int number;
+        try {
+            number = new BigDecimal(value).intValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a whole number: " + value);
+        }
+        if (number < 0) {
+            throw new IllegalArgumentException(column + " must not be negative: " + number);
+        }
+        return number;
+    }
+
+    private static Integer optionalNonNegative(Map<String, String> values, String column) {
+        String value = optional(values, column);
+        return value == null ? null : nonNegative(value, column);
+    }
+
+    private static String text(Map<String, String> values, String column) {
+        String value = optional(values, column);
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(column + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+}
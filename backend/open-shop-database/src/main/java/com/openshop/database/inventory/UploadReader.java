@@ -0,0 +1,29 @@
+package com.openshop.database.inventory;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reads the rows of a bulk inventory upload one at a time, so an upload of any size is
+ * processed in constant memory.
+ */
+interface UploadReader {
+
+    /**
+     * The next row, or {@code null} after the last one.
+     */
+    UploadRow next() throws IOException;
+
+    /**
+     * One row of an upload: its fields by name, or the reason it could not be read.
+     *
+     * @param number position of the row as reported back: the line a CSV record starts on,
+     *               the 1-based index of a JSON array element
+     */
+    record UploadRow(long number, Map<String, String> fields, String error) {
+
+        static UploadRow invalid(long number, String error) {
+            return new UploadRow(number, Map.of(), error);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.openshop.database.inventory;
+
+import com.openshop.database.inventory.Reservation.Allocation;
+import com.openshop.database.inventory.StockStore.StockLevel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free reservation state of one variant.
+ *
+ * <p>All quantities of the variant live in one immutable {@link Levels} value that is swapped
+ * with compare-and-set, so a reservation spanning several batches is all-or-nothing and readers
+ * never see a half-applied allocation. For every row the state keeps what the database has
+ * persisted as unreserved ({@code on_hand - reserved}) and what has been granted in memory but
+ * not yet flushed; only the difference can be granted.</p>
+ */
+final class VariantStock {
+
+    record Levels(List<StockKey> rows, int[] persisted, int[] pending) {
+
+        int remaining(int row) {
+            return persisted[row] - pending[row];
+        }
+
+        int available() {
+            int total = 0;
+            for (int row = 0; row < rows.size(); row++) {
+                total += Math.max(0, remaining(row));
+            }
+            return total;
+        }
+
+        int indexOf(StockKey key) {
+            return rows.indexOf(key);
+        }
+    }
+
+    private final UUID variantId;
+    private final AtomicReference<Levels> levels;
+    private volatile long lastUsed;
+
+    VariantStock(UUID variantId, List<StockLevel> stock) {
+        this.variantId = variantId;
+        this.levels = new AtomicReference<>(fromStore(stock, null));
+    }
+
+    UUID variantId() {
+        return variantId;
+    }
+
+    int available() {
+        return levels.get().available();
+    }
+
+    /**
+     * Records a use at {@code nanoTime}, which keeps the variant loaded.
+     */
+    void touch(long nanoTime) {
+        lastUsed = nanoTime;
+    }
+
+    long lastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * Whether no grant is waiting for its flush.
+     */
+    boolean settled() {
+        for (int quantity : levels.get().pending()) {
+            if (quantity != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Grants {@code quantity} from the oldest batches first, or returns {@code null} if the
+     * variant does not have that much unreserved stock.
+     */
+    Reservation reserve(int quantity) {
+        while (true) {
+            Levels current = levels.get();
+            int[] pending = current.pending().clone();
+            List<Allocation> allocations = new ArrayList<>();
+            int needed = quantity;
+            for (int row = 0; row < pending.length && needed > 0; row++) {
+                int take = Math.min(needed, current.remaining(row));
+                if (take > 0) {
+                    pending[row] += take;
+                    needed -= take;
+                    allocations.add(new Allocation(current.rows().get(row), take));
+                }
+            }
+            if (needed > 0) {
+                return null;
+            }
+            if (levels.compareAndSet(current, new Levels(current.rows(), current.persisted(), pending))) {
+                return new Reservation(variantId, quantity, allocations);
+            }
+        }
+    }
+
+    /**
+     * Settles a flushed reservation: on success the quantity moves from pending to persisted,
+     * otherwise it is handed back.
+     */
+    void reserved(Reservation reservation, boolean persisted) {
+        update(reservation, persisted ? -1 : 0, -1);
+    }
+
+    /**
+     * Makes released stock grantable again once the release is persisted.
+     */
+    void released(Reservation reservation) {
+        update(reservation, 1, 0);
+    }
+
+    /**
+     * Replaces the persisted quantities with a fresh read, keeping grants still waiting for a flush.
+     */
+    void reload(List<StockLevel> stock) {
+        while (true) {
+            Levels current = levels.get();
+            if (levels.compareAndSet(current, fromStore(stock, current))) {
+                return;
+            }
+        }
+    }
+
+    private void update(Reservation reservation, int persistedSign, int pendingSign) {
+        while (true) {
+            Levels current = levels.get();
+            int[] persisted = current.persisted().clone();
+            int[] pending = current.pending().clone();
+            for (Allocation allocation : reservation.allocations()) {
+                int row = current.indexOf(allocation.row());
+                if (row >= 0) {
+                    persisted[row] += persistedSign * allocation.quantity();
+                    pending[row] += pendingSign * allocation.quantity();
+                }
+            }
+            if (levels.compareAndSet(current, new Levels(current.rows(), persisted, pending))) {
+                return;
+            }
+        }
+    }
+
+    private static Levels fromStore(List<StockLevel> stock, Levels previous) {
+        List<StockKey> rows = new ArrayList<>(stock.size());
+        int[] persisted = new int[stock.size()];
+        int[] pending = new int[stock.size()];
+        for (int row = 0; row < stock.size(); row++) {
+            StockLevel level = stock.get(row);
+            rows.add(level.key());
+            persisted[row] = level.onHand() - level.reserved();
+            int before = previous == null ? -1 : previous.indexOf(level.key());
+            pending[row] = before < 0 ? 0 : previous.pending()[before];
+        }
+        return new Levels(List.copyOf(rows), persisted, pending);
+    }
+}
@@ -0,0 +1,102 @@
+package com.openshop.database.jdbc;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Data access to the Open Shop schema shared by services. A service configures its data source,
+ * dialect, batch size and fetch size once and runs its statements in {@link UnitOfWork units of
+ * work}. It does not hand-roll statement reuse, batching, fetch sizes and UUID binding for each of
+ * the three dialects.
+ *
+ * <pre>{@code
+ * DataAccess data = new DataAccess(dataSource, Dialect.POSTGRESQL);
+ * data.inTransaction(unit -> {
+ *     for (OrderItem item : items) {
+ *         unit.update("INSERT INTO order_items (id, order_id, variant_id, quantity) VALUES (?, ?, ?, ?)",
+ *                 p -> p.uuid(UuidV7.generate()).uuid(orderId).uuid(item.variantId()).integer(item.quantity()));
+ *     }
+ *     return null;
+ * });
+ * }</pre>
+ */
+public final class DataAccess {
+
+    /**
+     * Rows sent per JDBC batch, unless configured otherwise.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * Rows read per round trip, unless configured otherwise.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1_000;
+
+    /**
+     * Prepared statements kept open per unit of work, unless configured otherwise.
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+    private final int batchSize;
+    private final int fetchSize;
+    private final int statementCacheSize;
+
+    public DataAccess(DataSource dataSource, Dialect dialect) {
+        this(dataSource, dialect, DEFAULT_BATCH_SIZE, DEFAULT_FETCH_SIZE, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    public DataAccess(DataSource dataSource, Dialect dialect, int batchSize, int fetchSize, int statementCacheSize) {
+        if (batchSize < 1 || fetchSize < 1 || statementCacheSize < 1) {
+            throw new IllegalArgumentException("batchSize, fetchSize and statementCacheSize must be positive");
+        }
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public Dialect dialect() {
+        return dialect;
+    }
+
+    /**
+     * Opens a unit of work on a new connection. The caller commits it and closes it, which rolls
+     * back whatever was not committed.
+     */
+    public UnitOfWork begin() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            return new UnitOfWork(connection, dialect, batchSize, fetchSize, statementCacheSize);
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs {@code work} in a unit of work and commits it, or rolls it back when {@code work}
+     * throws.
+     */
+    public <T> T inTransaction(Work<T> work) throws SQLException {
+        try (UnitOfWork unit = begin()) {
+            T result = work.run(unit);
+            unit.commit();
+            return result;
+        }
+    }
+
+    /**
+     * Statements run in one transaction.
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+
+        T run(UnitOfWork unit) throws SQLException;
+    }
+}
@@ -0,0 +1,113 @@
+package com.openshop.database.jdbc;
+
+import com.openshop.database.Dialect;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Binds the parameters of a statement in order, in the representation the dialect's columns use.
+ * A {@code null} value binds SQL {@code NULL}.
+ */
+public final class Parameters {
+
+    private final PreparedStatement stmt;
+    private final Dialect dialect;
+    private int index = 1;
+
+    Parameters(PreparedStatement stmt, Dialect dialect) {
+        this.stmt = stmt;
+        this.dialect = dialect;
+    }
+
+    /**
+     * Binds a UUID key: native UUID on PostgreSQL, 16 bytes on MySQL and Oracle.
+     */
+    public Parameters uuid(UUID value) throws SQLException {
+        dialect.bindUuid(stmt, index++, value);
+        return this;
+    }
+
+    public Parameters string(String value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index++, Types.VARCHAR);
+        } else {
+            stmt.setString(index++, value);
+        }
+        return this;
+    }
+
+    public Parameters integer(Integer value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index++, Types.INTEGER);
+        } else {
+            stmt.setInt(index++, value);
+        }
+        return this;
+    }
+
+    public Parameters longValue(Long value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index++, Types.BIGINT);
+        } else {
+            stmt.setLong(index++, value);
+        }
+        return this;
+    }
+
+    public Parameters decimal(BigDecimal value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index++, Types.DECIMAL);
+        } else {
+            stmt.setBigDecimal(index++, value);
+        }
+        return this;
+    }
+
+    /**
+     * Binds a flag, which Oracle stores as {@code NUMBER(1)}.
+     */
+    public Parameters bool(Boolean value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index++, Types.BOOLEAN);
+        } else if (dialect == Dialect.ORACLE) {
+            stmt.setInt(index++, value ? 1 : 0);
+        } else {
+            stmt.setBoolean(index++, value);
+        }
+        return this;
+    }
+
+    public Parameters timestamp(Instant value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index++, Types.TIMESTAMP);
+        } else {
+            stmt.setTimestamp(index++, Timestamp.from(value));
+        }
+        return this;
+    }
+
+    public Parameters date(LocalDate value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index++, Types.DATE);
+        } else {
+            stmt.setDate(index++, Date.valueOf(value));
+        }
+        return this;
+    }
+
+    /**
+     * Binds a value of any other type the driver accepts.
+     */
+    public Parameters object(Object value) throws SQLException {
+        stmt.setObject(index++, value);
+        return this;
+    }
+}
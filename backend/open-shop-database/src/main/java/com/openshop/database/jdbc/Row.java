@@ -0,0 +1,74 @@
+package com.openshop.database.jdbc;
+
+import com.openshop.database.Dialect;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * The current row of a result, read by column position in the representation the dialect's
+ * columns use. SQL {@code NULL} reads as {@code null}.
+ */
+public final class Row {
+
+    private final ResultSet rs;
+    private final Dialect dialect;
+
+    Row(ResultSet rs, Dialect dialect) {
+        this.rs = rs;
+        this.dialect = dialect;
+    }
+
+    /**
+     * Reads a UUID key bound with {@link Parameters#uuid}.
+     */
+    public UUID uuid(int column) throws SQLException {
+        return dialect.readUuid(rs, column);
+    }
+
+    public String string(int column) throws SQLException {
+        return rs.getString(column);
+    }
+
+    public Integer integer(int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    public Long longValue(int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    public BigDecimal decimal(int column) throws SQLException {
+        return rs.getBigDecimal(column);
+    }
+
+    public Boolean bool(int column) throws SQLException {
+        boolean value = rs.getBoolean(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    public Instant timestamp(int column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value == null ? null : value.toInstant();
+    }
+
+    public LocalDate date(int column) throws SQLException {
+        Date value = rs.getDate(column);
+        return value == null ? null : value.toLocalDate();
+    }
+
+    /**
+     * The underlying result set, for types not covered here.
+     */
+    public ResultSet resultSet() {
+        return rs;
+    }
+}
@@ -0,0 +1,311 @@
+package com.openshop.database.jdbc;
+
+import com.openshop.database.Dialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One transaction on one connection, opened by {@link DataAccess}. Not thread-safe.
+ *
+ * <p>Statements are prepared once per unit of work and kept open, the least recently used
+ * closed beyond the cache size, so repeating a statement skips the parse. Across units of work
+ * the driver's own cache applies ({@code prepareThreshold} on PostgreSQL,
+ * {@code cachePrepStmts} on MySQL, the implicit statement cache on Oracle).</p>
+ *
+ * <p>{@link #update} does not execute right away. Consecutive updates with the same SQL are
+ * added to one JDBC batch, sent when it reaches the batch size and before any other statement,
+ * query or commit, so the database sees the statements in the order they were issued. Use
+ * {@link #executeUpdate} where the row count matters.</p>
+ *
+ * <p>Queries read with the configured fetch size. {@link #stream} hands over rows as they arrive
+ * and, on MySQL, streams row by row; no other statement of the unit of work may run until it
+ * returns.</p>
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    private final Connection connection;
+    private final Dialect dialect;
+    private final int batchSize;
+    private final int fetchSize;
+    private final int statementCacheSize;
+    private final boolean autoCommit;
+    // Access order, so the eldest entry is the least recently used statement
+    private final Map<StatementKey, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    private PreparedStatement pending;
+    private String pendingSql;
+    private int pendingRows;
+    private boolean streaming;
+
+    UnitOfWork(Connection connection, Dialect dialect, int batchSize, int fetchSize, int statementCacheSize)
+            throws SQLException {
+        this.connection = connection;
+        this.dialect = dialect;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+        this.statementCacheSize = statementCacheSize;
+        this.autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+    }
+
+    public Dialect dialect() {
+        return dialect;
+    }
+
+    /**
+     * Queues an insert, update or delete; consecutive calls with the same SQL are executed as
+     * one batch.
+     */
+    public void update(String sql, Binder binder) throws SQLException {
+        checkNotStreaming();
+        if (!sql.equals(pendingSql)) {
+            flush();
+            pending = prepare(new StatementKey(sql, null));
+            pendingSql = sql;
+        }
+        binder.bind(new Parameters(pending, dialect));
+        pending.addBatch();
+        if (++pendingRows >= batchSize) {
+            executePending();
+        }
+    }
+
+    /**
+     * Executes a statement after the queued updates and returns its row count.
+     */
+    public int executeUpdate(String sql, Binder binder) throws SQLException {
+        PreparedStatement stmt = statement(new StatementKey(sql, null));
+        binder.bind(new Parameters(stmt, dialect));
+        return stmt.executeUpdate();
+    }
+
+    /**
+     * Inserts one row after the queued updates and returns the value generated for its identity
+     * column {@code keyColumn}.
+     */
+    public long insert(String sql, String keyColumn, Binder binder) throws SQLException {
+        PreparedStatement stmt = statement(new StatementKey(sql, keyColumn));
+        binder.bind(new Parameters(stmt, dialect));
+        stmt.executeUpdate();
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            if (!keys.next()) {
+                throw new SQLException("No value generated for " + keyColumn);
+            }
+            return keys.getLong(1);
+        }
+    }
+
+    /**
+     * Reads all rows of a query, after the queued updates.
+     */
+    public <T> List<T> query(String sql, Binder binder, RowReader<T> reader) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        read(sql, binder, false, row -> rows.add(reader.read(row)));
+        return rows;
+    }
+
+    /**
+     * Reads the first row of a query, or {@code null} when there is none.
+     */
+    public <T> T queryFirst(String sql, Binder binder, RowReader<T> reader) throws SQLException {
+        List<T> rows = query(sql, binder, reader);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Hands each row of a query to {@code handler} as it is read, without holding the result in
+     * memory. The handler must not use this unit of work.
+     */
+    public void stream(String sql, Binder binder, RowHandler handler) throws SQLException {
+        read(sql, binder, true, handler);
+    }
+
+    /**
+     * Executes the queued updates.
+     */
+    public void flush() throws SQLException {
+        checkNotStreaming();
+        if (pending == null) {
+            return;
+        }
+        try {
+            executePending();
+        } finally {
+            pending = null;
+            pendingSql = null;
+        }
+    }
+
+    /**
+     * Executes the queued updates and commits. The unit of work can be used for the next
+     * transaction afterwards.
+     */
+    public void commit() throws SQLException {
+        flush();
+        connection.commit();
+    }
+
+    /**
+     * Drops the queued updates and rolls back.
+     */
+    public void rollback() throws SQLException {
+        discardPending();
+        connection.rollback();
+    }
+
+    /**
+     * Rolls back what was not committed, closes the cached statements and returns the
+     * connection.
+     */
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        try {
+            rollback();
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            failure = e;
+        }
+        for (PreparedStatement stmt : statements.values()) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                failure = suppress(failure, e);
+            }
+        }
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            failure = suppress(failure, e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void read(String sql, Binder binder, boolean stream, RowHandler handler) throws SQLException {
+        PreparedStatement stmt = statement(new StatementKey(sql, null));
+        binder.bind(new Parameters(stmt, dialect));
+        stmt.setFetchSize(dialect.fetchSize(fetchSize, stream));
+        streaming = true;
+        try (ResultSet rs = stmt.executeQuery()) {
+            Row row = new Row(rs, dialect);
+            while (rs.next()) {
+                handler.handle(row);
+            }
+        } finally {
+            streaming = false;
+        }
+    }
+
+    /**
+     * A prepared statement for a statement executed right away, after the queued updates.
+     */
+    private PreparedStatement statement(StatementKey key) throws SQLException {
+        flush();
+        return prepare(key);
+    }
+
+    private PreparedStatement prepare(StatementKey key) throws SQLException {
+        PreparedStatement stmt = statements.get(key);
+        if (stmt != null) {
+            stmt.clearParameters();
+            return stmt;
+        }
+        stmt = key.keyColumn() == null
+                ? connection.prepareStatement(key.sql())
+                : connection.prepareStatement(key.sql(), dialect.generatedKeyColumns(key.keyColumn()));
+        statements.put(key, stmt);
+        // The pending batch was flushed before, so the eldest statement is never the pending one
+        Iterator<PreparedStatement> eldest = statements.values().iterator();
+        while (statements.size() > statementCacheSize) {
+            PreparedStatement evicted = eldest.next();
+            eldest.remove();
+            evicted.close();
+        }
+        return stmt;
+    }
+
+    private void executePending() throws SQLException {
+        if (pendingRows == 0) {
+            return;
+        }
+        pendingRows = 0;
+        pending.executeBatch();
+    }
+
+    private void discardPending() throws SQLException {
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.clearBatch();
+        } finally {
+            pending = null;
+            pendingSql = null;
+            pendingRows = 0;
+        }
+    }
+
+    private void checkNotStreaming() {
+        if (streaming) {
+            throw new IllegalStateException("A query of this unit of work is still being read");
+        }
+    }
+
+    private static SQLException suppress(SQLException failure, SQLException e) {
+        if (failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
+    }
+
+    /**
+     * Binds the parameters of one execution of a statement.
+     */
+    @FunctionalInterface
+    public interface Binder {
+
+        /**
+         * Binds no parameters.
+         */
+        Binder NONE = parameters -> {
+        };
+
+        void bind(Parameters parameters) throws SQLException;
+    }
+
+    /**
+     * Maps a row to a value.
+     */
+    @FunctionalInterface
+    public interface RowReader<T> {
+
+        T read(Row row) throws SQLException;
+    }
+
+    /**
+     * Consumes a row of a streamed query.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        void handle(Row row) throws SQLException;
+    }
+
+    private record StatementKey(String sql, String keyColumn) {
+    }
+}
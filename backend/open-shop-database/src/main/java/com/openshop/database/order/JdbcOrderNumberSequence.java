@@ -0,0 +1,82 @@
+package com.openshop.database.order;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * {@link OrderNumberSequence} over {@code order_number_seq} (PostgreSQL, Oracle) or the
+ * {@code order_number_sequence} table (MySQL). Every value the sequence returns starts a block of
+ * {@link #BLOCK_SIZE} numbers. A value that is not such a start means the increment was changed
+ * outside V009; it is rejected rather than handed out, because its block could overlap another.
+ */
+final class JdbcOrderNumberSequence implements OrderNumberSequence {
+
+    /**
+     * The increment V009 declares; block starts are {@code 1 + k * BLOCK_SIZE}.
+     */
+    static final int BLOCK_SIZE = 100;
+
+    private static final String POSTGRESQL_NEXT = "SELECT nextval('order_number_seq')";
+
+    // LAST_INSERT_ID(expr) remembers the block start for this connection, so no SELECT ... FOR UPDATE is needed
+    private static final String MYSQL_NEXT =
+            "UPDATE order_number_sequence SET next_value = LAST_INSERT_ID(next_value) + increment_by WHERE id = 1";
+    private static final String MYSQL_START = "SELECT LAST_INSERT_ID()";
+
+    private static final String ORACLE_NEXT = "SELECT order_number_seq.NEXTVAL FROM DUAL";
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcOrderNumberSequence(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public Block allocate() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            return block(switch (dialect) {
+                case POSTGRESQL -> queryLong(stmt, POSTGRESQL_NEXT);
+                case ORACLE -> queryLong(stmt, ORACLE_NEXT);
+                case MYSQL -> {
+                    if (stmt.executeUpdate(MYSQL_NEXT) == 0) {
+                        throw new SQLException("order_number_sequence has no row; V009 is not applied");
+                    }
+                    long first = queryLong(stmt, MYSQL_START);
+                    // Pooled connections may not auto-commit; release the row lock right away
+                    if (!connection.getAutoCommit()) {
+                        connection.commit();
+                    }
+                    yield first;
+                }
+            });
+        }
+    }
+
+    /**
+     * The block starting at {@code first}, which the sequence just returned.
+     */
+    static Block block(long first) throws SQLException {
+        if (first < 1 || (first - 1) % BLOCK_SIZE != 0) {
+            throw new SQLException("Order number sequence returned " + first + ", which does not start a block of "
+                    + BLOCK_SIZE + "; its increment no longer matches V009");
+        }
+        return new Block(first, BLOCK_SIZE);
+    }
+
+    private static long queryLong(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            if (!rs.next()) {
+                throw new SQLException("No result for " + sql + "; V009 is not applied");
+            }
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.openshop.database.order;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.order.OrderNumberSequence.Block;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Block-allocating (hi-lo) generator for {@code orders.order_number}.
+ *
+ * <p>Since V009 every value of {@code order_number_seq} reserves a block of numbers (100 by
+ * default). The generator takes one block per round trip and hands the numbers out from memory
+ * with an atomic increment, so checkouts on all nodes no longer serialise on the sequence. Blocks
+ * never overlap, which keeps numbers unique across nodes and alongside the
+ * {@code order_number_trigger} fallback; numbers of a block not used before shutdown are lost,
+ * so numbers are unique and increasing per node but not gap-free.</p>
+ *
+ * <p>Numbers keep the {@code ORD-YYYYMMDD-NNNNNN} format of {@code generate_order_number()}.
+ * Inserting them explicitly makes {@code order_number_trigger} skip the database function.</p>
+ */
+public final class OrderNumberGenerator {
+
+    private static final DateTimeFormatter ORDER_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /**
+     * The numbers of the current block not yet handed out.
+     */
+    private record Cursor(AtomicLong next, long end) {
+
+        static Cursor of(Block block) {
+            return new Cursor(new AtomicLong(block.first()), block.first() + block.size());
+        }
+    }
+
+    private final OrderNumberSequence sequence;
+    private final Clock clock;
+    // A lock rather than synchronized so virtual threads do not pin their carrier during the refill
+    private final ReentrantLock refill = new ReentrantLock();
+    private volatile Cursor cursor = new Cursor(new AtomicLong(), 0);
+
+    /**
+     * Creates a generator dating order numbers in UTC.
+     */
+    public OrderNumberGenerator(DataSource dataSource, Dialect dialect) {
+        this(new JdbcOrderNumberSequence(dataSource, dialect), Clock.systemUTC());
+    }
+
+    public OrderNumberGenerator(DataSource dataSource, Dialect dialect, Clock clock) {
+        this(new JdbcOrderNumberSequence(dataSource, dialect), clock);
+    }
+
+    OrderNumberGenerator(OrderNumberSequence sequence, Clock clock) {
+        this.sequence = sequence;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the next order number, e.g. {@code ORD-20250115-004217}.
+     */
+    public String next() throws SQLException {
+        return format(LocalDate.now(clock), nextValue());
+    }
+
+    /**
+     * Returns the next sequence value; a database round trip happens only when a block is used up.
+     */
+    public long nextValue() throws SQLException {
+        while (true) {
+            Cursor current = cursor;
+            long value = current.next().getAndIncrement();
+            if (value < current.end()) {
+                return value;
+            }
+            refill.lock();
+            try {
+                // Another thread may have fetched a block while this one waited
+                if (cursor == current) {
+                    cursor = Cursor.of(sequence.allocate());
+                }
+            } finally {
+                refill.unlock();
+            }
+        }
+    }
+
+    /**
+     * Advances past {@code value}, e.g. after importing orders numbered by another system or
+     * loading synthetic data, so that later numbers do not collide with them. Takes one round trip
+     * per skipped block.
+     */
+    public void skipPast(long value) throws SQLException {
+        refill.lock();
+        try {
+            Block block;
+            do {
+                block = sequence.allocate();
+            } while (block.first() + block.size() <= value + 1);
+            cursor = new Cursor(new AtomicLong(Math.max(block.first(), value + 1)), block.first() + block.size());
+        } finally {
+            refill.unlock();
+        }
+    }
+
+    /**
+     * Formats a sequence value like {@code generate_order_number()}: {@code ORD-}, the date and the
+     * value padded to at least six digits.
+     */
+    public static String format(LocalDate date, long value) {
+        String digits = Long.toString(value);
+        StringBuilder number = new StringBuilder(13 + Math.max(6, digits.length()))
+                .append("ORD-").append(ORDER_DATE.format(date)).append('-');
+        for (int i = digits.length(); i < 6; i++) {
+            number.append('0');
+        }
+        return number.append(digits).toString();
+    }
+}
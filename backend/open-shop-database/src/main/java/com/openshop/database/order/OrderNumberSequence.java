@@ -0,0 +1,28 @@
+package com.openshop.database.order;
+
+import java.sql.SQLException;
+
+/**
+ * Source of order number blocks, separated from {@link OrderNumberGenerator} so the block
+ * hand-out can be exercised without a database.
+ */
+interface OrderNumberSequence {
+
+    /**
+     * Reserves the next block; no other caller, on this or any other node, receives a number
+     * from it.
+     */
+    Block allocate() throws SQLException;
+
+    /**
+     * The numbers {@code [first, first + size)}.
+     */
+    record Block(long first, int size) {
+
+        public Block {
+            if (size < 1) {
+                throw new IllegalArgumentException("Block size must be positive: " + size);
+            }
+        }
+    }
+}
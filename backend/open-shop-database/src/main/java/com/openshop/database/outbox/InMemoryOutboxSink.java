@@ -0,0 +1,42 @@
+package com.openshop.database.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link OutboxSink} keeping every delivered event in memory, for tests and local runs.
+ */
+public final class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new ArrayList<>();
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> batch) {
+        events.addAll(batch);
+    }
+
+    /**
+     * Every event delivered so far, in delivery order.
+     */
+    public synchronized List<OutboxEvent> events() {
+        return List.copyOf(events);
+    }
+
+    /**
+     * The events of one aggregate delivered so far, in delivery order.
+     */
+    public synchronized List<OutboxEvent> events(UUID aggregateId) {
+        List<OutboxEvent> matching = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (event.aggregateId().equals(aggregateId)) {
+                matching.add(event);
+            }
+        }
+        return matching;
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,155 @@
+package com.openshop.database.outbox;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@link OutboxStore} over {@code outbox}.
+ *
+ * <p>A claim locks the oldest rows with {@code FOR UPDATE SKIP LOCKED}, so concurrent claims get
+ * disjoint batches without waiting for each other. Oracle does not accept a row limit together
+ * with {@code FOR UPDATE}; it locks skipped-lock rows as they are fetched, so the claim fetches
+ * only as many as it needs. Claims run at read committed: on MySQL's default repeatable read, a
+ * locking read reaching the end of the table would lock the gap after it and hold up every
+ * trigger inserting an event until the batch is delivered.</p>
+ */
+final class JdbcOutboxStore implements OutboxStore {
+
+    private static final String CLAIM_SQL =
+            "SELECT id, event_type, aggregate_id, entity_id, created_at FROM outbox ORDER BY id";
+
+    private static final String EARLIEST_SQL =
+            "SELECT aggregate_id, MIN(id) FROM outbox WHERE aggregate_id IN (%s) GROUP BY aggregate_id";
+
+    private static final String DELETE_SQL = "DELETE FROM outbox WHERE id = ?";
+
+    // Well below Oracle's limit of 1000 expressions per IN list
+    private static final int IN_LIST_LIMIT = 500;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcOutboxStore(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public Claim claim(int limit) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        JdbcClaim claim = null;
+        try {
+            claim = new JdbcClaim(connection);
+            claim.lock(limit);
+            return claim;
+        } catch (SQLException | RuntimeException e) {
+            if (claim != null) {
+                claim.close();
+            } else {
+                connection.close();
+            }
+            throw e;
+        }
+    }
+
+    private final class JdbcClaim implements Claim {
+
+        private final Connection connection;
+        private final int isolation;
+        private final List<OutboxEvent> events = new ArrayList<>();
+        private boolean completed;
+
+        JdbcClaim(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.isolation = connection.getTransactionIsolation();
+            connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            connection.setAutoCommit(false);
+        }
+
+        void lock(int limit) throws SQLException {
+            String sql = dialect == Dialect.ORACLE
+                    ? CLAIM_SQL + " FOR UPDATE SKIP LOCKED"
+                    : CLAIM_SQL + " LIMIT ? FOR UPDATE SKIP LOCKED";
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                if (dialect == Dialect.ORACLE) {
+                    stmt.setFetchSize(limit);
+                } else {
+                    stmt.setInt(1, limit);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (events.size() < limit && rs.next()) {
+                        Timestamp createdAt = rs.getTimestamp(5);
+                        events.add(new OutboxEvent(rs.getLong(1), OutboxEventType.fromCode(rs.getString(2)),
+                                dialect.readUuid(rs, 3), dialect.readUuid(rs, 4),
+                                createdAt == null ? null : createdAt.toInstant()));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public List<OutboxEvent> events() {
+            return events;
+        }
+
+        @Override
+        public Map<UUID, Long> earliest(Collection<UUID> aggregateIds) throws SQLException {
+            List<UUID> ids = new ArrayList<>(aggregateIds);
+            Map<UUID, Long> earliest = new HashMap<>();
+            for (int from = 0; from < ids.size(); from += IN_LIST_LIMIT) {
+                List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_LIMIT));
+                String sql = EARLIEST_SQL.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?")));
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        dialect.bindUuid(stmt, i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            earliest.put(dialect.readUuid(rs, 1), rs.getLong(2));
+                        }
+                    }
+                }
+            }
+            return earliest;
+        }
+
+        @Override
+        public void complete(Collection<Long> eventIds) throws SQLException {
+            if (!eventIds.isEmpty()) {
+                try (PreparedStatement stmt = connection.prepareStatement(DELETE_SQL)) {
+                    for (long id : eventIds) {
+                        stmt.setLong(1, id);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+            connection.commit();
+            completed = true;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try (connection) {
+                if (!completed) {
+                    connection.rollback();
+                }
+                connection.setAutoCommit(true);
+                connection.setTransactionIsolation(isolation);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.openshop.database.outbox;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A change read from {@code outbox}.
+ *
+ * @param id          position in the outbox; events of one aggregate are delivered by ascending id
+ * @param aggregateId product, variant or order the event belongs to, see {@link OutboxEventType}
+ * @param entityId    variant of a product event or location of a stock event, {@code null} otherwise
+ */
+public record OutboxEvent(long id, OutboxEventType type, UUID aggregateId, UUID entityId, Instant createdAt) {
+}
@@ -0,0 +1,53 @@
+package com.openshop.database.outbox;
+
+/**
+ * Kinds of change written to {@code outbox} by the triggers of V020, with the aggregate each
+ * belongs to. Events of one aggregate are delivered in the order they were written.
+ */
+public enum OutboxEventType {
+
+    /**
+     * A product, or a variant's non-price columns; the aggregate is the product and the entity
+     * the variant, if any.
+     */
+    CATALOG("catalog"),
+
+    /**
+     * A variant's price, compare-at price, currency or availability; the aggregate is the
+     * product and the entity the variant.
+     */
+    PRICE("price"),
+
+    /**
+     * Quantities or status of a stock row; the aggregate is the variant and the entity the
+     * location.
+     */
+    STOCK("stock"),
+
+    /**
+     * An order placed, deleted or changing status; the aggregate is the order.
+     */
+    ORDER_STATUS("order_status");
+
+    private final String code;
+
+    OutboxEventType(String code) {
+        this.code = code;
+    }
+
+    /**
+     * Value of {@code outbox.event_type}.
+     */
+    public String code() {
+        return code;
+    }
+
+    public static OutboxEventType fromCode(String code) {
+        for (OutboxEventType type : values()) {
+            if (type.code.equals(code)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown outbox event type: " + code);
+    }
+}
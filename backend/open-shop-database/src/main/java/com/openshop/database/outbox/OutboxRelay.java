@@ -0,0 +1,154 @@
+package com.openshop.database.outbox;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.outbox.OutboxStore.Claim;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the change events the triggers of V020 write to {@code outbox} to a set of
+ * {@link OutboxSink sinks}, so caches over {@code products}, {@code product_variants},
+ * {@code inventory_stock} and {@code orders} are invalidated by reading one narrow table instead
+ * of polling {@code updated_at} on each.
+ *
+ * <p>A drain claims a batch of the oldest events with {@code FOR UPDATE SKIP LOCKED}, hands the
+ * deliverable ones to every sink in id order and deletes them in the same transaction. Workers
+ * on any number of threads and nodes claim disjoint batches. To keep each aggregate's events in
+ * order across workers, events of an aggregate with an earlier event still in the outbox,
+ * claimed by another worker or committed late, are released undelivered and picked up by a
+ * later drain.</p>
+ *
+ * <p>Events are deleted only after every sink accepted them, so a failed delivery is repeated
+ * rather than lost. Ids are handed out before commit: events of concurrent transactions are
+ * ordered by when they become visible, but two transactions changing the same row are
+ * serialized by its lock, so their events keep their order.</p>
+ */
+public final class OutboxRelay implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_BATCH = 500;
+
+    private final OutboxStore store;
+    private final List<OutboxSink> sinks;
+    private final int maxBatch;
+    private final AtomicLong delivered = new AtomicLong();
+    private final List<Poller> workers = new ArrayList<>();
+
+    public OutboxRelay(DataSource dataSource, Dialect dialect, List<OutboxSink> sinks) {
+        this(new JdbcOutboxStore(dataSource, dialect), sinks, DEFAULT_MAX_BATCH);
+    }
+
+    public OutboxRelay(DataSource dataSource, Dialect dialect, List<OutboxSink> sinks, int maxBatch) {
+        this(new JdbcOutboxStore(dataSource, dialect), sinks, maxBatch);
+    }
+
+    OutboxRelay(OutboxStore store, List<OutboxSink> sinks, int maxBatch) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+        if (sinks.isEmpty()) {
+            throw new IllegalArgumentException("At least one sink is required");
+        }
+        this.store = store;
+        this.sinks = List.copyOf(sinks);
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Claims up to {@code maxBatch} events, delivers those whose aggregate has no earlier event
+     * pending and returns how many were delivered. An exception from a sink leaves the whole
+     * batch in the outbox and is rethrown.
+     */
+    public int drain() throws SQLException {
+        try (Claim claim = store.claim(maxBatch)) {
+            List<OutboxEvent> events = claim.events();
+            if (events.isEmpty()) {
+                return 0;
+            }
+            Map<UUID, Long> first = new HashMap<>();
+            for (OutboxEvent event : events) {
+                first.putIfAbsent(event.aggregateId(), event.id());
+            }
+            Map<UUID, Long> earliest = claim.earliest(first.keySet());
+            List<OutboxEvent> deliverable = new ArrayList<>(events.size());
+            List<Long> eventIds = new ArrayList<>(events.size());
+            for (OutboxEvent event : events) {
+                Long pending = earliest.get(event.aggregateId());
+                if (pending == null || pending >= first.get(event.aggregateId())) {
+                    deliverable.add(event);
+                    eventIds.add(event.id());
+                }
+            }
+            if (deliverable.isEmpty()) {
+                return 0;
+            }
+            List<OutboxEvent> batch = List.copyOf(deliverable);
+            for (OutboxSink sink : sinks) {
+                sink.deliver(batch);
+            }
+            claim.complete(eventIds);
+            delivered.addAndGet(batch.size());
+            return batch.size();
+        }
+    }
+
+    /**
+     * Drains until a drain delivers nothing and returns the number of events delivered.
+     */
+    public int drainAll() throws SQLException {
+        int total = 0;
+        int drained;
+        do {
+            drained = drain();
+            total += drained;
+        } while (drained > 0);
+        return total;
+    }
+
+    /**
+     * Events delivered by this relay since it was created.
+     */
+    public long delivered() {
+        return delivered.get();
+    }
+
+    /**
+     * Drains the outbox on {@code workers} daemon threads, each every {@code pollInterval}.
+     * A failed drain is retried in the worker's next round.
+     *
+     * @return the pollers of the workers, which report failed rounds
+     */
+    public synchronized List<Poller> start(Duration pollInterval, int workers) {
+        if (!this.workers.isEmpty()) {
+            throw new IllegalStateException("Outbox relay is already started");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be positive");
+        }
+        for (int i = 1; i <= workers; i++) {
+            this.workers.add(Poller.every("outbox-relay-" + i, pollInterval, this::drainAll));
+        }
+        return List.copyOf(this.workers);
+    }
+
+    /**
+     * Stops the background threads after their current drain.
+     */
+    @Override
+    public void close() {
+        List<Poller> stopping;
+        synchronized (this) {
+            stopping = List.copyOf(workers);
+            workers.clear();
+        }
+        stopping.forEach(Poller::close);
+    }
+}
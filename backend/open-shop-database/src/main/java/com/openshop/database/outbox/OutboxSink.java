@@ -0,0 +1,18 @@
+package com.openshop.database.outbox;
+
+import java.util.List;
+
+/**
+ * Receives the events delivered by {@link OutboxRelay}, e.g. to invalidate a cache or publish
+ * to a broker.
+ *
+ * <p>Delivery is at least once: when a sink throws, the batch stays in the outbox and is handed
+ * to every sink again, so sinks must tolerate repeats. A batch holds events of many aggregates,
+ * each aggregate's in order; batches of different relay workers arrive concurrently, so sinks
+ * must be thread-safe. The batch's rows stay locked while sinks run, which should be quick.</p>
+ */
+@FunctionalInterface
+public interface OutboxSink {
+
+    void deliver(List<OutboxEvent> events);
+}
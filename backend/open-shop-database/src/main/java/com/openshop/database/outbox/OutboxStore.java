@@ -0,0 +1,45 @@
+package com.openshop.database.outbox;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Claims and removes {@code outbox} rows, separated from {@link OutboxRelay} so ordering and
+ * failure handling can be exercised without a database.
+ */
+interface OutboxStore {
+
+    /**
+     * Locks up to {@code limit} of the oldest events not locked by another claim and returns
+     * them in id order. The locks last until the claim is closed.
+     */
+    Claim claim(int limit) throws SQLException;
+
+    /**
+     * Events locked by one relay worker.
+     */
+    interface Claim extends AutoCloseable {
+
+        List<OutboxEvent> events();
+
+        /**
+         * The lowest id of each aggregate still in the outbox, including events locked by other
+         * claims; aggregates without events are left out.
+         */
+        Map<UUID, Long> earliest(Collection<UUID> aggregateIds) throws SQLException;
+
+        /**
+         * Deletes delivered events and releases the rest.
+         */
+        void complete(Collection<Long> eventIds) throws SQLException;
+
+        /**
+         * Releases the events without deleting any, unless {@link #complete} was called.
+         */
+        @Override
+        void close() throws SQLException;
+    }
+}
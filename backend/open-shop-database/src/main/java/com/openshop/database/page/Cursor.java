@@ -0,0 +1,84 @@
+package com.openshop.database.page;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after the last row of a page: its sort value and id, plus the list, sort and direction
+ * the position is only meaningful in.
+ *
+ * <p>Encoded as URL-safe Base64 of a small binary record, so clients cannot rely on what is
+ * inside. A cursor is not signed; a forged one only moves the position within the list.</p>
+ *
+ * @param value sort value of the last row, {@code null} once the page reached the NULL rows
+ */
+record Cursor(String table, String sort, boolean descending, Object value, UUID id) {
+
+    private static final byte VERSION = 1;
+
+    String encode(SortKey key) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(table);
+            out.writeUTF(sort);
+            out.writeBoolean(descending);
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(key.type().format(value));
+            }
+            out.writeLong(id.getMostSignificantBits());
+            out.writeLong(id.getLeastSignificantBits());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Reads a cursor of {@code keyset} for the sort and direction of {@code request}.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or belongs to another list,
+     *                                  sort or direction
+     */
+    static Cursor decode(String token, Keyset keyset, PageRequest request) {
+        SortKey key = keyset.sort(request.sort());
+        String table;
+        String sort;
+        boolean descending;
+        String value;
+        UUID id;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported cursor version");
+            }
+            table = in.readUTF();
+            sort = in.readUTF();
+            descending = in.readBoolean();
+            value = in.readBoolean() ? in.readUTF() : null;
+            id = new UUID(in.readLong(), in.readLong());
+            if (in.read() != -1) {
+                throw new IllegalArgumentException("Trailing bytes in cursor");
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        if (!table.equals(keyset.table()) || !sort.equals(request.sort()) || descending != request.descending()) {
+            throw new IllegalArgumentException("Cursor does not belong to this list, sort or direction");
+        }
+        if (value == null && !key.nullable()) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            return new Cursor(table, sort, descending, value == null ? null : key.type().parse(value), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.openshop.database.page;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Condition the rows of a page must meet, with the values of its {@code ?} placeholders in order.
+ * UUIDs are bound in the column format of the dialect, {@link java.time.Instant}s as timestamps.
+ *
+ * @param condition SQL condition on the columns of the table, {@code null} for none
+ * @param values    values of the placeholders, none of them {@code null}
+ */
+public record Filter(String condition, List<Object> values) {
+
+    public static final Filter NONE = new Filter(null, List.of());
+
+    public Filter {
+        values = List.copyOf(values);
+    }
+
+    public static Filter of(String condition, Object... values) {
+        return new Filter(condition, List.of(values));
+    }
+
+    /**
+     * Both conditions.
+     */
+    public Filter and(Filter other) {
+        if (condition == null) {
+            return other;
+        }
+        if (other.condition == null) {
+            return this;
+        }
+        List<Object> both = new ArrayList<>(values);
+        both.addAll(other.values);
+        return new Filter("(" + condition + ") AND (" + other.condition + ")", both);
+    }
+}
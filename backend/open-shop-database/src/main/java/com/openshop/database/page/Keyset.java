@@ -0,0 +1,84 @@
+package com.openshop.database.page;
+
+import com.openshop.database.page.SortKey.Type;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A table paged with keyset cursors and the sorts it offers. Every sort pages on
+ * (sort column, id), which the V015 indexes cover for the lists below.
+ */
+public final class Keyset {
+
+    /**
+     * Storefront product listings and search; filter on {@code status = 'active'} to use the
+     * (status, sort column, id) indexes. {@code popularity} sorts on the review count.
+     */
+    public static final Keyset PRODUCTS = new Keyset("products", "id", List.of(
+            SortKey.of("createdAt", "created_at", Type.TIMESTAMP).asNullable(),
+            SortKey.of("name", "name", Type.TEXT),
+            SortKey.of("price", "min_price", Type.DECIMAL).asNullable(),
+            SortKey.of("rating", "avg_rating", Type.DECIMAL).asNullable(),
+            SortKey.of("popularity", "review_count", Type.INTEGER).asNullable()));
+
+    /**
+     * Order lists of customers and the back office.
+     */
+    public static final Keyset ORDERS = new Keyset("orders", "id", List.of(
+            SortKey.of("createdAt", "created_at", Type.TIMESTAMP).asNullable(),
+            SortKey.of("updatedAt", "updated_at", Type.TIMESTAMP).asNullable(),
+            SortKey.of("totalAmount", "total_amount", Type.DECIMAL),
+            SortKey.of("orderNumber", "order_number", Type.TEXT).asUnique()));
+
+    /**
+     * Stock movement history; filter on {@code product_id} or {@code variant_id}.
+     */
+    public static final Keyset INVENTORY_LOG = new Keyset("inventory_log", "id", List.of(
+            SortKey.of("createdAt", "created_at", Type.TIMESTAMP)));
+
+    private final String table;
+    private final String idColumn;
+    private final Map<String, SortKey> sorts = new LinkedHashMap<>();
+
+    /**
+     * @param table    table the rows are read from
+     * @param idColumn UUID primary key column, the tie breaker of every non-unique sort
+     * @param sorts    sorts offered, by {@link SortKey#name()}
+     */
+    public Keyset(String table, String idColumn, List<SortKey> sorts) {
+        this.table = table;
+        this.idColumn = idColumn;
+        for (SortKey sort : sorts) {
+            this.sorts.put(sort.name(), sort);
+        }
+    }
+
+    public String table() {
+        return table;
+    }
+
+    public String idColumn() {
+        return idColumn;
+    }
+
+    public Set<String> sortNames() {
+        return Collections.unmodifiableSet(sorts.keySet());
+    }
+
+    /**
+     * Returns the sort of that name.
+     *
+     * @throws IllegalArgumentException if the list has no such sort
+     */
+    public SortKey sort(String name) {
+        SortKey sort = sorts.get(name);
+        if (sort == null) {
+            throw new IllegalArgumentException("Cannot sort " + table + " by " + name);
+        }
+        return sort;
+    }
+}
@@ -0,0 +1,204 @@
+package com.openshop.database.page;
+
+import com.openshop.database.Dialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads pages of a {@link Keyset} list by seeking past the last row of the previous page instead
+ * of skipping OFFSET rows, so page 1000 costs what page 1 does.
+ *
+ * <p>A page is ordered by (sort column, id) in the requested direction and the next one starts
+ * after the (value, id) of its last row, both carried in an opaque {@link Cursor}. The seek
+ * predicate is written per dialect so the database turns it into an index range:</p>
+ * <ul>
+ *   <li>PostgreSQL compares row values, {@code (col, id) < (?, ?)}, which it uses as both the
+ *       start and the bound of the index scan;</li>
+ *   <li>MySQL uses indexes for row value comparisons only with {@code =} and {@code IN}, and
+ *       Oracle has no ordering comparison of row values, so both get
+ *       {@code col <= ? AND (col < ? OR id < ?)}, whose first term is the range.</li>
+ * </ul>
+ *
+ * <p>The dialects disagree on where NULLs sort, so rows with a NULL sort value are read after
+ * all others in both directions, ordered by id alone. A page that reaches them continues into
+ * them with a second query.</p>
+ */
+public final class KeysetPager {
+
+    private final Dialect dialect;
+
+    public KeysetPager(Dialect dialect) {
+        this.dialect = dialect;
+    }
+
+    /**
+     * Reads one page.
+     *
+     * @param columns select list for {@code reader}; the pager appends the sort column and id
+     * @param filter  condition every row must meet
+     * @param reader  maps a row to an item, reading only the {@code columns}
+     * @throws IllegalArgumentException if the sort is unknown or the cursor does not belong to
+     *                                  this list, sort and direction
+     */
+    public <T> Page<T> page(Connection connection, Keyset keyset, String columns, Filter filter,
+                            PageRequest request, RowReader<T> reader) throws SQLException {
+        SortKey key = keyset.sort(request.sort());
+        Cursor cursor = request.cursor() == null ? null : Cursor.decode(request.cursor(), keyset, request);
+        Rows<T> rows = new Rows<>(request.limit());
+        if (cursor == null || cursor.value() != null) {
+            read(connection, sql(keyset, key, columns, filter, request.descending(), false, cursor != null),
+                    filter, cursor, key, reader, rows);
+            if (!rows.more && key.nullable()) {
+                read(connection, sql(keyset, key, columns, filter, request.descending(), true, false),
+                        filter, null, key, reader, rows);
+            }
+        } else {
+            read(connection, sql(keyset, key, columns, filter, request.descending(), true, true),
+                    filter, cursor, key, reader, rows);
+        }
+        if (!rows.more) {
+            return new Page<>(rows.items, null);
+        }
+        Cursor next = new Cursor(keyset.table(), key.name(), request.descending(), rows.lastValue, rows.lastId);
+        return new Page<>(rows.items, next.encode(key));
+    }
+
+    /**
+     * Statement of one part of a page: the rows with a sort value or those without one, from the
+     * start or after a cursor. The row limit is its last parameter.
+     */
+    String sql(Keyset keyset, SortKey key, String columns, Filter filter, boolean descending, boolean nulls,
+               boolean seek) {
+        String col = key.column();
+        String id = keyset.idColumn();
+        String op = descending ? "<" : ">";
+        String direction = descending ? " DESC" : "";
+        List<String> conditions = new ArrayList<>();
+        if (filter.condition() != null) {
+            conditions.add("(" + filter.condition() + ")");
+        }
+        String order;
+        if (nulls) {
+            conditions.add(col + " IS NULL");
+            if (seek) {
+                conditions.add(id + " " + op + " ?");
+            }
+            order = id + direction;
+        } else {
+            if (key.nullable()) {
+                conditions.add(col + " IS NOT NULL");
+            }
+            if (seek) {
+                conditions.add(seek(key, id, op));
+            }
+            order = key.unique() ? col + direction : col + direction + ", " + id + direction;
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        return dialect.limit("SELECT " + columns + ", " + col + ", " + id + " FROM " + keyset.table() + where
+                + " ORDER BY " + order);
+    }
+
+    private String seek(SortKey key, String id, String op) {
+        String col = key.column();
+        if (key.unique()) {
+            return col + " " + op + " ?";
+        }
+        if (dialect == Dialect.POSTGRESQL) {
+            return "(" + col + ", " + id + ") " + op + " (?, ?)";
+        }
+        return col + " " + op + "= ? AND (" + col + " " + op + " ? OR " + id + " " + op + " ?)";
+    }
+
+    private <T> void read(Connection connection, String sql, Filter filter, Cursor cursor, SortKey key,
+                          RowReader<T> reader, Rows<T> rows) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = bind(stmt, filter);
+            if (cursor != null) {
+                if (cursor.value() == null) {
+                    dialect.bindUuid(stmt, index++, cursor.id());
+                } else if (key.unique()) {
+                    key.type().bind(stmt, index++, cursor.value());
+                } else if (dialect == Dialect.POSTGRESQL) {
+                    key.type().bind(stmt, index++, cursor.value());
+                    dialect.bindUuid(stmt, index++, cursor.id());
+                } else {
+                    key.type().bind(stmt, index++, cursor.value());
+                    key.type().bind(stmt, index++, cursor.value());
+                    dialect.bindUuid(stmt, index++, cursor.id());
+                }
+            }
+            stmt.setInt(index, rows.wanted());
+            try (ResultSet rs = stmt.executeQuery()) {
+                int last = rs.getMetaData().getColumnCount();
+                while (rs.next()) {
+                    if (rows.items.size() == rows.limit) {
+                        rows.more = true;
+                        break;
+                    }
+                    rows.add(reader.read(rs), key.type().read(rs, last - 1), dialect.readUuid(rs, last));
+                }
+            }
+        }
+    }
+
+    private int bind(PreparedStatement stmt, Filter filter) throws SQLException {
+        int index = 1;
+        for (Object value : filter.values()) {
+            if (value instanceof UUID uuid) {
+                dialect.bindUuid(stmt, index, uuid);
+            } else if (value instanceof Instant instant) {
+                stmt.setTimestamp(index, Timestamp.from(instant));
+            } else {
+                stmt.setObject(index, value);
+            }
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Maps a row to a page item.
+     */
+    @FunctionalInterface
+    public interface RowReader<T> {
+
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Items of a page being read, plus one row more to know whether another page follows.
+     */
+    private static final class Rows<T> {
+
+        final List<T> items = new ArrayList<>();
+        final int limit;
+        Object lastValue;
+        UUID lastId;
+        boolean more;
+
+        Rows(int limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * Rows still to read, counting the one that tells whether more follow.
+         */
+        int wanted() {
+            return limit + 1 - items.size();
+        }
+
+        void add(T item, Object value, UUID id) {
+            items.add(item);
+            lastValue = value;
+            lastId = id;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.openshop.database.page;
+
+import java.util.List;
+
+/**
+ * Rows of one page.
+ *
+ * @param items      rows in page order
+ * @param nextCursor opaque cursor of the next page, {@code null} on the last page
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    public Page {
+        items = List.copyOf(items);
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.openshop.database.page;
+
+/**
+ * One page to read.
+ *
+ * @param sort       name of the {@link SortKey}
+ * @param descending whether the page runs from the highest value down
+ * @param limit      number of rows at most
+ * @param cursor     {@link Page#nextCursor()} of the previous page, {@code null} for the first
+ */
+public record PageRequest(String sort, boolean descending, int limit, String cursor) {
+
+    public PageRequest {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+    }
+
+    public static PageRequest first(String sort, boolean descending, int limit) {
+        return new PageRequest(sort, descending, limit, null);
+    }
+
+    /**
+     * The page after the one that returned {@code cursor}, with the same sort and limit.
+     */
+    public PageRequest after(String cursor) {
+        return new PageRequest(sort, descending, limit, cursor);
+    }
+}
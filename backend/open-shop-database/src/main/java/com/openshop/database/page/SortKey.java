@@ -0,0 +1,95 @@
+package com.openshop.database.page;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * A column a {@link Keyset} list can be sorted by, with the row id as tie breaker.
+ *
+ * @param name     name of the sort in the API ({@code sortBy})
+ * @param column   column sorted on
+ * @param type     type of the column, to carry its values in cursors
+ * @param nullable whether the column may be NULL; NULL rows come after all others in both
+ *                 directions
+ * @param unique   whether the column alone orders the rows, so no tie breaker is needed
+ */
+public record SortKey(String name, String column, Type type, boolean nullable, boolean unique) {
+
+    public SortKey {
+        if (nullable && unique) {
+            throw new IllegalArgumentException("A unique sort key cannot be nullable: " + name);
+        }
+    }
+
+    /**
+     * A NOT NULL, non-unique sort column.
+     */
+    public static SortKey of(String name, String column, Type type) {
+        return new SortKey(name, column, type, false, false);
+    }
+
+    public SortKey asNullable() {
+        return new SortKey(name, column, type, true, false);
+    }
+
+    public SortKey asUnique() {
+        return new SortKey(name, column, type, false, true);
+    }
+
+    /**
+     * Column types a sort value can have, with their JDBC access and cursor text form.
+     */
+    public enum Type {
+        TEXT,
+        INTEGER,
+        DECIMAL,
+        TIMESTAMP;
+
+        void bind(PreparedStatement stmt, int index, Object value) throws SQLException {
+            switch (this) {
+                case TEXT -> stmt.setString(index, (String) value);
+                case INTEGER -> stmt.setLong(index, (Long) value);
+                case DECIMAL -> stmt.setBigDecimal(index, (BigDecimal) value);
+                case TIMESTAMP -> stmt.setTimestamp(index, Timestamp.from((Instant) value));
+            }
+        }
+
+        /**
+         * The value of the column, {@code null} when NULL.
+         */
+        Object read(ResultSet rs, int column) throws SQLException {
+            return switch (this) {
+                case TEXT -> rs.getString(column);
+                case INTEGER -> {
+                    long value = rs.getLong(column);
+                    yield rs.wasNull() ? null : value;
+                }
+                case DECIMAL -> rs.getBigDecimal(column);
+                case TIMESTAMP -> {
+                    Timestamp value = rs.getTimestamp(column);
+                    yield value == null ? null : value.toInstant();
+                }
+            };
+        }
+
+        String format(Object value) {
+            return switch (this) {
+                case DECIMAL -> ((BigDecimal) value).toPlainString();
+                default -> value.toString();
+            };
+        }
+
+        Object parse(String text) {
+            return switch (this) {
+                case TEXT -> text;
+                case INTEGER -> Long.parseLong(text);
+                case DECIMAL -> new BigDecimal(text);
+                case TIMESTAMP -> Instant.parse(text);
+            };
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.openshop.database.partition;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link PartitionCatalog} over the partition catalogs and DDL of the three dialects.
+ *
+ * <ul>
+ *   <li>PostgreSQL: partitions are tables named {@code <table>_pYYYYMM}, created with
+ *       {@code PARTITION OF}; detaching leaves the partition as a table of the same name</li>
+ *   <li>MySQL: partitions {@code pYYYYMM} are split off the catch-all {@code p_future} with
+ *       {@code REORGANIZE PARTITION}, which is cheap while it is empty; detaching exchanges the
+ *       partition with an empty copy of the table</li>
+ *   <li>Oracle: interval partitions get system names; locking the partition for a value creates
+ *       it ahead of the first insert. Before a drop the interval is set again, which turns the
+ *       existing interval partitions into range partitions so the oldest can be dropped</li>
+ * </ul>
+ */
+final class JdbcPartitionCatalog implements PartitionCatalog {
+
+    private static final String POSTGRESQL_PARTITIONS_SQL = """
+            SELECT c.relname, pg_get_expr(c.relpartbound, c.oid)
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = ?::regclass""";
+
+    private static final String MYSQL_PARTITIONS_SQL = """
+            SELECT PARTITION_NAME, PARTITION_DESCRIPTION
+            FROM information_schema.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL
+            ORDER BY PARTITION_ORDINAL_POSITION""";
+
+    private static final String ORACLE_PARTITIONS_SQL = """
+            SELECT partition_name, high_value
+            FROM all_tab_partitions
+            WHERE table_owner = SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA') AND table_name = ?
+            ORDER BY partition_position""";
+
+    private static final Pattern POSTGRESQL_BOUND = Pattern.compile("FROM \\((.+)\\) TO \\((.+)\\)");
+    private static final Pattern ORACLE_BOUND = Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}");
+
+    /**
+     * {@code timestamptz} as printed by PostgreSQL in the session time zone, e.g.
+     * {@code 2025-02-01 00:00:00+00} or {@code 2025-01-31 19:00:00-05}.
+     */
+    private static final DateTimeFormatter POSTGRESQL_TIMESTAMP = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 0, 6, true).optionalEnd()
+            .appendOffset("+HH:mm", "+00")
+            .toFormatter(Locale.ROOT);
+
+    private static final DateTimeFormatter ORACLE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM").withZone(ZoneOffset.UTC);
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcPartitionCatalog(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public List<Partition> partitions(PartitionedTable table) throws SQLException {
+        return switch (dialect) {
+            case POSTGRESQL -> postgresPartitions(table);
+            case MYSQL -> mySqlPartitions(table);
+            case ORACLE -> oraclePartitions(table);
+        };
+    }
+
+    @Override
+    public void create(PartitionedTable table, Instant from, Instant to) throws SQLException {
+        String name = table.tableName();
+        switch (dialect) {
+            case POSTGRESQL -> execute("CREATE TABLE " + name + "_p" + MONTH.format(from) + " PARTITION OF " + name
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            case MYSQL -> {
+                String partition = "PARTITION p" + MONTH.format(from) + " VALUES LESS THAN (" + to.getEpochSecond() + ")";
+                Partition catchAll = null;
+                for (Partition existing : mySqlPartitions(table)) {
+                    if (!existing.bounded()) {
+                        catchAll = existing;
+                    }
+                }
+                execute(catchAll == null
+                        ? "ALTER TABLE " + name + " ADD PARTITION (" + partition + ")"
+                        : "ALTER TABLE " + name + " REORGANIZE PARTITION " + catchAll.name() + " INTO ("
+                                + partition + ", PARTITION " + catchAll.name() + " VALUES LESS THAN MAXVALUE)");
+            }
+            case ORACLE -> execute("LOCK TABLE " + name + " PARTITION FOR (" + dialect.timestampLiteral(from)
+                    + ") IN SHARE MODE");
+        }
+    }
+
+    @Override
+    public void drop(Partition partition) throws SQLException {
+        String name = partition.table().tableName();
+        switch (dialect) {
+            case POSTGRESQL -> execute("DROP TABLE " + partition.name());
+            case MYSQL -> execute("ALTER TABLE " + name + " DROP PARTITION " + partition.name());
+            case ORACLE -> execute(
+                    "ALTER TABLE " + name + " SET INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))",
+                    "ALTER TABLE " + name + " DROP PARTITION " + partition.name() + " UPDATE GLOBAL INDEXES");
+        }
+    }
+
+    @Override
+    public void detach(Partition partition) throws SQLException {
+        String name = partition.table().tableName();
+        String archive = partition.archiveName();
+        switch (dialect) {
+            case POSTGRESQL -> execute("ALTER TABLE " + name + " DETACH PARTITION " + partition.name());
+            case MYSQL -> execute(
+                    "CREATE TABLE " + archive + " LIKE " + name,
+                    "ALTER TABLE " + archive + " REMOVE PARTITIONING",
+                    "ALTER TABLE " + name + " EXCHANGE PARTITION " + partition.name() + " WITH TABLE " + archive,
+                    "ALTER TABLE " + name + " DROP PARTITION " + partition.name());
+            case ORACLE -> execute(
+                    "CREATE TABLE " + archive + " FOR EXCHANGE WITH TABLE " + name,
+                    "ALTER TABLE " + name + " EXCHANGE PARTITION " + partition.name() + " WITH TABLE " + archive
+                            + " UPDATE GLOBAL INDEXES",
+                    "ALTER TABLE " + name + " SET INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))",
+                    "ALTER TABLE " + name + " DROP PARTITION " + partition.name() + " UPDATE GLOBAL INDEXES");
+        }
+    }
+
+    private List<Partition> postgresPartitions(PartitionedTable table) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(POSTGRESQL_PARTITIONS_SQL)) {
+            stmt.setString(1, table.tableName());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Matcher bound = POSTGRESQL_BOUND.matcher(rs.getString(2));
+                    partitions.add(bound.find()
+                            ? new Partition(table, rs.getString(1), postgresBound(bound.group(1)), postgresBound(bound.group(2)))
+                            : new Partition(table, rs.getString(1), null, null));
+                }
+            }
+        }
+        partitions.sort(Comparator.comparing(Partition::to, Comparator.nullsLast(Comparator.naturalOrder())));
+        return partitions;
+    }
+
+    private static Instant postgresBound(String value) {
+        if (!value.startsWith("'")) {
+            return null;
+        }
+        return OffsetDateTime.parse(value.substring(1, value.length() - 1), POSTGRESQL_TIMESTAMP).toInstant();
+    }
+
+    private List<Partition> mySqlPartitions(PartitionedTable table) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(MYSQL_PARTITIONS_SQL)) {
+            stmt.setString(1, table.tableName());
+            try (ResultSet rs = stmt.executeQuery()) {
+                Instant from = null;
+                while (rs.next()) {
+                    String description = rs.getString(2);
+                    Instant to = "MAXVALUE".equals(description) ? null : Instant.ofEpochSecond(Long.parseLong(description));
+                    partitions.add(new Partition(table, rs.getString(1), from, to));
+                    from = to;
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private List<Partition> oraclePartitions(PartitionedTable table) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(ORACLE_PARTITIONS_SQL)) {
+            stmt.setString(1, table.tableName().toUpperCase(Locale.ROOT));
+            try (ResultSet rs = stmt.executeQuery()) {
+                Instant from = null;
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    // HIGH_VALUE is the bound as SQL text, e.g. TIMESTAMP' 2025-02-01 00:00:00'
+                    Matcher bound = ORACLE_BOUND.matcher(rs.getString(2));
+                    Instant to = bound.find()
+                            ? LocalDateTime.parse(bound.group(), ORACLE_TIMESTAMP).toInstant(ZoneOffset.UTC)
+                            : null;
+                    partitions.add(new Partition(table, name, from, to));
+                    from = to;
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+}
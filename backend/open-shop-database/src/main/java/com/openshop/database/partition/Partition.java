@@ -0,0 +1,42 @@
+package com.openshop.database.partition;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * One partition of a {@link PartitionedTable}, holding the rows from {@code from} (inclusive) to
+ * {@code to} (exclusive).
+ *
+ * @param table partitioned table
+ * @param name  partition name as known to the database
+ * @param from  lower bound, {@code null} when unbounded (the history partition)
+ * @param to    upper bound, {@code null} when unbounded (the default or catch-all partition)
+ */
+public record Partition(PartitionedTable table, String name, Instant from, Instant to) {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM").withZone(ZoneOffset.UTC);
+
+    /**
+     * Returns whether the partition holds a bounded range of time; default and catch-all
+     * partitions are never created or retired by {@link PartitionManager}.
+     */
+    public boolean bounded() {
+        return to != null;
+    }
+
+    /**
+     * Returns whether the partition holds any row from {@code start} (inclusive) to {@code end} (exclusive).
+     */
+    public boolean overlaps(Instant start, Instant end) {
+        return (from == null || from.isBefore(end)) && (to == null || to.isAfter(start));
+    }
+
+    /**
+     * Name of the standalone table a detached partition becomes: {@code <table>_pYYYYMM} after
+     * the month it starts with, or {@code <table>_history}.
+     */
+    public String archiveName() {
+        return table.tableName() + (from == null ? "_history" : "_p" + MONTH.format(from));
+    }
+}
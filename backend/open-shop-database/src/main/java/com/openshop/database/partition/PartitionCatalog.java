@@ -0,0 +1,33 @@
+package com.openshop.database.partition;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Partition DDL of the three dialects, separated from {@link PartitionManager} so the retention
+ * rules can be exercised without a database.
+ */
+interface PartitionCatalog {
+
+    /**
+     * Partitions of {@code table} in bound order; empty when the table is not partitioned.
+     */
+    List<Partition> partitions(PartitionedTable table) throws SQLException;
+
+    /**
+     * Creates the partition holding the rows from {@code from} to {@code to}.
+     */
+    void create(PartitionedTable table, Instant from, Instant to) throws SQLException;
+
+    /**
+     * Drops the partition with its rows.
+     */
+    void drop(Partition partition) throws SQLException;
+
+    /**
+     * Removes the partition from its table, keeping its rows in a standalone table named
+     * {@link Partition#archiveName()}.
+     */
+    void detach(Partition partition) throws SQLException;
+}
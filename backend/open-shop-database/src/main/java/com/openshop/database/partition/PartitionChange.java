@@ -0,0 +1,11 @@
+package com.openshop.database.partition;
+
+/**
+ * A partition created or retired by {@link PartitionManager#maintain}.
+ */
+public record PartitionChange(Partition partition, Action action) {
+
+    public enum Action {
+        CREATED, DROPPED, DETACHED
+    }
+}
@@ -0,0 +1,130 @@
+package com.openshop.database.partition;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.partition.PartitionChange.Action;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of {@code inventory_log} and {@code audit_log} (V012) ahead of
+ * the clock and within their {@link RetentionPolicy retention}.
+ *
+ * <p>Each {@link #maintain} creates the partitions of the current month and the
+ * {@code monthsAhead} months after it that do not exist yet, so inserts never land in the
+ * default (PostgreSQL) or catch-all (MySQL) partition, from which later months could only be
+ * split off by moving rows. It then drops, or detaches into standalone tables, every partition
+ * whose rows are all older than the retention: one catalog operation per month instead of a
+ * delete of millions of rows. Months are calendar months in UTC.</p>
+ *
+ * <p>Maintenance is idempotent; running it daily on one node is enough. Partitions that already
+ * exist are left as they are, so it may also run on several nodes, where a concurrent create or
+ * drop of the same partition fails on one of them and is settled by its next round.</p>
+ */
+public final class PartitionManager implements AutoCloseable {
+
+    public static final int DEFAULT_MONTHS_AHEAD = 3;
+
+    private final PartitionCatalog catalog;
+    private final List<RetentionPolicy> policies;
+    private final int monthsAhead;
+    private final Clock clock;
+    private Poller worker;
+
+    public PartitionManager(DataSource dataSource, Dialect dialect) {
+        this(new JdbcPartitionCatalog(dataSource, dialect), RetentionPolicy.defaults(), DEFAULT_MONTHS_AHEAD,
+                Clock.systemUTC());
+    }
+
+    public PartitionManager(DataSource dataSource, Dialect dialect, List<RetentionPolicy> policies, int monthsAhead) {
+        this(new JdbcPartitionCatalog(dataSource, dialect), policies, monthsAhead, Clock.systemUTC());
+    }
+
+    PartitionManager(PartitionCatalog catalog, List<RetentionPolicy> policies, int monthsAhead, Clock clock) {
+        if (monthsAhead < 0) {
+            throw new IllegalArgumentException("monthsAhead must not be negative");
+        }
+        this.catalog = catalog;
+        this.policies = List.copyOf(policies);
+        this.monthsAhead = monthsAhead;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates missing partitions and retires expired ones for every policy, returning what was done.
+     */
+    public List<PartitionChange> maintain() throws SQLException {
+        YearMonth current = YearMonth.now(clock.withZone(ZoneOffset.UTC));
+        List<PartitionChange> changes = new ArrayList<>();
+        for (RetentionPolicy policy : policies) {
+            PartitionedTable table = policy.table();
+            List<Partition> partitions = catalog.partitions(table);
+            if (partitions.isEmpty()) {
+                throw new IllegalStateException(table.tableName() + " is not partitioned; migrate to V012 first");
+            }
+            for (int ahead = 0; ahead <= monthsAhead; ahead++) {
+                YearMonth month = current.plusMonths(ahead);
+                Instant from = start(month);
+                Instant to = start(month.plusMonths(1));
+                if (partitions.stream().noneMatch(p -> p.bounded() && p.overlaps(from, to))) {
+                    catalog.create(table, from, to);
+                    changes.add(new PartitionChange(new Partition(table, null, from, to), Action.CREATED));
+                }
+            }
+            Instant cutoff = start(current.minusMonths(policy.retentionMonths()));
+            for (Partition partition : partitions) {
+                if (partition.bounded() && !partition.to().isAfter(cutoff)) {
+                    if (policy.detach()) {
+                        catalog.detach(partition);
+                        changes.add(new PartitionChange(partition, Action.DETACHED));
+                    } else {
+                        catalog.drop(partition);
+                        changes.add(new PartitionChange(partition, Action.DROPPED));
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Runs {@link #maintain} on a daemon thread now and every {@code interval} after that; a
+     * failed round is retried in the next one.
+     *
+     * @return the poller, which reports failed rounds
+     */
+    public synchronized Poller start(Duration interval) {
+        if (worker != null) {
+            throw new IllegalStateException("Partition manager is already started");
+        }
+        worker = Poller.every("partition-manager", interval, this::maintain);
+        return worker;
+    }
+
+    /**
+     * Stops the background thread after its current round.
+     */
+    @Override
+    public void close() {
+        Poller stopping;
+        synchronized (this) {
+            stopping = worker;
+            worker = null;
+        }
+        if (stopping != null) {
+            stopping.close();
+        }
+    }
+
+    private static Instant start(YearMonth month) {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+}
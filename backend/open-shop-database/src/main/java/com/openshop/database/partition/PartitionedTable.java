@@ -0,0 +1,54 @@
+package com.openshop.database.partition;
+
+import com.openshop.database.Dialect;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Tables range partitioned by month since V012.
+ *
+ * <p>PostgreSQL and MySQL partition on the time column itself. Oracle's interval partitioning
+ * does not accept {@code TIMESTAMP WITH TIME ZONE}, so it partitions on a virtual UTC copy
+ * ({@code created_at_utc}, {@code changed_at_utc}); a query prunes partitions only when it
+ * filters on {@link #partitionColumn} with a value from {@link #partitionKey}.</p>
+ */
+public enum PartitionedTable {
+
+    INVENTORY_LOG("inventory_log", "created_at"),
+    AUDIT_LOG("audit_log", "changed_at");
+
+    private final String tableName;
+    private final String timeColumn;
+
+    PartitionedTable(String tableName, String timeColumn) {
+        this.tableName = tableName;
+        this.timeColumn = timeColumn;
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    public String timeColumn() {
+        return timeColumn;
+    }
+
+    /**
+     * Returns the column the table is partitioned on in {@code dialect}.
+     */
+    public String partitionColumn(Dialect dialect) {
+        return dialect == Dialect.ORACLE ? timeColumn + "_utc" : timeColumn;
+    }
+
+    /**
+     * Returns the bind value comparing {@link #partitionColumn} with {@code value}.
+     */
+    public Timestamp partitionKey(Dialect dialect, Instant value) {
+        return dialect == Dialect.ORACLE
+                ? Timestamp.valueOf(LocalDateTime.ofInstant(value, ZoneOffset.UTC))
+                : Timestamp.from(value);
+    }
+}
@@ -0,0 +1,31 @@
+package com.openshop.database.partition;
+
+import java.util.List;
+
+/**
+ * How long {@link PartitionManager} keeps the partitions of one table.
+ *
+ * @param table           partitioned table
+ * @param retentionMonths whole months kept before the current one; a partition is retired once
+ *                        its upper bound is at or before the start of the oldest kept month
+ * @param detach          whether retired partitions become standalone tables, e.g. to be
+ *                        archived, instead of being dropped
+ */
+public record RetentionPolicy(PartitionedTable table, int retentionMonths, boolean detach) {
+
+    public RetentionPolicy {
+        if (retentionMonths < 1) {
+            throw new IllegalArgumentException("retentionMonths must be positive");
+        }
+    }
+
+    /**
+     * Thirteen months of inventory movements, dropped afterwards, so the same month of last year
+     * is always at hand; two years of audit trail, detached for archiving afterwards.
+     */
+    public static List<RetentionPolicy> defaults() {
+        return List.of(
+                new RetentionPolicy(PartitionedTable.INVENTORY_LOG, 13, false),
+                new RetentionPolicy(PartitionedTable.AUDIT_LOG, 24, true));
+    }
+}
@@ -0,0 +1,196 @@
+package com.openshop.database.plan;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Json;
+import com.openshop.database.plan.QueryPlan.Step;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Captures execution plans without running the statement.
+ *
+ * <ul>
+ *   <li>PostgreSQL: {@code EXPLAIN (FORMAT JSON)}, walking the plan tree; index scans of a
+ *       partition report the index of the partitioned table it belongs to, as MySQL and Oracle
+ *       do for their local indexes</li>
+ *   <li>MySQL: {@code EXPLAIN FORMAT=TRADITIONAL}, one step per table access; scans of type
+ *       {@code ALL} and {@code index} are full scans</li>
+ *   <li>Oracle: {@code EXPLAIN PLAN} into {@code PLAN_TABLE}; the text comes from
+ *       {@code DBMS_XPLAN.DISPLAY} and the steps from the plan table rows, which are deleted
+ *       afterwards</li>
+ * </ul>
+ *
+ * <p>Statements are explained with literal values, not bind placeholders: Oracle's
+ * {@code EXPLAIN PLAN} does not peek binds, so only literals give the plan for the values that
+ * matter on all three databases. Use {@link Dialect#uuidLiteral} and friends to build them.</p>
+ */
+public final class PlanExplainer {
+
+    private static final AtomicLong STATEMENT_IDS = new AtomicLong();
+
+    private static final String POSTGRESQL_PARTITION_INDEXES_SQL = """
+            SELECT c.relname, r.relname
+            FROM pg_class c
+            JOIN pg_class r ON r.oid = pg_partition_root(c.oid)
+            WHERE c.relname = ANY (?) AND c.relispartition AND pg_table_is_visible(c.oid)""";
+
+    private final Dialect dialect;
+
+    public PlanExplainer(Dialect dialect) {
+        this.dialect = dialect;
+    }
+
+    public QueryPlan explain(Connection connection, String sql) throws SQLException {
+        return switch (dialect) {
+            case POSTGRESQL -> explainPostgres(connection, sql);
+            case MYSQL -> explainMySql(connection, sql);
+            case ORACLE -> explainOracle(connection, sql);
+        };
+    }
+
+    private QueryPlan explainPostgres(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN (FORMAT JSON) " + sql)) {
+            StringBuilder json = new StringBuilder();
+            while (rs.next()) {
+                json.append(rs.getString(1));
+            }
+            return withPartitionedIndexes(connection, fromPostgresJson(json.toString()));
+        }
+    }
+
+    /**
+     * Replaces the names of partition indexes with the partitioned index they are attached to.
+     */
+    private static QueryPlan withPartitionedIndexes(Connection connection, QueryPlan plan) throws SQLException {
+        Set<String> indexes = plan.indexes();
+        if (indexes.isEmpty()) {
+            return plan;
+        }
+        Map<String, String> roots = new HashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(POSTGRESQL_PARTITION_INDEXES_SQL)) {
+            stmt.setArray(1, connection.createArrayOf("text",
+                    indexes.stream().map(index -> index.toLowerCase(Locale.ROOT)).toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    roots.put(rs.getString(1).toUpperCase(Locale.ROOT), rs.getString(2));
+                }
+            }
+        }
+        if (roots.isEmpty()) {
+            return plan;
+        }
+        List<Step> steps = new ArrayList<>();
+        for (Step step : plan.steps()) {
+            steps.add(new Step(step.depth(), step.operation(), step.table(),
+                    roots.getOrDefault(step.index(), step.index()), step.estimatedRows(), step.fullScan()));
+        }
+        return new QueryPlan(Dialect.POSTGRESQL, QueryPlan.render(steps), steps);
+    }
+
+    /**
+     * Parses the output of {@code EXPLAIN (FORMAT JSON)}.
+     */
+    @SuppressWarnings("unchecked")
+    static QueryPlan fromPostgresJson(String json) {
+        List<Object> root = (List<Object>) Json.parse(json);
+        Map<String, Object> plan = (Map<String, Object>) ((Map<String, Object>) root.get(0)).get("Plan");
+        List<Step> steps = new ArrayList<>();
+        addPostgresNode(plan, 0, steps);
+        return new QueryPlan(Dialect.POSTGRESQL, QueryPlan.render(steps), steps);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addPostgresNode(Map<String, Object> node, int depth, List<Step> steps) {
+        String type = (String) node.get("Node Type");
+        Number rows = (Number) node.get("Plan Rows");
+        steps.add(new Step(depth, type, (String) node.get("Relation Name"), (String) node.get("Index Name"),
+                rows == null ? null : rows.doubleValue(), "Seq Scan".equals(type)));
+        Object children = node.get("Plans");
+        if (children instanceof List<?> plans) {
+            for (Object child : plans) {
+                addPostgresNode((Map<String, Object>) child, depth + 1, steps);
+            }
+        }
+    }
+
+    private QueryPlan explainMySql(Connection connection, String sql) throws SQLException {
+        List<Step> steps = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN FORMAT=TRADITIONAL " + sql)) {
+            while (rs.next()) {
+                String type = rs.getString("type");
+                String extra = rs.getString("Extra");
+                long rows = rs.getLong("rows");
+                boolean rowsKnown = !rs.wasNull();
+                steps.add(new Step(0, type == null ? String.valueOf(extra) : type, rs.getString("table"),
+                        rs.getString("key"), rowsKnown ? (double) rows : null,
+                        "ALL".equals(type) || "index".equals(type)));
+            }
+        }
+        return new QueryPlan(Dialect.MYSQL, QueryPlan.render(steps), steps);
+    }
+
+    private QueryPlan explainOracle(Connection connection, String sql) throws SQLException {
+        String statementId = "openshop-" + ProcessHandle.current().pid() + "-" + STATEMENT_IDS.incrementAndGet();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("EXPLAIN PLAN SET STATEMENT_ID = '" + statementId + "' FOR " + sql);
+        }
+        try {
+            StringBuilder text = new StringBuilder();
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT plan_table_output FROM TABLE(DBMS_XPLAN.DISPLAY('PLAN_TABLE', ?, 'TYPICAL'))")) {
+                stmt.setString(1, statementId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        text.append(rs.getString(1)).append('\n');
+                    }
+                }
+            }
+            List<Step> steps = new ArrayList<>();
+            try (PreparedStatement stmt = connection.prepareStatement("""
+                    SELECT p.depth, p.operation, p.options, p.object_type, p.object_name, i.table_name, p.cardinality
+                    FROM plan_table p
+                    LEFT JOIN all_indexes i ON i.owner = p.object_owner AND i.index_name = p.object_name
+                    WHERE p.statement_id = ?
+                    ORDER BY p.id""")) {
+                stmt.setString(1, statementId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String operation = rs.getString(2);
+                        String options = rs.getString(3);
+                        String objectType = rs.getString(4);
+                        String objectName = rs.getString(5);
+                        boolean index = objectType != null && objectType.toUpperCase(Locale.ROOT).startsWith("INDEX");
+                        long cardinality = rs.getLong(7);
+                        boolean cardinalityKnown = !rs.wasNull();
+                        steps.add(new Step(rs.getInt(1),
+                                options == null ? operation : operation + " " + options,
+                                index ? rs.getString(6) : objectName,
+                                index ? objectName : null,
+                                cardinalityKnown ? (double) cardinality : null,
+                                options != null && options.contains("FULL")
+                                        && ("TABLE ACCESS".equals(operation) || "INDEX".equals(operation))));
+                    }
+                }
+            }
+            return new QueryPlan(Dialect.ORACLE, text.toString(), steps);
+        } finally {
+            try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM plan_table WHERE statement_id = ?")) {
+                stmt.setString(1, statementId);
+                stmt.executeUpdate();
+            }
+        }
+    }
+}
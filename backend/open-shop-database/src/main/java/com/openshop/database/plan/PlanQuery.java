@@ -0,0 +1,60 @@
+package com.openshop.database.plan;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.seed.SeedKeys;
+import com.openshop.database.seed.SeedPlan;
+import com.openshop.database.seed.SeedTables;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * A canonical query and the index the optimizer is expected to pick for it.
+ *
+ * @param name          short name used in test and report output
+ * @param sql           statement with literal values, see {@link PlanExplainer}
+ * @param expectedIndex index that must appear in the plan
+ */
+public record PlanQuery(String name, String sql, String expectedIndex) {
+
+    /**
+     * The hot lookups of the storefront, back office and housekeeping jobs, with values that hit
+     * rows of a data set generated by {@link SeedTables} for {@code plan} and {@code today}.
+     * Tables are not aliased so MySQL reports table names rather than aliases.
+     */
+    public static List<PlanQuery> hotQueries(Dialect dialect, SeedPlan plan, LocalDate today) {
+        Instant now = today.atStartOfDay().toInstant(ZoneOffset.UTC);
+        String category = dialect.uuidLiteral(SeedKeys.id(SeedTables.CATEGORIES, plan.categories() / 2));
+        String customer = dialect.uuidLiteral(SeedKeys.id(SeedTables.CUSTOMERS, plan.customers() / 2));
+        String order = dialect.uuidLiteral(SeedKeys.id(SeedTables.ORDERS, plan.orders() / 2));
+        String variant = dialect.uuidLiteral(SeedKeys.id(SeedTables.VARIANTS, plan.variants() / 2));
+        return List.of(
+                new PlanQuery("product listing by category",
+                        "SELECT id, name, slug, min_price, max_price, avg_rating FROM products "
+                                + "WHERE category_id = " + category + " AND status = 'active'",
+                        "idx_product_category"),
+                new PlanQuery("order history of a customer",
+                        "SELECT id, order_number, status, total_amount, created_at FROM orders "
+                                + "WHERE customer_id = " + customer,
+                        "idx_order_customer"),
+                new PlanQuery("items of an order",
+                        "SELECT id, variant_id, quantity, unit_price FROM order_items WHERE order_id = " + order,
+                        "idx_order_item_order"),
+                new PlanQuery("stock of a variant",
+                        "SELECT location_id, supplier_id, quantity_on_hand, quantity_available FROM inventory_stock "
+                                + "WHERE variant_id = " + variant,
+                        "idx_stock_variant"),
+                new PlanQuery("inventory movements of the last day",
+                        "SELECT id, variant_id, operation_type, quantity_change, created_at FROM inventory_log "
+                                + "WHERE created_at >= " + dialect.timestampLiteral(now.minus(Duration.ofDays(1)))
+                                + " ORDER BY created_at DESC",
+                        "idx_log_created"),
+                new PlanQuery("active sessions past their expiry",
+                        "SELECT id, customer_id FROM user_sessions WHERE is_active = " + dialect.booleanLiteral(true)
+                                + " AND expires_at < " + dialect.timestampLiteral(now),
+                        "idx_session_active"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.openshop.database.plan;
+
+import com.openshop.database.Dialect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Execution plan of one statement, flattened into its access steps in plan order.
+ *
+ * @param dialect database the plan was captured on
+ * @param text    plan as printed by the database (DBMS_XPLAN on Oracle) or rendered from the steps
+ * @param steps   plan nodes, parents before children
+ */
+public record QueryPlan(Dialect dialect, String text, List<Step> steps) {
+
+    public QueryPlan {
+        steps = Collections.unmodifiableList(new ArrayList<>(steps));
+    }
+
+    /**
+     * One plan node. Table and index names are uppercase and {@code null} where the node does not
+     * access one; {@code estimatedRows} is the optimizer's row estimate, {@code null} when not shown.
+     * {@code fullScan} marks nodes that read a whole table or a whole index.
+     */
+    public record Step(int depth, String operation, String table, String index, Double estimatedRows, boolean fullScan) {
+
+        public Step {
+            table = upper(table);
+            index = upper(index);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder line = new StringBuilder("  ".repeat(depth)).append(operation);
+            if (table != null) {
+                line.append(" on ").append(table);
+            }
+            if (index != null) {
+                line.append(" using ").append(index);
+            }
+            if (estimatedRows != null) {
+                line.append(" (rows=").append(Math.round(estimatedRows)).append(')');
+            }
+            return line.toString();
+        }
+    }
+
+    /**
+     * Returns the names of all indexes the plan reads.
+     */
+    public Set<String> indexes() {
+        Set<String> indexes = new LinkedHashSet<>();
+        for (Step step : steps) {
+            if (step.index() != null) {
+                indexes.add(step.index());
+            }
+        }
+        return indexes;
+    }
+
+    public boolean usesIndex(String index) {
+        return indexes().contains(upper(index));
+    }
+
+    public List<Step> fullScans() {
+        List<Step> scans = new ArrayList<>();
+        for (Step step : steps) {
+            if (step.fullScan()) {
+                scans.add(step);
+            }
+        }
+        return scans;
+    }
+
+    /**
+     * Renders the steps as an indented tree, used where the database has no plan text of its own.
+     */
+    static String render(List<Step> steps) {
+        StringBuilder text = new StringBuilder();
+        for (Step step : steps) {
+            text.append(step).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String upper(String name) {
+        return name == null ? null : name.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,71 @@
+package com.openshop.database.product;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Persistence of the aggregate queue and the product aggregates, separated from
+ * {@link ProductAggregatePipeline} so the coalescing can be exercised without a database.
+ */
+interface AggregateStore {
+
+    /**
+     * Oldest queued changes, at most {@code limit}. Nothing is removed until {@link #acknowledge}.
+     */
+    List<QueuedChange> pending(int limit) throws SQLException;
+
+    /**
+     * Recomputes the aggregates of the given products, writes those whose stored values differ
+     * and removes the consumed changes from the queue, all in one transaction that holds the
+     * products' row locks from before the computation. Products that no longer exist are left
+     * out. Returns how many products were written.
+     */
+    int refresh(Collection<UUID> productIds, Collection<Long> changeIds) throws SQLException;
+
+    /**
+     * Product ids in key order after {@code after} (from the start when {@code null}), at most {@code limit}.
+     */
+    List<UUID> products(UUID after, int limit) throws SQLException;
+
+    /**
+     * A queue row. The product is {@code null} when a stock change was queued for a variant
+     * that has been deleted since; the variant's own delete queued its product.
+     */
+    record QueuedChange(long id, UUID productId) {
+    }
+
+    /**
+     * The denormalized columns of one product.
+     */
+    record Aggregates(UUID productId, BigDecimal minPrice, BigDecimal maxPrice, BigDecimal avgRating,
+                      int reviewCount, long totalStock, boolean inStock) {
+
+        boolean sameAs(Aggregates other) {
+            return sameValue(minPrice, other.minPrice)
+                    && sameValue(maxPrice, other.maxPrice)
+                    && sameValue(avgRating, other.avgRating)
+                    && reviewCount == other.reviewCount
+                    && totalStock == other.totalStock
+                    && inStock == other.inStock;
+        }
+
+        // DECIMAL columns come back with the column scale, computed values with their own
+        private static boolean sameValue(BigDecimal a, BigDecimal b) {
+            return a == null || b == null ? Objects.equals(a, b) : a.compareTo(b) == 0;
+        }
+    }
+
+    /**
+     * Stored and freshly computed aggregates of one product.
+     */
+    record Refresh(Aggregates stored, Aggregates computed) {
+
+        boolean stale() {
+            return !stored.sameAs(computed);
+        }
+    }
+}
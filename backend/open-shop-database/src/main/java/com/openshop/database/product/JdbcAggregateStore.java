@@ -0,0 +1,243 @@
+package com.openshop.database.product;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link AggregateStore} over {@code product_aggregate_queue} and {@code products}. Aggregates
+ * are computed for a whole chunk of products in one query and written back as one JDBC batch.
+ *
+ * <p>A refresh first locks all its product rows with {@code SELECT ... FOR UPDATE}, then computes,
+ * writes and removes the consumed queue rows in the same transaction. A refresh of the same
+ * product on another node waits for the lock, and its computation starts only after this
+ * transaction commits. Its later write therefore cannot put back values older than ours. The
+ * computation is the first plain read of the transaction, so MySQL's repeatable-read snapshot is
+ * also taken after the locks.</p>
+ */
+final class JdbcAggregateStore implements AggregateStore {
+
+    // Stock changes carry the variant; resolve it here rather than in the trigger
+    private static final String PENDING_SQL = """
+            SELECT q.id, COALESCE(q.product_id, v.product_id)
+            FROM product_aggregate_queue q
+            LEFT JOIN product_variants v ON v.id = q.variant_id
+            ORDER BY q.id""";
+
+    private static final String ACKNOWLEDGE_SQL = "DELETE FROM product_aggregate_queue WHERE id = ?";
+
+    private static final String LOCK_SQL = "SELECT id FROM products WHERE id IN (%s) ORDER BY id FOR UPDATE";
+
+    private static final String RECOMPUTE_SQL = """
+            SELECT p.id, p.min_price, p.max_price, p.avg_rating, p.review_count, p.total_stock, p.is_in_stock,
+                   (SELECT MIN(v.price) FROM product_variants v
+                    WHERE v.product_id = p.id AND v.is_active = %1$s),
+                   (SELECT MAX(v.price) FROM product_variants v
+                    WHERE v.product_id = p.id AND v.is_active = %1$s),
+                   (SELECT AVG(r.rating) FROM product_reviews r
+                    WHERE r.product_id = p.id AND r.is_approved = %1$s),
+                   (SELECT COUNT(*) FROM product_reviews r
+                    WHERE r.product_id = p.id AND r.is_approved = %1$s),
+                   (SELECT SUM(s.quantity_available) FROM inventory_stock s
+                    JOIN product_variants v ON v.id = s.variant_id
+                    WHERE v.product_id = p.id AND v.is_active = %1$s AND s.status = 'active')
+            FROM products p
+            WHERE p.id IN (%2$s)""";
+
+    private static final String UPDATE_SQL = """
+            UPDATE products
+            SET min_price = ?, max_price = ?, avg_rating = ?, review_count = ?, total_stock = ?, is_in_stock = ?
+            WHERE id = ?""";
+
+    private static final String PRODUCTS_SQL = "SELECT id FROM products ORDER BY id";
+    private static final String PRODUCTS_AFTER_SQL = "SELECT id FROM products WHERE id > ? ORDER BY id";
+
+    // Well below Oracle's limit of 1000 expressions per IN list
+    private static final int IN_LIST_LIMIT = 500;
+
+    // The byte order in which uuid, BINARY(16) and RAW(16) keys sort, so that chunks are locked in key order and
+    // pipelines on several nodes cannot deadlock each other
+    private static final Comparator<UUID> KEY_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcAggregateStore(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public List<QueuedChange> pending(int limit) throws SQLException {
+        List<QueuedChange> changes = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(dialect.limit(PENDING_SQL))) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    changes.add(new QueuedChange(rs.getLong(1), dialect.readUuid(rs, 2)));
+                }
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public int refresh(Collection<UUID> productIds, Collection<Long> changeIds) throws SQLException {
+        List<UUID> ids = new ArrayList<>(productIds);
+        ids.sort(KEY_ORDER);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                // Every product is locked before any is read
+                List<UUID> locked = new ArrayList<>(ids.size());
+                for (int from = 0; from < ids.size(); from += IN_LIST_LIMIT) {
+                    locked.addAll(lock(connection, ids.subList(from, Math.min(ids.size(), from + IN_LIST_LIMIT))));
+                }
+                List<Aggregates> stale = new ArrayList<>();
+                for (int from = 0; from < locked.size(); from += IN_LIST_LIMIT) {
+                    for (Refresh refresh : recompute(connection,
+                            locked.subList(from, Math.min(locked.size(), from + IN_LIST_LIMIT)))) {
+                        if (refresh.stale()) {
+                            stale.add(refresh.computed());
+                        }
+                    }
+                }
+                update(connection, stale);
+                acknowledge(connection, changeIds);
+                connection.commit();
+                return stale.size();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Locks the products of the chunk and returns those that still exist.
+     */
+    private List<UUID> lock(Connection connection, List<UUID> chunk) throws SQLException {
+        List<UUID> locked = new ArrayList<>(chunk.size());
+        try (PreparedStatement stmt = connection.prepareStatement(LOCK_SQL.formatted(placeholders(chunk.size())))) {
+            for (int i = 0; i < chunk.size(); i++) {
+                dialect.bindUuid(stmt, i + 1, chunk.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    locked.add(dialect.readUuid(rs, 1));
+                }
+            }
+        }
+        return locked;
+    }
+
+    private List<Refresh> recompute(Connection connection, List<UUID> chunk) throws SQLException {
+        List<Refresh> refreshes = new ArrayList<>();
+        String sql = RECOMPUTE_SQL.formatted(dialect.booleanLiteral(true), placeholders(chunk.size()));
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                dialect.bindUuid(stmt, i + 1, chunk.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    refreshes.add(refresh(rs));
+                }
+            }
+        }
+        return refreshes;
+    }
+
+    private Refresh refresh(ResultSet rs) throws SQLException {
+        UUID productId = dialect.readUuid(rs, 1);
+        Aggregates stored = new Aggregates(productId, rs.getBigDecimal(2), rs.getBigDecimal(3),
+                rs.getBigDecimal(4), rs.getInt(5), rs.getLong(6), rs.getBoolean(7));
+
+        BigDecimal avgRating = rs.getBigDecimal(10);
+        long totalStock = rs.getLong(12);
+        Aggregates computed = new Aggregates(productId, rs.getBigDecimal(8), rs.getBigDecimal(9),
+                avgRating == null ? BigDecimal.ZERO : avgRating.setScale(2, RoundingMode.HALF_UP),
+                rs.getInt(11), totalStock, totalStock > 0);
+        return new Refresh(stored, computed);
+    }
+
+    // The products are locked, so the key order no longer matters for deadlocks
+    private void update(Connection connection, List<Aggregates> aggregates) throws SQLException {
+        if (aggregates.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(UPDATE_SQL)) {
+            for (Aggregates product : aggregates) {
+                setDecimal(stmt, 1, product.minPrice());
+                setDecimal(stmt, 2, product.maxPrice());
+                setDecimal(stmt, 3, product.avgRating());
+                stmt.setInt(4, product.reviewCount());
+                stmt.setLong(5, product.totalStock());
+                stmt.setBoolean(6, product.inStock());
+                dialect.bindUuid(stmt, 7, product.productId());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void acknowledge(Connection connection, Collection<Long> changeIds) throws SQLException {
+        if (changeIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(ACKNOWLEDGE_SQL)) {
+            for (long id : changeIds) {
+                stmt.setLong(1, id);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    @Override
+    public List<UUID> products(UUID after, int limit) throws SQLException {
+        List<UUID> ids = new ArrayList<>();
+        String sql = dialect.limit(after == null ? PRODUCTS_SQL : PRODUCTS_AFTER_SQL);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (after != null) {
+                dialect.bindUuid(stmt, index++, after);
+            }
+            stmt.setInt(index, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(dialect.readUuid(rs, 1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static void setDecimal(PreparedStatement stmt, int index, BigDecimal value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, Types.DECIMAL);
+        } else {
+            stmt.setBigDecimal(index, value);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.openshop.database.product;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.product.AggregateStore.QueuedChange;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the denormalized aggregates of {@code products} ({@code min_price}, {@code max_price},
+ * {@code avg_rating}, {@code review_count}, {@code total_stock}, {@code is_in_stock}) in step
+ * with {@code product_variants}, {@code product_reviews} and {@code inventory_stock}.
+ *
+ * <p>Triggers from V011 queue the affected product (or, for stock, the variant) in
+ * {@code product_aggregate_queue} in the transaction of every relevant change. A drain reads a
+ * batch of queued changes, collapses them to the distinct products, recomputes those with one
+ * query per chunk and writes only the products whose stored values differ, as one JDBC batch. A
+ * burst of changes to one product, such as a flash sale reserving its stock row by row, costs
+ * one recomputation per drain instead of one per change.</p>
+ *
+ * <p>Changes are removed from the queue in the transaction that writes their products, so a
+ * failed or interrupted drain is repeated rather than lost. That transaction locks the products
+ * before computing them, so pipelines on several nodes may run at the same time: a drain that
+ * waited for another one's lock computes after that one committed, and never writes back older
+ * values. {@link #rebuild} recomputes every product without consulting the queue, e.g. after a
+ * bulk load or to repair aggregates written by other means.</p>
+ */
+public final class ProductAggregatePipeline implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_BATCH = 1_000;
+
+    private final AggregateStore store;
+    private final int maxBatch;
+    private Poller worker;
+
+    public ProductAggregatePipeline(DataSource dataSource, Dialect dialect) {
+        this(new JdbcAggregateStore(dataSource, dialect), DEFAULT_MAX_BATCH);
+    }
+
+    public ProductAggregatePipeline(DataSource dataSource, Dialect dialect, int maxBatch) {
+        this(new JdbcAggregateStore(dataSource, dialect), maxBatch);
+    }
+
+    ProductAggregatePipeline(AggregateStore store, int maxBatch) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+        this.store = store;
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Consumes up to {@code maxBatch} queued changes and returns how many were consumed.
+     */
+    public int drain() throws SQLException {
+        List<QueuedChange> changes = store.pending(maxBatch);
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        Set<UUID> products = new LinkedHashSet<>();
+        List<Long> changeIds = new ArrayList<>(changes.size());
+        for (QueuedChange change : changes) {
+            changeIds.add(change.id());
+            if (change.productId() != null) {
+                products.add(change.productId());
+            }
+        }
+        store.refresh(products, changeIds);
+        return changes.size();
+    }
+
+    /**
+     * Drains until the queue is empty and returns the number of changes consumed.
+     */
+    public int drainAll() throws SQLException {
+        int total = 0;
+        int drained;
+        do {
+            drained = drain();
+            total += drained;
+        } while (drained == maxBatch);
+        return total;
+    }
+
+    /**
+     * Recomputes all products in key order, {@code maxBatch} at a time, and returns how many
+     * had out-of-date aggregates. The queue is left alone; changes queued meanwhile are applied
+     * by the next drain.
+     */
+    public int rebuild() throws SQLException {
+        int updated = 0;
+        UUID after = null;
+        List<UUID> products;
+        do {
+            products = store.products(after, maxBatch);
+            if (!products.isEmpty()) {
+                updated += store.refresh(products, List.of());
+                after = products.getLast();
+            }
+        } while (products.size() == maxBatch);
+        return updated;
+    }
+
+    /**
+     * Drains the queue on a daemon thread every {@code pollInterval}. Changes arriving within
+     * one interval are coalesced; a failed drain is retried in the next round.
+     *
+     * @return the poller, which reports failed rounds
+     */
+    public synchronized Poller start(Duration pollInterval) {
+        if (worker != null) {
+            throw new IllegalStateException("Product aggregate pipeline is already started");
+        }
+        worker = Poller.every("product-aggregate-pipeline", pollInterval, this::drainAll);
+        return worker;
+    }
+
+    /**
+     * Stops the background thread after its current drain.
+     */
+    @Override
+    public void close() {
+        Poller stopping;
+        synchronized (this) {
+            stopping = worker;
+            worker = null;
+        }
+        if (stopping != null) {
+            stopping.close();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.openshop.database.purge;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link PurgeStore} over the tables of {@link PurgeTarget}.
+ *
+ * <p>Candidates are read without locks in the order of the time column's index. The batch
+ * transaction then locks those still before the cutoff with {@code FOR UPDATE SKIP LOCKED}, so a
+ * cart being edited or a session being touched is left for a later batch instead of making the
+ * purger wait, deletes their child rows with one statement on the child's key index and the rows
+ * themselves by primary key. The foreign keys cascade as well, but row by row per parent.</p>
+ */
+final class JdbcPurgeStore implements PurgeStore {
+
+    // Oracle accepts at most 1000 values in an IN list
+    private static final int MAX_BATCH = 1000;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcPurgeStore(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public Batch deleteBatch(PurgeTarget target, Instant cutoff, int limit) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            List<UUID> candidates = candidates(connection, target, cutoff, Math.min(limit, MAX_BATCH));
+            if (candidates.isEmpty()) {
+                return new Batch(0, 0, 0);
+            }
+            connection.setAutoCommit(false);
+            try {
+                List<UUID> locked = lock(connection, target, cutoff, candidates);
+                int childRows = 0;
+                int rows = 0;
+                if (!locked.isEmpty()) {
+                    if (target.childTable() != null) {
+                        childRows = delete(connection, target.childTable(), target.childKey(), locked);
+                    }
+                    rows = delete(connection, target.tableName(), "id", locked);
+                }
+                connection.commit();
+                return new Batch(candidates.size(), rows, childRows);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private List<UUID> candidates(Connection connection, PurgeTarget target, Instant cutoff, int limit)
+            throws SQLException {
+        String sql = dialect.limit("SELECT id FROM " + target.tableName() + " WHERE " + target.timeColumn() + " < ?"
+                + " ORDER BY " + target.timeColumn());
+        List<UUID> ids = new ArrayList<>(limit);
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.from(cutoff));
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(dialect.readUuid(rs, 1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Locks the candidates still before the cutoff, skipping those locked elsewhere.
+     */
+    private List<UUID> lock(Connection connection, PurgeTarget target, Instant cutoff, List<UUID> candidates)
+            throws SQLException {
+        String sql = "SELECT id FROM " + target.tableName() + " WHERE id IN (" + placeholders(candidates.size())
+                + ") AND " + target.timeColumn() + " < ? FOR UPDATE SKIP LOCKED";
+        List<UUID> ids = new ArrayList<>(candidates.size());
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = bindAll(stmt, candidates);
+            stmt.setTimestamp(index, Timestamp.from(cutoff));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(dialect.readUuid(rs, 1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private int delete(Connection connection, String table, String column, List<UUID> ids) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "DELETE FROM " + table + " WHERE " + column + " IN (" + placeholders(ids.size()) + ")")) {
+            bindAll(stmt, ids);
+            return stmt.executeUpdate();
+        }
+    }
+
+    private int bindAll(PreparedStatement stmt, List<UUID> ids) throws SQLException {
+        int index = 1;
+        for (UUID id : ids) {
+            dialect.bindUuid(stmt, index++, id);
+        }
+        return index;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
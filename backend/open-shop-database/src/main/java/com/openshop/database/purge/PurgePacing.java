@@ -0,0 +1,38 @@
+package com.openshop.database.purge;
+
+import java.time.Duration;
+
+/**
+ * Batch sizing and pauses of {@link Purger}.
+ *
+ * <p>A batch that took less than half the {@code targetBatchTime} doubles the size of the next
+ * one, a batch that took longer halves it, within {@code minBatchSize} and {@code maxBatchSize}.
+ * After each batch the purger pauses so that it works for at most {@code dutyCycle} of the
+ * time, which leaves replicas room to apply the deletes and other sessions room for the locks.</p>
+ *
+ * @param minBatchSize     smallest batch, also used after lock conflicts
+ * @param maxBatchSize     largest batch; the database store caps it at 1000 rows
+ * @param targetBatchTime  time one batch, a single transaction, should take at most
+ * @param dutyCycle        share of the time spent deleting, in (0, 1]; 1 runs without pauses
+ */
+public record PurgePacing(int minBatchSize, int maxBatchSize, Duration targetBatchTime, double dutyCycle) {
+
+    public PurgePacing {
+        if (minBatchSize < 1 || maxBatchSize < minBatchSize) {
+            throw new IllegalArgumentException("Batch sizes must satisfy 1 <= min <= max");
+        }
+        if (targetBatchTime.isNegative() || targetBatchTime.isZero()) {
+            throw new IllegalArgumentException("targetBatchTime must be positive");
+        }
+        if (!(dutyCycle > 0 && dutyCycle <= 1)) {
+            throw new IllegalArgumentException("dutyCycle must be in (0, 1]");
+        }
+    }
+
+    /**
+     * Batches of 10 to 1000 rows of at most 200 ms, deleting half of the time.
+     */
+    public static PurgePacing defaults() {
+        return new PurgePacing(10, 1000, Duration.ofMillis(200), 0.5);
+    }
+}
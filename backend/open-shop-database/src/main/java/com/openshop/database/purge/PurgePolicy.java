@@ -0,0 +1,33 @@
+package com.openshop.database.purge;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * How long {@link Purger} keeps the rows of one target after their time column.
+ *
+ * @param target    rows purged
+ * @param retention time after the time column at which a row is deleted; zero deletes it as soon
+ *                  as the time column is past
+ */
+public record PurgePolicy(PurgeTarget target, Duration retention) {
+
+    public PurgePolicy {
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("retention must not be negative");
+        }
+    }
+
+    /**
+     * A week of expired sessions and verification tokens, for support and security questions;
+     * a day of reset tokens and expired carts; carts untouched for 90 days.
+     */
+    public static List<PurgePolicy> defaults() {
+        return List.of(
+                new PurgePolicy(PurgeTarget.EXPIRED_SESSIONS, Duration.ofDays(7)),
+                new PurgePolicy(PurgeTarget.PASSWORD_RESET_TOKENS, Duration.ofDays(1)),
+                new PurgePolicy(PurgeTarget.EMAIL_VERIFICATION_TOKENS, Duration.ofDays(7)),
+                new PurgePolicy(PurgeTarget.EXPIRED_CARTS, Duration.ofDays(1)),
+                new PurgePolicy(PurgeTarget.ABANDONED_CARTS, Duration.ofDays(90)));
+    }
+}
@@ -0,0 +1,25 @@
+package com.openshop.database.purge;
+
+import java.time.Duration;
+
+/**
+ * What {@link Purger} did for one target, in one round or in total.
+ *
+ * @param rows      rows of the target table deleted
+ * @param childRows rows of the child table deleted with them
+ * @param batches   transactions committed
+ * @param conflicts batches rolled back on a lock conflict and retried smaller
+ * @param elapsed   time spent, pauses included
+ * @param batchSize size the next batch will have
+ */
+public record PurgeResult(PurgeTarget target, long rows, long childRows, int batches, int conflicts,
+                          Duration elapsed, int batchSize) {
+
+    /**
+     * This round added to the totals of earlier ones; the batch size is the latest.
+     */
+    PurgeResult plus(PurgeResult round) {
+        return new PurgeResult(target, rows + round.rows, childRows + round.childRows, batches + round.batches,
+                conflicts + round.conflicts, elapsed.plus(round.elapsed), round.batchSize);
+    }
+}
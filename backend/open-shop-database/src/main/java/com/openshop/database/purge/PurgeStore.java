@@ -0,0 +1,28 @@
+package com.openshop.database.purge;
+
+import java.sql.SQLException;
+import java.time.Instant;
+
+/**
+ * Deletion of purgeable rows, separated from {@link Purger} so batching and pacing can be
+ * exercised without a database.
+ */
+interface PurgeStore {
+
+    /**
+     * Deletes, in one transaction, up to {@code limit} rows of the target whose time column is
+     * before {@code cutoff}, oldest first, together with their child rows. Rows locked by other
+     * transactions are skipped rather than waited for.
+     */
+    Batch deleteBatch(PurgeTarget target, Instant cutoff, int limit) throws SQLException;
+
+    /**
+     * Outcome of one batch.
+     *
+     * @param candidates rows found before the cutoff, at most the limit
+     * @param rows       rows deleted, fewer than the candidates if some were locked or changed
+     * @param childRows  child rows deleted with them
+     */
+    record Batch(int candidates, int rows, int childRows) {
+    }
+}
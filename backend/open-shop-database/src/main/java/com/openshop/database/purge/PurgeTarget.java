@@ -0,0 +1,69 @@
+package com.openshop.database.purge;
+
+/**
+ * Rows {@link Purger} deletes once their time column is past the retention of their
+ * {@link PurgePolicy}. Candidates are read in the order of the index on the time column.
+ */
+public enum PurgeTarget {
+
+    /**
+     * Sessions past {@code expires_at}, read through {@code idx_session_expires}.
+     */
+    EXPIRED_SESSIONS("user_sessions", "expires_at", null, null),
+
+    /**
+     * Password reset tokens past {@code expires_at}, read through {@code idx_reset_expires}.
+     */
+    PASSWORD_RESET_TOKENS("password_reset_tokens", "expires_at", null, null),
+
+    /**
+     * Email verification tokens past {@code expires_at}, read through {@code idx_verify_expires}
+     * (V017).
+     */
+    EMAIL_VERIFICATION_TOKENS("email_verification_tokens", "expires_at", null, null),
+
+    /**
+     * Carts past {@code expires_at} with their items, read through {@code idx_cart_expires}.
+     */
+    EXPIRED_CARTS("shopping_carts", "expires_at", "shopping_cart_items", "cart_id"),
+
+    /**
+     * Carts without activity since the retention, whatever their status, with their items, read
+     * through {@code idx_cart_last_activity}.
+     */
+    ABANDONED_CARTS("shopping_carts", "last_activity_at", "shopping_cart_items", "cart_id");
+
+    private final String tableName;
+    private final String timeColumn;
+    private final String childTable;
+    private final String childKey;
+
+    PurgeTarget(String tableName, String timeColumn, String childTable, String childKey) {
+        this.tableName = tableName;
+        this.timeColumn = timeColumn;
+        this.childTable = childTable;
+        this.childKey = childKey;
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    public String timeColumn() {
+        return timeColumn;
+    }
+
+    /**
+     * Table whose rows reference the purged rows and are deleted first, {@code null} if none.
+     */
+    public String childTable() {
+        return childTable;
+    }
+
+    /**
+     * Column of {@link #childTable()} referencing the purged row's id.
+     */
+    public String childKey() {
+        return childKey;
+    }
+}
@@ -0,0 +1,200 @@
+package com.openshop.database.purge;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.purge.PurgeStore.Batch;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Deletes expired sessions and tokens and expired or abandoned carts in small batches, so the
+ * tables stay bounded without one long-running {@code DELETE}.
+ *
+ * <p>Each batch is one short transaction over at most a thousand rows, read in the order of
+ * the time column's index. Its size adapts to how long the previous batch took
+ * ({@link PurgePacing}), and the purger pauses between batches in proportion to the work done,
+ * so locks are held briefly, replicas keep up and the purge backs off when the database is
+ * busy. A batch rolled back on a lock conflict is retried at the smallest size; after repeated
+ * conflicts the target is left for the next round. Batch sizes carry over between rounds.</p>
+ *
+ * <p>Purging is idempotent; running it every few minutes on one node is enough. Several nodes
+ * may run it, as rows locked by one are skipped by the others.</p>
+ */
+public final class Purger implements AutoCloseable {
+
+    // Consecutive lock conflicts after which a target is left for the next round
+    private static final int MAX_CONFLICTS = 3;
+
+    private final PurgeStore store;
+    private final List<PurgePolicy> policies;
+    private final PurgePacing pacing;
+    private final Clock clock;
+    private final Map<PurgeTarget, Integer> batchSizes = new EnumMap<>(PurgeTarget.class);
+    private final Map<PurgeTarget, PurgeResult> totals = new EnumMap<>(PurgeTarget.class);
+    private volatile Poller worker;
+    private volatile boolean stopping;
+
+    public Purger(DataSource dataSource, Dialect dialect) {
+        this(new JdbcPurgeStore(dataSource, dialect), PurgePolicy.defaults(), PurgePacing.defaults(),
+                Clock.systemUTC());
+    }
+
+    public Purger(DataSource dataSource, Dialect dialect, List<PurgePolicy> policies, PurgePacing pacing) {
+        this(new JdbcPurgeStore(dataSource, dialect), policies, pacing, Clock.systemUTC());
+    }
+
+    Purger(PurgeStore store, List<PurgePolicy> policies, PurgePacing pacing, Clock clock) {
+        this.store = store;
+        this.policies = List.copyOf(policies);
+        this.pacing = pacing;
+        this.clock = clock;
+    }
+
+    /**
+     * Purges every target of the policies until nothing is past its retention, returning what
+     * was done per target.
+     */
+    public synchronized List<PurgeResult> purge() throws SQLException {
+        List<PurgeResult> results = new ArrayList<>();
+        for (PurgePolicy policy : policies) {
+            PurgeResult result = purge(policy);
+            totals.merge(policy.target(), result, PurgeResult::plus);
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * What all rounds so far did per target.
+     */
+    public synchronized List<PurgeResult> totals() {
+        return List.copyOf(totals.values());
+    }
+
+    /**
+     * Runs {@link #purge} on a daemon thread now and every {@code interval} after that; a failed
+     * round is retried in the next one.
+     *
+     * @return the poller, which reports failed rounds
+     */
+    public synchronized Poller start(Duration interval) {
+        if (worker != null) {
+            throw new IllegalStateException("Purger is already started");
+        }
+        worker = Poller.every("purger", interval, this::purge);
+        return worker;
+    }
+
+    /**
+     * Stops the background thread after its current batch.
+     */
+    @Override
+    public void close() {
+        // Not synchronized: the worker holds the monitor for a whole round
+        Poller stopped = worker;
+        if (stopped == null) {
+            return;
+        }
+        // Ends the current round after its batch, and its pause, which the poller's wake-up cuts short
+        stopping = true;
+        stopped.close();
+        synchronized (this) {
+            worker = null;
+            stopping = false;
+        }
+    }
+
+    private PurgeResult purge(PurgePolicy policy) throws SQLException {
+        PurgeTarget target = policy.target();
+        Instant cutoff = clock.instant().minus(policy.retention());
+        int size = batchSizes.getOrDefault(target, pacing.minBatchSize());
+        long start = System.nanoTime();
+        long rows = 0;
+        long childRows = 0;
+        int batches = 0;
+        int conflicts = 0;
+        int consecutiveConflicts = 0;
+        try {
+            while (!stopping) {
+                long batchStart = System.nanoTime();
+                Batch batch;
+                try {
+                    batch = store.deleteBatch(target, cutoff, size);
+                } catch (SQLException e) {
+                    if (!isLockConflict(e)) {
+                        throw e;
+                    }
+                    conflicts++;
+                    size = pacing.minBatchSize();
+                    if (++consecutiveConflicts >= MAX_CONFLICTS) {
+                        break;
+                    }
+                    pause(System.nanoTime() - batchStart);
+                    continue;
+                }
+                consecutiveConflicts = 0;
+                long took = System.nanoTime() - batchStart;
+                // Nothing left, or only rows locked by others, which the next round picks up
+                if (batch.rows() == 0) {
+                    break;
+                }
+                rows += batch.rows();
+                childRows += batch.childRows();
+                batches++;
+                size = resize(size, took);
+                pause(took);
+            }
+        } finally {
+            batchSizes.put(target, size);
+        }
+        return new PurgeResult(target, rows, childRows, batches, conflicts,
+                Duration.ofNanos(System.nanoTime() - start), size);
+    }
+
+    private int resize(int size, long tookNanos) {
+        long target = pacing.targetBatchTime().toNanos();
+        if (tookNanos > target) {
+            return Math.max(pacing.minBatchSize(), size / 2);
+        }
+        if (tookNanos < target / 2) {
+            return (int) Math.min(pacing.maxBatchSize(), size * 2L);
+        }
+        return size;
+    }
+
+    /**
+     * Rests so the work of {@code workedNanos} stays within the duty cycle.
+     */
+    private void pause(long workedNanos) {
+        long pauseNanos = (long) (workedNanos * (1 - pacing.dutyCycle()) / pacing.dutyCycle());
+        if (pauseNanos > 0 && !stopping) {
+            LockSupport.parkNanos(this, pauseNanos);
+        }
+    }
+
+    /**
+     * Whether the batch failed on a lock wait timeout or deadlock, which a smaller batch later
+     * may avoid.
+     */
+    static boolean isLockConflict(SQLException e) {
+        if (e instanceof SQLTransientException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        if (state != null && (state.startsWith("40") || state.equals("55P03"))) {
+            return true;
+        }
+        // MySQL lock wait timeout, Oracle deadlock
+        return e.getErrorCode() == 1205 || e.getErrorCode() == 60;
+    }
+}
@@ -0,0 +1,23 @@
+package com.openshop.database.routing;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Instant;
+
+/**
+ * Persistence of replica heartbeats, separated from {@link RoutingDataSource} so routing can be
+ * exercised without databases.
+ */
+interface HeartbeatStore {
+
+    /**
+     * Writes the heartbeat of {@code node} to the primary.
+     */
+    void beat(String node, Instant at) throws SQLException;
+
+    /**
+     * Reads the latest heartbeat of {@code node} a replica has applied, or {@code null} if it has
+     * none yet.
+     */
+    Instant lastBeat(DataSource replica, String node) throws SQLException;
+}
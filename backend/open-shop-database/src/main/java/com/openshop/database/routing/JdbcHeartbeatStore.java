@@ -0,0 +1,58 @@
+package com.openshop.database.routing;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * {@link HeartbeatStore} over {@code replica_heartbeat}: one upsert on the primary per beat and
+ * one primary key lookup per replica.
+ */
+final class JdbcHeartbeatStore implements HeartbeatStore {
+
+    private static final String READ_SQL = "SELECT beat_at FROM replica_heartbeat WHERE node = ?";
+
+    // A replica that does not answer within this time is ejected like a lagging one
+    private static final int QUERY_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final String beatSql;
+
+    JdbcHeartbeatStore(DataSource primary, Dialect dialect) {
+        this.primary = primary;
+        this.beatSql = dialect.upsert("replica_heartbeat", List.of("node"), List.of("beat_at"));
+    }
+
+    @Override
+    public void beat(String node, Instant at) throws SQLException {
+        try (Connection connection = primary.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(beatSql)) {
+            stmt.setString(1, node);
+            stmt.setTimestamp(2, Timestamp.from(at));
+            stmt.executeUpdate();
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    @Override
+    public Instant lastBeat(DataSource replica, String node) throws SQLException {
+        try (Connection connection = replica.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(READ_SQL)) {
+            stmt.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            stmt.setString(1, node);
+            try (ResultSet rs = stmt.executeQuery()) {
+                Timestamp beatAt = rs.next() ? rs.getTimestamp(1) : null;
+                return beatAt == null ? null : beatAt.toInstant();
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.openshop.database.routing;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * What the heartbeat last measured for a replica.
+ *
+ * @param lastBeat the latest heartbeat applied by the replica, {@code null} before the first one
+ *                 or after it failed to answer
+ * @param lag      how far {@code lastBeat} trails the current time, {@code null} without a beat
+ * @param routable whether the replica currently receives reads
+ */
+public record ReplicaStatus(String name, Instant lastBeat, Duration lag, boolean routable) {
+}
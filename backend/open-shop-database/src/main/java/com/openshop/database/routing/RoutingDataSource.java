@@ -0,0 +1,426 @@
+package com.openshop.database.routing;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Routes connections between a primary and its replicas, so catalog, search and history reads
+ * stop competing with checkout writes on the primary. Used as a data source it hands out primary
+ * connections. Its views route elsewhere:
+ * <ul>
+ *   <li>{@link #replicaReads()} for reads that tolerate replication lag, such as browsing
+ *   {@code products} and {@code categories}, search and order history;</li>
+ *   <li>{@link #writes(String)} for the writes of a session, such as a cart or checkout, on the
+ *   primary;</li>
+ *   <li>{@link #reads(String)} for the reads of that session, which go to a replica only once
+ *   it has applied the session's writes.</li>
+ * </ul>
+ *
+ * <p>Lag is measured with a heartbeat. Every {@link #start round} writes the current time to this
+ * node's {@code replica_heartbeat} row (V022) on the primary and reads the row back from each
+ * replica. A replica is routed to while the heartbeat it applied is at most {@code maxLag} old. A
+ * replica that lags further, fails to answer or is not probed in time is ejected until a later
+ * round finds it caught up. Without a routable replica, reads go to the primary.</p>
+ *
+ * <p>A session's write counts from when its connection is returned. Its reads stay on the
+ * primary while a write connection is open, and afterwards until a replica applied a heartbeat
+ * taken later; heartbeat rounds also drop these sessions again, so call {@link #start} before
+ * routing writes. Sessions are tracked per node, so read-your-writes needs sticky sessions.
+ * Replicas must apply transactions in commit order, as PostgreSQL streaming replication, MySQL
+ * with {@code replica_preserve_commit_order} and Oracle Active Data Guard do.</p>
+ */
+public final class RoutingDataSource implements DataSource, AutoCloseable {
+
+    /**
+     * Lag beyond which a replica is ejected, unless configured otherwise.
+     */
+    public static final Duration DEFAULT_MAX_LAG = Duration.ofSeconds(5);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final HeartbeatStore store;
+    private final String node;
+    private final Duration maxLag;
+    private final Clock clock;
+    private final Map<String, Pin> pins = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final DataSource replicaReads = new View(null, false);
+    private Poller worker;
+
+    /**
+     * @param replicas data sources of the replicas by name
+     * @param node     name of this application node, unique among the nodes sharing the primary
+     */
+    public RoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Dialect dialect, String node) {
+        this(primary, replicas, dialect, node, DEFAULT_MAX_LAG);
+    }
+
+    public RoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Dialect dialect, String node,
+                             Duration maxLag) {
+        this(primary, replicas, new JdbcHeartbeatStore(primary, dialect), node, maxLag, Clock.systemUTC());
+    }
+
+    RoutingDataSource(DataSource primary, Map<String, DataSource> replicas, HeartbeatStore store, String node,
+                      Duration maxLag, Clock clock) {
+        if (node == null || node.isEmpty() || node.length() > 100) {
+            throw new IllegalArgumentException("node must have 1 to 100 characters");
+        }
+        if (maxLag.isNegative() || maxLag.isZero()) {
+            throw new IllegalArgumentException("maxLag must be positive");
+        }
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.store = store;
+        this.node = node;
+        this.maxLag = maxLag;
+        this.clock = clock;
+    }
+
+    /**
+     * Connections to a replica for reads that tolerate up to {@code maxLag} of replication lag.
+     */
+    public DataSource replicaReads() {
+        return replicaReads;
+    }
+
+    /**
+     * Connections for the reads of {@code session}, on a replica that applied its writes.
+     */
+    public DataSource reads(String session) {
+        return new View(session, false);
+    }
+
+    /**
+     * Connections to the primary for the writes of {@code session}.
+     *
+     * <p>Only heartbeat rounds release a session once its writes reached the replicas, so
+     * {@link #start} must run (or {@link #heartbeat} be called periodically) before writes are
+     * routed; otherwise every session that wrote stays tracked and its reads stay on the primary.</p>
+     */
+    public DataSource writes(String session) {
+        return new View(session, true);
+    }
+
+    /**
+     * What the last heartbeat measured for each replica.
+     */
+    public List<ReplicaStatus> replicas() {
+        Instant now = clock.instant();
+        List<ReplicaStatus> statuses = new ArrayList<>();
+        for (Replica replica : replicas) {
+            Instant beat = replica.beat;
+            statuses.add(new ReplicaStatus(replica.name, beat, beat == null ? null : Duration.between(beat, now),
+                    routable(beat, now)));
+        }
+        return statuses;
+    }
+
+    /**
+     * Writes a heartbeat to the primary and reads back each replica's. A replica that fails is
+     * ejected, and if the primary fails all replicas age out. Every replica is probed either way;
+     * the first failure is thrown afterwards, with the others suppressed.
+     *
+     * @throws SQLException if the primary or a replica failed
+     */
+    public synchronized void heartbeat() throws SQLException {
+        try {
+            Instant now = clock.instant();
+            SQLException failure = null;
+            try {
+                store.beat(node, now);
+            } catch (SQLException | RuntimeException e) {
+                // The replicas' beats age until the primary takes them again
+                failure = new SQLException("Heartbeat could not be written to the primary", e);
+            }
+            for (Replica replica : replicas) {
+                try {
+                    replica.beat = store.lastBeat(replica.dataSource, node);
+                } catch (SQLException | RuntimeException e) {
+                    replica.beat = null;
+                    SQLException replicaFailure = new SQLException("Heartbeat could not be read from " + replica.name,
+                            e);
+                    if (failure == null) {
+                        failure = replicaFailure;
+                    } else {
+                        failure.addSuppressed(replicaFailure);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            // A routable replica applied a beat after these writes; pins age out even when rounds fail
+            Instant settled = clock.instant().minus(maxLag);
+            pins.values().removeIf(pin -> pin.open() == 0 && pin.writtenAt().isBefore(settled));
+        }
+    }
+
+    /**
+     * Runs {@link #heartbeat} on a daemon thread every {@code interval}, which should be well
+     * below {@code maxLag}.
+     *
+     * @return the poller, which reports failed rounds
+     */
+    public synchronized Poller start(Duration interval) {
+        if (worker != null) {
+            throw new IllegalStateException("Replica heartbeat is already started");
+        }
+        worker = Poller.every("replica-heartbeat", interval, this::heartbeat);
+        return worker;
+    }
+
+    /**
+     * Stops the heartbeat thread after its current round. Replicas then age out and reads move to
+     * the primary.
+     */
+    @Override
+    public void close() {
+        Poller stopping;
+        synchronized (this) {
+            stopping = worker;
+            worker = null;
+        }
+        if (stopping != null) {
+            stopping.close();
+        }
+    }
+
+    /**
+     * Sessions whose writes are still tracked.
+     */
+    int trackedSessions() {
+        return pins.size();
+    }
+
+    /**
+     * The data source a read of {@code session} (or of no session) goes to: the next routable
+     * replica that applied the session's writes, else the primary.
+     */
+    DataSource route(String session) {
+        Instant now = clock.instant();
+        Pin pin = session == null ? null : pins.get(session);
+        if (pin != null && pin.open() > 0 || replicas.isEmpty()) {
+            return primary;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            Instant beat = replica.beat;
+            if (routable(beat, now) && (pin == null || beat.isAfter(pin.writtenAt()))) {
+                return replica.dataSource;
+            }
+        }
+        return primary;
+    }
+
+    private boolean routable(Instant beat, Instant now) {
+        return beat != null && !beat.isBefore(now.minus(maxLag));
+    }
+
+    private Connection read(String session, String user, String password) throws SQLException {
+        DataSource target = route(session);
+        if (target == primary) {
+            return connect(primary, user, password);
+        }
+        try {
+            return connect(target, user, password);
+        } catch (SQLException e) {
+            for (Replica replica : replicas) {
+                if (replica.dataSource == target) {
+                    replica.beat = null;
+                }
+            }
+            return connect(primary, user, password);
+        }
+    }
+
+    private Connection write(String session, String user, String password) throws SQLException {
+        Connection connection = connect(primary, user, password);
+        pins.merge(session, new Pin(1, null), (pin, opened) -> new Pin(pin.open() + 1, pin.writtenAt()));
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "close" -> {
+                            if (closed.compareAndSet(false, true)) {
+                                try {
+                                    connection.close();
+                                } finally {
+                                    Instant now = clock.instant();
+                                    pins.compute(session, (key, pin) -> new Pin(pin == null ? 0 : pin.open() - 1, now));
+                                }
+                            }
+                            return null;
+                        }
+                        default -> {
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        }
+                    }
+                });
+    }
+
+    private static Connection connect(DataSource dataSource, String user, String password) throws SQLException {
+        return user == null ? dataSource.getConnection() : dataSource.getConnection(user, password);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String user, String password) throws SQLException {
+        return primary.getConnection(user, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private static final class Replica {
+
+        final String name;
+        final DataSource dataSource;
+        // The latest heartbeat the replica applied, null while it is not known
+        volatile Instant beat;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * Write connections of a session still open, and when the last one was returned.
+     */
+    private record Pin(int open, Instant writtenAt) {
+    }
+
+    /**
+     * A data source handing out connections routed for one session, or for none.
+     */
+    private final class View implements DataSource {
+
+        private final String session;
+        private final boolean write;
+
+        View(String session, boolean write) {
+            if (write && session == null) {
+                throw new IllegalArgumentException("Writes need a session");
+            }
+            this.session = session;
+            this.write = write;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return write ? write(session, null, null) : read(session, null, null);
+        }
+
+        @Override
+        public Connection getConnection(String user, String password) throws SQLException {
+            return write ? write(session, user, password) : read(session, user, password);
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return RoutingDataSource.this.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException {
+            RoutingDataSource.this.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException {
+            RoutingDataSource.this.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return RoutingDataSource.this.getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            throw new SQLException("Not a wrapper for " + iface.getName());
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return iface.isInstance(this);
+        }
+    }
+}
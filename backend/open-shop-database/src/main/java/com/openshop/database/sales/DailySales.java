@@ -0,0 +1,9 @@
+package com.openshop.database.sales;
+
+import java.time.LocalDate;
+
+/**
+ * Totals of the orders placed on one UTC day.
+ */
+public record DailySales(LocalDate date, SalesTotals totals) {
+}
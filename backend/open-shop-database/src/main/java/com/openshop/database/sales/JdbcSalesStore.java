@@ -0,0 +1,422 @@
+package com.openshop.database.sales;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@link SalesStore} over {@code sales_rollup_queue}, the V018 rollup tables, {@code orders} and
+ * {@code order_items}. A day is aggregated with two grouped queries over the
+ * {@code idx_order_created} range of that day; reports read only the rollup tables, whose
+ * primary keys lead with the day.
+ */
+final class JdbcSalesStore implements SalesStore {
+
+    private static final String PENDING_SQL =
+            "SELECT id, order_id, order_created_at FROM sales_rollup_queue ORDER BY id";
+
+    private static final String ORDER_TIMES_SQL = "SELECT id, created_at FROM orders WHERE id IN (%s)";
+
+    private static final String ACKNOWLEDGE_SQL = "DELETE FROM sales_rollup_queue WHERE id = ?";
+
+    private static final String DAY_STATUS_SQL = """
+            SELECT status, COUNT(*), SUM(total_amount), SUM(subtotal), SUM(COALESCE(discount_total, 0)),
+                   SUM(COALESCE(tax_total, 0)), SUM(COALESCE(shipping_cost, 0))
+            FROM orders
+            WHERE created_at >= ? AND created_at < ?
+            GROUP BY status""";
+
+    private static final String DAY_PRODUCT_SQL = """
+            SELECT o.status, i.product_id, SUM(i.quantity), SUM(i.quantity * i.unit_price),
+                   SUM(i.quantity * COALESCE(i.cost_price, 0)), COUNT(DISTINCT o.id)
+            FROM orders o
+            JOIN order_items i ON i.order_id = o.id
+            WHERE o.created_at >= ? AND o.created_at < ?
+            GROUP BY o.status, i.product_id""";
+
+    private static final String DELETE_DAILY_SQL = "DELETE FROM sales_daily WHERE sales_date = ?";
+    private static final String DELETE_DAILY_PRODUCT_SQL = "DELETE FROM sales_daily_product WHERE sales_date = ?";
+    private static final String DELETE_DAY_SQL = "DELETE FROM sales_rollup_days WHERE sales_date = ?";
+
+    private static final String INSERT_DAILY_SQL = """
+            INSERT INTO sales_daily (sales_date, status, order_count, revenue, subtotal,
+                                     discount_total, tax_total, shipping_total, item_cost)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String INSERT_DAILY_PRODUCT_SQL = """
+            INSERT INTO sales_daily_product (sales_date, product_id, status, quantity, revenue, item_cost, order_count)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String INSERT_DAY_SQL = "INSERT INTO sales_rollup_days (sales_date) VALUES (?)";
+
+    private static final String ROLLED_UP_DAYS_SQL =
+            "SELECT sales_date FROM sales_rollup_days WHERE sales_date >= ? AND sales_date <= ?";
+
+    private static final String FIRST_ORDER_SQL = "SELECT MIN(created_at) FROM orders";
+
+    private static final String DAILY_SQL = """
+            SELECT sales_date, status, order_count, revenue, subtotal, discount_total, tax_total,
+                   shipping_total, item_cost
+            FROM sales_daily
+            WHERE sales_date >= ? AND sales_date <= ? AND status IN (%s)""";
+
+    private static final String PRODUCT_SALES_SQL = """
+            SELECT product_id, SUM(quantity), SUM(revenue), SUM(item_cost), SUM(order_count)
+            FROM sales_daily_product
+            WHERE sales_date >= ? AND sales_date <= ? AND status IN (%s)%s
+            GROUP BY product_id""";
+
+    private static final String PRODUCT_NAMES_SQL = "SELECT id, name FROM products WHERE id IN (%s)";
+
+    // Well below Oracle's limit of 1000 expressions per IN list
+    private static final int IN_LIST_LIMIT = 500;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcSalesStore(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public List<QueuedChange> pending(int limit) throws SQLException {
+        List<QueuedChange> changes = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(dialect.limit(PENDING_SQL))) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp createdAt = rs.getTimestamp(3);
+                    changes.add(new QueuedChange(rs.getLong(1), dialect.readUuid(rs, 2),
+                            createdAt == null ? null : createdAt.toInstant()));
+                }
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public Map<UUID, Instant> orderTimes(Collection<UUID> orderIds) throws SQLException {
+        Map<UUID, Instant> times = new HashMap<>();
+        List<UUID> ids = new ArrayList<>(orderIds);
+        try (Connection connection = dataSource.getConnection()) {
+            for (int from = 0; from < ids.size(); from += IN_LIST_LIMIT) {
+                List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_LIMIT));
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        ORDER_TIMES_SQL.formatted(placeholders(chunk.size())))) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        dialect.bindUuid(stmt, i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Timestamp createdAt = rs.getTimestamp(2);
+                            if (createdAt != null) {
+                                times.put(dialect.readUuid(rs, 1), createdAt.toInstant());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return times;
+    }
+
+    @Override
+    public void acknowledge(Collection<Long> changeIds) throws SQLException {
+        if (changeIds.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(ACKNOWLEDGE_SQL)) {
+                for (long id : changeIds) {
+                    stmt.setLong(1, id);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public DayRollup compute(LocalDate day) throws SQLException {
+        Timestamp start = Timestamp.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+        Timestamp end = Timestamp.from(day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        List<ProductRow> products = new ArrayList<>();
+        Map<String, BigDecimal> costByStatus = new HashMap<>();
+        Map<String, SalesTotals> totalsByStatus = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement stmt = connection.prepareStatement(DAY_PRODUCT_SQL)) {
+                stmt.setTimestamp(1, start);
+                stmt.setTimestamp(2, end);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ProductRow row = new ProductRow(dialect.readUuid(rs, 2), status(rs.getString(1)),
+                                rs.getLong(3), decimal(rs, 4), decimal(rs, 5), rs.getLong(6));
+                        products.add(row);
+                        costByStatus.merge(row.status(), row.cost(), BigDecimal::add);
+                    }
+                }
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(DAY_STATUS_SQL)) {
+                stmt.setTimestamp(1, start);
+                stmt.setTimestamp(2, end);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String status = status(rs.getString(1));
+                        SalesTotals totals = new SalesTotals(rs.getLong(2), decimal(rs, 3), decimal(rs, 4),
+                                decimal(rs, 5), decimal(rs, 6), decimal(rs, 7),
+                                costByStatus.getOrDefault(status, BigDecimal.ZERO));
+                        totalsByStatus.merge(status, totals, SalesTotals::plus);
+                    }
+                }
+            }
+        }
+        List<StatusRow> statuses = new ArrayList<>();
+        totalsByStatus.forEach((status, totals) -> statuses.add(new StatusRow(day, status, totals)));
+        return new DayRollup(day, statuses, products);
+    }
+
+    @Override
+    public void replace(List<DayRollup> rollups) throws SQLException {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        // Days are always written in order so pipelines on several nodes cannot deadlock each other
+        List<DayRollup> ordered = new ArrayList<>(rollups);
+        ordered.sort(Comparator.comparing(DayRollup::day));
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (String sql : List.of(DELETE_DAILY_SQL, DELETE_DAILY_PRODUCT_SQL, DELETE_DAY_SQL)) {
+                    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                        for (DayRollup rollup : ordered) {
+                            stmt.setDate(1, Date.valueOf(rollup.day()));
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                insertRows(connection, ordered);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void insertRows(Connection connection, List<DayRollup> rollups) throws SQLException {
+        try (PreparedStatement daily = connection.prepareStatement(INSERT_DAILY_SQL);
+             PreparedStatement product = connection.prepareStatement(INSERT_DAILY_PRODUCT_SQL);
+             PreparedStatement day = connection.prepareStatement(INSERT_DAY_SQL)) {
+            for (DayRollup rollup : rollups) {
+                Date date = Date.valueOf(rollup.day());
+                for (StatusRow row : rollup.statuses()) {
+                    SalesTotals totals = row.totals();
+                    daily.setDate(1, date);
+                    daily.setString(2, row.status());
+                    daily.setLong(3, totals.orders());
+                    daily.setBigDecimal(4, totals.revenue());
+                    daily.setBigDecimal(5, totals.subtotal());
+                    daily.setBigDecimal(6, totals.discounts());
+                    daily.setBigDecimal(7, totals.tax());
+                    daily.setBigDecimal(8, totals.shipping());
+                    daily.setBigDecimal(9, totals.cost());
+                    daily.addBatch();
+                }
+                for (ProductRow row : rollup.products()) {
+                    product.setDate(1, date);
+                    dialect.bindUuid(product, 2, row.productId());
+                    product.setString(3, row.status());
+                    product.setLong(4, row.quantity());
+                    product.setBigDecimal(5, row.revenue());
+                    product.setBigDecimal(6, row.cost());
+                    product.setLong(7, row.orders());
+                    product.addBatch();
+                }
+                day.setDate(1, date);
+                day.addBatch();
+            }
+            daily.executeBatch();
+            product.executeBatch();
+            day.executeBatch();
+        }
+    }
+
+    @Override
+    public Set<LocalDate> rolledUpDays(LocalDate from, LocalDate to) throws SQLException {
+        Set<LocalDate> days = new HashSet<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(ROLLED_UP_DAYS_SQL)) {
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    days.add(rs.getDate(1).toLocalDate());
+                }
+            }
+        }
+        return days;
+    }
+
+    @Override
+    public LocalDate firstOrderDay() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIRST_ORDER_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            Timestamp first = rs.next() ? rs.getTimestamp(1) : null;
+            return first == null ? null : LocalDate.ofInstant(first.toInstant(), ZoneOffset.UTC);
+        }
+    }
+
+    @Override
+    public List<StatusRow> dailyRows(LocalDate from, LocalDate to, Set<String> statuses) throws SQLException {
+        List<StatusRow> rows = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(
+                     DAILY_SQL.formatted(placeholders(statuses.size())))) {
+            bindRange(stmt, from, to, statuses);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new StatusRow(rs.getDate(1).toLocalDate(), rs.getString(2),
+                            new SalesTotals(rs.getLong(3), decimal(rs, 4), decimal(rs, 5), decimal(rs, 6),
+                                    decimal(rs, 7), decimal(rs, 8), decimal(rs, 9))));
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public List<ProductSales> topProducts(LocalDate from, LocalDate to, Set<String> statuses, ProductMetric metric,
+                                          int limit) throws SQLException {
+        String sql = dialect.limit(PRODUCT_SALES_SQL.formatted(placeholders(statuses.size()), "")
+                + " ORDER BY " + orderExpression(metric) + " DESC, product_id");
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = bindRange(stmt, from, to, statuses);
+            stmt.setInt(index, limit);
+            return readProductSales(stmt);
+        }
+    }
+
+    @Override
+    public List<ProductSales> productSales(LocalDate from, LocalDate to, Set<String> statuses,
+                                           Collection<UUID> productIds) throws SQLException {
+        List<ProductSales> sales = new ArrayList<>();
+        List<UUID> ids = new ArrayList<>(productIds);
+        try (Connection connection = dataSource.getConnection()) {
+            for (int start = 0; start < ids.size(); start += IN_LIST_LIMIT) {
+                List<UUID> chunk = ids.subList(start, Math.min(ids.size(), start + IN_LIST_LIMIT));
+                String sql = PRODUCT_SALES_SQL.formatted(placeholders(statuses.size()),
+                        " AND product_id IN (" + placeholders(chunk.size()) + ")");
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    int index = bindRange(stmt, from, to, statuses);
+                    for (UUID id : chunk) {
+                        dialect.bindUuid(stmt, index++, id);
+                    }
+                    sales.addAll(readProductSales(stmt));
+                }
+            }
+        }
+        return sales;
+    }
+
+    @Override
+    public Map<UUID, String> productNames(Collection<UUID> productIds) throws SQLException {
+        Map<UUID, String> names = new HashMap<>();
+        List<UUID> ids = new ArrayList<>(productIds);
+        try (Connection connection = dataSource.getConnection()) {
+            for (int from = 0; from < ids.size(); from += IN_LIST_LIMIT) {
+                List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_LIMIT));
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        PRODUCT_NAMES_SQL.formatted(placeholders(chunk.size())))) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        dialect.bindUuid(stmt, i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            names.put(dialect.readUuid(rs, 1), rs.getString(2));
+                        }
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private List<ProductSales> readProductSales(PreparedStatement stmt) throws SQLException {
+        List<ProductSales> sales = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                sales.add(new ProductSales(dialect.readUuid(rs, 1), null, rs.getLong(2), decimal(rs, 3),
+                        decimal(rs, 4), rs.getLong(5)));
+            }
+        }
+        return sales;
+    }
+
+    /**
+     * Binds the day range and the statuses and returns the next parameter index.
+     */
+    private static int bindRange(PreparedStatement stmt, LocalDate from, LocalDate to, Set<String> statuses)
+            throws SQLException {
+        int index = 1;
+        stmt.setDate(index++, Date.valueOf(from));
+        stmt.setDate(index++, Date.valueOf(to));
+        for (String status : statuses) {
+            stmt.setString(index++, status);
+        }
+        return index;
+    }
+
+    private static String orderExpression(ProductMetric metric) {
+        return switch (metric) {
+            case QUANTITY_SOLD -> "SUM(quantity)";
+            case REVENUE -> "SUM(revenue)";
+            case PROFIT -> "SUM(revenue) - SUM(item_cost)";
+            case ORDER_COUNT -> "SUM(order_count)";
+        };
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    // Orders without a status are pending, as the column default has it
+    private static String status(String status) {
+        return status == null ? "pending" : status;
+    }
+
+    private static BigDecimal decimal(ResultSet rs, int index) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(index);
+        return value == null ? BigDecimal.ZERO : value;
+    }
+}
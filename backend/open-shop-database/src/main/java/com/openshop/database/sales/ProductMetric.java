@@ -0,0 +1,24 @@
+package com.openshop.database.sales;
+
+import java.math.BigDecimal;
+
+/**
+ * Metrics top products are ranked by, the {@code sortBy} values of
+ * {@code /admin/sales/top-products}.
+ */
+public enum ProductMetric {
+
+    QUANTITY_SOLD,
+    REVENUE,
+    PROFIT,
+    ORDER_COUNT;
+
+    BigDecimal of(ProductSales sales) {
+        return switch (this) {
+            case QUANTITY_SOLD -> BigDecimal.valueOf(sales.quantity());
+            case REVENUE -> sales.revenue();
+            case PROFIT -> sales.profit();
+            case ORDER_COUNT -> BigDecimal.valueOf(sales.orders());
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.openshop.database.sales;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * What one product sold over a period, as {@code /admin/sales/top-products} reports it.
+ *
+ * @param name     current product name, {@code null} when the product has been deleted
+ * @param quantity units sold
+ * @param revenue  sum of {@code quantity * unit_price}
+ * @param cost     sum of {@code quantity * cost_price}
+ * @param orders   orders containing the product
+ */
+public record ProductSales(UUID productId, String name, long quantity, BigDecimal revenue, BigDecimal cost,
+                           long orders) {
+
+    public BigDecimal profit() {
+        return revenue.subtract(cost);
+    }
+
+    ProductSales plus(ProductSales other) {
+        return new ProductSales(productId, name != null ? name : other.name, quantity + other.quantity,
+                revenue.add(other.revenue), cost.add(other.cost), orders + other.orders);
+    }
+
+    ProductSales named(String productName) {
+        return new ProductSales(productId, productName, quantity, revenue, cost, orders);
+    }
+}
@@ -0,0 +1,167 @@
+package com.openshop.database.sales;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.sales.SalesStore.DayRollup;
+import com.openshop.database.sales.SalesStore.ProductRow;
+import com.openshop.database.sales.SalesStore.StatusRow;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The figures behind {@code /admin/sales/summary}, {@code /admin/sales/daily} and
+ * {@code /admin/sales/top-products}, read from the rollups of {@link SalesRollupPipeline}.
+ *
+ * <p>A range is answered from the rollup rows of its rolled-up days plus a live aggregation of
+ * the days that are not, normally just today, so a year costs a few hundred rollup rows and
+ * one day of orders instead of a year of orders. Only orders in the revenue statuses count;
+ * by default those are the orders that were confirmed and not cancelled. Days are UTC calendar
+ * days of {@code orders.created_at}. A change to a closed day shows once the pipeline has
+ * drained it, normally within its poll interval. Until {@link SalesRollupPipeline#rebuild} has
+ * backfilled the rollups, older days are aggregated live as well, one query pair per day.</p>
+ *
+ * <p>Growth figures and weekly or monthly series are derived by the caller from a second
+ * {@link #summary} and from {@link #daily}.</p>
+ */
+public final class SalesReports {
+
+    public static final Set<String> DEFAULT_REVENUE_STATUSES = Set.of("confirmed", "processing", "shipped",
+            "delivered");
+
+    private final SalesStore store;
+    private final Set<String> statuses;
+    private final Clock clock;
+
+    public SalesReports(DataSource dataSource, Dialect dialect) {
+        this(new JdbcSalesStore(dataSource, dialect), DEFAULT_REVENUE_STATUSES, Clock.systemUTC());
+    }
+
+    public SalesReports(DataSource dataSource, Dialect dialect, Set<String> revenueStatuses) {
+        this(new JdbcSalesStore(dataSource, dialect), revenueStatuses, Clock.systemUTC());
+    }
+
+    SalesReports(SalesStore store, Set<String> revenueStatuses, Clock clock) {
+        if (revenueStatuses.isEmpty()) {
+            throw new IllegalArgumentException("revenueStatuses must not be empty");
+        }
+        this.store = store;
+        this.statuses = Set.copyOf(revenueStatuses);
+        this.clock = clock;
+    }
+
+    /**
+     * Totals of the orders placed within the range, both ends included.
+     */
+    public SalesTotals summary(LocalDate from, LocalDate to) throws SQLException {
+        SalesTotals totals = SalesTotals.ZERO;
+        for (DailySales day : daily(from, to)) {
+            totals = totals.plus(day.totals());
+        }
+        return totals;
+    }
+
+    /**
+     * Totals of every day within the range, both ends included, in date order; days without
+     * orders have zero totals.
+     */
+    public List<DailySales> daily(LocalDate from, LocalDate to) throws SQLException {
+        checkRange(from, to);
+        Map<LocalDate, SalesTotals> byDay = new HashMap<>();
+        for (StatusRow row : store.dailyRows(from, to, statuses)) {
+            byDay.merge(row.day(), row.totals(), SalesTotals::plus);
+        }
+        for (DayRollup live : liveDays(from, to)) {
+            for (StatusRow row : live.statuses()) {
+                if (statuses.contains(row.status())) {
+                    byDay.merge(live.day(), row.totals(), SalesTotals::plus);
+                }
+            }
+        }
+        List<DailySales> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            days.add(new DailySales(day, byDay.getOrDefault(day, SalesTotals.ZERO)));
+        }
+        return days;
+    }
+
+    /**
+     * The {@code limit} products with the highest {@code metric} within the range, both ends
+     * included, highest first.
+     */
+    public List<ProductSales> topProducts(LocalDate from, LocalDate to, ProductMetric metric, int limit)
+            throws SQLException {
+        checkRange(from, to);
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        Map<UUID, ProductSales> live = new LinkedHashMap<>();
+        for (DayRollup day : liveDays(from, to)) {
+            for (ProductRow row : day.products()) {
+                if (statuses.contains(row.status())) {
+                    live.merge(row.productId(), row.sales(), ProductSales::plus);
+                }
+            }
+        }
+        // Live sales only add to a product (a loss-making sale aside, for PROFIT), so a product
+        // outside the rolled-up top N can only overtake one inside it by selling live too
+        Map<UUID, ProductSales> candidates = new LinkedHashMap<>();
+        for (ProductSales sales : store.topProducts(from, to, statuses, metric, limit)) {
+            candidates.put(sales.productId(), sales);
+        }
+        Set<UUID> liveOnly = new LinkedHashSet<>(live.keySet());
+        liveOnly.removeAll(candidates.keySet());
+        if (!liveOnly.isEmpty()) {
+            for (ProductSales sales : store.productSales(from, to, statuses, liveOnly)) {
+                candidates.put(sales.productId(), sales);
+            }
+        }
+        live.forEach((id, sales) -> candidates.merge(id, sales, ProductSales::plus));
+
+        List<ProductSales> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(Comparator.comparing(metric::of).reversed().thenComparing(ProductSales::productId));
+        List<ProductSales> top = ranked.subList(0, Math.min(limit, ranked.size()));
+        Map<UUID, String> names = store.productNames(top.stream().map(ProductSales::productId).toList());
+        List<ProductSales> named = new ArrayList<>(top.size());
+        for (ProductSales sales : top) {
+            named.add(sales.named(names.get(sales.productId())));
+        }
+        return named;
+    }
+
+    /**
+     * Live aggregates of the days within the range that are not rolled up and not in the future.
+     */
+    private List<DayRollup> liveDays(LocalDate from, LocalDate to) throws SQLException {
+        LocalDate today = LocalDate.ofInstant(clock.instant(), ZoneOffset.UTC);
+        LocalDate last = to.isAfter(today) ? today : to;
+        if (from.isAfter(last)) {
+            return List.of();
+        }
+        Set<LocalDate> rolledUp = store.rolledUpDays(from, last);
+        List<DayRollup> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(last); day = day.plusDays(1)) {
+            if (!rolledUp.contains(day)) {
+                days.add(store.compute(day));
+            }
+        }
+        return days;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.openshop.database.sales;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.sales.SalesStore.DayRollup;
+import com.openshop.database.sales.SalesStore.QueuedChange;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Keeps the V018 sales rollups ({@code sales_daily}, {@code sales_daily_product}) in step with
+ * {@code orders} and {@code order_items}, so {@link SalesReports} answers over a year of orders
+ * from a few rows per day.
+ *
+ * <p>Only closed days are rolled up; the current UTC day is aggregated live by the reports.
+ * Triggers queue every order whose status, amounts or items change in
+ * {@code sales_rollup_queue}. A drain collapses a batch of queued changes to the closed days they
+ * touch and recomputes each of those days as a whole, which makes the rollups exact whatever
+ * the order of the changes and makes repeating a drain harmless. Changes to the current day are
+ * simply consumed; once the day has closed, {@link #closeRecentDays} rolls it up.</p>
+ *
+ * <p>Changes are removed from the queue only after their days are written. Run the pipeline on
+ * one node: two nodes writing the same day at once fail on its primary key, and the loser's
+ * changes are retried by its next drain. {@link #rebuild} backfills the rollups from the
+ * orders, e.g. after the migration or to repair them.</p>
+ */
+public final class SalesRollupPipeline implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_BATCH = 1_000;
+
+    // Closed days checked for a missing rollup on every round, enough to cover an outage
+    private static final int CLOSE_LOOKBACK_DAYS = 7;
+
+    // Days recomputed before their rows are written together
+    private static final int DAYS_PER_WRITE = 31;
+
+    private final SalesStore store;
+    private final int maxBatch;
+    private final Clock clock;
+    private Poller worker;
+
+    public SalesRollupPipeline(DataSource dataSource, Dialect dialect) {
+        this(new JdbcSalesStore(dataSource, dialect), DEFAULT_MAX_BATCH, Clock.systemUTC());
+    }
+
+    public SalesRollupPipeline(DataSource dataSource, Dialect dialect, int maxBatch) {
+        this(new JdbcSalesStore(dataSource, dialect), maxBatch, Clock.systemUTC());
+    }
+
+    SalesRollupPipeline(SalesStore store, int maxBatch, Clock clock) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+        this.store = store;
+        this.maxBatch = maxBatch;
+        this.clock = clock;
+    }
+
+    /**
+     * Consumes up to {@code maxBatch} queued changes, recomputing the closed days they touch,
+     * and returns how many were consumed.
+     */
+    public int drain() throws SQLException {
+        List<QueuedChange> changes = store.pending(maxBatch);
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        List<UUID> unplaced = new ArrayList<>();
+        List<Long> changeIds = new ArrayList<>(changes.size());
+        for (QueuedChange change : changes) {
+            changeIds.add(change.id());
+            if (change.orderCreatedAt() == null) {
+                unplaced.add(change.orderId());
+            }
+        }
+        // Item changes of deleted orders are left out; the order's own delete queued its day
+        Map<UUID, Instant> orderTimes = unplaced.isEmpty() ? Map.of() : store.orderTimes(unplaced);
+        LocalDate today = today();
+        SortedSet<LocalDate> days = new TreeSet<>();
+        for (QueuedChange change : changes) {
+            Instant createdAt = change.orderCreatedAt() != null
+                    ? change.orderCreatedAt() : orderTimes.get(change.orderId());
+            if (createdAt != null) {
+                LocalDate day = LocalDate.ofInstant(createdAt, ZoneOffset.UTC);
+                if (day.isBefore(today)) {
+                    days.add(day);
+                }
+            }
+        }
+        rollUp(days);
+        store.acknowledge(changeIds);
+        return changes.size();
+    }
+
+    /**
+     * Drains until the queue is empty and returns the number of changes consumed.
+     */
+    public int drainAll() throws SQLException {
+        int total = 0;
+        int drained;
+        do {
+            drained = drain();
+            total += drained;
+        } while (drained == maxBatch);
+        return total;
+    }
+
+    /**
+     * Rolls up the recently closed days that are not rolled up yet, such as yesterday just after
+     * midnight, and returns how many there were.
+     */
+    public int closeRecentDays() throws SQLException {
+        LocalDate yesterday = today().minusDays(1);
+        LocalDate from = yesterday.minusDays(CLOSE_LOOKBACK_DAYS - 1);
+        Set<LocalDate> rolledUp = store.rolledUpDays(from, yesterday);
+        SortedSet<LocalDate> missing = new TreeSet<>();
+        for (LocalDate day = from; !day.isAfter(yesterday); day = day.plusDays(1)) {
+            if (!rolledUp.contains(day)) {
+                missing.add(day);
+            }
+        }
+        rollUp(missing);
+        return missing.size();
+    }
+
+    /**
+     * Recomputes every closed day within the range, both ends included, and returns how many
+     * days were written. The queue is left alone; changes queued meanwhile are applied by the
+     * next drain.
+     */
+    public int rebuild(LocalDate from, LocalDate to) throws SQLException {
+        LocalDate yesterday = today().minusDays(1);
+        LocalDate last = to.isAfter(yesterday) ? yesterday : to;
+        SortedSet<LocalDate> days = new TreeSet<>();
+        for (LocalDate day = from; !day.isAfter(last); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        rollUp(days);
+        return days.size();
+    }
+
+    /**
+     * Recomputes every closed day since the first order, as the backfill after the migration.
+     */
+    public int rebuild() throws SQLException {
+        LocalDate first = store.firstOrderDay();
+        return first == null ? 0 : rebuild(first, today().minusDays(1));
+    }
+
+    /**
+     * Closes recent days and drains the queue on a daemon thread every {@code pollInterval}. Changes
+     * arriving within one interval are coalesced; a failed round is retried in the next one.
+     *
+     * @return the poller, which reports failed rounds
+     */
+    public synchronized Poller start(Duration pollInterval) {
+        if (worker != null) {
+            throw new IllegalStateException("Sales rollup pipeline is already started");
+        }
+        worker = Poller.every("sales-rollup-pipeline", pollInterval, () -> {
+            closeRecentDays();
+            drainAll();
+        });
+        return worker;
+    }
+
+    /**
+     * Stops the background thread after its current round.
+     */
+    @Override
+    public void close() {
+        Poller stopping;
+        synchronized (this) {
+            stopping = worker;
+            worker = null;
+        }
+        if (stopping != null) {
+            stopping.close();
+        }
+    }
+
+    private void rollUp(Collection<LocalDate> days) throws SQLException {
+        List<DayRollup> rollups = new ArrayList<>();
+        for (LocalDate day : days) {
+            rollups.add(store.compute(day));
+            if (rollups.size() == DAYS_PER_WRITE) {
+                store.replace(rollups);
+                rollups.clear();
+            }
+        }
+        store.replace(rollups);
+    }
+
+    private LocalDate today() {
+        return LocalDate.ofInstant(clock.instant(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,109 @@
+package com.openshop.database.sales;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Persistence of the rollup queue, the rollup tables and the live aggregation of orders,
+ * separated from {@link SalesRollupPipeline} and {@link SalesReports} so the merging can be
+ * exercised without a database. Days are UTC calendar days of {@code orders.created_at}; ranges
+ * include both ends.
+ */
+interface SalesStore {
+
+    /**
+     * Oldest queued changes, at most {@code limit}. Nothing is removed until {@link #acknowledge}.
+     */
+    List<QueuedChange> pending(int limit) throws SQLException;
+
+    /**
+     * {@code created_at} of the given orders; orders that no longer exist are left out.
+     */
+    Map<UUID, Instant> orderTimes(Collection<UUID> orderIds) throws SQLException;
+
+    /**
+     * Removes consumed changes from the queue.
+     */
+    void acknowledge(Collection<Long> changeIds) throws SQLException;
+
+    /**
+     * Aggregates the orders and order items of one day as they are now.
+     */
+    DayRollup compute(LocalDate day) throws SQLException;
+
+    /**
+     * Replaces the rollup rows of the given days and marks them rolled up, in one transaction.
+     */
+    void replace(List<DayRollup> rollups) throws SQLException;
+
+    /**
+     * Days within the range whose rollup rows are complete.
+     */
+    Set<LocalDate> rolledUpDays(LocalDate from, LocalDate to) throws SQLException;
+
+    /**
+     * Day of the oldest order, {@code null} without orders.
+     */
+    LocalDate firstOrderDay() throws SQLException;
+
+    /**
+     * Rolled-up totals per day and status within the range, for the given statuses.
+     */
+    List<StatusRow> dailyRows(LocalDate from, LocalDate to, Set<String> statuses) throws SQLException;
+
+    /**
+     * The {@code limit} products with the highest rolled-up {@code metric} within the range, for
+     * the given statuses, highest first. Names are not filled in.
+     */
+    List<ProductSales> topProducts(LocalDate from, LocalDate to, Set<String> statuses, ProductMetric metric,
+                                   int limit) throws SQLException;
+
+    /**
+     * Rolled-up sales of the given products within the range, for the given statuses; products
+     * without sales are left out. Names are not filled in.
+     */
+    List<ProductSales> productSales(LocalDate from, LocalDate to, Set<String> statuses,
+                                    Collection<UUID> productIds) throws SQLException;
+
+    /**
+     * Current names of the given products; deleted products are left out.
+     */
+    Map<UUID, String> productNames(Collection<UUID> productIds) throws SQLException;
+
+    /**
+     * A queue row. The creation time is {@code null} when an order item changed; the order is
+     * then looked up.
+     */
+    record QueuedChange(long id, UUID orderId, Instant orderCreatedAt) {
+    }
+
+    /**
+     * Totals of the orders of one day in one status.
+     */
+    record StatusRow(LocalDate day, String status, SalesTotals totals) {
+    }
+
+    /**
+     * Totals of one product in the orders of one day in one status.
+     */
+    record ProductRow(UUID productId, String status, long quantity, BigDecimal revenue, BigDecimal cost,
+                      long orders) {
+
+        ProductSales sales() {
+            return new ProductSales(productId, null, quantity, revenue, cost, orders);
+        }
+    }
+
+    /**
+     * Everything rolled up for one day.
+     */
+    record DayRollup(LocalDate day, List<StatusRow> statuses, List<ProductRow> products) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.openshop.database.sales;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Totals of a set of orders, as {@code /admin/sales/summary} and {@code /admin/sales/daily}
+ * report them.
+ *
+ * @param orders    number of orders
+ * @param revenue   sum of {@code total_amount}
+ * @param subtotal  sum of {@code subtotal}
+ * @param discounts sum of {@code discount_total}
+ * @param tax       sum of {@code tax_total}
+ * @param shipping  sum of {@code shipping_cost}
+ * @param cost      cost of the items sold, from {@code order_items.cost_price}; items without a
+ *                  cost price count as zero
+ */
+public record SalesTotals(long orders, BigDecimal revenue, BigDecimal subtotal, BigDecimal discounts,
+                          BigDecimal tax, BigDecimal shipping, BigDecimal cost) {
+
+    public static final SalesTotals ZERO = new SalesTotals(0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+            BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+    public SalesTotals plus(SalesTotals other) {
+        return new SalesTotals(orders + other.orders, revenue.add(other.revenue), subtotal.add(other.subtotal),
+                discounts.add(other.discounts), tax.add(other.tax), shipping.add(other.shipping),
+                cost.add(other.cost));
+    }
+
+    /**
+     * Revenue per order, zero without orders.
+     */
+    public BigDecimal averageOrderValue() {
+        return orders == 0 ? BigDecimal.ZERO : revenue.divide(BigDecimal.valueOf(orders), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Merchandise sold after discounts, less its cost; tax and shipping are passed through.
+     */
+    public BigDecimal profit() {
+        return subtotal.subtract(discounts).subtract(cost);
+    }
+}
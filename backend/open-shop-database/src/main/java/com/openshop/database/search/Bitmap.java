@@ -0,0 +1,494 @@
+package com.openshop.database.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints, laid out like a Roaring bitmap.
+ *
+ * <p>Values are split into chunks of 65536 by their upper 16 bits. A chunk with at most
+ * {@value #ARRAY_LIMIT} values keeps them as a sorted {@code char[]} (two bytes per value); a
+ * denser chunk becomes 1024 words of bits (8 KiB, an eighth of a byte per possible value). A facet
+ * value carried by a few products therefore costs a few bytes per product, and one carried by most
+ * products one bit per product. Intersections and unions work chunk by chunk, word by word for
+ * dense chunks.</p>
+ */
+final class Bitmap {
+
+    static final int ARRAY_LIMIT = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int chunks;
+
+    void add(int value) {
+        char key = (char) (value >>> 16);
+        int i = find(key);
+        if (i < 0) {
+            i = -i - 1;
+            insert(i, key, new ArrayContainer());
+        }
+        containers[i] = containers[i].add((char) value);
+    }
+
+    void remove(int value) {
+        int i = find((char) (value >>> 16));
+        if (i < 0) {
+            return;
+        }
+        Container container = containers[i].remove((char) value);
+        if (container.cardinality() == 0) {
+            System.arraycopy(keys, i + 1, keys, i, chunks - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, chunks - i - 1);
+            containers[--chunks] = null;
+        } else {
+            containers[i] = container;
+        }
+    }
+
+    boolean contains(int value) {
+        int i = find((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < chunks; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return chunks == 0;
+    }
+
+    /**
+     * Approximate memory taken by the values, in bytes.
+     */
+    long bytes() {
+        long bytes = chunks * 2L;
+        for (int i = 0; i < chunks; i++) {
+            bytes += containers[i].bytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * A copy with every chunk stored as bits, for a bitmap that is about to be intersected with
+     * many others: intersecting a sparse chunk with bits then costs one lookup per value of the
+     * sparse one, where two sparse chunks are merged value by value.
+     */
+    Bitmap toBits() {
+        Bitmap bits = new Bitmap();
+        for (int i = 0; i < chunks; i++) {
+            Container container = containers[i];
+            bits.insert(i, keys[i], container instanceof ArrayContainer array ? array.toBits() : container.copy());
+        }
+        return bits;
+    }
+
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < chunks; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Values in both bitmaps.
+     */
+    static Bitmap and(Bitmap a, Bitmap b) {
+        Bitmap result = new Bitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks && j < b.chunks) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container container = a.containers[i].and(b.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.insert(result.chunks, a.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of values in both bitmaps, without building their intersection.
+     */
+    static int andCardinality(Bitmap a, Bitmap b) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks && j < b.chunks) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                cardinality += a.containers[i].andCardinality(b.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Values in either bitmap.
+     */
+    static Bitmap or(Bitmap a, Bitmap b) {
+        Bitmap result = new Bitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks || j < b.chunks) {
+            if (j == b.chunks || (i < a.chunks && a.keys[i] < b.keys[j])) {
+                result.insert(result.chunks, a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.chunks || a.keys[i] > b.keys[j]) {
+                result.insert(result.chunks, b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.insert(result.chunks, a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    private int find(char key) {
+        return Arrays.binarySearch(keys, 0, chunks, key);
+    }
+
+    private void insert(int i, char key, Container container) {
+        if (chunks == keys.length) {
+            keys = Arrays.copyOf(keys, chunks * 2);
+            containers = Arrays.copyOf(containers, chunks * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, chunks - i);
+        System.arraycopy(containers, i, containers, i + 1, chunks - i);
+        keys[i] = key;
+        containers[i] = container;
+        chunks++;
+    }
+
+    /**
+     * The lower 16 bits of the values of one chunk. Updates return the container to use from then
+     * on, which differs when the chunk changes representation.
+     */
+    private abstract static sealed class Container permits ArrayContainer, BitsContainer {
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract long bytes();
+
+        abstract Container and(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+
+        abstract void forEach(int high, IntConsumer action);
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int size;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (size == ARRAY_LIMIT) {
+                return toBits().add(value);
+            }
+            i = -i - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, size * 2)));
+            }
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        long bytes() {
+            return values.length * 2L;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(size, other.cardinality())];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < size && j < array.size) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < size && j < array.size) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        count++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(values[i])) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitsContainer bits) {
+                return bits.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            if (size + array.size > ARRAY_LIMIT) {
+                BitsContainer bits = toBits();
+                for (int j = 0; j < array.size; j++) {
+                    bits.add(array.values[j]);
+                }
+                return bits.size > ARRAY_LIMIT ? bits : bits.toArray();
+            }
+            char[] result = new char[size + array.size];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size || j < array.size) {
+                if (j == array.size || (i < size && values[i] < array.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i == size || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 1)), size);
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        private BitsContainer toBits() {
+            BitsContainer bits = new BitsContainer(new long[1024], 0);
+            for (int i = 0; i < size; i++) {
+                bits.add(values[i]);
+            }
+            return bits;
+        }
+    }
+
+    private static final class BitsContainer extends Container {
+
+        private final long[] words;
+        private int size;
+
+        BitsContainer(long[] words, int size) {
+            this.words = words;
+            this.size = size;
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                size++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                size--;
+            }
+            // Half the limit, so values toggling around it do not convert back and forth
+            return size <= ARRAY_LIMIT / 2 ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        long bytes() {
+            return words.length * 8L;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer array) {
+                return array.and(this);
+            }
+            long[] result = new long[1024];
+            long[] theirs = ((BitsContainer) other).words;
+            int count = 0;
+            for (int w = 0; w < 1024; w++) {
+                result[w] = words[w] & theirs[w];
+                count += Long.bitCount(result[w]);
+            }
+            BitsContainer bits = new BitsContainer(result, count);
+            return count > ARRAY_LIMIT ? bits : bits.toArray();
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer array) {
+                return array.andCardinality(this);
+            }
+            long[] theirs = ((BitsContainer) other).words;
+            int count = 0;
+            for (int w = 0; w < 1024; w++) {
+                count += Long.bitCount(words[w] & theirs[w]);
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer array) {
+                BitsContainer bits = new BitsContainer(result, size);
+                array.forEach(0, value -> bits.add((char) value));
+                return bits;
+            }
+            long[] theirs = ((BitsContainer) other).words;
+            int count = 0;
+            for (int w = 0; w < 1024; w++) {
+                result[w] |= theirs[w];
+                count += Long.bitCount(result[w]);
+            }
+            return new BitsContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new BitsContainer(words.clone(), size);
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int w = 0; w < 1024; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(size, 1)];
+            int count = 0;
+            for (int w = 0; w < 1024; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[count++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
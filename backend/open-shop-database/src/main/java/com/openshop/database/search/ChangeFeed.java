@@ -0,0 +1,113 @@
+package com.openshop.database.search;
+
+import com.openshop.database.search.ChangeLog.Change;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * One reader's position in the change log; not thread-safe, the index owning it reads under its
+ * own lock.
+ *
+ * <p>Ids are handed out before commit, so a change can appear after a higher id has been read.
+ * Ids skipped over are looked up again for {@value #GAP_GRACE_SECONDS} seconds before they count
+ * as rolled back. A jump of more than {@value #MAX_GAPS} ids is taken for a restarted or cached
+ * sequence rather than open transactions.</p>
+ */
+final class ChangeFeed {
+
+    static final int BATCH_SIZE = 500;
+    static final int MAX_GAPS = 1_000;
+    static final long GAP_GRACE_SECONDS = 60;
+
+    /**
+     * Applies a batch of changes; the feed moves past them only when this returns.
+     */
+    @FunctionalInterface
+    interface Consumer {
+        void accept(List<Change> changes) throws SQLException;
+    }
+
+    private final ChangeLog log;
+    private final Clock clock;
+    private final TreeMap<Long, Instant> gaps = new TreeMap<>();
+    private long position;
+
+    private ChangeFeed(ChangeLog log, Clock clock, long position) {
+        this.log = log;
+        this.clock = clock;
+        this.position = position;
+    }
+
+    /**
+     * A feed at the newest change, for an index about to load the catalog. Ids below it that are
+     * not visible yet start out as gaps, since their transactions may still commit after the load
+     * has read past them.
+     */
+    static ChangeFeed atLatest(ChangeLog log, Clock clock) throws SQLException {
+        Instant deadline = clock.instant().plusSeconds(GAP_GRACE_SECONDS);
+        long latest = log.latestChange();
+        ChangeFeed feed = new ChangeFeed(log, clock, latest);
+        Set<Long> visible = new HashSet<>();
+        for (Change change : log.changes(Math.max(0, latest - MAX_GAPS), MAX_GAPS)) {
+            visible.add(change.id());
+        }
+        for (long id = Math.max(1, latest - MAX_GAPS + 1); id < latest; id++) {
+            if (!visible.contains(id)) {
+                feed.gaps.put(id, deadline);
+            }
+        }
+        return feed;
+    }
+
+    /**
+     * Passes the changes that became visible since the last read to {@code consumer}, late ones
+     * first, in batches of at most {@value #BATCH_SIZE}, and returns how many were read. When the
+     * consumer fails, the changes of that batch are read again next time.
+     */
+    int read(Consumer consumer) throws SQLException {
+        Instant now = clock.instant();
+        int read = 0;
+        if (!gaps.isEmpty()) {
+            List<Change> late = log.changes(gaps.keySet());
+            if (!late.isEmpty()) {
+                consumer.accept(late);
+            }
+            for (Change change : late) {
+                gaps.remove(change.id());
+            }
+            gaps.values().removeIf(deadline -> deadline.isBefore(now));
+            read += late.size();
+        }
+        List<Change> changes;
+        do {
+            changes = log.changes(position, BATCH_SIZE);
+            if (changes.isEmpty()) {
+                break;
+            }
+            TreeMap<Long, Instant> skipped = new TreeMap<>();
+            long last = position;
+            for (Change change : changes) {
+                if (change.id() - last - 1 <= MAX_GAPS) {
+                    for (long id = last + 1; id < change.id(); id++) {
+                        skipped.put(id, now.plusSeconds(GAP_GRACE_SECONDS));
+                    }
+                }
+                last = change.id();
+            }
+            consumer.accept(changes);
+            position = last;
+            gaps.putAll(skipped);
+            while (gaps.size() > MAX_GAPS) {
+                gaps.pollFirstEntry();
+            }
+            read += changes.size();
+        } while (changes.size() == BATCH_SIZE);
+        return read;
+    }
+}
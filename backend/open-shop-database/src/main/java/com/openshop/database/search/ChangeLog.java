@@ -0,0 +1,42 @@
+package com.openshop.database.search;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads {@code search_index_changes}, separated from the indexes fed by it so they can be
+ * exercised without a database.
+ */
+interface ChangeLog {
+
+    /**
+     * Id of the newest change, or 0 when the log is empty.
+     */
+    long latestChange() throws SQLException;
+
+    /**
+     * Changes in id order after {@code afterId}, at most {@code limit}.
+     */
+    List<Change> changes(long afterId, int limit) throws SQLException;
+
+    /**
+     * The changes with the given ids that exist by now.
+     */
+    List<Change> changes(Collection<Long> ids) throws SQLException;
+
+    /**
+     * Deletes changes logged before {@code before} and returns how many.
+     */
+    int purgeChanges(Instant before) throws SQLException;
+
+    /**
+     * A change log row, of which exactly one of product, brand and tag is set; the product is
+     * {@code null} as well when a change was logged for a variant that has been deleted since (its
+     * own delete logged the product).
+     */
+    record Change(long id, UUID productId, UUID brandId, UUID tagId) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.openshop.database.search;
+
+import java.util.Objects;
+
+/**
+ * A product property that category pages filter and count by. Values are strings: ids for
+ * {@link #CATEGORY} and {@link #BRAND}, {@code "true"} or {@code "false"} for {@link #IN_STOCK},
+ * and the stored value otherwise.
+ *
+ * @param kind where the values come from
+ * @param key  the {@code attribute_key} of an {@link Kind#ATTRIBUTE} facet, the column otherwise
+ */
+public record Facet(Kind kind, String key) {
+
+    public static final Facet CATEGORY = new Facet(Kind.CATEGORY, "category_id");
+    public static final Facet BRAND = new Facet(Kind.BRAND, "brand_id");
+    public static final Facet IN_STOCK = new Facet(Kind.IN_STOCK, "is_in_stock");
+    public static final Facet COLOR = new Facet(Kind.COLOR, "color_name");
+    public static final Facet SIZE = new Facet(Kind.SIZE, "size_type");
+
+    public enum Kind {
+        /** {@code products.category_id} */
+        CATEGORY,
+        /** {@code products.brand_id} */
+        BRAND,
+        /** {@code products.is_in_stock} */
+        IN_STOCK,
+        /** {@code color_name} of the active variants */
+        COLOR,
+        /** {@code size_type} of the active variants */
+        SIZE,
+        /** Filterable {@code product_attributes} of the product and its active variants */
+        ATTRIBUTE
+    }
+
+    public Facet {
+        Objects.requireNonNull(kind, "kind");
+        Objects.requireNonNull(key, "key");
+    }
+
+    /**
+     * The filterable attribute with the given {@code attribute_key}.
+     */
+    public static Facet attribute(String key) {
+        return new Facet(Kind.ATTRIBUTE, key);
+    }
+}
@@ -0,0 +1,237 @@
+package com.openshop.database.search;
+
+import com.openshop.database.search.FacetSource.Document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One {@link Bitmap} of product numbers per facet value; not thread-safe, {@link FacetIndex}
+ * guards it.
+ *
+ * <p>Every product gets a small number, reused once the product is removed, so the bitmaps stay
+ * dense. A product remembers the values it was added to, which makes replacing it a matter of
+ * clearing its bit in those bitmaps and setting it in the new ones. Values no product carries any
+ * more are dropped.</p>
+ */
+final class FacetBitmaps {
+
+    private static final Value[] NO_VALUES = new Value[0];
+
+    private final Map<UUID, Integer> docs = new HashMap<>();
+    private final Map<Facet, Map<String, Value>> values = new HashMap<>();
+    private final Bitmap live = new Bitmap();
+    private UUID[] products = new UUID[64];
+    private Value[][] valuesOf = new Value[64][];
+    private int[] free = new int[16];
+    private int freeCount;
+    private int maxDoc;
+
+    /**
+     * Number of indexed products.
+     */
+    int size() {
+        return docs.size();
+    }
+
+    /**
+     * Approximate memory taken by the bitmaps, in bytes.
+     */
+    long bitmapBytes() {
+        long bytes = live.bytes();
+        for (Map<String, Value> facet : values.values()) {
+            for (Value value : facet.values()) {
+                bytes += value.bitmap.bytes();
+            }
+        }
+        return bytes;
+    }
+
+    boolean contains(UUID productId) {
+        return docs.containsKey(productId);
+    }
+
+    /**
+     * Adds the product, replacing an earlier version.
+     */
+    void put(Document document) {
+        remove(document.productId());
+        List<Value> carried = new ArrayList<>();
+        carried.add(value(Facet.CATEGORY, String.valueOf(document.categoryId())));
+        carried.add(value(Facet.BRAND, String.valueOf(document.brandId())));
+        carried.add(value(Facet.IN_STOCK, String.valueOf(document.inStock())));
+        for (String color : document.colors()) {
+            carried.add(value(Facet.COLOR, color));
+        }
+        for (String size : document.sizes()) {
+            carried.add(value(Facet.SIZE, size));
+        }
+        document.attributes().forEach((key, attributeValues) -> {
+            Facet facet = Facet.attribute(key);
+            for (String attributeValue : attributeValues) {
+                carried.add(value(facet, attributeValue));
+            }
+        });
+
+        int doc = freeCount > 0 ? free[--freeCount] : maxDoc++;
+        ensureCapacity(maxDoc);
+        for (Value value : carried) {
+            value.bitmap.add(doc);
+        }
+        products[doc] = document.productId();
+        valuesOf[doc] = carried.isEmpty() ? NO_VALUES : carried.toArray(NO_VALUES);
+        docs.put(document.productId(), doc);
+        live.add(doc);
+    }
+
+    /**
+     * Removes the product and returns whether it was indexed.
+     */
+    boolean remove(UUID productId) {
+        Integer doc = docs.remove(productId);
+        if (doc == null) {
+            return false;
+        }
+        for (Value value : valuesOf[doc]) {
+            value.bitmap.remove(doc);
+            if (value.bitmap.isEmpty()) {
+                Map<String, Value> facet = values.get(value.facet);
+                facet.remove(value.value);
+                if (facet.isEmpty()) {
+                    values.remove(value.facet);
+                }
+            }
+        }
+        live.remove(doc);
+        products[doc] = null;
+        valuesOf[doc] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = doc;
+        return true;
+    }
+
+    /**
+     * Counts the products matching the query and, for each requested facet, the matching products
+     * per value with the facet's own selection left out.
+     */
+    FacetResult count(FacetQuery query, Collection<Facet> requested) {
+        Map<Facet, Bitmap> selected = selections(query);
+        Bitmap matching = intersect(selected, null);
+        Bitmap matchingBits = null;
+        Map<Facet, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (Facet facet : requested) {
+            Bitmap base;
+            if (selected.containsKey(facet)) {
+                base = intersect(selected, facet).toBits();
+            } else {
+                if (matchingBits == null) {
+                    matchingBits = matching.toBits();
+                }
+                base = matchingBits;
+            }
+            List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+            for (Value value : values.getOrDefault(facet, Map.of()).values()) {
+                int count = Bitmap.andCardinality(base, value.bitmap);
+                if (count > 0) {
+                    entries.add(Map.entry(value.value, count));
+                }
+            }
+            entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Integer> facetCounts = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> entry : entries) {
+                facetCounts.put(entry.getKey(), entry.getValue());
+            }
+            counts.put(facet, facetCounts);
+        }
+        return new FacetResult(matching.cardinality(), counts);
+    }
+
+    /**
+     * The products matching the query, in no particular order.
+     */
+    List<UUID> products(FacetQuery query) {
+        Bitmap matching = intersect(selections(query), null);
+        List<UUID> matches = new ArrayList<>(matching.cardinality());
+        matching.forEach(doc -> matches.add(products[doc]));
+        return matches;
+    }
+
+    /**
+     * Union of the selected values per facet with a selection.
+     */
+    private Map<Facet, Bitmap> selections(FacetQuery query) {
+        Map<Facet, Bitmap> selected = new HashMap<>();
+        query.selections().forEach((facet, names) -> {
+            Map<String, Value> known = values.getOrDefault(facet, Map.of());
+            Bitmap union = new Bitmap();
+            for (String name : names) {
+                Value value = known.get(name);
+                if (value != null) {
+                    union = names.size() == 1 ? value.bitmap : Bitmap.or(union, value.bitmap);
+                }
+            }
+            selected.put(facet, union);
+        });
+        return selected;
+    }
+
+    /**
+     * Live products in every selection but the one of {@code except}, smallest selection first.
+     */
+    private Bitmap intersect(Map<Facet, Bitmap> selected, Facet except) {
+        List<Bitmap> filters = new ArrayList<>(selected.size());
+        selected.forEach((facet, bitmap) -> {
+            if (!facet.equals(except)) {
+                filters.add(bitmap);
+            }
+        });
+        if (filters.isEmpty()) {
+            return live;
+        }
+        filters.sort(Comparator.comparingInt(Bitmap::cardinality));
+        Bitmap result = Bitmap.and(filters.get(0), live);
+        for (int i = 1; i < filters.size() && !result.isEmpty(); i++) {
+            result = Bitmap.and(result, filters.get(i));
+        }
+        return result;
+    }
+
+    private Value value(Facet facet, String name) {
+        return values.computeIfAbsent(facet, key -> new HashMap<>())
+                .computeIfAbsent(name, key -> new Value(facet, name));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= products.length) {
+            return;
+        }
+        int grown = Math.max(capacity, products.length * 2);
+        products = Arrays.copyOf(products, grown);
+        valuesOf = Arrays.copyOf(valuesOf, grown);
+    }
+
+    /**
+     * A facet value with the products carrying it.
+     */
+    private static final class Value {
+
+        final Facet facet;
+        final String value;
+        final Bitmap bitmap = new Bitmap();
+
+        Value(Facet facet, String value) {
+            this.facet = facet;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.openshop.database.search;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.search.ChangeLog.Change;
+import com.openshop.database.search.FacetSource.Document;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet filters and counts for category pages, replacing one aggregate query per facet
+ * over {@code products}, {@code product_variants} and the {@code product_attributes} EAV table.
+ *
+ * <p>{@link #rebuild} loads the category, brand, stock flag, active variant colors and sizes and
+ * filterable attributes of every active product into {@link FacetBitmaps}: one compressed
+ * {@link Bitmap} of products per facet value. {@link #count} answers a filter plus the value counts
+ * of any number of facets with bitmap unions (values of one facet), intersections (across facets)
+ * and intersection counts (per value), without touching the database.</p>
+ *
+ * <p>Afterwards {@link #refresh} reloads the products logged in {@code search_index_changes}, whose
+ * triggers V014 extends to stock flags, variant colors, sizes and activity and attribute
+ * filterability. The log is shared with {@link SearchIndex}: each index reads it from its own
+ * position, and all readers must use the same retention.</p>
+ *
+ * <p>Counts run concurrently and see each refresh as a whole.</p>
+ */
+public final class FacetIndex implements AutoCloseable {
+
+    private static final int BATCH_SIZE = ChangeFeed.BATCH_SIZE;
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final FacetSource source;
+    private final ChangeLog log;
+    private final Duration changeRetention;
+    private final Clock clock;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FacetBitmaps bitmaps = new FacetBitmaps();
+    private ChangeFeed feed;
+    private Instant lastRefresh;
+    private Instant lastPurge;
+    private Poller worker;
+
+    public FacetIndex(DataSource dataSource, Dialect dialect) {
+        this(dataSource, dialect, SearchIndex.DEFAULT_CHANGE_RETENTION);
+    }
+
+    public FacetIndex(DataSource dataSource, Dialect dialect, Duration changeRetention) {
+        this(new JdbcFacetSource(dataSource, dialect), new JdbcChangeLog(dataSource, dialect), changeRetention,
+                Clock.systemUTC());
+    }
+
+    FacetIndex(FacetSource source, ChangeLog log, Duration changeRetention, Clock clock) {
+        this.source = source;
+        this.log = log;
+        this.changeRetention = changeRetention;
+        this.clock = clock;
+    }
+
+    /**
+     * Products matching the query and the value counts of {@code facets}. Empty until the first
+     * {@link #rebuild}.
+     */
+    public FacetResult count(FacetQuery query, Collection<Facet> facets) {
+        lock.readLock().lock();
+        try {
+            return bitmaps.count(query, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the products matching the query, in no particular order.
+     */
+    public List<UUID> products(FacetQuery query) {
+        lock.readLock().lock();
+        try {
+            return bitmaps.products(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed products.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return bitmaps.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads all active products into new bitmaps and swaps them in; counts keep using the old
+     * ones meanwhile. Changes logged during the load are applied again by the next refresh.
+     */
+    public synchronized void rebuild() throws SQLException {
+        Instant now = clock.instant();
+        ChangeFeed fresh = ChangeFeed.atLatest(log, clock);
+        FacetBitmaps loaded = new FacetBitmaps();
+        UUID after = null;
+        List<Document> page;
+        do {
+            page = source.documents(after, BATCH_SIZE);
+            for (Document document : page) {
+                loaded.put(document);
+            }
+            if (!page.isEmpty()) {
+                after = page.getLast().productId();
+            }
+        } while (page.size() == BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            bitmaps = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        feed = fresh;
+        lastRefresh = now;
+    }
+
+    /**
+     * Applies the changes logged since the last refresh and returns how many were read. Rebuilds
+     * instead when the index was never built or has not been refreshed within the change
+     * retention, since the log may have been purged past it.
+     */
+    public synchronized int refresh() throws SQLException {
+        Instant now = clock.instant();
+        if (lastRefresh == null || lastRefresh.plus(changeRetention).isBefore(now)) {
+            rebuild();
+            return 0;
+        }
+        int read = feed.read(this::apply);
+        lastRefresh = now;
+
+        if (lastPurge == null || lastPurge.plus(PURGE_INTERVAL).isBefore(now)) {
+            log.purgeChanges(now.minus(changeRetention));
+            lastPurge = now;
+        }
+        return read;
+    }
+
+    /**
+     * Refreshes on a daemon thread every {@code pollInterval}, building the index first if
+     * {@link #rebuild} was not called; a failed round is retried in the next one.
+     *
+     * @return the poller, which reports failed rounds
+     */
+    public synchronized Poller start(Duration pollInterval) {
+        if (worker != null) {
+            throw new IllegalStateException("Facet index is already started");
+        }
+        worker = Poller.every("facet-index", pollInterval, this::refresh);
+        return worker;
+    }
+
+    /**
+     * Stops the background thread after its current round. The index stays usable.
+     */
+    @Override
+    public void close() {
+        Poller stopping;
+        synchronized (this) {
+            stopping = worker;
+            worker = null;
+        }
+        if (stopping != null) {
+            stopping.close();
+        }
+    }
+
+    /**
+     * Reloads the products of the changes. Brand and tag changes are logged for their names,
+     * which facets do not show.
+     */
+    private void apply(List<Change> changes) throws SQLException {
+        Set<UUID> products = new LinkedHashSet<>();
+        for (Change change : changes) {
+            if (change.productId() != null) {
+                products.add(change.productId());
+            }
+        }
+        if (products.isEmpty()) {
+            return;
+        }
+        List<Document> documents = source.documents(products);
+        lock.writeLock().lock();
+        try {
+            for (UUID product : products) {
+                bitmaps.remove(product);
+            }
+            for (Document document : documents) {
+                bitmaps.put(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
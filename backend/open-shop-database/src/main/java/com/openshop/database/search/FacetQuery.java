@@ -0,0 +1,64 @@
+package com.openshop.database.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Selected facet values: a product must have one of the selected values of every facet with a
+ * selection. No selection matches every indexed product.
+ *
+ * @param selections values selected per facet; facets with an empty selection are dropped
+ */
+public record FacetQuery(Map<Facet, Set<String>> selections) {
+
+    public FacetQuery {
+        Map<Facet, Set<String>> copy = new HashMap<>();
+        selections.forEach((facet, values) -> {
+            if (!values.isEmpty()) {
+                copy.put(facet, Set.copyOf(values));
+            }
+        });
+        selections = Map.copyOf(copy);
+    }
+
+    /**
+     * Every indexed product.
+     */
+    public static FacetQuery all() {
+        return new FacetQuery(Map.of());
+    }
+
+    /**
+     * Narrows the query to products with any of {@code values} for {@code facet}, replacing an
+     * earlier selection of that facet.
+     */
+    public FacetQuery with(Facet facet, Collection<String> values) {
+        Map<Facet, Set<String>> next = new HashMap<>(selections);
+        next.put(facet, Set.copyOf(values));
+        return new FacetQuery(next);
+    }
+
+    public FacetQuery with(Facet facet, String... values) {
+        return with(facet, Arrays.asList(values));
+    }
+
+    /**
+     * Products in any of the categories. Pass a category together with its descendants for a
+     * branch of the tree.
+     */
+    public FacetQuery inCategories(Collection<UUID> categoryIds) {
+        return with(Facet.CATEGORY, categoryIds.stream().map(UUID::toString).toList());
+    }
+
+    public FacetQuery ofBrands(Collection<UUID> brandIds) {
+        return with(Facet.BRAND, brandIds.stream().map(UUID::toString).toList());
+    }
+
+    public FacetQuery inStockOnly() {
+        return with(Facet.IN_STOCK, "true");
+    }
+}
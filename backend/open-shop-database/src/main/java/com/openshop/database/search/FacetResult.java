@@ -0,0 +1,21 @@
+package com.openshop.database.search;
+
+import java.util.Map;
+
+/**
+ * Products matching a {@link FacetQuery} and the value counts of the requested facets.
+ *
+ * @param total  number of matching products
+ * @param counts per requested facet, the number of products per value, highest first. A facet's
+ *               own selection is left out of its counts, so they tell how many products each
+ *               value would add; values without products are omitted
+ */
+public record FacetResult(long total, Map<Facet, Map<String, Integer>> counts) {
+
+    /**
+     * Counts of one facet; empty when it was not requested.
+     */
+    public Map<String, Integer> counts(Facet facet) {
+        return counts.getOrDefault(facet, Map.of());
+    }
+}
@@ -0,0 +1,38 @@
+package com.openshop.database.search;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reads the facet values of the catalog, separated from {@link FacetIndex} so the index can be
+ * exercised without a database.
+ */
+interface FacetSource {
+
+    /**
+     * Documents of active products in key order after {@code after} (from the start when
+     * {@code null}), at most {@code limit}.
+     */
+    List<Document> documents(UUID after, int limit) throws SQLException;
+
+    /**
+     * Documents of the given products; products that are gone or not active are left out.
+     */
+    List<Document> documents(Collection<UUID> productIds) throws SQLException;
+
+    /**
+     * The facet values of one product.
+     *
+     * @param colors     colors of the active variants
+     * @param sizes      size types of the active variants
+     * @param attributes values per key of the filterable attributes of the product and its active
+     *                   variants
+     */
+    record Document(UUID productId, UUID categoryId, UUID brandId, boolean inStock, Set<String> colors,
+                    Set<String> sizes, Map<String, Set<String>> attributes) {
+    }
+}
@@ -0,0 +1,347 @@
+package com.openshop.database.search;
+
+import com.openshop.database.search.SearchSource.Document;
+import com.openshop.database.search.SearchSource.Tag;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Term to product index with BM25 ranking; not thread-safe, {@link SearchIndex} guards it.
+ *
+ * <p>Products get ascending document numbers as they are added, so every posting list grows at
+ * its end. Replacing or removing a product only marks its old number deleted; the postings stay
+ * until {@link #compact} renumbers the live products and rewrites the lists without them. As in
+ * most search engines, document frequencies count deleted products until then, which shifts
+ * scores slightly but never the set of hits.</p>
+ *
+ * <p>Fields are weighted by counting a term once per occurrence times the field weight: a word
+ * in the name counts three times, in the brand or a tag twice, in an attribute or description
+ * once. Document length is the weighted term count, so a long description does not outweigh a
+ * matching name.</p>
+ */
+final class InvertedIndex {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    static final int NAME_WEIGHT = 3;
+    static final int BRAND_WEIGHT = 2;
+    static final int TAG_WEIGHT = 2;
+    static final int ATTRIBUTE_WEIGHT = 1;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final long NO_PRICE = Long.MIN_VALUE;
+    private static final UUID[] NO_TAGS = new UUID[0];
+    private static final Comparator<ScoredDoc> WORST_FIRST = Comparator.comparingDouble(ScoredDoc::score)
+            .thenComparing(Comparator.comparingInt(ScoredDoc::doc).reversed());
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<UUID, Integer> docs = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private UUID[] products = new UUID[64];
+    private UUID[] categories = new UUID[64];
+    private UUID[] brands = new UUID[64];
+    private UUID[][] tags = new UUID[64][];
+    private long[] priceCents = new long[64];
+    private int[] lengths = new int[64];
+    private int maxDoc;
+    private long totalLength;
+
+    /**
+     * Number of indexed products.
+     */
+    int size() {
+        return docs.size();
+    }
+
+    /**
+     * Document numbers taken by replaced or removed products until the next {@link #compact}.
+     */
+    int deleted() {
+        return maxDoc - docs.size();
+    }
+
+    /**
+     * Encoded size of all posting lists in bytes.
+     */
+    long postingBytes() {
+        long bytes = 0;
+        for (PostingList list : postings.values()) {
+            bytes += list.bytes();
+        }
+        return bytes;
+    }
+
+    boolean contains(UUID productId) {
+        return docs.containsKey(productId);
+    }
+
+    /**
+     * Adds the product, replacing an earlier version.
+     */
+    void put(Document document) {
+        remove(document.productId());
+        Map<String, Integer> frequencies = new HashMap<>();
+        addText(frequencies, document.name(), NAME_WEIGHT);
+        addText(frequencies, document.brandName(), BRAND_WEIGHT);
+        for (Tag tag : document.tags()) {
+            addText(frequencies, tag.name(), TAG_WEIGHT);
+        }
+        for (String attribute : document.attributes()) {
+            addText(frequencies, attribute, ATTRIBUTE_WEIGHT);
+        }
+        addText(frequencies, document.shortDescription(), DESCRIPTION_WEIGHT);
+        addText(frequencies, document.description(), DESCRIPTION_WEIGHT);
+
+        int doc = maxDoc++;
+        ensureCapacity(maxDoc);
+        int length = 0;
+        for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new PostingList()).add(doc, term.getValue());
+            length += term.getValue();
+        }
+        products[doc] = document.productId();
+        categories[doc] = document.categoryId();
+        brands[doc] = document.brandId();
+        tags[doc] = document.tags().isEmpty()
+                ? NO_TAGS
+                : document.tags().stream().map(Tag::id).toArray(UUID[]::new);
+        priceCents[doc] = document.minPrice() == null
+                ? NO_PRICE
+                : document.minPrice().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        lengths[doc] = length;
+        totalLength += length;
+        docs.put(document.productId(), doc);
+        live.set(doc);
+    }
+
+    /**
+     * Removes the product and returns whether it was indexed.
+     */
+    boolean remove(UUID productId) {
+        Integer doc = docs.remove(productId);
+        if (doc == null) {
+            return false;
+        }
+        live.clear(doc);
+        totalLength -= lengths[doc];
+        products[doc] = null;
+        tags[doc] = null;
+        return true;
+    }
+
+    /**
+     * Indexed products of the brand.
+     */
+    Set<UUID> productsOfBrand(UUID brandId) {
+        Set<UUID> matches = new LinkedHashSet<>();
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            if (brandId.equals(brands[doc])) {
+                matches.add(products[doc]);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Indexed products carrying the tag.
+     */
+    Set<UUID> productsWithTag(UUID tagId) {
+        Set<UUID> matches = new LinkedHashSet<>();
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            for (UUID tag : tags[doc]) {
+                if (tagId.equals(tag)) {
+                    matches.add(products[doc]);
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Products containing every query term and passing the filters, ranked by BM25.
+     */
+    SearchResult search(SearchQuery query) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokens(query.text())));
+        if (terms.isEmpty() || docs.isEmpty()) {
+            return new SearchResult(0, List.of());
+        }
+        List<PostingList> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list == null) {
+                return new SearchResult(0, List.of());
+            }
+            lists.add(list);
+        }
+        // The rarest term leads; the others only skip to its documents
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        int n = lists.size();
+        PostingList.Cursor[] cursors = new PostingList.Cursor[n];
+        double[] idf = new double[n];
+        for (int i = 0; i < n; i++) {
+            cursors[i] = lists.get(i).cursor();
+            int df = lists.get(i).size();
+            idf[i] = Math.log(1 + (maxDoc - df + 0.5) / (df + 0.5));
+        }
+        Filter filter = new Filter(query);
+        double averageLength = Math.max(1.0, (double) totalLength / docs.size());
+        int wanted = (int) Math.min(Integer.MAX_VALUE, (long) query.offset() + query.limit());
+        PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Math.min(wanted, 1_024) + 1, WORST_FIRST);
+        long total = 0;
+
+        PostingList.Cursor lead = cursors[0];
+        int doc = lead.next();
+        while (doc != PostingList.Cursor.NO_MORE_DOCS) {
+            if (!live.get(doc) || !filter.accepts(doc)) {
+                doc = lead.next();
+                continue;
+            }
+            int next = doc;
+            for (int i = 1; i < n && next == doc; i++) {
+                next = cursors[i].advance(doc);
+            }
+            if (next != doc) {
+                doc = lead.advance(next);
+                continue;
+            }
+            total++;
+            double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+            double score = 0;
+            for (int i = 0; i < n; i++) {
+                int frequency = cursors[i].frequency();
+                score += idf[i] * frequency * (K1 + 1) / (frequency + norm);
+            }
+            // A later document only enters a full queue with a strictly higher score
+            if (top.size() < wanted) {
+                top.add(new ScoredDoc(doc, score));
+            } else if (score > top.peek().score()) {
+                top.poll();
+                top.add(new ScoredDoc(doc, score));
+            }
+            doc = lead.next();
+        }
+
+        ScoredDoc[] ranked = top.toArray(new ScoredDoc[0]);
+        Arrays.sort(ranked, WORST_FIRST.reversed());
+        List<SearchHit> hits = new ArrayList<>();
+        for (int i = query.offset(); i < ranked.length; i++) {
+            hits.add(new SearchHit(products[ranked[i].doc()], ranked[i].score()));
+        }
+        return new SearchResult(total, hits);
+    }
+
+    /**
+     * Renumbers the live products densely and drops the postings of deleted ones.
+     */
+    void compact() {
+        int[] renumbered = new int[maxDoc];
+        int next = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            renumbered[doc] = live.get(doc) ? next++ : -1;
+        }
+        for (Iterator<Map.Entry<String, PostingList>> it = postings.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, PostingList> entry = it.next();
+            PostingList compacted = new PostingList();
+            PostingList.Cursor cursor = entry.getValue().cursor();
+            for (int doc = cursor.next(); doc != PostingList.Cursor.NO_MORE_DOCS; doc = cursor.next()) {
+                if (renumbered[doc] >= 0) {
+                    compacted.add(renumbered[doc], cursor.frequency());
+                }
+            }
+            if (compacted.size() == 0) {
+                it.remove();
+            } else {
+                entry.setValue(compacted);
+            }
+        }
+        for (int doc = 0; doc < maxDoc; doc++) {
+            int target = renumbered[doc];
+            if (target >= 0) {
+                products[target] = products[doc];
+                categories[target] = categories[doc];
+                brands[target] = brands[doc];
+                tags[target] = tags[doc];
+                priceCents[target] = priceCents[doc];
+                lengths[target] = lengths[doc];
+            }
+        }
+        Arrays.fill(products, next, maxDoc, null);
+        Arrays.fill(categories, next, maxDoc, null);
+        Arrays.fill(brands, next, maxDoc, null);
+        Arrays.fill(tags, next, maxDoc, null);
+        docs.replaceAll((product, doc) -> renumbered[doc]);
+        live.clear();
+        live.set(0, next);
+        maxDoc = next;
+    }
+
+    private static void addText(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : Tokenizer.tokens(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= products.length) {
+            return;
+        }
+        int grown = Math.max(capacity, products.length * 2);
+        products = Arrays.copyOf(products, grown);
+        categories = Arrays.copyOf(categories, grown);
+        brands = Arrays.copyOf(brands, grown);
+        tags = Arrays.copyOf(tags, grown);
+        priceCents = Arrays.copyOf(priceCents, grown);
+        lengths = Arrays.copyOf(lengths, grown);
+    }
+
+    private record ScoredDoc(int doc, double score) {
+    }
+
+    /**
+     * Category and price filters of a query, with prices in whole cents as stored.
+     */
+    private final class Filter {
+
+        private final Set<UUID> categoryIds;
+        private final long minCents;
+        private final long maxCents;
+        private final boolean priced;
+
+        Filter(SearchQuery query) {
+            categoryIds = query.categoryIds();
+            minCents = query.minPrice() == null ? Long.MIN_VALUE : cents(query.minPrice(), RoundingMode.CEILING);
+            maxCents = query.maxPrice() == null ? Long.MAX_VALUE : cents(query.maxPrice(), RoundingMode.FLOOR);
+            priced = query.minPrice() != null || query.maxPrice() != null;
+        }
+
+        boolean accepts(int doc) {
+            if (!categoryIds.isEmpty() && !categoryIds.contains(categories[doc])) {
+                return false;
+            }
+            if (priced) {
+                long price = priceCents[doc];
+                return price != NO_PRICE && price >= minCents && price <= maxCents;
+            }
+            return true;
+        }
+
+        private static long cents(BigDecimal price, RoundingMode rounding) {
+            return price.movePointRight(2).setScale(0, rounding).longValue();
+        }
+    }
+}
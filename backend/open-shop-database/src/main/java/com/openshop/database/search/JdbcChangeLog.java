@@ -0,0 +1,101 @@
+package com.openshop.database.search;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link ChangeLog} over {@code search_index_changes}.
+ */
+final class JdbcChangeLog implements ChangeLog {
+
+    // Attribute changes of variants carry the variant; resolve it here rather than in the trigger
+    private static final String CHANGES_SQL = """
+            SELECT c.id, COALESCE(c.product_id, v.product_id), c.brand_id, c.tag_id
+            FROM search_index_changes c
+            LEFT JOIN product_variants v ON v.id = c.variant_id""";
+
+    private static final String LATEST_CHANGE_SQL = "SELECT MAX(id) FROM search_index_changes";
+    private static final String PURGE_SQL = "DELETE FROM search_index_changes WHERE changed_at < ?";
+
+    // Well below Oracle's limit of 1000 expressions per IN list
+    private static final int IN_LIST_LIMIT = 500;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcChangeLog(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public long latestChange() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(LATEST_CHANGE_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    @Override
+    public List<Change> changes(long afterId, int limit) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(
+                     dialect.limit(CHANGES_SQL + " WHERE c.id > ? ORDER BY c.id"))) {
+            stmt.setLong(1, afterId);
+            stmt.setInt(2, limit);
+            return readChanges(stmt);
+        }
+    }
+
+    @Override
+    public List<Change> changes(Collection<Long> ids) throws SQLException {
+        List<Long> all = new ArrayList<>(ids);
+        List<Change> changes = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int from = 0; from < all.size(); from += IN_LIST_LIMIT) {
+                List<Long> chunk = all.subList(from, Math.min(all.size(), from + IN_LIST_LIMIT));
+                String in = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        CHANGES_SQL + " WHERE c.id IN (" + in + ") ORDER BY c.id")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setLong(i + 1, chunk.get(i));
+                    }
+                    changes.addAll(readChanges(stmt));
+                }
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public int purgeChanges(Instant before) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(PURGE_SQL)) {
+            stmt.setTimestamp(1, Timestamp.from(before));
+            return stmt.executeUpdate();
+        }
+    }
+
+    private List<Change> readChanges(PreparedStatement stmt) throws SQLException {
+        List<Change> changes = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                changes.add(new Change(rs.getLong(1), dialect.readUuid(rs, 2), dialect.readUuid(rs, 3),
+                        dialect.readUuid(rs, 4)));
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,177 @@
+package com.openshop.database.search;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@link FacetSource} over the catalog tables. A page of documents costs three queries: the
+ * products, then the active variants and the filterable attributes of the whole page.
+ */
+final class JdbcFacetSource implements FacetSource {
+
+    private static final String PRODUCTS_SQL = """
+            SELECT p.id, p.category_id, p.brand_id, p.is_in_stock
+            FROM products p
+            WHERE p.status = 'active'""";
+
+    private static final String VARIANTS_SQL = """
+            SELECT v.product_id, v.color_name, v.size_type
+            FROM product_variants v
+            WHERE v.is_active = %s AND v.product_id IN (%s)""";
+
+    // Attributes of the product itself and of its active variants
+    private static final String ATTRIBUTES_SQL = """
+            SELECT a.product_id, a.attribute_key, a.attribute_value
+            FROM product_attributes a
+            WHERE a.is_filterable = %1$s AND a.product_id IN (%2$s)
+            UNION ALL
+            SELECT v.product_id, a.attribute_key, a.attribute_value
+            FROM product_attributes a
+            JOIN product_variants v ON v.id = a.variant_id
+            WHERE a.is_filterable = %1$s AND v.is_active = %1$s AND v.product_id IN (%2$s)""";
+
+    // Well below Oracle's limit of 1000 expressions per IN list
+    private static final int IN_LIST_LIMIT = 500;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcFacetSource(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public List<Document> documents(UUID after, int limit) throws SQLException {
+        String sql = dialect.limit(PRODUCTS_SQL + (after == null ? "" : " AND p.id > ?") + " ORDER BY p.id");
+        try (Connection connection = dataSource.getConnection()) {
+            List<Product> products = new ArrayList<>();
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                int index = 1;
+                if (after != null) {
+                    dialect.bindUuid(stmt, index++, after);
+                }
+                stmt.setInt(index, limit);
+                readProducts(stmt, products);
+            }
+            List<Document> documents = new ArrayList<>(products.size());
+            for (int from = 0; from < products.size(); from += IN_LIST_LIMIT) {
+                int to = Math.min(products.size(), from + IN_LIST_LIMIT);
+                documents.addAll(complete(connection, products.subList(from, to)));
+            }
+            return documents;
+        }
+    }
+
+    @Override
+    public List<Document> documents(Collection<UUID> productIds) throws SQLException {
+        List<UUID> ids = new ArrayList<>(productIds);
+        List<Document> documents = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int from = 0; from < ids.size(); from += IN_LIST_LIMIT) {
+                List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_LIMIT));
+                List<Product> products = new ArrayList<>();
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        PRODUCTS_SQL + " AND p.id IN (" + placeholders(chunk.size()) + ")")) {
+                    bindUuids(stmt, 1, chunk);
+                    readProducts(stmt, products);
+                }
+                documents.addAll(complete(connection, products));
+            }
+        }
+        return documents;
+    }
+
+    private void readProducts(PreparedStatement stmt, List<Product> products) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                products.add(new Product(dialect.readUuid(rs, 1), dialect.readUuid(rs, 2), dialect.readUuid(rs, 3),
+                        rs.getBoolean(4)));
+            }
+        }
+    }
+
+    /**
+     * Adds the variant and attribute values of a chunk of at most {@value #IN_LIST_LIMIT} products.
+     */
+    private List<Document> complete(Connection connection, List<Product> products) throws SQLException {
+        if (products.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = new ArrayList<>(products.size());
+        Map<UUID, Set<String>> colors = new HashMap<>();
+        Map<UUID, Set<String>> sizes = new HashMap<>();
+        Map<UUID, Map<String, Set<String>>> attributes = new HashMap<>();
+        for (Product product : products) {
+            ids.add(product.id());
+            colors.put(product.id(), new HashSet<>());
+            sizes.put(product.id(), new HashSet<>());
+            attributes.put(product.id(), new HashMap<>());
+        }
+        String in = placeholders(ids.size());
+        String yes = dialect.booleanLiteral(true);
+        try (PreparedStatement stmt = connection.prepareStatement(VARIANTS_SQL.formatted(yes, in))) {
+            bindUuids(stmt, 1, ids);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    UUID product = dialect.readUuid(rs, 1);
+                    addIfPresent(colors.get(product), rs.getString(2));
+                    addIfPresent(sizes.get(product), rs.getString(3));
+                }
+            }
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(ATTRIBUTES_SQL.formatted(yes, in))) {
+            bindUuids(stmt, 1, ids);
+            bindUuids(stmt, ids.size() + 1, ids);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String value = rs.getString(3);
+                    if (value != null) {
+                        attributes.get(dialect.readUuid(rs, 1))
+                                .computeIfAbsent(rs.getString(2), key -> new HashSet<>())
+                                .add(value);
+                    }
+                }
+            }
+        }
+        List<Document> documents = new ArrayList<>(products.size());
+        for (Product p : products) {
+            documents.add(new Document(p.id(), p.categoryId(), p.brandId(), p.inStock(), colors.get(p.id()),
+                    sizes.get(p.id()), attributes.get(p.id())));
+        }
+        return documents;
+    }
+
+    private void bindUuids(PreparedStatement stmt, int first, List<UUID> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            dialect.bindUuid(stmt, first + i, ids.get(i));
+        }
+    }
+
+    private static void addIfPresent(Set<String> values, String value) {
+        if (value != null) {
+            values.add(value);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private record Product(UUID id, UUID categoryId, UUID brandId, boolean inStock) {
+    }
+}
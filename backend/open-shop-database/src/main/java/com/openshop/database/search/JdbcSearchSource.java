@@ -0,0 +1,164 @@
+package com.openshop.database.search;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@link SearchSource} over the catalog tables. A page of documents costs three queries: the
+ * products with their brand, then the searchable attributes and the tags of the whole page.
+ */
+final class JdbcSearchSource implements SearchSource {
+
+    private static final String PRODUCTS_SQL = """
+            SELECT p.id, p.category_id, p.brand_id, p.min_price, p.name, p.short_description, p.description, b.name
+            FROM products p
+            JOIN brands b ON b.id = p.brand_id
+            WHERE p.status = 'active'""";
+
+    // Attributes of the product itself and of its variants
+    private static final String ATTRIBUTES_SQL = """
+            SELECT a.product_id, a.attribute_value
+            FROM product_attributes a
+            WHERE a.is_searchable = %1$s AND a.product_id IN (%2$s)
+            UNION ALL
+            SELECT v.product_id, a.attribute_value
+            FROM product_attributes a
+            JOIN product_variants v ON v.id = a.variant_id
+            WHERE a.is_searchable = %1$s AND v.product_id IN (%2$s)""";
+
+    private static final String TAGS_SQL = """
+            SELECT pt.product_id, t.id, t.name
+            FROM product_tags pt
+            JOIN tags t ON t.id = pt.tag_id
+            WHERE t.is_active = %s AND pt.product_id IN (%s)""";
+
+    // Well below Oracle's limit of 1000 expressions per IN list
+    private static final int IN_LIST_LIMIT = 500;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+
+    JdbcSearchSource(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public List<Document> documents(UUID after, int limit) throws SQLException {
+        String sql = dialect.limit(PRODUCTS_SQL + (after == null ? "" : " AND p.id > ?") + " ORDER BY p.id");
+        try (Connection connection = dataSource.getConnection()) {
+            List<Product> products = new ArrayList<>();
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                int index = 1;
+                if (after != null) {
+                    dialect.bindUuid(stmt, index++, after);
+                }
+                stmt.setInt(index, limit);
+                readProducts(stmt, products);
+            }
+            List<Document> documents = new ArrayList<>(products.size());
+            for (int from = 0; from < products.size(); from += IN_LIST_LIMIT) {
+                int to = Math.min(products.size(), from + IN_LIST_LIMIT);
+                documents.addAll(complete(connection, products.subList(from, to)));
+            }
+            return documents;
+        }
+    }
+
+    @Override
+    public List<Document> documents(Collection<UUID> productIds) throws SQLException {
+        List<UUID> ids = new ArrayList<>(productIds);
+        List<Document> documents = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int from = 0; from < ids.size(); from += IN_LIST_LIMIT) {
+                List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_LIMIT));
+                List<Product> products = new ArrayList<>();
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        PRODUCTS_SQL + " AND p.id IN (" + placeholders(chunk.size()) + ")")) {
+                    bindUuids(stmt, 1, chunk);
+                    readProducts(stmt, products);
+                }
+                documents.addAll(complete(connection, products));
+            }
+        }
+        return documents;
+    }
+
+    private void readProducts(PreparedStatement stmt, List<Product> products) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                products.add(new Product(dialect.readUuid(rs, 1), dialect.readUuid(rs, 2), dialect.readUuid(rs, 3),
+                        rs.getBigDecimal(4), rs.getString(5), rs.getString(6), rs.getString(7), rs.getString(8)));
+            }
+        }
+    }
+
+    /**
+     * Adds the attributes and tags of a chunk of at most {@value #IN_LIST_LIMIT} products.
+     */
+    private List<Document> complete(Connection connection, List<Product> products) throws SQLException {
+        if (products.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = new ArrayList<>(products.size());
+        Map<UUID, List<String>> attributes = new HashMap<>();
+        Map<UUID, List<Tag>> tags = new HashMap<>();
+        for (Product product : products) {
+            ids.add(product.id());
+            attributes.put(product.id(), new ArrayList<>());
+            tags.put(product.id(), new ArrayList<>());
+        }
+        String in = placeholders(ids.size());
+        String yes = dialect.booleanLiteral(true);
+        try (PreparedStatement stmt = connection.prepareStatement(ATTRIBUTES_SQL.formatted(yes, in))) {
+            bindUuids(stmt, 1, ids);
+            bindUuids(stmt, ids.size() + 1, ids);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    attributes.get(dialect.readUuid(rs, 1)).add(rs.getString(2));
+                }
+            }
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(TAGS_SQL.formatted(yes, in))) {
+            bindUuids(stmt, 1, ids);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tags.get(dialect.readUuid(rs, 1)).add(new Tag(dialect.readUuid(rs, 2), rs.getString(3)));
+                }
+            }
+        }
+        List<Document> documents = new ArrayList<>(products.size());
+        for (Product p : products) {
+            documents.add(new Document(p.id(), p.categoryId(), p.brandId(), p.minPrice(), p.name(),
+                    p.shortDescription(), p.description(), p.brandName(), attributes.get(p.id()), tags.get(p.id())));
+        }
+        return documents;
+    }
+
+    private void bindUuids(PreparedStatement stmt, int first, List<UUID> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            dialect.bindUuid(stmt, first + i, ids.get(i));
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private record Product(UUID id, UUID categoryId, UUID brandId, BigDecimal minPrice, String name,
+                           String shortDescription, String description, String brandName) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.openshop.database.search;
+
+import java.util.Arrays;
+
+/**
+ * Documents containing one term, in ascending document order, with the term's weighted
+ * frequency in each.
+ *
+ * <p>Postings are stored as variable-byte integers: the gap to the previous document, then the
+ * frequency. Gaps in a list of common terms are small, so most postings take two bytes instead
+ * of the eight of two {@code int}s. Every {@value #BLOCK_SIZE}th posting leaves a skip entry with
+ * its byte offset, which lets {@link Cursor#advance} jump over whole blocks when intersecting a
+ * common term with a rare one. Documents must be added in ascending order.</p>
+ */
+final class PostingList {
+
+    static final int BLOCK_SIZE = 128;
+
+    private byte[] data = new byte[8];
+    private int length;
+    private int size;
+    private int lastDoc = -1;
+    private int[] skipDocs = new int[1];
+    private int[] skipOffsets = new int[1];
+
+    void add(int doc, int frequency) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Documents must be added in ascending order");
+        }
+        if (size % BLOCK_SIZE == 0) {
+            int block = size / BLOCK_SIZE;
+            if (block == skipDocs.length) {
+                skipDocs = Arrays.copyOf(skipDocs, block * 2);
+                skipOffsets = Arrays.copyOf(skipOffsets, block * 2);
+            }
+            // The document before the block, from which the block's first gap counts
+            skipDocs[block] = lastDoc;
+            skipOffsets[block] = length;
+        }
+        writeVInt(doc - lastDoc);
+        writeVInt(frequency);
+        lastDoc = doc;
+        size++;
+    }
+
+    /**
+     * Number of postings, which is the document frequency of the term.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Encoded size in bytes.
+     */
+    int bytes() {
+        return length;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void writeVInt(int value) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    /**
+     * Forward-only iterator over the postings. Starts before the first document.
+     */
+    final class Cursor {
+
+        static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+        private int index = -1;
+        private int offset;
+        private int doc = -1;
+        private int frequency;
+
+        int doc() {
+            return doc;
+        }
+
+        int frequency() {
+            return frequency;
+        }
+
+        /**
+         * Moves to the next document and returns it, or {@link #NO_MORE_DOCS}.
+         */
+        int next() {
+            if (++index >= size) {
+                index = size;
+                return doc = NO_MORE_DOCS;
+            }
+            doc += readVInt();
+            frequency = readVInt();
+            return doc;
+        }
+
+        /**
+         * Moves to the first document at or after {@code target} and returns it, or
+         * {@link #NO_MORE_DOCS}.
+         */
+        int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            // Last block starting after a document below the target; it may hold the target
+            int from = (index + 1) / BLOCK_SIZE + 1;
+            int to = (size - 1) / BLOCK_SIZE;
+            int block = -1;
+            while (from <= to) {
+                int mid = (from + to) >>> 1;
+                if (skipDocs[mid] < target) {
+                    block = mid;
+                    from = mid + 1;
+                } else {
+                    to = mid - 1;
+                }
+            }
+            if (block > 0) {
+                index = block * BLOCK_SIZE - 1;
+                offset = skipOffsets[block];
+                doc = skipDocs[block];
+            }
+            while (doc < target) {
+                next();
+            }
+            return doc;
+        }
+
+        private int readVInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
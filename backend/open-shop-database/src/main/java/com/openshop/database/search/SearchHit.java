@@ -0,0 +1,9 @@
+package com.openshop.database.search;
+
+import java.util.UUID;
+
+/**
+ * A product matching a search, with its BM25 relevance score; higher is more relevant.
+ */
+public record SearchHit(UUID productId, double score) {
+}
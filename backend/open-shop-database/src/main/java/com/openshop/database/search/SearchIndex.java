@@ -0,0 +1,212 @@
+package com.openshop.database.search;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.search.ChangeLog.Change;
+import com.openshop.database.search.SearchSource.Document;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index of the active products for {@code /products/search}, replacing
+ * {@code LIKE} scans over {@code products}.
+ *
+ * <p>{@link #rebuild} loads every active product with its brand name, active tags and searchable
+ * attributes (of the product and its variants) into an {@link InvertedIndex}: compressed posting
+ * lists ranked with BM25. Tokenizing, matching and ranking happen in Java, so results are the same
+ * on PostgreSQL, MySQL and Oracle.</p>
+ *
+ * <p>Afterwards {@link #refresh} keeps the index current from {@code search_index_changes}, which
+ * triggers from V013 fill in the transaction of every relevant catalog change. The log is read
+ * from the last id applied (see {@link ChangeFeed}); changed products are reloaded, and products
+ * that are gone or no longer active are dropped. Every node reads the log independently and
+ * purges entries older than {@code changeRetention}; a node that has not refreshed for that long
+ * rebuilds instead, and all readers of the log must use the same retention.</p>
+ *
+ * <p>Searches run concurrently and see each refresh as a whole.</p>
+ */
+public final class SearchIndex implements AutoCloseable {
+
+    public static final Duration DEFAULT_CHANGE_RETENTION = Duration.ofDays(1);
+
+    private static final int BATCH_SIZE = ChangeFeed.BATCH_SIZE;
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final SearchSource source;
+    private final ChangeLog log;
+    private final Duration changeRetention;
+    private final Clock clock;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private InvertedIndex index = new InvertedIndex();
+    private ChangeFeed feed;
+    private Instant lastRefresh;
+    private Instant lastPurge;
+    private Poller worker;
+
+    public SearchIndex(DataSource dataSource, Dialect dialect) {
+        this(dataSource, dialect, DEFAULT_CHANGE_RETENTION);
+    }
+
+    public SearchIndex(DataSource dataSource, Dialect dialect, Duration changeRetention) {
+        this(new JdbcSearchSource(dataSource, dialect), new JdbcChangeLog(dataSource, dialect), changeRetention,
+                Clock.systemUTC());
+    }
+
+    SearchIndex(SearchSource source, ChangeLog log, Duration changeRetention, Clock clock) {
+        this.source = source;
+        this.log = log;
+        this.changeRetention = changeRetention;
+        this.clock = clock;
+    }
+
+    /**
+     * Products matching the query, most relevant first. Empty until the first {@link #rebuild}.
+     */
+    public SearchResult search(SearchQuery query) {
+        lock.readLock().lock();
+        try {
+            return index.search(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed products.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads all active products into a new index and swaps it in; searches keep using the old
+     * one meanwhile. Changes logged during the load are applied again by the next refresh.
+     */
+    public synchronized void rebuild() throws SQLException {
+        Instant now = clock.instant();
+        ChangeFeed fresh = ChangeFeed.atLatest(log, clock);
+        InvertedIndex loaded = new InvertedIndex();
+        UUID after = null;
+        List<Document> page;
+        do {
+            page = source.documents(after, BATCH_SIZE);
+            for (Document document : page) {
+                loaded.put(document);
+            }
+            if (!page.isEmpty()) {
+                after = page.getLast().productId();
+            }
+        } while (page.size() == BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            index = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        feed = fresh;
+        lastRefresh = now;
+    }
+
+    /**
+     * Applies the changes logged since the last refresh and returns how many were read. Rebuilds
+     * instead when the index was never built or has not been refreshed within the change
+     * retention, since the log may have been purged past it.
+     */
+    public synchronized int refresh() throws SQLException {
+        Instant now = clock.instant();
+        if (lastRefresh == null || lastRefresh.plus(changeRetention).isBefore(now)) {
+            rebuild();
+            return 0;
+        }
+        int read = feed.read(this::apply);
+        lastRefresh = now;
+
+        if (lastPurge == null || lastPurge.plus(PURGE_INTERVAL).isBefore(now)) {
+            log.purgeChanges(now.minus(changeRetention));
+            lastPurge = now;
+        }
+        return read;
+    }
+
+    /**
+     * Refreshes on a daemon thread every {@code pollInterval}, building the index first if
+     * {@link #rebuild} was not called; a failed round is retried in the next one.
+     *
+     * @return the poller, which reports failed rounds
+     */
+    public synchronized Poller start(Duration pollInterval) {
+        if (worker != null) {
+            throw new IllegalStateException("Search index is already started");
+        }
+        worker = Poller.every("search-index", pollInterval, this::refresh);
+        return worker;
+    }
+
+    /**
+     * Stops the background thread after its current round. The index stays searchable.
+     */
+    @Override
+    public void close() {
+        Poller stopping;
+        synchronized (this) {
+            stopping = worker;
+            worker = null;
+        }
+        if (stopping != null) {
+            stopping.close();
+        }
+    }
+
+    /**
+     * Reloads the products affected by the changes. Brand and tag changes affect the indexed
+     * products of that brand or tag, which only the index still knows once a tag is deleted.
+     */
+    private void apply(List<Change> changes) throws SQLException {
+        Set<UUID> products = new LinkedHashSet<>();
+        for (Change change : changes) {
+            if (change.productId() != null) {
+                products.add(change.productId());
+            }
+            if (change.brandId() != null) {
+                products.addAll(index.productsOfBrand(change.brandId()));
+            }
+            if (change.tagId() != null) {
+                products.addAll(index.productsWithTag(change.tagId()));
+            }
+        }
+        if (products.isEmpty()) {
+            return;
+        }
+        List<Document> documents = source.documents(products);
+        lock.writeLock().lock();
+        try {
+            for (UUID product : products) {
+                index.remove(product);
+            }
+            for (Document document : documents) {
+                index.put(document);
+            }
+            if (index.deleted() > Math.max(BATCH_SIZE, index.size() / 4)) {
+                index.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
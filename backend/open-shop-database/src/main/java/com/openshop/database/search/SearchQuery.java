@@ -0,0 +1,57 @@
+package com.openshop.database.search;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A product search: every term of {@code text} must occur in a product's name, brand, tags,
+ * searchable attributes or descriptions.
+ *
+ * @param categoryIds categories the product must be in, any of them; all when empty. Pass a
+ *                    category together with its descendants to search a branch of the tree
+ * @param minPrice    lowest accepted {@code products.min_price}, inclusive; none when {@code null}
+ * @param maxPrice    highest accepted {@code products.min_price}, inclusive; none when {@code null}
+ * @param offset      hits to skip, for paging
+ * @param limit       hits to return
+ */
+public record SearchQuery(String text, Set<UUID> categoryIds, BigDecimal minPrice, BigDecimal maxPrice, int offset,
+                          int limit) {
+
+    public static final int DEFAULT_LIMIT = 20;
+
+    public SearchQuery {
+        Objects.requireNonNull(text, "text");
+        categoryIds = categoryIds == null ? Set.of() : Set.copyOf(categoryIds);
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not exceed maxPrice");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+    }
+
+    /**
+     * The first {@value #DEFAULT_LIMIT} hits for {@code text}, unfiltered.
+     */
+    public static SearchQuery of(String text) {
+        return new SearchQuery(text, Set.of(), null, null, 0, DEFAULT_LIMIT);
+    }
+
+    public SearchQuery inCategories(Collection<UUID> categoryIds) {
+        return new SearchQuery(text, Set.copyOf(categoryIds), minPrice, maxPrice, offset, limit);
+    }
+
+    public SearchQuery priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return new SearchQuery(text, categoryIds, minPrice, maxPrice, offset, limit);
+    }
+
+    public SearchQuery page(int offset, int limit) {
+        return new SearchQuery(text, categoryIds, minPrice, maxPrice, offset, limit);
+    }
+}
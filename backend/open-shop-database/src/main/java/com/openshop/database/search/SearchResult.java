@@ -0,0 +1,16 @@
+package com.openshop.database.search;
+
+import java.util.List;
+
+/**
+ * One page of search hits, most relevant first.
+ *
+ * @param total number of products matching the query and filters, across all pages
+ * @param hits  the requested page
+ */
+public record SearchResult(long total, List<SearchHit> hits) {
+
+    public SearchResult {
+        hits = List.copyOf(hits);
+    }
+}
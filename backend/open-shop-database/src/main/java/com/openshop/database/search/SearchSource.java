@@ -0,0 +1,40 @@
+package com.openshop.database.search;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the searchable catalog, separated from {@link SearchIndex} so the index can be exercised
+ * without a database.
+ */
+interface SearchSource {
+
+    /**
+     * Documents of active products in key order after {@code after} (from the start when
+     * {@code null}), at most {@code limit}.
+     */
+    List<Document> documents(UUID after, int limit) throws SQLException;
+
+    /**
+     * Documents of the given products; products that are gone or not active are left out.
+     */
+    List<Document> documents(Collection<UUID> productIds) throws SQLException;
+
+    /**
+     * The searchable text and filter values of one product.
+     *
+     * @param minPrice   lowest active variant price, {@code null} without one
+     * @param attributes values of the searchable attributes of the product and its variants
+     * @param tags       active tags of the product
+     */
+    record Document(UUID productId, UUID categoryId, UUID brandId, BigDecimal minPrice, String name,
+                    String shortDescription, String description, String brandName, List<String> attributes,
+                    List<Tag> tags) {
+    }
+
+    record Tag(UUID id, String name) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.openshop.database.seed;
+
+import com.openshop.database.Dialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Writes a contiguous range of synthetic rows using the fastest ingestion path of a dialect.
+ * A loader owns no connection state beyond the one it was created with and never holds more
+ * than one buffer or batch of rows in memory.
+ */
+public interface BulkLoader {
+
+    /**
+     * Writes rows {@code [from, to)} of the given table. The caller owns the transaction.
+     */
+    void load(SeedTable table, long from, long to) throws SQLException;
+
+    /**
+     * Returns the loader for the dialect:
+     * {@code COPY FROM STDIN} on PostgreSQL, multi-row {@code INSERT} on MySQL and
+     * array-bound batch {@code INSERT} on Oracle.
+     */
+    static BulkLoader forDialect(Dialect dialect, Connection connection) throws SQLException {
+        return switch (dialect) {
+            case POSTGRESQL -> new PostgresCopyLoader(connection);
+            case MYSQL -> new InsertBatchLoader(dialect, connection, 1_000, 1);
+            case ORACLE -> new InsertBatchLoader(dialect, connection, 1, 5_000);
+        };
+    }
+}
@@ -0,0 +1,202 @@
+package com.openshop.database.seed;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel, memory bounded loader for synthetic data sets.
+ *
+ * <p>Tables are grouped into waves so that every foreign key target is committed before its
+ * children start. Within a wave each table is split into chunks of {@code chunkRows}; each chunk
+ * runs on its own connection and transaction using the dialect's {@link BulkLoader}. Rows are
+ * derived from their index, so nothing but the current buffer is ever held in memory.</p>
+ *
+ * <p>Command line: {@code java com.openshop.database.seed.DataGenerator} with
+ * {@code -Dopenshop.seed.url}, {@code .user}, {@code .password}, {@code .plan} ({@code production}
+ * or {@code small}), {@code .scale}, {@code .threads} and {@code .chunk}.</p>
+ */
+public final class DataGenerator {
+
+    public static final long DEFAULT_CHUNK_ROWS = 100_000;
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+    private final int threads;
+    private final long chunkRows;
+
+    public DataGenerator(DataSource dataSource, Dialect dialect) {
+        this(dataSource, dialect, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_ROWS);
+    }
+
+    public DataGenerator(DataSource dataSource, Dialect dialect, int threads, long chunkRows) {
+        if (threads < 1 || chunkRows < 1) {
+            throw new IllegalArgumentException("threads and chunkRows must be positive");
+        }
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+        this.threads = threads;
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * Rows written and elapsed wall time for one table.
+     */
+    public record TableLoad(String table, long rows, Duration elapsed) {
+
+        public double rowsPerSecond() {
+            return rows / Math.max(elapsed.toNanos() / 1e9, 1e-9);
+        }
+    }
+
+    /**
+     * Generates the full plan with history ending today (UTC).
+     */
+    public List<TableLoad> generate(SeedPlan plan) throws SQLException {
+        return load(new SeedTables(plan, dialect, LocalDate.now(ZoneOffset.UTC)).tables());
+    }
+
+    /**
+     * Loads the given tables wave by wave and returns per-table statistics in load order.
+     */
+    public List<TableLoad> load(List<SeedTable> tables) throws SQLException {
+        List<TableLoad> loads = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (List<SeedTable> wave : waves(tables)) {
+                loads.addAll(loadWave(executor, wave));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return loads;
+    }
+
+    private List<TableLoad> loadWave(ExecutorService executor, List<SeedTable> wave) throws SQLException {
+        long started = System.nanoTime();
+        Map<SeedTable, AtomicLong> finishedAt = new LinkedHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (SeedTable table : wave) {
+            AtomicLong finished = new AtomicLong(started);
+            finishedAt.put(table, finished);
+            long step = table.ordered() ? Math.max(1, table.rowCount()) : chunkRows;
+            for (long from = 0; from < table.rowCount(); from += step) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(table.rowCount(), from + step);
+                futures.add(executor.submit(() -> {
+                    loadChunk(table, chunkFrom, chunkTo);
+                    finished.accumulateAndGet(System.nanoTime(), Math::max);
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                if (e.getCause() instanceof SQLException sql) {
+                    throw sql;
+                }
+                throw new SQLException("Synthetic load failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new SQLException("Interrupted while loading synthetic data", e);
+            }
+        }
+        List<TableLoad> loads = new ArrayList<>();
+        finishedAt.forEach((table, finished) ->
+                loads.add(new TableLoad(table.name(), table.rowCount(), Duration.ofNanos(finished.get() - started))));
+        return loads;
+    }
+
+    private void loadChunk(SeedTable table, long from, long to) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                BulkLoader.forDialect(dialect, connection).load(table, from, to);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Groups tables so that each table is in a later wave than every table it depends on.
+     * Dependencies outside the given list are assumed to be loaded already.
+     */
+    static List<List<SeedTable>> waves(List<SeedTable> tables) {
+        Map<String, SeedTable> byName = new HashMap<>();
+        tables.forEach(table -> byName.put(table.name(), table));
+        Map<String, Integer> levels = new HashMap<>();
+        List<List<SeedTable>> waves = new ArrayList<>();
+        for (SeedTable table : tables) {
+            int level = level(table, byName, levels, new ArrayList<>());
+            while (waves.size() <= level) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(level).add(table);
+        }
+        return waves;
+    }
+
+    private static int level(SeedTable table, Map<String, SeedTable> byName, Map<String, Integer> levels,
+                             List<String> path) {
+        Integer known = levels.get(table.name());
+        if (known != null) {
+            return known;
+        }
+        if (path.contains(table.name())) {
+            throw new IllegalArgumentException("Cyclic seed dependency: " + path + " -> " + table.name());
+        }
+        path.add(table.name());
+        int level = 0;
+        for (String dependency : table.dependsOn()) {
+            SeedTable parent = byName.get(dependency);
+            if (parent != null) {
+                level = Math.max(level, level(parent, byName, levels, path) + 1);
+            }
+        }
+        path.remove(path.size() - 1);
+        levels.put(table.name(), level);
+        return level;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("openshop.seed.url"),
+                System.getProperty("openshop.seed.user"),
+                System.getProperty("openshop.seed.password"));
+        SeedPlan plan = "small".equals(System.getProperty("openshop.seed.plan")) ? SeedPlan.small() : SeedPlan.production();
+        String scale = System.getProperty("openshop.seed.scale");
+        if (scale != null) {
+            plan = plan.scaled(Double.parseDouble(scale));
+        }
+        DataGenerator generator = new DataGenerator(dataSource, dataSource.dialect(),
+                Integer.getInteger("openshop.seed.threads", Runtime.getRuntime().availableProcessors()),
+                Long.getLong("openshop.seed.chunk", DEFAULT_CHUNK_ROWS));
+        for (TableLoad load : generator.generate(plan)) {
+            System.out.printf("%-24s %,14d rows %10.1f s %,12.0f rows/s%n",
+                    load.table(), load.rows(), load.elapsed().toMillis() / 1000.0, load.rowsPerSecond());
+        }
+    }
+}
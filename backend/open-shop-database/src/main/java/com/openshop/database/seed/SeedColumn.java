@@ -0,0 +1,37 @@
+package com.openshop.database.seed;
+
+import java.sql.Types;
+
+/**
+ * Column written by the generator together with the JDBC type used to bind nulls.
+ */
+public record SeedColumn(String name, int sqlType) {
+
+    public static SeedColumn uuid(String name) {
+        return new SeedColumn(name, Types.OTHER);
+    }
+
+    public static SeedColumn text(String name) {
+        return new SeedColumn(name, Types.VARCHAR);
+    }
+
+    public static SeedColumn integer(String name) {
+        return new SeedColumn(name, Types.INTEGER);
+    }
+
+    public static SeedColumn decimal(String name) {
+        return new SeedColumn(name, Types.DECIMAL);
+    }
+
+    public static SeedColumn bool(String name) {
+        return new SeedColumn(name, Types.BOOLEAN);
+    }
+
+    public static SeedColumn timestamp(String name) {
+        return new SeedColumn(name, Types.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    public static SeedColumn date(String name) {
+        return new SeedColumn(name, Types.DATE);
+    }
+}
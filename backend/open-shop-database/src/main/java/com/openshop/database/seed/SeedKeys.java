@@ -0,0 +1,49 @@
+package com.openshop.database.seed;
+
+import java.util.UUID;
+
+/**
+ * Deterministic keys and pseudo-random values for synthetic rows.
+ * A row's id is a pure function of its table and index, so child rows can reference
+ * parents without the generator keeping any id in memory.
+ */
+public final class SeedKeys {
+
+    private SeedKeys() {
+    }
+
+    /**
+     * Returns the id of row {@code index} of the given table, laid out as a version 4 UUID.
+     * The table code lives in the most significant bits and the index in the least significant bits,
+     * so ids are unique per table and never collide across tables.
+     */
+    public static UUID id(int tableCode, long index) {
+        long msb = ((long) tableCode << 48) | 0x4000L | (mix(tableCode) & 0x0000_FFFF_FFFF_0FFFL);
+        long lsb = 0x8000_0000_0000_0000L | (index & 0x3FFF_FFFF_FFFF_FFFFL);
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Returns the row index encoded in an id produced by {@link #id}.
+     */
+    public static long index(UUID id) {
+        return id.getLeastSignificantBits() & 0x3FFF_FFFF_FFFF_FFFFL;
+    }
+
+    /**
+     * SplitMix64 finaliser: a cheap, well distributed hash of a single value.
+     */
+    public static long mix(long value) {
+        long z = value + 0x9E37_79B9_7F4A_7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a stable value in {@code [0, bound)} for the given index and salt.
+     */
+    public static long pick(long index, int salt, long bound) {
+        return Math.floorMod(mix(index * 31 + salt), bound);
+    }
+}
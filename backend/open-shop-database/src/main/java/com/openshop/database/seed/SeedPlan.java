@@ -0,0 +1,115 @@
+package com.openshop.database.seed;
+
+/**
+ * Row counts and shape of a synthetic data set.
+ * All per-parent fan-outs are fixed so that every child row can derive its parent keys
+ * from its own index, which keeps generation stateless and memory bounded.
+ *
+ * @param customers              rows in {@code customers} (one address and preference row each)
+ * @param categories             rows in {@code categories}, arranged as a tree
+ * @param brands                 rows in {@code brands}
+ * @param suppliers              rows in {@code suppliers}
+ * @param locations              rows in {@code inventory_locations}
+ * @param tags                   rows in {@code tags}
+ * @param products               rows in {@code products}
+ * @param variantsPerProduct     {@code product_variants} per product
+ * @param attributesPerProduct   {@code product_attributes} per product (half product level, half variant level)
+ * @param tagsPerProduct         {@code product_tags} per product, at most {@code tags}
+ * @param reviewsPerProduct      {@code product_reviews} per product, at most {@code customers}
+ * @param stockBatchesPerVariant {@code inventory_stock} rows per variant, at most {@code locations}
+ * @param inventoryLogRows       rows in {@code inventory_log}
+ * @param orders                 rows in {@code orders} (one payment, shipment and address each)
+ * @param itemsPerOrder          {@code order_items} per order
+ * @param historyDays            days of order and inventory history ending today
+ * @param carts                  rows in {@code shopping_carts}
+ * @param itemsPerCart           {@code shopping_cart_items} per cart
+ * @param sessions               rows in {@code user_sessions}
+ */
+public record SeedPlan(
+        long customers,
+        int categories,
+        int brands,
+        int suppliers,
+        int locations,
+        int tags,
+        long products,
+        int variantsPerProduct,
+        int attributesPerProduct,
+        int tagsPerProduct,
+        int reviewsPerProduct,
+        int stockBatchesPerVariant,
+        long inventoryLogRows,
+        long orders,
+        int itemsPerOrder,
+        int historyDays,
+        long carts,
+        int itemsPerCart,
+        long sessions) {
+
+    public SeedPlan {
+        if (tagsPerProduct > tags) {
+            throw new IllegalArgumentException("tagsPerProduct must not exceed tags");
+        }
+        if (reviewsPerProduct > customers) {
+            throw new IllegalArgumentException("reviewsPerProduct must not exceed customers");
+        }
+        if (stockBatchesPerVariant > locations) {
+            throw new IllegalArgumentException("stockBatchesPerVariant must not exceed locations");
+        }
+        if (Math.max(itemsPerOrder, itemsPerCart) >= products * variantsPerProduct) {
+            throw new IllegalArgumentException("Not enough variants for the configured items per order/cart");
+        }
+    }
+
+    /**
+     * Production-scale plan: 10M products, 20M variants, 100M inventory log rows
+     * and three years of orders.
+     */
+    public static SeedPlan production() {
+        return new SeedPlan(
+                5_000_000, 2_000, 5_000, 500, 50, 1_000,
+                10_000_000, 2, 4, 3, 3, 2,
+                100_000_000,
+                30_000_000, 3, 3 * 365,
+                2_000_000, 3,
+                4_000_000);
+    }
+
+    /**
+     * Small plan for tests and benchmarks that need realistic shapes but not volume.
+     */
+    public static SeedPlan small() {
+        return new SeedPlan(
+                2_000, 50, 100, 20, 5, 100,
+                20_000, 3, 4, 3, 2, 2,
+                50_000,
+                20_000, 3, 365,
+                2_000, 3,
+                4_000);
+    }
+
+    /**
+     * Total number of product variants.
+     */
+    public long variants() {
+        return products * variantsPerProduct;
+    }
+
+    /**
+     * Returns a copy with every volume scaled by the given factor; fan-outs are kept.
+     */
+    public SeedPlan scaled(double factor) {
+        return new SeedPlan(
+                scale(customers, factor), categories, brands, suppliers, locations, tags,
+                scale(products, factor), variantsPerProduct, attributesPerProduct, tagsPerProduct,
+                reviewsPerProduct, stockBatchesPerVariant,
+                scale(inventoryLogRows, factor),
+                scale(orders, factor), itemsPerOrder, historyDays,
+                scale(carts, factor), itemsPerCart,
+                scale(sessions, factor));
+    }
+
+    private static long scale(long value, double factor) {
+        return Math.max(1, Math.round(value * factor));
+    }
+}
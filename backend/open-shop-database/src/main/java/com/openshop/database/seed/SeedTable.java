@@ -0,0 +1,53 @@
+package com.openshop.database.seed;
+
+import java.util.List;
+
+/**
+ * Synthetic table definition: which columns are written, how many rows, which tables must be
+ * loaded first, and a pure function that fills row {@code index}.
+ *
+ * @param name      table name
+ * @param columns   columns in insert order
+ * @param rowCount  number of rows to generate
+ * @param dependsOn tables referenced by foreign keys, loaded in an earlier wave
+ * @param ordered   whether rows reference earlier rows of the same table and must be written in index order
+ * @param filler    fills the values of one row
+ */
+public record SeedTable(
+        String name,
+        List<SeedColumn> columns,
+        long rowCount,
+        List<String> dependsOn,
+        boolean ordered,
+        RowFiller filler) {
+
+    /**
+     * Fills the values of a single row; must be deterministic for a given index.
+     */
+    @FunctionalInterface
+    public interface RowFiller {
+        void fill(long index, Object[] row);
+    }
+
+    public String insertSql() {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(name).append(" (");
+        appendColumnList(sql);
+        sql.append(") VALUES ");
+        return sql.toString();
+    }
+
+    public String columnList() {
+        StringBuilder sql = new StringBuilder();
+        appendColumnList(sql);
+        return sql.toString();
+    }
+
+    private void appendColumnList(StringBuilder sql) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(columns.get(i).name());
+        }
+    }
+}
@@ -0,0 +1,781 @@
+package com.openshop.database.seed;
+
+import com.openshop.database.Dialect;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.openshop.database.seed.SeedColumn.bool;
+import static com.openshop.database.seed.SeedColumn.date;
+import static com.openshop.database.seed.SeedColumn.decimal;
+import static com.openshop.database.seed.SeedColumn.integer;
+import static com.openshop.database.seed.SeedColumn.text;
+import static com.openshop.database.seed.SeedColumn.timestamp;
+import static com.openshop.database.seed.SeedColumn.uuid;
+import static com.openshop.database.seed.SeedKeys.id;
+import static com.openshop.database.seed.SeedKeys.pick;
+
+/**
+ * Synthetic definitions of the V002-V008 tables.
+ * Every foreign key is derived from the child's index, and every value respects the
+ * CHECK constraints of all three dialects (for example {@code chk_attribute_has_parent},
+ * {@code chk_stock_quantities_non_negative} and the slug/code formats).
+ */
+public final class SeedTables {
+
+    public static final int CUSTOMERS = 1;
+    public static final int CUSTOMER_ADDRESSES = 2;
+    public static final int CUSTOMER_PREFERENCES = 3;
+    public static final int USER_SESSIONS = 4;
+    public static final int CATEGORIES = 5;
+    public static final int BRANDS = 6;
+    public static final int SUPPLIERS = 7;
+    public static final int LOCATIONS = 8;
+    public static final int TAGS = 9;
+    public static final int PRODUCTS = 10;
+    public static final int VARIANTS = 11;
+    public static final int ATTRIBUTES = 12;
+    public static final int PRODUCT_TAGS = 13;
+    public static final int REVIEWS = 14;
+    public static final int STOCK = 15;
+    public static final int INVENTORY_LOG = 16;
+    public static final int CARTS = 17;
+    public static final int CART_ITEMS = 18;
+    public static final int ORDERS = 19;
+    public static final int ORDER_ITEMS = 20;
+    public static final int ORDER_ADDRESSES = 21;
+    public static final int ORDER_PAYMENTS = 22;
+    public static final int ORDER_SHIPMENTS = 23;
+
+    private static final int CATEGORY_ROOTS = 16;
+    private static final int CATEGORY_FANOUT = 8;
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL"};
+    private static final String[] COLORS = {"black", "white", "red", "blue", "green", "grey", "navy", "beige"};
+    private static final String[] MATERIALS = {"cotton", "wool", "linen", "polyester", "leather", "denim"};
+    private static final String[] ORIGINS = {"PT", "IT", "VN", "CN", "US", "TR"};
+    private static final String[] SEASONS = {"spring", "summer", "autumn", "winter", "all-season"};
+    private static final String[] OPEN_ORDER_STATUSES = {"pending", "confirmed", "processing", "shipped"};
+    private static final DateTimeFormatter ORDER_DATE = DateTimeFormatter.BASIC_ISO_DATE.withZone(ZoneOffset.UTC);
+
+    private final SeedPlan plan;
+    private final Dialect dialect;
+    private final Instant now;
+    private final Instant historyStart;
+    private final LocalDate today;
+
+    public SeedTables(SeedPlan plan, Dialect dialect, LocalDate today) {
+        this.plan = plan;
+        this.dialect = dialect;
+        this.today = today;
+        this.now = today.atStartOfDay().toInstant(ZoneOffset.UTC);
+        this.historyStart = now.minus(Duration.ofDays(plan.historyDays()));
+    }
+
+    /**
+     * Returns all synthetic tables. Order is irrelevant; the generator loads them in
+     * waves derived from {@link SeedTable#dependsOn()}.
+     */
+    public List<SeedTable> tables() {
+        return List.of(
+                customers(), customerAddresses(), customerPreferences(), userSessions(),
+                categories(), brands(), suppliers(), locations(), tags(),
+                products(), variants(), attributes(), productTags(), reviews(),
+                stock(), inventoryLog(),
+                carts(), cartItems(),
+                orders(), orderItems(), orderAddresses(), orderPayments(), orderShipments());
+    }
+
+    // =============================================
+    // DERIVED VALUES (shared by parents and children)
+    // =============================================
+
+    /**
+     * Price of variant {@code v}; used for the variant row, product min/max, cart and order lines.
+     */
+    public static BigDecimal variantPrice(long v) {
+        return BigDecimal.valueOf(100 + pick(v, 1, 99_900), 2);
+    }
+
+    /**
+     * Parent of category {@code i}, or -1 for a root.
+     */
+    public static long categoryParent(long i) {
+        return i < CATEGORY_ROOTS ? -1 : (i - CATEGORY_ROOTS) / CATEGORY_FANOUT;
+    }
+
+    private int categoryDepth(long i) {
+        int depth = 0;
+        for (long p = categoryParent(i); p >= 0; p = categoryParent(p)) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private String categoryPath(long i) {
+        String path = "/" + id(CATEGORIES, i);
+        for (long p = categoryParent(i); p >= 0; p = categoryParent(p)) {
+            path = "/" + id(CATEGORIES, p) + path;
+        }
+        return path;
+    }
+
+    private int stockOnHand(long s) {
+        return (int) pick(s, 14, 500);
+    }
+
+    private int stockReserved(long s) {
+        int onHand = stockOnHand(s);
+        return onHand == 0 ? 0 : (int) pick(s, 15, onHand / 4 + 1);
+    }
+
+    private int reviewRating(long r) {
+        return 1 + (int) pick(r, 17, 5);
+    }
+
+    private long cartVariant(long cart, int k) {
+        return pick(cart, 7, plan.variants() - plan.itemsPerCart()) + k;
+    }
+
+    private int cartQuantity(long item) {
+        return 1 + (int) pick(item, 18, 3);
+    }
+
+    private long orderVariant(long order, int k) {
+        return pick(order, 8, plan.variants() - plan.itemsPerOrder()) + k;
+    }
+
+    private int orderQuantity(long item) {
+        return 1 + (int) pick(item, 9, 3);
+    }
+
+    private Instant orderCreated(long o) {
+        long span = Duration.between(historyStart, now).toSeconds();
+        return historyStart.plusSeconds(o * span / plan.orders());
+    }
+
+    private String orderStatus(long o) {
+        Instant created = orderCreated(o);
+        if (pick(o, 19, 100) < 3) {
+            return "cancelled";
+        }
+        if (created.isBefore(now.minus(Duration.ofDays(7)))) {
+            return "delivered";
+        }
+        return OPEN_ORDER_STATUSES[(int) pick(o, 20, OPEN_ORDER_STATUSES.length)];
+    }
+
+    private BigDecimal orderSubtotal(long o) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int k = 0; k < plan.itemsPerOrder(); k++) {
+            long item = o * plan.itemsPerOrder() + k;
+            subtotal = subtotal.add(variantPrice(orderVariant(o, k)).multiply(BigDecimal.valueOf(orderQuantity(item))));
+        }
+        return subtotal;
+    }
+
+    private BigDecimal orderTotal(long o) {
+        BigDecimal subtotal = orderSubtotal(o);
+        return subtotal.add(tax(subtotal)).add(SHIPPING);
+    }
+
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.0800");
+    private static final BigDecimal SHIPPING = new BigDecimal("5.00");
+
+    private static BigDecimal tax(BigDecimal amount) {
+        return amount.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static UUID customer(long i) {
+        return id(CUSTOMERS, i);
+    }
+
+    // =============================================
+    // CUSTOMER MANAGEMENT (V002, V003)
+    // =============================================
+
+    private SeedTable customers() {
+        return new SeedTable("customers",
+                List.of(uuid("id"), text("email"), text("password_hash"), text("first_name"), text("last_name"),
+                        bool("email_verified"), timestamp("created_at")),
+                plan.customers(), List.of(), false,
+                (i, row) -> {
+                    row[0] = customer(i);
+                    row[1] = "customer" + i + "@openshop.test";
+                    row[2] = "$2a$10$" + Long.toHexString(SeedKeys.mix(i)) + "synthetichashsynthetichashsynthetic";
+                    row[3] = "First" + i;
+                    row[4] = "Last" + i;
+                    row[5] = pick(i, 21, 10) < 8;
+                    row[6] = historyStart.plusSeconds(pick(i, 22, plan.historyDays() * 86_400L));
+                });
+    }
+
+    private SeedTable customerAddresses() {
+        return new SeedTable("customer_addresses",
+                List.of(uuid("id"), uuid("customer_id"), text("type"), text("first_name"), text("last_name"),
+                        text("address_line1"), text("city"), text("postal_code"), text("country"), bool("is_default")),
+                plan.customers(), List.of("customers"), false,
+                (i, row) -> {
+                    row[0] = id(CUSTOMER_ADDRESSES, i);
+                    row[1] = customer(i);
+                    row[2] = "both";
+                    row[3] = "First" + i;
+                    row[4] = "Last" + i;
+                    row[5] = (1 + pick(i, 23, 9_999)) + " Main Street";
+                    row[6] = "City " + pick(i, 24, 500);
+                    row[7] = String.valueOf(10_000 + pick(i, 25, 89_999));
+                    row[8] = ORIGINS[(int) pick(i, 26, ORIGINS.length)];
+                    row[9] = true;
+                });
+    }
+
+    private SeedTable customerPreferences() {
+        return new SeedTable("customer_preferences",
+                List.of(uuid("id"), uuid("customer_id"), text("currency"), text("language")),
+                plan.customers(), List.of("customers"), false,
+                (i, row) -> {
+                    row[0] = id(CUSTOMER_PREFERENCES, i);
+                    row[1] = customer(i);
+                    row[2] = "USD";
+                    row[3] = "en";
+                });
+    }
+
+    private SeedTable userSessions() {
+        return new SeedTable("user_sessions",
+                List.of(uuid("id"), uuid("customer_id"), text("refresh_token"), text("access_token_hash"),
+                        timestamp("expires_at"), timestamp("created_at"), timestamp("last_accessed_at"),
+                        bool("is_active")),
+                plan.sessions(), List.of("customers"), false,
+                (i, row) -> {
+                    Instant created = now.minus(Duration.ofMinutes(pick(i, 27, 60L * 24 * 60)));
+                    Instant expires = created.plus(Duration.ofDays(30));
+                    row[0] = id(USER_SESSIONS, i);
+                    row[1] = customer(pick(i, 28, plan.customers()));
+                    row[2] = "rt-" + i + "-" + Long.toHexString(SeedKeys.mix(i));
+                    row[3] = String.format("%016x%016x", SeedKeys.mix(i + 1), SeedKeys.mix(i + 2));
+                    row[4] = expires;
+                    row[5] = created;
+                    row[6] = created.plus(Duration.ofMinutes(pick(i, 29, 600)));
+                    row[7] = expires.isAfter(now);
+                });
+    }
+
+    // =============================================
+    // PRODUCT CATALOG (V004)
+    // =============================================
+
+    private SeedTable categories() {
+        return new SeedTable("categories",
+                List.of(uuid("id"), text("name"), text("slug"), uuid("parent_id"), integer("sort_order"),
+                        text("path"), integer("level_depth")),
+                plan.categories(), List.of(), true,
+                (i, row) -> {
+                    long parent = categoryParent(i);
+                    row[0] = id(CATEGORIES, i);
+                    row[1] = "Category " + i;
+                    row[2] = "category-" + i;
+                    row[3] = parent < 0 ? null : id(CATEGORIES, parent);
+                    row[4] = (int) (i % CATEGORY_FANOUT);
+                    row[5] = categoryPath(i);
+                    row[6] = categoryDepth(i);
+                });
+    }
+
+    private SeedTable brands() {
+        return new SeedTable("brands",
+                List.of(uuid("id"), text("name"), text("slug"), integer("sort_order")),
+                plan.brands(), List.of(), false,
+                (i, row) -> {
+                    row[0] = id(BRANDS, i);
+                    row[1] = "Brand " + i;
+                    row[2] = "brand-" + i;
+                    row[3] = (int) i;
+                });
+    }
+
+    private SeedTable tags() {
+        return new SeedTable("tags",
+                List.of(uuid("id"), text("name"), text("slug")),
+                plan.tags(), List.of(), false,
+                (i, row) -> {
+                    row[0] = id(TAGS, i);
+                    row[1] = "tag " + i;
+                    row[2] = "tag-" + i;
+                });
+    }
+
+    private SeedTable products() {
+        int variantsPerProduct = plan.variantsPerProduct();
+        int batches = plan.stockBatchesPerVariant();
+        int reviews = plan.reviewsPerProduct();
+        return new SeedTable("products",
+                List.of(uuid("id"), text("name"), text("slug"), text("short_description"), uuid("category_id"),
+                        uuid("brand_id"), text("sku"), text("status"), bool("is_featured"), decimal("min_price"),
+                        decimal("max_price"), text("currency"), decimal("avg_rating"), integer("review_count"),
+                        integer("total_stock"), bool("is_in_stock"), timestamp("created_at")),
+                plan.products(), List.of("categories", "brands"), false,
+                (p, row) -> {
+                    BigDecimal min = null;
+                    BigDecimal max = null;
+                    int stock = 0;
+                    for (int k = 0; k < variantsPerProduct; k++) {
+                        long v = p * variantsPerProduct + k;
+                        BigDecimal price = variantPrice(v);
+                        min = min == null || price.compareTo(min) < 0 ? price : min;
+                        max = max == null || price.compareTo(max) > 0 ? price : max;
+                        for (int b = 0; b < batches; b++) {
+                            long s = v * batches + b;
+                            stock += stockOnHand(s) - stockReserved(s);
+                        }
+                    }
+                    int ratingSum = 0;
+                    for (int k = 0; k < reviews; k++) {
+                        ratingSum += reviewRating(p + (long) k * plan.products());
+                    }
+                    long status = pick(p, 4, 100);
+
+                    row[0] = id(PRODUCTS, p);
+                    row[1] = "Product " + p;
+                    row[2] = "product-" + p;
+                    row[3] = MATERIALS[(int) pick(p, 30, MATERIALS.length)] + " product number " + p;
+                    row[4] = id(CATEGORIES, pick(p, 2, plan.categories()));
+                    row[5] = id(BRANDS, pick(p, 3, plan.brands()));
+                    row[6] = "P-" + p;
+                    row[7] = status < 95 ? "active" : status < 98 ? "inactive" : "draft";
+                    row[8] = pick(p, 31, 100) < 2;
+                    row[9] = min;
+                    row[10] = max;
+                    row[11] = "USD";
+                    row[12] = reviews == 0 ? BigDecimal.ZERO.setScale(2)
+                            : BigDecimal.valueOf(ratingSum).divide(BigDecimal.valueOf(reviews), 2, RoundingMode.HALF_UP);
+                    row[13] = reviews;
+                    row[14] = stock;
+                    row[15] = stock > 0;
+                    row[16] = historyStart.plusSeconds(pick(p, 32, plan.historyDays() * 86_400L));
+                });
+    }
+
+    private SeedTable variants() {
+        int variantsPerProduct = plan.variantsPerProduct();
+        List<SeedColumn> columns = new ArrayList<>(List.of(
+                uuid("id"), uuid("product_id"), text("name"), text("sku"), decimal("price"),
+                decimal("compare_at_price"), decimal("cost_price"), text("currency"), text("size_type"),
+                text("material"), bool("is_active")));
+        // Oracle V004 declares color_name as RAW(16); leave it to the column default there
+        boolean withColor = dialect != Dialect.ORACLE;
+        if (withColor) {
+            columns.add(text("color_name"));
+        }
+        return new SeedTable("product_variants", List.copyOf(columns),
+                plan.variants(), List.of("products"), false,
+                (v, row) -> {
+                    BigDecimal price = variantPrice(v);
+                    row[0] = id(VARIANTS, v);
+                    row[1] = id(PRODUCTS, v / variantsPerProduct);
+                    row[2] = "Variant " + (v % variantsPerProduct);
+                    row[3] = "SKU-" + v;
+                    row[4] = price;
+                    row[5] = pick(v, 33, 4) == 0 ? price.multiply(new BigDecimal("1.25")).setScale(2, RoundingMode.HALF_UP) : null;
+                    row[6] = price.multiply(new BigDecimal("0.60")).setScale(2, RoundingMode.HALF_UP);
+                    row[7] = "USD";
+                    row[8] = SIZES[(int) (v % SIZES.length)];
+                    row[9] = MATERIALS[(int) pick(v / variantsPerProduct, 30, MATERIALS.length)];
+                    row[10] = pick(v, 34, 100) < 97;
+                    if (withColor) {
+                        row[11] = COLORS[(int) pick(v, 35, COLORS.length)];
+                    }
+                });
+    }
+
+    private SeedTable attributes() {
+        int perProduct = plan.attributesPerProduct();
+        int productLevel = (perProduct + 1) / 2;
+        int variantsPerProduct = plan.variantsPerProduct();
+        return new SeedTable("product_attributes",
+                List.of(uuid("id"), uuid("product_id"), uuid("variant_id"), text("attribute_key"),
+                        text("attribute_value"), text("attribute_type"), bool("is_filterable"),
+                        bool("is_searchable"), integer("display_order")),
+                plan.products() * perProduct, List.of("products", "product_variants"), false,
+                (a, row) -> {
+                    long p = a / perProduct;
+                    int k = (int) (a % perProduct);
+                    row[0] = id(ATTRIBUTES, a);
+                    // chk_attribute_has_parent: exactly one of product_id / variant_id
+                    if (k < productLevel) {
+                        row[1] = id(PRODUCTS, p);
+                        row[2] = null;
+                        switch (k % 3) {
+                            case 0 -> {
+                                row[3] = "material";
+                                row[4] = MATERIALS[(int) pick(p, 30, MATERIALS.length)];
+                            }
+                            case 1 -> {
+                                row[3] = "origin";
+                                row[4] = ORIGINS[(int) pick(p, 36, ORIGINS.length)];
+                            }
+                            default -> {
+                                row[3] = "season";
+                                row[4] = SEASONS[(int) pick(p, 37, SEASONS.length)];
+                            }
+                        }
+                    } else {
+                        long v = p * variantsPerProduct + (k - productLevel) % variantsPerProduct;
+                        row[1] = null;
+                        row[2] = id(VARIANTS, v);
+                        row[3] = "fit";
+                        row[4] = (k - productLevel) % 2 == 0 ? "regular" : "slim";
+                    }
+                    row[5] = "text";
+                    row[6] = true;
+                    row[7] = true;
+                    row[8] = k;
+                });
+    }
+
+    private SeedTable productTags() {
+        int perProduct = plan.tagsPerProduct();
+        return new SeedTable("product_tags",
+                List.of(uuid("product_id"), uuid("tag_id")),
+                plan.products() * perProduct, List.of("products", "tags"), false,
+                (t, row) -> {
+                    long p = t / perProduct;
+                    int k = (int) (t % perProduct);
+                    row[0] = id(PRODUCTS, p);
+                    row[1] = id(TAGS, (pick(p, 38, plan.tags()) + k) % plan.tags());
+                });
+    }
+
+    private SeedTable reviews() {
+        return new SeedTable("product_reviews",
+                List.of(uuid("id"), uuid("product_id"), uuid("customer_id"), integer("rating"), text("title"),
+                        text("review_text"), bool("is_verified_purchase"), bool("is_approved"),
+                        integer("helpful_count"), integer("total_votes"), timestamp("created_at")),
+                plan.products() * plan.reviewsPerProduct(), List.of("products", "customers"), false,
+                (r, row) -> {
+                    long p = r % plan.products();
+                    long k = r / plan.products();
+                    int helpful = (int) pick(r, 39, 50);
+                    row[0] = id(REVIEWS, r);
+                    row[1] = id(PRODUCTS, p);
+                    // UNIQUE (customer_id, product_id): consecutive customers per product
+                    row[2] = customer((pick(p, 16, plan.customers()) + k) % plan.customers());
+                    row[3] = reviewRating(r);
+                    row[4] = "Review " + r;
+                    row[5] = "Synthetic review text for product " + p;
+                    row[6] = pick(r, 40, 2) == 0;
+                    row[7] = true;
+                    row[8] = helpful;
+                    row[9] = helpful + (int) pick(r, 41, 20);
+                    row[10] = historyStart.plusSeconds(pick(r, 42, plan.historyDays() * 86_400L));
+                });
+    }
+
+    // =============================================
+    // INVENTORY SYSTEM (V008)
+    // =============================================
+
+    private SeedTable suppliers() {
+        return new SeedTable("suppliers",
+                List.of(uuid("id"), text("name"), text("slug"), text("country"), integer("lead_time_days"), text("status")),
+                plan.suppliers(), List.of(), false,
+                (i, row) -> {
+                    row[0] = id(SUPPLIERS, i);
+                    row[1] = "Supplier " + i;
+                    row[2] = "supplier-" + i;
+                    row[3] = ORIGINS[(int) pick(i, 43, ORIGINS.length)];
+                    row[4] = 3 + (int) pick(i, 44, 30);
+                    row[5] = "active";
+                });
+    }
+
+    private SeedTable locations() {
+        return new SeedTable("inventory_locations",
+                List.of(uuid("id"), text("name"), text("code"), text("type"), bool("is_active")),
+                plan.locations(), List.of(), false,
+                (i, row) -> {
+                    row[0] = id(LOCATIONS, i);
+                    row[1] = "Location " + i;
+                    row[2] = "LOC-" + i;
+                    row[3] = i % 4 == 3 ? "store" : "warehouse";
+                    row[4] = true;
+                });
+    }
+
+    private SeedTable stock() {
+        int batches = plan.stockBatchesPerVariant();
+        return new SeedTable("inventory_stock",
+                List.of(uuid("variant_id"), uuid("supplier_id"), uuid("location_id"), date("supplied_date"),
+                        decimal("cost_price"), text("batch_reference"), integer("quantity_on_hand"),
+                        integer("quantity_reserved"), integer("low_stock_threshold"), integer("reorder_quantity"),
+                        text("status")),
+                plan.variants() * batches, List.of("product_variants", "suppliers", "inventory_locations"), false,
+                (s, row) -> {
+                    long v = s / batches;
+                    int b = (int) (s % batches);
+                    int onHand = stockOnHand(s);
+                    row[0] = id(VARIANTS, v);
+                    row[1] = id(SUPPLIERS, pick(s, 45, plan.suppliers()));
+                    // Distinct locations per variant keep the primary key unique
+                    row[2] = id(LOCATIONS, (pick(v, 46, plan.locations()) + b) % plan.locations());
+                    row[3] = today.minusDays(b * 90L + pick(s, 47, 60));
+                    row[4] = variantPrice(v).multiply(new BigDecimal("0.60")).setScale(2, RoundingMode.HALF_UP);
+                    row[5] = "B-" + s;
+                    // chk_stock_quantities_non_negative: reserved never exceeds on hand
+                    row[6] = onHand;
+                    row[7] = stockReserved(s);
+                    row[8] = 10;
+                    row[9] = 50;
+                    row[10] = onHand == 0 ? "out_of_stock" : "active";
+                });
+    }
+
+    private SeedTable inventoryLog() {
+        long rows = plan.inventoryLogRows();
+        long span = Duration.between(historyStart, now).toSeconds();
+        int variantsPerProduct = plan.variantsPerProduct();
+        return new SeedTable("inventory_log",
+                List.of(uuid("id"), text("entity_type"), uuid("product_id"), uuid("variant_id"), uuid("supplier_id"),
+                        uuid("location_id"), text("operation_type"), integer("quantity_change"),
+                        integer("quantity_before"), integer("quantity_after"), text("reason"),
+                        text("reference_type"), text("reference_id"), timestamp("created_at")),
+                rows, List.of("product_variants", "suppliers", "inventory_locations"), false,
+                (l, row) -> {
+                    long v = pick(l, 10, plan.variants());
+                    int before = (int) pick(l, 13, 500);
+                    boolean restock = pick(l, 48, 5) == 0;
+                    int change = restock ? 1 + (int) pick(l, 49, 100) : -(int) Math.min(before, 1 + pick(l, 50, 5));
+                    row[0] = id(INVENTORY_LOG, l);
+                    row[1] = "stock_movement";
+                    row[2] = id(PRODUCTS, v / variantsPerProduct);
+                    row[3] = id(VARIANTS, v);
+                    row[4] = id(SUPPLIERS, pick(l, 11, plan.suppliers()));
+                    row[5] = id(LOCATIONS, pick(l, 12, plan.locations()));
+                    row[6] = restock ? "movement" : "adjustment";
+                    row[7] = change;
+                    row[8] = before;
+                    row[9] = before + change;
+                    row[10] = restock ? "Supplier delivery" : "Order fulfilment";
+                    row[11] = restock ? "restock" : "order";
+                    row[12] = "REF-" + l;
+                    row[13] = historyStart.plusSeconds(l * span / rows);
+                });
+    }
+
+    // =============================================
+    // SHOPPING CART (V005)
+    // =============================================
+
+    private SeedTable carts() {
+        int items = plan.itemsPerCart();
+        return new SeedTable("shopping_carts",
+                List.of(uuid("id"), uuid("customer_id"), text("status"), text("currency"), integer("item_count"),
+                        decimal("subtotal"), decimal("tax_estimate"), decimal("shipping_estimate"),
+                        decimal("total_estimate"), decimal("tax_rate"), timestamp("created_at"),
+                        timestamp("last_activity_at"), timestamp("expires_at")),
+                plan.carts(), List.of("customers"), false,
+                (c, row) -> {
+                    int count = 0;
+                    BigDecimal subtotal = BigDecimal.ZERO;
+                    for (int k = 0; k < items; k++) {
+                        int quantity = cartQuantity(c * items + k);
+                        count += quantity;
+                        subtotal = subtotal.add(variantPrice(cartVariant(c, k)).multiply(BigDecimal.valueOf(quantity)));
+                    }
+                    BigDecimal tax = tax(subtotal);
+                    Instant activity = now.minus(Duration.ofMinutes(pick(c, 51, 60L * 24 * 45)));
+                    row[0] = id(CARTS, c);
+                    row[1] = customer(c % plan.customers());
+                    row[2] = activity.isBefore(now.minus(Duration.ofDays(30))) ? "abandoned" : "active";
+                    row[3] = "USD";
+                    row[4] = count;
+                    row[5] = subtotal;
+                    row[6] = tax;
+                    row[7] = SHIPPING;
+                    row[8] = subtotal.add(tax).add(SHIPPING);
+                    row[9] = TAX_RATE;
+                    row[10] = activity.minus(Duration.ofMinutes(pick(c, 52, 600)));
+                    row[11] = activity;
+                    row[12] = activity.plus(Duration.ofDays(30));
+                });
+    }
+
+    private SeedTable cartItems() {
+        int items = plan.itemsPerCart();
+        int variantsPerProduct = plan.variantsPerProduct();
+        return new SeedTable("shopping_cart_items",
+                List.of(uuid("id"), uuid("cart_id"), uuid("product_id"), uuid("variant_id"), integer("quantity"),
+                        decimal("unit_price"), text("product_name"), text("product_slug"), text("variant_name"),
+                        text("variant_sku")),
+                plan.carts() * items, List.of("shopping_carts", "product_variants"), false,
+                (i, row) -> {
+                    long c = i / items;
+                    // UNIQUE (cart_id, variant_id): consecutive variants per cart
+                    long v = cartVariant(c, (int) (i % items));
+                    long p = v / variantsPerProduct;
+                    row[0] = id(CART_ITEMS, i);
+                    row[1] = id(CARTS, c);
+                    row[2] = id(PRODUCTS, p);
+                    row[3] = id(VARIANTS, v);
+                    row[4] = cartQuantity(i);
+                    row[5] = variantPrice(v);
+                    row[6] = "Product " + p;
+                    row[7] = "product-" + p;
+                    row[8] = "Variant " + (v % variantsPerProduct);
+                    row[9] = "SKU-" + v;
+                });
+    }
+
+    // =============================================
+    // ORDER MANAGEMENT (V007)
+    // =============================================
+
+    private SeedTable orders() {
+        return new SeedTable("orders",
+                List.of(uuid("id"), text("order_number"), uuid("customer_id"), text("status"), decimal("subtotal"),
+                        decimal("tax_total"), decimal("shipping_cost"), decimal("total_amount"), text("currency"),
+                        timestamp("created_at"), timestamp("updated_at"), timestamp("confirmed_at"),
+                        timestamp("shipped_at"), timestamp("delivered_at"), timestamp("cancelled_at")),
+                plan.orders(), List.of("customers"), false,
+                (o, row) -> {
+                    Instant created = orderCreated(o);
+                    String status = orderStatus(o);
+                    BigDecimal subtotal = orderSubtotal(o);
+                    BigDecimal tax = tax(subtotal);
+                    boolean shipped = status.equals("shipped") || status.equals("delivered");
+                    Instant confirmed = status.equals("pending") || status.equals("cancelled") ? null : created.plusSeconds(600);
+                    Instant shippedAt = shipped ? created.plus(Duration.ofDays(1)) : null;
+                    Instant deliveredAt = status.equals("delivered") ? created.plus(Duration.ofDays(4)) : null;
+                    Instant cancelledAt = status.equals("cancelled") ? created.plus(Duration.ofHours(2)) : null;
+                    row[0] = id(ORDERS, o);
+                    row[1] = String.format("ORD-%s-%06d", ORDER_DATE.format(created), o);
+                    row[2] = customer(pick(o, 53, plan.customers()));
+                    row[3] = status;
+                    row[4] = subtotal;
+                    row[5] = tax;
+                    row[6] = SHIPPING;
+                    row[7] = subtotal.add(tax).add(SHIPPING);
+                    row[8] = "USD";
+                    row[9] = created;
+                    row[10] = deliveredAt != null ? deliveredAt : cancelledAt != null ? cancelledAt
+                            : shippedAt != null ? shippedAt : confirmed != null ? confirmed : created;
+                    row[11] = confirmed;
+                    row[12] = shippedAt;
+                    row[13] = deliveredAt;
+                    row[14] = cancelledAt;
+                });
+    }
+
+    private SeedTable orderItems() {
+        int items = plan.itemsPerOrder();
+        int variantsPerProduct = plan.variantsPerProduct();
+        return new SeedTable("order_items",
+                List.of(uuid("id"), uuid("order_id"), uuid("product_id"), uuid("variant_id"), integer("quantity"),
+                        decimal("unit_price"), text("product_name"), text("product_slug"), text("variant_name"),
+                        text("variant_sku"), decimal("cost_price"), text("fulfillment_status"),
+                        integer("shipped_quantity")),
+                plan.orders() * items, List.of("orders", "product_variants"), false,
+                (i, row) -> {
+                    long o = i / items;
+                    long v = orderVariant(o, (int) (i % items));
+                    long p = v / variantsPerProduct;
+                    int quantity = orderQuantity(i);
+                    String status = orderStatus(o);
+                    boolean shipped = status.equals("shipped") || status.equals("delivered");
+                    BigDecimal price = variantPrice(v);
+                    row[0] = id(ORDER_ITEMS, i);
+                    row[1] = id(ORDERS, o);
+                    row[2] = id(PRODUCTS, p);
+                    row[3] = id(VARIANTS, v);
+                    row[4] = quantity;
+                    row[5] = price;
+                    row[6] = "Product " + p;
+                    row[7] = "product-" + p;
+                    row[8] = "Variant " + (v % variantsPerProduct);
+                    row[9] = "SKU-" + v;
+                    row[10] = price.multiply(new BigDecimal("0.60")).setScale(2, RoundingMode.HALF_UP);
+                    row[11] = shipped ? "shipped" : "pending";
+                    // chk_order_item_shipped_quantity: 0 <= shipped_quantity <= quantity
+                    row[12] = shipped ? quantity : 0;
+                });
+    }
+
+    private SeedTable orderAddresses() {
+        return new SeedTable("order_addresses",
+                List.of(uuid("id"), uuid("order_id"), text("address_type"), text("first_name"), text("last_name"),
+                        text("address_line1"), text("city"), text("postal_code"), text("country")),
+                plan.orders(), List.of("orders"), false,
+                (o, row) -> {
+                    long c = pick(o, 53, plan.customers());
+                    row[0] = id(ORDER_ADDRESSES, o);
+                    row[1] = id(ORDERS, o);
+                    row[2] = "shipping";
+                    row[3] = "First" + c;
+                    row[4] = "Last" + c;
+                    row[5] = (1 + pick(c, 23, 9_999)) + " Main Street";
+                    row[6] = "City " + pick(c, 24, 500);
+                    row[7] = String.valueOf(10_000 + pick(c, 25, 89_999));
+                    row[8] = ORIGINS[(int) pick(c, 26, ORIGINS.length)];
+                });
+    }
+
+    private SeedTable orderPayments() {
+        return new SeedTable("order_payments",
+                List.of(uuid("id"), uuid("order_id"), text("payment_provider"), text("payment_method"),
+                        decimal("amount"), text("currency"), text("status"), text("provider_payment_id"),
+                        timestamp("captured_at"), timestamp("created_at")),
+                plan.orders(), List.of("orders"), false,
+                (o, row) -> {
+                    Instant created = orderCreated(o);
+                    String status = orderStatus(o);
+                    row[0] = id(ORDER_PAYMENTS, o);
+                    row[1] = id(ORDERS, o);
+                    row[2] = "stripe";
+                    row[3] = "card";
+                    row[4] = orderTotal(o);
+                    row[5] = "USD";
+                    row[6] = switch (status) {
+                        case "pending" -> "pending";
+                        case "cancelled" -> "refunded";
+                        default -> "succeeded";
+                    };
+                    row[7] = "pi_" + Long.toHexString(SeedKeys.mix(o));
+                    row[8] = status.equals("pending") ? null : created.plusSeconds(60);
+                    row[9] = created;
+                });
+    }
+
+    private SeedTable orderShipments() {
+        return new SeedTable("order_shipments",
+                List.of(uuid("id"), uuid("order_id"), text("carrier"), text("service_level"), text("tracking_number"),
+                        text("status"), decimal("shipping_cost"), timestamp("created_at"), timestamp("shipped_at"),
+                        timestamp("delivered_at")),
+                plan.orders(), List.of("orders"), false,
+                (o, row) -> {
+                    Instant created = orderCreated(o);
+                    String status = orderStatus(o);
+                    row[0] = id(ORDER_SHIPMENTS, o);
+                    row[1] = id(ORDERS, o);
+                    row[2] = pick(o, 54, 2) == 0 ? "UPS" : "DHL";
+                    row[3] = "standard";
+                    row[4] = "TRK" + o;
+                    row[5] = switch (status) {
+                        case "delivered" -> "delivered";
+                        case "shipped" -> "in_transit";
+                        case "cancelled" -> "returned";
+                        default -> "pending";
+                    };
+                    row[6] = SHIPPING;
+                    row[7] = created;
+                    row[8] = status.equals("shipped") || status.equals("delivered") ? created.plus(Duration.ofDays(1)) : null;
+                    row[9] = status.equals("delivered") ? created.plus(Duration.ofDays(4)) : null;
+                });
+    }
+}
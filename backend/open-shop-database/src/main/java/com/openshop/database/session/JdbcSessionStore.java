@@ -0,0 +1,157 @@
+package com.openshop.database.session;
+
+import com.openshop.database.Dialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link SessionStore} over {@code user_sessions}. The accesses of one flush are written in a
+ * single transaction with one JDBC batch, so a flush costs the same number of round trips however
+ * many sessions it covers.
+ */
+final class JdbcSessionStore implements SessionStore {
+
+    private static final String SELECT_SQL = """
+            SELECT id, customer_id, refresh_token, access_token_hash, expires_at, last_accessed_at
+            FROM user_sessions
+            WHERE %s = ? AND is_active = %s AND expires_at > CURRENT_TIMESTAMP""";
+
+    // The guard keeps a slower node from moving the access time back
+    private static final String ACCESS_SQL = """
+            UPDATE user_sessions SET last_accessed_at = ?
+            WHERE id = ? AND (last_accessed_at IS NULL OR last_accessed_at < ?)""";
+
+    // revoked_at (V023) tells the caches of the other nodes which sessions to drop
+    private static final String REVOKE_SQL =
+            "UPDATE user_sessions SET is_active = %s, revoked_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String REVOKE_ALL_SQL = """
+            UPDATE user_sessions SET is_active = %s, revoked_at = CURRENT_TIMESTAMP
+            WHERE customer_id = ? AND is_active = %s""";
+
+    private static final String LAST_REVOCATION_SQL = "SELECT MAX(revoked_at) FROM user_sessions";
+
+    private static final String REVOKED_SINCE_SQL = "SELECT id, revoked_at FROM user_sessions WHERE revoked_at > ?";
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+    private final String byRefreshTokenSql;
+    private final String byAccessTokenHashSql;
+
+    JdbcSessionStore(DataSource dataSource, Dialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+        this.byRefreshTokenSql = SELECT_SQL.formatted("refresh_token", dialect.booleanLiteral(true));
+        this.byAccessTokenHashSql = SELECT_SQL.formatted("access_token_hash", dialect.booleanLiteral(true));
+    }
+
+    @Override
+    public Session findByRefreshToken(String refreshToken) throws SQLException {
+        return find(byRefreshTokenSql, refreshToken);
+    }
+
+    @Override
+    public Session findByAccessTokenHash(String accessTokenHash) throws SQLException {
+        return find(byAccessTokenHashSql, accessTokenHash);
+    }
+
+    @Override
+    public void writeAccesses(List<Access> accesses) throws SQLException {
+        // Rows are always updated in key order so flushes on several nodes cannot deadlock each other
+        List<Access> ordered = new ArrayList<>(accesses);
+        ordered.sort(Comparator.comparing(Access::sessionId));
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(ACCESS_SQL)) {
+                for (Access access : ordered) {
+                    Timestamp at = Timestamp.from(access.at());
+                    stmt.setTimestamp(1, at);
+                    dialect.bindUuid(stmt, 2, access.sessionId());
+                    stmt.setTimestamp(3, at);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void revoke(UUID sessionId) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(
+                     REVOKE_SQL.formatted(dialect.booleanLiteral(false)))) {
+            dialect.bindUuid(stmt, 1, sessionId);
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public void revokeAll(UUID customerId) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(
+                     REVOKE_ALL_SQL.formatted(dialect.booleanLiteral(false), dialect.booleanLiteral(true)))) {
+            dialect.bindUuid(stmt, 1, customerId);
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public Instant lastRevocation() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(LAST_REVOCATION_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            Timestamp last = rs.next() ? rs.getTimestamp(1) : null;
+            return last == null ? null : last.toInstant();
+        }
+    }
+
+    @Override
+    public Revocations revokedSince(Instant since) throws SQLException {
+        List<UUID> sessionIds = new ArrayList<>();
+        Instant newest = null;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(REVOKED_SINCE_SQL)) {
+            stmt.setTimestamp(1, Timestamp.from(since));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sessionIds.add(dialect.readUuid(rs, 1));
+                    Instant revoked = rs.getTimestamp(2).toInstant();
+                    if (newest == null || revoked.isAfter(newest)) {
+                        newest = revoked;
+                    }
+                }
+            }
+        }
+        return new Revocations(sessionIds, newest);
+    }
+
+    private Session find(String sql, String token) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, token);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Timestamp lastAccessed = rs.getTimestamp(6);
+                return new Session(dialect.readUuid(rs, 1), dialect.readUuid(rs, 2), rs.getString(3),
+                        rs.getString(4), rs.getTimestamp(5).toInstant(),
+                        lastAccessed == null ? null : lastAccessed.toInstant());
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.openshop.database.session;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An active {@code user_sessions} row, as needed to authenticate a request.
+ *
+ * @param accessTokenHash hash of the current access token, {@code null} if none was issued
+ * @param lastAccessedAt  last access as written to the database; accesses since are pending
+ */
+public record Session(UUID id, UUID customerId, String refreshToken, String accessTokenHash, Instant expiresAt,
+                      Instant lastAccessedAt) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
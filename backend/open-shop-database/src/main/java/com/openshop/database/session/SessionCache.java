@@ -0,0 +1,384 @@
+package com.openshop.database.session;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.Poller;
+import com.openshop.database.session.SessionStore.Access;
+import com.openshop.database.session.SessionStore.Revocations;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves {@code user_sessions} by refresh token or access token hash from a bounded near-cache
+ * and writes {@code last_accessed_at} behind, so an authenticated request costs neither a read
+ * nor a write of the session table.
+ *
+ * <p>A session is cached for at most the TTL and never past its {@code expires_at}. When the
+ * cache is full, expired entries go first, then those closest to the end of their validity.
+ * Every lookup records the access in memory; a flusher thread writes the latest access of each
+ * session once per write interval, all sessions in one batch, so a session used a hundred times
+ * in an interval is one update.</p>
+ *
+ * <p>{@link #logout} and {@link #revoke} deactivate the session in the database, set its
+ * {@code revoked_at} (V023) and drop it from this node's cache at once. The same thread checks for
+ * sessions revoked on other nodes every {@code revocationCheck}, two seconds by default, reading
+ * again {@link #LATE_COMMIT_WINDOW} before the newest {@code revoked_at} seen, and drops them; a
+ * session revoked elsewhere thus stays usable here for up to about that interval. While the check
+ * fails, and for sessions deactivated without setting {@code revoked_at}, the TTL is the bound
+ * instead. Accesses within the open interval are lost if the process dies, which only makes
+ * {@code last_accessed_at} older than it should be.</p>
+ */
+public final class SessionCache implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+    public static final Duration DEFAULT_WRITE_INTERVAL = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_REVOCATION_CHECK = Duration.ofSeconds(2);
+
+    /**
+     * How far behind the newest {@code revoked_at} seen a revocation check reads again.
+     */
+    static final Duration LATE_COMMIT_WINDOW = Duration.ofMinutes(1);
+
+    // Share of the capacity kept when a full cache evicts, so eviction does not run on every miss
+    private static final int EVICT_TO_PERCENT = 90;
+
+    private final SessionStore store;
+    private final Clock clock;
+    private final int maxEntries;
+    private final Duration ttl;
+    private final long writeIntervalNanos;
+    private final long revocationCheckNanos;
+    private final Map<UUID, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byRefreshToken = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byAccessTokenHash = new ConcurrentHashMap<>();
+    private final Map<UUID, Instant> pendingAccesses = new ConcurrentHashMap<>();
+    // Bumped after every revocation, so a lookup that raced with one does not cache what it read
+    private final AtomicLong revocations = new AtomicLong();
+    private final Poller flusher;
+    private volatile boolean running = true;
+    // Only touched by the flusher thread
+    private long nextFlush;
+    private Instant revocationMark;
+
+    public SessionCache(DataSource dataSource, Dialect dialect) {
+        this(new JdbcSessionStore(dataSource, dialect), DEFAULT_MAX_ENTRIES, DEFAULT_TTL, DEFAULT_WRITE_INTERVAL,
+                DEFAULT_REVOCATION_CHECK, Clock.systemUTC());
+    }
+
+    public SessionCache(DataSource dataSource, Dialect dialect, int maxEntries, Duration ttl, Duration writeInterval) {
+        this(dataSource, dialect, maxEntries, ttl, writeInterval, DEFAULT_REVOCATION_CHECK);
+    }
+
+    public SessionCache(DataSource dataSource, Dialect dialect, int maxEntries, Duration ttl, Duration writeInterval,
+                        Duration revocationCheck) {
+        this(new JdbcSessionStore(dataSource, dialect), maxEntries, ttl, writeInterval, revocationCheck,
+                Clock.systemUTC());
+    }
+
+    SessionCache(SessionStore store, int maxEntries, Duration ttl, Duration writeInterval, Duration revocationCheck,
+                 Clock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        if (writeInterval.isNegative() || writeInterval.isZero()) {
+            throw new IllegalArgumentException("writeInterval must be positive");
+        }
+        if (revocationCheck.isNegative() || revocationCheck.isZero()) {
+            throw new IllegalArgumentException("revocationCheck must be positive");
+        }
+        this.store = store;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.writeIntervalNanos = writeInterval.toNanos();
+        this.revocationCheckNanos = revocationCheck.toNanos();
+        this.clock = clock;
+        this.nextFlush = System.nanoTime() + writeIntervalNanos;
+        this.flusher = Poller.start("session-flusher", this::poll, revocationCheck, this::flush);
+    }
+
+    /**
+     * The active, unexpired session with this refresh token, or {@code null}; records an access.
+     */
+    public Session findByRefreshToken(String refreshToken) throws SQLException {
+        return find(refreshToken, byRefreshToken, store::findByRefreshToken);
+    }
+
+    /**
+     * The active, unexpired session with this access token hash, or {@code null}; records an access.
+     */
+    public Session findByAccessTokenHash(String accessTokenHash) throws SQLException {
+        return find(accessTokenHash, byAccessTokenHash, store::findByAccessTokenHash);
+    }
+
+    /**
+     * Ends the session of this access token hash, as {@code /auth/logout} does.
+     *
+     * @return whether there was an active session to end
+     */
+    public boolean logout(String accessTokenHash) throws SQLException {
+        Entry entry = byAccessTokenHash.get(accessTokenHash);
+        Session session = entry != null ? entry.session : store.findByAccessTokenHash(accessTokenHash);
+        if (session == null) {
+            return false;
+        }
+        revoke(session.id());
+        return true;
+    }
+
+    /**
+     * Deactivates a session and drops it from the cache.
+     */
+    public void revoke(UUID sessionId) throws SQLException {
+        store.revoke(sessionId);
+        revocations.incrementAndGet();
+        evict(sessionId);
+        pendingAccesses.remove(sessionId);
+    }
+
+    /**
+     * Deactivates all sessions of a customer, e.g. after a password change, and drops them from
+     * the cache.
+     */
+    public void revokeAll(UUID customerId) throws SQLException {
+        store.revokeAll(customerId);
+        revocations.incrementAndGet();
+        for (Entry entry : byId.values()) {
+            if (entry.session.customerId().equals(customerId)) {
+                evict(entry.session.id());
+                pendingAccesses.remove(entry.session.id());
+            }
+        }
+    }
+
+    /**
+     * Drops a session from the cache without writing anything, after it was changed by other
+     * means such as a token refresh; the next lookup reads it again. Its pending access is kept.
+     */
+    public void evict(UUID sessionId) {
+        Entry entry = byId.remove(sessionId);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    /**
+     * Number of sessions cached.
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Writes the pending accesses of all sessions now.
+     */
+    public void flush() throws SQLException {
+        List<Access> accesses = new ArrayList<>();
+        for (UUID id : pendingAccesses.keySet()) {
+            Instant at = pendingAccesses.remove(id);
+            if (at != null) {
+                accesses.add(new Access(id, at));
+            }
+        }
+        if (accesses.isEmpty()) {
+            return;
+        }
+        try {
+            store.writeAccesses(accesses);
+        } catch (SQLException | RuntimeException e) {
+            // Retried with the next flush, merged with the accesses since
+            for (Access access : accesses) {
+                pendingAccesses.merge(access.sessionId(), access.at(), SessionCache::later);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The thread that checks for revocations and writes the accesses, which reports failed rounds.
+     */
+    public Poller flusher() {
+        return flusher;
+    }
+
+    /**
+     * Stops the flusher after writing the pending accesses.
+     */
+    @Override
+    public void close() {
+        running = false;
+        flusher.close();
+    }
+
+    private interface Loader {
+        Session load(String key) throws SQLException;
+    }
+
+    private Session find(String key, Map<String, Entry> index, Loader loader) throws SQLException {
+        if (!running) {
+            throw new IllegalStateException("Session cache is closed");
+        }
+        Instant now = clock.instant();
+        Entry entry = index.get(key);
+        if (entry != null) {
+            if (now.isBefore(entry.validUntil)) {
+                recordAccess(entry.session.id(), now);
+                return entry.session;
+            }
+            if (byId.remove(entry.session.id(), entry)) {
+                unlink(entry);
+            }
+        }
+        long revocationsBefore = revocations.get();
+        Session session = loader.load(key);
+        if (session == null || session.isExpired(now)) {
+            return null;
+        }
+        if (revocations.get() == revocationsBefore) {
+            cache(session, now);
+        }
+        recordAccess(session.id(), now);
+        return session;
+    }
+
+    private void cache(Session session, Instant now) {
+        Instant until = now.plus(ttl);
+        Entry entry = new Entry(session, until.isBefore(session.expiresAt()) ? until : session.expiresAt());
+        Entry replaced = byId.put(session.id(), entry);
+        if (replaced != null) {
+            unlink(replaced);
+        }
+        byRefreshToken.put(session.refreshToken(), entry);
+        if (session.accessTokenHash() != null) {
+            byAccessTokenHash.put(session.accessTokenHash(), entry);
+        }
+        if (byId.size() > maxEntries) {
+            evictForSpace(now);
+        }
+    }
+
+    /**
+     * Removes the token mappings of an entry no longer in {@link #byId}, unless they were taken
+     * over by a newer entry.
+     */
+    private void unlink(Entry entry) {
+        byRefreshToken.remove(entry.session.refreshToken(), entry);
+        if (entry.session.accessTokenHash() != null) {
+            byAccessTokenHash.remove(entry.session.accessTokenHash(), entry);
+        }
+    }
+
+    private synchronized void evictForSpace(Instant now) {
+        if (byId.size() <= maxEntries) {
+            return;
+        }
+        removeExpired(now);
+        int excess = byId.size() - (int) ((long) maxEntries * EVICT_TO_PERCENT / 100);
+        if (excess <= 0) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>(byId.values());
+        // Entries due for a reload anyway go first; among those, the sessions that expire first
+        entries.sort(Comparator.comparing((Entry entry) -> entry.validUntil)
+                .thenComparing(entry -> entry.session.expiresAt()));
+        for (int i = 0; i < excess && i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (byId.remove(entry.session.id(), entry)) {
+                unlink(entry);
+            }
+        }
+    }
+
+    private void removeExpired(Instant now) {
+        for (Entry entry : byId.values()) {
+            if (!now.isBefore(entry.validUntil) && byId.remove(entry.session.id(), entry)) {
+                unlink(entry);
+            }
+        }
+    }
+
+    private void recordAccess(UUID sessionId, Instant at) {
+        pendingAccesses.merge(sessionId, at, SessionCache::later);
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * Drops the sessions revoked on other nodes and, once per write interval, the expired entries,
+     * and writes the pending accesses. Returns the wait until the next round.
+     */
+    private long poll() throws Exception {
+        Exception failure = null;
+        try {
+            dropRevoked();
+        } catch (SQLException | RuntimeException e) {
+            failure = e;
+        }
+        long now = System.nanoTime();
+        if (now - nextFlush >= 0) {
+            nextFlush = now + writeIntervalNanos;
+            removeExpired(clock.instant());
+            try {
+                flush();
+            } catch (SQLException | RuntimeException e) {
+                // The accesses are pending again and written with the next interval's
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return Math.min(revocationCheckNanos, nextFlush - System.nanoTime());
+    }
+
+    private void dropRevoked() throws SQLException {
+        if (revocationMark == null) {
+            Instant last = store.lastRevocation();
+            revocationMark = last == null ? Instant.EPOCH : last;
+        }
+        // A lookup that read a session just before its revocation committed may have cached it
+        // after the previous check; reading the window again drops it in this one
+        Revocations revoked = store.revokedSince(revocationMark.minus(LATE_COMMIT_WINDOW));
+        for (UUID sessionId : revoked.sessionIds()) {
+            evict(sessionId);
+            pendingAccesses.remove(sessionId);
+        }
+        if (revoked.newest() != null && revoked.newest().isAfter(revocationMark)) {
+            revocationMark = revoked.newest();
+        }
+    }
+
+    /**
+     * A cached session and the instant it must be read again. Compared by identity, so a mapping
+     * is only removed by the entry that made it.
+     */
+    private static final class Entry {
+
+        final Session session;
+        final Instant validUntil;
+
+        Entry(Session session, Instant validUntil) {
+            this.session = session;
+            this.validUntil = validUntil;
+        }
+    }
+}
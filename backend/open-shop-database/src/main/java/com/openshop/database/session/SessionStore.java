@@ -0,0 +1,61 @@
+package com.openshop.database.session;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persistence of sessions, separated from {@link SessionCache} so caching and write-behind can be
+ * exercised without a database.
+ */
+interface SessionStore {
+
+    /**
+     * The active session with this refresh token, or {@code null} if there is none.
+     */
+    Session findByRefreshToken(String refreshToken) throws SQLException;
+
+    /**
+     * The active session with this access token hash, or {@code null} if there is none.
+     */
+    Session findByAccessTokenHash(String accessTokenHash) throws SQLException;
+
+    /**
+     * Moves {@code last_accessed_at} of several sessions forward in one transaction; a session
+     * whose stored value is already later keeps it.
+     */
+    void writeAccesses(List<Access> accesses) throws SQLException;
+
+    /**
+     * Deactivates a session and records when, so the caches of other nodes drop it.
+     */
+    void revoke(UUID sessionId) throws SQLException;
+
+    /**
+     * Deactivates all sessions of a customer and records when.
+     */
+    void revokeAll(UUID customerId) throws SQLException;
+
+    /**
+     * The latest {@code revoked_at} of any session, or {@code null} if none was revoked.
+     */
+    Instant lastRevocation() throws SQLException;
+
+    /**
+     * The sessions revoked after {@code since} and the latest of their {@code revoked_at}.
+     */
+    Revocations revokedSince(Instant since) throws SQLException;
+
+    /**
+     * Latest access to a session not yet written.
+     */
+    record Access(UUID sessionId, Instant at) {
+    }
+
+    /**
+     * Sessions revoked after some instant; {@code newest} is {@code null} if there are none.
+     */
+    record Revocations(List<UUID> sessionIds, Instant newest) {
+    }
+}
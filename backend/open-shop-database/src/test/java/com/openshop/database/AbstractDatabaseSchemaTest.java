@@ -1,14 +1,17 @@
 package com.openshop.database;
 
+import com.openshop.database.callback.MigrationMetricsCallback;
+import com.openshop.database.catalog.CatalogDiff;
+import com.openshop.database.catalog.CatalogReader;
+import com.openshop.database.catalog.CatalogSnapshot;
 import org.flywaydb.core.Flyway;
 import org.flywaydb.core.api.output.MigrateResult;
 import org.junit.jupiter.api.Test;
 
 import java.sql.*;
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -51,6 +54,14 @@ public abstract class AbstractDatabaseSchemaTest {
      */
     protected abstract String[] getAdditionalExpectedTables();
 
+    /**
+     * Returns additional columns per table that only exist in this database, such as the
+     * partition keys Oracle derives from time columns. None by default.
+     */
+    protected Map<String, List<String>> getAdditionalExpectedColumns() {
+        return Map.of();
+    }
+
     /**
      * Returns the table name in the correct case for database queries.
      * MySQL uses lowercase, Oracle uses uppercase.
@@ -68,6 +79,7 @@ public abstract class AbstractDatabaseSchemaTest {
                 .locations(getMigrationLocation())
                 .createSchemas(shouldCreateSchemas())
                 .schemas(SCHEMA_NAME)
+                .callbacks(new MigrationMetricsCallback())
                 .load();
 
         return flyway.migrate();
@@ -133,44 +145,53 @@ public abstract class AbstractDatabaseSchemaTest {
     }
 
     /**
-     * Validates that only expected tables exist (no extra tables).
+     * Returns the dialect of the database under test.
      */
-    private void validateTables(Connection connection) throws SQLException {
-        DatabaseMetaData metaData = connection.getMetaData();
-        Set<String> expectedTables = new HashSet<>();
-        for (String table : DatabaseTestConstants.EXPECTED_TABLES) {
-            expectedTables.add(table.toUpperCase());
-        }
-
-        // Add database-specific additional tables
-        for (String table : getAdditionalExpectedTables()) {
-            expectedTables.add(table.toUpperCase());
-        }
+    protected Dialect getDialect() {
+        return Dialect.fromJdbcUrl(getJdbcUrl());
+    }
 
-        Set<String> actualTables = new HashSet<>();
+    /**
+     * Reads tables, columns, indexes and constraints of the schema with a single catalog query.
+     */
+    protected CatalogSnapshot readCatalog(Connection connection) throws SQLException {
+        return new CatalogReader(getDialect()).read(connection, SCHEMA_NAME);
+    }
 
-        try (ResultSet tables = metaData.getTables(null, SCHEMA_NAME, "%", new String[]{"TABLE"})) {
-            while (tables.next()) {
-                String tableName = tables.getString("TABLE_NAME");
-                if (tableName != null) {
-                    actualTables.add(tableName.toUpperCase());
-                }
+    /**
+     * Builds the expected catalog from {@link DatabaseTestConstants} and the database-specific tables.
+     */
+    protected CatalogSnapshot expectedCatalog() {
+        CatalogSnapshot.Builder builder = CatalogSnapshot.builder(SCHEMA_NAME);
+        for (String table : DatabaseTestConstants.EXPECTED_TABLES) {
+            builder.table(table);
+            for (String column : DatabaseTestConstants.EXPECTED_TABLE_COLUMNS.getOrDefault(table, List.of())) {
+                builder.column(table, column);
+            }
+            for (String index : DatabaseTestConstants.EXPECTED_TABLE_INDEXES.getOrDefault(table, List.of())) {
+                builder.index(table, index);
             }
         }
-
-        // Check that all expected tables exist
-        for (String expectedTable : expectedTables) {
-            assertThat(actualTables)
-                    .as("Expected table '%s' should exist", expectedTable)
-                    .contains(expectedTable);
+        for (String table : getAdditionalExpectedTables()) {
+            builder.table(table);
         }
+        getAdditionalExpectedColumns().forEach((table, columns) -> {
+            for (String column : columns) {
+                builder.column(table, column);
+            }
+        });
+        return builder.build();
+    }
 
-        // Check that no extra tables exist
-        Set<String> extraTables = new HashSet<>(actualTables);
-        extraTables.removeAll(expectedTables);
+    /**
+     * Validates that only expected tables exist (no extra or missing tables).
+     */
+    private void validateTables(Connection connection) throws SQLException {
+        List<CatalogDiff.Difference> differences =
+                CatalogDiff.compare(expectedCatalog(), readCatalog(connection), EnumSet.of(CatalogDiff.Scope.TABLES));
 
-        assertThat(extraTables)
-                .as("No extra tables should exist. Found: %s", extraTables)
+        assertThat(differences)
+                .as("Tables should match the expected schema")
                 .isEmpty();
     }
 
@@ -178,92 +199,26 @@ public abstract class AbstractDatabaseSchemaTest {
      * Validates that tables have exactly the expected columns (no extra or missing columns).
      */
     private void validateColumns(Connection connection) throws SQLException {
-        DatabaseMetaData metaData = connection.getMetaData();
+        List<CatalogDiff.Difference> differences =
+                CatalogDiff.compare(expectedCatalog(), readCatalog(connection), EnumSet.of(CatalogDiff.Scope.COLUMNS));
 
-        for (String tableName : DatabaseTestConstants.EXPECTED_TABLES) {
-            List<String> expectedColumns = DatabaseTestConstants.EXPECTED_TABLE_COLUMNS.get(tableName);
-            if (expectedColumns == null) {
-                continue; // Skip if no expected columns defined
-            }
-
-            Set<String> expectedColumnsSet = new HashSet<>();
-            for (String col : expectedColumns) {
-                expectedColumnsSet.add(col.toUpperCase());
-            }
-
-            Set<String> actualColumns = new HashSet<>();
-
-            try (ResultSet columns = metaData.getColumns(null, SCHEMA_NAME, getTableNameForQuery(tableName), "%")) {
-                while (columns.next()) {
-                    String columnName = columns.getString("COLUMN_NAME");
-                    if (columnName != null) {
-                        actualColumns.add(columnName.toUpperCase());
-                    }
-                }
-            }
-
-            // Check that all expected columns exist
-            for (String expectedColumn : expectedColumnsSet) {
-                assertThat(actualColumns)
-                        .as("Table '%s' should have column '%s'", tableName, expectedColumn)
-                        .contains(expectedColumn);
-            }
-
-            // Check that no extra columns exist
-            Set<String> extraColumns = new HashSet<>(actualColumns);
-            extraColumns.removeAll(expectedColumnsSet);
-
-            assertThat(extraColumns)
-                    .as("Table '%s' should not have extra columns. Found: %s", tableName, extraColumns)
-                    .isEmpty();
-        }
+        assertThat(differences)
+                .as("Columns should match the expected schema")
+                .isEmpty();
     }
 
     /**
-     * Validates that tables have exactly the expected indexes (no extra or missing indexes).
+     * Validates that tables have exactly the expected explicit IDX_ indexes (no extra or missing indexes).
+     * Indexes backing primary key and unique constraints are system-named and not compared.
      */
-    private void validateIndexes(Connection connection) throws SQLException {
-        DatabaseMetaData metaData = connection.getMetaData();
-
-        for (String tableName : DatabaseTestConstants.EXPECTED_TABLES) {
-            List<String> expectedIndexes = DatabaseTestConstants.EXPECTED_TABLE_INDEXES.get(tableName);
-            if (expectedIndexes == null) {
-                continue; // Skip if no expected indexes defined
-            }
-
-            Set<String> expectedIndexesSet = new HashSet<>();
-            for (String idx : expectedIndexes) {
-                expectedIndexesSet.add(idx.toUpperCase());
-            }
-
-            Set<String> actualIndexes = new HashSet<>();
-
-            try (ResultSet indexes = metaData.getIndexInfo(null, SCHEMA_NAME, getTableNameForQuery(tableName), false, false)) {
-                while (indexes.next()) {
-                    String indexName = indexes.getString("INDEX_NAME");
-                    if (indexName != null) {
-                        actualIndexes.add(indexName.toUpperCase());
-                    }
-                }
-            }
-
-            // Check that all expected indexes exist
-            for (String expectedIndex : expectedIndexesSet) {
-                assertThat(actualIndexes)
-                        .as("Table '%s' should have index '%s'", tableName, expectedIndex)
-                        .contains(expectedIndex);
-            }
-
-            // Check that no extra indexes exist (excluding system indexes if any)
-            Set<String> extraIndexes = new HashSet<>(actualIndexes);
-            extraIndexes.removeAll(expectedIndexesSet);
-
-            // Filter out system-generated indexes that might not be in our expectations
-            extraIndexes.removeIf(idx -> idx.startsWith("SYS_") || idx.contains("AUTO_"));
-
-            assertThat(extraIndexes)
-                    .as("Table '%s' should not have extra indexes. Found: %s", tableName, extraIndexes)
-                    .isEmpty();
-        }
+    protected void validateIndexes(Connection connection) throws SQLException {
+        CatalogSnapshot actual = readCatalog(connection)
+                .withIndexes(index -> index.name().startsWith("IDX_"));
+        List<CatalogDiff.Difference> differences =
+                CatalogDiff.compare(expectedCatalog(), actual, EnumSet.of(CatalogDiff.Scope.INDEXES));
+
+        assertThat(differences)
+                .as("Indexes should match the expected schema")
+                .isEmpty();
     }
 }
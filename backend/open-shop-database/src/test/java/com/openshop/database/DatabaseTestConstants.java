@@ -34,6 +34,8 @@ public final class DatabaseTestConstants {
             "PRODUCT_REVIEWS",
             "PRODUCT_TAGS",
             "TAGS",
+            "PRODUCT_AGGREGATE_QUEUE",
+            "SEARCH_INDEX_CHANGES",
 
             // Inventory Management
             "INVENTORY_LOCATIONS",
@@ -47,6 +49,10 @@ public final class DatabaseTestConstants {
             "ORDER_ADDRESSES",
             "ORDER_PAYMENTS",
             "ORDER_SHIPMENTS",
+            "SALES_DAILY",
+            "SALES_DAILY_PRODUCT",
+            "SALES_ROLLUP_DAYS",
+            "SALES_ROLLUP_QUEUE",
 
             // Shopping & Wishlist
             "SHOPPING_CARTS",
@@ -61,7 +67,13 @@ public final class DatabaseTestConstants {
             // Audit & Security
             "AUDIT_LOG",
             "EMAIL_VERIFICATION_TOKENS",
-            "PASSWORD_RESET_TOKENS"
+            "PASSWORD_RESET_TOKENS",
+
+            // Change Events
+            "OUTBOX",
+
+            // Replication
+            "REPLICA_HEARTBEAT"
     };
 
     /**
@@ -92,7 +104,8 @@ public final class DatabaseTestConstants {
 
         // Authentication Module
         put("USER_SESSIONS", Arrays.asList(
-                "IDX_SESSION_CUSTOMER", "IDX_SESSION_EXPIRES", "IDX_SESSION_ACTIVE"
+                "IDX_SESSION_CUSTOMER", "IDX_SESSION_EXPIRES", "IDX_SESSION_ACTIVE", "IDX_SESSION_ACCESS_TOKEN",
+                "IDX_SESSION_REVOKED"
         ));
 
         put("PASSWORD_RESET_TOKENS", Arrays.asList(
@@ -100,7 +113,7 @@ public final class DatabaseTestConstants {
         ));
 
         put("EMAIL_VERIFICATION_TOKENS", Arrays.asList(
-                "IDX_VERIFY_CUSTOMER", "IDX_VERIFY_EMAIL"
+                "IDX_VERIFY_CUSTOMER", "IDX_VERIFY_EMAIL", "IDX_VERIFY_EXPIRES"
         ));
 
         // Product Catalog
@@ -114,9 +127,11 @@ public final class DatabaseTestConstants {
         ));
 
         put("PRODUCTS", Arrays.asList(
-                "IDX_PRODUCT_NAME", "IDX_PRODUCT_CATEGORY", "IDX_PRODUCT_BRAND", "IDX_PRODUCT_STATUS",
+                "IDX_PRODUCT_NAME", "IDX_PRODUCT_CATEGORY", "IDX_PRODUCT_BRAND",
                 "IDX_PRODUCT_FEATURED", "IDX_PRODUCT_IN_STOCK", "IDX_PRODUCT_PRICE_RANGE", "IDX_PRODUCT_RATING",
-                "IDX_PRODUCT_CREATED", "IDX_PRODUCT_SKU", "IDX_PRODUCT_BARCODE"
+                "IDX_PRODUCT_CREATED", "IDX_PRODUCT_SKU", "IDX_PRODUCT_BARCODE",
+                "IDX_PRODUCT_LIST_CREATED", "IDX_PRODUCT_LIST_NAME", "IDX_PRODUCT_LIST_PRICE",
+                "IDX_PRODUCT_LIST_RATING", "IDX_PRODUCT_LIST_POPULARITY"
         ));
 
         put("PRODUCT_VARIANTS", Arrays.asList(
@@ -146,6 +161,10 @@ public final class DatabaseTestConstants {
                 "IDX_PRODUCT_TAG_PRODUCT", "IDX_PRODUCT_TAG_TAG"
         ));
 
+        put("SEARCH_INDEX_CHANGES", Arrays.asList(
+                "IDX_SEARCH_CHANGE_TIME"
+        ));
+
         // Shopping Cart
         put("SHOPPING_CARTS", Arrays.asList(
                 "IDX_CART_CUSTOMER", "IDX_CART_SESSION", "IDX_CART_STATUS",
@@ -169,7 +188,7 @@ public final class DatabaseTestConstants {
 
         // Order Management
         put("ORDERS", Arrays.asList(
-                "IDX_ORDER_CUSTOMER", "IDX_ORDER_STATUS", "IDX_ORDER_CREATED",
+                "IDX_ORDER_CUSTOMER", "IDX_ORDER_STATUS", "IDX_ORDER_CREATED", "IDX_ORDER_UPDATED",
                 "IDX_ORDER_TOTAL", "IDX_ORDER_COUPON"
         ));
 
@@ -183,12 +202,13 @@ public final class DatabaseTestConstants {
 
         put("ORDER_PAYMENTS", Arrays.asList(
                 "IDX_PAYMENT_ORDER", "IDX_PAYMENT_PROVIDER", "IDX_PAYMENT_STATUS",
-                "IDX_PAYMENT_PROVIDER_PAYMENT_ID", "IDX_PAYMENT_CREATED"
+                "IDX_PAYMENT_PROVIDER_PAYMENT_ID", "IDX_PAYMENT_CREATED", "IDX_PAYMENT_UPDATED"
         ));
 
         put("ORDER_SHIPMENTS", Arrays.asList(
                 "IDX_SHIPPING_ORDER", "IDX_SHIPPING_CARRIER", "IDX_SHIPPING_STATUS",
-                "IDX_SHIPPING_TRACKING", "IDX_SHIPPING_CREATED", "IDX_SHIPPING_ESTIMATED_DELIVERY"
+                "IDX_SHIPPING_TRACKING", "IDX_SHIPPING_CREATED", "IDX_SHIPPING_ESTIMATED_DELIVERY",
+                "IDX_SHIPPING_UPDATED"
         ));
 
         put("COUPONS", Arrays.asList(
@@ -212,7 +232,8 @@ public final class DatabaseTestConstants {
 
         put("INVENTORY_STOCK", Arrays.asList(
                 "IDX_STOCK_VARIANT", "IDX_STOCK_SUPPLIER", "IDX_STOCK_LOCATION",
-                "IDX_STOCK_SUPPLIED_DATE", "IDX_STOCK_STATUS", "IDX_STOCK_AVAILABLE"
+                "IDX_STOCK_SUPPLIED_DATE", "IDX_STOCK_STATUS", "IDX_STOCK_AVAILABLE",
+                "IDX_STOCK_LAST_UPDATED"
         ));
 
         put("INVENTORY_LOG", Arrays.asList(
@@ -225,6 +246,11 @@ public final class DatabaseTestConstants {
                 "IDX_ALERT_VARIANT", "IDX_ALERT_SUPPLIER", "IDX_ALERT_LOCATION", "IDX_ALERT_CREATED",
                 "IDX_ALERT_ACKNOWLEDGED", "IDX_ALERT_RESOLVED"
         ));
+
+        // Change Events
+        put("OUTBOX", Arrays.asList(
+                "IDX_OUTBOX_AGGREGATE"
+        ));
     }};
 
     /**
@@ -261,7 +287,7 @@ public final class DatabaseTestConstants {
         put("USER_SESSIONS", Arrays.asList(
                 "ID", "CUSTOMER_ID", "REFRESH_TOKEN", "ACCESS_TOKEN_HASH",
                 "EXPIRES_AT", "CREATED_AT", "LAST_ACCESSED_AT",
-                "IP_ADDRESS", "USER_AGENT", "IS_ACTIVE"
+                "IP_ADDRESS", "USER_AGENT", "IS_ACTIVE", "REVOKED_AT"
         ));
 
         // Product Catalog
@@ -301,6 +327,14 @@ public final class DatabaseTestConstants {
                 "CREATED_AT", "UPDATED_AT"
         ));
 
+        put("PRODUCT_AGGREGATE_QUEUE", Arrays.asList(
+                "ID", "PRODUCT_ID", "VARIANT_ID", "QUEUED_AT"
+        ));
+
+        put("SEARCH_INDEX_CHANGES", Arrays.asList(
+                "ID", "PRODUCT_ID", "VARIANT_ID", "BRAND_ID", "TAG_ID", "CHANGED_AT"
+        ));
+
         put("PRODUCT_VARIANTS", Arrays.asList(
                 "ID", "PRODUCT_ID", "NAME", "SKU",
                 "PRICE", "COMPARE_AT_PRICE", "COST_PRICE", "CURRENCY",
@@ -431,6 +465,24 @@ public final class DatabaseTestConstants {
                 "CREATED_AT", "UPDATED_AT", "SHIPPED_AT", "DELIVERED_AT"
         ));
 
+        put("SALES_DAILY", Arrays.asList(
+                "SALES_DATE", "STATUS", "ORDER_COUNT",
+                "REVENUE", "SUBTOTAL", "DISCOUNT_TOTAL", "TAX_TOTAL", "SHIPPING_TOTAL", "ITEM_COST"
+        ));
+
+        put("SALES_DAILY_PRODUCT", Arrays.asList(
+                "SALES_DATE", "PRODUCT_ID", "STATUS",
+                "QUANTITY", "REVENUE", "ITEM_COST", "ORDER_COUNT"
+        ));
+
+        put("SALES_ROLLUP_DAYS", Arrays.asList(
+                "SALES_DATE", "ROLLED_UP_AT"
+        ));
+
+        put("SALES_ROLLUP_QUEUE", Arrays.asList(
+                "ID", "ORDER_ID", "ORDER_CREATED_AT", "QUEUED_AT"
+        ));
+
         // Shopping & Wishlist
         put("SHOPPING_CARTS", Arrays.asList(
                 "ID", "CUSTOMER_ID", "SESSION_ID",
@@ -501,5 +553,15 @@ public final class DatabaseTestConstants {
                 "EXPIRES_AT", "USED_AT", "CREATED_AT",
                 "IP_ADDRESS"
         ));
+
+        // Change Events
+        put("OUTBOX", Arrays.asList(
+                "ID", "EVENT_TYPE", "AGGREGATE_ID", "ENTITY_ID", "CREATED_AT"
+        ));
+
+        // Replication
+        put("REPLICA_HEARTBEAT", Arrays.asList(
+                "NODE", "BEAT_AT"
+        ));
     }};
 }
@@ -1,6 +1,7 @@
 package com.openshop.database;
 
 import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.wait.strategy.Wait;
@@ -11,22 +12,26 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import java.sql.*;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @Testcontainers
 public class MySQLSchemaTest extends AbstractDatabaseSchemaTest {
 
     private static final int DB_PORT = 3306;
+    private static final String ROOT_PASSWORD = "rootpassword";
+
+    // Separate database for the V010 conversion, so the other tests' migrations do not affect it
+    private static final String CONVERSION_SCHEMA = "openshop_v010";
 
     @Container
     static final GenericContainer<?> mysql = new GenericContainer<>(
             "mysql:9.0")
             .withExposedPorts(DB_PORT)
-            .withEnv("MYSQL_ROOT_PASSWORD", "rootpassword")
+            .withEnv("MYSQL_ROOT_PASSWORD", ROOT_PASSWORD)
             .withEnv("MYSQL_DATABASE", SCHEMA_NAME)
             .withEnv("MYSQL_USER", "openshop")
             .withEnv("MYSQL_PASSWORD", "passwordtest")
@@ -64,13 +69,15 @@ public class MySQLSchemaTest extends AbstractDatabaseSchemaTest {
     @Override
     protected String[] getAdditionalExpectedTables() {
         return new String[]{
-                "FLYWAY_SCHEMA_HISTORY"
+                "FLYWAY_SCHEMA_HISTORY",
+                // Sequence emulation, MySQL has no sequences
+                "ORDER_NUMBER_SEQUENCE"
         };
     }
 
     @Override
     protected String getTableNameForQuery(String tableName) {
-        return tableName.toLowerCase();
+        return Dialect.MYSQL.identifier(tableName);
     }
 
     @Test
@@ -86,7 +93,7 @@ public class MySQLSchemaTest extends AbstractDatabaseSchemaTest {
         flyway.migrate();
 
         try (Connection connection = DriverManager.getConnection(getJdbcUrl(), getUsername(), getPassword())) {
-            validateIndexesMySQL(connection);
+            validateIndexes(connection);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to validate index structure", e);
         }
@@ -106,53 +113,116 @@ public class MySQLSchemaTest extends AbstractDatabaseSchemaTest {
         }
     }
 
-    private void validateIndexesMySQL(Connection connection) throws SQLException {
-        DatabaseMetaData metaData = connection.getMetaData();
-
-        for (String tableName : DatabaseTestConstants.EXPECTED_TABLES) {
-            List<String> expectedIndexes = DatabaseTestConstants.EXPECTED_TABLE_INDEXES.get(tableName);
-            if (expectedIndexes == null) {
-                expectedIndexes = new ArrayList<>();
+    @Test
+    void shouldKeepRowsAndForeignKeysThroughTheBinaryKeyConversion() throws SQLException {
+        migrateConversionSchema("9");
+        UUID category = UuidV7.generate();
+        UUID brand = UuidV7.generate();
+        UUID product = UuidV7.generate();
+        UUID variant = UuidV7.generate();
+        UUID customer = UuidV7.generate();
+        UUID cart = UuidV7.generate();
+        List<String> foreignKeys;
+        try (Connection connection = conversionConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO categories (id, name, slug) VALUES ('" + category + "', 'Shoes', 'shoes')");
+            stmt.executeUpdate("INSERT INTO brands (id, name, slug) VALUES ('" + brand + "', 'Acme', 'acme')");
+            stmt.executeUpdate("INSERT INTO products (id, name, slug, category_id, brand_id) VALUES ('"
+                    + product + "', 'Runner', 'runner', '" + category + "', '" + brand + "')");
+            stmt.executeUpdate("INSERT INTO product_variants (id, product_id, name, sku, price) VALUES ('"
+                    + variant + "', '" + product + "', 'Runner 42', 'RUN-42', 89.90)");
+            stmt.executeUpdate("INSERT INTO customers (id, email, password_hash, first_name, last_name) VALUES ('"
+                    + customer + "', 'jo@example.com', 'hash', 'Jo', 'Doe')");
+            stmt.executeUpdate("INSERT INTO shopping_carts (id, customer_id) VALUES ('"
+                    + cart + "', '" + customer + "')");
+            foreignKeys = foreignKeys(connection);
+        }
+        assertThat(foreignKeys).isNotEmpty();
+
+        migrateConversionSchema(null);
+
+        try (Connection connection = conversionConnection();
+             Statement stmt = connection.createStatement()) {
+            // The binary keys still join, and read back as the text keys written before V010
+            try (ResultSet rs = stmt.executeQuery("""
+                    SELECT BIN_TO_UUID(v.id), BIN_TO_UUID(p.id), BIN_TO_UUID(c.id), BIN_TO_UUID(b.id), v.sku
+                    FROM product_variants v
+                    JOIN products p ON p.id = v.product_id
+                    JOIN categories c ON c.id = p.category_id
+                    JOIN brands b ON b.id = p.brand_id""")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).isEqualTo(variant.toString());
+                assertThat(rs.getString(2)).isEqualTo(product.toString());
+                assertThat(rs.getString(3)).isEqualTo(category.toString());
+                assertThat(rs.getString(4)).isEqualTo(brand.toString());
+                assertThat(rs.getString(5)).isEqualTo("RUN-42");
+                assertThat(rs.next()).isFalse();
             }
-
-            // For MySQL, only validate explicit IDX_ prefixed indexes (not implicit constraint indexes)
-            List<String> filteredExpectedIndexes = expectedIndexes.stream()
-                    .filter(idx -> idx.toUpperCase().startsWith("IDX_"))
-                    .toList();
-
-            Set<String> expectedIndexesSet = new HashSet<>();
-            for (String idx : filteredExpectedIndexes) {
-                expectedIndexesSet.add(idx.toUpperCase());
+            try (ResultSet rs = stmt.executeQuery("SELECT BIN_TO_UUID(s.id) FROM shopping_carts s"
+                    + " JOIN customers c ON c.id = s.customer_id WHERE c.id = UUID_TO_BIN('" + customer + "')")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).isEqualTo(cart.toString());
             }
 
-            Set<String> actualIndexes = new HashSet<>();
-
-            try (ResultSet indexes = metaData.getIndexInfo(null, SCHEMA_NAME, getTableNameForQuery(tableName), false, false)) {
-                while (indexes.next()) {
-                    String indexName = indexes.getString("INDEX_NAME");
-                    if (indexName != null && indexName.toUpperCase().startsWith("IDX_")) {
-                        actualIndexes.add(indexName.toUpperCase());
-                    }
-                }
+            assertThat(foreignKeys(connection)).containsAll(foreignKeys);
+            // FOREIGN_KEY_CHECKS is back on: an orphan row is rejected
+            assertThatThrownBy(() -> stmt.executeUpdate(
+                    "INSERT INTO product_variants (id, product_id, name, sku, price) VALUES (UUID_TO_BIN('"
+                    + UuidV7.generate() + "'), UUID_TO_BIN('" + UuidV7.generate() + "'),"
+                    + " 'Orphan', 'ORPHAN-1', 1.00)"))
+                    .isInstanceOf(SQLIntegrityConstraintViolationException.class);
+            // ON DELETE CASCADE still follows the converted keys
+            stmt.executeUpdate("DELETE FROM products WHERE id = UUID_TO_BIN('" + product + "')");
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM product_variants")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getInt(1)).isZero();
             }
+        }
+    }
 
-            // Check that all expected indexes exist
-            for (String expectedIndex : expectedIndexesSet) {
-                assertThat(actualIndexes)
-                        .as("Table '%s' should have index '%s'", tableName, expectedIndex)
-                        .contains(expectedIndex);
-            }
+    /**
+     * Migrates {@link #CONVERSION_SCHEMA} up to {@code target}, or to the latest version if {@code null}.
+     */
+    private void migrateConversionSchema(String target) {
+        FluentConfiguration configuration = Flyway.configure()
+                .dataSource(getRootJdbcUrl(), "root", ROOT_PASSWORD)
+                .locations(getMigrationLocation())
+                .createSchemas(true)
+                .schemas(CONVERSION_SCHEMA);
+        if (target != null) {
+            configuration.target(target);
+        }
+        configuration.load().migrate();
+    }
 
-            // Check that no extra indexes exist (excluding system indexes if any)
-            Set<String> extraIndexes = new HashSet<>(actualIndexes);
-            extraIndexes.removeAll(expectedIndexesSet);
+    private Connection conversionConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(getRootJdbcUrl(), "root", ROOT_PASSWORD);
+        connection.setCatalog(CONVERSION_SCHEMA);
+        return connection;
+    }
 
-            // Filter out system-generated indexes that might not be in our expectations
-            extraIndexes.removeIf(idx -> idx.startsWith("SYS_") || idx.contains("AUTO_"));
+    private String getRootJdbcUrl() {
+        return "jdbc:mysql://localhost:" + mysql.getMappedPort(DB_PORT) + "/" +
+               "?allowPublicKeyRetrieval=true&useSSL=false";
+    }
 
-            assertThat(extraIndexes)
-                    .as("Table '%s' should not have extra indexes. Found: %s", tableName, extraIndexes)
-                    .isEmpty();
+    /**
+     * Returns {@code table.constraint -> referenced table(column)} for every foreign key column.
+     */
+    private static List<String> foreignKeys(Connection connection) throws SQLException {
+        List<String> foreignKeys = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement("""
+                SELECT TABLE_NAME, CONSTRAINT_NAME, COLUMN_NAME, REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME
+                FROM information_schema.KEY_COLUMN_USAGE
+                WHERE TABLE_SCHEMA = ? AND REFERENCED_TABLE_NAME IS NOT NULL""")) {
+            stmt.setString(1, CONVERSION_SCHEMA);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    foreignKeys.add(rs.getString(1) + "." + rs.getString(2) + "(" + rs.getString(3) + ") -> "
+                            + rs.getString(4) + "(" + rs.getString(5) + ")");
+                }
+            }
         }
+        return foreignKeys;
     }
 }
@@ -10,10 +10,8 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.sql.*;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -62,9 +60,16 @@ public class OracleSchemaTest extends AbstractDatabaseSchemaTest {
         };
     }
 
+    @Override
+    protected Map<String, List<String>> getAdditionalExpectedColumns() {
+        return Map.of(
+                "INVENTORY_LOG", List.of("CREATED_AT_UTC"),
+                "AUDIT_LOG", List.of("CHANGED_AT_UTC"));
+    }
+
     @Override
     protected String getTableNameForQuery(String tableName) {
-        return tableName.toUpperCase();
+        return Dialect.ORACLE.identifier(tableName);
     }
 
     @Test
@@ -80,7 +85,7 @@ public class OracleSchemaTest extends AbstractDatabaseSchemaTest {
         flyway.migrate();
 
         try (Connection connection = DriverManager.getConnection(getJdbcUrl(), getUsername(), getPassword())) {
-            validateIndexesOracle(connection);
+            validateIndexes(connection);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to validate index structure", e);
         }
@@ -101,54 +106,4 @@ public class OracleSchemaTest extends AbstractDatabaseSchemaTest {
             }
         }
     }
-
-    private void validateIndexesOracle(Connection connection) throws SQLException {
-        for (String tableName : DatabaseTestConstants.EXPECTED_TABLES) {
-            List<String> expectedIndexes = DatabaseTestConstants.EXPECTED_TABLE_INDEXES.get(tableName);
-            if (expectedIndexes == null) {
-                continue; // Skip if no expected indexes defined
-            }
-
-            Set<String> expectedIndexesSet = new HashSet<>();
-            for (String idx : expectedIndexes) {
-                expectedIndexesSet.add(idx.toUpperCase());
-            }
-
-            Set<String> actualIndexes = new HashSet<>();
-
-            // For Oracle, use direct query to avoid privilege issues with getIndexInfo
-            try (PreparedStatement stmt = connection.prepareStatement(
-                    "SELECT INDEX_NAME FROM ALL_INDEXES WHERE OWNER = ? AND TABLE_NAME = ?")) {
-                stmt.setString(1, SCHEMA_NAME);
-                stmt.setString(2, getTableNameForQuery(tableName));
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        String indexName = rs.getString("INDEX_NAME");
-                        if (indexName != null && indexName.toUpperCase().startsWith("IDX_")) {
-                            actualIndexes.add(indexName.toUpperCase());
-                        }
-                    }
-                }
-            }
-
-            // Check that all expected indexes exist
-            for (String expectedIndex : expectedIndexesSet) {
-                assertThat(actualIndexes)
-                        .as("Table '%s' should have index '%s'", tableName, expectedIndex)
-                        .contains(expectedIndex);
-            }
-
-            // Check that no extra indexes exist (excluding system indexes if any)
-            Set<String> extraIndexes = new HashSet<>(actualIndexes);
-            extraIndexes.removeAll(expectedIndexesSet);
-
-            // Filter out system-generated indexes that might not be in our expectations
-            // Oracle generates SYS_C* for constraints, SYS_* for internal indexes
-            extraIndexes.removeIf(idx -> idx.startsWith("SYS_"));
-
-            assertThat(extraIndexes)
-                    .as("Table '%s' should not have extra indexes. Found: %s", tableName, extraIndexes)
-                    .isEmpty();
-        }
-    }
 }
@@ -0,0 +1,104 @@
+package com.openshop.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests rounds, failure reporting and shutdown of the shared background thread.
+ */
+class PollerTest {
+
+    private static final Duration LONG_WAIT = Duration.ofMinutes(1);
+
+    @Test
+    void shouldCountFailedRoundsAndRetryThem() throws Exception {
+        AtomicInteger rounds = new AtomicInteger();
+        List<Level> logged = new CopyOnWriteArrayList<>();
+        Logger logger = Logger.getLogger(Poller.class.getName());
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                logged.add(record.getLevel());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        logger.addHandler(handler);
+        try (Poller poller = Poller.every("test-poller", Duration.ofMillis(5), () -> {
+            if (rounds.incrementAndGet() <= 3) {
+                throw new SQLException("Connection refused " + rounds.get());
+            }
+        })) {
+            await(() -> rounds.get() >= 5);
+
+            assertThat(poller.name()).isEqualTo("test-poller");
+            assertThat(poller.failures()).isEqualTo(3);
+            assertThat(poller.lastFailure()).hasMessage("Connection refused 3");
+        } finally {
+            logger.removeHandler(handler);
+        }
+        // One warning for the streak, the repeats below INFO, and one line for the recovery
+        assertThat(logged).containsExactly(Level.WARNING, Level.INFO);
+    }
+
+    @Test
+    void shouldRunTheNextRoundWhenWoken() throws Exception {
+        AtomicInteger rounds = new AtomicInteger();
+        try (Poller poller = Poller.start("test-poller", () -> {
+            rounds.incrementAndGet();
+            return LONG_WAIT.toNanos();
+        }, LONG_WAIT, null)) {
+            await(() -> rounds.get() == 1);
+
+            poller.wake();
+
+            await(() -> rounds.get() == 2);
+            assertThat(poller.failures()).isZero();
+            assertThat(poller.lastFailure()).isNull();
+        }
+    }
+
+    @Test
+    void shouldRunTheLastTaskOnceWhenClosed() throws Exception {
+        AtomicInteger rounds = new AtomicInteger();
+        AtomicInteger last = new AtomicInteger();
+        Poller poller = Poller.start("test-poller", () -> {
+            rounds.incrementAndGet();
+            return LONG_WAIT.toNanos();
+        }, LONG_WAIT, last::incrementAndGet);
+        await(() -> rounds.get() == 1);
+
+        long started = System.nanoTime();
+        poller.close();
+        poller.close();
+
+        assertThat(last.get()).isEqualTo(1);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(LONG_WAIT);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
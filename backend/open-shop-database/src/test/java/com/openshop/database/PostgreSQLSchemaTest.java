@@ -9,10 +9,6 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.sql.*;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -66,7 +62,7 @@ public class PostgreSQLSchemaTest extends AbstractDatabaseSchemaTest {
 
     @Override
     protected String getTableNameForQuery(String tableName) {
-        return tableName.toLowerCase();
+        return Dialect.POSTGRESQL.identifier(tableName);
     }
 
     @Test
@@ -82,7 +78,7 @@ public class PostgreSQLSchemaTest extends AbstractDatabaseSchemaTest {
         flyway.migrate();
 
         try (Connection connection = DriverManager.getConnection(getJdbcUrl(), getUsername(), getPassword())) {
-            validateIndexesPostgreSQL(connection);
+            validateIndexes(connection);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to validate index structure", e);
         }
@@ -103,50 +99,4 @@ public class PostgreSQLSchemaTest extends AbstractDatabaseSchemaTest {
             }
         }
     }
-
-    private void validateIndexesPostgreSQL(Connection connection) throws SQLException {
-        for (String tableName : DatabaseTestConstants.EXPECTED_TABLES) {
-            List<String> expectedIndexes = DatabaseTestConstants.EXPECTED_TABLE_INDEXES.get(tableName);
-            if (expectedIndexes == null) {
-                continue; // Skip if no expected indexes defined
-            }
-
-            Set<String> expectedIndexesSet = new HashSet<>();
-            for (String idx : expectedIndexes) {
-                expectedIndexesSet.add(idx.toUpperCase());
-            }
-
-            Set<String> actualIndexes = new HashSet<>();
-
-            // For PostgreSQL, use direct query to avoid privilege issues
-            try (PreparedStatement stmt = connection.prepareStatement(
-                    "SELECT indexname FROM pg_indexes WHERE schemaname = ? AND tablename = ?")) {
-                stmt.setString(1, SCHEMA_NAME);
-                stmt.setString(2, getTableNameForQuery(tableName));
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        String indexName = rs.getString("indexname");
-                        if (indexName != null && indexName.toUpperCase().startsWith("IDX_")) {
-                            actualIndexes.add(indexName.toUpperCase());
-                        }
-                    }
-                }
-            }
-
-            // Check that all expected indexes exist
-            for (String expectedIndex : expectedIndexesSet) {
-                assertThat(actualIndexes)
-                        .as("Table '%s' should have index '%s'", tableName, expectedIndex)
-                        .contains(expectedIndex);
-            }
-
-            // Check that no extra indexes exist (excluding system indexes if any)
-            Set<String> extraIndexes = new HashSet<>(actualIndexes);
-            extraIndexes.removeAll(expectedIndexesSet);
-
-            assertThat(extraIndexes)
-                    .as("Table '%s' should not have extra indexes. Found: %s", tableName, extraIndexes)
-                    .isEmpty();
-        }
-    }
 }
@@ -0,0 +1,80 @@
+package com.openshop.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests layout, ordering and uniqueness of generated version 7 UUIDs.
+ */
+class UuidV7Test {
+
+    private static final Instant NOW = Instant.parse("2025-01-15T10:15:30.123Z");
+
+    /**
+     * Byte order of BINARY(16), RAW(16) and PostgreSQL uuid; {@link UUID#compareTo} compares signed longs.
+     */
+    private static final Comparator<UUID> BYTE_ORDER =
+            (a, b) -> Arrays.compareUnsigned(Dialect.toBytes(a), Dialect.toBytes(b));
+
+    @Test
+    void shouldEncodeVersionVariantAndTimestamp() {
+        UUID id = new UuidV7(Clock.fixed(NOW, ZoneOffset.UTC)).next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(UuidV7.timestamp(id)).isEqualTo(NOW);
+        assertThat(id.toString()).startsWith("01946976-064b-7");
+    }
+
+    @Test
+    void shouldIncreaseWithinTheSameMillisecond() {
+        UuidV7 generator = new UuidV7(Clock.fixed(NOW, ZoneOffset.UTC));
+        List<UUID> ids = new ArrayList<>();
+        // More than the 4096 values of the counter, so the timestamp has to run ahead
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.next());
+        }
+
+        assertThat(ids).isSortedAccordingTo(BYTE_ORDER);
+        assertThat(new HashSet<>(ids)).hasSize(ids.size());
+        assertThat(UuidV7.timestamp(ids.getLast())).isAfter(NOW);
+    }
+
+    @Test
+    void shouldStayUniqueAcrossThreads() throws Exception {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(UuidV7.generate());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(ids).hasSize(80_000);
+    }
+
+    @Test
+    void shouldRejectOtherVersions() {
+        assertThatThrownBy(() -> UuidV7.timestamp(UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
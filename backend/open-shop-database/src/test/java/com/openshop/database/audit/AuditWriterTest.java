@@ -0,0 +1,216 @@
+package com.openshop.database.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests batching, backpressure and shutdown of the audit writer against an in-memory store.
+ */
+class AuditWriterTest {
+
+    private static final Duration LONG = Duration.ofSeconds(10);
+
+    @Test
+    void shouldWriteInBatchesInAppendOrder() throws Exception {
+        FakeStore store = new FakeStore();
+
+        // The ring of 8 wraps around many times
+        try (AuditWriter writer = new AuditWriter(store, 8, 4, Duration.ofMillis(5), LONG)) {
+            for (int i = 0; i < 100; i++) {
+                writer.append(record(i));
+            }
+            writer.flush();
+            assertThat(writer.backlog()).isZero();
+        }
+
+        assertThat(store.written()).extracting(AuditRecord::recordId)
+                .containsExactlyElementsOf(ids(100));
+        assertThat(store.batches).allSatisfy(size -> assertThat(size).isBetween(1, 4));
+    }
+
+    @Test
+    void shouldHoldBackAppendsWhileTheRingIsFull() throws Exception {
+        FakeStore store = new FakeStore();
+        store.gate = new CountDownLatch(1);
+
+        try (AuditWriter writer = new AuditWriter(store, 4, 4, Duration.ofMillis(1), LONG)) {
+            // The writer takes the first record and waits at the gate; four more fill the ring
+            writer.append(record(0));
+            while (store.waiting.getCount() > 0) {
+                Thread.onSpinWait();
+            }
+            for (int i = 1; i <= 4; i++) {
+                assertThat(writer.tryAppend(record(i))).isTrue();
+            }
+            assertThat(writer.tryAppend(record(99))).isFalse();
+
+            CountDownLatch appended = new CountDownLatch(1);
+            Thread producer = new Thread(() -> {
+                try {
+                    writer.append(record(5));
+                    appended.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            producer.start();
+            assertThat(appended.await(50, TimeUnit.MILLISECONDS)).isFalse();
+
+            store.gate.countDown();
+            assertThat(appended.await(10, TimeUnit.SECONDS)).isTrue();
+            producer.join();
+        }
+
+        assertThat(store.written()).extracting(AuditRecord::recordId).containsExactlyElementsOf(ids(6));
+    }
+
+    @Test
+    void shouldWriteTheBacklogOnClose() throws Exception {
+        FakeStore store = new FakeStore();
+        AuditWriter writer = new AuditWriter(store, 1_024, 100, Duration.ofHours(1), LONG);
+        for (int i = 0; i < 250; i++) {
+            writer.append(record(i));
+        }
+
+        writer.close();
+
+        assertThat(store.written()).hasSize(250);
+        assertThatThrownBy(() -> writer.append(record(250))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldRetryTransientFailures() throws Exception {
+        FakeStore store = new FakeStore();
+        store.failures = Integer.MAX_VALUE;
+
+        try (AuditWriter writer = new AuditWriter(store, 16, 10, Duration.ofMillis(1), LONG)) {
+            for (int i = 0; i < 5; i++) {
+                writer.append(record(i));
+            }
+            // A flush reports the first failure; the records stay queued
+            assertThatThrownBy(writer::flush).isInstanceOf(SQLException.class);
+            assertThat(writer.failures()).isPositive();
+            assertThat(writer.lastFailure()).isInstanceOf(SQLException.class);
+            store.failures = 0;
+            while (writer.backlog() > 0) {
+                Thread.sleep(1);
+            }
+        }
+
+        assertThat(store.written()).extracting(AuditRecord::recordId).containsExactlyElementsOf(ids(5));
+    }
+
+    @Test
+    void shouldRejectOnlyInvalidRecords() throws Exception {
+        FakeStore store = new FakeStore();
+        store.invalidId = "2";
+
+        try (AuditWriter writer = new AuditWriter(store, 16, 10, Duration.ofMillis(1), LONG)) {
+            for (int i = 0; i < 5; i++) {
+                writer.append(record(i));
+            }
+            writer.flush();
+            assertThat(writer.rejected()).isEqualTo(1);
+        }
+
+        assertThat(store.written()).extracting(AuditRecord::recordId).containsExactly("0", "1", "3", "4");
+    }
+
+    @Test
+    void shouldRetryUncheckedStoreFailures() throws Exception {
+        FakeStore store = new FakeStore();
+        store.uncheckedFailures = 3;
+
+        try (AuditWriter writer = new AuditWriter(store, 16, 10, Duration.ofMillis(1), LONG)) {
+            for (int i = 0; i < 5; i++) {
+                writer.append(record(i));
+            }
+            while (writer.backlog() > 0) {
+                Thread.sleep(1);
+            }
+            assertThat(writer.rejected()).isZero();
+            assertThat(writer.failures()).isEqualTo(3);
+        }
+
+        assertThat(store.written()).extracting(AuditRecord::recordId).containsExactlyElementsOf(ids(5));
+    }
+
+    @Test
+    void shouldGiveUpOnCloseAfterTheShutdownTimeout() throws Exception {
+        FakeStore store = new FakeStore();
+        store.failures = Integer.MAX_VALUE;
+        AuditWriter writer = new AuditWriter(store, 16, 10, Duration.ofMillis(1), Duration.ofMillis(50));
+        writer.append(record(0));
+
+        assertThatThrownBy(writer::close).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("1 audit records");
+    }
+
+    private static AuditRecord record(int id) {
+        return AuditRecord.of("products", AuditOperation.UPDATE, String.valueOf(id),
+                Map.of("price", 10), Map.of("price", 12), "admin");
+    }
+
+    private static List<String> ids(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(String.valueOf(i));
+        }
+        return ids;
+    }
+
+    private static final class FakeStore implements AuditStore {
+
+        private final List<AuditRecord> written = new ArrayList<>();
+        final List<Integer> batches = new ArrayList<>();
+        final CountDownLatch waiting = new CountDownLatch(1);
+        volatile CountDownLatch gate;
+        volatile int failures;
+        volatile int uncheckedFailures;
+        volatile String invalidId;
+
+        @Override
+        public void insert(List<AuditRecord> records) throws SQLException {
+            CountDownLatch gate = this.gate;
+            if (gate != null) {
+                waiting.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+            }
+            if (failures > 0) {
+                failures--;
+                throw new SQLException("Connection refused", "08001");
+            }
+            if (uncheckedFailures > 0) {
+                uncheckedFailures--;
+                throw new IllegalStateException("Pool is closed");
+            }
+            for (AuditRecord record : records) {
+                if (record.recordId().equals(invalidId)) {
+                    throw new SQLException("invalid input syntax for type inet", "22P02");
+                }
+            }
+            synchronized (this) {
+                written.addAll(records);
+                batches.add(records.size());
+            }
+        }
+
+        synchronized List<AuditRecord> written() {
+            return new ArrayList<>(written);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.openshop.database.callback;
+
+import com.openshop.database.callback.MigrationReport.MigrationTiming;
+import com.openshop.database.callback.MigrationReport.StatementTiming;
+import com.openshop.database.callback.MigrationReport.Threshold;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the JSON round trip and the regression comparison of migration timing reports.
+ */
+class MigrationReportTest {
+
+    private static final Threshold THRESHOLD = new Threshold(1.25, 100);
+
+    @Test
+    void shouldRoundTripThroughJson() {
+        MigrationReport report = report(1_000, 400, "CREATE INDEX idx_stock_variant ON inventory_stock (variant_id)");
+
+        MigrationReport parsed = MigrationReport.fromJson(report.toJson());
+
+        assertThat(parsed).isEqualTo(report);
+    }
+
+    @Test
+    void shouldFlagMigrationsAndStatementsSlowerThanPreviousRun() {
+        String sql = "CREATE INDEX idx_order_customer ON orders (customer_id)";
+        MigrationReport previous = report(1_000, 400, sql);
+        MigrationReport current = report(2_000, 1_400, sql).comparedWith(previous, THRESHOLD);
+
+        MigrationTiming migration = current.migrations().get(0);
+        assertThat(migration.regression()).isTrue();
+        assertThat(migration.previousDurationMillis()).isEqualTo(1_000);
+        assertThat(migration.statements().get(0).regression()).isTrue();
+        assertThat(current.regressions()).hasSize(2);
+    }
+
+    @Test
+    void shouldIgnoreSmallSlowdownsAndChangedStatements() {
+        MigrationReport previous = report(1_000, 40, "CREATE INDEX idx_a ON orders (status)");
+        MigrationReport current = report(1_050, 90, "CREATE INDEX idx_b ON orders (status)").comparedWith(previous, THRESHOLD);
+
+        assertThat(current.migrations().get(0).regression()).isFalse();
+        assertThat(current.migrations().get(0).statements().get(0).previousDurationMillis()).isNull();
+        assertThat(current.regressions()).isEmpty();
+    }
+
+    private static MigrationReport report(double migrationMillis, double statementMillis, String sql) {
+        StatementTiming statement = new StatementTiming(1, sql, true, statementMillis, 0L, 12.5,
+                List.of("orders:ShareLock"), null, false);
+        MigrationTiming migration = new MigrationTiming("7", "order management", "V007__order_management.sql",
+                true, migrationMillis, 0L, 12.5, null, false, List.of(statement));
+        return new MigrationReport("2025-01-01T00:00:00Z", "PostgreSQL 15.4", true, List.of(migration));
+    }
+}
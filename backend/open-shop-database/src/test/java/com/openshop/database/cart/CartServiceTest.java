@@ -0,0 +1,246 @@
+package com.openshop.database.cart;
+
+import com.openshop.database.cart.CartStore.CartState;
+import com.openshop.database.cart.CartStore.CartWrite;
+import com.openshop.database.cart.CartStore.Line;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests totals and write coalescing against an in-memory cart store.
+ */
+class CartServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-15T10:15:30Z"), ZoneOffset.UTC);
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    private final UUID cartId = UUID.randomUUID();
+    private final CartItem shirt = item("19.99");
+    private final CartItem mug = item("8.50");
+    private final CartItem socks = item("4.00");
+
+    @Test
+    void shouldComputeTotalsWithLineDiscountsAndCoupon() throws Exception {
+        FakeStore store = new FakeStore();
+        // 2 x 19.99 with 10% off the line, tax 8%, shipping 5.00
+        store.carts.put(cartId, new CartState(cartId, null, new BigDecimal("0.0800"), new BigDecimal("5.00"),
+                List.of(new Line(UUID.randomUUID(), shirt, 2, new BigDecimal("10"), DiscountType.PERCENTAGE))));
+
+        try (CartService service = new CartService(store, NEVER, CLOCK)) {
+            CartTotals totals = service.add(cartId, mug, 1);
+            assertThat(totals.itemCount()).isEqualTo(3);
+            assertThat(totals.subtotal()).isEqualByComparingTo("48.48");
+            assertThat(totals.discountTotal()).isEqualByComparingTo("4.00");
+            assertThat(totals.taxEstimate()).isEqualByComparingTo("3.56");
+            assertThat(totals.totalEstimate()).isEqualByComparingTo("53.04");
+
+            totals = service.applyCoupon(cartId, new CartCoupon("SAVE5", new BigDecimal("5.00"), DiscountType.FIXED));
+            assertThat(totals.discountTotal()).isEqualByComparingTo("9.00");
+            assertThat(totals.taxEstimate()).isEqualByComparingTo("3.16");
+            assertThat(totals.totalEstimate()).isEqualByComparingTo("47.64");
+
+            // A coupon worth more than the cart takes it to zero, not below
+            totals = service.applyCoupon(cartId, new CartCoupon("FREE", new BigDecimal("500"), DiscountType.FIXED));
+            assertThat(totals.totalEstimate()).isEqualByComparingTo("5.00");
+        }
+    }
+
+    @Test
+    void shouldWriteTheNetChangeOfAllEditsOnce() throws Exception {
+        FakeStore store = new FakeStore();
+        Line kept = new Line(UUID.randomUUID(), shirt, 1, BigDecimal.ZERO, DiscountType.FIXED);
+        Line dropped = new Line(UUID.randomUUID(), mug, 1, BigDecimal.ZERO, DiscountType.FIXED);
+        store.carts.put(cartId, new CartState(cartId, null, BigDecimal.ZERO, BigDecimal.ZERO, List.of(kept, dropped)));
+
+        try (CartService service = new CartService(store, NEVER, CLOCK)) {
+            for (int quantity = 2; quantity <= 6; quantity++) {
+                service.setQuantity(cartId, shirt.variantId(), quantity);
+            }
+            service.remove(cartId, mug.variantId());
+            service.add(cartId, socks, 1);
+            service.add(cartId, socks, 2);
+            UUID fleeting = UUID.randomUUID();
+            service.add(cartId, item(fleeting, "1.00"), 1);
+            service.remove(cartId, fleeting);
+
+            service.flush(cartId);
+        }
+
+        assertThat(store.writes).hasSize(1);
+        CartWrite write = store.writes.getFirst();
+        assertThat(write.updates()).singleElement().satisfies(line -> {
+            assertThat(line.id()).isEqualTo(kept.id());
+            assertThat(line.quantity()).isEqualTo(6);
+        });
+        assertThat(write.deletes()).containsExactly(dropped.id());
+        assertThat(write.inserts()).singleElement().satisfies(line -> {
+            assertThat(line.item()).isEqualTo(socks);
+            assertThat(line.quantity()).isEqualTo(3);
+        });
+        assertThat(write.totals().itemCount()).isEqualTo(9);
+        assertThat(write.lastActivity()).isEqualTo(CLOCK.instant());
+    }
+
+    @Test
+    void shouldKeepTheRowOfAVariantRemovedAndAddedAgain() throws Exception {
+        FakeStore store = new FakeStore();
+        Line line = new Line(UUID.randomUUID(), shirt, 1, BigDecimal.ZERO, DiscountType.FIXED);
+        store.carts.put(cartId, new CartState(cartId, null, BigDecimal.ZERO, BigDecimal.ZERO, List.of(line)));
+
+        try (CartService service = new CartService(store, NEVER, CLOCK)) {
+            service.remove(cartId, shirt.variantId());
+            service.add(cartId, shirt, 2);
+            service.flush(cartId);
+        }
+
+        CartWrite write = store.writes.getFirst();
+        assertThat(write.inserts()).isEmpty();
+        assertThat(write.deletes()).isEmpty();
+        assertThat(write.updates()).extracting(Line::id).containsExactly(line.id());
+    }
+
+    @Test
+    void shouldRewriteTheRowOfAVariantAddedAgainAtANewPrice() throws Exception {
+        FakeStore store = new FakeStore();
+        Line line = new Line(UUID.randomUUID(), shirt, 1, new BigDecimal("10"), DiscountType.PERCENTAGE);
+        store.carts.put(cartId, new CartState(cartId, null, BigDecimal.ZERO, BigDecimal.ZERO, List.of(line)));
+        CartItem repriced = new CartItem(shirt.productId(), shirt.variantId(), new BigDecimal("24.99"),
+                shirt.productName(), shirt.productSlug(), shirt.variantName(), shirt.variantSku());
+
+        try (CartService service = new CartService(store, NEVER, CLOCK)) {
+            service.remove(cartId, shirt.variantId());
+            // Same quantity as before: only the price and the discount differ
+            service.add(cartId, repriced, 1);
+            service.flush(cartId);
+        }
+
+        CartWrite write = store.writes.getFirst();
+        assertThat(write.inserts()).isEmpty();
+        assertThat(write.deletes()).isEmpty();
+        assertThat(write.updates()).singleElement().satisfies(updated -> {
+            assertThat(updated.id()).isEqualTo(line.id());
+            assertThat(updated.item().unitPrice()).isEqualByComparingTo("24.99");
+            assertThat(updated.discountAmount()).isEqualByComparingTo("0");
+            assertThat(updated.discountType()).isEqualTo(DiscountType.FIXED);
+        });
+        assertThat(write.totals().subtotal()).isEqualByComparingTo("24.99");
+    }
+
+    @Test
+    void shouldWriteOnceTheWindowHasPassed() throws Exception {
+        FakeStore store = new FakeStore();
+        store.carts.put(cartId, new CartState(cartId, null, BigDecimal.ZERO, BigDecimal.ZERO, List.of()));
+
+        try (CartService service = new CartService(store, Duration.ofMillis(50), CLOCK)) {
+            for (int i = 0; i < 10; i++) {
+                service.add(cartId, shirt, 1);
+            }
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (store.writes.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(store.writes).hasSize(1);
+            assertThat(store.writes.getFirst().inserts()).singleElement()
+                    .extracting(Line::quantity).isEqualTo(10);
+        }
+        // Nothing left for the final flush on close
+        assertThat(store.writes).hasSize(1);
+    }
+
+    @Test
+    void shouldRewriteTheSameChangeAfterAFailedWrite() throws Exception {
+        FakeStore store = new FakeStore();
+        store.carts.put(cartId, new CartState(cartId, null, BigDecimal.ZERO, BigDecimal.ZERO, List.of()));
+
+        try (CartService service = new CartService(store, NEVER, CLOCK)) {
+            service.add(cartId, shirt, 1);
+            store.failWrites = true;
+            assertThatThrownBy(() -> service.flush(cartId)).isInstanceOf(SQLException.class);
+
+            store.failWrites = false;
+            service.add(cartId, shirt, 1);
+            service.flush(cartId);
+        }
+
+        assertThat(store.writes).hasSize(1);
+        assertThat(store.writes.getFirst().inserts()).singleElement().extracting(Line::quantity).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReportAndRetryFailedBackgroundWrites() throws Exception {
+        FakeStore store = new FakeStore();
+        store.carts.put(cartId, new CartState(cartId, null, BigDecimal.ZERO, BigDecimal.ZERO, List.of()));
+        store.failWrites = true;
+
+        try (CartService service = new CartService(store, Duration.ofMillis(20), CLOCK)) {
+            service.add(cartId, shirt, 1);
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (service.flusher().failures() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(service.flusher().lastFailure()).isInstanceOf(SQLException.class);
+
+            store.failWrites = false;
+            while (store.writes.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(store.writes).hasSize(1);
+        }
+    }
+
+    @Test
+    void shouldWritePendingEditsOnClose() throws Exception {
+        FakeStore store = new FakeStore();
+        store.carts.put(cartId, new CartState(cartId, null, BigDecimal.ZERO, BigDecimal.ZERO, List.of()));
+
+        CartService service = new CartService(store, NEVER, CLOCK);
+        service.add(cartId, shirt, 1);
+        service.close();
+
+        assertThat(store.writes).hasSize(1);
+        assertThatThrownBy(() -> service.totals(cartId)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static CartItem item(String price) {
+        return item(UUID.randomUUID(), price);
+    }
+
+    private static CartItem item(UUID variantId, String price) {
+        return new CartItem(UUID.randomUUID(), variantId, new BigDecimal(price),
+                "Product", "product", "Variant", "SKU-" + variantId);
+    }
+
+    private static final class FakeStore implements CartStore {
+
+        final Map<UUID, CartState> carts = new ConcurrentHashMap<>();
+        final List<CartWrite> writes = new CopyOnWriteArrayList<>();
+        volatile boolean failWrites;
+
+        @Override
+        public CartState load(UUID cartId) {
+            return carts.get(cartId);
+        }
+
+        @Override
+        public synchronized void write(List<CartWrite> batch) throws SQLException {
+            if (failWrites) {
+                throw new SQLException("Connection reset");
+            }
+            writes.addAll(batch);
+        }
+    }
+}
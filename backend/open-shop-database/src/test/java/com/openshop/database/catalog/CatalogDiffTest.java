@@ -0,0 +1,92 @@
+package com.openshop.database.catalog;
+
+import com.openshop.database.catalog.CatalogDiff.Difference;
+import com.openshop.database.catalog.CatalogDiff.Kind;
+import com.openshop.database.catalog.CatalogDiff.Scope;
+import com.openshop.database.catalog.CatalogSnapshot.ConstraintType;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests snapshot assembly and the comparison of expected and actual catalogs.
+ */
+class CatalogDiffTest {
+
+    @Test
+    void shouldAssembleRowsInAnyOrder() {
+        CatalogSnapshot snapshot = CatalogSnapshot.builder("openshop")
+                .indexColumn("orders", "idx_order_customer", false, "created_at", 2)
+                .column("orders", "id", 1, "uuid", false)
+                .indexColumn("orders", "idx_order_customer", false, "customer_id", 1)
+                .constraintColumn("orders", "fk_order_customer", ConstraintType.FOREIGN_KEY, "customer_id", 1, "customers")
+                .table("orders")
+                .build();
+
+        CatalogSnapshot.Table orders = snapshot.table("ORDERS");
+        assertThat(orders.index("IDX_ORDER_CUSTOMER").columns()).containsExactly("CUSTOMER_ID", "CREATED_AT");
+        assertThat(orders.constraint("fk_order_customer").referencedTable()).isEqualTo("CUSTOMERS");
+        assertThat(orders.column("id").nullable()).isFalse();
+    }
+
+    @Test
+    void shouldReportMissingAndExtraObjects() {
+        CatalogSnapshot expected = CatalogSnapshot.builder("openshop")
+                .column("PRODUCTS", "ID").column("PRODUCTS", "NAME")
+                .index("PRODUCTS", "IDX_PRODUCT_CATEGORY")
+                .table("BRANDS")
+                .build();
+        CatalogSnapshot actual = CatalogSnapshot.builder("openshop")
+                .column("products", "id", 1, "uuid", false)
+                .column("products", "sku", 2, "varchar(100)", false)
+                .indexColumn("products", "idx_product_sku", false, "sku", 1)
+                .table("flyway_schema_history")
+                .build();
+
+        List<Difference> differences = CatalogDiff.compare(expected, actual,
+                EnumSet.of(Scope.TABLES, Scope.COLUMNS, Scope.INDEXES));
+
+        assertThat(differences).extracting(Difference::kind).containsExactlyInAnyOrder(
+                Kind.MISSING_TABLE, Kind.EXTRA_TABLE,
+                Kind.MISSING_COLUMN, Kind.EXTRA_COLUMN,
+                Kind.MISSING_INDEX, Kind.EXTRA_INDEX);
+        assertThat(differences).extracting(Difference::toString).contains("MISSING_COLUMN PRODUCTS.NAME");
+    }
+
+    @Test
+    void shouldCompareDefinitionsOnlyWhereTheExpectedModelHasThem() {
+        CatalogSnapshot expected = CatalogSnapshot.builder("openshop")
+                .column("ORDERS", "ID", 1, "uuid", false)
+                .column("ORDERS", "STATUS")
+                .indexColumn("ORDERS", "IDX_ORDER_STATUS", false, "STATUS", 1)
+                .table("AUDIT_LOG")
+                .build();
+        CatalogSnapshot actual = CatalogSnapshot.builder("openshop")
+                .column("orders", "id", 1, "uuid", true)
+                .column("orders", "status", 2, "order_status", false)
+                .indexColumn("orders", "idx_order_status", false, "status", 1)
+                .indexColumn("orders", "idx_order_status", false, "created_at", 2)
+                .column("audit_log", "id", 1, "uuid", false)
+                .build();
+
+        List<Difference> differences = CatalogDiff.compare(expected, actual);
+
+        assertThat(differences).extracting(Difference::kind)
+                .containsExactlyInAnyOrder(Kind.CHANGED_COLUMN, Kind.CHANGED_INDEX);
+        assertThat(CatalogDiff.compare(actual, actual)).isEmpty();
+    }
+
+    @Test
+    void shouldFilterIndexesByName() {
+        CatalogSnapshot snapshot = CatalogSnapshot.builder("openshop")
+                .indexColumn("orders", "orders_pkey", true, "id", 1)
+                .indexColumn("orders", "idx_order_customer", false, "customer_id", 1)
+                .build()
+                .withIndexes(index -> index.name().startsWith("IDX_"));
+
+        assertThat(snapshot.table("orders").indexes()).containsOnlyKeys("IDX_ORDER_CUSTOMER");
+    }
+}
@@ -0,0 +1,191 @@
+package com.openshop.database.category;
+
+import com.openshop.database.category.CategorySource.PathUpdate;
+import com.openshop.database.category.CategorySource.Row;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests tree lookups, incremental refresh and path maintenance against an in-memory table.
+ */
+class CategoryTreeTest {
+
+    @Test
+    void shouldAnswerSubtreesAncestorsAndBreadcrumbs() throws Exception {
+        FakeSource source = catalog();
+        CategoryTree tree = new CategoryTree(source, false);
+        tree.rebuild();
+
+        assertThat(names(tree.roots())).containsExactly("Clothing", "Home");
+        assertThat(names(tree.children(source.id("Clothing")))).containsExactly("Shirts", "Jackets");
+        assertThat(names(tree.subtree(source.id("Clothing"))))
+                .containsExactly("Clothing", "Shirts", "Oxford", "Polo", "Jackets");
+        assertThat(tree.subtreeIds(source.id("Shirts")))
+                .containsExactly(source.id("Shirts"), source.id("Oxford"), source.id("Polo"));
+        assertThat(tree.descendantIds(source.id("Shirts"))).containsExactly(source.id("Oxford"), source.id("Polo"));
+        assertThat(names(tree.ancestors(source.id("Polo")))).containsExactly("Shirts", "Clothing");
+        assertThat(names(tree.breadcrumb(source.id("Polo")))).containsExactly("Clothing", "Shirts", "Polo");
+        assertThat(tree.category(source.id("Polo")).orElseThrow().depth()).isEqualTo(2);
+        assertThat(tree.isWithin(source.id("Polo"), source.id("Clothing"))).isTrue();
+        assertThat(tree.isWithin(source.id("Polo"), source.id("Jackets"))).isFalse();
+        assertThat(tree.isWithin(source.id("Home"), source.id("Clothing"))).isFalse();
+        assertThat(tree.subtreeIds(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void shouldApplyChangedCategories() throws Exception {
+        FakeSource source = catalog();
+        CategoryTree tree = new CategoryTree(source, false);
+        tree.rebuild();
+
+        // Shirts move under Home; rows re-read within the late commit window do not count
+        source.update("Shirts", source.id("Home"), 0);
+        source.add("Lamps", source.id("Home"), 1);
+
+        assertThat(tree.refresh()).isEqualTo(2);
+        assertThat(names(tree.subtree(source.id("Home"))))
+                .containsExactly("Home", "Kitchen", "Shirts", "Oxford", "Polo", "Lamps");
+        assertThat(names(tree.breadcrumb(source.id("Oxford")))).containsExactly("Home", "Shirts", "Oxford");
+        assertThat(tree.subtreeIds(source.id("Clothing"))).containsExactly(source.id("Clothing"), source.id("Jackets"));
+        assertThat(tree.refresh()).isZero();
+    }
+
+    @Test
+    void shouldReloadWhenCategoriesAreDeleted() throws Exception {
+        FakeSource source = catalog();
+        CategoryTree tree = new CategoryTree(source, false);
+        tree.rebuild();
+
+        source.rows.remove(source.id("Polo"));
+        tree.refresh();
+
+        assertThat(tree.size()).isEqualTo(6);
+        assertThat(tree.category(source.id("Polo"))).isEmpty();
+        assertThat(names(tree.children(source.id("Shirts")))).containsExactly("Oxford");
+    }
+
+    @Test
+    void shouldKeepStoredPathsInLineWithTheTree() throws Exception {
+        FakeSource source = catalog();
+        CategoryTree tree = new CategoryTree(source, true);
+        tree.rebuild();
+
+        // The catalog is stored without paths
+        assertThat(source.written).hasSize(7);
+        assertThat(source.row("Oxford").path())
+                .isEqualTo("/" + source.id("Clothing") + "/" + source.id("Shirts") + "/" + source.id("Oxford"));
+        assertThat(source.row("Oxford").levelDepth()).isEqualTo(2);
+
+        source.written.clear();
+        source.update("Shirts", source.id("Home"), 0);
+        tree.refresh();
+
+        // The moved category and its subtree
+        assertThat(source.written).extracting(PathUpdate::id)
+                .containsExactlyInAnyOrder(source.id("Shirts"), source.id("Oxford"), source.id("Polo"));
+        assertThat(source.row("Polo").path())
+                .isEqualTo("/" + source.id("Home") + "/" + source.id("Shirts") + "/" + source.id("Polo"));
+
+        source.written.clear();
+        tree.refresh();
+        assertThat(source.written).isEmpty();
+    }
+
+    @Test
+    void shouldCutParentCycles() throws Exception {
+        FakeSource source = new FakeSource();
+        source.add("A", null, 0);
+        source.add("B", source.id("A"), 0);
+        source.add("C", source.id("B"), 0);
+        source.update("A", source.id("C"), 0);
+
+        CategoryTree tree = new CategoryTree(source, false);
+        tree.rebuild();
+
+        assertThat(names(tree.roots())).containsExactly("A");
+        assertThat(names(tree.subtree(source.id("A")))).containsExactly("A", "B", "C");
+        assertThat(tree.category(source.id("A")).orElseThrow().parentId()).isNull();
+    }
+
+    private static FakeSource catalog() {
+        FakeSource source = new FakeSource();
+        source.add("Clothing", null, 0);
+        source.add("Home", null, 1);
+        source.add("Jackets", source.id("Clothing"), 2);
+        source.add("Shirts", source.id("Clothing"), 1);
+        source.add("Polo", source.id("Shirts"), 0);
+        source.add("Oxford", source.id("Shirts"), 0);
+        source.add("Kitchen", source.id("Home"), 0);
+        return source;
+    }
+
+    private static List<String> names(List<Category> categories) {
+        return categories.stream().map(Category::name).toList();
+    }
+
+    private static final class FakeSource implements CategorySource {
+
+        final Map<String, UUID> ids = new LinkedHashMap<>();
+        final Map<UUID, Row> rows = new LinkedHashMap<>();
+        final List<PathUpdate> written = new ArrayList<>();
+        Instant now = Instant.parse("2025-06-15T10:00:00Z");
+
+        void add(String name, UUID parentId, int sortOrder) {
+            UUID id = UUID.randomUUID();
+            ids.put(name, id);
+            rows.put(id, new Row(id, parentId, name, name.toLowerCase(), sortOrder, true, null, 0, tick()));
+        }
+
+        void update(String name, UUID parentId, int sortOrder) {
+            Row row = row(name);
+            rows.put(row.id(), new Row(row.id(), parentId, name, row.slug(), sortOrder, row.active(), row.path(),
+                    row.levelDepth(), tick()));
+        }
+
+        UUID id(String name) {
+            return ids.get(name);
+        }
+
+        Row row(String name) {
+            return rows.get(id(name));
+        }
+
+        private Instant tick() {
+            now = now.plusSeconds(1);
+            return now;
+        }
+
+        @Override
+        public List<Row> categories() {
+            return List.copyOf(rows.values());
+        }
+
+        @Override
+        public List<Row> changedSince(Instant since) {
+            return rows.values().stream().filter(row -> row.updatedAt().isAfter(since)).toList();
+        }
+
+        @Override
+        public int count() {
+            return rows.size();
+        }
+
+        @Override
+        public void updatePaths(List<PathUpdate> updates) {
+            written.addAll(updates);
+            for (PathUpdate update : updates) {
+                Row row = rows.get(update.id());
+                rows.put(row.id(), new Row(row.id(), row.parentId(), row.name(), row.slug(), row.sortOrder(),
+                        row.active(), update.path(), update.levelDepth(), tick()));
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.openshop.database.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests day partitioning, watermarks and failed runs of the order export against an in-memory
+ * source.
+ */
+class OrderExporterTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-10T12:00:00Z");
+    private static final Duration LAG = Duration.ofMinutes(5);
+
+    @TempDir
+    Path directory;
+
+    private final FakeSource source = new FakeSource();
+
+    @Test
+    void shouldWriteOneFilePerDayOfChanges() throws Exception {
+        source.payment(Instant.parse("2025-03-08T23:59:59Z"));
+        source.payment(Instant.parse("2025-03-09T00:00:00Z"));
+        source.payment(Instant.parse("2025-03-09T18:30:00Z"));
+        source.payment(Instant.parse("2025-03-10T09:00:00Z"));
+
+        ExportResult result = exporter(NOW).export(ExportTable.ORDER_PAYMENTS);
+
+        assertThat(result.rows()).isEqualTo(4L);
+        assertThat(result.from()).isEqualTo(Instant.EPOCH);
+        assertThat(result.to()).isEqualTo(NOW.minus(LAG));
+        assertThat(result.files()).extracting((Path file) -> file.getParent().getFileName().toString())
+                .containsExactly("updated_date=2025-03-08", "updated_date=2025-03-09", "updated_date=2025-03-10");
+        for (Path file : result.files()) {
+            assertParquet(file);
+        }
+        assertThat(temporaryFiles()).isEmpty();
+    }
+
+    @Test
+    void shouldResumeFromTheWatermark() throws Exception {
+        source.payment(Instant.parse("2025-03-10T09:00:00Z"));
+        exporter(NOW).export(ExportTable.ORDER_PAYMENTS);
+        source.payment(Instant.parse("2025-03-10T13:00:00Z"));
+
+        ExportResult result = exporter(NOW.plus(Duration.ofHours(2))).export(ExportTable.ORDER_PAYMENTS);
+
+        assertThat(result.from()).isEqualTo(NOW.minus(LAG));
+        assertThat(result.rows()).isEqualTo(1L);
+        assertThat(exporter(NOW).watermark(ExportTable.ORDER_PAYMENTS)).isEqualTo(result.to());
+        assertThat(source.windows).containsExactly(
+                List.of(Instant.EPOCH, NOW.minus(LAG)),
+                List.of(NOW.minus(LAG), NOW.plus(Duration.ofHours(2)).minus(LAG)));
+    }
+
+    @Test
+    void shouldLeaveChangesWithinTheLagToTheNextRun() throws Exception {
+        source.payment(NOW.minus(Duration.ofMinutes(2)));
+
+        ExportResult first = exporter(NOW).export(ExportTable.ORDER_PAYMENTS);
+        ExportResult second = exporter(NOW.plus(LAG)).export(ExportTable.ORDER_PAYMENTS);
+
+        assertThat(first.rows()).isEqualTo(0L);
+        assertThat(first.files()).isEmpty();
+        assertThat(second.rows()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldNotReadWhenTheWindowIsEmpty() throws Exception {
+        exporter(NOW).export(ExportTable.ORDER_PAYMENTS);
+
+        ExportResult result = exporter(NOW).export(ExportTable.ORDER_PAYMENTS);
+
+        assertThat(result.rows()).isEqualTo(0L);
+        assertThat(result.to()).isEqualTo(result.from());
+        assertThat(source.windows).hasSize(1);
+    }
+
+    @Test
+    void shouldPublishNothingWhenTheReadFails() throws Exception {
+        source.payment(Instant.parse("2025-03-08T10:00:00Z"));
+        source.payment(Instant.parse("2025-03-09T10:00:00Z"));
+        source.payment(Instant.parse("2025-03-10T10:00:00Z"));
+        source.failAfter = 2;
+
+        assertThatThrownBy(() -> exporter(NOW).export(ExportTable.ORDER_PAYMENTS))
+                .isInstanceOf(SQLException.class);
+
+        assertThat(exporter(NOW).watermark(ExportTable.ORDER_PAYMENTS)).isNull();
+        assertThat(files()).isEmpty();
+
+        source.failAfter = Integer.MAX_VALUE;
+        ExportResult retry = exporter(NOW).export(ExportTable.ORDER_PAYMENTS);
+
+        assertThat(retry.from()).isEqualTo(Instant.EPOCH);
+        assertThat(retry.rows()).isEqualTo(3L);
+    }
+
+    @Test
+    void shouldClearFilesLeftByAnInterruptedRun() throws Exception {
+        Path partition = Files.createDirectories(directory.resolve("order_payments/updated_date=2025-03-09"));
+        Files.writeString(partition.resolve("part-0.parquet.tmp"), "partial");
+        source.payment(Instant.parse("2025-03-10T10:00:00Z"));
+
+        exporter(NOW).export(ExportTable.ORDER_PAYMENTS);
+
+        assertThat(temporaryFiles()).isEmpty();
+    }
+
+    @Test
+    void shouldExportItemsByTheirOrdersWatermark() throws Exception {
+        Instant orderUpdated = Instant.parse("2025-03-09T10:00:00Z");
+        source.item(orderUpdated);
+        source.item(orderUpdated);
+
+        ExportResult result = exporter(NOW).export(ExportTable.ORDER_ITEMS);
+
+        assertThat(result.rows()).isEqualTo(2L);
+        assertThat(result.files()).singleElement()
+                .satisfies((Path file) -> assertThat(file.toString()).contains("updated_date=2025-03-09"));
+    }
+
+    @Test
+    void shouldRollOverRowGroupsWithinAFile() throws Exception {
+        Instant day = Instant.parse("2025-03-09T00:00:00Z");
+        for (int i = 0; i < 25; i++) {
+            source.payment(day.plusSeconds(i));
+        }
+
+        ExportResult result = exporter(NOW).export(ExportTable.ORDER_PAYMENTS);
+
+        assertThat(result.files()).hasSize(1);
+        assertParquet(result.files().get(0));
+    }
+
+    private OrderExporter exporter(Instant now) {
+        return new OrderExporter(source, directory, LAG, 10, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private List<Path> temporaryFiles() throws IOException {
+        return files().stream().filter(file -> file.toString().endsWith(".tmp")).toList();
+    }
+
+    /**
+     * Checks the leading and trailing magic and that the footer length points inside the file.
+     */
+    private static void assertParquet(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int footer = (bytes[bytes.length - 8] & 0xFF) | (bytes[bytes.length - 7] & 0xFF) << 8
+                | (bytes[bytes.length - 6] & 0xFF) << 16 | (bytes[bytes.length - 5] & 0xFF) << 24;
+        assertThat(new String(bytes, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("PAR1");
+        assertThat(new String(bytes, bytes.length - 4, 4, StandardCharsets.US_ASCII)).isEqualTo("PAR1");
+        assertThat(footer > 0 && footer < bytes.length - 12).isEqualTo(true);
+    }
+
+    /**
+     * Rows per table, served in watermark order like the database would.
+     */
+    static final class FakeSource implements ExportSource {
+
+        final Map<ExportTable, List<Object[]>> rows = new EnumMap<>(ExportTable.class);
+        final List<List<Instant>> windows = new ArrayList<>();
+        int failAfter = Integer.MAX_VALUE;
+
+        void payment(Instant updatedAt) {
+            add(ExportTable.ORDER_PAYMENTS, updatedAt, UUID.randomUUID(), UUID.randomUUID(), "stripe", "card",
+                    new BigDecimal("49.90"), "USD", "captured", null, updatedAt, updatedAt, null, null, updatedAt,
+                    updatedAt);
+        }
+
+        void item(Instant orderUpdatedAt) {
+            add(ExportTable.ORDER_ITEMS, orderUpdatedAt, UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                    null, 2, new BigDecimal("10.00"), new BigDecimal("20.00"), null, "Desk Lamp", null, "pending",
+                    0, orderUpdatedAt);
+        }
+
+        private void add(ExportTable table, Instant watermark, Object... values) {
+            assertThat(values[table.watermarkIndex()]).isEqualTo(watermark);
+            rows.computeIfAbsent(table, t -> new ArrayList<>()).add(values);
+        }
+
+        @Override
+        public void stream(ExportTable table, Instant from, Instant to, RowSink sink) throws SQLException, IOException {
+            windows.add(List.of(from, to));
+            int index = table.watermarkIndex();
+            List<Object[]> matching = rows.getOrDefault(table, List.of()).stream()
+                    .filter(row -> ((Instant) row[index]).isAfter(from) && !((Instant) row[index]).isAfter(to))
+                    .sorted(Comparator.comparing(row -> (Instant) row[index]))
+                    .toList();
+            Object[] row = new Object[table.columns().size()];
+            int read = 0;
+            for (Object[] values : matching) {
+                if (read++ == failAfter) {
+                    throw new SQLException("connection reset");
+                }
+                System.arraycopy(values, 0, row, 0, row.length);
+                sink.accept(row);
+            }
+        }
+    }
+}
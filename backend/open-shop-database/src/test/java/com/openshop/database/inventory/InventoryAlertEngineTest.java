@@ -0,0 +1,329 @@
+package com.openshop.database.inventory;
+
+import com.openshop.database.inventory.AlertStore.AlertChange;
+import com.openshop.database.inventory.AlertStore.NewAlert;
+import com.openshop.database.inventory.AlertStore.OpenAlert;
+import com.openshop.database.inventory.AlertStore.Severity;
+import com.openshop.database.inventory.AlertStore.StockPosition;
+import com.openshop.database.inventory.AlertStore.StockSite;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests raising, escalation, deduplication and resolution of stock alerts against an in-memory
+ * store of stock positions and alerts.
+ */
+class InventoryAlertEngineTest {
+
+    private static final UUID LOCATION = UUID.randomUUID();
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-15T10:00:00Z"));
+    private final FakeStore store = new FakeStore();
+    private final InventoryAlertEngine engine = new InventoryAlertEngine(store, 24, clock);
+
+    @Test
+    void shouldRaiseOneAlertPerPairWithSeverityByRemainingStock() throws Exception {
+        StockSite plenty = store.stock(50, 20);
+        StockSite low = store.stock(15, 20);
+        StockSite half = store.stock(10, 20);
+        StockSite quarter = store.stock(5, 20);
+        StockSite soldOut = store.stock(0, 20);
+
+        AlertEvaluation evaluation = engine.evaluate();
+
+        assertThat(evaluation).isEqualTo(new AlertEvaluation(5, 4, 0, 0));
+        assertThat(store.open(plenty)).isEmpty();
+        assertThat(store.open(low)).singleElement().satisfies(alert -> assertThat(alert.severity).isEqualTo("low"));
+        assertThat(store.open(half)).singleElement().satisfies(alert -> assertThat(alert.severity).isEqualTo("medium"));
+        assertThat(store.open(quarter)).singleElement().satisfies(alert -> assertThat(alert.severity).isEqualTo("high"));
+        assertThat(store.open(soldOut)).singleElement().satisfies(alert -> {
+            assertThat(alert.type).isEqualTo("reorder_needed");
+            assertThat(alert.severity).isEqualTo("critical");
+        });
+    }
+
+    @Test
+    void shouldEvaluateOnlyPairsChangedSinceTheWatermark() throws Exception {
+        StockSite quiet = store.stock(5, 20);
+        StockSite busy = store.stock(15, 20);
+        engine.evaluate();
+        Instant first = clock.instant();
+
+        clock.advance(Duration.ofMinutes(10));
+        store.set(busy, 14);
+        assertThat(engine.evaluate().evaluated()).isEqualTo(2);
+        assertThat(store.since).isEqualTo(first.minus(InventoryAlertEngine.LATE_COMMIT_WINDOW));
+
+        clock.advance(Duration.ofMinutes(10));
+        store.set(busy, 12);
+        AlertEvaluation evaluation = engine.evaluate();
+
+        assertThat(evaluation.evaluated()).isEqualTo(1);
+        assertThat(store.since).isEqualTo(first.plus(Duration.ofMinutes(10)).minus(InventoryAlertEngine.LATE_COMMIT_WINDOW));
+        assertThat(store.open(busy)).singleElement().satisfies(alert -> assertThat(alert.currentValue).isEqualTo(12));
+        assertThat(store.open(quiet)).hasSize(1);
+        // Reading the late-commit window again changes nothing
+        assertThat(engine.evaluate().evaluated()).isEqualTo(1);
+        assertThat(store.writes).isEqualTo(3);
+    }
+
+    @Test
+    void shouldEscalateThenSwitchToReorderAndResolveWhenStockRecovers() throws Exception {
+        StockSite site = store.stock(15, 20);
+        engine.evaluate();
+        Alert lowStock = store.open(site).get(0);
+
+        clock.advance(Duration.ofMinutes(5));
+        store.set(site, 4);
+        assertThat(engine.evaluate()).isEqualTo(new AlertEvaluation(1, 0, 1, 0));
+        assertThat(lowStock.severity).isEqualTo("high");
+        assertThat(store.alerts).hasSize(1);
+
+        clock.advance(Duration.ofMinutes(5));
+        store.set(site, 0);
+        assertThat(engine.evaluate()).isEqualTo(new AlertEvaluation(1, 1, 0, 1));
+        assertThat(lowStock.status).isEqualTo("resolved");
+        assertThat(store.open(site)).singleElement().satisfies(alert -> assertThat(alert.type).isEqualTo("reorder_needed"));
+
+        clock.advance(Duration.ofMinutes(5));
+        store.set(site, 100);
+        assertThat(engine.evaluate()).isEqualTo(new AlertEvaluation(1, 0, 0, 1));
+        assertThat(store.open(site)).isEmpty();
+    }
+
+    @Test
+    void shouldNeitherUpdateNorRepeatADismissedAlertUntilStockRecovers() throws Exception {
+        StockSite site = store.stock(15, 20);
+        engine.evaluate();
+        Alert dismissed = store.open(site).get(0);
+        dismissed.status = "dismissed";
+
+        clock.advance(Duration.ofMinutes(5));
+        store.set(site, 3);
+        assertThat(engine.evaluate()).isEqualTo(new AlertEvaluation(1, 0, 0, 0));
+        assertThat(dismissed.severity).isEqualTo("low");
+
+        clock.advance(Duration.ofMinutes(5));
+        store.set(site, 30);
+        engine.evaluate();
+        assertThat(dismissed.status).isEqualTo("dismissed");
+        assertThat(dismissed.resolvedAt).isEqualTo(clock.instant());
+
+        clock.advance(Duration.ofMinutes(5));
+        store.set(site, 10);
+        assertThat(engine.evaluate().raised()).isEqualTo(1);
+        assertThat(store.alerts).hasSize(2);
+    }
+
+    @Test
+    void shouldResolveDuplicatesInFavourOfTheOldestAlert() throws Exception {
+        StockSite site = store.stock(15, 20);
+        Alert oldest = store.alert(site, "low_stock", "acknowledged");
+        Alert duplicate = store.alert(site, "low_stock", "active");
+
+        engine.evaluate();
+
+        assertThat(store.open(site)).containsExactly(oldest);
+        assertThat(oldest.status).isEqualTo("acknowledged");
+        assertThat(duplicate.status).isEqualTo("resolved");
+    }
+
+    @Test
+    void shouldResolveAlertsNotUpdatedWithinTheirAutoResolveHours() throws Exception {
+        StockSite site = store.stock(15, 20);
+        engine.evaluate();
+        Alert alert = store.open(site).get(0);
+        assertThat(alert.autoResolveHours).isEqualTo(24);
+
+        clock.advance(Duration.ofHours(23));
+        assertThat(engine.evaluate().resolved()).isZero();
+
+        clock.advance(Duration.ofHours(1));
+        assertThat(engine.evaluate().resolved()).isEqualTo(1);
+        assertThat(alert.status).isEqualTo("resolved");
+    }
+
+    /**
+     * One {@code inventory_alerts} row.
+     */
+    static final class Alert {
+
+        final UUID id = UUID.randomUUID();
+        final String type;
+        final StockSite site;
+        String status;
+        String severity;
+        Integer currentValue;
+        Integer thresholdValue;
+        Integer autoResolveHours;
+        Instant updatedAt;
+        Instant resolvedAt;
+
+        Alert(String type, StockSite site, String status, String severity, Instant updatedAt) {
+            this.type = type;
+            this.site = site;
+            this.status = status;
+            this.severity = severity;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    /**
+     * Stock positions with their {@code last_updated} and alerts in creation order.
+     */
+    private final class FakeStore implements AlertStore {
+
+        final Map<StockSite, StockPosition> stock = new HashMap<>();
+        final Map<StockSite, Instant> updated = new HashMap<>();
+        final List<Alert> alerts = new ArrayList<>();
+        Instant since;
+        int writes;
+
+        StockSite stock(int available, int threshold) {
+            StockSite site = new StockSite(UUID.randomUUID(), LOCATION);
+            stock.put(site, new StockPosition(site, UUID.randomUUID(), "SKU-" + stock.size(), available, threshold, 50));
+            updated.put(site, clock.instant());
+            return site;
+        }
+
+        void set(StockSite site, int available) {
+            StockPosition position = stock.get(site);
+            stock.put(site, new StockPosition(site, position.productId(), position.sku(), available,
+                    position.lowStockThreshold(), position.reorderQuantity()));
+            updated.put(site, clock.instant());
+        }
+
+        Alert alert(StockSite site, String type, String status) {
+            Alert alert = new Alert(type, site, status, "medium", clock.instant());
+            alerts.add(alert);
+            return alert;
+        }
+
+        List<Alert> open(StockSite site) {
+            return alerts.stream()
+                    .filter(alert -> alert.site.equals(site) && alert.resolvedAt == null && !alert.status.equals("resolved"))
+                    .toList();
+        }
+
+        @Override
+        public Changes changedSince(Instant since) {
+            this.since = since;
+            List<StockSite> sites = new ArrayList<>();
+            Instant newest = null;
+            for (Map.Entry<StockSite, Instant> entry : updated.entrySet()) {
+                if (since == null || entry.getValue().isAfter(since)) {
+                    sites.add(entry.getKey());
+                    newest = newest == null || entry.getValue().isAfter(newest) ? entry.getValue() : newest;
+                }
+            }
+            return new Changes(sites, newest);
+        }
+
+        @Override
+        public List<StockPosition> positions(Collection<StockSite> sites) {
+            return sites.stream().map(stock::get).toList();
+        }
+
+        @Override
+        public List<OpenAlert> openAlerts(Collection<StockSite> sites) {
+            List<OpenAlert> open = new ArrayList<>();
+            for (StockSite site : sites) {
+                for (Alert alert : open(site)) {
+                    open.add(view(alert));
+                }
+            }
+            return open;
+        }
+
+        @Override
+        public List<OpenAlert> autoResolving() {
+            return alerts.stream()
+                    .filter(alert -> (alert.status.equals("active") || alert.status.equals("acknowledged"))
+                            && alert.autoResolveHours != null)
+                    .map(this::view)
+                    .toList();
+        }
+
+        @Override
+        public void write(List<NewAlert> raised, List<AlertChange> changed, Collection<UUID> resolved, Instant now) {
+            if (raised.isEmpty() && changed.isEmpty() && resolved.isEmpty()) {
+                return;
+            }
+            writes++;
+            for (NewAlert alert : raised) {
+                Alert row = new Alert(alert.type().code(), alert.position().site(), "active",
+                        alert.severity().code(), now);
+                row.currentValue = alert.position().available();
+                row.thresholdValue = alert.thresholdValue();
+                row.autoResolveHours = alert.autoResolveHours();
+                alerts.add(row);
+            }
+            for (AlertChange change : changed) {
+                Alert row = find(change.id());
+                row.severity = change.severity().code();
+                row.currentValue = change.currentValue();
+                row.thresholdValue = change.thresholdValue();
+                row.updatedAt = now;
+            }
+            for (UUID id : resolved) {
+                Alert row = find(id);
+                if (!row.status.equals("dismissed")) {
+                    row.status = "resolved";
+                }
+                row.resolvedAt = now;
+                row.updatedAt = now;
+            }
+        }
+
+        private Alert find(UUID id) {
+            return alerts.stream().filter(alert -> alert.id.equals(id)).findFirst().orElseThrow();
+        }
+
+        private OpenAlert view(Alert alert) {
+            return new OpenAlert(alert.id, alert.type, alert.site, alert.status, Severity.fromCode(alert.severity),
+                    alert.currentValue, alert.thresholdValue, alert.autoResolveHours != null, alert.autoResolveHours,
+                    alert.updatedAt);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.openshop.database.inventory;
+
+import com.openshop.database.inventory.BulkUpdateReport.RowError;
+import com.openshop.database.inventory.BulkUpdateStore.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests parsing, validation, batching and per-row error reporting of bulk inventory uploads
+ * against an in-memory store.
+ */
+class InventoryBulkUpdateTest {
+
+    private static final UUID SUPPLIER = UUID.randomUUID();
+    private static final UUID LOCATION = UUID.randomUUID();
+    private static final String HEADER = "variant_id,supplier_id,location_id,supplied_date,cost_price,quantity_on_hand\n";
+    private static final BulkUpdateAttribution ATTRIBUTION =
+            new BulkUpdateAttribution(UUID.randomUUID(), "admin", "Supplier feed", "feed-2025-01-15.csv");
+
+    private final FakeStore store = new FakeStore();
+
+    @Test
+    void shouldWriteCsvRowsInBatchesAndReportUnchangedRowsOnRepeat() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 5; i++) {
+            csv.append(row(store.variant(), "12.50", i));
+        }
+
+        BulkUpdateReport first = bulkUpdate(2).update(new StringReader(csv.toString()), BulkFormat.CSV, ATTRIBUTION);
+        BulkUpdateReport second = bulkUpdate(2).update(new StringReader(csv.toString()), BulkFormat.CSV, ATTRIBUTION);
+
+        assertThat(first).isEqualTo(new BulkUpdateReport(5, 5, 0, 0, 0, List.of()));
+        assertThat(second).isEqualTo(new BulkUpdateReport(5, 0, 0, 5, 0, List.of()));
+        assertThat(store.batches).containsExactly(2, 2, 1, 2, 2, 1);
+        assertThat(store.rows).hasSize(5);
+    }
+
+    @Test
+    void shouldReportInvalidRowsByLineWithoutStoppingTheUpload() throws Exception {
+        UUID variant = store.variant();
+        String csv = "\uFEFFVariant_ID,Supplier_ID,Location_ID,Supplied_Date,Cost_Price,Quantity_On_Hand,Batch_Reference\n"
+                + row(variant, "9.99", 1).replace("\n", ",\"multi\nline\"\n")
+                + "not-a-uuid," + SUPPLIER + "," + LOCATION + ",2025-01-15,9.99,1,\n"
+                + row(variant, "0", 2).replace("\n", ",\n")
+                + row(variant, "9.999", 3).replace("\n", ",\n")
+                + row(variant, "9.99", -4).replace("\n", ",\n")
+                + "\n"
+                + row(variant, "9.99", 5).replace("\n", ",\"B-1\"x\n")
+                + row(variant, "9.99", 6)
+                + "\"" + variant + ",unterminated\n";
+
+        BulkUpdateReport report = bulkUpdate(100).update(new StringReader(csv), BulkFormat.CSV, ATTRIBUTION);
+
+        assertThat(report.rows()).isEqualTo(8L);
+        assertThat(report.inserted()).isEqualTo(1L);
+        assertThat(report.failed()).isEqualTo(7L);
+        assertThat(report.errors()).extracting(RowError::row).containsExactly(4L, 5L, 6L, 7L, 9L, 10L, 11L);
+        assertThat(report.errors().get(0).message()).contains("variant_id is not a UUID");
+        assertThat(report.errors().get(1).message()).contains("cost_price must be greater than 0");
+        assertThat(report.errors().get(2).message()).contains("DECIMAL(12,2)");
+        assertThat(report.errors().get(3).message()).contains("quantity_on_hand must not be negative");
+        assertThat(report.errors().get(4).message()).contains("closing quote");
+        assertThat(report.errors().get(5).message()).contains("expected 7 fields but found 6");
+        assertThat(report.errors().get(6).message()).contains("unterminated quoted field");
+        assertThat(store.rows.values()).singleElement()
+                .satisfies(update -> assertThat(update.batchReference()).isEqualTo("multi\nline"));
+    }
+
+    @Test
+    void shouldRejectACsvHeaderWithoutRequiredColumns() {
+        String csv = "variant_id,supplier_id,location_id,supplied_date\n";
+
+        assertThatThrownBy(() -> bulkUpdate(10).update(new StringReader(csv), BulkFormat.CSV, ATTRIBUTION))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("[cost_price, quantity_on_hand]");
+        assertThat(store.batches).isEmpty();
+    }
+
+    @Test
+    void shouldReadCamelCaseJsonRowsAndReportInvalidElements() throws Exception {
+        UUID variant = store.variant();
+        String json = """
+                {"source": {"feed": "acme"}, "updates": [
+                  {"variantId": "%s", "supplierId": "%s", "locationId": "%s", "suppliedDate": "2025-01-15",
+                   "costPrice": 12.5, "stockQuantity": 40, "minimumThreshold": 5, "status": "backorder",
+                   "notes": {"ignored": [1, 2]}},
+                  42,
+                  {"variantId": "%s", "costPrice": ],
+                  {"variantId": "%s", "supplierId": "%s", "locationId": "%s", "suppliedDate": "2025-01-16",
+                   "costPrice": "3.10", "stockQuantity": 2.5}
+                ]}""".formatted(variant, SUPPLIER, LOCATION, variant, variant, SUPPLIER, LOCATION);
+
+        BulkUpdateReport report = bulkUpdate(100).update(new StringReader(json), BulkFormat.JSON, ATTRIBUTION);
+
+        assertThat(report.rows()).isEqualTo(4L);
+        assertThat(report.inserted()).isEqualTo(1L);
+        assertThat(report.errors()).extracting(RowError::row).containsExactly(2L, 3L, 4L);
+        assertThat(report.errors().get(0).message()).isEqualTo("expected an object");
+        assertThat(report.errors().get(1).message()).contains("invalid JSON");
+        assertThat(report.errors().get(2).message()).contains("quantity_on_hand is not a whole number");
+        StockUpdate written = store.rows.get(new StockKey(variant, SUPPLIER, LOCATION, LocalDate.of(2025, 1, 15)));
+        assertThat(written.quantityOnHand()).isEqualTo(40);
+        assertThat(written.lowStockThreshold()).isEqualTo(5);
+        assertThat(written.status()).isEqualTo("backordered");
+        assertThat(written.costPrice()).isEqualByComparingTo(new BigDecimal("12.50"));
+    }
+
+    @Test
+    void shouldReportRowsTheStoreRejectsAndWriteTheOthers() throws Exception {
+        UUID variant = store.variant();
+        StockKey reserved = new StockKey(variant, SUPPLIER, LOCATION, LocalDate.of(2025, 1, 15).plusDays(1));
+        store.reserved.put(reserved, 3);
+        String csv = HEADER + row(variant, "5.00", 0) + row(variant, "5.00", 1) + row(UUID.randomUUID(), "5.00", 2);
+
+        BulkUpdateReport report = bulkUpdate(100).update(new StringReader(csv), BulkFormat.CSV, ATTRIBUTION);
+
+        assertThat(report.inserted()).isEqualTo(1L);
+        assertThat(report.errors()).extracting(RowError::row).containsExactly(3L, 4L);
+        assertThat(report.errors().get(0).message()).contains("below the reserved quantity 3");
+        assertThat(report.errors().get(1).message()).contains("variant_id does not exist");
+        assertThat(store.batches).containsExactly(3);
+    }
+
+    @Test
+    void shouldSplitABatchTheDatabaseRejectsToIsolateTheOffendingRow() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        List<UUID> variants = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            variants.add(store.variant());
+            csv.append(row(variants.get(i), "7.00", i));
+        }
+        store.poisoned.add(variants.get(2));
+
+        BulkUpdateReport report = bulkUpdate(4).update(new StringReader(csv.toString()), BulkFormat.CSV, ATTRIBUTION);
+
+        assertThat(report.inserted()).isEqualTo(3L);
+        assertThat(report.errors()).singleElement().satisfies(error -> {
+            assertThat(error.row()).isEqualTo(4L);
+            assertThat(error.message()).contains("rejected by the database");
+        });
+        assertThat(store.batches).containsExactly(4, 2, 2, 1, 1);
+    }
+
+    @Test
+    void shouldFailOnDatabaseErrorsThatAreNotAboutTheRows() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 4; i++) {
+            csv.append(row(store.variant(), "7.00", i));
+        }
+        store.failAfter = 1;
+
+        assertThatThrownBy(() -> bulkUpdate(2).update(new StringReader(csv.toString()), BulkFormat.CSV, ATTRIBUTION))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("connection lost");
+        assertThat(store.rows).hasSize(2);
+        // The failing batch is not split: its halves would only fail the same way
+        assertThat(store.calls).isEqualTo(2);
+    }
+
+    @Test
+    void shouldApplyARepeatedKeyInUploadOrder() throws Exception {
+        UUID variant = store.variant();
+        String csv = HEADER + row(variant, "5.00", 0) + row(variant, "6.00", 0);
+
+        BulkUpdateReport report = bulkUpdate(100).update(new StringReader(csv), BulkFormat.CSV, ATTRIBUTION);
+
+        assertThat(report.inserted()).isEqualTo(1L);
+        assertThat(report.updated()).isEqualTo(1L);
+        assertThat(store.batches).containsExactly(1, 1);
+        assertThat(store.rows.values()).singleElement()
+                .satisfies(update -> assertThat(update.costPrice()).isEqualByComparingTo(new BigDecimal("6.00")));
+    }
+
+    private InventoryBulkUpdate bulkUpdate(int batchSize) {
+        return new InventoryBulkUpdate(store, batchSize);
+    }
+
+    /**
+     * A CSV record for the default header; {@code day} picks the supplied date and doubles as the quantity.
+     */
+    private static String row(UUID variant, String costPrice, int day) {
+        return variant + "," + SUPPLIER + "," + LOCATION + "," + LocalDate.of(2025, 1, 15).plusDays(Math.abs(day))
+                + "," + costPrice + "," + day + "\n";
+    }
+
+    /**
+     * Stock rows by key with the rules of {@link JdbcBulkUpdateStore}: unknown variants and on-hand
+     * quantities below the reserved one are rejected, identical rows are not written. Poisoned
+     * variants fail their whole batch like a constraint violation does.
+     */
+    private static final class FakeStore implements BulkUpdateStore {
+
+        final Map<StockKey, StockUpdate> rows = new HashMap<>();
+        final Map<StockKey, Integer> reserved = new HashMap<>();
+        final Set<UUID> variants = new HashSet<>();
+        final Set<UUID> poisoned = new HashSet<>();
+        final List<Integer> batches = new ArrayList<>();
+        int failAfter = -1;
+        int calls;
+
+        UUID variant() {
+            UUID variant = UUID.randomUUID();
+            variants.add(variant);
+            return variant;
+        }
+
+        @Override
+        public synchronized List<Outcome> apply(List<StockUpdate> updates, BulkUpdateAttribution attribution)
+                throws SQLException {
+            calls++;
+            if (batches.size() == failAfter) {
+                throw new SQLException("connection lost", "08006");
+            }
+            batches.add(updates.size());
+            for (StockUpdate update : updates) {
+                if (poisoned.contains(update.key().variantId())) {
+                    throw new SQLIntegrityConstraintViolationException("chk_stock_cost_positive", "23000");
+                }
+            }
+            List<Outcome> outcomes = new ArrayList<>();
+            for (StockUpdate update : updates) {
+                StockKey key = update.key();
+                int held = reserved.getOrDefault(key, 0);
+                if (!variants.contains(key.variantId())) {
+                    outcomes.add(Outcome.rejected("variant_id does not exist: " + key.variantId()));
+                } else if (update.quantityOnHand() < held) {
+                    outcomes.add(Outcome.rejected("quantity_on_hand " + update.quantityOnHand()
+                            + " is below the reserved quantity " + held));
+                } else if (update.equals(rows.get(key))) {
+                    outcomes.add(Outcome.UNCHANGED);
+                } else {
+                    outcomes.add(rows.put(key, update) == null ? Outcome.INSERTED : Outcome.UPDATED);
+                }
+            }
+            return outcomes;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.openshop.database.inventory;
+
+import com.openshop.database.inventory.StockStore.StockLevel;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests admission, group commit and the database guard of the reservation engine against an
+ * in-memory store that enforces the same rules as the {@code inventory_stock} update.
+ */
+class InventoryReservationsTest {
+
+    private static final UUID SUPPLIER = UUID.randomUUID();
+    private static final UUID LOCATION = UUID.randomUUID();
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 15);
+    private static final Duration IDLE = InventoryReservations.DEFAULT_IDLE_TIMEOUT;
+
+    @Test
+    void shouldAllocateOldestBatchFirst() {
+        FakeStockStore store = new FakeStockStore();
+        UUID variant = UUID.randomUUID();
+        StockKey older = store.add(variant, TODAY.minusDays(10), 3);
+        StockKey newer = store.add(variant, TODAY, 10);
+
+        try (InventoryReservations reservations = new InventoryReservations(store, 100, IDLE)) {
+            Reservation reservation = reservations.reserve(variant, 5).join();
+
+            assertThat(reservation.allocations()).containsExactly(
+                    new Reservation.Allocation(older, 3), new Reservation.Allocation(newer, 2));
+            assertThat(store.reserved(older)).isEqualTo(3);
+            assertThat(store.reserved(newer)).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldRejectReservationBeyondAvailableStock() throws Exception {
+        FakeStockStore store = new FakeStockStore();
+        UUID variant = UUID.randomUUID();
+        store.add(variant, TODAY, 4);
+
+        try (InventoryReservations reservations = new InventoryReservations(store, 100, IDLE)) {
+            reservations.reserve(variant, 3).join();
+
+            assertThatThrownBy(() -> reservations.reserve(variant, 2).join())
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(InsufficientStockException.class);
+            assertThat(reservations.available(variant)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldMakeReleasedStockAvailableAgain() throws Exception {
+        FakeStockStore store = new FakeStockStore();
+        UUID variant = UUID.randomUUID();
+        StockKey row = store.add(variant, TODAY, 2);
+
+        try (InventoryReservations reservations = new InventoryReservations(store, 100, IDLE)) {
+            Reservation reservation = reservations.reserve(variant, 2).join();
+            reservations.release(reservation).join();
+
+            assertThat(store.reserved(row)).isZero();
+            assertThat(reservations.available(variant)).isEqualTo(2);
+            assertThat(reservations.reserve(variant, 2).join().quantity()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldFailReservationsRejectedByTheStoreAndReload() throws Exception {
+        FakeStockStore store = new FakeStockStore();
+        UUID variant = UUID.randomUUID();
+        StockKey row = store.add(variant, TODAY, 10);
+
+        try (InventoryReservations reservations = new InventoryReservations(store, 100, IDLE)) {
+            assertThat(reservations.available(variant)).isEqualTo(10);
+            // Stock written off behind the engine's back
+            store.setOnHand(row, 2);
+
+            assertThatThrownBy(() -> reservations.reserve(variant, 5).join())
+                    .hasCauseInstanceOf(InsufficientStockException.class);
+            awaitAvailable(reservations, variant, 2);
+            assertThat(reservations.reserve(variant, 2).join().quantity()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldReportAndRetryAFailedReload() throws Exception {
+        FakeStockStore store = new FakeStockStore();
+        UUID variant = UUID.randomUUID();
+        StockKey row = store.add(variant, TODAY, 10);
+
+        try (InventoryReservations reservations = new InventoryReservations(store, 100, IDLE)) {
+            assertThat(reservations.available(variant)).isEqualTo(10);
+            store.setOnHand(row, 4);
+            store.failLoads = true;
+            reservations.refresh(variant);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (reservations.flusher().failures() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(reservations.flusher().lastFailure()).isInstanceOf(SQLException.class);
+            assertThat(reservations.available(variant)).isEqualTo(10);
+
+            store.failLoads = false;
+            awaitAvailable(reservations, variant, 4);
+        }
+    }
+
+    @Test
+    void shouldDropIdleVariantsAndLoadThemAgainOnUse() throws Exception {
+        FakeStockStore store = new FakeStockStore();
+        UUID variant = UUID.randomUUID();
+        store.add(variant, TODAY, 10);
+
+        try (InventoryReservations reservations = new InventoryReservations(store, 100, Duration.ofMillis(20))) {
+            assertThat(reservations.reserve(variant, 3).join().quantity()).isEqualTo(3);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (reservations.loadedVariants() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(reservations.loadedVariants()).isZero();
+
+            assertThat(reservations.available(variant)).isEqualTo(7);
+            assertThat(store.loads()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldNotOversellUnderConcurrentCheckouts() throws Exception {
+        FakeStockStore store = new FakeStockStore();
+        List<UUID> variants = new ArrayList<>();
+        int stockPerVariant = 500;
+        for (int i = 0; i < 4; i++) {
+            UUID variant = UUID.randomUUID();
+            variants.add(variant);
+            store.add(variant, TODAY.minusDays(3), 200);
+            store.add(variant, TODAY, 300);
+        }
+        ConcurrentLinkedQueue<Reservation> held = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejected = new AtomicInteger();
+
+        try (InventoryReservations reservations = new InventoryReservations(store, 256, IDLE);
+             ExecutorService checkouts = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 5_000; i++) {
+                checkouts.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    UUID variant = variants.get(random.nextInt(variants.size()));
+                    try {
+                        Reservation reservation = reservations.reserve(variant, 1 + random.nextInt(3)).join();
+                        if (random.nextInt(4) == 0) {
+                            reservations.release(reservation).join();
+                        } else {
+                            held.add(reservation);
+                        }
+                    } catch (CompletionException e) {
+                        assertThat(e.getCause()).isInstanceOf(InsufficientStockException.class);
+                        rejected.incrementAndGet();
+                    }
+                });
+            }
+            checkouts.shutdown();
+            assertThat(checkouts.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+            assertThat(rejected.get()).isPositive();
+            assertThat(store.batches()).isLessThan(5_000);
+            for (UUID variant : variants) {
+                int heldQuantity = held.stream()
+                        .filter(reservation -> reservation.variantId().equals(variant))
+                        .mapToInt(Reservation::quantity)
+                        .sum();
+                assertThat(heldQuantity).isLessThanOrEqualTo(stockPerVariant);
+                assertThat(store.reserved(variant)).isEqualTo(heldQuantity);
+                assertThat(reservations.available(variant)).isEqualTo(stockPerVariant - heldQuantity);
+            }
+        }
+    }
+
+    private static void awaitAvailable(InventoryReservations reservations, UUID variant, int expected)
+            throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (reservations.available(variant) != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(reservations.available(variant)).isEqualTo(expected);
+    }
+
+    /**
+     * Applies deltas under the same guard as {@code JdbcStockStore}, with a little latency so
+     * concurrent checkouts pile up into batches.
+     */
+    private static final class FakeStockStore implements StockStore {
+
+        private final Map<StockKey, int[]> rows = new HashMap<>();
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger loads = new AtomicInteger();
+        volatile boolean failLoads;
+
+        synchronized StockKey add(UUID variant, LocalDate suppliedDate, int onHand) {
+            StockKey key = new StockKey(variant, SUPPLIER, LOCATION, suppliedDate);
+            rows.put(key, new int[]{onHand, 0});
+            return key;
+        }
+
+        synchronized void setOnHand(StockKey key, int onHand) {
+            rows.get(key)[0] = onHand;
+        }
+
+        synchronized int reserved(StockKey key) {
+            return rows.get(key)[1];
+        }
+
+        synchronized int reserved(UUID variant) {
+            return rows.entrySet().stream()
+                    .filter(row -> row.getKey().variantId().equals(variant))
+                    .mapToInt(row -> row.getValue()[1])
+                    .sum();
+        }
+
+        int batches() {
+            return batches.get();
+        }
+
+        int loads() {
+            return loads.get();
+        }
+
+        @Override
+        public synchronized List<StockLevel> load(UUID variantId) throws SQLException {
+            if (failLoads) {
+                throw new SQLException("Connection refused");
+            }
+            loads.incrementAndGet();
+            return rows.entrySet().stream()
+                    .filter(row -> row.getKey().variantId().equals(variantId))
+                    .sorted(Map.Entry.comparingByKey((a, b) -> a.suppliedDate().compareTo(b.suppliedDate())))
+                    .map(row -> new StockLevel(row.getKey(), row.getValue()[0], row.getValue()[1]))
+                    .toList();
+        }
+
+        @Override
+        public Set<StockKey> apply(Map<StockKey, Integer> deltas) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                batches.incrementAndGet();
+                Set<StockKey> rejected = new HashSet<>();
+                deltas.forEach((key, delta) -> {
+                    int[] row = rows.get(key);
+                    int reserved = row[1] + delta;
+                    if (reserved < 0 || (delta > 0 && reserved > row[0])) {
+                        rejected.add(key);
+                    }
+                });
+                if (rejected.isEmpty()) {
+                    deltas.forEach((key, delta) -> rows.get(key)[1] += delta);
+                }
+                return rejected;
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.openshop.database.jdbc;
+
+import com.openshop.database.Dialect;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests statement caching, batching and fetch sizes of units of work against a connection that
+ * records what the driver is asked to do, and the dialect SQL they rely on.
+ */
+class DataAccessTest {
+
+    private static final String INSERT = "INSERT INTO order_items (id, quantity) VALUES (?, ?)";
+    private static final String DELETE = "DELETE FROM cart_items WHERE cart_id = ?";
+    private static final String SELECT = "SELECT id, quantity FROM order_items WHERE order_id = ?";
+
+    private final FakeConnection connection = new FakeConnection();
+
+    @Test
+    void shouldBatchConsecutiveUpdatesInOrderAndFlushThemBeforeOtherStatements() throws Exception {
+        try (UnitOfWork unit = begin(Dialect.POSTGRESQL, 2, 64)) {
+            for (int quantity = 1; quantity <= 3; quantity++) {
+                int value = quantity;
+                unit.update(INSERT, p -> p.uuid(UUID.randomUUID()).integer(value));
+            }
+            unit.update(DELETE, p -> p.uuid(UUID.randomUUID()));
+            assertThat(unit.query(SELECT, p -> p.uuid(UUID.randomUUID()), row -> row.integer(2))).isEmpty();
+            unit.update(INSERT, p -> p.uuid(UUID.randomUUID()).integer(4));
+            unit.commit();
+        }
+
+        assertThat(connection.log).containsExactly(
+                "prepare " + INSERT, "batch 2 " + INSERT, "batch 1 " + INSERT,
+                "prepare " + DELETE, "batch 1 " + DELETE,
+                "prepare " + SELECT, "query " + SELECT,
+                "batch 1 " + INSERT, "commit", "rollback",
+                "close " + DELETE, "close " + SELECT, "close " + INSERT, "close connection");
+        assertThat(connection.autoCommit).isTrue();
+    }
+
+    @Test
+    void shouldPrepareEachStatementOnceAndCloseTheLeastRecentlyUsedBeyondTheCache() throws Exception {
+        try (UnitOfWork unit = begin(Dialect.POSTGRESQL, 100, 2)) {
+            unit.executeUpdate(INSERT, p -> p.uuid(UUID.randomUUID()).integer(1));
+            unit.executeUpdate(DELETE, p -> p.uuid(UUID.randomUUID()));
+            unit.executeUpdate(INSERT, p -> p.uuid(UUID.randomUUID()).integer(2));
+            unit.query(SELECT, p -> p.uuid(UUID.randomUUID()), row -> row.uuid(1));
+            unit.executeUpdate(INSERT, p -> p.uuid(UUID.randomUUID()).integer(3));
+        }
+
+        assertThat(connection.log).filteredOn(line -> line.startsWith("prepare") || line.startsWith("close"))
+                .containsExactly("prepare " + INSERT, "prepare " + DELETE, "prepare " + SELECT,
+                        "close " + DELETE, "close " + SELECT, "close " + INSERT, "close connection");
+    }
+
+    @Test
+    void shouldStreamWithTheDialectFetchSizeAndRejectStatementsWhileReading() throws Exception {
+        connection.rows = List.of(new Object[] {"a"}, new Object[] {"b"});
+        List<String> read = new ArrayList<>();
+        try (UnitOfWork unit = begin(Dialect.MYSQL, 100, 64)) {
+            unit.stream(SELECT, UnitOfWork.Binder.NONE, row -> read.add(row.string(1)));
+            unit.query(SELECT, UnitOfWork.Binder.NONE, row -> row.string(1));
+            assertThatThrownBy(() -> unit.stream(SELECT, UnitOfWork.Binder.NONE,
+                    row -> unit.executeUpdate(DELETE, UnitOfWork.Binder.NONE)))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+
+        assertThat(read).containsExactly("a", "b");
+        assertThat(connection.fetchSizes).containsExactly(Integer.MIN_VALUE, 0, Integer.MIN_VALUE);
+    }
+
+    @Test
+    void shouldRollBackAndDropQueuedUpdatesWhenTheWorkFails() {
+        DataAccess data = new DataAccess(connection.dataSource(), Dialect.ORACLE);
+
+        assertThatThrownBy(() -> data.inTransaction(unit -> {
+            unit.update(INSERT, p -> p.uuid(UUID.randomUUID()).integer(1));
+            throw new SQLException("boom");
+        })).hasMessage("boom");
+
+        assertThat(connection.log).containsExactly("prepare " + INSERT, "clear " + INSERT, "rollback",
+                "close " + INSERT, "close connection");
+    }
+
+    @Test
+    void shouldReadBackGeneratedKeysByTheDialectColumnName() throws Exception {
+        try (UnitOfWork unit = begin(Dialect.ORACLE, 100, 64)) {
+            assertThat(unit.insert("INSERT INTO outbox (topic) VALUES (?)", "id", p -> p.string("orders")))
+                    .isEqualTo(42L);
+        }
+
+        assertThat(connection.log).startsWith("prepare INSERT INTO outbox (topic) VALUES (?) returning [ID]");
+    }
+
+    @Test
+    void shouldBuildEachDialectsUpsertAndIdentifiers() {
+        List<String> key = List.of("variant_id", "location_id");
+        List<String> values = List.of("quantity_on_hand");
+
+        assertThat(Dialect.POSTGRESQL.upsert("inventory_stock", key, values)).isEqualTo(
+                "INSERT INTO inventory_stock (variant_id, location_id, quantity_on_hand) VALUES (?, ?, ?)"
+                        + " ON CONFLICT (variant_id, location_id)"
+                        + " DO UPDATE SET quantity_on_hand = EXCLUDED.quantity_on_hand");
+        assertThat(Dialect.MYSQL.upsert("inventory_stock", key, values)).isEqualTo(
+                "INSERT INTO inventory_stock (variant_id, location_id, quantity_on_hand) VALUES (?, ?, ?) AS incoming"
+                        + " ON DUPLICATE KEY UPDATE quantity_on_hand = incoming.quantity_on_hand");
+        assertThat(Dialect.ORACLE.upsert("inventory_stock", key, values)).isEqualTo(
+                "MERGE INTO inventory_stock t USING (SELECT ? AS variant_id, ? AS location_id, ? AS quantity_on_hand"
+                        + " FROM dual) incoming ON (t.variant_id = incoming.variant_id"
+                        + " AND t.location_id = incoming.location_id)"
+                        + " WHEN MATCHED THEN UPDATE SET t.quantity_on_hand = incoming.quantity_on_hand"
+                        + " WHEN NOT MATCHED THEN INSERT (variant_id, location_id, quantity_on_hand)"
+                        + " VALUES (incoming.variant_id, incoming.location_id, incoming.quantity_on_hand)");
+        assertThat(Dialect.ORACLE.identifier("inventory_stock")).isEqualTo("INVENTORY_STOCK");
+        assertThat(Dialect.MYSQL.identifier("INVENTORY_STOCK")).isEqualTo("inventory_stock");
+    }
+
+    private UnitOfWork begin(Dialect dialect, int batchSize, int statementCacheSize) throws SQLException {
+        return new UnitOfWork(connection.proxy(), dialect, batchSize, 500, statementCacheSize);
+    }
+
+    /**
+     * Records prepared statements, batches, queries and transaction calls, and returns
+     * {@link #rows} for every query and 42 for every generated key.
+     */
+    private static final class FakeConnection {
+
+        final List<String> log = new ArrayList<>();
+        final List<Integer> fetchSizes = new ArrayList<>();
+        List<Object[]> rows = List.of();
+        boolean autoCommit = true;
+
+        DataSource dataSource() {
+            return proxy(DataSource.class, (method, args) -> method.getName().equals("getConnection") ? proxy() : null);
+        }
+
+        Connection proxy() {
+            return proxy(Connection.class, (method, args) -> switch (method.getName()) {
+                case "getAutoCommit" -> autoCommit;
+                case "setAutoCommit" -> {
+                    autoCommit = (Boolean) args[0];
+                    yield null;
+                }
+                case "prepareStatement" -> {
+                    String sql = (String) args[0];
+                    String keys = args.length == 2 ? " returning " + Arrays.toString((String[]) args[1]) : "";
+                    log.add("prepare " + sql + keys);
+                    yield statement(sql);
+                }
+                case "commit", "rollback" -> {
+                    log.add(method.getName());
+                    yield null;
+                }
+                case "close" -> {
+                    log.add("close connection");
+                    yield null;
+                }
+                default -> null;
+            });
+        }
+
+        private PreparedStatement statement(String sql) {
+            int[] batched = new int[1];
+            return proxy(PreparedStatement.class, (method, args) -> switch (method.getName()) {
+                case "addBatch" -> {
+                    batched[0]++;
+                    yield null;
+                }
+                case "executeBatch" -> {
+                    log.add("batch " + batched[0] + " " + sql);
+                    int[] counts = new int[batched[0]];
+                    batched[0] = 0;
+                    yield counts;
+                }
+                case "clearBatch" -> {
+                    log.add("clear " + sql);
+                    batched[0] = 0;
+                    yield null;
+                }
+                case "executeUpdate" -> 1;
+                case "setFetchSize" -> {
+                    fetchSizes.add((Integer) args[0]);
+                    yield null;
+                }
+                case "executeQuery" -> {
+                    log.add("query " + sql);
+                    yield resultSet(rows);
+                }
+                case "getGeneratedKeys" -> resultSet(List.<Object[]>of(new Object[] {42L}));
+                case "close" -> {
+                    log.add("close " + sql);
+                    yield null;
+                }
+                default -> null;
+            });
+        }
+
+        private ResultSet resultSet(List<Object[]> rows) {
+            int[] position = {-1};
+            return proxy(ResultSet.class, (method, args) -> switch (method.getName()) {
+                case "next" -> ++position[0] < rows.size();
+                case "getString" -> (String) rows.get(position[0])[(Integer) args[0] - 1];
+                case "getLong" -> (Long) rows.get(position[0])[(Integer) args[0] - 1];
+                case "wasNull" -> false;
+                default -> null;
+            });
+        }
+
+        private static <T> T proxy(Class<T> type, Handler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    (proxy, method, args) -> handler.handle(method, args == null ? new Object[0] : args)));
+        }
+
+        private interface Handler {
+
+            Object handle(Method method, Object[] args) throws Throwable;
+        }
+    }
+}
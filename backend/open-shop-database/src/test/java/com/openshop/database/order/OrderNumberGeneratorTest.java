@@ -0,0 +1,123 @@
+package com.openshop.database.order;
+
+import com.openshop.database.order.OrderNumberSequence.Block;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests block hand-out and formatting against an in-memory sequence that behaves like
+ * {@code order_number_seq} with {@code INCREMENT BY 100}.
+ */
+class OrderNumberGeneratorTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-15T10:15:30Z"), ZoneOffset.UTC);
+
+    @Test
+    void shouldFormatLikeTheDatabaseFunction() {
+        assertThat(OrderNumberGenerator.format(LocalDate.of(2025, 1, 15), 42)).isEqualTo("ORD-20250115-000042");
+        assertThat(OrderNumberGenerator.format(LocalDate.of(2025, 1, 15), 1_234_567)).isEqualTo("ORD-20250115-1234567");
+    }
+
+    @Test
+    void shouldHandOutABlockPerRoundTrip() throws Exception {
+        FakeSequence sequence = new FakeSequence(100);
+        OrderNumberGenerator generator = new OrderNumberGenerator(sequence, CLOCK);
+
+        assertThat(generator.next()).isEqualTo("ORD-20250115-000001");
+        for (int i = 0; i < 99; i++) {
+            generator.nextValue();
+        }
+        assertThat(sequence.allocations()).isEqualTo(1);
+        assertThat(generator.nextValue()).isEqualTo(101);
+        assertThat(sequence.allocations()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldStayUniqueAcrossConcurrentNodes() throws Exception {
+        FakeSequence sequence = new FakeSequence(100);
+        List<OrderNumberGenerator> nodes = List.of(
+                new OrderNumberGenerator(sequence, CLOCK),
+                new OrderNumberGenerator(sequence, CLOCK),
+                new OrderNumberGenerator(sequence, CLOCK));
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+
+        try (ExecutorService checkouts = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 30_000; i++) {
+                OrderNumberGenerator node = nodes.get(i % nodes.size());
+                checkouts.submit(() -> {
+                    if (!numbers.add(node.next())) {
+                        duplicates.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            checkouts.shutdown();
+            assertThat(checkouts.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+
+        assertThat(duplicates.get()).isZero();
+        assertThat(numbers).hasSize(30_000);
+        // At most one partially used block per node
+        assertThat(sequence.allocations()).isLessThanOrEqualTo(300 + nodes.size());
+    }
+
+    @Test
+    void shouldSkipPastImportedNumbers() throws Exception {
+        FakeSequence sequence = new FakeSequence(100);
+        OrderNumberGenerator generator = new OrderNumberGenerator(sequence, CLOCK);
+
+        generator.skipPast(250);
+        assertThat(generator.nextValue()).isEqualTo(251);
+
+        generator.skipPast(400);
+        assertThat(generator.nextValue()).isEqualTo(401);
+    }
+
+    @Test
+    void shouldRejectASequenceValueThatDoesNotStartABlock() throws Exception {
+        assertThat(JdbcOrderNumberSequence.block(201)).isEqualTo(new Block(201, 100));
+
+        // What order_number_seq returns after an ALTER SEQUENCE ... INCREMENT BY 50 following 201
+        assertThatThrownBy(() -> JdbcOrderNumberSequence.block(251))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("does not start a block of 100");
+    }
+
+    private static final class FakeSequence implements OrderNumberSequence {
+
+        private final AtomicLong next = new AtomicLong(1);
+        private final AtomicInteger allocations = new AtomicInteger();
+        private final int increment;
+
+        FakeSequence(int increment) {
+            this.increment = increment;
+        }
+
+        int allocations() {
+            return allocations.get();
+        }
+
+        @Override
+        public Block allocate() {
+            allocations.incrementAndGet();
+            return new Block(next.getAndAdd(increment), increment);
+        }
+    }
+}
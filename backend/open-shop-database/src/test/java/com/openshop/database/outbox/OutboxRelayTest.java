@@ -0,0 +1,222 @@
+package com.openshop.database.outbox;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests batching, per-aggregate ordering across concurrent claims and redelivery after failures
+ * against an in-memory outbox.
+ */
+class OutboxRelayTest {
+
+    private final FakeStore store = new FakeStore();
+    private final InMemoryOutboxSink sink = new InMemoryOutboxSink();
+
+    @Test
+    void shouldDeliverInIdOrderAndRemoveDeliveredEvents() throws Exception {
+        UUID product = UUID.randomUUID();
+        UUID order = UUID.randomUUID();
+        store.write(OutboxEventType.CATALOG, product);
+        store.write(OutboxEventType.ORDER_STATUS, order);
+        store.write(OutboxEventType.PRICE, product);
+
+        int delivered = relay(10).drainAll();
+
+        assertThat(delivered).isEqualTo(3);
+        assertThat(sink.events()).extracting(OutboxEvent::id).containsExactly(1L, 2L, 3L);
+        assertThat(store.pending).isEmpty();
+    }
+
+    @Test
+    void shouldDeliverInBatchesOfAtMostMaxBatch() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            store.write(OutboxEventType.STOCK, UUID.randomUUID());
+        }
+        OutboxRelay relay = relay(3);
+
+        assertThat(relay.drain()).isEqualTo(3);
+        assertThat(relay.drainAll()).isEqualTo(4);
+        assertThat(relay.delivered()).isEqualTo(7L);
+    }
+
+    @Test
+    void shouldHoldBackAggregatesWithAnEarlierEventClaimedElsewhere() throws Exception {
+        UUID busy = UUID.randomUUID();
+        UUID idle = UUID.randomUUID();
+        store.write(OutboxEventType.CATALOG, busy);
+        store.write(OutboxEventType.PRICE, busy);
+        store.write(OutboxEventType.CATALOG, idle);
+
+        try (OutboxStore.Claim other = store.claim(1)) {
+            assertThat(other.events()).extracting(OutboxEvent::id).containsExactly(1L);
+
+            assertThat(relay(10).drain()).isEqualTo(1);
+            assertThat(sink.events()).extracting(OutboxEvent::aggregateId).containsExactly(idle);
+        }
+
+        relay(10).drainAll();
+
+        assertThat(sink.events(busy)).extracting(OutboxEvent::id).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void shouldRedeliverTheBatchWhenASinkFails() throws Exception {
+        store.write(OutboxEventType.ORDER_STATUS, UUID.randomUUID());
+        store.write(OutboxEventType.ORDER_STATUS, UUID.randomUUID());
+        List<Integer> attempts = new ArrayList<>();
+        OutboxSink flaky = events -> {
+            attempts.add(events.size());
+            if (attempts.size() == 1) {
+                throw new IllegalStateException("broker unavailable");
+            }
+        };
+        OutboxRelay relay = new OutboxRelay(store, List.of(sink, flaky), 10);
+
+        assertThatThrownBy(relay::drain).isInstanceOf(IllegalStateException.class);
+        assertThat(store.pending).hasSize(2);
+        assertThat(store.locked).isEmpty();
+
+        assertThat(relay.drainAll()).isEqualTo(2);
+        assertThat(attempts).containsExactly(2, 2);
+        assertThat(sink.events()).hasSize(4);
+        assertThat(store.pending).isEmpty();
+    }
+
+    @Test
+    void shouldKeepEachAggregateInOrderAcrossParallelWorkers() throws Exception {
+        List<UUID> aggregates = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            aggregates.add(UUID.randomUUID());
+        }
+        for (int i = 0; i < 400; i++) {
+            store.write(OutboxEventType.STOCK, aggregates.get(i % 7 % aggregates.size()));
+        }
+        OutboxRelay relay = relay(16);
+
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        try {
+            while (!store.pending.isEmpty()) {
+                List<Future<Integer>> rounds = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    rounds.add(workers.submit(relay::drain));
+                }
+                for (Future<Integer> round : rounds) {
+                    round.get();
+                }
+            }
+        } finally {
+            workers.shutdown();
+        }
+
+        assertThat(sink.events()).hasSize(400);
+        for (UUID aggregate : aggregates) {
+            List<Long> ids = sink.events(aggregate).stream().map(OutboxEvent::id).toList();
+            assertThat(ids).isEqualTo(ids.stream().sorted().toList());
+        }
+    }
+
+    @Test
+    void shouldRejectARelayWithoutSinks() {
+        assertThatThrownBy(() -> new OutboxRelay(store, List.of(), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private OutboxRelay relay(int maxBatch) {
+        return new OutboxRelay(store, List.of(sink), maxBatch);
+    }
+
+    /**
+     * Outbox rows with row locks: a claim takes the oldest unlocked rows, as
+     * {@code FOR UPDATE SKIP LOCKED} does, and other claims still see locked rows.
+     */
+    static final class FakeStore implements OutboxStore {
+
+        final TreeMap<Long, OutboxEvent> pending = new TreeMap<>();
+        final Set<Long> locked = new HashSet<>();
+        private long nextId = 1;
+
+        synchronized void write(OutboxEventType type, UUID aggregateId) {
+            long id = nextId++;
+            pending.put(id, new OutboxEvent(id, type, aggregateId, null, Instant.EPOCH));
+        }
+
+        @Override
+        public synchronized Claim claim(int limit) {
+            List<OutboxEvent> events = new ArrayList<>();
+            for (OutboxEvent event : pending.values()) {
+                if (events.size() == limit) {
+                    break;
+                }
+                if (locked.add(event.id())) {
+                    events.add(event);
+                }
+            }
+            return new FakeClaim(events);
+        }
+
+        private final class FakeClaim implements Claim {
+
+            private final List<OutboxEvent> events;
+
+            FakeClaim(List<OutboxEvent> events) {
+                this.events = events;
+            }
+
+            @Override
+            public List<OutboxEvent> events() {
+                return events;
+            }
+
+            @Override
+            public Map<UUID, Long> earliest(Collection<UUID> aggregateIds) {
+                synchronized (FakeStore.this) {
+                    Map<UUID, Long> earliest = new HashMap<>();
+                    for (OutboxEvent event : pending.values()) {
+                        if (aggregateIds.contains(event.aggregateId())) {
+                            earliest.putIfAbsent(event.aggregateId(), event.id());
+                        }
+                    }
+                    return earliest;
+                }
+            }
+
+            @Override
+            public void complete(Collection<Long> eventIds) throws SQLException {
+                synchronized (FakeStore.this) {
+                    for (long id : eventIds) {
+                        if (!locked.contains(id)) {
+                            throw new SQLException("event " + id + " is not claimed");
+                        }
+                        pending.remove(id);
+                    }
+                }
+            }
+
+            @Override
+            public void close() {
+                synchronized (FakeStore.this) {
+                    for (OutboxEvent event : events) {
+                        locked.remove(event.id());
+                    }
+                }
+            }
+        }
+    }
+}
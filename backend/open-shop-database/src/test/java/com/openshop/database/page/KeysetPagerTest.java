@@ -0,0 +1,93 @@
+package com.openshop.database.page;
+
+import com.openshop.database.Dialect;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests seek predicates per dialect and the cursor format.
+ */
+class KeysetPagerTest {
+
+    private static final Filter ACTIVE = Filter.of("status = ?", "active");
+
+    @Test
+    void shouldSeekWithRowValuesOnPostgreSql() {
+        KeysetPager pager = new KeysetPager(Dialect.POSTGRESQL);
+        SortKey price = Keyset.PRODUCTS.sort("price");
+
+        assertThat(pager.sql(Keyset.PRODUCTS, price, "id, name", ACTIVE, true, false, true))
+                .isEqualTo("SELECT id, name, min_price, id FROM products WHERE (status = ?) AND min_price IS NOT NULL"
+                        + " AND (min_price, id) < (?, ?) ORDER BY min_price DESC, id DESC LIMIT ?");
+        assertThat(pager.sql(Keyset.PRODUCTS, price, "id, name", ACTIVE, false, true, true))
+                .isEqualTo("SELECT id, name, min_price, id FROM products WHERE (status = ?) AND min_price IS NULL"
+                        + " AND id > ? ORDER BY id LIMIT ?");
+    }
+
+    @Test
+    void shouldExpandTheSeekForMySqlAndOracle() {
+        SortKey total = Keyset.ORDERS.sort("totalAmount");
+        String seek = " WHERE total_amount >= ? AND (total_amount > ? OR id > ?) ORDER BY total_amount, id";
+
+        assertThat(new KeysetPager(Dialect.MYSQL).sql(Keyset.ORDERS, total, "id", Filter.NONE, false, false, true))
+                .isEqualTo("SELECT id, total_amount, id FROM orders" + seek + " LIMIT ?");
+        assertThat(new KeysetPager(Dialect.ORACLE).sql(Keyset.ORDERS, total, "id", Filter.NONE, false, false, true))
+                .isEqualTo("SELECT id, total_amount, id FROM orders" + seek + " FETCH FIRST ? ROWS ONLY");
+    }
+
+    @Test
+    void shouldLeaveOutTheTieBreakerOfUniqueSorts() {
+        SortKey number = Keyset.ORDERS.sort("orderNumber");
+
+        assertThat(new KeysetPager(Dialect.POSTGRESQL).sql(Keyset.ORDERS, number, "id", Filter.NONE, true, false,
+                true))
+                .isEqualTo("SELECT id, order_number, id FROM orders WHERE order_number < ?"
+                        + " ORDER BY order_number DESC LIMIT ?");
+    }
+
+    @Test
+    void shouldRoundTripCursors() {
+        PageRequest request = PageRequest.first("price", true, 20);
+        SortKey price = Keyset.PRODUCTS.sort("price");
+        UUID id = UUID.randomUUID();
+
+        String token = new Cursor("products", "price", true, new BigDecimal("19.90"), id).encode(price);
+        Cursor cursor = Cursor.decode(token, Keyset.PRODUCTS, request.after(token));
+        assertThat(cursor.value()).isEqualTo(new BigDecimal("19.90"));
+        assertThat(cursor.id()).isEqualTo(id);
+        assertThat(token).doesNotContain(id.toString()).matches("[A-Za-z0-9_-]+");
+
+        String nulls = new Cursor("products", "price", true, null, id).encode(price);
+        assertThat(Cursor.decode(nulls, Keyset.PRODUCTS, request).value()).isNull();
+
+        SortKey created = Keyset.ORDERS.sort("createdAt");
+        Instant at = Instant.parse("2025-06-15T10:00:00.123456Z");
+        String orders = new Cursor("orders", "createdAt", false, at, id).encode(created);
+        assertThat(Cursor.decode(orders, Keyset.ORDERS, PageRequest.first("createdAt", false, 20)).value())
+                .isEqualTo(at);
+    }
+
+    @Test
+    void shouldRejectCursorsOfAnotherListSortOrDirection() {
+        UUID id = UUID.randomUUID();
+        String token = new Cursor("products", "price", true, new BigDecimal("5"), id)
+                .encode(Keyset.PRODUCTS.sort("price"));
+
+        assertThatThrownBy(() -> Cursor.decode(token, Keyset.PRODUCTS, PageRequest.first("price", false, 20)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("does not belong");
+        assertThatThrownBy(() -> Cursor.decode(token, Keyset.PRODUCTS, PageRequest.first("rating", true, 20)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("does not belong");
+        assertThatThrownBy(() -> Cursor.decode(token, Keyset.ORDERS, PageRequest.first("totalAmount", true, 20)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("does not belong");
+        assertThatThrownBy(() -> Cursor.decode(id.toString(), Keyset.PRODUCTS, PageRequest.first("price", true, 20)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Malformed");
+        assertThatThrownBy(() -> Keyset.PRODUCTS.sort("relevance"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,128 @@
+package com.openshop.database.partition;
+
+import com.openshop.database.partition.PartitionChange.Action;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests partition creation ahead of time and retirement against an in-memory catalog.
+ */
+class PartitionManagerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-06-15T10:15:30Z"), ZoneOffset.UTC);
+
+    @Test
+    void shouldCreateMissingMonthsAhead() throws Exception {
+        FakeCatalog catalog = new FakeCatalog();
+        catalog.add(PartitionedTable.INVENTORY_LOG, "inventory_log_history", null, "2025-06-01");
+        catalog.add(PartitionedTable.INVENTORY_LOG, "inventory_log_p202506", "2025-06-01", "2025-07-01");
+        catalog.add(PartitionedTable.INVENTORY_LOG, "inventory_log_default", null, null);
+
+        PartitionManager manager = new PartitionManager(catalog,
+                List.of(new RetentionPolicy(PartitionedTable.INVENTORY_LOG, 12, false)), 2, CLOCK);
+        List<PartitionChange> changes = manager.maintain();
+
+        assertThat(changes).extracting(PartitionChange::action).containsOnly(Action.CREATED);
+        assertThat(catalog.created).containsExactly(
+                Instant.parse("2025-07-01T00:00:00Z"), Instant.parse("2025-08-01T00:00:00Z"));
+
+        // A second round has nothing left to do
+        assertThat(manager.maintain()).isEmpty();
+    }
+
+    @Test
+    void shouldRetirePartitionsPastTheirRetention() throws Exception {
+        FakeCatalog catalog = new FakeCatalog();
+        catalog.add(PartitionedTable.INVENTORY_LOG, "inventory_log_history", null, "2024-03-01");
+        catalog.add(PartitionedTable.INVENTORY_LOG, "inventory_log_p202403", "2024-03-01", "2024-04-01");
+        catalog.add(PartitionedTable.INVENTORY_LOG, "inventory_log_p202404", "2024-04-01", "2024-05-01");
+        catalog.add(PartitionedTable.INVENTORY_LOG, "inventory_log_p202405", "2024-05-01", "2024-06-01");
+        catalog.add(PartitionedTable.INVENTORY_LOG, "inventory_log_p202506", "2025-06-01", "2025-07-01");
+        catalog.add(PartitionedTable.INVENTORY_LOG, "inventory_log_default", null, null);
+        catalog.add(PartitionedTable.AUDIT_LOG, "p_history", null, "2023-01-01");
+        catalog.add(PartitionedTable.AUDIT_LOG, "p202506", "2025-06-01", "2025-07-01");
+        catalog.add(PartitionedTable.AUDIT_LOG, "p_future", "2025-07-01", null);
+
+        PartitionManager manager = new PartitionManager(catalog, List.of(
+                new RetentionPolicy(PartitionedTable.INVENTORY_LOG, 12, false),
+                new RetentionPolicy(PartitionedTable.AUDIT_LOG, 24, true)), 0, CLOCK);
+        List<PartitionChange> changes = manager.maintain();
+
+        // Twelve whole months before June 2025 start with June 2024
+        assertThat(catalog.dropped).containsExactly(
+                "inventory_log_history", "inventory_log_p202403", "inventory_log_p202404", "inventory_log_p202405");
+        assertThat(catalog.detached).containsExactly("p_history");
+        assertThat(changes).filteredOn(change -> change.action() == Action.DETACHED)
+                .singleElement()
+                .satisfies(change -> assertThat(change.partition().archiveName()).isEqualTo("audit_log_history"));
+        assertThat(catalog.created).isEmpty();
+    }
+
+    @Test
+    void shouldRefuseTablesThatAreNotPartitioned() {
+        PartitionManager manager = new PartitionManager(new FakeCatalog(),
+                List.of(new RetentionPolicy(PartitionedTable.AUDIT_LOG, 24, true)), 3, CLOCK);
+
+        assertThatThrownBy(manager::maintain).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldNameArchivesAfterTheirFirstMonth() {
+        Partition partition = new Partition(PartitionedTable.AUDIT_LOG, "SYS_P1234",
+                Instant.parse("2024-02-01T00:00:00Z"), Instant.parse("2024-03-01T00:00:00Z"));
+
+        assertThat(partition.archiveName()).isEqualTo("audit_log_p202402");
+        assertThatThrownBy(() -> new RetentionPolicy(PartitionedTable.AUDIT_LOG, 0, true))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static final class FakeCatalog implements PartitionCatalog {
+
+        final Map<PartitionedTable, List<Partition>> partitions = new EnumMap<>(PartitionedTable.class);
+        final List<Instant> created = new ArrayList<>();
+        final List<String> dropped = new ArrayList<>();
+        final List<String> detached = new ArrayList<>();
+
+        void add(PartitionedTable table, String name, String from, String to) {
+            partitions.computeIfAbsent(table, t -> new ArrayList<>())
+                    .add(new Partition(table, name, instant(from), instant(to)));
+        }
+
+        @Override
+        public List<Partition> partitions(PartitionedTable table) {
+            return List.copyOf(partitions.getOrDefault(table, List.of()));
+        }
+
+        @Override
+        public void create(PartitionedTable table, Instant from, Instant to) {
+            created.add(from);
+            partitions.get(table).add(new Partition(table, "created", from, to));
+        }
+
+        @Override
+        public void drop(Partition partition) {
+            dropped.add(partition.name());
+            partitions.get(partition.table()).remove(partition);
+        }
+
+        @Override
+        public void detach(Partition partition) {
+            detached.add(partition.name());
+            partitions.get(partition.table()).remove(partition);
+        }
+
+        private static Instant instant(String date) {
+            return date == null ? null : Instant.parse(date + "T00:00:00Z");
+        }
+    }
+}
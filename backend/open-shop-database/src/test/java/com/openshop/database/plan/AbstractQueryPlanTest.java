@@ -0,0 +1,129 @@
+package com.openshop.database.plan;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.DriverManagerDataSource;
+import com.openshop.database.seed.DataGenerator;
+import com.openshop.database.seed.SeedPlan;
+import com.openshop.database.seed.SeedTable;
+import com.openshop.database.seed.SeedTables;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Abstract base class for query plan regression tests.
+ * Deploys the schema, loads the small synthetic data set, refreshes optimizer statistics and
+ * checks that every {@link PlanQuery#hotQueries hot query} uses its index and does not fully
+ * scan a table larger than {@code openshop.plan.fullScanRows} (default 1000) rows.
+ */
+public abstract class AbstractQueryPlanTest {
+
+    protected static final String SCHEMA_NAME = Dialect.SCHEMA_NAME;
+
+    private static final long FULL_SCAN_ROWS = Long.getLong("openshop.plan.fullScanRows", 1_000);
+
+    /**
+     * Returns the JDBC URL for the database connection.
+     */
+    protected abstract String getJdbcUrl();
+
+    /**
+     * Returns the database username.
+     */
+    protected abstract String getUsername();
+
+    /**
+     * Returns the database password.
+     */
+    protected abstract String getPassword();
+
+    /**
+     * Returns whether to create schemas automatically.
+     */
+    protected abstract boolean shouldCreateSchemas();
+
+    /**
+     * Returns the data set to load; small enough for a container, large enough that the
+     * optimizer prefers indexes over scans for selective lookups.
+     */
+    protected SeedPlan getSeedPlan() {
+        return SeedPlan.small();
+    }
+
+    @TestFactory
+    List<DynamicTest> hotQueriesShouldUseTheirIndexes() throws SQLException {
+        Dialect dialect = Dialect.fromJdbcUrl(getJdbcUrl());
+        SeedPlan plan = getSeedPlan();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(getJdbcUrl(), getUsername(), getPassword());
+
+        Flyway.configure()
+                .dataSource(getJdbcUrl(), getUsername(), getPassword())
+                .locations(dialect.migrationLocation("db/migration"))
+                .createSchemas(shouldCreateSchemas())
+                .schemas(SCHEMA_NAME)
+                .load()
+                .migrate();
+
+        List<SeedTable> tables = new SeedTables(plan, dialect, today).tables();
+        new DataGenerator(dataSource, dialect).load(tables);
+        Map<String, Long> tableRows = new HashMap<>();
+        for (SeedTable table : tables) {
+            tableRows.put(table.name().toUpperCase(Locale.ROOT), table.rowCount());
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            gatherStatistics(connection, dialect, tables);
+        }
+
+        PlanExplainer explainer = new PlanExplainer(dialect);
+        return PlanQuery.hotQueries(dialect, plan, today).stream()
+                .map(query -> DynamicTest.dynamicTest(query.name(), () -> {
+                    QueryPlan queryPlan;
+                    try (Connection connection = dataSource.getConnection()) {
+                        queryPlan = explainer.explain(connection, query.sql());
+                    }
+
+                    assertThat(queryPlan.usesIndex(query.expectedIndex()))
+                            .as("'%s' should use %s%n%s%n%s", query.name(), query.expectedIndex(),
+                                    query.sql(), queryPlan.text())
+                            .isTrue();
+
+                    assertThat(queryPlan.fullScans())
+                            .as("'%s' should not fully scan tables over %d rows%n%s", query.name(), FULL_SCAN_ROWS,
+                                    queryPlan.text())
+                            .noneMatch(step -> tableRows.getOrDefault(step.table(), 0L) > FULL_SCAN_ROWS);
+                }))
+                .toList();
+    }
+
+    /**
+     * Refreshes optimizer statistics so plans reflect the loaded data instead of empty tables.
+     */
+    private static void gatherStatistics(Connection connection, Dialect dialect, List<SeedTable> tables)
+            throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            switch (dialect) {
+                case POSTGRESQL -> stmt.execute("ANALYZE");
+                case MYSQL -> {
+                    for (SeedTable table : tables) {
+                        stmt.execute("ANALYZE TABLE " + table.name());
+                    }
+                }
+                case ORACLE -> stmt.execute("BEGIN DBMS_STATS.GATHER_SCHEMA_STATS('" + SCHEMA_NAME + "'); END;");
+            }
+        }
+    }
+}
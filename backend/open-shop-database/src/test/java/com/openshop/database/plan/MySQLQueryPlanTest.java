@@ -0,0 +1,49 @@
+package com.openshop.database.plan;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+
+import static org.testcontainers.containers.wait.strategy.Wait.forListeningPort;
+
+@Testcontainers
+public class MySQLQueryPlanTest extends AbstractQueryPlanTest {
+
+    private static final int DB_PORT = 3306;
+
+    @Container
+    static final GenericContainer<?> mysql = new GenericContainer<>(
+            "mysql:9.0")
+            .withExposedPorts(DB_PORT)
+            .withEnv("MYSQL_ROOT_PASSWORD", "rootpassword")
+            .withEnv("MYSQL_DATABASE", SCHEMA_NAME)
+            .withEnv("MYSQL_USER", "openshop")
+            .withEnv("MYSQL_PASSWORD", "passwordtest")
+            .withCommand("--log-bin-trust-function-creators=1")
+            .waitingFor(forListeningPort())
+            .withStartupTimeout(Duration.ofMinutes(5))
+            .withReuse(false);
+
+    @Override
+    protected String getJdbcUrl() {
+        return "jdbc:mysql://localhost:" + mysql.getMappedPort(DB_PORT) + "/" + SCHEMA_NAME +
+               "?allowPublicKeyRetrieval=true&useSSL=false&rewriteBatchedStatements=true";
+    }
+
+    @Override
+    protected String getUsername() {
+        return "openshop";
+    }
+
+    @Override
+    protected String getPassword() {
+        return "passwordtest";
+    }
+
+    @Override
+    protected boolean shouldCreateSchemas() {
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+package com.openshop.database.plan;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+
+@Testcontainers
+public class OracleQueryPlanTest extends AbstractQueryPlanTest {
+
+    @Container
+    static final GenericContainer<?> oracle = new GenericContainer<>("container-registry.oracle.com/database/free:23.9.0.0-arm64")
+            .withExposedPorts(1521, 5500)
+            .withEnv("ORACLE_PWD", "Test@123")
+            .waitingFor(Wait.forLogMessage(".*DATABASE IS READY TO USE.*", 1))
+            .withStartupTimeout(Duration.ofMinutes(10))
+            .withReuse(false);
+
+    @Override
+    protected String getJdbcUrl() {
+        return "jdbc:oracle:thin:@//localhost:" + oracle.getMappedPort(1521) + "/freepdb1";
+    }
+
+    @Override
+    protected String getUsername() {
+        return "system";
+    }
+
+    @Override
+    protected String getPassword() {
+        return "Test@123";
+    }
+
+    @Override
+    protected boolean shouldCreateSchemas() {
+        return true;
+    }
+}
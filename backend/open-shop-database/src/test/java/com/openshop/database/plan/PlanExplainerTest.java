@@ -0,0 +1,54 @@
+package com.openshop.database.plan;
+
+import com.openshop.database.Dialect;
+import com.openshop.database.seed.SeedPlan;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests plan parsing and the literals the canonical queries are explained with.
+ */
+class PlanExplainerTest {
+
+    @Test
+    void shouldFlattenPostgresPlanTree() {
+        String json = """
+                [{"Plan": {"Node Type": "Nested Loop", "Plan Rows": 12, "Plans": [
+                    {"Node Type": "Bitmap Heap Scan", "Relation Name": "products", "Plan Rows": 400, "Plans": [
+                        {"Node Type": "Bitmap Index Scan", "Index Name": "idx_product_category", "Plan Rows": 400}]},
+                    {"Node Type": "Seq Scan", "Relation Name": "categories", "Plan Rows": 50.5}]}}]
+                """;
+
+        QueryPlan plan = PlanExplainer.fromPostgresJson(json);
+
+        assertThat(plan.steps()).hasSize(4);
+        assertThat(plan.steps().get(2).depth()).isEqualTo(2);
+        assertThat(plan.usesIndex("IDX_PRODUCT_CATEGORY")).isTrue();
+        assertThat(plan.fullScans()).singleElement()
+                .satisfies(step -> assertThat(step.table()).isEqualTo("CATEGORIES"));
+        assertThat(plan.text()).contains("    Bitmap Index Scan using IDX_PRODUCT_CATEGORY (rows=400)");
+    }
+
+    @Test
+    void shouldRenderLiteralsPerDialect() {
+        UUID id = UUID.fromString("0000000a-0000-4000-8000-00000000002a");
+
+        assertThat(Dialect.POSTGRESQL.uuidLiteral(id)).isEqualTo("'0000000a-0000-4000-8000-00000000002a'");
+        assertThat(Dialect.MYSQL.uuidLiteral(id)).isEqualTo("UUID_TO_BIN('0000000a-0000-4000-8000-00000000002a')");
+        assertThat(Dialect.ORACLE.uuidLiteral(id)).isEqualTo("HEXTORAW('0000000A00004000800000000000002A')");
+        assertThat(Dialect.MYSQL.timestampLiteral(Instant.parse("2025-03-01T08:05:00.250Z")))
+                .isEqualTo("TIMESTAMP '2025-03-01 08:05:00'");
+    }
+
+    @Test
+    void shouldCoverTheIndexesOfTheHotQueries() {
+        assertThat(PlanQuery.hotQueries(Dialect.ORACLE, SeedPlan.small(), LocalDate.of(2025, 3, 1)))
+                .extracting(PlanQuery::expectedIndex)
+                .contains("idx_product_category", "idx_order_customer", "idx_log_created", "idx_session_active");
+    }
+}
@@ -0,0 +1,43 @@
+package com.openshop.database.plan;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+
+@Testcontainers
+public class PostgreSQLQueryPlanTest extends AbstractQueryPlanTest {
+
+    @Container
+    static final GenericContainer<?> postgres = new GenericContainer<>("postgres:15")
+            .withExposedPorts(5432)
+            .withEnv("POSTGRES_DB", SCHEMA_NAME)
+            .withEnv("POSTGRES_USER", "openshop")
+            .withEnv("POSTGRES_PASSWORD", "passwordtest")
+            .withEnv("POSTGRES_HOST_AUTH_METHOD", "trust")
+            .waitingFor(Wait.forListeningPort())
+            .withStartupTimeout(Duration.ofMinutes(5))
+            .withReuse(false);
+
+    @Override
+    protected String getJdbcUrl() {
+        return "jdbc:postgresql://localhost:" + postgres.getMappedPort(5432) + "/" + SCHEMA_NAME;
+    }
+
+    @Override
+    protected String getUsername() {
+        return "openshop";
+    }
+
+    @Override
+    protected String getPassword() {
+        return "passwordtest";
+    }
+
+    @Override
+    protected boolean shouldCreateSchemas() {
+        return true;
+    }
+}
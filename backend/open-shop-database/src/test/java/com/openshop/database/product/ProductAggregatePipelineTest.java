@@ -0,0 +1,210 @@
+package com.openshop.database.product;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests coalescing, acknowledgement and rebuild against an in-memory queue and product table.
+ */
+class ProductAggregatePipelineTest {
+
+    @Test
+    void shouldRecomputeEachProductOncePerBurst() throws Exception {
+        FakeStore store = new FakeStore();
+        UUID a = store.product(aggregates(1));
+        UUID b = store.product(aggregates(2));
+        for (int i = 0; i < 500; i++) {
+            store.queue(i % 2 == 0 ? a : b);
+        }
+        store.actual(a, aggregates(7));
+        store.actual(b, aggregates(8));
+
+        ProductAggregatePipeline pipeline = new ProductAggregatePipeline(store, 1_000);
+
+        assertThat(pipeline.drain()).isEqualTo(500);
+        assertThat(store.recomputed).containsExactly(List.of(a, b));
+        assertThat(store.stored.get(a).totalStock()).isEqualTo(7);
+        assertThat(store.stored.get(b).totalStock()).isEqualTo(8);
+        assertThat(store.queue).isEmpty();
+    }
+
+    @Test
+    void shouldWriteOnlyProductsThatChanged() throws Exception {
+        FakeStore store = new FakeStore();
+        UUID unchanged = store.product(aggregates(3));
+        UUID changed = store.product(aggregates(3));
+        store.actual(changed, aggregates(0));
+        store.queue(unchanged);
+        store.queue(changed);
+        // Stock change of a variant deleted before the drain
+        store.queue(null);
+
+        new ProductAggregatePipeline(store, 1_000).drainAll();
+
+        assertThat(store.updated).containsExactly(changed);
+        assertThat(store.stored.get(changed).inStock()).isFalse();
+        assertThat(store.queue).isEmpty();
+    }
+
+    @Test
+    void shouldKeepChangesQueuedWhenTheUpdateFails() throws Exception {
+        FakeStore store = new FakeStore();
+        UUID product = store.product(aggregates(1));
+        store.actual(product, aggregates(2));
+        store.queue(product);
+        store.failUpdates = true;
+
+        ProductAggregatePipeline pipeline = new ProductAggregatePipeline(store, 1_000);
+
+        assertThatThrownBy(pipeline::drain).isInstanceOf(SQLException.class);
+        assertThat(store.queue).hasSize(1);
+
+        store.failUpdates = false;
+        assertThat(pipeline.drain()).isEqualTo(1);
+        assertThat(store.stored.get(product).totalStock()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldDrainInBatchesUntilTheQueueIsEmpty() throws Exception {
+        FakeStore store = new FakeStore();
+        UUID product = store.product(aggregates(1));
+        for (int i = 0; i < 25; i++) {
+            store.queue(product);
+        }
+
+        assertThat(new ProductAggregatePipeline(store, 10).drainAll()).isEqualTo(25);
+        assertThat(store.recomputed).hasSize(3);
+        assertThat(store.queue).isEmpty();
+    }
+
+    @Test
+    void shouldRebuildEveryProductWithoutTouchingTheQueue() throws Exception {
+        FakeStore store = new FakeStore();
+        List<UUID> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID product = store.product(aggregates(0));
+            store.actual(product, aggregates(i));
+            products.add(product);
+        }
+        store.queue(products.getFirst());
+
+        int updated = new ProductAggregatePipeline(store, 2).rebuild();
+
+        // The first product's computed aggregates equal the stored ones
+        assertThat(updated).isEqualTo(4);
+        assertThat(store.recomputed).hasSize(3);
+        assertThat(store.recomputed.stream().flatMap(List::stream)).containsExactlyElementsOf(store.stored.keySet());
+        assertThat(store.queue).hasSize(1);
+    }
+
+    @Test
+    void shouldDrainInTheBackground() throws Exception {
+        FakeStore store = new FakeStore();
+        UUID product = store.product(aggregates(1));
+        store.actual(product, aggregates(5));
+
+        try (ProductAggregatePipeline pipeline = new ProductAggregatePipeline(store, 1_000)) {
+            pipeline.start(Duration.ofMillis(10));
+            store.queue(product);
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (!store.queue.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        assertThat(store.queue).isEmpty();
+        assertThat(store.stored.get(product).totalStock()).isEqualTo(5);
+    }
+
+    private static AggregateStore.Aggregates aggregates(long totalStock) {
+        return new AggregateStore.Aggregates(null, new BigDecimal("9.99"), new BigDecimal("19.99"),
+                new BigDecimal("4.50"), 2, totalStock, totalStock > 0);
+    }
+
+    private static final class FakeStore implements AggregateStore {
+
+        // Stands in for a stock change of a deleted variant; the queue map takes no null values
+        private static final UUID DELETED_VARIANT = new UUID(0, 0);
+
+        private final AtomicLong sequence = new AtomicLong();
+        final Map<Long, UUID> queue = new ConcurrentSkipListMap<>();
+        final TreeMap<UUID, Aggregates> stored = new TreeMap<>();
+        final Map<UUID, Aggregates> actual = new HashMap<>();
+        final List<List<UUID>> recomputed = new ArrayList<>();
+        final List<UUID> updated = new ArrayList<>();
+        volatile boolean failUpdates;
+
+        synchronized UUID product(Aggregates aggregates) {
+            UUID id = UUID.randomUUID();
+            stored.put(id, withId(aggregates, id));
+            actual.put(id, withId(aggregates, id));
+            return id;
+        }
+
+        synchronized void actual(UUID product, Aggregates aggregates) {
+            actual.put(product, withId(aggregates, product));
+        }
+
+        void queue(UUID product) {
+            queue.put(sequence.incrementAndGet(), product == null ? DELETED_VARIANT : product);
+        }
+
+        @Override
+        public List<QueuedChange> pending(int limit) {
+            return queue.entrySet().stream()
+                    .limit(limit)
+                    .map(e -> new QueuedChange(e.getKey(), e.getValue() == DELETED_VARIANT ? null : e.getValue()))
+                    .toList();
+        }
+
+        @Override
+        public synchronized int refresh(Collection<UUID> productIds, Collection<Long> changeIds)
+                throws SQLException {
+            if (failUpdates) {
+                throw new SQLException("Connection reset");
+            }
+            if (!productIds.isEmpty()) {
+                recomputed.add(List.copyOf(productIds));
+            }
+            int written = 0;
+            for (UUID id : productIds) {
+                Aggregates computed = actual.get(id);
+                if (stored.containsKey(id) && !stored.get(id).sameAs(computed)) {
+                    stored.put(id, computed);
+                    updated.add(id);
+                    written++;
+                }
+            }
+            changeIds.forEach(queue::remove);
+            return written;
+        }
+
+        @Override
+        public synchronized List<UUID> products(UUID after, int limit) {
+            return (after == null ? stored.keySet() : stored.tailMap(after, false).keySet())
+                    .stream()
+                    .limit(limit)
+                    .toList();
+        }
+
+        private static Aggregates withId(Aggregates aggregates, UUID id) {
+            return new Aggregates(id, aggregates.minPrice(), aggregates.maxPrice(), aggregates.avgRating(),
+                    aggregates.reviewCount(), aggregates.totalStock(), aggregates.inStock());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.openshop.database.purge;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests batching, batch sizing, conflict handling and totals against an in-memory store.
+ */
+class PurgerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-06-15T10:15:30Z"), ZoneOffset.UTC);
+    // Batches are far faster than the target, so every batch doubles the next; no pauses
+    private static final PurgePacing FAST = new PurgePacing(10, 80, Duration.ofMinutes(1), 1.0);
+
+    @Test
+    void shouldDeleteInGrowingBatchesUntilNothingIsLeft() throws Exception {
+        FakeStore store = new FakeStore();
+        store.rows.put(PurgeTarget.EXPIRED_CARTS, 300);
+
+        Purger purger = new Purger(store, List.of(new PurgePolicy(PurgeTarget.EXPIRED_CARTS, Duration.ofDays(1))),
+                FAST, CLOCK);
+        List<PurgeResult> results = purger.purge();
+
+        assertThat(store.limits).containsExactly(10, 20, 40, 80, 80, 80, 80);
+        assertThat(store.cutoffs).containsOnly(Instant.parse("2025-06-14T10:15:30Z"));
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result.rows()).isEqualTo(300);
+            assertThat(result.childRows()).isEqualTo(600);
+            assertThat(result.batches()).isEqualTo(6);
+            assertThat(result.batchSize()).isEqualTo(80);
+        });
+    }
+
+    @Test
+    void shouldStopWhenOnlyLockedRowsAreLeft() throws Exception {
+        FakeStore store = new FakeStore();
+        store.rows.put(PurgeTarget.EXPIRED_SESSIONS, 25);
+        store.locked = 5;
+
+        Purger purger = new Purger(store, List.of(new PurgePolicy(PurgeTarget.EXPIRED_SESSIONS, Duration.ZERO)),
+                FAST, CLOCK);
+
+        assertThat(purger.purge()).singleElement().extracting(PurgeResult::rows).isEqualTo(20L);
+        assertThat(store.rows).containsEntry(PurgeTarget.EXPIRED_SESSIONS, 5);
+    }
+
+    @Test
+    void shouldRetryLockConflictsAtTheSmallestBatchSize() throws Exception {
+        FakeStore store = new FakeStore();
+        store.rows.put(PurgeTarget.PASSWORD_RESET_TOKENS, 100);
+        store.failures.add(null);
+        store.failures.add(null);
+        store.failures.add(new SQLException("Deadlock found when trying to get lock", "40001", 1213));
+
+        Purger purger = new Purger(store, List.of(new PurgePolicy(PurgeTarget.PASSWORD_RESET_TOKENS,
+                Duration.ofDays(1))), FAST, CLOCK);
+        PurgeResult result = purger.purge().getFirst();
+
+        assertThat(result.rows()).isEqualTo(100);
+        assertThat(result.conflicts()).isEqualTo(1);
+        assertThat(store.limits).startsWith(10, 20, 40, 10, 20);
+    }
+
+    @Test
+    void shouldLeaveATargetAfterRepeatedConflicts() throws Exception {
+        FakeStore store = new FakeStore();
+        store.rows.put(PurgeTarget.EXPIRED_SESSIONS, 100);
+        store.rows.put(PurgeTarget.PASSWORD_RESET_TOKENS, 100);
+        for (int i = 0; i < 3; i++) {
+            store.failures.add(new SQLException("Lock wait timeout exceeded", "HY000", 1205));
+        }
+
+        Purger purger = new Purger(store, List.of(new PurgePolicy(PurgeTarget.EXPIRED_SESSIONS, Duration.ZERO),
+                new PurgePolicy(PurgeTarget.PASSWORD_RESET_TOKENS, Duration.ZERO)), FAST, CLOCK);
+        List<PurgeResult> results = purger.purge();
+
+        assertThat(results.get(0).rows()).isZero();
+        assertThat(results.get(0).conflicts()).isEqualTo(3);
+        assertThat(results.get(1).rows()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldPropagateOtherErrors() {
+        FakeStore store = new FakeStore();
+        store.rows.put(PurgeTarget.EXPIRED_SESSIONS, 100);
+        store.failures.add(new SQLException("relation \"user_sessions\" does not exist", "42P01"));
+
+        Purger purger = new Purger(store, PurgePolicy.defaults(), FAST, CLOCK);
+
+        assertThatThrownBy(purger::purge).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void shouldAddUpTotalsAcrossRounds() throws Exception {
+        FakeStore store = new FakeStore();
+        Purger purger = new Purger(store, List.of(new PurgePolicy(PurgeTarget.EMAIL_VERIFICATION_TOKENS,
+                Duration.ofDays(7))), FAST, CLOCK);
+
+        store.rows.put(PurgeTarget.EMAIL_VERIFICATION_TOKENS, 30);
+        purger.purge();
+        store.rows.put(PurgeTarget.EMAIL_VERIFICATION_TOKENS, 50);
+        purger.purge();
+
+        assertThat(purger.totals()).singleElement().satisfies(total -> {
+            assertThat(total.rows()).isEqualTo(80);
+            assertThat(total.batches()).isEqualTo(4);
+        });
+        // The second round starts at the size the first one reached
+        assertThat(store.limits).containsExactly(10, 20, 40, 40, 80, 80);
+    }
+
+    private static final class FakeStore implements PurgeStore {
+
+        final Map<PurgeTarget, Integer> rows = new EnumMap<>(PurgeTarget.class);
+        final List<Integer> limits = new ArrayList<>();
+        final List<Instant> cutoffs = new ArrayList<>();
+        // Failure per call in order, null for a call that succeeds
+        final List<SQLException> failures = new ArrayList<>();
+        int locked;
+
+        @Override
+        public Batch deleteBatch(PurgeTarget target, Instant cutoff, int limit) throws SQLException {
+            limits.add(limit);
+            cutoffs.add(cutoff);
+            if (!failures.isEmpty()) {
+                SQLException failure = failures.removeFirst();
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+            int left = rows.getOrDefault(target, 0);
+            int candidates = Math.min(left, limit);
+            int deleted = Math.min(candidates, left - locked);
+            rows.put(target, left - deleted);
+            // Every cart has two items
+            return new Batch(candidates, deleted, target.childTable() == null ? 0 : deleted * 2);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.openshop.database.routing;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests routing, lag ejection and read-your-writes against replicas that apply heartbeats after a
+ * configurable delay.
+ */
+class RoutingDataSourceTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-15T10:00:00Z"));
+    private final FakeStore store = new FakeStore();
+    private final DataSource primary = dataSource("primary");
+    private final DataSource east = dataSource("east");
+    private final DataSource west = dataSource("west");
+    private final RoutingDataSource routing = new RoutingDataSource(primary, replicas(east, west), store, "node-1",
+            MAX_LAG, clock);
+
+    @Test
+    void shouldSpreadReadsOverReplicasOnceTheirLagIsKnown() throws Exception {
+        assertThat(routing.route(null)).isSameAs(primary);
+
+        routing.heartbeat();
+
+        assertThat(List.of(routing.route(null), routing.route(null), routing.route(null)))
+                .containsExactly(west, east, west);
+        assertThat(routing.getConnection().toString()).isEqualTo("primary");
+        assertThat(routing.replicaReads().getConnection().toString()).isEqualTo("east");
+        assertThat(store.beats).containsExactly(clock.instant());
+    }
+
+    @Test
+    void shouldEjectLaggingSilentAndFailingReplicasUntilTheyCatchUp() throws Exception {
+        store.delays.put(west, Duration.ofSeconds(3));
+        routing.heartbeat();
+        for (int second = 1; second <= 6; second++) {
+            clock.advance(Duration.ofSeconds(1));
+            routing.heartbeat();
+        }
+        assertThat(routing.replicas()).extracting(ReplicaStatus::routable).containsExactly(true, true);
+
+        store.delays.put(west, Duration.ofSeconds(6));
+        clock.advance(Duration.ofSeconds(1));
+        routing.heartbeat();
+        assertThat(routing.replicas()).extracting(ReplicaStatus::routable).containsExactly(true, false);
+        assertThat(routing.route(null)).isSameAs(east);
+        assertThat(routing.route(null)).isSameAs(east);
+
+        store.failing.add(east);
+        clock.advance(Duration.ofSeconds(1));
+        assertThatThrownBy(routing::heartbeat).isInstanceOf(SQLException.class)
+                .hasMessageContaining("replica-0");
+        assertThat(routing.route(null)).isSameAs(primary);
+
+        store.failing.clear();
+        store.delays.clear();
+        clock.advance(Duration.ofSeconds(1));
+        routing.heartbeat();
+        assertThat(routing.route(null)).isIn(east, west);
+
+        // Without heartbeats the replicas' beats age beyond the maximum lag
+        clock.advance(MAX_LAG.plusSeconds(1));
+        assertThat(routing.route(null)).isSameAs(primary);
+    }
+
+    @Test
+    void shouldKeepASessionOnThePrimaryUntilAReplicaAppliedItsWrites() throws Exception {
+        store.delays.put(east, Duration.ofSeconds(2));
+        store.delays.put(west, Duration.ofSeconds(2));
+        routing.heartbeat();
+        clock.advance(Duration.ofSeconds(3));
+        routing.heartbeat();
+
+        Connection write = routing.writes("cart-1").getConnection();
+        assertThat(write.toString()).isEqualTo("primary");
+        assertThat(routing.route("cart-1")).isSameAs(primary);
+        clock.advance(Duration.ofMillis(500));
+        write.close();
+        Instant written = clock.instant();
+
+        assertThat(routing.route("cart-1")).isSameAs(primary);
+        assertThat(routing.route("cart-2")).isNotSameAs(primary);
+        for (int second = 1; second <= 2; second++) {
+            clock.advance(Duration.ofSeconds(1));
+            routing.heartbeat();
+            assertThat(routing.route("cart-1")).isSameAs(primary);
+        }
+
+        clock.advance(Duration.ofSeconds(1));
+        routing.heartbeat();
+        assertThat(routing.replicas().get(0).lastBeat()).isAfter(written);
+        assertThat(routing.reads("cart-1").getConnection().toString()).isIn("east", "west");
+    }
+
+    @Test
+    void shouldStopTrackingSessionsWhileHeartbeatsFail() throws Exception {
+        routing.heartbeat();
+        routing.writes("cart-1").getConnection().close();
+        assertThat(routing.trackedSessions()).isEqualTo(1);
+
+        store.failing.add(east);
+        clock.advance(MAX_LAG.plusSeconds(1));
+        assertThatThrownBy(routing::heartbeat).isInstanceOf(SQLException.class);
+
+        assertThat(routing.trackedSessions()).isZero();
+    }
+
+    @Test
+    void shouldFallBackToThePrimaryWhenAReplicaRefusesConnections() throws Exception {
+        routing.heartbeat();
+        DataSource down = dataSource(null);
+        RoutingDataSource single = new RoutingDataSource(primary, replicas(down), store, "node-1", MAX_LAG, clock);
+        single.heartbeat();
+
+        assertThat(single.replicaReads().getConnection().toString()).isEqualTo("primary");
+        assertThat(single.replicas()).singleElement().satisfies(status -> assertThat(status.routable()).isFalse());
+    }
+
+    private static Map<String, DataSource> replicas(DataSource... replicas) {
+        Map<String, DataSource> named = new LinkedHashMap<>();
+        for (DataSource replica : replicas) {
+            named.put("replica-" + named.size(), replica);
+        }
+        return named;
+    }
+
+    /**
+     * A data source whose connections print as {@code name}, or that refuses connections when
+     * {@code name} is {@code null}.
+     */
+    private static DataSource dataSource(String name) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[] {DataSource.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getConnection" -> {
+                        if (name == null) {
+                            throw new SQLException("Connection refused");
+                        }
+                        yield Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                                new Class<?>[] {Connection.class},
+                                (connection, call, callArgs) -> call.getName().equals("toString") ? name : null);
+                    }
+                    case "toString" -> name;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    /**
+     * Heartbeats written to the primary, applied by each replica once its delay passed.
+     */
+    private final class FakeStore implements HeartbeatStore {
+
+        final List<Instant> beats = new ArrayList<>();
+        final Map<DataSource, Duration> delays = new HashMap<>();
+        final Set<DataSource> failing = new HashSet<>();
+
+        @Override
+        public void beat(String node, Instant at) {
+            beats.add(at);
+        }
+
+        @Override
+        public Instant lastBeat(DataSource replica, String node) throws SQLException {
+            if (failing.contains(replica)) {
+                throw new SQLException("Replica not answering");
+            }
+            Instant applied = clock.instant().minus(delays.getOrDefault(replica, Duration.ZERO));
+            Instant last = null;
+            for (Instant beat : beats) {
+                if (!beat.isAfter(applied)) {
+                    last = beat;
+                }
+            }
+            return last;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.openshop.database.sales;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests rolling up closed days, backfill and the reports' merge of rollups with the live day
+ * against an in-memory order store.
+ */
+class SalesRollupPipelineTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-10T15:00:00Z");
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+    private static final LocalDate YESTERDAY = TODAY.minusDays(1);
+
+    private final MutableClock clock = new MutableClock(NOW);
+    private final FakeStore store = new FakeStore();
+    private final SalesRollupPipeline pipeline = new SalesRollupPipeline(store, 1_000, clock);
+    private final SalesReports reports = new SalesReports(store, SalesReports.DEFAULT_REVENUE_STATUSES, clock);
+
+    @Test
+    void shouldRecomputeEachClosedDayOncePerDrain() throws Exception {
+        UUID product = store.product("Desk Lamp");
+        for (int i = 0; i < 3; i++) {
+            store.place(at(YESTERDAY, 9 + i), "confirmed", item(product, 1, "20.00"));
+        }
+        store.place(at(TODAY.minusDays(3), 12), "delivered", item(product, 2, "20.00"));
+        store.place(at(TODAY, 8), "confirmed", item(product, 1, "20.00"));
+
+        assertThat(pipeline.drain()).isEqualTo(5);
+
+        assertThat(store.computed).containsExactly(TODAY.minusDays(3), YESTERDAY);
+        assertThat(store.rollups.keySet()).containsExactly(TODAY.minusDays(3), YESTERDAY);
+        assertThat(store.rollups.get(YESTERDAY).statuses()).singleElement()
+                .satisfies(row -> assertThat(row.totals().orders()).isEqualTo(3));
+        assertThat(store.queue).isEmpty();
+    }
+
+    @Test
+    void shouldFollowOrdersChangingStatusOnClosedDays() throws Exception {
+        UUID product = store.product("Desk Lamp");
+        UUID order = store.place(at(YESTERDAY, 10), "confirmed", item(product, 1, "50.00"));
+        store.place(at(YESTERDAY, 11), "shipped", item(product, 1, "30.00"));
+        pipeline.drainAll();
+        assertThat(reports.summary(YESTERDAY, YESTERDAY).orders()).isEqualTo(2);
+
+        store.changeStatus(order, "cancelled");
+        pipeline.drainAll();
+
+        SalesTotals totals = reports.summary(YESTERDAY, YESTERDAY);
+        assertThat(totals.orders()).isEqualTo(1);
+        assertThat(totals.revenue()).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void shouldPlaceItemChangesByTheirOrder() throws Exception {
+        UUID lamp = store.product("Desk Lamp");
+        UUID chair = store.product("Office Chair");
+        UUID order = store.place(at(TODAY.minusDays(2), 10), "processing", item(lamp, 1, "50.00"));
+        pipeline.drainAll();
+        store.computed.clear();
+
+        store.addItem(order, item(chair, 2, "120.00"));
+        // An item change of an order deleted since is covered by the order's own delete
+        UUID deleted = store.place(at(YESTERDAY, 10), "confirmed", item(lamp, 1, "50.00"));
+        store.addItem(deleted, item(chair, 1, "120.00"));
+        store.delete(deleted);
+        pipeline.drainAll();
+
+        assertThat(store.computed).containsExactly(TODAY.minusDays(2), YESTERDAY);
+        assertThat(reports.topProducts(TODAY.minusDays(2), YESTERDAY, ProductMetric.REVENUE, 5))
+                .extracting(ProductSales::name).containsExactly("Office Chair", "Desk Lamp");
+    }
+
+    @Test
+    void shouldRollUpADayOnceItHasClosed() throws Exception {
+        UUID product = store.product("Desk Lamp");
+        store.place(at(TODAY, 23), "confirmed", item(product, 1, "20.00"));
+        pipeline.drainAll();
+        assertThat(store.rollups).isEmpty();
+
+        clock.advance(Duration.ofDays(1));
+
+        assertThat(pipeline.closeRecentDays()).isEqualTo(7);
+        assertThat(store.rollups.get(TODAY).statuses()).hasSize(1);
+        assertThat(pipeline.closeRecentDays()).isZero();
+    }
+
+    @Test
+    void shouldBackfillEveryClosedDaySinceTheFirstOrder() throws Exception {
+        UUID product = store.product("Desk Lamp");
+        store.place(at(TODAY.minusDays(40), 10), "delivered", item(product, 1, "20.00"));
+        store.place(at(TODAY, 10), "confirmed", item(product, 1, "20.00"));
+
+        assertThat(pipeline.rebuild()).isEqualTo(40);
+        assertThat(store.rollups).hasSize(40).doesNotContainKey(TODAY);
+        // Written a month at a time
+        assertThat(store.writes).containsExactly(31, 9);
+        assertThat(new SalesRollupPipeline(new FakeStore(), 1_000, clock).rebuild()).isZero();
+    }
+
+    @Test
+    void shouldMergeRolledUpDaysWithTheLiveDay() throws Exception {
+        UUID product = store.product("Desk Lamp");
+        store.place(at(TODAY.minusDays(2), 10), "delivered", item(product, 1, "40.00"));
+        store.place(at(TODAY.minusDays(2), 11), "pending", item(product, 1, "99.00"));
+        pipeline.rebuild();
+        store.place(at(TODAY, 9), "confirmed", item(product, 2, "10.00"));
+        store.computed.clear();
+
+        List<DailySales> daily = reports.daily(TODAY.minusDays(2), TODAY.plusDays(1));
+
+        assertThat(daily).extracting(DailySales::date)
+                .containsExactly(TODAY.minusDays(2), YESTERDAY, TODAY, TODAY.plusDays(1));
+        assertThat(daily).extracting(day -> day.totals().orders()).containsExactly(1L, 0L, 1L, 0L);
+        assertThat(store.computed).containsExactly(TODAY);
+
+        SalesTotals totals = reports.summary(TODAY.minusDays(2), TODAY);
+        assertThat(totals.revenue()).isEqualByComparingTo("60.00");
+        assertThat(totals.averageOrderValue()).isEqualByComparingTo("30.00");
+        assertThat(totals.profit()).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void shouldRankTopProductsAcrossRollupsAndToday() throws Exception {
+        UUID a = store.product("A");
+        UUID b = store.product("B");
+        UUID c = store.product("C");
+        UUID d = store.product("D");
+        store.place(at(YESTERDAY, 10), "delivered", item(a, 1, "100.00"));
+        store.place(at(YESTERDAY, 11), "delivered", item(b, 1, "90.00"));
+        store.place(at(YESTERDAY, 12), "delivered", item(c, 1, "10.00"));
+        pipeline.rebuild();
+        store.place(at(TODAY, 9), "confirmed", item(b, 1, "50.00"), item(d, 1, "120.00"));
+
+        List<ProductSales> top = reports.topProducts(YESTERDAY, TODAY, ProductMetric.REVENUE, 2);
+
+        assertThat(top).extracting(ProductSales::name).containsExactly("B", "D");
+        assertThat(top.getFirst().revenue()).isEqualByComparingTo("140.00");
+        assertThat(top.getFirst().orders()).isEqualTo(2);
+        assertThat(reports.topProducts(YESTERDAY, TODAY, ProductMetric.ORDER_COUNT, 1))
+                .extracting(ProductSales::productId).containsExactly(b);
+    }
+
+    @Test
+    void shouldRejectInvalidRanges() {
+        assertThatThrownBy(() -> reports.daily(TODAY, YESTERDAY)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reports.topProducts(YESTERDAY, TODAY, ProductMetric.REVENUE, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Instant at(LocalDate day, int hour) {
+        return day.atTime(hour, 0).toInstant(ZoneOffset.UTC);
+    }
+
+    private static Item item(UUID productId, int quantity, String unitPrice) {
+        BigDecimal price = new BigDecimal(unitPrice);
+        return new Item(productId, quantity, price, price.divide(BigDecimal.TWO));
+    }
+
+    private record Item(UUID productId, int quantity, BigDecimal unitPrice, BigDecimal costPrice) {
+    }
+
+    private record Order(UUID id, Instant createdAt, String status, List<Item> items) {
+
+        BigDecimal subtotal() {
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (Item item : items) {
+                subtotal = subtotal.add(item.unitPrice().multiply(BigDecimal.valueOf(item.quantity())));
+            }
+            return subtotal;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    private static final class FakeStore implements SalesStore {
+
+        final Map<UUID, Order> orders = new HashMap<>();
+        final Map<UUID, String> names = new HashMap<>();
+        final TreeMap<Long, QueuedChange> queue = new TreeMap<>();
+        final TreeMap<LocalDate, DayRollup> rollups = new TreeMap<>();
+        final List<LocalDate> computed = new ArrayList<>();
+        final List<Integer> writes = new ArrayList<>();
+        private long nextChangeId = 1;
+
+        UUID product(String name) {
+            UUID id = UUID.randomUUID();
+            names.put(id, name);
+            return id;
+        }
+
+        UUID place(Instant createdAt, String status, Item... items) {
+            UUID id = UUID.randomUUID();
+            orders.put(id, new Order(id, createdAt, status, new ArrayList<>(List.of(items))));
+            enqueue(id, createdAt);
+            return id;
+        }
+
+        void changeStatus(UUID orderId, String status) {
+            Order order = orders.get(orderId);
+            orders.put(orderId, new Order(orderId, order.createdAt(), status, order.items()));
+            enqueue(orderId, order.createdAt());
+        }
+
+        void addItem(UUID orderId, Item item) {
+            orders.get(orderId).items().add(item);
+            enqueue(orderId, null);
+        }
+
+        void delete(UUID orderId) {
+            enqueue(orderId, orders.remove(orderId).createdAt());
+        }
+
+        private void enqueue(UUID orderId, Instant createdAt) {
+            long id = nextChangeId++;
+            queue.put(id, new QueuedChange(id, orderId, createdAt));
+        }
+
+        @Override
+        public List<QueuedChange> pending(int limit) {
+            return queue.values().stream().limit(limit).toList();
+        }
+
+        @Override
+        public Map<UUID, Instant> orderTimes(Collection<UUID> orderIds) {
+            Map<UUID, Instant> times = new HashMap<>();
+            for (UUID id : orderIds) {
+                Order order = orders.get(id);
+                if (order != null) {
+                    times.put(id, order.createdAt());
+                }
+            }
+            return times;
+        }
+
+        @Override
+        public void acknowledge(Collection<Long> changeIds) {
+            changeIds.forEach(queue::remove);
+        }
+
+        @Override
+        public DayRollup compute(LocalDate day) {
+            computed.add(day);
+            Map<String, SalesTotals> totals = new TreeMap<>();
+            Map<List<Object>, ProductRow> products = new LinkedHashMap<>();
+            for (Order order : orders.values()) {
+                if (!LocalDate.ofInstant(order.createdAt(), ZoneOffset.UTC).equals(day)) {
+                    continue;
+                }
+                BigDecimal cost = BigDecimal.ZERO;
+                Set<UUID> counted = new TreeSet<>();
+                for (Item item : order.items()) {
+                    BigDecimal quantity = BigDecimal.valueOf(item.quantity());
+                    BigDecimal itemCost = item.costPrice().multiply(quantity);
+                    cost = cost.add(itemCost);
+                    ProductRow row = new ProductRow(item.productId(), order.status(), item.quantity(),
+                            item.unitPrice().multiply(quantity), itemCost, counted.add(item.productId()) ? 1 : 0);
+                    products.merge(List.of(item.productId(), order.status()), row, (x, y) -> new ProductRow(
+                            x.productId(), x.status(), x.quantity() + y.quantity(), x.revenue().add(y.revenue()),
+                            x.cost().add(y.cost()), x.orders() + y.orders()));
+                }
+                BigDecimal subtotal = order.subtotal();
+                totals.merge(order.status(), new SalesTotals(1, subtotal, subtotal, BigDecimal.ZERO,
+                        BigDecimal.ZERO, BigDecimal.ZERO, cost), SalesTotals::plus);
+            }
+            List<StatusRow> statuses = new ArrayList<>();
+            totals.forEach((status, sum) -> statuses.add(new StatusRow(day, status, sum)));
+            return new DayRollup(day, statuses, new ArrayList<>(products.values()));
+        }
+
+        @Override
+        public void replace(List<DayRollup> days) {
+            if (!days.isEmpty()) {
+                writes.add(days.size());
+            }
+            for (DayRollup day : days) {
+                rollups.put(day.day(), day);
+            }
+        }
+
+        @Override
+        public Set<LocalDate> rolledUpDays(LocalDate from, LocalDate to) {
+            return new TreeSet<>(rollups.subMap(from, true, to, true).keySet());
+        }
+
+        @Override
+        public LocalDate firstOrderDay() {
+            return orders.values().stream().map(Order::createdAt).min(Comparator.naturalOrder())
+                    .map(first -> LocalDate.ofInstant(first, ZoneOffset.UTC)).orElse(null);
+        }
+
+        @Override
+        public List<StatusRow> dailyRows(LocalDate from, LocalDate to, Set<String> statuses) {
+            List<StatusRow> rows = new ArrayList<>();
+            for (DayRollup day : rollups.subMap(from, true, to, true).values()) {
+                day.statuses().stream().filter(row -> statuses.contains(row.status())).forEach(rows::add);
+            }
+            return rows;
+        }
+
+        @Override
+        public List<ProductSales> topProducts(LocalDate from, LocalDate to, Set<String> statuses,
+                                              ProductMetric metric, int limit) {
+            return sales(from, to, statuses).values().stream()
+                    .sorted(Comparator.comparing(metric::of).reversed()).limit(limit).toList();
+        }
+
+        @Override
+        public List<ProductSales> productSales(LocalDate from, LocalDate to, Set<String> statuses,
+                                               Collection<UUID> productIds) {
+            return sales(from, to, statuses).values().stream()
+                    .filter(sales -> productIds.contains(sales.productId())).toList();
+        }
+
+        private Map<UUID, ProductSales> sales(LocalDate from, LocalDate to, Set<String> statuses) {
+            Map<UUID, ProductSales> sales = new HashMap<>();
+            for (DayRollup day : rollups.subMap(from, true, to, true).values()) {
+                for (ProductRow row : day.products()) {
+                    if (statuses.contains(row.status())) {
+                        sales.merge(row.productId(), row.sales(), ProductSales::plus);
+                    }
+                }
+            }
+            return sales;
+        }
+
+        @Override
+        public Map<UUID, String> productNames(Collection<UUID> productIds) {
+            Map<UUID, String> found = new HashMap<>();
+            for (UUID id : productIds) {
+                found.put(id, names.get(id));
+            }
+            return found;
+        }
+    }
+}
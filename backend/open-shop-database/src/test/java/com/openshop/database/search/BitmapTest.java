@@ -0,0 +1,85 @@
+package com.openshop.database.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the compressed bitmap against {@link BitSet} across sparse and dense chunks.
+ */
+class BitmapTest {
+
+    @Test
+    void shouldMatchBitSetAcrossRepresentations() {
+        Random random = new Random(42);
+        Bitmap sparse = new Bitmap();
+        Bitmap dense = new Bitmap();
+        BitSet sparseExpected = new BitSet();
+        BitSet denseExpected = new BitSet();
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(300_000);
+            sparse.add(value);
+            sparseExpected.set(value);
+        }
+        // Over the array limit in the first chunks, so they turn into bits
+        for (int value = 0; value < 200_000; value += 3) {
+            dense.add(value);
+            denseExpected.set(value);
+        }
+
+        assertThat(sparse.cardinality()).isEqualTo(sparseExpected.cardinality());
+        assertThat(dense.cardinality()).isEqualTo(denseExpected.cardinality());
+        assertThat(values(sparse)).isEqualTo(values(sparseExpected));
+        assertThat(values(dense)).isEqualTo(values(denseExpected));
+
+        BitSet and = (BitSet) sparseExpected.clone();
+        and.and(denseExpected);
+        BitSet or = (BitSet) sparseExpected.clone();
+        or.or(denseExpected);
+        assertThat(values(Bitmap.and(sparse, dense))).isEqualTo(values(and));
+        assertThat(Bitmap.andCardinality(sparse, dense)).isEqualTo(and.cardinality());
+        assertThat(Bitmap.andCardinality(dense, dense)).isEqualTo(denseExpected.cardinality());
+        assertThat(values(Bitmap.or(sparse, dense))).isEqualTo(values(or));
+        assertThat(values(Bitmap.or(sparse, sparse))).isEqualTo(values(sparseExpected));
+    }
+
+    @Test
+    void shouldShrinkBackWhenValuesAreRemoved() {
+        Bitmap bitmap = new Bitmap();
+        for (int value = 0; value < 10_000; value++) {
+            bitmap.add(value);
+        }
+        long denseBytes = bitmap.bytes();
+
+        for (int value = 0; value < 10_000; value++) {
+            if (value % 10 != 0) {
+                bitmap.remove(value);
+            }
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(1_000);
+        assertThat(bitmap.contains(9_990)).isTrue();
+        assertThat(bitmap.contains(9_991)).isFalse();
+        assertThat(bitmap.bytes()).isLessThan(denseBytes);
+
+        for (int value = 0; value < 10_000; value += 10) {
+            bitmap.remove(value);
+        }
+        assertThat(bitmap.isEmpty()).isTrue();
+    }
+
+    private static List<Integer> values(Bitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+
+    private static List<Integer> values(BitSet bits) {
+        return bits.stream().boxed().toList();
+    }
+}
@@ -0,0 +1,211 @@
+package com.openshop.database.search;
+
+import com.openshop.database.search.ChangeLog.Change;
+import com.openshop.database.search.FacetSource.Document;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests facet filters, counts and incremental updates against an in-memory catalog.
+ */
+class FacetIndexTest {
+
+    private static final UUID SHIRTS = UUID.randomUUID();
+    private static final UUID JACKETS = UUID.randomUUID();
+    private static final UUID NORDIC = UUID.randomUUID();
+    private static final UUID URBAN = UUID.randomUUID();
+    private static final Facet MATERIAL = Facet.attribute("material");
+    private static final List<Facet> FACETS = List.of(Facet.CATEGORY, Facet.BRAND, Facet.IN_STOCK, Facet.COLOR,
+            Facet.SIZE, MATERIAL);
+
+    private final Clock clock = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void shouldCountEveryFacetOfTheCatalog() throws Exception {
+        FakeSource source = catalog();
+        FacetIndex index = index(source);
+
+        FacetResult result = index.count(FacetQuery.all(), FACETS);
+
+        assertThat(result.total()).isEqualTo(4);
+        assertThat(result.counts(Facet.CATEGORY)).containsExactly(Map.entry(SHIRTS.toString(), 3),
+                Map.entry(JACKETS.toString(), 1));
+        assertThat(result.counts(Facet.IN_STOCK)).containsEntry("true", 3).containsEntry("false", 1);
+        assertThat(result.counts(Facet.COLOR)).containsExactly(Map.entry("blue", 3), Map.entry("red", 2));
+        assertThat(result.counts(MATERIAL)).containsExactly(Map.entry("cotton", 2), Map.entry("linen", 1),
+                Map.entry("wool", 1));
+        assertThat(result.counts(Facet.attribute("fit"))).isEmpty();
+    }
+
+    @Test
+    void shouldCountOtherFacetsWithinTheFilter() throws Exception {
+        FakeSource source = catalog();
+        FacetIndex index = index(source);
+
+        FacetQuery query = FacetQuery.all().inCategories(Set.of(SHIRTS)).with(Facet.COLOR, "red");
+        FacetResult result = index.count(query, FACETS);
+
+        // Red shirts: the cotton one in stock and the linen one sold out
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.counts(MATERIAL)).containsExactly(Map.entry("cotton", 1), Map.entry("linen", 1));
+        assertThat(result.counts(Facet.IN_STOCK)).containsEntry("true", 1).containsEntry("false", 1);
+        // A facet's own selection is left out, so the other colors show what they would add
+        assertThat(result.counts(Facet.COLOR)).containsExactly(Map.entry("blue", 2), Map.entry("red", 2));
+        // No jacket is red
+        assertThat(result.counts(Facet.CATEGORY)).containsOnlyKeys(SHIRTS.toString());
+    }
+
+    @Test
+    void shouldCombineValuesOfOneFacetWithOr() throws Exception {
+        FakeSource source = catalog();
+        FacetIndex index = index(source);
+
+        FacetQuery query = FacetQuery.all().with(MATERIAL, "wool", "linen").inStockOnly();
+
+        assertThat(index.products(query)).containsExactly(source.id("jacket"));
+        assertThat(index.count(query.with(MATERIAL, "cotton", "linen"), FACETS).total()).isEqualTo(2);
+        assertThat(index.count(FacetQuery.all().with(MATERIAL, "silk"), FACETS).total()).isZero();
+    }
+
+    @Test
+    void shouldApplyLoggedChanges() throws Exception {
+        FakeSource source = catalog();
+        FacetIndex index = index(source);
+
+        // Stock runs out, a variant is recolored, a product is deactivated
+        UUID oxford = source.id("oxford");
+        source.put(new Document(oxford, SHIRTS, NORDIC, false, Set.of("green"), Set.of("M"),
+                Map.of("material", Set.of("cotton"))));
+        source.logProduct(oxford);
+        source.remove("jacket");
+        source.logProduct(source.id("jacket"));
+        source.log(new Change(0, null, NORDIC, null));
+
+        assertThat(index.refresh()).isEqualTo(3);
+
+        FacetResult result = index.count(FacetQuery.all(), FACETS);
+        assertThat(result.total()).isEqualTo(3);
+        assertThat(result.counts(Facet.COLOR)).containsOnly(Map.entry("green", 1), Map.entry("blue", 1),
+                Map.entry("red", 1));
+        assertThat(result.counts(Facet.CATEGORY)).containsOnlyKeys(SHIRTS.toString());
+        assertThat(result.counts(MATERIAL)).doesNotContainKey("wool");
+        assertThat(index.products(FacetQuery.all().inStockOnly())).doesNotContain(oxford);
+    }
+
+    @Test
+    void shouldReuseNumbersOfRemovedProducts() throws Exception {
+        FakeSource source = new FakeSource();
+        FacetIndex index = index(source);
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 1_000; i++) {
+                String key = "p" + i;
+                UUID id = source.ids.computeIfAbsent(key, k -> UUID.randomUUID());
+                source.put(new Document(id, SHIRTS, NORDIC, i % 2 == 0, Set.of("c" + round), Set.of(),
+                        Map.of()));
+                source.logProduct(id);
+            }
+            index.refresh();
+        }
+
+        FacetResult result = index.count(FacetQuery.all().inStockOnly(), List.of(Facet.COLOR));
+        assertThat(result.total()).isEqualTo(500);
+        assertThat(result.counts(Facet.COLOR)).containsExactly(Map.entry("c2", 500));
+    }
+
+    private FacetIndex index(FakeSource source) throws SQLException {
+        FacetIndex index = new FacetIndex(source, source, SearchIndex.DEFAULT_CHANGE_RETENTION, clock);
+        index.rebuild();
+        return index;
+    }
+
+    private static FakeSource catalog() {
+        FakeSource source = new FakeSource();
+        source.add("oxford", SHIRTS, NORDIC, true, Set.of("blue", "red"), Set.of("M", "L"),
+                Map.of("material", Set.of("cotton")));
+        source.add("polo", SHIRTS, URBAN, true, Set.of("blue"), Set.of("S"), Map.of("material", Set.of("cotton")));
+        source.add("camp", SHIRTS, URBAN, false, Set.of("red"), Set.of("M"), Map.of("material", Set.of("linen")));
+        source.add("jacket", JACKETS, NORDIC, true, Set.of("blue"), Set.of("L"), Map.of("material", Set.of("wool")));
+        return source;
+    }
+
+    private static final class FakeSource implements FacetSource, ChangeLog {
+
+        final Map<String, UUID> ids = new TreeMap<>();
+        final TreeMap<UUID, Document> catalog = new TreeMap<>();
+        final TreeMap<Long, Change> log = new TreeMap<>();
+        long nextChange = 1;
+
+        void add(String key, UUID category, UUID brand, boolean inStock, Set<String> colors, Set<String> sizes,
+                 Map<String, Set<String>> attributes) {
+            UUID id = UUID.randomUUID();
+            ids.put(key, id);
+            put(new Document(id, category, brand, inStock, colors, sizes, attributes));
+        }
+
+        void put(Document document) {
+            catalog.put(document.productId(), document);
+        }
+
+        void remove(String key) {
+            catalog.remove(ids.get(key));
+        }
+
+        UUID id(String key) {
+            return ids.get(key);
+        }
+
+        void logProduct(UUID productId) {
+            log(new Change(0, productId, null, null));
+        }
+
+        void log(Change change) {
+            long id = nextChange++;
+            log.put(id, new Change(id, change.productId(), change.brandId(), change.tagId()));
+        }
+
+        @Override
+        public List<Document> documents(UUID after, int limit) {
+            Collection<Document> rest = after == null ? catalog.values() : catalog.tailMap(after, false).values();
+            return rest.stream().limit(limit).toList();
+        }
+
+        @Override
+        public List<Document> documents(Collection<UUID> productIds) {
+            return productIds.stream().map(catalog::get).filter(Objects::nonNull).toList();
+        }
+
+        @Override
+        public long latestChange() {
+            return log.isEmpty() ? 0 : log.lastKey();
+        }
+
+        @Override
+        public List<Change> changes(long afterId, int limit) {
+            return log.tailMap(afterId, false).values().stream().limit(limit).toList();
+        }
+
+        @Override
+        public List<Change> changes(Collection<Long> ids) {
+            return ids.stream().map(log::get).filter(Objects::nonNull).toList();
+        }
+
+        @Override
+        public int purgeChanges(Instant before) {
+            return 0;
+        }
+    }
+}
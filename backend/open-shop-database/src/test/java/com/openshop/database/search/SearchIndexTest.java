@@ -0,0 +1,337 @@
+package com.openshop.database.search;
+
+import com.openshop.database.search.ChangeLog.Change;
+import com.openshop.database.search.SearchSource.Document;
+import com.openshop.database.search.SearchSource.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests ranking, filtering and incremental updates of the search index against an in-memory
+ * catalog.
+ */
+class SearchIndexTest {
+
+    private static final UUID AUDIO = UUID.randomUUID();
+    private static final UUID COMPUTERS = UUID.randomUUID();
+    private static final UUID AUDIO_TECH = UUID.randomUUID();
+    private static final UUID SOUND_MAX = UUID.randomUUID();
+    private static final Tag WIRELESS = new Tag(UUID.randomUUID(), "wireless");
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void shouldRankMatchesInTheNameFirst() throws Exception {
+        FakeSource source = new FakeSource();
+        UUID inName = source.put(document("Wireless Headphones", "Over-ear, 30 hours of battery", AUDIO,
+                AUDIO_TECH, "AudioTech", "199.99"));
+        UUID inDescription = source.put(document("Studio Monitor", "Pairs with wireless headphones and speakers",
+                AUDIO, SOUND_MAX, "SoundMax", "99.00"));
+        source.put(document("Wired Headphones", "Classic cable", AUDIO, SOUND_MAX, "SoundMax", "29.00"));
+        SearchIndex index = index(source);
+
+        SearchResult result = index.search(SearchQuery.of("wireless HEADPHONES"));
+
+        // Every term must occur; the wired pair lacks "wireless"
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.hits()).extracting(SearchHit::productId).containsExactly(inName, inDescription);
+        assertThat(result.hits().get(0).score()).isGreaterThan(result.hits().get(1).score());
+    }
+
+    @Test
+    void shouldMatchBrandsTagsAndAttributesWithoutAccents() throws Exception {
+        FakeSource source = new FakeSource();
+        UUID product = source.put(new Document(UUID.randomUUID(), AUDIO, AUDIO_TECH, new BigDecimal("49.90"),
+                "Earbuds", null, null, "AudioTech", List.of("Crème finish"), List.of(WIRELESS)));
+        SearchIndex index = index(source);
+
+        assertThat(index.search(SearchQuery.of("audiotech")).hits()).extracting(SearchHit::productId)
+                .containsExactly(product);
+        assertThat(index.search(SearchQuery.of("wireless creme")).hits()).extracting(SearchHit::productId)
+                .containsExactly(product);
+        assertThat(index.search(SearchQuery.of("  ")).total()).isZero();
+    }
+
+    @Test
+    void shouldFilterByCategoryAndPrice() throws Exception {
+        FakeSource source = new FakeSource();
+        UUID cheap = source.put(document("Headphones Basic", null, AUDIO, SOUND_MAX, "SoundMax", "29.00"));
+        UUID mid = source.put(document("Headphones Plus", null, AUDIO, SOUND_MAX, "SoundMax", "120.50"));
+        UUID unpriced = source.put(document("Headphones Draft", null, AUDIO, SOUND_MAX, "SoundMax", null));
+        UUID other = source.put(document("Headphones Stand", null, COMPUTERS, SOUND_MAX, "SoundMax", "40.00"));
+        SearchIndex index = index(source);
+
+        assertThat(ids(index.search(SearchQuery.of("headphones").inCategories(Set.of(AUDIO)))))
+                .containsExactlyInAnyOrder(cheap, mid, unpriced);
+        assertThat(ids(index.search(SearchQuery.of("headphones")
+                .priceBetween(new BigDecimal("29"), new BigDecimal("120.50")))))
+                .containsExactlyInAnyOrder(cheap, mid, other);
+        assertThat(ids(index.search(SearchQuery.of("headphones").inCategories(Set.of(AUDIO))
+                .priceBetween(new BigDecimal("30"), null))))
+                .containsExactly(mid);
+    }
+
+    @Test
+    void shouldPageThroughHits() throws Exception {
+        FakeSource source = new FakeSource();
+        for (int i = 0; i < 30; i++) {
+            source.put(document("Cable " + i, "cable ".repeat(i + 1), AUDIO, SOUND_MAX, "SoundMax", "5.00"));
+        }
+        SearchIndex index = index(source);
+
+        List<UUID> all = ids(index.search(SearchQuery.of("cable").page(0, 30)));
+        SearchResult second = index.search(SearchQuery.of("cable").page(10, 10));
+
+        assertThat(second.total()).isEqualTo(30);
+        assertThat(ids(second)).containsExactlyElementsOf(all.subList(10, 20));
+    }
+
+    @Test
+    void shouldIntersectRareTermsWithCommonOnesAcrossBlocks() throws Exception {
+        FakeSource source = new FakeSource();
+        List<UUID> rare = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            UUID product = source.put(document(i % 450 == 7 ? "Shirt organic" : "Shirt", null, AUDIO, SOUND_MAX,
+                    "SoundMax", "10.00"));
+            if (i % 450 == 7) {
+                rare.add(product);
+            }
+        }
+        SearchIndex index = index(source);
+
+        assertThat(ids(index.search(SearchQuery.of("organic shirt")))).containsExactlyInAnyOrderElementsOf(rare);
+        assertThat(index.search(SearchQuery.of("shirt")).total()).isEqualTo(2_000);
+    }
+
+    @Test
+    void shouldApplyLoggedChanges() throws Exception {
+        FakeSource source = new FakeSource();
+        UUID renamed = source.put(document("Speaker", null, AUDIO, SOUND_MAX, "SoundMax", "59.00"));
+        UUID tagged = source.put(new Document(UUID.randomUUID(), AUDIO, AUDIO_TECH, null, "Mouse", null, null,
+                "AudioTech", List.of(), List.of(WIRELESS)));
+        UUID removed = source.put(document("Tweeter", null, AUDIO, SOUND_MAX, "SoundMax", "19.00"));
+        SearchIndex index = index(source);
+
+        source.put(document(renamed, "Bluetooth Speaker", AUDIO, SOUND_MAX, "SoundMax", "59.00"));
+        source.logProduct(renamed);
+        source.remove(removed);
+        source.logProduct(removed);
+        // Deleting a tag removes it from its products without a product change on MySQL
+        source.put(new Document(tagged, AUDIO, AUDIO_TECH, null, "Mouse", null, null, "AudioTech", List.of(),
+                List.of()));
+        source.log(new Change(0, null, null, WIRELESS.id()));
+        // A brand rename reaches products through the brand
+        source.put(document(renamed, "Bluetooth Speaker", AUDIO, SOUND_MAX, "Sonority", "59.00"));
+        source.log(new Change(0, null, SOUND_MAX, null));
+
+        assertThat(index.refresh()).isEqualTo(4);
+
+        assertThat(ids(index.search(SearchQuery.of("bluetooth sonority")))).containsExactly(renamed);
+        assertThat(index.search(SearchQuery.of("tweeter")).total()).isZero();
+        assertThat(index.search(SearchQuery.of("wireless")).total()).isZero();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldPickUpChangesCommittedAfterLaterOnes() throws Exception {
+        FakeSource source = new FakeSource();
+        UUID first = source.put(document("Lamp", null, AUDIO, SOUND_MAX, "SoundMax", "15.00"));
+        UUID second = source.put(document("Desk", null, AUDIO, SOUND_MAX, "SoundMax", "150.00"));
+        SearchIndex index = index(source);
+
+        // Change 1 is still open while change 2 commits
+        source.put(document(first, "Reading Lamp", AUDIO, SOUND_MAX, "SoundMax", "15.00"));
+        source.put(document(second, "Standing Desk", AUDIO, SOUND_MAX, "SoundMax", "150.00"));
+        source.reserve(1);
+        source.logProduct(second);
+        index.refresh();
+        assertThat(index.search(SearchQuery.of("reading")).total()).isZero();
+
+        source.commit(1, first);
+        index.refresh();
+        assertThat(ids(index.search(SearchQuery.of("reading")))).containsExactly(first);
+
+        // A rolled back change stops being looked for after the grace period
+        source.reserve(1);
+        source.logProduct(first);
+        index.refresh();
+        clock.advance(Duration.ofSeconds(ChangeFeed.GAP_GRACE_SECONDS + 1));
+        index.refresh();
+        int lookups = source.gapLookups;
+        index.refresh();
+        assertThat(source.gapLookups).isEqualTo(lookups);
+    }
+
+    @Test
+    void shouldKeepResultsAcrossCompaction() throws Exception {
+        FakeSource source = new FakeSource();
+        List<UUID> products = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            products.add(source.put(document("Mug " + i, null, AUDIO, SOUND_MAX, "SoundMax", "8.00")));
+        }
+        SearchIndex index = index(source);
+
+        // Replacing most products leaves enough deleted documents to compact
+        for (int i = 0; i < 900; i++) {
+            source.put(document(products.get(i), "Mug " + i + " ceramic", AUDIO, SOUND_MAX, "SoundMax", "8.00"));
+            source.logProduct(products.get(i));
+        }
+        index.refresh();
+
+        assertThat(index.search(SearchQuery.of("mug")).total()).isEqualTo(1_000);
+        assertThat(index.search(SearchQuery.of("ceramic")).total()).isEqualTo(900);
+        assertThat(ids(index.search(SearchQuery.of("mug 999")))).containsExactly(products.get(999));
+    }
+
+    @Test
+    void shouldRebuildWhenNotRefreshedWithinTheRetention() throws Exception {
+        FakeSource source = new FakeSource();
+        source.put(document("Kettle", null, AUDIO, SOUND_MAX, "SoundMax", "25.00"));
+        SearchIndex index = new SearchIndex(source, source, Duration.ofHours(1), clock);
+
+        // The first refresh builds the index
+        assertThat(index.refresh()).isZero();
+        assertThat(index.size()).isEqualTo(1);
+
+        source.put(document("Toaster", null, AUDIO, SOUND_MAX, "SoundMax", "35.00"));
+        clock.advance(Duration.ofHours(2));
+        index.refresh();
+
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private SearchIndex index(FakeSource source) throws Exception {
+        SearchIndex index = new SearchIndex(source, source, SearchIndex.DEFAULT_CHANGE_RETENTION, clock);
+        index.rebuild();
+        return index;
+    }
+
+    private static Document document(String name, String description, UUID category, UUID brand, String brandName,
+                                     String minPrice) {
+        return document(UUID.randomUUID(), name, description, category, brand, brandName, minPrice);
+    }
+
+    private static Document document(UUID id, String name, UUID category, UUID brand, String brandName,
+                                     String minPrice) {
+        return document(id, name, null, category, brand, brandName, minPrice);
+    }
+
+    private static Document document(UUID id, String name, String description, UUID category, UUID brand,
+                                     String brandName, String minPrice) {
+        return new Document(id, category, brand, minPrice == null ? null : new BigDecimal(minPrice), name, null,
+                description, brandName, List.of(), List.of());
+    }
+
+    private static List<UUID> ids(SearchResult result) {
+        return result.hits().stream().map(SearchHit::productId).toList();
+    }
+
+    private static final class FakeSource implements SearchSource, ChangeLog {
+
+        final TreeMap<UUID, Document> catalog = new TreeMap<>();
+        final TreeMap<Long, Change> log = new TreeMap<>();
+        long nextChange = 1;
+        int gapLookups;
+
+        UUID put(Document document) {
+            catalog.put(document.productId(), document);
+            return document.productId();
+        }
+
+        void remove(UUID productId) {
+            catalog.remove(productId);
+        }
+
+        void logProduct(UUID productId) {
+            log(new Change(0, productId, null, null));
+        }
+
+        void log(Change change) {
+            long id = nextChange++;
+            log.put(id, new Change(id, change.productId(), change.brandId(), change.tagId()));
+        }
+
+        /**
+         * Takes ids for changes of transactions that have not committed.
+         */
+        void reserve(int count) {
+            nextChange += count;
+        }
+
+        void commit(long offset, UUID productId) {
+            long id = nextChange - offset - 1;
+            log.put(id, new Change(id, productId, null, null));
+        }
+
+        @Override
+        public List<Document> documents(UUID after, int limit) {
+            Collection<Document> rest = after == null ? catalog.values() : catalog.tailMap(after, false).values();
+            return rest.stream().limit(limit).toList();
+        }
+
+        @Override
+        public List<Document> documents(Collection<UUID> productIds) {
+            return productIds.stream().map(catalog::get).filter(Objects::nonNull).toList();
+        }
+
+        @Override
+        public long latestChange() {
+            return log.isEmpty() ? 0 : log.lastKey();
+        }
+
+        @Override
+        public List<Change> changes(long afterId, int limit) {
+            return log.tailMap(afterId, false).values().stream().limit(limit).toList();
+        }
+
+        @Override
+        public List<Change> changes(Collection<Long> ids) {
+            gapLookups++;
+            return ids.stream().map(log::get).filter(Objects::nonNull).toList();
+        }
+
+        @Override
+        public int purgeChanges(Instant before) {
+            return 0;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2025-06-15T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
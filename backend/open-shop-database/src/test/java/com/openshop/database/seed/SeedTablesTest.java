@@ -0,0 +1,114 @@
+package com.openshop.database.seed;
+
+import com.openshop.database.Dialect;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that synthetic rows respect the keys and constraints of the schema without a database.
+ */
+class SeedTablesTest {
+
+    private static final SeedPlan PLAN = SeedPlan.small().scaled(0.05);
+
+    private final Map<String, SeedTable> tables = new SeedTables(PLAN, Dialect.POSTGRESQL, LocalDate.of(2025, 6, 1))
+            .tables().stream()
+            .collect(Collectors.toMap(SeedTable::name, Function.identity()));
+
+    @Test
+    void shouldGenerateUniquePrimaryAndCompositeKeys() {
+        assertUnique("inventory_stock", row -> List.of(row[0], row[1], row[2], row[3]));
+        assertUnique("product_reviews", row -> List.of(row[1], row[2]));
+        assertUnique("product_tags", row -> List.of(row[0], row[1]));
+        assertUnique("shopping_cart_items", row -> List.of(row[1], row[3]));
+        assertUnique("orders", row -> row[1]);
+        assertUnique("customers", row -> row[1]);
+        for (SeedTable table : tables.values()) {
+            if (table.columns().get(0).name().equals("id")) {
+                assertUnique(table.name(), row -> row[0]);
+            }
+        }
+    }
+
+    @Test
+    void shouldOnlyReferenceExistingParents() {
+        Set<Object> categories = ids("categories");
+        Set<Object> variants = ids("product_variants");
+        Set<Object> orders = ids("orders");
+
+        rows("products").forEach(row -> assertThat(categories).contains(row[4]));
+        rows("inventory_stock").forEach(row -> assertThat(variants).contains(row[0]));
+        rows("order_items").forEach(row -> {
+            assertThat(orders).contains(row[1]);
+            assertThat(variants).contains(row[3]);
+        });
+    }
+
+    @Test
+    void shouldWriteCategoryParentsBeforeChildren() {
+        Set<Object> written = new HashSet<>();
+        for (Object[] row : rows("categories")) {
+            assertThat(row[3] == null || written.contains(row[3])).isTrue();
+            written.add(row[0]);
+        }
+        assertThat(tables.get("categories").ordered()).isTrue();
+    }
+
+    @Test
+    void shouldRespectCheckConstraints() {
+        rows("inventory_stock").forEach(row -> {
+            assertThat((int) row[7]).isBetween(0, (int) row[6]);
+            assertThat((BigDecimal) row[4]).isPositive();
+        });
+        rows("product_attributes").forEach(row -> assertThat(row[1] == null).isNotEqualTo(row[2] == null));
+        rows("order_items").forEach(row -> assertThat((int) row[12]).isBetween(0, (int) row[4]));
+        rows("products").forEach(row -> assertThat((BigDecimal) row[9]).isLessThanOrEqualTo((BigDecimal) row[10]));
+        rows("inventory_log").forEach(row -> assertThat((int) row[9]).isNotNegative());
+    }
+
+    @Test
+    void shouldLoadParentsInEarlierWaves() {
+        List<List<SeedTable>> waves = DataGenerator.waves(List.copyOf(tables.values()));
+        List<String> loaded = new ArrayList<>();
+        for (List<SeedTable> wave : waves) {
+            for (SeedTable table : wave) {
+                assertThat(loaded).containsAll(table.dependsOn());
+            }
+            wave.forEach(table -> loaded.add(table.name()));
+        }
+        assertThat(loaded).hasSameSizeAs(tables.values());
+    }
+
+    private void assertUnique(String table, Function<Object[], Object> key) {
+        List<Object[]> rows = rows(table);
+        Set<Object> keys = rows.stream().map(key).collect(Collectors.toSet());
+        assertThat(keys).as(table).hasSize(rows.size());
+    }
+
+    private Set<Object> ids(String table) {
+        return rows(table).stream().map(row -> (UUID) row[0]).collect(Collectors.toSet());
+    }
+
+    private List<Object[]> rows(String name) {
+        SeedTable table = tables.get(name);
+        List<Object[]> rows = new ArrayList<>();
+        for (long i = 0; i < table.rowCount(); i++) {
+            Object[] row = new Object[table.columns().size()];
+            table.filler().fill(i, row);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
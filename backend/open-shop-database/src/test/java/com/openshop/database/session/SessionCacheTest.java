@@ -0,0 +1,286 @@
+package com.openshop.database.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests caching, eviction, invalidation and write-behind against an in-memory session store.
+ */
+class SessionCacheTest {
+
+    private static final Instant START = Instant.parse("2025-01-15T10:15:30Z");
+    private static final Duration TTL = Duration.ofMinutes(1);
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    private final MutableClock clock = new MutableClock(START);
+    private final FakeStore store = new FakeStore();
+
+    @Test
+    void shouldServeRepeatedLookupsFromMemory() throws Exception {
+        Session session = store.add(UUID.randomUUID(), START.plus(Duration.ofDays(7)));
+
+        try (SessionCache cache = new SessionCache(store, 100, TTL, NEVER, NEVER, clock)) {
+            for (int i = 0; i < 10; i++) {
+                assertThat(cache.findByAccessTokenHash(session.accessTokenHash())).isEqualTo(session);
+            }
+            assertThat(cache.findByRefreshToken(session.refreshToken())).isEqualTo(session);
+            assertThat(store.reads).hasValue(1);
+
+            // Read again once the TTL has passed
+            clock.advance(TTL);
+            cache.findByAccessTokenHash(session.accessTokenHash());
+            assertThat(store.reads).hasValue(2);
+        }
+    }
+
+    @Test
+    void shouldNotServeASessionPastItsExpiry() throws Exception {
+        Session session = store.add(UUID.randomUUID(), START.plusSeconds(20));
+
+        try (SessionCache cache = new SessionCache(store, 100, TTL, NEVER, NEVER, clock)) {
+            assertThat(cache.findByAccessTokenHash(session.accessTokenHash())).isNotNull();
+            clock.advance(Duration.ofSeconds(20));
+            assertThat(cache.findByAccessTokenHash(session.accessTokenHash())).isNull();
+            assertThat(cache.size()).isZero();
+        }
+    }
+
+    @Test
+    void shouldEvictTheEntriesClosestToExpiryWhenFull() throws Exception {
+        Session soon = store.add(UUID.randomUUID(), START.plusSeconds(10));
+        Session later = store.add(UUID.randomUUID(), START.plus(Duration.ofDays(1)));
+        Session latest = store.add(UUID.randomUUID(), START.plus(Duration.ofDays(2)));
+
+        try (SessionCache cache = new SessionCache(store, 2, TTL, NEVER, NEVER, clock)) {
+            cache.findByAccessTokenHash(soon.accessTokenHash());
+            cache.findByAccessTokenHash(later.accessTokenHash());
+            cache.findByAccessTokenHash(latest.accessTokenHash());
+            assertThat(cache.size()).isLessThanOrEqualTo(2);
+
+            int reads = store.reads.get();
+            cache.findByAccessTokenHash(latest.accessTokenHash());
+            assertThat(store.reads).hasValue(reads);
+            cache.findByAccessTokenHash(soon.accessTokenHash());
+            assertThat(store.reads).hasValue(reads + 1);
+        }
+    }
+
+    @Test
+    void shouldWriteOnlyTheLatestAccessOfEachSession() throws Exception {
+        Session first = store.add(UUID.randomUUID(), START.plus(Duration.ofDays(7)));
+        Session second = store.add(UUID.randomUUID(), START.plus(Duration.ofDays(7)));
+
+        try (SessionCache cache = new SessionCache(store, 100, TTL, NEVER, NEVER, clock)) {
+            for (int i = 0; i < 5; i++) {
+                cache.findByAccessTokenHash(first.accessTokenHash());
+                clock.advance(Duration.ofSeconds(1));
+            }
+            cache.findByRefreshToken(second.refreshToken());
+            cache.flush();
+            cache.flush();
+        }
+
+        assertThat(store.batches).singleElement().satisfies(batch -> assertThat(batch)
+                .containsExactlyInAnyOrder(new SessionStore.Access(first.id(), START.plusSeconds(4)),
+                        new SessionStore.Access(second.id(), START.plusSeconds(5))));
+    }
+
+    @Test
+    void shouldKeepAccessesOfAFailedWriteForTheNextFlush() throws Exception {
+        Session session = store.add(UUID.randomUUID(), START.plus(Duration.ofDays(7)));
+
+        try (SessionCache cache = new SessionCache(store, 100, TTL, NEVER, NEVER, clock)) {
+            cache.findByAccessTokenHash(session.accessTokenHash());
+            store.failWrites = true;
+            assertThatThrownBy(cache::flush).isInstanceOf(SQLException.class);
+            store.failWrites = false;
+        }
+
+        // Written by the final flush on close
+        assertThat(store.batches).singleElement().satisfies(batch -> assertThat(batch)
+                .containsExactly(new SessionStore.Access(session.id(), START)));
+    }
+
+    @Test
+    void shouldForgetASessionOnLogoutAndRevoke() throws Exception {
+        UUID customer = UUID.randomUUID();
+        Session session = store.add(customer, START.plus(Duration.ofDays(7)));
+        Session other = store.add(customer, START.plus(Duration.ofDays(7)));
+
+        try (SessionCache cache = new SessionCache(store, 100, TTL, NEVER, NEVER, clock)) {
+            cache.findByAccessTokenHash(session.accessTokenHash());
+            assertThat(cache.logout(session.accessTokenHash())).isTrue();
+            assertThat(cache.findByAccessTokenHash(session.accessTokenHash())).isNull();
+            assertThat(cache.findByRefreshToken(session.refreshToken())).isNull();
+            assertThat(cache.logout(session.accessTokenHash())).isFalse();
+
+            cache.findByAccessTokenHash(other.accessTokenHash());
+            cache.revokeAll(customer);
+            assertThat(cache.findByAccessTokenHash(other.accessTokenHash())).isNull();
+            assertThat(cache.size()).isZero();
+        }
+
+        // Accesses of revoked sessions are not written
+        assertThat(store.batches).isEmpty();
+    }
+
+    @Test
+    void shouldDropSessionsRevokedOnAnotherNode() throws Exception {
+        UUID customer = UUID.randomUUID();
+        Session session = store.add(customer, START.plus(Duration.ofDays(7)));
+        Session other = store.add(customer, START.plus(Duration.ofDays(7)));
+
+        try (SessionCache node1 = new SessionCache(store, 100, TTL, NEVER, NEVER, clock);
+             SessionCache node2 = new SessionCache(store, 100, TTL, NEVER, Duration.ofMillis(5), clock)) {
+            node2.findByAccessTokenHash(session.accessTokenHash());
+            node2.findByAccessTokenHash(other.accessTokenHash());
+
+            node1.findByAccessTokenHash(session.accessTokenHash());
+            clock.advance(Duration.ofSeconds(1));
+            node1.logout(session.accessTokenHash());
+            await(() -> node2.size() == 1);
+            assertThat(node2.findByAccessTokenHash(session.accessTokenHash())).isNull();
+
+            clock.advance(Duration.ofSeconds(1));
+            node1.revokeAll(customer);
+            await(() -> node2.size() == 0);
+            assertThat(node2.findByAccessTokenHash(other.accessTokenHash())).isNull();
+            assertThat(node2.flusher().failures()).isZero();
+        }
+    }
+
+    @Test
+    void shouldRejectLookupsAfterClose() {
+        SessionCache cache = new SessionCache(store, 100, TTL, NEVER, NEVER, clock);
+        cache.close();
+
+        assertThatThrownBy(() -> cache.findByAccessTokenHash("hash")).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    private final class FakeStore implements SessionStore {
+
+        final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+        final Map<UUID, Instant> revoked = new ConcurrentHashMap<>();
+        final List<List<Access>> batches = new CopyOnWriteArrayList<>();
+        final AtomicInteger reads = new AtomicInteger();
+        volatile boolean failWrites;
+
+        Session add(UUID customerId, Instant expiresAt) {
+            UUID id = UUID.randomUUID();
+            Session session = new Session(id, customerId, "refresh-" + id, "hash-" + id, expiresAt, null);
+            sessions.put(id, session);
+            return session;
+        }
+
+        @Override
+        public Session findByRefreshToken(String refreshToken) {
+            reads.incrementAndGet();
+            return sessions.values().stream()
+                    .filter(session -> session.refreshToken().equals(refreshToken)).findFirst().orElse(null);
+        }
+
+        @Override
+        public Session findByAccessTokenHash(String accessTokenHash) {
+            reads.incrementAndGet();
+            return sessions.values().stream()
+                    .filter(session -> accessTokenHash.equals(session.accessTokenHash())).findFirst().orElse(null);
+        }
+
+        @Override
+        public synchronized void writeAccesses(List<Access> accesses) throws SQLException {
+            if (failWrites) {
+                throw new SQLException("Connection reset");
+            }
+            batches.add(List.copyOf(accesses));
+        }
+
+        @Override
+        public void revoke(UUID sessionId) {
+            if (sessions.remove(sessionId) != null) {
+                revoked.put(sessionId, clock.instant());
+            }
+        }
+
+        @Override
+        public void revokeAll(UUID customerId) {
+            for (Session session : sessions.values()) {
+                if (session.customerId().equals(customerId)) {
+                    revoke(session.id());
+                }
+            }
+        }
+
+        @Override
+        public Instant lastRevocation() {
+            return revoked.values().stream().max(Instant::compareTo).orElse(null);
+        }
+
+        @Override
+        public Revocations revokedSince(Instant since) {
+            List<UUID> sessionIds = new ArrayList<>();
+            Instant newest = null;
+            for (Map.Entry<UUID, Instant> revocation : revoked.entrySet()) {
+                if (revocation.getValue().isAfter(since)) {
+                    sessionIds.add(revocation.getKey());
+                    if (newest == null || revocation.getValue().isAfter(newest)) {
+                        newest = revocation.getValue();
+                    }
+                }
+            }
+            return new Revocations(sessionIds, newest);
+        }
+    }
+}